@@ -45,7 +45,8 @@ public class AvaticaInterface extends QueryInterface {
     @SuppressWarnings("WeakerAccess")
     public static final List<QueryInterfaceSetting> AVAILABLE_SETTINGS = ImmutableList.of(
             new QueryInterfaceSettingInteger( "port", false, true, false, 20591 ),
-            new QueryInterfaceSettingList( "serialization", false, true, false, ImmutableList.of( "PROTOBUF", "JSON" ) )
+            new QueryInterfaceSettingList( "serialization", false, true, false, ImmutableList.of( "PROTOBUF", "JSON" ) ),
+            new QueryInterfaceSettingBoolean( "virtualThreads", false, true, false, false )
     );
 
 
@@ -75,7 +76,7 @@ public AvaticaInterface( TransactionManager transactionManager, Authenticator au
                 serialization,
                 metricsSystemConfiguration );
         try {
-            httpServerDispatcher = new HttpServerDispatcher( port, handler );
+            httpServerDispatcher = new HttpServerDispatcher( port, handler, Boolean.parseBoolean( settings.getOrDefault( "virtualThreads", "false" ) ) );
         } catch ( Exception e ) {
             throw new RuntimeException( "Exception while starting " + INTERFACE_NAME, e );
         }
@@ -246,7 +246,8 @@ private Enumerable<Object> toEnumerable( final List<? extends CatalogObject> ent
     @Override
     public Map<DatabaseProperty, Object> getDatabaseProperties( ConnectionHandle ch ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getDatabaseProperties( ConnectionHandle {} )", ch );
             }
@@ -256,6 +257,8 @@ public Map<DatabaseProperty, Object> getDatabaseProperties( ConnectionHandle ch
 
             log.error( "[NOT IMPLEMENTED YET] getDatabaseProperties( ConnectionHandle {} )", ch );
             return map;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -264,7 +267,8 @@ public Map<DatabaseProperty, Object> getDatabaseProperties( ConnectionHandle ch
     @Override
     public MetaResultSet getTables( final ConnectionHandle ch, final String database, final Pat schemaPattern, final Pat tablePattern, final List<String> typeList ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getTables( ConnectionHandle {}, String {}, Pat {}, Pat {}, List<String> {} )", ch, database, schemaPattern, tablePattern, typeList );
             }
@@ -294,6 +298,8 @@ public MetaResultSet getTables( final ConnectionHandle ch, final String database
                     // Polypheny-DB specific extensions:
                     "OWNER"
             );
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -301,7 +307,8 @@ public MetaResultSet getTables( final ConnectionHandle ch, final String database
     @Override
     public MetaResultSet getColumns( final ConnectionHandle ch, final String database, final Pat schemaPattern, final Pat tablePattern, final Pat columnPattern ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getColumns( ConnectionHandle {}, String {}, Pat {}, Pat {}, Pat {} )", ch, database, schemaPattern, tablePattern, columnPattern );
             }
@@ -339,6 +346,8 @@ public MetaResultSet getColumns( final ConnectionHandle ch, final String databas
                     // Polypheny-DB specific extensions:
                     "COLLATION"
             );
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -346,7 +355,8 @@ public MetaResultSet getColumns( final ConnectionHandle ch, final String databas
     @Override
     public MetaResultSet getSchemas( final ConnectionHandle ch, final String database, final Pat schemaPattern ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getSchemas( ConnectionHandle {}, String {}, Pat {} )", ch, database, schemaPattern );
             }
@@ -367,6 +377,8 @@ public MetaResultSet getSchemas( final ConnectionHandle ch, final String databas
                     "OWNER",
                     "SCHEMA_TYPE"
             );
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -374,7 +386,8 @@ public MetaResultSet getSchemas( final ConnectionHandle ch, final String databas
     @Override
     public MetaResultSet getCatalogs( final ConnectionHandle ch ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getCatalogs( ConnectionHandle {} )", ch );
             }
@@ -391,6 +404,8 @@ public MetaResultSet getCatalogs( final ConnectionHandle ch ) {
                     "OWNER",
                     "DEFAULT_SCHEMA"
             );
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -398,7 +413,8 @@ public MetaResultSet getCatalogs( final ConnectionHandle ch ) {
     @Override
     public MetaResultSet getTableTypes( final ConnectionHandle ch ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getTableTypes( ConnectionHandle {} )", ch );
             }
@@ -415,6 +431,8 @@ public MetaResultSet getTableTypes( final ConnectionHandle ch ) {
                     PrimitiveTableType.class,
                     "TABLE_TYPE"
             );
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -422,13 +440,16 @@ public MetaResultSet getTableTypes( final ConnectionHandle ch ) {
     @Override
     public MetaResultSet getProcedures( final ConnectionHandle ch, final String catalog, final Pat schemaPattern, final Pat procedureNamePattern ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getProcedures( ConnectionHandle {}, String {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, procedureNamePattern );
             }
 
             log.error( "[NOT IMPLEMENTED YET] getProcedures( ConnectionHandle {}, String {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, procedureNamePattern );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -436,13 +457,16 @@ public MetaResultSet getProcedures( final ConnectionHandle ch, final String cata
     @Override
     public MetaResultSet getProcedureColumns( final ConnectionHandle ch, final String catalog, final Pat schemaPattern, final Pat procedureNamePattern, final Pat columnNamePattern ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getProcedureColumns( ConnectionHandle {}, String {}, Pat {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, procedureNamePattern, columnNamePattern );
             }
 
             log.error( "[NOT IMPLEMENTED YET] getProcedureColumns( ConnectionHandle {}, String {}, Pat {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, procedureNamePattern, columnNamePattern );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -450,7 +474,8 @@ public MetaResultSet getProcedureColumns( final ConnectionHandle ch, final Strin
     @Override
     public MetaResultSet getColumnPrivileges( final ConnectionHandle ch, final String catalog, final String schema, final String table, final Pat columnNamePattern ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getColumnPrivileges( ConnectionHandle {}, String {}, String {}, String {}, Pat {} )", ch, catalog, schema, table, columnNamePattern );
             }
@@ -459,6 +484,8 @@ public MetaResultSet getColumnPrivileges( final ConnectionHandle ch, final Strin
 
             log.error( "[NOT IMPLEMENTED YET] getColumnPrivileges( ConnectionHandle {}, String {}, String {}, String {}, Pat {} )", ch, catalog, schema, table, columnNamePattern );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -466,7 +493,8 @@ public MetaResultSet getColumnPrivileges( final ConnectionHandle ch, final Strin
     @Override
     public MetaResultSet getTablePrivileges( final ConnectionHandle ch, final String catalog, final Pat schemaPattern, final Pat tableNamePattern ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getTablePrivileges( ConnectionHandle {}, String {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, tableNamePattern );
             }
@@ -475,6 +503,8 @@ public MetaResultSet getTablePrivileges( final ConnectionHandle ch, final String
 
             log.error( "[NOT IMPLEMENTED YET] getTablePrivileges( ConnectionHandle {}, String {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, tableNamePattern );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -482,13 +512,16 @@ public MetaResultSet getTablePrivileges( final ConnectionHandle ch, final String
     @Override
     public MetaResultSet getBestRowIdentifier( final ConnectionHandle ch, final String catalog, final String schema, final String table, final int scope, final boolean nullable ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getBestRowIdentifier( ConnectionHandle {}, String {}, String {}, String {}, int {}, boolean {} )", ch, catalog, schema, table, scope, nullable );
             }
 
             log.error( "[NOT IMPLEMENTED YET] getBestRowIdentifier( ConnectionHandle {}, String {}, String {}, String {}, int {}, boolean {} )", ch, catalog, schema, table, scope, nullable );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -496,13 +529,16 @@ public MetaResultSet getBestRowIdentifier( final ConnectionHandle ch, final Stri
     @Override
     public MetaResultSet getVersionColumns( final ConnectionHandle ch, final String catalog, final String schema, final String table ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getVersionColumns( ConnectionHandle {}, String {}, String {}, String {} )", ch, catalog, schema, table );
             }
 
             log.error( "[NOT IMPLEMENTED YET] getVersionColumns( ConnectionHandle {}, String {}, String {}, String {} )", ch, catalog, schema, table );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -510,7 +546,8 @@ public MetaResultSet getVersionColumns( final ConnectionHandle ch, final String
     @Override
     public MetaResultSet getPrimaryKeys( final ConnectionHandle ch, final String database, final String schema, final String table ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getPrimaryKeys( ConnectionHandle {}, String {}, String {}, String {} )", ch, database, schema, table );
             }
@@ -539,6 +576,8 @@ public MetaResultSet getPrimaryKeys( final ConnectionHandle ch, final String dat
                     "KEY_SEQ",            // Sequence number within primary key( a value of 1 represents the first column of the primary key, a value of 2 would represent the second column within the primary key).
                     "PK_NAME"             // the name of the primary key --> always null (primary keys have no name in Polypheny-DB)
             );
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -547,7 +586,8 @@ public MetaResultSet getPrimaryKeys( final ConnectionHandle ch, final String dat
     @Override
     public MetaResultSet getImportedKeys( final ConnectionHandle ch, final String database, final String schema, final String table ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getImportedKeys( ConnectionHandle {}, String {}, String {}, String {} )", ch, database, schema, table );
             }
@@ -582,6 +622,8 @@ public MetaResultSet getImportedKeys( final ConnectionHandle ch, final String da
                     "PK_NAME",                // The name of the primary key.
                     "DEFERRABILITY"           // Indicates if the evaluation of the foreign key constraint can be deferred until a commit. --> always null
             );
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -590,7 +632,8 @@ public MetaResultSet getImportedKeys( final ConnectionHandle ch, final String da
     @Override
     public MetaResultSet getExportedKeys( final ConnectionHandle ch, final String database, final String schema, final String table ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getExportedKeys( ConnectionHandle {}, String {}, String {}, String {} )", ch, database, schema, table );
             }
@@ -625,6 +668,8 @@ public MetaResultSet getExportedKeys( final ConnectionHandle ch, final String da
                     "PK_NAME",                // The name of the primary key. --> always null
                     "DEFERRABILITY"           // Indicates if the evaluation of the foreign key constraint can be deferred until a commit.
             );
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -632,7 +677,8 @@ public MetaResultSet getExportedKeys( final ConnectionHandle ch, final String da
     @Override
     public MetaResultSet getCrossReference( final ConnectionHandle ch, final String parentCatalog, final String parentSchema, final String parentTable, final String foreignCatalog, final String foreignSchema, final String foreignTable ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getCrossReference( ConnectionHandle {}, String {}, String {}, String {}, String {}, String {}, String {} )", ch, parentCatalog, parentSchema, parentTable, foreignCatalog, foreignSchema, foreignTable );
             }
@@ -641,6 +687,8 @@ public MetaResultSet getCrossReference( final ConnectionHandle ch, final String
 
             log.error( "[NOT IMPLEMENTED YET] getCrossReference( ConnectionHandle {}, String {}, String {}, String {}, String {}, String {}, String {} )", ch, parentCatalog, parentSchema, parentTable, foreignCatalog, foreignSchema, foreignTable );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -648,7 +696,8 @@ public MetaResultSet getCrossReference( final ConnectionHandle ch, final String
     @Override
     public MetaResultSet getTypeInfo( final ConnectionHandle ch ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getTypeInfo( ConnectionHandle {} )", ch );
             }
@@ -700,6 +749,8 @@ public MetaResultSet getTypeInfo( final ConnectionHandle ch ) {
                     "SQL_DATA_TYPE",       // Not used, always null
                     "SQL_DATETIME_SUB",    // Not used, always null
                     "NUM_PREC_RADIX" );    // The radix
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -707,7 +758,8 @@ public MetaResultSet getTypeInfo( final ConnectionHandle ch ) {
     @Override
     public MetaResultSet getIndexInfo( final ConnectionHandle ch, final String database, final String schema, final String table, final boolean unique, final boolean approximate ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getIndexInfo( ConnectionHandle {}, String {}, String {}, String {}, boolean {}, boolean {} )", ch, database, schema, table, unique, approximate );
             }
@@ -744,6 +796,8 @@ public MetaResultSet getIndexInfo( final ConnectionHandle ch, final String datab
                     "LOCATION",             // On which store the index is located. NULL indicates a Polystore Index.
                     "INDEX_TYPE"            // Polypheny-DB specific index type
             );
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -751,13 +805,16 @@ public MetaResultSet getIndexInfo( final ConnectionHandle ch, final String datab
     @Override
     public MetaResultSet getUDTs( final ConnectionHandle ch, final String catalog, final Pat schemaPattern, final Pat typeNamePattern, final int[] types ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getUDTs( ConnectionHandle {}, String {}, Pat {}, Pat {}, int[] {} )", ch, catalog, schemaPattern, typeNamePattern, types );
             }
 
             log.error( "[NOT IMPLEMENTED YET] getUDTs( ConnectionHandle {}, String {}, Pat {}, Pat {}, int[] {} )", ch, catalog, schemaPattern, typeNamePattern, types );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -765,13 +822,16 @@ public MetaResultSet getUDTs( final ConnectionHandle ch, final String catalog, f
     @Override
     public MetaResultSet getSuperTypes( final ConnectionHandle ch, final String catalog, final Pat schemaPattern, final Pat typeNamePattern ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getSuperTypes( ConnectionHandle {}, String {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, typeNamePattern );
             }
 
             log.error( "[NOT IMPLEMENTED YET] getSuperTypes( ConnectionHandle {}, String {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, typeNamePattern );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -779,13 +839,16 @@ public MetaResultSet getSuperTypes( final ConnectionHandle ch, final String cata
     @Override
     public MetaResultSet getSuperTables( final ConnectionHandle ch, final String catalog, final Pat schemaPattern, final Pat tableNamePattern ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getSuperTables( ConnectionHandle {}, String {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, tableNamePattern );
             }
 
             log.error( "[NOT IMPLEMENTED YET] getSuperTables( ConnectionHandle {}, String {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, tableNamePattern );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -793,13 +856,16 @@ public MetaResultSet getSuperTables( final ConnectionHandle ch, final String cat
     @Override
     public MetaResultSet getAttributes( final ConnectionHandle ch, final String catalog, final Pat schemaPattern, final Pat typeNamePattern, final Pat attributeNamePattern ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getAttributes( ConnectionHandle {}, String {}, Pat {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, typeNamePattern, attributeNamePattern );
             }
 
             log.error( "[NOT IMPLEMENTED YET] getAttributes( ConnectionHandle {}, String {}, Pat {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, typeNamePattern, attributeNamePattern );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -807,13 +873,16 @@ public MetaResultSet getAttributes( final ConnectionHandle ch, final String cata
     @Override
     public MetaResultSet getClientInfoProperties( final ConnectionHandle ch ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getClientInfoProperties( ConnectionHandle {} )", ch );
             }
 
             log.error( "[NOT IMPLEMENTED YET] getClientInfoProperties( ConnectionHandle {} )", ch );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -821,13 +890,16 @@ public MetaResultSet getClientInfoProperties( final ConnectionHandle ch ) {
     @Override
     public MetaResultSet getFunctions( final ConnectionHandle ch, final String catalog, final Pat schemaPattern, final Pat functionNamePattern ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getFunctions( ConnectionHandle {}, String {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, functionNamePattern );
             }
 
             log.error( "[NOT IMPLEMENTED YET] getFunctions( ConnectionHandle {}, String {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, functionNamePattern );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -835,13 +907,16 @@ public MetaResultSet getFunctions( final ConnectionHandle ch, final String catal
     @Override
     public MetaResultSet getFunctionColumns( final ConnectionHandle ch, final String catalog, final Pat schemaPattern, final Pat functionNamePattern, final Pat columnNamePattern ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getFunctionColumns( ConnectionHandle {}, String {}, Pat {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, functionNamePattern, columnNamePattern );
             }
 
             log.error( "[NOT IMPLEMENTED YET] getFunctionColumns( ConnectionHandle {}, String {}, Pat {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, functionNamePattern, columnNamePattern );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -849,13 +924,16 @@ public MetaResultSet getFunctionColumns( final ConnectionHandle ch, final String
     @Override
     public MetaResultSet getPseudoColumns( final ConnectionHandle ch, final String catalog, final Pat schemaPattern, final Pat tableNamePattern, final Pat columnNamePattern ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "getPseudoColumns( ConnectionHandle {}, String {}, Pat {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, tableNamePattern, columnNamePattern );
             }
 
             log.error( "[NOT IMPLEMENTED YET] getPseudoColumns( ConnectionHandle {}, String {}, Pat {}, Pat {}, Pat {} )", ch, catalog, schemaPattern, tableNamePattern, columnNamePattern );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -870,7 +948,8 @@ public MetaResultSet getPseudoColumns( final ConnectionHandle ch, final String c
     @Override
     public ExecuteBatchResult executeBatchProtobuf( final StatementHandle h, final List<UpdateBatch> parameterValues ) throws NoSuchStatementException {
         final PolyphenyDbConnectionHandle connection = openConnections.get( h.connectionId );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "executeBatchProtobuf( StatementHandle {}, List<UpdateBatch> {} )", h, parameterValues );
             }
@@ -913,6 +992,8 @@ public ExecuteBatchResult executeBatchProtobuf( final StatementHandle h, final L
             }
 
             return new ExecuteBatchResult( updateCounts );
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -926,13 +1007,16 @@ public ExecuteBatchResult executeBatchProtobuf( final StatementHandle h, final L
     @Override
     public Iterable<Object> createIterable( final StatementHandle h, final QueryState state, final Signature signature, final List<TypedValue> parameters, final Frame firstFrame ) {
         final PolyphenyDbConnectionHandle connection = openConnections.get( h.connectionId );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "createIterable( StatementHandle {}, QueryState {}, Signature {}, List<TypedValue> {}, Frame {} )", h, state, signature, parameters, firstFrame );
             }
 
             log.error( "[NOT IMPLEMENTED YET] createIterable( StatementHandle {}, QueryState {}, Signature {}, List<TypedValue> {}, Frame {} )", h, state, signature, parameters, firstFrame );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -948,7 +1032,8 @@ public Iterable<Object> createIterable( final StatementHandle h, final QueryStat
     @Override
     public StatementHandle prepare( final ConnectionHandle ch, final String sql, final long maxRowCount ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "prepare( ConnectionHandle {}, String {}, long {} )", ch, sql, maxRowCount );
             }
@@ -991,6 +1076,8 @@ public StatementHandle prepare( final ConnectionHandle ch, final String sql, fin
             polyphenyDbStatement.setSignature( signature );
 
             return h;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -1028,7 +1115,8 @@ public ExecuteResult prepareAndExecute( final StatementHandle h, final String sq
     @Override
     public ExecuteResult prepareAndExecute( final StatementHandle h, final String sql, final long maxRowCount, final int maxRowsInFirstFrame, final PrepareCallback callback ) throws NoSuchStatementException {
         final PolyphenyDbConnectionHandle connection = openConnections.get( h.connectionId );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "prepareAndExecute( StatementHandle {}, String {}, long {}, int {}, PrepareCallback {} )", h, sql, maxRowCount, maxRowsInFirstFrame, callback );
             }
@@ -1037,6 +1125,8 @@ public ExecuteResult prepareAndExecute( final StatementHandle h, final String sq
             statementHandle.setPreparedQuery( sql );
             statementHandle.setStatement( connection.getCurrentOrCreateNewTransaction().createStatement() );
             return execute( h, new LinkedList<>(), maxRowsInFirstFrame, connection );
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -1051,13 +1141,16 @@ public ExecuteResult prepareAndExecute( final StatementHandle h, final String sq
     @Override
     public ExecuteBatchResult prepareAndExecuteBatch( final StatementHandle h, final List<String> sqlCommands ) throws NoSuchStatementException {
         final PolyphenyDbConnectionHandle connection = openConnections.get( h.connectionId );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "prepareAndExecuteBatch( StatementHandle {}, List<String> {} )", h, sqlCommands );
             }
 
             log.error( "[NOT IMPLEMENTED YET] prepareAndExecuteBatch( StatementHandle {}, List<String> {} )", h, sqlCommands );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -1072,13 +1165,16 @@ public ExecuteBatchResult prepareAndExecuteBatch( final StatementHandle h, final
     @Override
     public ExecuteBatchResult executeBatch( final StatementHandle h, final List<List<TypedValue>> parameterValues ) throws NoSuchStatementException {
         final PolyphenyDbConnectionHandle connection = openConnections.get( h.connectionId );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "executeBatch( StatementHandle {}, List<List<TypedValue>> {} )", h, parameterValues );
             }
 
             log.error( "[NOT IMPLEMENTED YET] executeBatch( StatementHandle {}, List<List<TypedValue>> {} )", h, parameterValues );
             return null;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -1096,7 +1192,8 @@ public ExecuteBatchResult executeBatch( final StatementHandle h, final List<List
     @Override
     public Frame fetch( final StatementHandle h, final long offset, final int fetchMaxRowCount ) throws NoSuchStatementException {
         final PolyphenyDbConnectionHandle connection = openConnections.get( h.connectionId );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "fetch( StatementHandle {}, long {}, int {} )", h, offset, fetchMaxRowCount );
             }
@@ -1131,6 +1228,8 @@ public Frame fetch( final StatementHandle h, final long offset, final int fetchM
                 }
             }
             return new Meta.Frame( offset, done, rows1 );
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -1173,13 +1272,16 @@ public ExecuteResult execute( final StatementHandle h, final List<TypedValue> pa
     @Override
     public ExecuteResult execute( final StatementHandle h, final List<TypedValue> parameterValues, final int maxRowsInFirstFrame ) throws NoSuchStatementException {
         final PolyphenyDbConnectionHandle connection = openConnections.get( h.connectionId );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "execute( StatementHandle {}, List<TypedValue> {}, int {} )", h, parameterValues, maxRowsInFirstFrame );
             }
             final PolyphenyDbStatementHandle statementHandle = getPolyphenyDbStatementHandle( h );
             statementHandle.setStatement( connection.getCurrentOrCreateNewTransaction().createStatement() );
             return execute( h, parameterValues, maxRowsInFirstFrame, connection );
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -1230,21 +1332,31 @@ private void prepare( StatementHandle h, String sql ) throws NoSuchStatementExce
         PolyphenyDbStatementHandle statementHandle = getPolyphenyDbStatementHandle( h );
         Processor sqlProcessor = statementHandle.getStatement().getTransaction().getProcessor( QueryLanguage.SQL );
 
-        Node parsed = sqlProcessor.parse( sql ).get( 0 );
+        // Statements which only differ in their literals from a previous statement can skip parsing and translation
+        Pair<AlgRoot, AlgDataType> cached = sqlProcessor.translateCached(
+                statementHandle.getStatement(),
+                sql,
+                RuntimeConfig.ADD_DEFAULT_VALUES_IN_INSERTS.getBoolean() );
 
         PolyphenyDbSignature<?> signature;
-        if ( parsed.isA( Kind.DDL ) ) {
-            signature = PolyphenyDbSignature.from( sqlProcessor.prepareDdl( statementHandle.getStatement(), parsed, new QueryParameters( sql, NamespaceType.RELATIONAL ) ) );
+        if ( cached != null ) {
+            signature = PolyphenyDbSignature.from( statementHandle.getStatement().getQueryProcessor().prepareQuery( cached.left, cached.right, true ) );
         } else {
-            Pair<Node, AlgDataType> validated = sqlProcessor.validate(
-                    statementHandle.getStatement().getTransaction(),
-                    parsed,
-                    RuntimeConfig.ADD_DEFAULT_VALUES_IN_INSERTS.getBoolean() );
-            AlgRoot logicalRoot = sqlProcessor.translate( statementHandle.getStatement(), validated.left, null );
-            AlgDataType parameterRowType = sqlProcessor.getParameterRowType( validated.left );
+            Node parsed = sqlProcessor.parse( sql ).get( 0 );
+
+            if ( parsed.isA( Kind.DDL ) ) {
+                signature = PolyphenyDbSignature.from( sqlProcessor.prepareDdl( statementHandle.getStatement(), parsed, new QueryParameters( sql, NamespaceType.RELATIONAL ) ) );
+            } else {
+                Pair<Node, AlgDataType> validated = sqlProcessor.validate(
+                        statementHandle.getStatement().getTransaction(),
+                        parsed,
+                        RuntimeConfig.ADD_DEFAULT_VALUES_IN_INSERTS.getBoolean() );
+                AlgRoot logicalRoot = sqlProcessor.translate( statementHandle.getStatement(), validated.left, null );
+                AlgDataType parameterRowType = sqlProcessor.getParameterRowType( validated.left );
 
-            // Prepare
-            signature = PolyphenyDbSignature.from( statementHandle.getStatement().getQueryProcessor().prepareQuery( logicalRoot, parameterRowType, true ) );
+                // Prepare
+                signature = PolyphenyDbSignature.from( statementHandle.getStatement().getQueryProcessor().prepareQuery( logicalRoot, parameterRowType, true ) );
+            }
         }
 
         h.signature = signature;
@@ -1300,7 +1412,8 @@ private List<MetaResultSet> execute( StatementHandle h, PolyphenyDbConnectionHan
     @Override
     public StatementHandle createStatement( ConnectionHandle ch ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "createStatement( ConnectionHandle {} )", ch );
             }
@@ -1314,6 +1427,8 @@ public StatementHandle createStatement( ConnectionHandle ch ) {
             StatementHandle h = new StatementHandle( ch.id, statement.getStatementId(), null );
             log.trace( "created statement {}", h );
             return h;
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -1328,7 +1443,8 @@ public StatementHandle createStatement( ConnectionHandle ch ) {
     @Override
     public void closeStatement( final StatementHandle statementHandle ) {
         final PolyphenyDbConnectionHandle connection = openConnections.get( statementHandle.connectionId );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "closeStatement( StatementHandle {} )", statementHandle );
             }
@@ -1344,6 +1460,8 @@ public void closeStatement( final StatementHandle statementHandle ) {
                 }
                 toClose.unset();
             }
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -1434,7 +1552,8 @@ public void openConnection( final ConnectionHandle ch, final Map<String, String>
     @Override
     public void closeConnection( ConnectionHandle ch ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "closeConnection( ConnectionHandle {} )", ch );
             }
@@ -1467,6 +1586,8 @@ public void closeConnection( ConnectionHandle ch ) {
             }
 
             // TODO: release all resources associated with this connection
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -1513,7 +1634,8 @@ public boolean syncResults( final StatementHandle sh, final QueryState state, fi
     @Override
     public void commit( final ConnectionHandle ch ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "commit( ConnectionHandle {} )", ch );
             }
@@ -1533,6 +1655,8 @@ public void commit( final ConnectionHandle ch ) {
             } finally {
                 connection.endCurrentTransaction();
             }
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -1543,7 +1667,8 @@ public void commit( final ConnectionHandle ch ) {
     @Override
     public void rollback( final ConnectionHandle ch ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "rollback( ConnectionHandle {} )", ch );
             }
@@ -1563,6 +1688,8 @@ public void rollback( final ConnectionHandle ch ) {
             } finally {
                 connection.endCurrentTransaction();
             }
+        } finally {
+            connection.unlock();
         }
     }
 
@@ -1576,7 +1703,8 @@ public void rollback( final ConnectionHandle ch ) {
     @Override
     public ConnectionProperties connectionSync( ConnectionHandle ch, ConnectionProperties connProps ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        connection.lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "connectionSync( ConnectionHandle {}, ConnectionProperties {} )", ch, connProps );
             }
@@ -1590,6 +1718,8 @@ public ConnectionProperties connectionSync( ConnectionHandle ch, ConnectionPrope
             }
 
             return connection.mergeConnectionProperties( connProps );
+        } finally {
+            connection.unlock();
         }
     }
 
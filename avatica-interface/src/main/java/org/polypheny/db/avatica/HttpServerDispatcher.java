@@ -22,6 +22,7 @@
 import java.net.UnknownHostException;
 import java.sql.SQLException;
 import java.util.Locale;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.calcite.avatica.remote.Service;
@@ -34,7 +35,10 @@
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.server.handler.DefaultHandler;
 import org.eclipse.jetty.server.handler.HandlerList;
+import org.eclipse.jetty.util.thread.ExecutorThreadPool;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.polypheny.db.util.VirtualThreads;
 
 
 /**
@@ -56,20 +60,18 @@ public class HttpServerDispatcher {
 
     private final AvaticaHandler handler;
 
+    private final boolean virtualThreads;
 
-    public HttpServerDispatcher( int port, final AvaticaHandler handler ) throws SQLException {
+
+    public HttpServerDispatcher( int port, final AvaticaHandler handler, boolean virtualThreads ) throws SQLException {
         this.port = port;
         this.handler = handler;
+        this.virtualThreads = virtualThreads;
     }
 
 
     public void start() throws Exception {
-        // TODO: Get the ThreadPool from the ThreadManager component
-        final QueuedThreadPool threadPool = new QueuedThreadPool( threadPoolMaxThreads, threadPoolMinThreads, threadPoolIdleTimeoutMillis );
-        threadPool.setDaemon( true );
-        threadPool.setName( "HttpDispatcher" );
-
-        jettyServer = new Server( threadPool );
+        jettyServer = new Server( VirtualThreads.useForRequests( virtualThreads, "HTTP Dispatcher" ) ? createVirtualThreadPool() : createThreadPool() );
 
         final HttpConfiguration httpConfiguration = new HttpConfiguration();
         httpConfiguration.setRequestHeaderSize( httpMaxAllowedHeaderSize );
@@ -105,6 +107,29 @@ public void start() throws Exception {
     }
 
 
+    private ThreadPool createThreadPool() {
+        // TODO: Get the ThreadPool from the ThreadManager component
+        final QueuedThreadPool threadPool = new QueuedThreadPool( threadPoolMaxThreads, threadPoolMinThreads, threadPoolIdleTimeoutMillis );
+        threadPool.setDaemon( true );
+        threadPool.setName( "HttpDispatcher" );
+        return threadPool;
+    }
+
+
+    /**
+     * Creates a thread pool which handles every request on a new virtual thread.
+     */
+    private ThreadPool createVirtualThreadPool() {
+        final ThreadFactory threadFactory = VirtualThreads.threadFactory( "HttpDispatcher-", true );
+        return new ExecutorThreadPool( VirtualThreads.newRequestExecutor() ) {
+            @Override
+            protected Thread newThread( Runnable job ) {
+                return threadFactory.newThread( job );
+            }
+        };
+    }
+
+
     public void stop() throws Exception {
         jettyServer.stop();
     }
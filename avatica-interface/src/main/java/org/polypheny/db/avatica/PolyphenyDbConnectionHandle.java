@@ -18,6 +18,7 @@
 
 
 import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
 import lombok.Getter;
 import org.apache.calcite.avatica.ConnectionPropertiesImpl;
 import org.apache.calcite.avatica.Meta;
@@ -54,6 +55,10 @@ public class PolyphenyDbConnectionHandle {
 
     private final ConnectionProperties connectionProperties = new ConnectionPropertiesImpl( true, false, java.sql.Connection.TRANSACTION_SERIALIZABLE, "APP", "public" );
 
+    // Serializes the requests of a connection. A lock instead of a monitor, as a request holds it while executing the
+    // query and a blocked virtual thread would otherwise pin its carrier thread.
+    private final ReentrantLock lock = new ReentrantLock();
+
 
     public PolyphenyDbConnectionHandle( final Meta.ConnectionHandle handle, final CatalogUser catalogUser, final ConnectionId connectionId, final CatalogDatabase database, final CatalogSchema schema, final TransactionManager transactionManager ) {
         this.handle = handle;
@@ -84,28 +89,47 @@ public ConnectionId getConnectionId() {
     }
 
 
+    public void lock() {
+        lock.lock();
+    }
+
+
+    public void unlock() {
+        lock.unlock();
+    }
+
+
     public Transaction getCurrentTransaction() {
-        synchronized ( this ) {
+        lock.lock();
+        try {
             return currentTransaction;
+        } finally {
+            lock.unlock();
         }
     }
 
 
     public Transaction endCurrentTransaction() {
-        synchronized ( this ) {
+        lock.lock();
+        try {
             Transaction endedTransaction = currentTransaction;
             currentTransaction = null;
             return endedTransaction;
+        } finally {
+            lock.unlock();
         }
     }
 
 
     public Transaction getCurrentOrCreateNewTransaction() {
-        synchronized ( this ) {
+        lock.lock();
+        try {
             if ( currentTransaction == null || !currentTransaction.isActive() ) {
                 currentTransaction = transactionManager.startTransaction( user, schema, database, false, "AVATICA Interface" );
             }
             return currentTransaction;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -122,7 +122,7 @@ public static <T> PolyphenyDbSignature<T> from( PolyImplementation prepareQuery
 
 
     public Enumerable<T> enumerable( DataContext dataContext ) {
-        return PolyImplementation.enumerable( bindable, dataContext );
+        return PolyImplementation.enumerable( bindable, dataContext, executionTimeMonitor );
     }
 
 }
\ No newline at end of file
@@ -24,6 +24,9 @@
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
 import javax.annotation.Nullable;
 import lombok.Getter;
 import lombok.experimental.Accessors;
@@ -32,7 +35,9 @@
 import org.apache.calcite.avatica.Meta.CursorFactory;
 import org.apache.calcite.avatica.Meta.StatementType;
 import org.apache.calcite.avatica.MetaImpl;
+import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
 import org.apache.commons.lang3.time.StopWatch;
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.algebra.constant.Kind;
@@ -40,6 +45,7 @@
 import org.polypheny.db.catalog.Catalog.NamespaceType;
 import org.polypheny.db.interpreter.BindableConvention;
 import org.polypheny.db.monitoring.events.StatementEvent;
+import org.polypheny.db.monitoring.jfr.ExecutionEvent;
 import org.polypheny.db.plan.AlgOptUtil;
 import org.polypheny.db.plan.Convention;
 import org.polypheny.db.prepare.Prepare.PreparedResult;
@@ -47,6 +53,7 @@
 import org.polypheny.db.routing.ExecutionTimeMonitor;
 import org.polypheny.db.runtime.Bindable;
 import org.polypheny.db.runtime.Typed;
+import org.polypheny.db.runtime.reactive.BlockingPublisher;
 import org.polypheny.db.transaction.Statement;
 import org.polypheny.db.util.LimitIterator;
 
@@ -107,7 +114,7 @@ public PolyImplementation(
 
 
     public Enumerable<Object> enumerable( DataContext dataContext ) {
-        return enumerable( getBindable(), dataContext );
+        return enumerable( getBindable(), dataContext, executionTimeMonitor );
     }
 
 
@@ -116,6 +123,28 @@ public static <T> Enumerable<T> enumerable( Bindable<T> bindable, DataContext da
     }
 
 
+    /**
+     * Binds the plan like {@link #enumerable(Bindable, DataContext)}. If the flight recorder records execution events,
+     * every enumerator of the result emits an {@link ExecutionEvent} when it is closed.
+     *
+     * @param bindable the plan to execute
+     * @param dataContext the data context the plan is bound to
+     * @param executionTimeMonitor the monitor of the plan, which provides the adapters for the event
+     */
+    public static <T> Enumerable<T> enumerable( Bindable<T> bindable, DataContext dataContext, ExecutionTimeMonitor executionTimeMonitor ) {
+        final Enumerable<T> enumerable = enumerable( bindable, dataContext );
+        if ( !ExecutionEvent.enabled() ) {
+            return enumerable;
+        }
+        return new AbstractEnumerable<T>() {
+            @Override
+            public Enumerator<T> enumerator() {
+                return new ExecutionEventEnumerator<>( enumerable.enumerator(), dataContext.getStatement(), executionTimeMonitor );
+            }
+        };
+    }
+
+
     public Class<?> getResultClass() {
         Class<?> resultClazz = null;
         if ( preparedResult instanceof Typed ) {
@@ -196,6 +225,8 @@ public List<List<Object>> getRows( Statement statement, int size, boolean isTime
     public List<List<Object>> getRows( Statement statement, int size, boolean isTimed, boolean isAnalyzed, StatementEvent statementEvent, boolean isIndex ) {
         Iterator<Object> iterator = null;
         StopWatch stopWatch = null;
+        final ExecutionEvent event = new ExecutionEvent();
+        event.begin();
         try {
             iterator = createIterator( getBindable(), statement, isAnalyzed );
             List<List<Object>> res;
@@ -220,6 +251,8 @@ public List<List<Object>> getRows( Statement statement, int size, boolean isTime
                 statementEvent.setIndexSize( res.size() );
             }
 
+            commitExecutionEvent( event, statement, executionTimeMonitor, res.size() );
+
             return res;
         } catch ( Throwable t ) {
             if ( iterator != null ) {
@@ -246,6 +279,31 @@ public List<List<Object>> getRows( Statement statement, int size, boolean isTime
     }
 
 
+    /**
+     * Returns a publisher emitting the result rows with back-pressure. The plan is executed on the given executor when
+     * the subscriber requests the first row, and the rows are only fetched from the adapters as far as they have been
+     * requested.
+     *
+     * @param statement the statement the plan is executed in
+     * @param executor the executor which executes the plan
+     */
+    public Flow.Publisher<List<Object>> publisher( Statement statement, Executor executor ) {
+        return new BlockingPublisher<>( () -> new RowIterator( enumerable( getBindable(), statement.getDataContext(), executionTimeMonitor ).iterator() ), executor );
+    }
+
+
+    private static void commitExecutionEvent( ExecutionEvent event, Statement statement, ExecutionTimeMonitor executionTimeMonitor, long rows ) {
+        event.end();
+        if ( event.shouldCommit() ) {
+            event.statementId = statement.getId();
+            event.transactionId = statement.getTransaction().getId();
+            event.adapter = executionTimeMonitor.getAdapter();
+            event.rows = rows;
+            event.commit();
+        }
+    }
+
+
     private static Iterator<Object> createIterator( Bindable<Object> bindable, Statement statement, boolean isAnalyzed ) {
         if ( isAnalyzed ) {
             statement.getOverviewDuration().start( "Execution" );
@@ -259,6 +317,104 @@ private static Iterator<Object> createIterator( Bindable<Object> bindable, State
     }
 
 
+    /**
+     * Converts the rows of an iterator over the result of a plan like {@link #getRows(Statement, int)}.
+     */
+    private class RowIterator implements Iterator<List<Object>>, AutoCloseable {
+
+        private final Iterator<Object> iterator;
+
+
+        private RowIterator( Iterator<Object> iterator ) {
+            this.iterator = iterator;
+        }
+
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+
+        @Override
+        public List<Object> next() {
+            if ( !iterator.hasNext() ) {
+                throw new NoSuchElementException();
+            }
+            return MetaImpl.collect( cursorFactory, LimitIterator.of( iterator, 1 ), new ArrayList<>( 1 ) ).get( 0 );
+        }
+
+
+        @Override
+        public void close() throws Exception {
+            if ( iterator instanceof AutoCloseable ) {
+                ((AutoCloseable) iterator).close();
+            }
+        }
+
+    }
+
+
+    /**
+     * Counts the rows of an enumerator over the result of a plan and emits an {@link ExecutionEvent} when the
+     * enumerator is closed. This covers results which are consumed outside of {@link #getRows(Statement, int)}.
+     */
+    private static class ExecutionEventEnumerator<T> implements Enumerator<T> {
+
+        private final Enumerator<T> enumerator;
+        private final Statement statement;
+        private final ExecutionTimeMonitor executionTimeMonitor;
+        private final ExecutionEvent event = new ExecutionEvent();
+        private long rows = 0;
+        private boolean closed = false;
+
+
+        private ExecutionEventEnumerator( Enumerator<T> enumerator, Statement statement, ExecutionTimeMonitor executionTimeMonitor ) {
+            this.enumerator = enumerator;
+            this.statement = statement;
+            this.executionTimeMonitor = executionTimeMonitor;
+            event.begin();
+        }
+
+
+        @Override
+        public T current() {
+            return enumerator.current();
+        }
+
+
+        @Override
+        public boolean moveNext() {
+            if ( enumerator.moveNext() ) {
+                rows++;
+                return true;
+            }
+            return false;
+        }
+
+
+        @Override
+        public void reset() {
+            enumerator.reset();
+            rows = 0;
+        }
+
+
+        @Override
+        public void close() {
+            try {
+                enumerator.close();
+            } finally {
+                if ( !closed ) {
+                    closed = true;
+                    commitExecutionEvent( event, statement, executionTimeMonitor, rows );
+                }
+            }
+        }
+
+    }
+
+
     public static Meta.StatementType toStatementType( Kind kind ) {
         if ( kind == Kind.SELECT ) {
             return Meta.StatementType.SELECT;
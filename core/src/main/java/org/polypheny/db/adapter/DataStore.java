@@ -21,6 +21,7 @@
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSerializer;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import lombok.AllArgsConstructor;
@@ -197,6 +198,31 @@ private void dropCollectionSubstitution( Context prepareContext, CatalogCollecti
     }
 
 
+    /**
+     * Whether this store provides a native path for inserting many rows at once, see
+     * {@link #bulkLoad(Context, CatalogTable, long, List, Iterator)}. Overwrite this together with the bulk load method.
+     */
+    public boolean supportsBulkLoad() {
+        return false;
+    }
+
+
+    /**
+     * Inserts rows into the placement of a partition without going through generated INSERT statements. This is used
+     * by the data migrator when a table is placed on this store. Only called if {@link #supportsBulkLoad()} returns true.
+     *
+     * @param context The context of the statement the rows are inserted by
+     * @param catalogTable The table
+     * @param partitionId The partition to insert the rows into
+     * @param columnPlacements The placements of the columns, the values of a row are in the same order
+     * @param rows The rows with their values in the internal representation (e.g. days since epoch for dates)
+     * @return The number of inserted rows
+     */
+    public long bulkLoad( Context context, CatalogTable catalogTable, long partitionId, List<CatalogColumnPlacement> columnPlacements, Iterator<List<Object>> rows ) {
+        throw new UnsupportedOperationException( "The store " + getUniqueName() + " does not support bulk loading." );
+    }
+
+
     @AllArgsConstructor
     public static class AvailableIndexMethod {
 
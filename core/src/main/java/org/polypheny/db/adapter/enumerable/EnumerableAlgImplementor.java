@@ -101,6 +101,8 @@ public class EnumerableAlgImplementor extends JavaAlgImplementor {
 
     private int contextCounter = -1;
 
+    private int nameCounter = 0;
+
 
     public EnumerableAlgImplementor( RexBuilder rexBuilder, Map<String, Object> internalParameters ) {
         super( rexBuilder );
@@ -121,6 +123,18 @@ public int increaseContext() {
     }
 
 
+    /**
+     * Returns a name with the given prefix which is unique within the generated class. The name only depends on the
+     * order in which the algebra expressions are implemented, hence identical plans result in identical code.
+     *
+     * @param prefix Prefix of the name
+     * @return Unique name
+     */
+    public String uniqueName( String prefix ) {
+        return prefix + "_" + nameCounter++;
+    }
+
+
     public ClassDeclaration implementRoot( EnumerableAlg rootAlg, EnumerableAlg.Prefer prefer ) {
         EnumerableAlg.Result result = rootAlg.implement( this, prefer );
         switch ( prefer ) {
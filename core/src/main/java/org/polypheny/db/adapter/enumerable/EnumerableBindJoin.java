@@ -0,0 +1,230 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.calcite.linq4j.function.Function1;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.AlgWriter;
+import org.polypheny.db.algebra.core.CorrelationId;
+import org.polypheny.db.algebra.core.EquiJoin;
+import org.polypheny.db.algebra.core.JoinAlgType;
+import org.polypheny.db.algebra.core.JoinInfo;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.algebra.operators.OperatorName;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.languages.OperatorRegistry;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.rex.RexBuilder;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.rex.RexUtil;
+import org.polypheny.db.schema.ModelTrait;
+import org.polypheny.db.util.BuiltInMethod;
+import org.polypheny.db.util.ImmutableBitSet;
+import org.polypheny.db.util.ImmutableIntList;
+
+
+/**
+ * Implementation of an equi-join in {@link EnumerableConvention enumerable calling convention} which only reads the
+ * rows of one input (the target) that match the join keys of the other input (the source).
+ *
+ * The target is a filter comparing its key columns with dynamic parameters. At runtime, the source is materialized,
+ * its distinct keys are bound to these parameters in batches, and the target is executed once per batch. If the
+ * filter is pushed down into the store of the target, only the matching rows are transferred.
+ */
+public class EnumerableBindJoin extends EquiJoin implements EnumerableAlg {
+
+    /**
+     * Index of the first dynamic parameter used for binding keys. Chosen large enough to not collide with the
+     * parameters of the statement.
+     */
+    public static final int PARAMETER_OFFSET = 1 << 30;
+
+    /**
+     * Maximum number of dynamic parameters a single bind join may use.
+     */
+    public static final int MAX_PARAMETERS = 1 << 16;
+
+    /**
+     * Cost of executing the target once, expressed in rows.
+     */
+    public static final double ROUND_TRIP_COST = 100d;
+
+    public final boolean keysFromLeft;
+    public final int batchSize;
+    public final int parameterOffset;
+
+
+    public EnumerableBindJoin( AlgOptCluster cluster, AlgTraitSet traits, AlgNode left, AlgNode right, RexNode condition, ImmutableIntList leftKeys, ImmutableIntList rightKeys, Set<CorrelationId> variablesSet, JoinAlgType joinType, boolean keysFromLeft, int batchSize, int parameterOffset ) {
+        super( cluster, traits, left, right, condition, leftKeys, rightKeys, variablesSet, joinType );
+        this.keysFromLeft = keysFromLeft;
+        this.batchSize = batchSize;
+        this.parameterOffset = parameterOffset;
+    }
+
+
+    /**
+     * Creates an EnumerableBindJoin. The target input needs to be filtered by the {@link #bindCondition}.
+     */
+    public static EnumerableBindJoin create( AlgNode left, AlgNode right, RexNode condition, ImmutableIntList leftKeys, ImmutableIntList rightKeys, Set<CorrelationId> variablesSet, JoinAlgType joinType, boolean keysFromLeft, int batchSize, int parameterOffset ) {
+        final AlgOptCluster cluster = left.getCluster();
+        final AlgTraitSet traitSet = cluster.traitSetOf( EnumerableConvention.INSTANCE ).replace( ModelTrait.RELATIONAL );
+        return new EnumerableBindJoin( cluster, traitSet, left, right, condition, leftKeys, rightKeys, variablesSet, joinType, keysFromLeft, batchSize, parameterOffset );
+    }
+
+
+    /**
+     * Whether the keys can be taken from the given side of a join of the given type without losing rows of the
+     * target which are part of the result.
+     */
+    public static boolean canBind( JoinAlgType joinType, boolean keysFromLeft ) {
+        switch ( joinType ) {
+            case INNER:
+                return true;
+            case LEFT:
+                return keysFromLeft;
+            case RIGHT:
+                return !keysFromLeft;
+            default:
+                return false;
+        }
+    }
+
+
+    /**
+     * Builds the condition of the filter on the target: a disjunction over {@code batchSize} slots, each comparing
+     * all key columns with a dynamic parameter.
+     *
+     * @param target Input which is filtered
+     * @param keys Key columns of the target
+     * @param batchSize Number of keys bound per execution of the target
+     * @param parameterOffset Index of the first dynamic parameter
+     */
+    public static RexNode bindCondition( AlgNode target, List<Integer> keys, int batchSize, int parameterOffset ) {
+        final RexBuilder rexBuilder = target.getCluster().getRexBuilder();
+        final List<RexNode> slots = new ArrayList<>( batchSize );
+        for ( int slot = 0; slot < batchSize; slot++ ) {
+            final List<RexNode> equalities = new ArrayList<>( keys.size() );
+            for ( int i = 0; i < keys.size(); i++ ) {
+                final AlgDataType type = target.getRowType().getFieldList().get( keys.get( i ) ).getType();
+                equalities.add( rexBuilder.makeCall(
+                        OperatorRegistry.get( OperatorName.EQUALS ),
+                        rexBuilder.makeInputRef( target, keys.get( i ) ),
+                        rexBuilder.makeDynamicParam( rexBuilder.getTypeFactory().createTypeWithNullability( type, true ), parameterOffset + slot * keys.size() + i ) ) );
+            }
+            slots.add( RexUtil.composeConjunction( rexBuilder, equalities, false ) );
+        }
+        return RexUtil.composeDisjunction( rexBuilder, slots );
+    }
+
+
+    @Override
+    public EnumerableBindJoin copy( AlgTraitSet traitSet, RexNode condition, AlgNode left, AlgNode right, JoinAlgType joinType, boolean semiJoinDone ) {
+        final JoinInfo joinInfo = JoinInfo.of( left, right, condition );
+        assert joinInfo.isEqui();
+        return new EnumerableBindJoin( getCluster(), traitSet, left, right, condition, joinInfo.leftKeys, joinInfo.rightKeys, variablesSet, joinType, keysFromLeft, batchSize, parameterOffset );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        // The transfer of the target is part of the cost of the (filtered) target input. Add the materialization of the
+        // source and one round trip per batch of distinct keys.
+        final AlgNode source = keysFromLeft ? left : right;
+        final double sourceRowCount = source.estimateRowCount( mq );
+        final double batches = Math.ceil( distinctKeys( mq, source, keysFromLeft ? leftKeys : rightKeys ) / batchSize );
+        final double rowCount = mq.getRowCount( this ) + sourceRowCount + batches * ROUND_TRIP_COST;
+        return planner.getCostFactory().makeCost( rowCount, 0, 0 );
+    }
+
+
+    /**
+     * Estimates the number of distinct keys of an input, falling back to its row count.
+     */
+    static double distinctKeys( AlgMetadataQuery mq, AlgNode input, List<Integer> keys ) {
+        final Double distinct = mq.getDistinctRowCount( input, ImmutableBitSet.of( keys ), null );
+        return distinct != null ? distinct : input.estimateRowCount( mq );
+    }
+
+
+    @Override
+    public AlgWriter explainTerms( AlgWriter pw ) {
+        return super.explainTerms( pw )
+                .item( "bind", keysFromLeft ? "left" : "right" )
+                .item( "batchSize", batchSize );
+    }
+
+
+    @Override
+    public String algCompareString() {
+        return super.algCompareString() + keysFromLeft + "$" + batchSize + "$" + parameterOffset + "&";
+    }
+
+
+    @Override
+    public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
+        final BlockBuilder builder = new BlockBuilder();
+        final Result leftResult = implementor.visitChild( this, 0, (EnumerableAlg) left, pref );
+        final Result rightResult = implementor.visitChild( this, 1, (EnumerableAlg) right, pref );
+        final Result sourceResult = keysFromLeft ? leftResult : rightResult;
+        final Result targetResult = keysFromLeft ? rightResult : leftResult;
+        final ImmutableIntList sourceKeys = keysFromLeft ? leftKeys : rightKeys;
+        final ImmutableIntList targetKeys = keysFromLeft ? rightKeys : leftKeys;
+        final AlgNode target = keysFromLeft ? right : left;
+
+        final Expression source = builder.append( builder.newName( "source" ), sourceResult.block );
+        // The target is created inside a lambda whose root is the data context binding the keys of the current batch
+        final Expression targetFactory = Expressions.lambda( Function1.class, targetResult.block, DataContext.ROOT );
+
+        final PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getRowType(), pref.preferArray() );
+        return implementor.result(
+                physType,
+                builder.append(
+                        Expressions.call(
+                                BuiltInMethod.BIND_JOIN.method,
+                                Expressions.list(
+                                        DataContext.ROOT,
+                                        source,
+                                        targetFactory,
+                                        sourceResult.physType.generateAccessor( sourceKeys ),
+                                        targetResult.physType.generateAccessor( targetKeys ),
+                                        EnumUtils.joinSelector( joinType, physType, ImmutableList.of( leftResult.physType, rightResult.physType ) ),
+                                        Expressions.constant( keysFromLeft ),
+                                        Expressions.constant( joinType.generatesNullsOnLeft() ),
+                                        Expressions.constant( joinType.generatesNullsOnRight() ),
+                                        Expressions.constant( targetKeys.stream()
+                                                .map( k -> target.getRowType().getFieldList().get( k ).getType().getPolyType() )
+                                                .collect( Collectors.toList() ) ),
+                                        Expressions.constant( parameterOffset ),
+                                        Expressions.constant( batchSize ) ) ) )
+                        .toBlock() );
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Join;
+import org.polypheny.db.algebra.core.JoinInfo;
+import org.polypheny.db.algebra.logical.relational.LogicalFilter;
+import org.polypheny.db.algebra.logical.relational.LogicalJoin;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.catalog.entity.CatalogAdapter;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.plan.AlgOptRule;
+import org.polypheny.db.plan.AlgOptRuleCall;
+import org.polypheny.db.plan.Convention;
+import org.polypheny.db.plan.volcano.AlgSubset;
+import org.polypheny.db.rex.RexTableInputRef.AlgTableRef;
+import org.polypheny.db.util.ImmutableIntList;
+
+
+/**
+ * Planner rule that converts a {@link LogicalJoin} whose inputs read from different stores into an
+ * {@link EnumerableBindJoin}. The keys are taken from the input with fewer distinct keys than the other input has
+ * rows; for inner joins, both directions are registered and the cheaper one is chosen by the planner.
+ */
+class EnumerableBindJoinRule extends AlgOptRule {
+
+    /**
+     * Number of parameter ranges which fit between {@link EnumerableBindJoin#PARAMETER_OFFSET} and the largest
+     * parameter index.
+     */
+    private static final long PARAMETER_RANGES = ((long) Integer.MAX_VALUE + 1 - EnumerableBindJoin.PARAMETER_OFFSET) / EnumerableBindJoin.MAX_PARAMETERS;
+
+
+    EnumerableBindJoinRule() {
+        super( operand( LogicalJoin.class, Convention.NONE, any() ), "EnumerableBindJoinRule" );
+    }
+
+
+    @Override
+    public void onMatch( AlgOptRuleCall call ) {
+        final LogicalJoin join = call.alg( 0 );
+        final AlgNode left = join.getLeft();
+        final AlgNode right = join.getRight();
+        final JoinInfo info = JoinInfo.of( left, right, join.getCondition() );
+        if ( !info.isEqui() || info.leftKeys.isEmpty() || !join.getVariablesSet().isEmpty() ) {
+            return;
+        }
+        final int batchSize = RuntimeConfig.BIND_JOIN_BATCH_SIZE.getInteger();
+        if ( batchSize < 1 || batchSize * info.leftKeys.size() > EnumerableBindJoin.MAX_PARAMETERS ) {
+            return;
+        }
+        for ( int i = 0; i < info.leftKeys.size(); i++ ) {
+            if ( left.getRowType().getFieldList().get( info.leftKeys.get( i ) ).getType().getPolyType()
+                    != right.getRowType().getFieldList().get( info.rightKeys.get( i ) ).getType().getPolyType() ) {
+                return;
+            }
+        }
+        final AlgMetadataQuery mq = join.getCluster().getMetadataQuery();
+        if ( !readsFromDifferentStores( mq, left, right ) ) {
+            return;
+        }
+        // Bind joins nested in the inputs contain fewer joins and hence use lower ranges. The range only depends on
+        // the logical plan, which keeps the digest of the plan stable across planner runs.
+        final Set<AlgNode> visited = Collections.newSetFromMap( new IdentityHashMap<>() );
+        final long range = nestedJoins( left, visited ) + nestedJoins( right, visited );
+        if ( range >= PARAMETER_RANGES ) {
+            return;
+        }
+        final int parameterOffset = EnumerableBindJoin.PARAMETER_OFFSET + (int) range * EnumerableBindJoin.MAX_PARAMETERS;
+
+        for ( boolean keysFromLeft : new boolean[]{ true, false } ) {
+            final AlgNode source = keysFromLeft ? left : right;
+            final AlgNode target = keysFromLeft ? right : left;
+            final ImmutableIntList sourceKeys = keysFromLeft ? info.leftKeys : info.rightKeys;
+            final ImmutableIntList targetKeys = keysFromLeft ? info.rightKeys : info.leftKeys;
+            if ( !EnumerableBindJoin.canBind( join.getJoinType(), keysFromLeft )
+                    || EnumerableBindJoin.distinctKeys( mq, source, sourceKeys ) >= target.estimateRowCount( mq ) ) {
+                continue;
+            }
+            final AlgNode filtered = LogicalFilter.create( target, EnumerableBindJoin.bindCondition( target, targetKeys, batchSize, parameterOffset ) );
+            final AlgNode newSource = convert( source, source.getTraitSet().replace( EnumerableConvention.INSTANCE ) );
+            final AlgNode newTarget = convert( filtered, filtered.getTraitSet().replace( EnumerableConvention.INSTANCE ) );
+            call.transformTo( EnumerableBindJoin.create(
+                    keysFromLeft ? newSource : newTarget,
+                    keysFromLeft ? newTarget : newSource,
+                    join.getCondition(),
+                    info.leftKeys,
+                    info.rightKeys,
+                    join.getVariablesSet(),
+                    join.getJoinType(),
+                    keysFromLeft,
+                    batchSize,
+                    parameterOffset ) );
+        }
+    }
+
+
+    /**
+     * Counts the joins of an input. Subsets are represented by the expression they have been registered with.
+     */
+    private static long nestedJoins( AlgNode node, Set<AlgNode> visited ) {
+        final AlgNode alg = node instanceof AlgSubset ? ((AlgSubset) node).getOriginal() : node;
+        if ( !visited.add( alg ) ) {
+            return 0;
+        }
+        long joins = alg instanceof Join ? 1 : 0;
+        for ( AlgNode input : alg.getInputs() ) {
+            joins += nestedJoins( input, visited );
+        }
+        return joins;
+    }
+
+
+    /**
+     * Whether the inputs read from disjoint sets of stores. The stores are resolved from the schemas of the scanned
+     * (physical) tables like for the affinity groups of {@link Parallelism}.
+     */
+    private static boolean readsFromDifferentStores( AlgMetadataQuery mq, AlgNode left, AlgNode right ) {
+        final List<CatalogAdapter> adapters = Catalog.getInstance().getAdapters();
+        final Set<String> leftStores = stores( mq, left, adapters );
+        final Set<String> rightStores = stores( mq, right, adapters );
+        return !leftStores.isEmpty() && !rightStores.isEmpty() && Collections.disjoint( leftStores, rightStores );
+    }
+
+
+    private static Set<String> stores( AlgMetadataQuery mq, AlgNode input, List<CatalogAdapter> adapters ) {
+        final Set<AlgTableRef> tables = mq.getTableReferences( input );
+        if ( tables == null ) {
+            return Collections.emptySet();
+        }
+        final Set<String> stores = new HashSet<>();
+        for ( AlgTableRef table : tables ) {
+            stores.add( Parallelism.storeOf( table.getQualifiedName(), adapters ) );
+        }
+        return stores;
+    }
+
+}
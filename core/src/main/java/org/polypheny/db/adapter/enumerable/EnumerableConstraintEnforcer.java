@@ -71,9 +71,9 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         Result control = implementor.visitChild( this, 1, (EnumerableAlg) getRight(), pref );
 
         // Move into lambda
-        Expression executor = builder.append( builder.newName( "executor" + System.nanoTime() ), modify.block );
+        Expression executor = builder.append( builder.newName( implementor.uniqueName( "executor" ) ), modify.block );
 
-        ParameterExpression exp = Expressions.parameter( Types.of( Function0.class, Enumerable.class ), builder.newName( "executor" + System.nanoTime() ) );
+        ParameterExpression exp = Expressions.parameter( Types.of( Function0.class, Enumerable.class ), builder.newName( implementor.uniqueName( "executor" ) ) );
 
         // Move executor enumerable into a lambda so parameters get not prematurely
         FunctionExpression<Function<?>> expCall = Expressions.lambda( Expressions.block( Expressions.return_( null, executor ) ) );
@@ -82,7 +82,7 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         MethodCallExpression transformContext = Expressions.call(
                 BuiltInMethod.ENFORCE_CONSTRAINT.method,
                 exp,
-                builder.append( builder.newName( "control" + System.nanoTime() ), control.block ),
+                builder.append( builder.newName( implementor.uniqueName( "control" ) ), control.block ),
                 Expressions.constant( this.getExceptionClasses() ),
                 Expressions.constant( this.getExceptionMessages() ) );
 
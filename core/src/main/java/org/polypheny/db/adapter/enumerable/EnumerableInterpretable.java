@@ -34,6 +34,8 @@
 package org.polypheny.db.adapter.enumerable;
 
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.List;
@@ -52,6 +54,8 @@
 import org.polypheny.db.adapter.enumerable.EnumerableAlg.Prefer;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.convert.ConverterImpl;
+import org.polypheny.db.config.Config;
+import org.polypheny.db.config.Config.ConfigListener;
 import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.interpreter.BindableConvention;
 import org.polypheny.db.interpreter.Compiler;
@@ -60,6 +64,7 @@
 import org.polypheny.db.interpreter.Node;
 import org.polypheny.db.interpreter.Row;
 import org.polypheny.db.interpreter.Sink;
+import org.polypheny.db.monitoring.jfr.CompilationEvent;
 import org.polypheny.db.plan.AlgOptCluster;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.plan.ConventionTraitDef;
@@ -81,6 +86,28 @@
  */
 public class EnumerableInterpretable extends ConverterImpl implements InterpretableRel {
 
+    /**
+     * Compiled classes of generated code, keyed by the generated source. Replaced if the size of the cache is changed.
+     */
+    private static volatile Cache<String, Class<?>> classCache = createClassCache( RuntimeConfig.GENERATED_CLASS_CACHE_SIZE.getInteger() );
+
+
+    static {
+        RuntimeConfig.GENERATED_CLASS_CACHE_SIZE.addObserver( new ConfigListener() {
+            @Override
+            public void onConfigChange( Config c ) {
+                classCache = createClassCache( c.getInt() );
+            }
+
+
+            @Override
+            public void restart( Config c ) {
+                classCache = createClassCache( c.getInt() );
+            }
+        } );
+    }
+
+
     protected EnumerableInterpretable( AlgOptCluster cluster, AlgNode input ) {
         super( cluster, ConventionTraitDef.INSTANCE, cluster.traitSetOf( InterpretableConvention.INSTANCE ), input );
     }
@@ -106,6 +133,8 @@ public Node implement( final InterpreterImplementor implementor ) {
 
 
     public static Pair<Bindable<Object[]>, String> toBindable( Map<String, Object> parameters, EnumerableAlg alg, EnumerableAlg.Prefer prefer, Statement statement ) {
+        final CompilationEvent event = new CompilationEvent();
+        event.begin();
         EnumerableAlgImplementor algImplementor = new EnumerableAlgImplementor( alg.getCluster().getRexBuilder(), parameters );
 
         final ClassDeclaration expr = algImplementor.implementRoot( alg, prefer );
@@ -118,7 +147,16 @@ public static Pair<Bindable<Object[]>, String> toBindable( Map<String, Object> p
         Hook.JAVA_PLAN.run( s );
 
         try {
-            return new Pair<>( getBindable( expr, s, alg.getRowType().getFieldCount() ), s );
+            final Bindable<Object[]> bindable = getBindable( expr, s, alg.getRowType().getFieldCount() );
+            event.end();
+            if ( event.shouldCommit() ) {
+                event.statementId = statement == null ? -1 : statement.getId();
+                event.transactionId = statement == null ? -1 : statement.getTransaction().getId();
+                event.className = expr.name;
+                event.sourceLength = s.length();
+                event.commit();
+            }
+            return new Pair<>( bindable, s );
         } catch ( Exception e ) {
             throw Helper.INSTANCE.wrap( "Error while compiling generated Java code:\n" + s, e );
         }
@@ -132,6 +170,47 @@ static ArrayBindable getArrayBindable( ClassDeclaration expr, String s, int fiel
 
 
     static Bindable getBindable( ClassDeclaration expr, String s, int fieldCount ) throws CompileException, IOException {
+        if ( RuntimeConfig.GENERATED_CLASS_CACHE_SIZE.getInteger() <= 0 ) {
+            return instantiate( compile( expr, s, fieldCount ) );
+        }
+        // Stashed values are passed via the data context at runtime, hence the compiled class can be reused for
+        // every query resulting in exactly the same source.
+        final String key = expr.name + "|" + fieldCount + "|" + RuntimeConfig.DEBUG.getBoolean() + "|" + s;
+        final Cache<String, Class<?>> cache = classCache;
+        Class<?> clazz = cache.getIfPresent( key );
+        if ( clazz == null ) {
+            clazz = compile( expr, s, fieldCount );
+            cache.put( key, clazz );
+        }
+        return instantiate( clazz );
+    }
+
+
+    /**
+     * Removes all compiled classes from the cache.
+     */
+    public static void resetClassCache() {
+        classCache.invalidateAll();
+    }
+
+
+    private static Cache<String, Class<?>> createClassCache( int size ) {
+        return CacheBuilder.newBuilder()
+                .maximumSize( Math.max( size, 0 ) )
+                .build();
+    }
+
+
+    private static Bindable instantiate( Class<?> clazz ) {
+        try {
+            return (Bindable) clazz.getDeclaredConstructor().newInstance();
+        } catch ( ReflectiveOperationException e ) {
+            throw new IllegalStateException( "Unable to instantiate generated class " + clazz.getName(), e );
+        }
+    }
+
+
+    private static Class<?> compile( ClassDeclaration expr, String s, int fieldCount ) throws CompileException, IOException {
         ICompilerFactory compilerFactory;
         try {
             compilerFactory = CompilerFactoryFactory.getDefaultCompilerFactory();
@@ -150,7 +229,8 @@ static Bindable getBindable( ClassDeclaration expr, String s, int fieldCount ) t
             // Add line numbers to the generated janino class
             cbe.setDebuggingInformation( true, true, true );
         }
-        return (Bindable) cbe.createInstance( new StringReader( s ) );
+        cbe.cook( new StringReader( s ) );
+        return cbe.getClazz();
     }
 
 
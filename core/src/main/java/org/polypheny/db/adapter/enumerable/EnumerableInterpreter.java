@@ -115,7 +115,7 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         final JavaTypeFactory typeFactory = implementor.getTypeFactory();
         final BlockBuilder builder = new BlockBuilder();
         final PhysType physType = PhysTypeImpl.of( typeFactory, getRowType(), JavaRowFormat.ARRAY );
-        final Expression interpreter_ = builder.append( builder.newName( "interpreter" + System.nanoTime() ), Expressions.new_( Interpreter.class, implementor.getRootExpression(), implementor.stash( getInput(), AlgNode.class ) ) );
+        final Expression interpreter_ = builder.append( builder.newName( implementor.uniqueName( "interpreter" ) ), Expressions.new_( Interpreter.class, implementor.getRootExpression(), implementor.stash( getInput(), AlgNode.class ) ) );
         final Expression sliced_ =
                 getRowType().getFieldCount() == 1
                         ? Expressions.call( BuiltInMethod.SLICE0.method, interpreter_ )
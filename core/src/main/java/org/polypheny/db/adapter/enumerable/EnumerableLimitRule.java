@@ -57,6 +57,10 @@ public void onMatch( AlgOptRuleCall call ) {
         if ( sort.offset == null && sort.fetch == null ) {
             return;
         }
+        if ( sort instanceof EnumerableTopK ) {
+            // Already implemented
+            return;
+        }
         final AlgTraitSet traitSet = sort.getTraitSet().replace( EnumerableConvention.INSTANCE );
         AlgNode input = sort.getInput();
         if ( !sort.getCollation().getFieldCollations().isEmpty() ) {
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Ord;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.AlgWriter;
+import org.polypheny.db.algebra.core.Union;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.util.BuiltInMethod;
+
+
+/**
+ * Implementation of {@link Union} with duplicates in {@link EnumerableConvention enumerable calling convention} which
+ * enumerates its inputs concurrently, e.g., the scans of the partitions of a table. Inputs reading from the same store
+ * are enumerated one after another. The order of the rows is not preserved.
+ */
+public class EnumerableParallelUnion extends Union implements EnumerableAlg {
+
+    public final int parallelism;
+
+
+    public EnumerableParallelUnion( AlgOptCluster cluster, AlgTraitSet traitSet, List<AlgNode> inputs, int parallelism ) {
+        super( cluster, traitSet, inputs, true );
+        assert parallelism > 1;
+        this.parallelism = parallelism;
+    }
+
+
+    @Override
+    public EnumerableParallelUnion copy( AlgTraitSet traitSet, List<AlgNode> inputs, boolean all ) {
+        assert all;
+        return new EnumerableParallelUnion( getCluster(), traitSet, inputs, parallelism );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        return super.computeSelfCost( planner, mq ).multiplyBy( 1d / parallelism + Parallelism.EXCHANGE_COST_MULTIPLIER );
+    }
+
+
+    @Override
+    public AlgWriter explainTerms( AlgWriter pw ) {
+        return super.explainTerms( pw ).item( "parallelism", parallelism );
+    }
+
+
+    @Override
+    public String algCompareString() {
+        return super.algCompareString() + parallelism + "&";
+    }
+
+
+    @Override
+    public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
+        final BlockBuilder builder = new BlockBuilder();
+        final PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getRowType(), JavaRowFormat.ARRAY );
+        final List<Expression> children = new ArrayList<>();
+        for ( Ord<AlgNode> ord : Ord.zip( inputs ) ) {
+            final Result result = implementor.visitChild( this, ord.i, (EnumerableAlg) ord.e, Prefer.ARRAY );
+            final Expression childExp = builder.append( "child" + ord.i, result.block );
+            children.add( result.physType.convertTo( childExp, physType ) );
+        }
+        final List<Expression> groups = new ArrayList<>();
+        for ( int group : Parallelism.affinityGroups( inputs ) ) {
+            groups.add( Expressions.constant( group ) );
+        }
+        builder.add(
+                Expressions.call(
+                        BuiltInMethod.PARALLEL_UNION.method,
+                        Expressions.newArrayInit( Enumerable.class, children ),
+                        Expressions.newArrayInit( int.class, groups ),
+                        Expressions.constant( parallelism ) ) );
+        return implementor.result( physType, builder.toBlock() );
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import java.util.function.Predicate;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.convert.ConverterRule;
+import org.polypheny.db.algebra.core.AlgFactories;
+import org.polypheny.db.algebra.logical.relational.LogicalUnion;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.plan.Convention;
+
+
+/**
+ * Rule to convert a {@link LogicalUnion} with duplicates to an {@link EnumerableParallelUnion} if the estimated
+ * number of rows justifies more than one worker.
+ */
+class EnumerableParallelUnionRule extends ConverterRule {
+
+    EnumerableParallelUnionRule() {
+        super( LogicalUnion.class,
+                (Predicate<LogicalUnion>) union -> union.all && union.getInputs().size() > 1,
+                Convention.NONE, EnumerableConvention.INSTANCE,
+                AlgFactories.LOGICAL_BUILDER, "EnumerableParallelUnionRule" );
+    }
+
+
+    @Override
+    public AlgNode convert( AlgNode alg ) {
+        final LogicalUnion union = (LogicalUnion) alg;
+        final int parallelism = Parallelism.degree(
+                alg.getCluster().getPlanner(),
+                alg.getCluster().getMetadataQuery().getRowCount( union ),
+                union.getInputs().size() );
+        if ( parallelism <= 1 ) {
+            return null;
+        }
+        final EnumerableConvention out = EnumerableConvention.INSTANCE;
+        final AlgTraitSet traitSet = union.getTraitSet().replace( out );
+        return new EnumerableParallelUnion( alg.getCluster(), traitSet, convertList( union.getInputs(), out ), parallelism );
+    }
+
+}
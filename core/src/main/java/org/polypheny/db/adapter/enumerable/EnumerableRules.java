@@ -60,6 +60,8 @@ public class EnumerableRules {
 
     public static final AlgOptRule ENUMERABLE_CORRELATE_RULE = new EnumerableCorrelateRule( AlgFactories.LOGICAL_BUILDER );
 
+    public static final AlgOptRule ENUMERABLE_BIND_JOIN_RULE = new EnumerableBindJoinRule();
+
 
     private EnumerableRules() {
     }
@@ -93,8 +95,12 @@ private EnumerableRules() {
 
     public static final EnumerableLimitRule ENUMERABLE_LIMIT_RULE = new EnumerableLimitRule();
 
+    public static final EnumerableTopKRule ENUMERABLE_TOP_K_RULE = new EnumerableTopKRule();
+
     public static final EnumerableUnionRule ENUMERABLE_UNION_RULE = new EnumerableUnionRule();
 
+    public static final EnumerableParallelUnionRule ENUMERABLE_PARALLEL_UNION_RULE = new EnumerableParallelUnionRule();
+
     public static final EnumerableModifyCollectRule ENUMERABLE_MODIFY_COLLECT_RULE = new EnumerableModifyCollectRule();
 
     public static final EnumerableIntersectRule ENUMERABLE_INTERSECT_RULE = new EnumerableIntersectRule();
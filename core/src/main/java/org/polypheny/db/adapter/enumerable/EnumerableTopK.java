@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import java.util.Comparator;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.algebra.AlgCollation;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Sort;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.rex.RexDynamicParam;
+import org.polypheny.db.rex.RexLiteral;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.util.BuiltInMethod;
+import org.polypheny.db.util.Pair;
+
+
+/**
+ * Implementation of a {@link Sort} with a fetch in {@link EnumerableConvention enumerable calling convention}. Instead
+ * of sorting the whole input, only the first {@code offset + fetch} rows are kept in a bounded heap. This is, e.g., the
+ * case for k-nearest-neighbor queries of the form {@code ORDER BY DISTANCE(...) LIMIT k}.
+ */
+public class EnumerableTopK extends Sort implements EnumerableAlg {
+
+    /**
+     * Creates an EnumerableTopK.
+     *
+     * Use {@link #create} unless you know what you're doing.
+     */
+    public EnumerableTopK( AlgOptCluster cluster, AlgTraitSet traitSet, AlgNode input, AlgCollation collation, RexNode offset, RexNode fetch ) {
+        super( cluster, traitSet, input, collation, offset, fetch );
+        assert getConvention() instanceof EnumerableConvention;
+        assert getConvention() == input.getConvention();
+        assert fetch != null;
+    }
+
+
+    /**
+     * Creates an EnumerableTopK.
+     */
+    public static EnumerableTopK create( AlgNode child, AlgCollation collation, RexNode offset, RexNode fetch ) {
+        final AlgOptCluster cluster = child.getCluster();
+        final AlgTraitSet traitSet = cluster.traitSetOf( EnumerableConvention.INSTANCE ).replace( collation );
+        return new EnumerableTopK( cluster, traitSet, child, collation, offset, fetch );
+    }
+
+
+    @Override
+    public EnumerableTopK copy( AlgTraitSet traitSet, AlgNode newInput, AlgCollation newCollation, RexNode offset, RexNode fetch ) {
+        return new EnumerableTopK( getCluster(), traitSet, newInput, newCollation, offset, fetch );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        // Every input row is compared against the heap of the k smallest rows
+        final double inputRowCount = mq.getRowCount( getInput() );
+        final double bytesPerRow = getRowType().getFieldCount() * 4;
+        final double cpu = inputRowCount * log2( getLimitEstimate() ) * bytesPerRow;
+        return planner.getCostFactory().makeCost( mq.getRowCount( this ), cpu, 0 );
+    }
+
+
+    /**
+     * @return the number of rows kept in the heap; the number of rows of the input if it is only known at execution time
+     */
+    private double getLimitEstimate() {
+        if ( fetch instanceof RexDynamicParam || offset instanceof RexDynamicParam ) {
+            return Math.max( getCluster().getMetadataQuery().getRowCount( getInput() ), 2 );
+        }
+        final int offsetValue = offset == null ? 0 : RexLiteral.intValue( offset );
+        return Math.max( (double) offsetValue + RexLiteral.intValue( fetch ), 2 );
+    }
+
+
+    private static double log2( double value ) {
+        return Math.log( value ) / Math.log( 2 );
+    }
+
+
+    @Override
+    public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
+        final BlockBuilder builder = new BlockBuilder();
+        final EnumerableAlg child = (EnumerableAlg) getInput();
+        final Result result = implementor.visitChild( this, 0, child, pref );
+        final PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getRowType(), result.format );
+        Expression childExp = builder.append( "child", result.block );
+
+        PhysType inputPhysType = result.physType;
+        final Pair<Expression, Expression> pair = inputPhysType.generateCollationKey( collation.getFieldCollations() );
+
+        builder.add(
+                Expressions.return_(
+                        null,
+                        Expressions.call(
+                                BuiltInMethod.ORDER_BY_AND_LIMIT.method,
+                                childExp,
+                                builder.append( "keySelector", pair.left ),
+                                pair.right != null ? builder.append( "comparator", pair.right ) : Expressions.constant( null, Comparator.class ),
+                                offset != null ? EnumerableLimit.getExpression( offset ) : Expressions.constant( 0 ),
+                                EnumerableLimit.getExpression( fetch ) ) ) );
+        return implementor.result( physType, builder.toBlock() );
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Sort;
+import org.polypheny.db.plan.AlgOptRule;
+import org.polypheny.db.plan.AlgOptRuleCall;
+import org.polypheny.db.plan.Convention;
+
+
+/**
+ * Rule to convert a {@link Sort} which has a collation and a {@code fetch} to an {@link EnumerableTopK}. This is an
+ * alternative to the {@link EnumerableLimit} on top of an {@link EnumerableSort} created by the
+ * {@link EnumerableLimitRule}; the planner picks the cheaper one.
+ */
+class EnumerableTopKRule extends AlgOptRule {
+
+    EnumerableTopKRule() {
+        super( operand( Sort.class, Convention.NONE, any() ), "EnumerableTopKRule" );
+    }
+
+
+    @Override
+    public void onMatch( AlgOptRuleCall call ) {
+        final Sort sort = call.alg( 0 );
+        if ( sort.fetch == null || sort.getCollation().getFieldCollations().isEmpty() ) {
+            return;
+        }
+        final AlgNode input = sort.getInput();
+        call.transformTo( EnumerableTopK.create(
+                convert( input, input.getTraitSet().replace( EnumerableConvention.INSTANCE ) ),
+                sort.getCollation(),
+                sort.offset,
+                sort.fetch ) );
+    }
+
+}
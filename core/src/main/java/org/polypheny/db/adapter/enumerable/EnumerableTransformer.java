@@ -118,7 +118,7 @@ private Result implementGraphOnDocument( EnumerableAlgImplementor implementor, P
         List<Expression> tableAsNodes = new ArrayList<>();
         int i = 0;
         for ( Entry<String, Result> entry : nodes.entrySet() ) {
-            Expression exp = builder.append( builder.newName( "nodes_" + System.nanoTime() ), entry.getValue().block );
+            Expression exp = builder.append( builder.newName( implementor.uniqueName( "nodes_" ) ), entry.getValue().block );
             MethodCallExpression transformedTable = Expressions.call( BuiltInMethod.X_MODEL_COLLECTION_TO_NODE.method, exp, Expressions.constant( entry.getKey() ) );
             tableAsNodes.add( transformedTable );
             i++;
@@ -195,7 +195,7 @@ private Result implementGraphOnRelational( EnumerableAlgImplementor implementor,
         List<Expression> tableAsNodes = new ArrayList<>();
         int i = 0;
         for ( Entry<String, Pair<AlgNode, Result>> entry : nodes.entrySet() ) {
-            Expression exp = builder.append( builder.newName( "nodes_" + System.nanoTime() ), entry.getValue().right.block );
+            Expression exp = builder.append( builder.newName( implementor.uniqueName( "nodes_" ) ), entry.getValue().right.block );
             MethodCallExpression transformedTable = Expressions.call( BuiltInMethod.X_MODEL_TABLE_TO_NODE.method, exp, Expressions.constant( entry.getKey() ), EnumUtils.constantArrayList( entry.getValue().getKey().getRowType().getFieldNames(), String.class ) );
             tableAsNodes.add( transformedTable );
             i++;
@@ -261,8 +261,8 @@ private Result implementGraph( EnumerableAlgImplementor implementor, Prefer pref
         Type outputJavaType = physType.getJavaRowType();
         final Type enumeratorType = Types.of( Enumerator.class, outputJavaType );
 
-        Expression nodesExp = builder.append( builder.newName( "nodes_" + System.nanoTime() ), nodes.block );
-        Expression edgeExp = builder.append( builder.newName( "edges_" + System.nanoTime() ), edges.block );
+        Expression nodesExp = builder.append( builder.newName( implementor.uniqueName( "nodes_" ) ), nodes.block );
+        Expression edgeExp = builder.append( builder.newName( implementor.uniqueName( "edges_" ) ), edges.block );
 
         MethodCallExpression nodeCall = Expressions.call( BuiltInMethod.TO_NODE.method, nodesExp );
         MethodCallExpression edgeCall = Expressions.call( BuiltInMethod.TO_EDGE.method, edgeExp );
@@ -332,7 +332,7 @@ private Result implementDocumentOnGraph( EnumerableAlgImplementor implementor, P
         Type inputJavaType = physType.getJavaRowType();
         ParameterExpression inputEnumerator = Expressions.parameter( Types.of( Enumerator.class, inputJavaType ), "inputEnumerator" );
 
-        Expression nodesExp = builder.append( builder.newName( "nodes_" + System.nanoTime() ), res.block );
+        Expression nodesExp = builder.append( builder.newName( implementor.uniqueName( "nodes_" ) ), res.block );
 
         Type outputJavaType = physType.getJavaRowType();
         final Type enumeratorType = Types.of( Enumerator.class, outputJavaType );
@@ -76,7 +76,7 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
 
         ParameterExpression inputEnumerator = Expressions.parameter( Types.of( Enumerator.class, inputJavaType ), "inputEnumerator" );
 
-        Expression inputEnumerable = builder.append( builder.newName( "inputEnumerable" + System.nanoTime() ), res.block, false );
+        Expression inputEnumerable = builder.append( builder.newName( implementor.uniqueName( "inputEnumerable" ) ), res.block, false );
 
         final ParameterExpression i_ = Expressions.parameter( int.class, "_i" );
         final ParameterExpression list_ = Expressions.parameter( Types.of( List.class, Object.class ), "_callList" );
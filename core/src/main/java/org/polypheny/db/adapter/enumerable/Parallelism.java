@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Scan;
+import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.catalog.entity.CatalogAdapter;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.transaction.Statement;
+
+
+/**
+ * Utilities for planning the degree of intra-query parallelism.
+ */
+public final class Parallelism {
+
+    /**
+     * Relative cost of handing rows over between threads.
+     */
+    public static final double EXCHANGE_COST_MULTIPLIER = 0.1d;
+
+
+    private Parallelism() {
+        // Utility class
+    }
+
+
+    /**
+     * Returns the maximum degree of parallelism for the statement which is planned by the given planner.
+     */
+    public static int maxDegree( AlgOptPlanner planner ) {
+        final Statement statement = planner.getContext().unwrap( Statement.class );
+        return maxDegree( statement );
+    }
+
+
+    /**
+     * Returns the maximum degree of parallelism of a single operator of the given statement.
+     *
+     * @param statement The statement or {@code null} to use {@link RuntimeConfig#PARALLEL_EXECUTION_MAX_DEGREE}
+     */
+    public static int maxDegree( Statement statement ) {
+        final int max = statement != null ? statement.getMaxParallelism() : RuntimeConfig.PARALLEL_EXECUTION_MAX_DEGREE.getInteger();
+        return Math.max( 1, max );
+    }
+
+
+    /**
+     * Decides the number of workers for an operator processing the given number of rows. An additional worker is only
+     * used if each of them processes at least {@link RuntimeConfig#PARALLEL_EXECUTION_MIN_ROWS} rows.
+     *
+     * @param planner Planner of the statement
+     * @param rowCount Estimated number of rows processed by the operator
+     * @param maxTasks Maximum number of independent tasks of the operator
+     * @return Number of workers, 1 if the operator should not be executed in parallel
+     */
+    public static int degree( AlgOptPlanner planner, Double rowCount, int maxTasks ) {
+        final int max = Math.min( maxDegree( planner ), maxTasks );
+        if ( max <= 1 || rowCount == null || Double.isInfinite( rowCount ) ) {
+            return 1;
+        }
+        final double byRows = Math.floor( rowCount / Math.max( 1, RuntimeConfig.PARALLEL_EXECUTION_MIN_ROWS.getInteger() ) );
+        return (int) Math.max( 1, Math.min( max, byRows ) );
+    }
+
+
+    /**
+     * Assigns the inputs of an operator to groups which must not be executed concurrently because they read from the
+     * same store. A transaction uses a single connection per store, which must not be accessed by multiple threads.
+     * Two inputs belong to the same group if they scan tables of the same store.
+     *
+     * @return Group of every input
+     */
+    public static int[] affinityGroups( List<AlgNode> inputs ) {
+        final int[] groups = new int[inputs.size()];
+        final Map<String, Integer> owners = new HashMap<>();
+        final List<CatalogAdapter> adapters = Catalog.getInstance().getAdapters();
+        for ( int i = 0; i < groups.length; i++ ) {
+            groups[i] = i;
+            final Set<String> stores = new LinkedHashSet<>();
+            collectStores( inputs.get( i ), adapters, stores );
+            for ( String store : stores ) {
+                final Integer owner = owners.putIfAbsent( store, i );
+                if ( owner != null && groups[owner] != groups[i] ) {
+                    // Merge the group of this input into the group of the owner
+                    final int merged = groups[i];
+                    for ( int j = 0; j <= i; j++ ) {
+                        if ( groups[j] == merged ) {
+                            groups[j] = groups[owner];
+                        }
+                    }
+                }
+            }
+        }
+        return groups;
+    }
+
+
+    private static void collectStores( AlgNode node, List<CatalogAdapter> adapters, Set<String> stores ) {
+        if ( node instanceof Scan ) {
+            stores.add( storeOf( node.getTable().getQualifiedName(), adapters ) );
+        }
+        for ( AlgNode input : node.getInputs() ) {
+            collectStores( input, adapters, stores );
+        }
+    }
+
+
+    /**
+     * Resolves the store of a physical table, see {@link #storeOf(String, List)}.
+     *
+     * @param qualifiedName Qualified name of the physical table
+     * @param adapters All adapters of the catalog
+     */
+    static String storeOf( List<String> qualifiedName, List<CatalogAdapter> adapters ) {
+        return storeOf( qualifiedName.size() > 1 ? qualifiedName.get( 0 ) : "", adapters );
+    }
+
+
+    /**
+     * Resolves the store of a physical schema. The names of physical schemas are prefixed with the unique name of their
+     * adapter (see {@code PolySchemaBuilder#buildAdapterSchemaName}). Since unique names may contain underscores, the
+     * adapter with the longest matching prefix is used.
+     */
+    static String storeOf( String schemaName, List<CatalogAdapter> adapters ) {
+        CatalogAdapter store = null;
+        for ( CatalogAdapter adapter : adapters ) {
+            if ( schemaName.startsWith( adapter.uniqueName + "_" ) && (store == null || adapter.uniqueName.length() > store.uniqueName.length()) ) {
+                store = adapter;
+            }
+        }
+        return store != null ? "adapter:" + store.id : "schema:" + schemaName;
+    }
+
+}
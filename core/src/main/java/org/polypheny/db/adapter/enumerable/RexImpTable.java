@@ -2589,10 +2589,10 @@ public Expression implement( RexToLixTranslator translator, RexCall call, NullAs
                     ParameterExpression cList = Expressions.parameter( List.class );
                     blockBuilder.add( Expressions.declare( Modifier.PRIVATE, cList, Expressions.convert_( list_, List.class ) ) );
 
-                    ParameterExpression count_ = Expressions.parameter( int.class, "count_" + System.nanoTime() );
+                    ParameterExpression count_ = Expressions.parameter( int.class, blockBuilder.newName( "count_" ) );
                     blockBuilder.add( Expressions.declare( Modifier.PRIVATE, count_, Expressions.constant( 0 ) ) );
 
-                    ParameterExpression i_ = Expressions.parameter( int.class, "i_" + System.nanoTime() );
+                    ParameterExpression i_ = Expressions.parameter( int.class, blockBuilder.newName( "i_" ) );
                     blockBuilder.add( Expressions.declare( Modifier.PRIVATE, i_, Expressions.constant( 0 ) ) );
 
                     ConditionalStatement ifIncr = Expressions.ifThen( translator.translate( call.operands.get( 1 ) ), Expressions.block( Expressions.statement( Expressions.increment( i_ ) ) ) );
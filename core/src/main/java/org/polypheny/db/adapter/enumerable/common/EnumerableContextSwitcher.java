@@ -52,7 +52,7 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         // tell the implementor that one or many ContextSwitchers are used
         implementor.increaseContext();
 
-        ParameterExpression enumerable = Expressions.parameter( Enumerable.class, "enum" + System.nanoTime() );
+        ParameterExpression enumerable = Expressions.parameter( Enumerable.class, implementor.uniqueName( "enum" ) );
 
         builder.add( Expressions.return_( null, Expressions.new_(
                 AbstractEnumerable.class,
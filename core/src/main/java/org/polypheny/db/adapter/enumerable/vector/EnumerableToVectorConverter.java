@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable.vector;
+
+
+import java.util.List;
+import java.util.function.Predicate;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.enumerable.EnumerableAlg;
+import org.polypheny.db.adapter.enumerable.EnumerableAlg.Prefer;
+import org.polypheny.db.adapter.enumerable.EnumerableAlg.Result;
+import org.polypheny.db.adapter.enumerable.EnumerableAlgImplementor;
+import org.polypheny.db.adapter.enumerable.EnumerableConvention;
+import org.polypheny.db.adapter.enumerable.JavaRowFormat;
+import org.polypheny.db.adapter.enumerable.PhysType;
+import org.polypheny.db.adapter.enumerable.PhysTypeImpl;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.convert.ConverterImpl;
+import org.polypheny.db.algebra.convert.ConverterRule;
+import org.polypheny.db.algebra.core.AlgFactories;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.plan.ConventionTraitDef;
+import org.polypheny.db.schema.ModelTrait;
+import org.polypheny.db.schema.ModelTraitDef;
+import org.polypheny.db.util.BuiltInMethod;
+
+
+/**
+ * Relational expression that groups the rows produced by an enumerable input into vector batches.
+ */
+public class EnumerableToVectorConverter extends ConverterImpl implements VectorAlg {
+
+    protected EnumerableToVectorConverter( AlgOptCluster cluster, AlgTraitSet traits, AlgNode input ) {
+        super( cluster, ConventionTraitDef.INSTANCE, traits, input );
+    }
+
+
+    @Override
+    public EnumerableToVectorConverter copy( AlgTraitSet traitSet, List<AlgNode> inputs ) {
+        return new EnumerableToVectorConverter( getCluster(), traitSet, sole( inputs ) );
+    }
+
+
+    @Override
+    public String algCompareString() {
+        return "EnumerableToVectorConverter$" + input.algCompareString() + "&";
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        return super.computeSelfCost( planner, mq ).multiplyBy( VectorConvention.CONVERSION_COST_MULTIPLIER );
+    }
+
+
+    @Override
+    public Expression implement( EnumerableAlgImplementor implementor, BlockBuilder builder ) {
+        final Result result = implementor.visitChild( null, 0, (EnumerableAlg) getInput(), Prefer.ARRAY );
+        final PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getRowType(), JavaRowFormat.ARRAY );
+        final Expression rows = builder.append( "rows", result.block );
+        return builder.append(
+                "batches",
+                Expressions.call(
+                        BuiltInMethod.VECTOR_TO_BATCHES.method,
+                        result.physType.convertTo( rows, physType ),
+                        VectorTypes.constant( VectorTypes.of( this ) ),
+                        Expressions.constant( physType.getFormat() == JavaRowFormat.SCALAR ),
+                        Expressions.constant( RuntimeConfig.VECTORIZED_BATCH_SIZE.getInteger() ) ) );
+    }
+
+
+    /**
+     * Rule that converts relational enumerable expressions to the vectorized calling convention.
+     */
+    public static class EnumerableToVectorConverterRule extends ConverterRule {
+
+        public static final EnumerableToVectorConverterRule INSTANCE = new EnumerableToVectorConverterRule();
+
+
+        private EnumerableToVectorConverterRule() {
+            super(
+                    EnumerableAlg.class,
+                    (Predicate<AlgNode>) EnumerableToVectorConverterRule::isRelational,
+                    EnumerableConvention.INSTANCE,
+                    VectorConvention.INSTANCE,
+                    AlgFactories.LOGICAL_BUILDER,
+                    "EnumerableToVectorConverterRule" );
+        }
+
+
+        private static boolean isRelational( AlgNode alg ) {
+            final ModelTrait model = alg.getTraitSet().getTrait( ModelTraitDef.INSTANCE );
+            return model == null || model.equals( ModelTrait.RELATIONAL );
+        }
+
+
+        @Override
+        public AlgNode convert( AlgNode alg ) {
+            return new EnumerableToVectorConverter( alg.getCluster(), alg.getTraitSet().replace( VectorConvention.INSTANCE ), alg );
+        }
+
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable.vector;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.enumerable.EnumerableAlgImplementor;
+import org.polypheny.db.adapter.enumerable.Parallelism;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.AlgWriter;
+import org.polypheny.db.algebra.core.Aggregate;
+import org.polypheny.db.algebra.core.AggregateCall;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.runtime.vector.VectorAggFunction;
+import org.polypheny.db.runtime.vector.VectorColumnType;
+import org.polypheny.db.runtime.vector.VectorHashAggregate;
+import org.polypheny.db.util.BuiltInMethod;
+import org.polypheny.db.util.ImmutableBitSet;
+
+
+/**
+ * Implementation of {@link Aggregate} in {@link VectorConvention vectorized calling convention} using a hash table.
+ * Supports a single grouping set and the aggregate functions {@code COUNT}, {@code SUM}, {@code MIN} and
+ * {@code MAX} without {@code DISTINCT} or {@code FILTER}. With a {@link #parallelism} greater than one, every worker
+ * pre-aggregates a part of the input and the partial results are merged.
+ */
+public class VectorAggregate extends Aggregate implements VectorAlg {
+
+    public final int parallelism;
+
+
+    public VectorAggregate( AlgOptCluster cluster, AlgTraitSet traitSet, AlgNode input, boolean indicator, ImmutableBitSet groupSet, List<ImmutableBitSet> groupSets, List<AggregateCall> aggCalls, int parallelism ) {
+        super( cluster, traitSet, input, indicator, groupSet, groupSets, aggCalls );
+        assert getConvention() instanceof VectorConvention;
+        this.parallelism = parallelism;
+    }
+
+
+    /**
+     * Checks whether the given aggregate can be executed by {@link VectorHashAggregate}.
+     */
+    static boolean isSupported( Aggregate aggregate ) {
+        if ( aggregate.indicator || aggregate.getGroupType() != Group.SIMPLE ) {
+            return false;
+        }
+        final VectorColumnType[] inputTypes = VectorTypes.of( aggregate.getInput() );
+        final VectorColumnType[] outputTypes = VectorTypes.of( aggregate );
+        final int groupCount = aggregate.getGroupCount();
+        for ( int i = 0; i < aggregate.getAggCallList().size(); i++ ) {
+            final AggregateCall call = aggregate.getAggCallList().get( i );
+            final VectorAggFunction function = toFunction( call );
+            if ( function == null || call.isDistinct() || call.filterArg >= 0 ) {
+                return false;
+            }
+            final VectorColumnType outputType = outputTypes[groupCount + i];
+            switch ( function ) {
+                case COUNT_STAR:
+                case COUNT:
+                    break;
+                case SUM:
+                case SUM0:
+                    final VectorColumnType inputType = inputTypes[call.getArgList().get( 0 )];
+                    if ( !(outputType.isIntegral() && inputType.isIntegral()) && !(outputType.isFloating() && inputType != VectorColumnType.OBJECT) ) {
+                        return false;
+                    }
+                    break;
+                case MIN:
+                case MAX:
+                    final VectorColumnType argumentType = inputTypes[call.getArgList().get( 0 )];
+                    if ( outputType.isIntegral() != argumentType.isIntegral() || outputType.isFloating() != argumentType.isFloating() ) {
+                        return false;
+                    }
+                    break;
+            }
+        }
+        return true;
+    }
+
+
+    private static VectorAggFunction toFunction( AggregateCall call ) {
+        final int argCount = call.getArgList().size();
+        switch ( call.getAggregation().getKind() ) {
+            case COUNT:
+                if ( argCount == 0 ) {
+                    return VectorAggFunction.COUNT_STAR;
+                }
+                return argCount == 1 ? VectorAggFunction.COUNT : null;
+            case SUM:
+                return argCount == 1 ? VectorAggFunction.SUM : null;
+            case SUM0:
+                return argCount == 1 ? VectorAggFunction.SUM0 : null;
+            case MIN:
+                return argCount == 1 ? VectorAggFunction.MIN : null;
+            case MAX:
+                return argCount == 1 ? VectorAggFunction.MAX : null;
+            default:
+                return null;
+        }
+    }
+
+
+    @Override
+    public VectorAggregate copy( AlgTraitSet traitSet, AlgNode input, boolean indicator, ImmutableBitSet groupSet, List<ImmutableBitSet> groupSets, List<AggregateCall> aggCalls ) {
+        return new VectorAggregate( getCluster(), traitSet, input, indicator, groupSet, groupSets, aggCalls, parallelism );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        final double share = 1d / parallelism + (parallelism > 1 ? Parallelism.EXCHANGE_COST_MULTIPLIER : 0);
+        return super.computeSelfCost( planner, mq ).multiplyBy( VectorConvention.COST_MULTIPLIER * share );
+    }
+
+
+    @Override
+    public AlgWriter explainTerms( AlgWriter pw ) {
+        return super.explainTerms( pw ).itemIf( "parallelism", parallelism, parallelism > 1 );
+    }
+
+
+    @Override
+    public String algCompareString() {
+        return super.algCompareString() + parallelism + "&";
+    }
+
+
+    @Override
+    public Expression implement( EnumerableAlgImplementor implementor, BlockBuilder builder ) {
+        final Expression input = ((VectorAlg) getInput()).implement( implementor, builder );
+        final List<Expression> functions = new ArrayList<>();
+        final List<Integer> arguments = new ArrayList<>();
+        for ( AggregateCall call : aggCalls ) {
+            functions.add( Expressions.constant( toFunction( call ) ) );
+            arguments.add( call.getArgList().isEmpty() ? -1 : call.getArgList().get( 0 ) );
+        }
+        final Expression aggregate = Expressions.new_(
+                VectorHashAggregate.class,
+                VectorTypes.constant( groupSet.asList() ),
+                Expressions.newArrayInit( VectorAggFunction.class, functions ),
+                VectorTypes.constant( arguments ),
+                VectorTypes.constant( VectorTypes.of( this ) ),
+                Expressions.constant( RuntimeConfig.VECTORIZED_BATCH_SIZE.getInteger() ) );
+        if ( parallelism > 1 ) {
+            return builder.append(
+                    "aggregated",
+                    Expressions.call( aggregate, BuiltInMethod.VECTOR_AGGREGATE_PARALLEL.method, input, Expressions.constant( parallelism ) ) );
+        }
+        return builder.append( "aggregated", Expressions.call( aggregate, BuiltInMethod.VECTOR_AGGREGATE.method, input ) );
+    }
+
+}
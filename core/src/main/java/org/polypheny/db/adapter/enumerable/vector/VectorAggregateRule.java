@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable.vector;
+
+
+import java.util.function.Predicate;
+import org.polypheny.db.adapter.enumerable.Parallelism;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.convert.ConverterRule;
+import org.polypheny.db.algebra.core.AlgFactories;
+import org.polypheny.db.algebra.logical.relational.LogicalAggregate;
+import org.polypheny.db.plan.AlgOptRule;
+import org.polypheny.db.plan.Convention;
+
+
+/**
+ * Rule to convert a {@link LogicalAggregate} to a {@link VectorAggregate} if all aggregate calls are supported.
+ */
+class VectorAggregateRule extends ConverterRule {
+
+    VectorAggregateRule() {
+        super( LogicalAggregate.class,
+                (Predicate<LogicalAggregate>) VectorAggregate::isSupported,
+                Convention.NONE, VectorConvention.INSTANCE,
+                AlgFactories.LOGICAL_BUILDER, "VectorAggregateRule" );
+    }
+
+
+    @Override
+    public AlgNode convert( AlgNode alg ) {
+        final LogicalAggregate agg = (LogicalAggregate) alg;
+        return new VectorAggregate(
+                alg.getCluster(),
+                alg.getTraitSet().replace( VectorConvention.INSTANCE ),
+                AlgOptRule.convert( agg.getInput(), agg.getInput().getTraitSet().replace( VectorConvention.INSTANCE ) ),
+                agg.indicator,
+                agg.getGroupSet(),
+                agg.getGroupSets(),
+                agg.getAggCallList(),
+                Parallelism.degree( alg.getCluster().getPlanner(), alg.getCluster().getMetadataQuery().getRowCount( agg.getInput() ), Integer.MAX_VALUE ) );
+    }
+
+}
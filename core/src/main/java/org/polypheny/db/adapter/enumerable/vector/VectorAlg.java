@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable.vector;
+
+
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.polypheny.db.adapter.enumerable.EnumerableAlgImplementor;
+import org.polypheny.db.algebra.AlgNode;
+
+
+/**
+ * A relational expression of the {@link VectorConvention vectorized calling convention}.
+ */
+public interface VectorAlg extends AlgNode {
+
+    /**
+     * Generates the code for this expression.
+     *
+     * @param implementor Implementor of the enumerable plan this expression is part of
+     * @param builder Block to which the statements are appended
+     * @return Expression of type {@code Enumerable<VectorBatch>}
+     */
+    Expression implement( EnumerableAlgImplementor implementor, BlockBuilder builder );
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable.vector;
+
+
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.enumerable.EnumerableAlgImplementor;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Filter;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.util.BuiltInMethod;
+
+
+/**
+ * Implementation of {@link Filter} in {@link VectorConvention vectorized calling convention}. Instead of copying
+ * the qualifying rows, the filter sets the selection vector of the batches.
+ */
+public class VectorFilter extends Filter implements VectorAlg {
+
+    public VectorFilter( AlgOptCluster cluster, AlgTraitSet traitSet, AlgNode input, RexNode condition ) {
+        super( cluster, traitSet, input, condition );
+        assert getConvention() instanceof VectorConvention;
+    }
+
+
+    @Override
+    public VectorFilter copy( AlgTraitSet traitSet, AlgNode input, RexNode condition ) {
+        return new VectorFilter( getCluster(), traitSet, input, condition );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        return super.computeSelfCost( planner, mq ).multiplyBy( VectorConvention.COST_MULTIPLIER );
+    }
+
+
+    @Override
+    public Expression implement( EnumerableAlgImplementor implementor, BlockBuilder builder ) {
+        final Expression input = ((VectorAlg) getInput()).implement( implementor, builder );
+        final Expression predicate = VectorPredicateTranslator.translate( condition, getInput() );
+        assert predicate != null : "Condition not supported: " + condition;
+        return builder.append(
+                "filtered",
+                Expressions.call( BuiltInMethod.VECTOR_FILTER.method, input, predicate, implementor.getRootExpression() ) );
+    }
+
+}
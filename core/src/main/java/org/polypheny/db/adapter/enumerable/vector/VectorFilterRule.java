@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable.vector;
+
+
+import java.util.function.Predicate;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.convert.ConverterRule;
+import org.polypheny.db.algebra.core.AlgFactories;
+import org.polypheny.db.algebra.logical.relational.LogicalFilter;
+import org.polypheny.db.plan.AlgOptRule;
+import org.polypheny.db.plan.Convention;
+
+
+/**
+ * Rule to convert a {@link LogicalFilter} to a {@link VectorFilter} if its condition is supported.
+ */
+class VectorFilterRule extends ConverterRule {
+
+    VectorFilterRule() {
+        super( LogicalFilter.class,
+                (Predicate<LogicalFilter>) filter -> VectorPredicateTranslator.translate( filter.getCondition(), filter.getInput() ) != null,
+                Convention.NONE, VectorConvention.INSTANCE,
+                AlgFactories.LOGICAL_BUILDER, "VectorFilterRule" );
+    }
+
+
+    @Override
+    public AlgNode convert( AlgNode alg ) {
+        final LogicalFilter filter = (LogicalFilter) alg;
+        return new VectorFilter(
+                alg.getCluster(),
+                alg.getTraitSet().replace( VectorConvention.INSTANCE ),
+                AlgOptRule.convert( filter.getInput(), filter.getInput().getTraitSet().replace( VectorConvention.INSTANCE ) ),
+                filter.getCondition() );
+    }
+
+}
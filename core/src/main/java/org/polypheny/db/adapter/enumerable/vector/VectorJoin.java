@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable.vector;
+
+
+import java.util.Set;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.enumerable.EnumerableAlgImplementor;
+import org.polypheny.db.adapter.enumerable.Parallelism;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.AlgWriter;
+import org.polypheny.db.algebra.core.CorrelationId;
+import org.polypheny.db.algebra.core.EquiJoin;
+import org.polypheny.db.algebra.core.JoinAlgType;
+import org.polypheny.db.algebra.core.JoinInfo;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.runtime.vector.VectorColumnType;
+import org.polypheny.db.runtime.vector.VectorHashJoin;
+import org.polypheny.db.util.BuiltInMethod;
+import org.polypheny.db.util.ImmutableIntList;
+
+
+/**
+ * Implementation of an inner or left outer equi-join in {@link VectorConvention vectorized calling convention}.
+ * The hash table is built on the right input, the left input is streamed and probed by up to {@link #parallelism}
+ * workers.
+ */
+public class VectorJoin extends EquiJoin implements VectorAlg {
+
+    public final int parallelism;
+
+
+    public VectorJoin( AlgOptCluster cluster, AlgTraitSet traits, AlgNode left, AlgNode right, RexNode condition, ImmutableIntList leftKeys, ImmutableIntList rightKeys, Set<CorrelationId> variablesSet, JoinAlgType joinType, int parallelism ) {
+        super( cluster, traits, left, right, condition, leftKeys, rightKeys, variablesSet, joinType );
+        assert getConvention() instanceof VectorConvention;
+        this.parallelism = parallelism;
+    }
+
+
+    /**
+     * Checks whether a join with the given inputs and keys can be executed by {@link VectorHashJoin}.
+     */
+    static boolean isSupported( AlgNode left, AlgNode right, JoinInfo info, JoinAlgType joinType ) {
+        if ( !info.isEqui() || info.leftKeys.isEmpty() || (joinType != JoinAlgType.INNER && joinType != JoinAlgType.LEFT) ) {
+            return false;
+        }
+        final VectorColumnType[] leftTypes = VectorTypes.of( left );
+        final VectorColumnType[] rightTypes = VectorTypes.of( right );
+        for ( int i = 0; i < info.leftKeys.size(); i++ ) {
+            final VectorColumnType leftType = leftTypes[info.leftKeys.get( i )];
+            final VectorColumnType rightType = rightTypes[info.rightKeys.get( i )];
+            if ( leftType.isIntegral() != rightType.isIntegral() || leftType.isFloating() != rightType.isFloating() ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    @Override
+    public VectorJoin copy( AlgTraitSet traitSet, RexNode condition, AlgNode left, AlgNode right, JoinAlgType joinType, boolean semiJoinDone ) {
+        final JoinInfo joinInfo = JoinInfo.of( left, right, condition );
+        assert joinInfo.isEqui();
+        return new VectorJoin( getCluster(), traitSet, left, right, condition, joinInfo.leftKeys, joinInfo.rightKeys, variablesSet, joinType, parallelism );
+    }
+
+
+    @Override
+    public AlgWriter explainTerms( AlgWriter pw ) {
+        return super.explainTerms( pw ).itemIf( "parallelism", parallelism, parallelism > 1 );
+    }
+
+
+    @Override
+    public String algCompareString() {
+        return super.algCompareString() + parallelism + "&";
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        // The right input is materialized in the hash table, hence it is preferable to have the smaller input on the right
+        final double probeShare = 1d / parallelism + (parallelism > 1 ? Parallelism.EXCHANGE_COST_MULTIPLIER : 0);
+        final double rowCount = (mq.getRowCount( this ) + left.estimateRowCount( mq )) * probeShare
+                + 2 * right.estimateRowCount( mq );
+        return planner.getCostFactory().makeCost( rowCount, 0, 0 ).multiplyBy( VectorConvention.COST_MULTIPLIER );
+    }
+
+
+    @Override
+    public Expression implement( EnumerableAlgImplementor implementor, BlockBuilder builder ) {
+        final Expression leftBatches = ((VectorAlg) left).implement( implementor, builder );
+        final Expression rightBatches = ((VectorAlg) right).implement( implementor, builder );
+        final Expression join = Expressions.new_(
+                VectorHashJoin.class,
+                VectorTypes.constant( leftKeys ),
+                VectorTypes.constant( rightKeys ),
+                VectorTypes.constant( VectorTypes.of( left ) ),
+                VectorTypes.constant( VectorTypes.of( right ) ),
+                Expressions.constant( joinType == JoinAlgType.LEFT ),
+                Expressions.constant( RuntimeConfig.VECTORIZED_BATCH_SIZE.getInteger() ) );
+        if ( parallelism > 1 ) {
+            return builder.append(
+                    "joined",
+                    Expressions.call( join, BuiltInMethod.VECTOR_HASH_JOIN_PARALLEL.method, leftBatches, rightBatches, Expressions.constant( parallelism ) ) );
+        }
+        return builder.append( "joined", Expressions.call( join, BuiltInMethod.VECTOR_HASH_JOIN.method, leftBatches, rightBatches ) );
+    }
+
+}
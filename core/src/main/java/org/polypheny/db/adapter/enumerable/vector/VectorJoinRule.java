@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable.vector;
+
+
+import java.util.function.Predicate;
+import org.polypheny.db.adapter.enumerable.Parallelism;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.convert.ConverterRule;
+import org.polypheny.db.algebra.core.AlgFactories;
+import org.polypheny.db.algebra.core.JoinInfo;
+import org.polypheny.db.algebra.logical.relational.LogicalJoin;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptRule;
+import org.polypheny.db.plan.Convention;
+import org.polypheny.db.schema.ModelTrait;
+
+
+/**
+ * Rule to convert an inner or left outer {@link LogicalJoin} with an equality condition to a {@link VectorJoin}.
+ */
+class VectorJoinRule extends ConverterRule {
+
+    VectorJoinRule() {
+        super( LogicalJoin.class,
+                (Predicate<LogicalJoin>) join -> VectorJoin.isSupported( join.getLeft(), join.getRight(), JoinInfo.of( join.getLeft(), join.getRight(), join.getCondition() ), join.getJoinType() ),
+                Convention.NONE, VectorConvention.INSTANCE,
+                AlgFactories.LOGICAL_BUILDER, "VectorJoinRule" );
+    }
+
+
+    @Override
+    public AlgNode convert( AlgNode alg ) {
+        final LogicalJoin join = (LogicalJoin) alg;
+        final AlgOptCluster cluster = join.getCluster();
+        final AlgNode left = AlgOptRule.convert( join.getLeft(), join.getLeft().getTraitSet().replace( VectorConvention.INSTANCE ) );
+        final AlgNode right = AlgOptRule.convert( join.getRight(), join.getRight().getTraitSet().replace( VectorConvention.INSTANCE ) );
+        final JoinInfo info = JoinInfo.of( left, right, join.getCondition() );
+        return new VectorJoin(
+                cluster,
+                cluster.traitSetOf( VectorConvention.INSTANCE ).replace( ModelTrait.RELATIONAL ),
+                left,
+                right,
+                info.getEquiCondition( left, right, cluster.getRexBuilder() ),
+                info.leftKeys,
+                info.rightKeys,
+                join.getVariablesSet(),
+                join.getJoinType(),
+                Parallelism.degree( cluster.getPlanner(), cluster.getMetadataQuery().getRowCount( join.getLeft() ), Integer.MAX_VALUE ) );
+    }
+
+}
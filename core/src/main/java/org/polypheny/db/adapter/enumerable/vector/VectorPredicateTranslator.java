@@ -0,0 +1,234 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable.vector;
+
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.java.JavaTypeFactory;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.algebra.type.AlgDataTypeField;
+import org.polypheny.db.rex.RexCall;
+import org.polypheny.db.rex.RexDynamicParam;
+import org.polypheny.db.rex.RexInputRef;
+import org.polypheny.db.rex.RexLiteral;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.runtime.vector.VectorColumnType;
+import org.polypheny.db.runtime.vector.VectorComparison;
+import org.polypheny.db.runtime.vector.VectorPredicate;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.util.BuiltInMethod;
+
+
+/**
+ * Translates a filter condition into an expression creating the corresponding {@link VectorPredicate}.
+ * Supported are conjunctions, disjunctions and negations of null checks and comparisons between a column and
+ * a literal, a dynamic parameter or another column. Negations are pushed down to the leaves.
+ */
+final class VectorPredicateTranslator {
+
+    private final List<AlgDataTypeField> fields;
+    private final VectorColumnType[] types;
+
+
+    private VectorPredicateTranslator( AlgNode input ) {
+        this.fields = input.getRowType().getFieldList();
+        this.types = VectorTypes.of( (JavaTypeFactory) input.getCluster().getTypeFactory(), input.getRowType() );
+    }
+
+
+    /**
+     * @param condition Condition to translate
+     * @param input Input of the filter
+     * @return Expression of type {@link VectorPredicate}, or null if the condition is not supported
+     */
+    static Expression translate( RexNode condition, AlgNode input ) {
+        return new VectorPredicateTranslator( input ).translate( condition, false );
+    }
+
+
+    private Expression translate( RexNode node, boolean negate ) {
+        switch ( node.getKind() ) {
+            case AND:
+            case OR:
+                final boolean and = (node.getKind() == Kind.AND) != negate;
+                final List<Expression> operands = new ArrayList<>();
+                for ( RexNode operand : ((RexCall) node).getOperands() ) {
+                    final Expression expression = translate( operand, negate );
+                    if ( expression == null ) {
+                        return null;
+                    }
+                    operands.add( expression );
+                }
+                return Expressions.call(
+                        and ? BuiltInMethod.VECTOR_PREDICATE_AND.method : BuiltInMethod.VECTOR_PREDICATE_OR.method,
+                        Expressions.newArrayInit( VectorPredicate.class, operands ) );
+            case NOT:
+                return translate( ((RexCall) node).getOperands().get( 0 ), !negate );
+            case IS_NULL:
+            case IS_NOT_NULL:
+                final RexNode operand = ((RexCall) node).getOperands().get( 0 );
+                if ( !(operand instanceof RexInputRef) ) {
+                    return null;
+                }
+                final boolean isNull = (node.getKind() == Kind.IS_NULL) != negate;
+                return Expressions.call(
+                        isNull ? BuiltInMethod.VECTOR_PREDICATE_IS_NULL.method : BuiltInMethod.VECTOR_PREDICATE_IS_NOT_NULL.method,
+                        Expressions.constant( ((RexInputRef) operand).getIndex() ) );
+            case EQUALS:
+            case NOT_EQUALS:
+            case LESS_THAN:
+            case LESS_THAN_OR_EQUAL:
+            case GREATER_THAN:
+            case GREATER_THAN_OR_EQUAL:
+                return comparison( (RexCall) node, negate );
+            default:
+                return null;
+        }
+    }
+
+
+    private Expression comparison( RexCall call, boolean negate ) {
+        RexNode left = call.getOperands().get( 0 );
+        RexNode right = call.getOperands().get( 1 );
+        VectorComparison op = toComparison( call.getKind() );
+        if ( negate ) {
+            // Comparisons with null are filtered out anyway, hence the two-valued negation is sufficient
+            op = op.negate();
+        }
+        if ( !(left instanceof RexInputRef) ) {
+            final RexNode tmp = left;
+            left = right;
+            right = tmp;
+            op = op.reverse();
+        }
+        if ( !(left instanceof RexInputRef) ) {
+            return null;
+        }
+        final int column = ((RexInputRef) left).getIndex();
+        if ( right instanceof RexInputRef ) {
+            final int other = ((RexInputRef) right).getIndex();
+            if ( family( column ) != family( other ) ) {
+                return null;
+            }
+            return Expressions.call(
+                    BuiltInMethod.VECTOR_PREDICATE_COMPARE_COLUMNS.method,
+                    Expressions.constant( column ),
+                    Expressions.constant( op ),
+                    Expressions.constant( other ) );
+        } else if ( right instanceof RexDynamicParam ) {
+            return Expressions.call(
+                    BuiltInMethod.VECTOR_PREDICATE_COMPARE_PARAMETER.method,
+                    Expressions.constant( column ),
+                    Expressions.constant( op ),
+                    Expressions.constant( ((RexDynamicParam) right).getIndex() ) );
+        } else if ( right instanceof RexLiteral ) {
+            final Expression value = literal( column, (RexLiteral) right );
+            if ( value == null ) {
+                return null;
+            }
+            return Expressions.call(
+                    BuiltInMethod.VECTOR_PREDICATE_COMPARE_CONSTANT.method,
+                    Expressions.constant( column ),
+                    Expressions.constant( op ),
+                    Expressions.box( value ) );
+        }
+        return null;
+    }
+
+
+    /**
+     * Returns the value of the literal in the representation used by the column, or null if it cannot be compared.
+     */
+    private Expression literal( int column, RexLiteral literal ) {
+        if ( literal.isNull() || literal.getTypeName().getFamily() != family( column ) ) {
+            return null;
+        }
+        final VectorColumnType type = types[column];
+        switch ( literal.getTypeName() ) {
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+            case DECIMAL:
+            case REAL:
+            case FLOAT:
+            case DOUBLE:
+                final BigDecimal value = literal.getValueAs( BigDecimal.class );
+                if ( type == VectorColumnType.OBJECT ) {
+                    return Expressions.constant( value );
+                } else if ( type.isIntegral() && isLong( value ) ) {
+                    return Expressions.constant( value.longValueExact() );
+                }
+                return Expressions.constant( value.doubleValue() );
+            case CHAR:
+            case VARCHAR:
+                return type == VectorColumnType.OBJECT ? Expressions.constant( literal.getValueAs( String.class ) ) : null;
+            case BOOLEAN:
+                return type == VectorColumnType.OBJECT ? Expressions.constant( literal.getValueAs( Boolean.class ) ) : null;
+            case DATE:
+            case TIME:
+                return type.isIntegral() ? Expressions.constant( (long) literal.getValueAs( Integer.class ) ) : null;
+            case TIMESTAMP:
+                return type.isIntegral() ? Expressions.constant( literal.getValueAs( Long.class ) ) : null;
+            default:
+                return null;
+        }
+    }
+
+
+    private Object family( int column ) {
+        final PolyType polyType = fields.get( column ).getType().getPolyType();
+        return polyType == null ? null : polyType.getFamily();
+    }
+
+
+    private static boolean isLong( BigDecimal value ) {
+        try {
+            value.longValueExact();
+            return true;
+        } catch ( ArithmeticException e ) {
+            return false;
+        }
+    }
+
+
+    private static VectorComparison toComparison( Kind kind ) {
+        switch ( kind ) {
+            case EQUALS:
+                return VectorComparison.EQUALS;
+            case NOT_EQUALS:
+                return VectorComparison.NOT_EQUALS;
+            case LESS_THAN:
+                return VectorComparison.LESS_THAN;
+            case LESS_THAN_OR_EQUAL:
+                return VectorComparison.LESS_THAN_OR_EQUAL;
+            case GREATER_THAN:
+                return VectorComparison.GREATER_THAN;
+            case GREATER_THAN_OR_EQUAL:
+                return VectorComparison.GREATER_THAN_OR_EQUAL;
+            default:
+                throw new AssertionError( kind );
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable.vector;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.enumerable.EnumerableAlgImplementor;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Project;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.rex.RexInputRef;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.util.BuiltInMethod;
+
+
+/**
+ * Implementation of {@link Project} in {@link VectorConvention vectorized calling convention}. Only projections
+ * consisting of input references are supported; the column vectors are shared with the input batch.
+ */
+public class VectorProject extends Project implements VectorAlg {
+
+    public VectorProject( AlgOptCluster cluster, AlgTraitSet traitSet, AlgNode input, List<? extends RexNode> projects, AlgDataType rowType ) {
+        super( cluster, traitSet, input, projects, rowType );
+        assert getConvention() instanceof VectorConvention;
+        assert isSupported( projects );
+    }
+
+
+    static boolean isSupported( List<? extends RexNode> projects ) {
+        return projects.stream().allMatch( p -> p instanceof RexInputRef );
+    }
+
+
+    @Override
+    public VectorProject copy( AlgTraitSet traitSet, AlgNode input, List<RexNode> projects, AlgDataType rowType ) {
+        return new VectorProject( getCluster(), traitSet, input, projects, rowType );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        return super.computeSelfCost( planner, mq ).multiplyBy( VectorConvention.COST_MULTIPLIER );
+    }
+
+
+    @Override
+    public Expression implement( EnumerableAlgImplementor implementor, BlockBuilder builder ) {
+        final Expression input = ((VectorAlg) getInput()).implement( implementor, builder );
+        final List<Integer> fields = new ArrayList<>();
+        for ( RexNode project : exps ) {
+            fields.add( ((RexInputRef) project).getIndex() );
+        }
+        return builder.append(
+                "projected",
+                Expressions.call( BuiltInMethod.VECTOR_PROJECT.method, input, VectorTypes.constant( fields ) ) );
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable.vector;
+
+
+import java.util.function.Predicate;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.convert.ConverterRule;
+import org.polypheny.db.algebra.core.AlgFactories;
+import org.polypheny.db.algebra.logical.relational.LogicalProject;
+import org.polypheny.db.plan.AlgOptRule;
+import org.polypheny.db.plan.Convention;
+
+
+/**
+ * Rule to convert a {@link LogicalProject} consisting of input references only to a {@link VectorProject}.
+ */
+class VectorProjectRule extends ConverterRule {
+
+    VectorProjectRule() {
+        super( LogicalProject.class,
+                (Predicate<LogicalProject>) project -> VectorProject.isSupported( project.getProjects() ),
+                Convention.NONE, VectorConvention.INSTANCE,
+                AlgFactories.LOGICAL_BUILDER, "VectorProjectRule" );
+    }
+
+
+    @Override
+    public AlgNode convert( AlgNode alg ) {
+        final LogicalProject project = (LogicalProject) alg;
+        return new VectorProject(
+                alg.getCluster(),
+                alg.getTraitSet().replace( VectorConvention.INSTANCE ),
+                AlgOptRule.convert( project.getInput(), project.getInput().getTraitSet().replace( VectorConvention.INSTANCE ) ),
+                project.getProjects(),
+                project.getRowType() );
+    }
+
+}
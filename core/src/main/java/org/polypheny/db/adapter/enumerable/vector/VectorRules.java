@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable.vector;
+
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import org.polypheny.db.adapter.enumerable.vector.EnumerableToVectorConverter.EnumerableToVectorConverterRule;
+import org.polypheny.db.adapter.enumerable.vector.VectorToEnumerableConverter.VectorToEnumerableConverterRule;
+import org.polypheny.db.plan.AlgOptRule;
+
+
+/**
+ * Rules and relational operators for the {@link VectorConvention vectorized calling convention}.
+ */
+public class VectorRules {
+
+    public static final VectorFilterRule VECTOR_FILTER_RULE = new VectorFilterRule();
+
+    public static final VectorProjectRule VECTOR_PROJECT_RULE = new VectorProjectRule();
+
+    public static final VectorAggregateRule VECTOR_AGGREGATE_RULE = new VectorAggregateRule();
+
+    public static final VectorJoinRule VECTOR_JOIN_RULE = new VectorJoinRule();
+
+    public static final List<AlgOptRule> RULES = ImmutableList.of(
+            EnumerableToVectorConverterRule.INSTANCE,
+            VectorToEnumerableConverterRule.INSTANCE,
+            VECTOR_FILTER_RULE,
+            VECTOR_PROJECT_RULE,
+            VECTOR_AGGREGATE_RULE,
+            VECTOR_JOIN_RULE );
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable.vector;
+
+
+import java.util.List;
+import java.util.function.Predicate;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.enumerable.EnumerableAlg;
+import org.polypheny.db.adapter.enumerable.EnumerableAlgImplementor;
+import org.polypheny.db.adapter.enumerable.EnumerableConvention;
+import org.polypheny.db.adapter.enumerable.JavaRowFormat;
+import org.polypheny.db.adapter.enumerable.PhysType;
+import org.polypheny.db.adapter.enumerable.PhysTypeImpl;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.convert.ConverterImpl;
+import org.polypheny.db.algebra.convert.ConverterRule;
+import org.polypheny.db.algebra.core.AlgFactories;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.plan.ConventionTraitDef;
+import org.polypheny.db.util.BuiltInMethod;
+
+
+/**
+ * Relational expression that flattens the vector batches produced by a vectorized input into rows.
+ */
+public class VectorToEnumerableConverter extends ConverterImpl implements EnumerableAlg {
+
+    protected VectorToEnumerableConverter( AlgOptCluster cluster, AlgTraitSet traits, AlgNode input ) {
+        super( cluster, ConventionTraitDef.INSTANCE, traits, input );
+    }
+
+
+    @Override
+    public VectorToEnumerableConverter copy( AlgTraitSet traitSet, List<AlgNode> inputs ) {
+        return new VectorToEnumerableConverter( getCluster(), traitSet, sole( inputs ) );
+    }
+
+
+    @Override
+    public String algCompareString() {
+        return "VectorToEnumerableConverter$" + input.algCompareString() + "&";
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        return super.computeSelfCost( planner, mq ).multiplyBy( VectorConvention.CONVERSION_COST_MULTIPLIER );
+    }
+
+
+    @Override
+    public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
+        final BlockBuilder builder = new BlockBuilder();
+        final Expression batches = ((VectorAlg) getInput()).implement( implementor, builder );
+        final PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getRowType(), JavaRowFormat.ARRAY );
+        if ( physType.getFormat() == JavaRowFormat.SCALAR ) {
+            builder.add( Expressions.call( BuiltInMethod.VECTOR_TO_SCALARS.method, batches ) );
+        } else {
+            builder.add( Expressions.call( BuiltInMethod.VECTOR_TO_ROWS.method, batches ) );
+        }
+        return implementor.result( physType, builder.toBlock() );
+    }
+
+
+    /**
+     * Rule that converts vectorized relational expressions to the enumerable calling convention.
+     */
+    public static class VectorToEnumerableConverterRule extends ConverterRule {
+
+        public static final VectorToEnumerableConverterRule INSTANCE = new VectorToEnumerableConverterRule();
+
+
+        private VectorToEnumerableConverterRule() {
+            super(
+                    VectorAlg.class,
+                    (Predicate<AlgNode>) r -> true,
+                    VectorConvention.INSTANCE,
+                    EnumerableConvention.INSTANCE,
+                    AlgFactories.LOGICAL_BUILDER,
+                    "VectorToEnumerableConverterRule" );
+        }
+
+
+        @Override
+        public AlgNode convert( AlgNode alg ) {
+            return new VectorToEnumerableConverter( alg.getCluster(), alg.getTraitSet().replace( EnumerableConvention.INSTANCE ), alg );
+        }
+
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable.vector;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.java.JavaTypeFactory;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.algebra.type.AlgDataTypeField;
+import org.polypheny.db.runtime.vector.VectorColumnType;
+
+
+/**
+ * Helpers for mapping row types to vector column types and for generating the corresponding code.
+ */
+final class VectorTypes {
+
+    private VectorTypes() {
+        // Utility class
+    }
+
+
+    static VectorColumnType[] of( AlgNode alg ) {
+        return of( (JavaTypeFactory) alg.getCluster().getTypeFactory(), alg.getRowType() );
+    }
+
+
+    static VectorColumnType[] of( JavaTypeFactory typeFactory, AlgDataType rowType ) {
+        final List<AlgDataTypeField> fields = rowType.getFieldList();
+        final VectorColumnType[] types = new VectorColumnType[fields.size()];
+        for ( int i = 0; i < types.length; i++ ) {
+            types[i] = VectorColumnType.of( typeFactory.getJavaClass( fields.get( i ).getType() ) );
+        }
+        return types;
+    }
+
+
+    static Expression constant( VectorColumnType[] types ) {
+        final List<Expression> expressions = new ArrayList<>();
+        for ( VectorColumnType type : types ) {
+            expressions.add( Expressions.constant( type ) );
+        }
+        return Expressions.newArrayInit( VectorColumnType.class, expressions );
+    }
+
+
+    static Expression constant( List<Integer> values ) {
+        final List<Expression> expressions = new ArrayList<>();
+        for ( int value : values ) {
+            expressions.add( Expressions.constant( value ) );
+        }
+        return Expressions.newArrayInit( int.class, expressions );
+    }
+
+}
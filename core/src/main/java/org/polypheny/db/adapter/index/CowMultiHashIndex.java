@@ -44,7 +44,7 @@ public class CowMultiHashIndex extends Index {
     private Map<List<Object>, Set<List<Object>>> index = new HashMap<>();
     private boolean initialized = false;
 
-    private Map<PolyXid, Map<List<Object>, Set<List<Object>>>> cowIndex = new HashMap<>();
+    protected Map<PolyXid, Map<List<Object>, Set<List<Object>>>> cowIndex = new HashMap<>();
     private Map<PolyXid, List<DeferredIndexUpdate>> cowOpLog = new HashMap<>();
     private Map<PolyXid, List<Triple<List<Object>, List<Object>, Boolean>>> barrierIndex = new HashMap<>();
 
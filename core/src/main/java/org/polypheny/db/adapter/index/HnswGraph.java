@@ -0,0 +1,261 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.index;
+
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.polypheny.db.runtime.functions.DistanceFunctions;
+
+
+/**
+ * A hierarchical navigable small world graph for approximate nearest neighbor search under the (squared) euclidean
+ * distance. Nodes are never removed from the graph, since this would require repairing the links of their neighbors.
+ * Instead, they are marked as deleted: they are still used to navigate the graph but are not returned as results.
+ *
+ * This class is not thread-safe. Searches do not modify the graph and may run concurrently, modifications require
+ * exclusive access.
+ *
+ * @param <T> the type of the payload attached to every node
+ */
+class HnswGraph<T> {
+
+    private final int maxConnections;
+    private final int maxConnectionsLayerZero;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random;
+
+    private final List<Node<T>> nodes = new ArrayList<>();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private int deleted = 0;
+
+
+    /**
+     * @param maxConnections the number of links per node and layer (twice as many on the lowest layer)
+     * @param efConstruction the size of the candidate list while inserting
+     * @param seed the seed for drawing the levels of the nodes
+     */
+    HnswGraph( int maxConnections, int efConstruction, long seed ) {
+        this.maxConnections = maxConnections;
+        this.maxConnectionsLayerZero = 2 * maxConnections;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log( maxConnections );
+        this.random = new Random( seed );
+    }
+
+
+    /**
+     * @return the number of nodes which are not marked as deleted
+     */
+    int size() {
+        return nodes.size() - deleted;
+    }
+
+
+    void clear() {
+        nodes.clear();
+        entryPoint = -1;
+        maxLevel = -1;
+        deleted = 0;
+    }
+
+
+    /**
+     * Adds a vector to the graph.
+     *
+     * @return the id of the new node
+     */
+    int insert( double[] vector, T payload ) {
+        final int level = (int) (-Math.log( 1 - random.nextDouble() ) * levelMultiplier);
+        final Node<T> node = new Node<>( vector, payload, level );
+        final int id = nodes.size();
+        nodes.add( node );
+        if ( entryPoint < 0 ) {
+            entryPoint = id;
+            maxLevel = level;
+            return id;
+        }
+
+        int current = entryPoint;
+        for ( int layer = maxLevel; layer > level; layer-- ) {
+            current = searchLayer( vector, List.of( current ), 1, layer ).get( 0 );
+        }
+        List<Integer> entries = List.of( current );
+        for ( int layer = Math.min( level, maxLevel ); layer >= 0; layer-- ) {
+            final List<Integer> candidates = searchLayer( vector, entries, efConstruction, layer );
+            final int max = layer == 0 ? maxConnectionsLayerZero : maxConnections;
+            for ( int neighbor : candidates.subList( 0, Math.min( maxConnections, candidates.size() ) ) ) {
+                node.neighbors.get( layer ).add( neighbor );
+                final List<Integer> links = nodes.get( neighbor ).neighbors.get( layer );
+                links.add( id );
+                if ( links.size() > max ) {
+                    shrink( neighbor, links, max );
+                }
+            }
+            entries = candidates;
+        }
+        if ( level > maxLevel ) {
+            entryPoint = id;
+            maxLevel = level;
+        }
+        return id;
+    }
+
+
+    void markDeleted( int id ) {
+        final Node<T> node = nodes.get( id );
+        if ( !node.deleted ) {
+            node.deleted = true;
+            deleted++;
+        }
+    }
+
+
+    /**
+     * Searches the approximately closest vectors to the given target.
+     *
+     * @param k the number of results
+     * @param ef the size of the candidate list; larger values increase the recall and the costs of the search
+     * @return the payloads of at most {@code k} nodes which are not marked as deleted, ordered by their distance
+     */
+    List<T> search( double[] target, int k, int ef ) {
+        final List<T> results = new ArrayList<>();
+        if ( entryPoint < 0 || k <= 0 ) {
+            return results;
+        }
+        int current = entryPoint;
+        for ( int layer = maxLevel; layer > 0; layer-- ) {
+            current = searchLayer( target, List.of( current ), 1, layer ).get( 0 );
+        }
+        // Deleted nodes occupy slots in the candidate list
+        final int size = Math.max( ef, k ) + Math.min( deleted, nodes.size() );
+        for ( int id : searchLayer( target, List.of( current ), size, 0 ) ) {
+            final Node<T> node = nodes.get( id );
+            if ( !node.deleted ) {
+                results.add( node.payload );
+                if ( results.size() == k ) {
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
+
+    /**
+     * Greedy best-first search on a single layer.
+     *
+     * @return the ids of the up to {@code ef} closest nodes found, ordered by their distance
+     */
+    private List<Integer> searchLayer( double[] target, List<Integer> entries, int ef, int layer ) {
+        final boolean[] visited = new boolean[nodes.size()];
+        final PriorityQueue<Candidate> candidates = new PriorityQueue<>( Comparator.comparingDouble( c -> c.distance ) );
+        final PriorityQueue<Candidate> results = new PriorityQueue<>( Comparator.comparingDouble( ( Candidate c ) -> c.distance ).reversed() );
+        for ( int entry : entries ) {
+            visited[entry] = true;
+            final Candidate candidate = new Candidate( entry, distance( target, entry ) );
+            candidates.add( candidate );
+            results.add( candidate );
+        }
+        while ( results.size() > ef ) {
+            results.poll();
+        }
+
+        while ( !candidates.isEmpty() ) {
+            final Candidate closest = candidates.poll();
+            if ( results.size() >= ef && closest.distance > results.peek().distance ) {
+                break;
+            }
+            for ( int neighbor : nodes.get( closest.id ).neighbors.get( layer ) ) {
+                if ( visited[neighbor] ) {
+                    continue;
+                }
+                visited[neighbor] = true;
+                final double distance = distance( target, neighbor );
+                if ( results.size() < ef || distance < results.peek().distance ) {
+                    final Candidate candidate = new Candidate( neighbor, distance );
+                    candidates.add( candidate );
+                    results.add( candidate );
+                    if ( results.size() > ef ) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        final Integer[] ordered = new Integer[results.size()];
+        for ( int i = ordered.length - 1; i >= 0; i-- ) {
+            ordered[i] = results.poll().id;
+        }
+        return List.of( ordered );
+    }
+
+
+    /**
+     * Keeps only the {@code max} closest links of a node.
+     */
+    private void shrink( int id, List<Integer> links, int max ) {
+        final double[] vector = nodes.get( id ).vector;
+        links.sort( Comparator.comparingDouble( link -> distance( vector, link ) ) );
+        links.subList( max, links.size() ).clear();
+    }
+
+
+    private double distance( double[] target, int id ) {
+        return DistanceFunctions.l2SquaredMetric( target, nodes.get( id ).vector );
+    }
+
+
+    private static class Node<T> {
+
+        private final double[] vector;
+        private final T payload;
+        private final List<List<Integer>> neighbors;
+        private boolean deleted = false;
+
+
+        Node( double[] vector, T payload, int level ) {
+            this.vector = vector;
+            this.payload = payload;
+            this.neighbors = new ArrayList<>( level + 1 );
+            for ( int i = 0; i <= level; i++ ) {
+                neighbors.add( new ArrayList<>() );
+            }
+        }
+
+    }
+
+
+    private static class Candidate {
+
+        private final int id;
+        private final double distance;
+
+
+        Candidate( int id, double distance ) {
+            this.id = id;
+            this.distance = distance;
+        }
+
+    }
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.index;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.polypheny.db.catalog.entity.CatalogSchema;
+import org.polypheny.db.catalog.entity.CatalogTable;
+import org.polypheny.db.runtime.functions.DistanceFunctions;
+import org.polypheny.db.transaction.PolyXid;
+
+
+/**
+ * A non-unique index over a single array column which, in addition to the lookups of a {@link CowMultiHashIndex},
+ * supports approximate nearest neighbor searches under the euclidean distance. The committed keys are organized in a
+ * {@link HnswGraph}; keys modified by a transaction are considered exhaustively.
+ */
+public class HnswIndex extends CowMultiHashIndex {
+
+    public static final String METHOD = "hnsw";
+
+    private static final int MAX_CONNECTIONS = 16;
+    private static final int EF_CONSTRUCTION = 100;
+
+    // Guards the graph and the node ids; searches share the read lock, modifications take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final HnswGraph<List<Object>> graph;
+    private final Map<List<Object>, Integer> nodeByKey = new HashMap<>();
+
+
+    public HnswIndex( long id, String name, CatalogSchema schema, CatalogTable table, List<String> columns, List<String> targetColumns ) {
+        super( id, name, schema, table, columns, targetColumns );
+        if ( columns.size() != 1 ) {
+            throw new IllegalArgumentException( "An HNSW index can only be created on a single array column." );
+        }
+        this.graph = new HnswGraph<>( MAX_CONNECTIONS, EF_CONSTRUCTION, id );
+    }
+
+
+    @Override
+    public String getMethod() {
+        return METHOD;
+    }
+
+
+    /**
+     * Searches the primary keys of the rows which are approximately closest to the given vector. Besides the (at most)
+     * {@code k} closest committed rows, the result contains all rows inserted or updated by the given transaction.
+     * Hence, the result is a superset of candidates which still has to be ordered by the exact distance.
+     *
+     * @param ef the size of the candidate list of the graph search
+     */
+    public List<List<Object>> search( PolyXid xid, double[] target, int k, int ef ) {
+        final Map<List<Object>, Set<List<Object>>> committed = getRaw();
+        final Map<List<Object>, Set<List<Object>>> ci = cowIndex.get( xid );
+        final Set<List<Object>> primaries = new LinkedHashSet<>();
+        final List<List<Object>> keys;
+        lock.readLock().lock();
+        try {
+            keys = graph.search( target, k, ef );
+        } finally {
+            lock.readLock().unlock();
+        }
+        for ( List<Object> key : keys ) {
+            final Set<List<Object>> raw = ci != null && ci.containsKey( key ) ? ci.get( key ) : committed.get( key );
+            if ( raw != null ) {
+                primaries.addAll( raw );
+            }
+        }
+        if ( ci != null ) {
+            ci.values().forEach( primaries::addAll );
+        }
+        return new ArrayList<>( primaries );
+    }
+
+
+    @Override
+    protected void clear() {
+        super.clear();
+        lock.writeLock().lock();
+        try {
+            graph.clear();
+            nodeByKey.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    @Override
+    void insert( List<Object> key, List<Object> primary ) {
+        super.insert( key, primary );
+        if ( !(key.get( 0 ) instanceof List) ) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if ( !nodeByKey.containsKey( key ) ) {
+                nodeByKey.put( key, graph.insert( DistanceFunctions.toArray( (List<?>) key.get( 0 ) ), key ) );
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    @Override
+    void delete( List<Object> key ) {
+        super.delete( key );
+        removeNode( key );
+    }
+
+
+    @Override
+    void deletePrimary( List<Object> key, List<Object> primary ) {
+        super.deletePrimary( key, primary );
+        final Set<List<Object>> primaries = getRaw().get( key );
+        if ( primaries == null || primaries.isEmpty() ) {
+            removeNode( key );
+        }
+    }
+
+
+    private void removeNode( List<Object> key ) {
+        lock.writeLock().lock();
+        try {
+            final Integer node = nodeByKey.remove( key );
+            if ( node != null ) {
+                graph.markDeleted( node );
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    static class Factory implements IndexFactory {
+
+        @Override
+        public boolean canProvide( String method, Boolean unique, Boolean persistent ) {
+            return METHOD.equals( method )
+                    && (unique == null || !unique)
+                    && (persistent == null || !persistent);
+        }
+
+
+        @Override
+        public Index create(
+                long id,
+                String name,
+                String method,
+                Boolean unique,
+                Boolean persistent,
+                CatalogSchema schema,
+                CatalogTable table,
+                List<String> columns,
+                List<String> targetColumns ) {
+            return new HnswIndex( id, name, schema, table, columns, targetColumns );
+        }
+
+    }
+
+}
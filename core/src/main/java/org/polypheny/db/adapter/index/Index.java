@@ -18,6 +18,7 @@
 
 
 import com.google.common.collect.ImmutableList;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -28,8 +29,10 @@
 import org.polypheny.db.algebra.constant.Kind;
 import org.polypheny.db.algebra.core.Values;
 import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.catalog.Catalog;
 import org.polypheny.db.catalog.entity.CatalogSchema;
 import org.polypheny.db.catalog.entity.CatalogTable;
+import org.polypheny.db.catalog.exceptions.UnknownColumnException;
 import org.polypheny.db.processing.QueryProcessor;
 import org.polypheny.db.rex.RexBuilder;
 import org.polypheny.db.rex.RexLiteral;
@@ -38,6 +41,7 @@
 import org.polypheny.db.transaction.Statement;
 import org.polypheny.db.transaction.Transaction;
 import org.polypheny.db.type.PolyType;
+import org.polypheny.db.util.NlsString;
 import org.polypheny.db.util.Pair;
 
 
@@ -62,6 +66,10 @@ public abstract class Index {
     // The primary key columns the index resolves to
     protected List<String> targetColumns;
 
+    // The types of the columns and target columns, resolved on first use
+    private volatile List<PolyType> columnTypes;
+    private volatile List<PolyType> targetColumnTypes;
+
 
     public abstract String getMethod();
 
@@ -100,14 +108,15 @@ public void rebuild( final Transaction transaction ) {
         final PolyImplementation result = processor.prepareQuery( AlgRoot.of( scan, Kind.SELECT ), false );
         // Execute query
 
-        final List<List<Object>> rows = result.getRows( statement, 1, false, false, result.getStatement().getMonitoringEvent(), true );
+        final List<List<Object>> rows = result.getRows( statement, -1, false, false, result.getStatement().getMonitoringEvent(), true );
         final List<Pair<List<Object>, List<Object>>> kv = new ArrayList<>( rows.size() );
         for ( final List<Object> row : rows ) {
             if ( row.size() > columns.size() ) {
-                kv.add( new Pair<>( row.subList( 0, columns.size() ), row.subList( columns.size(), columns.size() + targetColumns.size() ) ) );
+                kv.add( new Pair<>( toColumnTypes( row.subList( 0, columns.size() ) ), toTargetColumnTypes( row.subList( columns.size(), columns.size() + targetColumns.size() ) ) ) );
             } else {
                 // Columns and target columns are identical, i.e. this is a primary key index
-                kv.add( new Pair<>( row, row ) );
+                final List<Object> key = toColumnTypes( row );
+                kv.add( new Pair<>( key, key ) );
             }
         }
         // Rebuild index
@@ -247,6 +256,94 @@ Index create(
     }
 
 
+    /**
+     * Converts the values of a key to the Java types of the index columns. Keys are compared by equality, but the same
+     * value has different representations depending on where it comes from: An integer literal is a {@code Long},
+     * whereas the value read from an {@code INTEGER} column is an {@code Integer}. All keys which are inserted into or
+     * looked up in the index need to be converted with this method.
+     *
+     * @param key the values of the index columns
+     * @return the converted key
+     */
+    public List<Object> toColumnTypes( final List<Object> key ) {
+        if ( columnTypes == null ) {
+            columnTypes = getTypes( columns );
+        }
+        return convert( key, columnTypes );
+    }
+
+
+    /**
+     * Converts the values of the target columns in the same way as {@link #toColumnTypes(List)}.
+     *
+     * @param primary the values of the target columns
+     * @return the converted values
+     */
+    public List<Object> toTargetColumnTypes( final List<Object> primary ) {
+        if ( targetColumnTypes == null ) {
+            targetColumnTypes = getTypes( targetColumns );
+        }
+        return convert( primary, targetColumnTypes );
+    }
+
+
+    private List<PolyType> getTypes( final List<String> columnNames ) {
+        final List<PolyType> types = new ArrayList<>( columnNames.size() );
+        for ( final String columnName : columnNames ) {
+            try {
+                types.add( Catalog.getInstance().getColumn( table.id, columnName ).type );
+            } catch ( UnknownColumnException e ) {
+                throw new RuntimeException( "Unknown column " + columnName + " of index " + name, e );
+            }
+        }
+        return ImmutableList.copyOf( types );
+    }
+
+
+    static List<Object> convert( final List<Object> values, final List<PolyType> types ) {
+        assert values.size() == types.size();
+        final List<Object> converted = new ArrayList<>( values.size() );
+        for ( int i = 0; i < values.size(); i++ ) {
+            converted.add( convert( values.get( i ), types.get( i ) ) );
+        }
+        return converted;
+    }
+
+
+    static Object convert( final Object value, final PolyType type ) {
+        if ( value instanceof Number ) {
+            final Number number = (Number) value;
+            switch ( type ) {
+                case TINYINT:
+                    return number.byteValue();
+                case SMALLINT:
+                    return number.shortValue();
+                case INTEGER:
+                case DATE:
+                case TIME:
+                    return number.intValue();
+                case BIGINT:
+                case TIMESTAMP:
+                    return number.longValue();
+                case DECIMAL:
+                    // BigDecimals with a different scale are not equal, e.g. 1.5 and 1.50
+                    final BigDecimal decimal = number instanceof BigDecimal ? (BigDecimal) number : new BigDecimal( number.toString() );
+                    return decimal.stripTrailingZeros();
+                case REAL:
+                    return number.floatValue();
+                case FLOAT:
+                case DOUBLE:
+                    return number.doubleValue();
+                default:
+                    return value;
+            }
+        } else if ( value instanceof NlsString && (type == PolyType.CHAR || type == PolyType.VARCHAR) ) {
+            return ((NlsString) value).getValue();
+        }
+        return value;
+    }
+
+
     /*
      *  Helpers
      */
@@ -69,7 +69,8 @@ public class IndexManager {
 
     private static final List<IndexFactory> INDEX_FACTORIES = Arrays.asList(
             new CoWHashIndex.Factory(),
-            new CowMultiHashIndex.Factory()
+            new CowMultiHashIndex.Factory(),
+            new HnswIndex.Factory()
     );
 
     private final Map<Long, Index> indexById = new HashMap<>();
@@ -90,7 +91,8 @@ private IndexManager() {
 
     public static List<AvailableIndexMethod> getAvailableIndexMethods() {
         return ImmutableList.of(
-                new AvailableIndexMethod( "hash", "HASH" )
+                new AvailableIndexMethod( "hash", "HASH" ),
+                new AvailableIndexMethod( HnswIndex.METHOD, "HNSW (approximate nearest neighbors)" )
         );
     }
 
@@ -236,6 +238,24 @@ public Index getIndex( CatalogSchema schema, CatalogTable table, List<String> co
     }
 
 
+    /**
+     * Returns an initialized unique index over exactly the given columns of a table. Such an index rejects duplicate keys
+     * on its own and contains all keys of the table, which allows checking constraints by looking up individual keys.
+     *
+     * @param tableId the id of the logical table
+     * @param columns the indexed columns in the order of the index
+     * @return the index or {@code null} if there is no such index
+     */
+    public Index getUniqueIndex( long tableId, List<String> columns ) {
+        return this.indexById.values().stream().filter( index ->
+                index.table.id == tableId
+                        && index.columns.equals( columns )
+                        && index.isUnique()
+                        && index.isInitialized()
+        ).findFirst().orElse( null );
+    }
+
+
     public List<Index> getIndices( CatalogSchema schema, CatalogTable table ) {
         return this.indexById.values().stream()
                 .filter( index -> index.schema.equals( schema ) && index.table.equals( table ) )
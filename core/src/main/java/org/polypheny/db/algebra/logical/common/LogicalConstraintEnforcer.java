@@ -26,6 +26,7 @@
 import java.util.stream.Stream;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.adapter.index.IndexManager;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.AlgShuttle;
 import org.polypheny.db.algebra.AlgShuttleImpl;
@@ -58,6 +59,7 @@
 import org.polypheny.db.rex.RexNode;
 import org.polypheny.db.schema.LogicalTable;
 import org.polypheny.db.tools.AlgBuilder;
+import org.polypheny.db.transaction.PolyXid;
 import org.polypheny.db.transaction.Statement;
 
 
@@ -224,6 +226,18 @@ private static EnforcementInformation getControl( AlgNode node, Statement statem
 
 
     public static EnforcementInformation getControl( CatalogTable table, Statement statement, EnforcementTime enforcementTime ) {
+        return getControl( table, statement, enforcementTime, false );
+    }
+
+
+    /**
+     * Builds the queries which check all constraints of the given table with the given enforcement time.
+     *
+     * @param skipIndexedUniqueConstraints whether unique constraints covered by a unique polystore index are skipped.
+     * This is only correct if the pending index updates of the transaction have been applied (see {@link IndexManager#barrier(PolyXid)}),
+     * as the index rejects duplicate keys at this point.
+     */
+    public static EnforcementInformation getControl( CatalogTable table, Statement statement, EnforcementTime enforcementTime, boolean skipIndexedUniqueConstraints ) {
 
         AlgBuilder builder = AlgBuilder.create( statement );
         final RexBuilder rexBuilder = builder.getRexBuilder();
@@ -261,6 +275,9 @@ public static EnforcementInformation getControl( CatalogTable table, Statement s
         if ( RuntimeConfig.UNIQUE_CONSTRAINT_ENFORCEMENT.getBoolean() ) {
             //builder.scan( table.getSchemaName(), table.name );
             for ( CatalogConstraint constraint : constraints ) {
+                if ( skipIndexedUniqueConstraints && IndexManager.getInstance().getUniqueIndex( table.id, constraint.key.getColumnNames() ) != null ) {
+                    continue;
+                }
                 builder.clear();
                 builder.scan( table.getNamespaceName(), table.name );//LogicalTableScan.create( modify.getCluster(), modify.getTable() );
                 // Enforce uniqueness between the already existing values and the new values
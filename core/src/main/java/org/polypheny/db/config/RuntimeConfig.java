@@ -88,6 +88,13 @@ public enum RuntimeConfig {
             ConfigType.INTEGER
     ),
 
+    WEBUI_VIRTUAL_THREADS(
+            "runtime/webuiVirtualThreads",
+            "Handle the requests of the web ui server on virtual threads if supported by the JVM. Requires a restart.",
+            false,
+            ConfigType.BOOLEAN
+    ),
+
     REL_WRITER_INSERT_FIELD_NAMES(
             "runtime/relWriterInsertFieldName",
             "If the alg writer should add the field names in brackets behind the ordinals in when printing query plans.",
@@ -101,6 +108,41 @@ public enum RuntimeConfig {
             ConfigType.INTEGER,
             "processingExecutionGroup" ),
 
+    VECTORIZED_EXECUTION(
+            "runtime/vectorizedExecution",
+            "Execute supported filters, projections, aggregations and equi-joins column-wise on batches of rows.",
+            false,
+            ConfigType.BOOLEAN,
+            "processingExecutionGroup" ),
+
+    VECTORIZED_BATCH_SIZE(
+            "runtime/vectorizedBatchSize",
+            "Maximum number of rows per batch if vectorized execution is enabled.",
+            2048,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    PARALLEL_EXECUTION_MAX_DEGREE(
+            "runtime/parallelExecutionMaxDegree",
+            "Maximum number of workers used by a single parallel operator. Can be overridden per statement. 1 disables intra-query parallelism.",
+            1,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    PARALLEL_EXECUTION_MIN_ROWS(
+            "runtime/parallelExecutionMinRows",
+            "Estimated number of rows per worker below which no additional worker is used.",
+            100000,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    PARALLEL_EXECUTION_POOL_SIZE(
+            "runtime/parallelExecutionPoolSize",
+            "Number of threads shared by all parallel operators.",
+            Runtime.getRuntime().availableProcessors(),
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
     DEFAULT_COLLATION(
             "runtime/defaultCollation",
             "Collation to use if no collation is specified",
@@ -140,6 +182,20 @@ public enum RuntimeConfig {
             ConfigType.BOOLEAN,
             "planningGroup" ),
 
+    BIND_JOIN(
+            "runtime/bindJoin",
+            "Consider bind joins for joins across stores. The distinct join keys of one input are pushed into the other input as a filter.",
+            false,
+            ConfigType.BOOLEAN,
+            "planningGroup" ),
+
+    BIND_JOIN_BATCH_SIZE(
+            "runtime/bindJoinBatchSize",
+            "Number of join keys bound per execution of the filtered input of a bind join.",
+            100,
+            ConfigType.INTEGER,
+            "planningGroup" ),
+
     VALIDATE_MM_CONTENT_TYPE(
             "validation/validateMultimediaContentType",
             "Validate multimedia data by checking its content-type.",
@@ -303,6 +359,62 @@ public enum RuntimeConfig {
             ConfigType.INTEGER,
             "implementationCachingGroup" ),
 
+    GENERATED_CLASS_CACHE_SIZE(
+            "runtime/generatedClassCacheSize",
+            "Number of compiled classes of generated code which are kept for reuse by queries resulting in the same code. If the limit is reached, the least recently used class is removed. Set to zero to disable.",
+            1000,
+            ConfigType.INTEGER,
+            "implementationCachingGroup" ),
+
+    TIERED_EXECUTION(
+            "runtime/tieredExecution",
+            "Interpret the first executions of a query plan instead of compiling it. Plans which are executed frequently are compiled in the background and replace the interpreted plan in the implementation cache. Plans reading from a store are always compiled. Requires implementation caching.",
+            false,
+            ConfigType.BOOLEAN,
+            "implementationCachingGroup" ),
+
+    TIERED_EXECUTION_THRESHOLD(
+            "runtime/tieredExecutionThreshold",
+            "Number of executions of an interpreted query plan after which it is compiled in the background.",
+            10,
+            ConfigType.INTEGER,
+            "implementationCachingGroup" ),
+
+    STATEMENT_TEMPLATE_CACHING(
+            "runtime/statementTemplateCaching",
+            "Cache the translated plans of SQL statements. Statements which only differ in their literals share the same plan, hence parsing, validation and translation can be skipped.",
+            false,
+            ConfigType.BOOLEAN,
+            "statementTemplateCachingGroup" ),
+
+    STATEMENT_TEMPLATE_CACHING_SIZE(
+            "runtime/statementTemplateCachingSize",
+            "Size of the statement template cache. If the limit is reached, the least recently used entry is removed.",
+            1000,
+            ConfigType.INTEGER,
+            "statementTemplateCachingGroup" ),
+
+    RESULT_CACHING(
+            "runtime/resultCaching",
+            "Cache the results of deterministic read queries. Cached results are invalidated as soon as a transaction modifying one of the accessed entities commits.",
+            false,
+            ConfigType.BOOLEAN,
+            "resultCachingGroup" ),
+
+    RESULT_CACHING_MEMORY_BUDGET(
+            "runtime/resultCachingMemoryBudget",
+            "Estimated amount of memory (in MB) the cached results are allowed to occupy. If the budget is exceeded, the least recently used results are removed.",
+            64,
+            ConfigType.INTEGER,
+            "resultCachingGroup" ),
+
+    RESULT_CACHING_MAX_ROWS(
+            "runtime/resultCachingMaxRows",
+            "Maximum number of rows of a result to be cached. Larger results are not cached.",
+            10000,
+            ConfigType.INTEGER,
+            "resultCachingGroup" ),
+
     ROUTING_PLAN_CACHING(
             "runtime/routingPlanCaching",
             "Caching of routing plans.",
@@ -349,6 +461,12 @@ public enum RuntimeConfig {
             1000,
             ConfigType.INTEGER ),
 
+    DATA_MIGRATOR_BULK_LOAD(
+            "runtime/dataMigratorBulkLoad",
+            "Use the native bulk load path of the target store (e.g. COPY for PostgreSQL) when placing a table on a store.",
+            true,
+            ConfigType.BOOLEAN ),
+
     UNIQUE_CONSTRAINT_ENFORCEMENT(
             "runtime/uniqueConstraintEnforcement",
             "Enable enforcement of uniqueness constraints.",
@@ -363,6 +481,13 @@ public enum RuntimeConfig {
             ConfigType.BOOLEAN,
             "constraintEnforcementGroup" ),
 
+    INDEX_CONSTRAINT_ENFORCEMENT(
+            "runtime/indexConstraintEnforcement",
+            "Check unique and foreign key constraints by looking up the affected keys in polystore indexes instead of scanning the whole table (if such an index exists).",
+            true,
+            ConfigType.BOOLEAN,
+            "constraintEnforcementGroup" ),
+
     CONSTRAINT_ENFORCEMENT_STRATEGY(
             "runtime/constraintEnforcementStrategy",
             "Adjusted used constraint enforcement strategy.",
@@ -393,6 +518,13 @@ public enum RuntimeConfig {
             ConfigType.BOOLEAN,
             "polystoreIndexGroup" ),
 
+    POLYSTORE_INDEXES_HNSW_EF(
+            "runtime/polystoreIndexesHnswEf",
+            "Number of candidates retrieved from HNSW indexes for nearest neighbor queries. Larger values increase the recall and the costs of the search.",
+            64,
+            ConfigType.INTEGER,
+            "polystoreIndexGroup" ),
+
     USE_DOCKER_NETWORK(
             "docker/useDockerNetwork",
             "If Polypheny should use the container network to communicate with the container.",
@@ -449,6 +581,25 @@ public enum RuntimeConfig {
             ConfigType.ENUM,
             "temperaturePartitionProcessingSettingsGroup" ),
 
+    BACKGROUND_TASK_POOL_SIZE(
+            "runtime/backgroundTaskPoolSize",
+            "Maximum number of background tasks which are executed concurrently. Tasks with a higher priority are executed first.",
+            4,
+            ConfigType.INTEGER ),
+
+    BACKGROUND_TASK_VIRTUAL_THREADS(
+            "runtime/backgroundTaskVirtualThreads",
+            "Execute background tasks on virtual threads if supported by the JVM. Requires a restart.",
+            false,
+            ConfigType.BOOLEAN ),
+
+    QUERY_LATENCY_METRICS(
+            "runtime/queryLatencyMetrics",
+            "Record histograms of the latencies of the query processing stages per query language and adapter. The histograms are exported in the OpenMetrics format on the /metrics endpoint of the Polypheny-UI server.",
+            true,
+            ConfigType.BOOLEAN,
+            "monitoringGroup" ),
+
     CATALOG_DEBUG_MESSAGES(
             "runtime/catalogDebugMessages",
             "Enable output of catalog debug messages on the monitoring page.",
@@ -478,6 +629,10 @@ public enum RuntimeConfig {
         parsingGroup.withTitle( "Query Parsing" );
         final WebUiGroup implementationCachingGroup = new WebUiGroup( "implementationCachingGroup", processingPage.getId() );
         implementationCachingGroup.withTitle( "Implementation Caching" );
+        final WebUiGroup statementTemplateCachingGroup = new WebUiGroup( "statementTemplateCachingGroup", processingPage.getId() );
+        statementTemplateCachingGroup.withTitle( "Statement Template Caching" );
+        final WebUiGroup resultCachingGroup = new WebUiGroup( "resultCachingGroup", processingPage.getId() );
+        resultCachingGroup.withTitle( "Result Caching" );
         final WebUiGroup queryParameterizationGroup = new WebUiGroup( "queryParameterizationGroup", processingPage.getId() );
         queryParameterizationGroup.withTitle( "Query Parameterization" );
         final WebUiGroup constraintEnforcementGroup = new WebUiGroup( "constraintEnforcementGroup", processingPage.getId() );
@@ -492,6 +647,8 @@ public enum RuntimeConfig {
         configManager.registerWebUiGroup( parsingGroup );
         configManager.registerWebUiGroup( planningGroup );
         configManager.registerWebUiGroup( implementationCachingGroup );
+        configManager.registerWebUiGroup( statementTemplateCachingGroup );
+        configManager.registerWebUiGroup( resultCachingGroup );
         configManager.registerWebUiGroup( queryParameterizationGroup );
         configManager.registerWebUiGroup( constraintEnforcementGroup );
         configManager.registerWebUiGroup( polystoreIndexGroup );
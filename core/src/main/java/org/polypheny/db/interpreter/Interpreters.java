@@ -34,11 +34,30 @@
 package org.polypheny.db.interpreter;
 
 
+import java.lang.reflect.Type;
 import org.apache.calcite.linq4j.Enumerable;
 import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.adapter.enumerable.EnumerableLimit;
 import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Aggregate;
+import org.polypheny.db.algebra.core.Calc;
+import org.polypheny.db.algebra.core.Filter;
+import org.polypheny.db.algebra.core.Join;
+import org.polypheny.db.algebra.core.JoinAlgType;
+import org.polypheny.db.algebra.core.Project;
+import org.polypheny.db.algebra.core.Scan;
+import org.polypheny.db.algebra.core.SemiJoin;
+import org.polypheny.db.algebra.core.Sort;
+import org.polypheny.db.algebra.core.Union;
+import org.polypheny.db.algebra.core.Values;
+import org.polypheny.db.plan.AlgOptTable;
 import org.polypheny.db.runtime.ArrayBindable;
 import org.polypheny.db.runtime.Bindable;
+import org.polypheny.db.runtime.Typed;
+import org.polypheny.db.schema.FilterableTable;
+import org.polypheny.db.schema.ProjectableFilterableTable;
+import org.polypheny.db.schema.QueryableTable;
+import org.polypheny.db.schema.ScannableTable;
 
 
 /**
@@ -72,5 +91,81 @@ public Class<Object[]> getElementType() {
         };
     }
 
+
+    /**
+     * Creates a {@link Bindable} that interprets a given relational expression. Like the code generated for the
+     * enumerable convention, rows consisting of a single field are returned as scalars.
+     */
+    public static Bindable<Object> enumerableBindable( final AlgNode alg ) {
+        final ArrayBindable bindable = bindable( alg );
+        final boolean scalar = alg.getRowType().getFieldCount() == 1;
+        return new TypedBindable() {
+            @Override
+            public Enumerable<Object> bind( DataContext dataContext ) {
+                final Enumerable<Object[]> rows = bindable.bind( dataContext );
+                if ( scalar ) {
+                    return rows.select( row -> row[0] );
+                }
+                return rows.select( row -> row );
+            }
+
+
+            @Override
+            public Type getElementType() {
+                return scalar ? Object.class : Object[].class;
+            }
+        };
+    }
+
+
+    /**
+     * Returns whether the interpreter is able to execute the given relational expression, i.e. whether there is a
+     * node for every relational expression of the tree.
+     *
+     * Scans are only interpretable if the table can be read directly. The converters of the adapters, e.g. the
+     * {@code JdbcToEnumerableConverter}, generate code for accessing the underlying store and have no node. Hence, plans
+     * reading from a store are not interpretable and are always compiled, only plans on values and on tables which
+     * can be scanned directly are.
+     */
+    public static boolean isInterpretable( AlgNode alg ) {
+        if ( alg instanceof Join ) {
+            // The join node only implements inner joins which return the fields of both inputs
+            if ( alg instanceof SemiJoin || ((Join) alg).getJoinType() != JoinAlgType.INNER ) {
+                return false;
+            }
+        } else if ( alg instanceof Scan ) {
+            final AlgOptTable table = alg.getTable();
+            if ( table.unwrap( ScannableTable.class ) == null
+                    && table.unwrap( FilterableTable.class ) == null
+                    && table.unwrap( ProjectableFilterableTable.class ) == null
+                    && table.unwrap( QueryableTable.class ) == null ) {
+                return false;
+            }
+        } else if ( !(alg instanceof Aggregate
+                || alg instanceof Calc
+                || alg instanceof Filter
+                || alg instanceof Project
+                || alg instanceof Sort
+                || alg instanceof Union
+                || alg instanceof Values
+                || alg instanceof EnumerableLimit) ) {
+            return false;
+        }
+        for ( AlgNode input : alg.getInputs() ) {
+            if ( !isInterpretable( input ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * A bindable which also exposes its element type.
+     */
+    private interface TypedBindable extends Bindable<Object>, Typed {
+
+    }
+
 }
 
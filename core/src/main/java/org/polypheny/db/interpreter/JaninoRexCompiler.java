@@ -34,6 +34,8 @@
 package org.polypheny.db.interpreter;
 
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import java.io.IOException;
 import java.io.StringReader;
@@ -81,6 +83,14 @@
  */
 public class JaninoRexCompiler implements Interpreter.ScalarCompiler {
 
+    /**
+     * Compiled classes of scalar expressions, keyed by the generated source.
+     */
+    private static final Cache<String, Class<?>> CLASS_CACHE = CacheBuilder.newBuilder()
+            .maximumSize( Math.max( RuntimeConfig.GENERATED_CLASS_CACHE_SIZE.getInteger(), 1 ) )
+            .build();
+
+
     private final RexBuilder rexBuilder;
 
 
@@ -169,6 +179,37 @@ static Scalar baz( ParameterExpression context_, ParameterExpression outputValue
 
 
     static Scalar getScalar( ClassDeclaration expr, String s ) throws CompileException, IOException {
+        if ( RuntimeConfig.GENERATED_CLASS_CACHE_SIZE.getInteger() <= 0 ) {
+            return instantiate( compile( expr, s ) );
+        }
+        final String key = expr.name + "|" + RuntimeConfig.DEBUG.getBoolean() + "|" + s;
+        Class<?> clazz = CLASS_CACHE.getIfPresent( key );
+        if ( clazz == null ) {
+            clazz = compile( expr, s );
+            CLASS_CACHE.put( key, clazz );
+        }
+        return instantiate( clazz );
+    }
+
+
+    /**
+     * Removes all compiled scalar classes from the cache.
+     */
+    public static void resetClassCache() {
+        CLASS_CACHE.invalidateAll();
+    }
+
+
+    private static Scalar instantiate( Class<?> clazz ) {
+        try {
+            return (Scalar) clazz.getDeclaredConstructor().newInstance();
+        } catch ( ReflectiveOperationException e ) {
+            throw new IllegalStateException( "Unable to instantiate generated class " + clazz.getName(), e );
+        }
+    }
+
+
+    private static Class<?> compile( ClassDeclaration expr, String s ) throws CompileException, IOException {
         ICompilerFactory compilerFactory;
         try {
             compilerFactory = CompilerFactoryFactory.getDefaultCompilerFactory();
@@ -183,7 +224,8 @@ static Scalar getScalar( ClassDeclaration expr, String s ) throws CompileExcepti
             // Add line numbers to the generated janino class
             cbe.setDebuggingInformation( true, true, true );
         }
-        return (Scalar) cbe.createInstance( new StringReader( s ) );
+        cbe.cook( new StringReader( s ) );
+        return cbe.getClazz();
     }
 
 }
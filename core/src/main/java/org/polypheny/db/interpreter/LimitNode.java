@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.interpreter;
+
+
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.adapter.enumerable.EnumerableLimit;
+import org.polypheny.db.rex.RexDynamicParam;
+import org.polypheny.db.rex.RexLiteral;
+import org.polypheny.db.rex.RexNode;
+
+
+/**
+ * Interpreter node that implements a {@link EnumerableLimit}.
+ */
+public class LimitNode extends AbstractSingleNode<EnumerableLimit> {
+
+    private final DataContext dataContext;
+
+
+    public LimitNode( Compiler compiler, EnumerableLimit alg ) {
+        super( compiler, alg );
+        this.dataContext = compiler.getDataContext();
+    }
+
+
+    @Override
+    public void run() throws InterruptedException {
+        final int offset = evaluate( alg.offset, dataContext, 0 );
+        final int fetch = evaluate( alg.fetch, dataContext, -1 );
+        Row row;
+        for ( int i = 0; i < offset; i++ ) {
+            if ( source.receive() == null ) {
+                sink.end();
+                return;
+            }
+        }
+        for ( int i = 0; (fetch < 0 || i < fetch) && (row = source.receive()) != null; i++ ) {
+            sink.send( row );
+        }
+        sink.end();
+    }
+
+
+    /**
+     * Evaluates the offset or fetch of a limit, which is either a literal or a parameter of a parameterized query.
+     */
+    static int evaluate( RexNode node, DataContext dataContext, int defaultValue ) {
+        if ( node == null ) {
+            return defaultValue;
+        }
+        if ( node instanceof RexDynamicParam ) {
+            return ((Number) dataContext.getParameterValue( ((RexDynamicParam) node).getIndex() )).intValue();
+        }
+        return ((RexLiteral) node).getValueAs( Integer.class );
+    }
+
+}
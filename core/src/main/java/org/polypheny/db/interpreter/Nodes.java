@@ -35,6 +35,7 @@
 
 
 import com.google.common.collect.ImmutableList;
+import org.polypheny.db.adapter.enumerable.EnumerableLimit;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.core.Aggregate;
 import org.polypheny.db.algebra.core.Filter;
@@ -111,6 +112,11 @@ public void visit( Join join ) {
         }
 
 
+        public void visit( EnumerableLimit limit ) {
+            node = new LimitNode( this, limit );
+        }
+
+
         public void visit( Window window ) {
             node = new WindowNode( this, window );
         }
@@ -39,9 +39,9 @@
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.algebra.AlgFieldCollation;
 import org.polypheny.db.algebra.core.Sort;
-import org.polypheny.db.rex.RexLiteral;
 
 
 /**
@@ -49,21 +49,19 @@
  */
 public class SortNode extends AbstractSingleNode<Sort> {
 
+    private final DataContext dataContext;
+
+
     public SortNode( Compiler compiler, Sort alg ) {
         super( compiler, alg );
+        this.dataContext = compiler.getDataContext();
     }
 
 
     @Override
     public void run() throws InterruptedException {
-        final int offset =
-                alg.offset == null
-                        ? 0
-                        : ((RexLiteral) alg.offset).getValueAs( Integer.class );
-        final int fetch =
-                alg.fetch == null
-                        ? -1
-                        : ((RexLiteral) alg.fetch).getValueAs( Integer.class );
+        final int offset = LimitNode.evaluate( alg.offset, dataContext, 0 );
+        final int fetch = LimitNode.evaluate( alg.fetch, dataContext, -1 );
         // In pure limit mode. No sort required.
         Row row;
         loop:
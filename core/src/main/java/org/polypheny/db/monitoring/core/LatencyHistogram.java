@@ -0,0 +1,198 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.monitoring.core;
+
+
+import java.util.Arrays;
+
+
+/**
+ * Exponentially decayed histogram of execution times. Every new sample has a slightly higher weight than the previous
+ * one; after {@code halfLife} samples, the weight of a sample is halved. This way, the histogram follows changes of the
+ * execution times (e.g., a degraded store) instead of averaging over the whole history.
+ *
+ * The buckets have logarithmic boundaries with four buckets per power of two. Percentiles are therefore accurate to
+ * about ten percent. Besides the buckets, the decayed mean and variance are maintained.
+ *
+ * All methods are thread-safe.
+ */
+public class LatencyHistogram {
+
+    public static final int DEFAULT_HALF_LIFE = 100;
+
+    private static final int BUCKETS_PER_OCTAVE = 4;
+    private static final int MIN_EXPONENT = 10; // ~1 microsecond
+    private static final int MAX_EXPONENT = 42; // ~73 minutes
+    private static final int NUMBER_OF_BUCKETS = (MAX_EXPONENT - MIN_EXPONENT) * BUCKETS_PER_OCTAVE;
+    private static final double RESCALE_THRESHOLD = 1e100;
+
+    private final double growth;
+    private final double[] buckets = new double[NUMBER_OF_BUCKETS];
+
+    // The weight of the next sample; grows with every sample instead of decaying all existing weights
+    private double increment = 1;
+    private double weight = 0;
+    private double sum = 0;
+    private double sumOfSquares = 0;
+    private long samples = 0;
+
+
+    public LatencyHistogram() {
+        this( DEFAULT_HALF_LIFE );
+    }
+
+
+    /**
+     * @param halfLife number of samples after which the weight of a sample is halved
+     */
+    public LatencyHistogram( int halfLife ) {
+        if ( halfLife < 1 ) {
+            throw new IllegalArgumentException( "The half-life needs to be at least one sample." );
+        }
+        this.growth = Math.pow( 2, 1.0 / halfLife );
+    }
+
+
+    /**
+     * Adds a sample.
+     *
+     * @param nanos the execution time in nanoseconds
+     */
+    public void record( long nanos ) {
+        record( nanos, 1 );
+    }
+
+
+    /**
+     * Adds the given number of samples with the same execution time. Used to restore the mean execution time of
+     * previous runs.
+     */
+    public synchronized void record( long nanos, int count ) {
+        if ( count <= 0 ) {
+            return;
+        }
+        final double value = Math.max( 0, nanos );
+        final int bucket = bucketOf( value );
+        for ( int i = 0; i < count; i++ ) {
+            increment *= growth;
+            buckets[bucket] += increment;
+            weight += increment;
+            sum += increment * value;
+            sumOfSquares += increment * value * value;
+        }
+        samples += count;
+        if ( increment > RESCALE_THRESHOLD ) {
+            rescale();
+        }
+    }
+
+
+    /**
+     * @return the total number of recorded samples
+     */
+    public synchronized long getSamples() {
+        return samples;
+    }
+
+
+    /**
+     * @return the number of samples weighted by their decayed weights; this is at most about
+     * {@code halfLife / ln(2)} samples
+     */
+    public synchronized double getEffectiveSamples() {
+        return weight / increment;
+    }
+
+
+    /**
+     * @return the decayed mean execution time in nanoseconds or 0 if there are no samples
+     */
+    public synchronized double getMean() {
+        return weight == 0 ? 0 : sum / weight;
+    }
+
+
+    /**
+     * @return the decayed standard deviation of the execution times in nanoseconds
+     */
+    public synchronized double getStandardDeviation() {
+        if ( weight == 0 ) {
+            return 0;
+        }
+        double mean = sum / weight;
+        return Math.sqrt( Math.max( 0, sumOfSquares / weight - mean * mean ) );
+    }
+
+
+    /**
+     * @param quantile the quantile between 0 and 1, e.g., 0.95 for the 95th percentile
+     * @return the decayed quantile of the execution times in nanoseconds or 0 if there are no samples
+     */
+    public synchronized double getPercentile( double quantile ) {
+        if ( weight == 0 ) {
+            return 0;
+        }
+        final double threshold = Math.min( 1, Math.max( 0, quantile ) ) * weight;
+        double cumulative = 0;
+        for ( int i = 0; i < NUMBER_OF_BUCKETS; i++ ) {
+            cumulative += buckets[i];
+            if ( cumulative >= threshold && buckets[i] > 0 ) {
+                return valueOf( i );
+            }
+        }
+        return valueOf( NUMBER_OF_BUCKETS - 1 );
+    }
+
+
+    public synchronized void reset() {
+        Arrays.fill( buckets, 0 );
+        increment = 1;
+        weight = 0;
+        sum = 0;
+        sumOfSquares = 0;
+        samples = 0;
+    }
+
+
+    private void rescale() {
+        for ( int i = 0; i < NUMBER_OF_BUCKETS; i++ ) {
+            buckets[i] /= increment;
+        }
+        weight /= increment;
+        sum /= increment;
+        sumOfSquares /= increment;
+        increment = 1;
+    }
+
+
+    private static int bucketOf( double nanos ) {
+        if ( nanos < 1 ) {
+            return 0;
+        }
+        int index = (int) Math.floor( (Math.log( nanos ) / Math.log( 2 ) - MIN_EXPONENT) * BUCKETS_PER_OCTAVE );
+        return Math.min( NUMBER_OF_BUCKETS - 1, Math.max( 0, index ) );
+    }
+
+
+    /**
+     * @return the geometric center of the bucket
+     */
+    private static double valueOf( int bucket ) {
+        return Math.pow( 2, MIN_EXPONENT + (bucket + 0.5) / BUCKETS_PER_OCTAVE );
+    }
+
+}
@@ -110,6 +110,15 @@ public interface MonitoringService {
      */
     void updateQueryPostCosts( @NonNull String physicalQueryClass, long executionTime );
 
+    /**
+     * Returns the decayed distribution of the execution times of a physical query class. The distribution is kept in
+     * memory; in contrast to {@link #getQueryPostCosts(String)}, it also reflects the tail latency and recent changes.
+     *
+     * @param physicalQueryClass the physical query class string to identify aggregated post costs.
+     * @return The histogram of the execution times, empty if there are no samples.
+     */
+    LatencyHistogram getQueryLatencies( @NonNull String physicalQueryClass );
+
     /**
      * Removes all aggregates post costs from cache.
      */
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.monitoring.jfr;
+
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Flight recorder event for the transaction control calls (prepare, commit and rollback) to an adapter.
+ */
+@Name( "org.polypheny.db.Adapter" )
+@Label( "Adapter Call" )
+@Category( { "Polypheny", "Adapter" } )
+@Description( "Transaction control call to an adapter." )
+@StackTrace( false )
+public class AdapterEvent extends Event {
+
+    @Label( "Transaction Id" )
+    public long transactionId;
+
+    @Label( "Adapter" )
+    public String adapter;
+
+    @Label( "Operation" )
+    public String operation;
+
+    @Label( "Success" )
+    public boolean success;
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.monitoring.jfr;
+
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Flight recorder event for generating the Java code of a physical plan and compiling it, or looking up the compiled
+ * class in the cache.
+ */
+@Name( "org.polypheny.db.Compilation" )
+@Label( "Code Generation" )
+@Category( { "Polypheny", "Query Processing" } )
+@Description( "Generation and compilation of the Java code of a query plan." )
+@StackTrace( false )
+public class CompilationEvent extends Event {
+
+    @Label( "Statement Id" )
+    public long statementId;
+
+    @Label( "Transaction Id" )
+    public long transactionId;
+
+    @Label( "Class Name" )
+    public String className;
+
+    @Label( "Source Length" )
+    public int sourceLength;
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.monitoring.jfr;
+
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Flight recorder event for migrating a batch of rows to a store, e.g., when adding a placement.
+ */
+@Name( "org.polypheny.db.DataMigration" )
+@Label( "Data Migration Batch" )
+@Category( { "Polypheny", "Adapter" } )
+@Description( "Migration of a batch of rows to a store." )
+@StackTrace( false )
+public class DataMigrationEvent extends Event {
+
+    @Label( "Statement Id" )
+    public long statementId;
+
+    @Label( "Transaction Id" )
+    public long transactionId;
+
+    @Label( "Rows" )
+    public long rows;
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.monitoring.jfr;
+
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Flight recorder event for executing a query plan and collecting its result rows.
+ */
+@Name( "org.polypheny.db.Execution" )
+@Label( "Query Execution" )
+@Category( { "Polypheny", "Query Processing" } )
+@Description( "Execution of a query plan and collection of its result." )
+@StackTrace( false )
+public class ExecutionEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType( ExecutionEvent.class );
+
+    @Label( "Statement Id" )
+    public long statementId;
+
+    @Label( "Transaction Id" )
+    public long transactionId;
+
+    @Label( "Adapter" )
+    public String adapter;
+
+    @Label( "Rows" )
+    public long rows;
+
+
+    /**
+     * @return true if the flight recorder records execution events, without instantiating an event
+     */
+    public static boolean enabled() {
+        return TYPE.isEnabled();
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.monitoring.jfr;
+
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Flight recorder event for acquiring or upgrading a lock of an entity. The duration includes the time spent waiting for
+ * other transactions to release the lock.
+ */
+@Name( "org.polypheny.db.Lock" )
+@Label( "Lock" )
+@Category( { "Polypheny", "Transaction" } )
+@Description( "Acquisition of a lock, including the time waiting for it." )
+@StackTrace( false )
+public class LockEvent extends Event {
+
+    @Label( "Transaction Id" )
+    public long transactionId;
+
+    @Label( "Table Id" )
+    public long tableId;
+
+    @Label( "Partition Id" )
+    public long partitionId;
+
+    @Label( "Lock Mode" )
+    public String mode;
+
+    @Label( "Upgrade" )
+    public boolean upgrade;
+
+    @Label( "Waits" )
+    public int waits;
+
+    @Label( "Deadlock" )
+    public boolean deadlock;
+
+}
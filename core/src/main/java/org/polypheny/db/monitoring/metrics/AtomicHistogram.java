@@ -0,0 +1,170 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.monitoring.metrics;
+
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Cumulative histogram of latencies which can be recorded concurrently without locking. Unlike the decayed
+ * {@link org.polypheny.db.monitoring.core.LatencyHistogram}, every sample has the same weight, which allows exporting
+ * the counts as monotonic counters.
+ *
+ * The buckets have logarithmic boundaries with four buckets per power of two (like an HDR histogram with two bits of
+ * sub-bucket precision). The bucket of a value is computed from its leading bit, hence recording a sample is a few
+ * arithmetic operations and an atomic increment.
+ */
+public class AtomicHistogram {
+
+    static final int SUB_BUCKET_BITS = 2;
+    static final int BUCKETS_PER_OCTAVE = 1 << SUB_BUCKET_BITS;
+    static final int MIN_EXPONENT = 10; // ~1 microsecond
+    static final int MAX_EXPONENT = 36; // ~69 seconds
+    // One bucket for everything below 2^MIN_EXPONENT and one for everything above 2^MAX_EXPONENT
+    static final int NUMBER_OF_BUCKETS = (MAX_EXPONENT - MIN_EXPONENT) * BUCKETS_PER_OCTAVE + 2;
+
+    private final AtomicLongArray buckets = new AtomicLongArray( NUMBER_OF_BUCKETS );
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator( Math::max, 0 );
+
+
+    /**
+     * Adds a sample.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record( long nanos ) {
+        final long value = Math.max( 0, nanos );
+        buckets.incrementAndGet( bucketOf( value ) );
+        sum.add( value );
+        max.accumulate( value );
+    }
+
+
+    /**
+     * @return a copy of the counts per bucket; the counts are read one by one and therefore not atomic as a whole
+     */
+    public long[] getCounts() {
+        long[] counts = new long[NUMBER_OF_BUCKETS];
+        for ( int i = 0; i < NUMBER_OF_BUCKETS; i++ ) {
+            counts[i] = buckets.get( i );
+        }
+        return counts;
+    }
+
+
+    /**
+     * @return the total number of recorded samples
+     */
+    public long getSamples() {
+        long samples = 0;
+        for ( int i = 0; i < NUMBER_OF_BUCKETS; i++ ) {
+            samples += buckets.get( i );
+        }
+        return samples;
+    }
+
+
+    /**
+     * @return the sum of all recorded latencies in nanoseconds
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+
+    /**
+     * @return the highest recorded latency in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+
+    /**
+     * @param quantile the quantile between 0 and 1, e.g., 0.99 for the 99th percentile
+     * @return the upper boundary of the bucket containing the quantile in nanoseconds or 0 if there are no samples
+     */
+    public long getPercentile( double quantile ) {
+        final long[] counts = getCounts();
+        long samples = 0;
+        for ( long count : counts ) {
+            samples += count;
+        }
+        if ( samples == 0 ) {
+            return 0;
+        }
+        final long threshold = Math.max( 1, (long) Math.ceil( Math.min( 1, Math.max( 0, quantile ) ) * samples ) );
+        long cumulative = 0;
+        for ( int i = 0; i < NUMBER_OF_BUCKETS; i++ ) {
+            cumulative += counts[i];
+            if ( cumulative >= threshold ) {
+                return Math.min( upperBoundOf( i ), getMax() );
+            }
+        }
+        return getMax();
+    }
+
+
+    public void reset() {
+        for ( int i = 0; i < NUMBER_OF_BUCKETS; i++ ) {
+            buckets.set( i, 0 );
+        }
+        sum.reset();
+        max.reset();
+    }
+
+
+    static int bucketOf( long nanos ) {
+        if ( nanos < (1L << MIN_EXPONENT) ) {
+            return 0;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros( nanos );
+        if ( exponent >= MAX_EXPONENT ) {
+            return NUMBER_OF_BUCKETS - 1;
+        }
+        final int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (BUCKETS_PER_OCTAVE - 1);
+        return 1 + (exponent - MIN_EXPONENT) * BUCKETS_PER_OCTAVE + subBucket;
+    }
+
+
+    /**
+     * @return the exclusive upper boundary of the bucket in nanoseconds
+     */
+    static long upperBoundOf( int bucket ) {
+        if ( bucket == 0 ) {
+            return 1L << MIN_EXPONENT;
+        } else if ( bucket >= NUMBER_OF_BUCKETS - 1 ) {
+            return Long.MAX_VALUE;
+        }
+        final int exponent = MIN_EXPONENT + (bucket - 1) / BUCKETS_PER_OCTAVE;
+        final int subBucket = (bucket - 1) % BUCKETS_PER_OCTAVE;
+        return (long) (BUCKETS_PER_OCTAVE + subBucket + 1) << (exponent - SUB_BUCKET_BITS);
+    }
+
+
+    /**
+     * @return whether the upper boundary of the bucket is a power of two
+     */
+    static boolean isOctaveBoundary( int bucket ) {
+        return bucket == 0 || (bucket < NUMBER_OF_BUCKETS - 1 && (bucket - 1) % BUCKETS_PER_OCTAVE == BUCKETS_PER_OCTAVE - 1);
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.monitoring.metrics;
+
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.polypheny.db.catalog.Catalog.QueryLanguage;
+import org.polypheny.db.config.RuntimeConfig;
+
+
+/**
+ * Records the latencies of the stages of the query lifecycle, broken down by query language and adapter, and exports
+ * them in the OpenMetrics text format.
+ *
+ * Statements which are not issued in a query language (e.g., constraint checks on commit) are recorded with the
+ * language {@value #INTERNAL}; stages which do not belong to a single adapter with the adapter {@value #NO_ADAPTER}.
+ */
+public class QueryMetrics {
+
+    public static final QueryMetrics INSTANCE = new QueryMetrics();
+
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    public static final String INTERNAL = "internal";
+    public static final String NO_ADAPTER = "none";
+    public static final String MULTIPLE_ADAPTERS = "multiple";
+
+    private static final String METRIC = "polypheny_query_stage_seconds";
+
+    // Stage -> language -> adapter -> histogram; the nested maps avoid allocating a key for every sample
+    private final Map<QueryStage, ConcurrentMap<String, ConcurrentMap<String, AtomicHistogram>>> histograms = new EnumMap<>( QueryStage.class );
+
+
+    QueryMetrics() {
+        for ( QueryStage stage : QueryStage.values() ) {
+            histograms.put( stage, new ConcurrentHashMap<>() );
+        }
+    }
+
+
+    public static boolean isEnabled() {
+        return RuntimeConfig.QUERY_LATENCY_METRICS.getBoolean();
+    }
+
+
+    /**
+     * Records the time elapsed since {@code startNanos} for a stage which does not belong to a single adapter.
+     *
+     * @param startNanos the start of the stage as returned by {@link System#nanoTime()}
+     */
+    public void recordSince( QueryStage stage, QueryLanguage language, long startNanos ) {
+        record( stage, language, NO_ADAPTER, System.nanoTime() - startNanos );
+    }
+
+
+    /**
+     * Records the latency of a stage.
+     *
+     * @param language the query language or {@code null} for internal statements
+     * @param adapter the unique name of the adapter or {@code null} if the stage does not belong to a single adapter
+     * @param nanos the latency in nanoseconds
+     */
+    public void record( QueryStage stage, QueryLanguage language, String adapter, long nanos ) {
+        if ( !isEnabled() ) {
+            return;
+        }
+        final String languageLabel = language == null ? INTERNAL : language.name().toLowerCase( Locale.ROOT );
+        final String adapterLabel = adapter == null ? NO_ADAPTER : adapter;
+        histograms.get( stage )
+                .computeIfAbsent( languageLabel, l -> new ConcurrentHashMap<>() )
+                .computeIfAbsent( adapterLabel, a -> new AtomicHistogram() )
+                .record( nanos );
+    }
+
+
+    /**
+     * @return the histogram of the given stage, language and adapter or {@code null} if nothing has been recorded
+     */
+    public AtomicHistogram getHistogram( QueryStage stage, String language, String adapter ) {
+        Map<String, AtomicHistogram> adapters = histograms.get( stage ).get( language );
+        return adapters == null ? null : adapters.get( adapter );
+    }
+
+
+    public void reset() {
+        histograms.values().forEach( Map::clear );
+    }
+
+
+    /**
+     * Exports all histograms as a single metric family in the OpenMetrics text format. To keep the exposition small,
+     * only the buckets at powers of two are exported.
+     */
+    public String toOpenMetrics() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append( "# TYPE " ).append( METRIC ).append( " histogram\n" );
+        sb.append( "# UNIT " ).append( METRIC ).append( " seconds\n" );
+        sb.append( "# HELP " ).append( METRIC ).append( " Latency of the stages of the query lifecycle.\n" );
+        for ( Entry<QueryStage, ConcurrentMap<String, ConcurrentMap<String, AtomicHistogram>>> stage : histograms.entrySet() ) {
+            for ( Entry<String, ConcurrentMap<String, AtomicHistogram>> language : new TreeMap<>( stage.getValue() ).entrySet() ) {
+                for ( Entry<String, AtomicHistogram> adapter : new TreeMap<>( language.getValue() ).entrySet() ) {
+                    final String labels = "stage=\"" + stage.getKey().getLabel()
+                            + "\",language=\"" + escape( language.getKey() )
+                            + "\",adapter=\"" + escape( adapter.getKey() ) + "\"";
+                    appendHistogram( sb, labels, adapter.getValue() );
+                }
+            }
+        }
+        sb.append( "# EOF\n" );
+        return sb.toString();
+    }
+
+
+    private static void appendHistogram( StringBuilder sb, String labels, AtomicHistogram histogram ) {
+        final long sum = histogram.getSum();
+        final long[] counts = histogram.getCounts();
+        long cumulative = 0;
+        for ( int i = 0; i < counts.length; i++ ) {
+            cumulative += counts[i];
+            if ( AtomicHistogram.isOctaveBoundary( i ) ) {
+                sb.append( METRIC ).append( "_bucket{" ).append( labels )
+                        .append( ",le=\"" ).append( AtomicHistogram.upperBoundOf( i ) / 1e9 ).append( "\"} " )
+                        .append( cumulative ).append( '\n' );
+            }
+        }
+        sb.append( METRIC ).append( "_bucket{" ).append( labels ).append( ",le=\"+Inf\"} " ).append( cumulative ).append( '\n' );
+        sb.append( METRIC ).append( "_count{" ).append( labels ).append( "} " ).append( cumulative ).append( '\n' );
+        sb.append( METRIC ).append( "_sum{" ).append( labels ).append( "} " ).append( sum / 1e9 ).append( '\n' );
+    }
+
+
+    private static String escape( String labelValue ) {
+        return labelValue.replace( "\\", "\\\\" ).replace( "\"", "\\\"" ).replace( "\n", "\\n" );
+    }
+
+}
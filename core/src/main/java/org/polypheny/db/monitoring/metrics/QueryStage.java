@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.monitoring.metrics;
+
+
+import lombok.Getter;
+
+
+/**
+ * The stages of the lifecycle of a query for which latencies are recorded by {@link QueryMetrics}.
+ */
+public enum QueryStage {
+    PARSE( "parse" ),
+    VALIDATE( "validate" ),
+    TRANSLATE( "translate" ),
+    ROUTE( "route" ),
+    PLAN( "plan" ),
+    IMPLEMENT( "implement" ),
+    LOCK_WAIT( "lock_wait" ),
+    EXECUTE( "execute" ),
+    COMMIT( "commit" );
+
+    @Getter
+    private final String label;
+
+
+    QueryStage( String label ) {
+        this.label = label;
+    }
+}
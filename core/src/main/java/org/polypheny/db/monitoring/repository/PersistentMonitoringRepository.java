@@ -96,6 +96,13 @@ public interface PersistentMonitoringRepository extends MonitoringRepository {
      */
     void updateQueryPostCosts( @NonNull String physicalQueryClass, long executionTime );
 
+    /**
+     * Replaces the stored post costs of the given physical query classes.
+     *
+     * @param postCosts the post costs aggregated by the caller.
+     */
+    void storeQueryPostCosts( @NonNull List<QueryPostCost> postCosts );
+
     /**
      * Removes all aggregates post costs from cache.
      */
@@ -154,6 +154,17 @@ protected void mapRuleDescription( AlgOptRule rule ) {
         assert !description.contains( "$" ) : "Rule's description should not contain '$': " + description;
         assert !INTEGER_PATTERN.matcher( description ).matches() : "Rule's description should not be an integer: " + rule.getClass().getName() + ", " + description;
 
+        mapRuleDescription( description, rule );
+    }
+
+
+    /**
+     * Registers a rule's description which has already been validated.
+     *
+     * @param description Description of the rule
+     * @param rule Rule
+     */
+    protected void mapRuleDescription( String description, AlgOptRule rule ) {
         AlgOptRule existingRule = mapDescToRule.put( description, rule );
         if ( existingRule != null ) {
             if ( existingRule == rule ) {
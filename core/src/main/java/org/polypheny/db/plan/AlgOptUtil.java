@@ -1328,25 +1328,36 @@ public static AlgNode createProjectJoinRel( List<Integer> outputProj, AlgNode jo
 
 
     public static void registerAbstractAlgs( AlgOptPlanner planner ) {
-        planner.addRule( AggregateProjectPullUpConstantsRule.INSTANCE2 );
-        planner.addRule( UnionPullUpConstantsRule.INSTANCE );
-        planner.addRule( PruneEmptyRules.UNION_INSTANCE );
-        planner.addRule( PruneEmptyRules.INTERSECT_INSTANCE );
-        planner.addRule( PruneEmptyRules.MINUS_INSTANCE );
-        planner.addRule( PruneEmptyRules.PROJECT_INSTANCE );
-        planner.addRule( PruneEmptyRules.FILTER_INSTANCE );
-        planner.addRule( PruneEmptyRules.SORT_INSTANCE );
-        planner.addRule( PruneEmptyRules.AGGREGATE_INSTANCE );
-        planner.addRule( PruneEmptyRules.JOIN_LEFT_INSTANCE );
-        planner.addRule( PruneEmptyRules.JOIN_RIGHT_INSTANCE );
-        planner.addRule( PruneEmptyRules.SORT_FETCH_ZERO_INSTANCE );
-        planner.addRule( UnionMergeRule.INSTANCE );
-        planner.addRule( UnionMergeRule.INTERSECT_INSTANCE );
-        planner.addRule( UnionMergeRule.MINUS_INSTANCE );
-        planner.addRule( ProjectToWindowRules.PROJECT );
-        planner.addRule( FilterMergeRule.INSTANCE );
-        planner.addRule( DateRangeRules.FILTER_INSTANCE );
-        planner.addRule( IntersectToDistinctRule.INSTANCE );
+        for ( AlgOptRule rule : getAbstractAlgRules() ) {
+            planner.addRule( rule );
+        }
+    }
+
+
+    /**
+     * Returns the rules registered by {@link #registerAbstractAlgs(AlgOptPlanner)}.
+     */
+    public static List<AlgOptRule> getAbstractAlgRules() {
+        return ImmutableList.of(
+                AggregateProjectPullUpConstantsRule.INSTANCE2,
+                UnionPullUpConstantsRule.INSTANCE,
+                PruneEmptyRules.UNION_INSTANCE,
+                PruneEmptyRules.INTERSECT_INSTANCE,
+                PruneEmptyRules.MINUS_INSTANCE,
+                PruneEmptyRules.PROJECT_INSTANCE,
+                PruneEmptyRules.FILTER_INSTANCE,
+                PruneEmptyRules.SORT_INSTANCE,
+                PruneEmptyRules.AGGREGATE_INSTANCE,
+                PruneEmptyRules.JOIN_LEFT_INSTANCE,
+                PruneEmptyRules.JOIN_RIGHT_INSTANCE,
+                PruneEmptyRules.SORT_FETCH_ZERO_INSTANCE,
+                UnionMergeRule.INSTANCE,
+                UnionMergeRule.INTERSECT_INSTANCE,
+                UnionMergeRule.MINUS_INSTANCE,
+                ProjectToWindowRules.PROJECT,
+                FilterMergeRule.INSTANCE,
+                DateRangeRules.FILTER_INSTANCE,
+                IntersectToDistinctRule.INSTANCE );
     }
 
 
@@ -201,6 +201,11 @@ public class VolcanoPlanner extends AbstractRelOptPlanner {
      */
     private int registerCount;
 
+    /**
+     * Number of rule matches fired by {@link #findBestExp()}.
+     */
+    private long ruleFireCount;
+
     /**
      * Listener for this planner, or null if none set.
      */
@@ -394,7 +399,41 @@ public boolean addRule( AlgOptRule rule ) {
         }
 
         mapRuleDescription( rule );
+        registerOperandsAndConverters( rule );
+        return true;
+    }
+
+
+    /**
+     * Adds the trait definitions and rules of a template. This has the same effect as adding them one by one (in the
+     * order of the template), but skips the validation of the rules which has already been done by the template.
+     *
+     * @param template the template to install
+     * @return false if the planner is locked and the rules have not been added
+     */
+    public boolean addRules( VolcanoPlannerTemplate template ) {
+        for ( AlgTraitDef<?> traitDef : template.getTraitDefs() ) {
+            addAlgTraitDef( traitDef );
+        }
+        if ( locked ) {
+            return false;
+        }
+        for ( int i = 0; i < template.getRules().size(); i++ ) {
+            final AlgOptRule rule = template.getRules().get( i );
+            if ( !ruleSet.add( rule ) ) {
+                // Rule already exists.
+                continue;
+            }
+            final String ruleName = template.getDescriptions().get( i );
+            ruleNames.put( ruleName, rule.getClass() );
+            mapRuleDescription( ruleName, rule );
+            registerOperandsAndConverters( rule );
+        }
+        return true;
+    }
+
 
+    private void registerOperandsAndConverters( AlgOptRule rule ) {
         // Each of this rule's operands is an 'entry point' for a rule call. Register each operand against all concrete sub-classes that could match it.
         for ( AlgOptRuleOperand operand : rule.getOperands() ) {
             for ( Class<? extends AlgNode> subClass : subClasses( operand.getMatchedClass() ) ) {
@@ -412,8 +451,6 @@ public boolean addRule( AlgOptRule rule ) {
                 ruleTraitDef.registerConverterRule( this, converterRule );
             }
         }
-
-        return true;
     }
 
 
@@ -557,6 +594,7 @@ public AlgNode findBestExp() {
 
                 assert match.getRule().matches( match );
                 match.onMatch();
+                ++ruleFireCount;
 
                 // The root may have been merged with another subset. Find the new root subset.
                 root = canonize( root );
@@ -580,6 +618,14 @@ public AlgNode findBestExp() {
     }
 
 
+    /**
+     * @return the number of rule matches fired so far by {@link #findBestExp()}
+     */
+    public long getRuleFireCount() {
+        return ruleFireCount;
+    }
+
+
     /**
      * Informs {@link JaninoRelMetadataProvider} about the different kinds of {@link AlgNode} that we will be dealing with.
      * It will reduce the number of times that we need to re-generate the provider.
@@ -819,41 +865,65 @@ protected boolean isValid( Litmus litmus ) {
 
 
     public void registerModelRules() {
-        // Graph
-        addRule( LpgToEnumerableRule.PROJECT_TO_ENUMERABLE );
-        addRule( LpgToEnumerableRule.FILTER_TO_ENUMERABLE );
-        addRule( LpgToEnumerableRule.AGGREGATE_TO_ENUMERABLE );
-        addRule( LpgToEnumerableRule.VALUES_TO_ENUMERABLE );
+        for ( AlgOptRule rule : getModelRules() ) {
+            addRule( rule );
+        }
+    }
 
-        // Document
-        addRule( DocumentToEnumerableRule.PROJECT_TO_ENUMERABLE );
-        addRule( DocumentToEnumerableRule.FILTER_TO_ENUMERABLE );
-        addRule( DocumentToEnumerableRule.AGGREGATE_TO_ENUMERABLE );
-        addRule( DocumentToEnumerableRule.SORT_TO_ENUMERABLE );
 
-        // Relational
+    /**
+     * Returns the rules registered by {@link #registerModelRules()}.
+     */
+    public static List<AlgOptRule> getModelRules() {
+        return ImmutableList.of(
+                // Graph
+                LpgToEnumerableRule.PROJECT_TO_ENUMERABLE,
+                LpgToEnumerableRule.FILTER_TO_ENUMERABLE,
+                LpgToEnumerableRule.AGGREGATE_TO_ENUMERABLE,
+                LpgToEnumerableRule.VALUES_TO_ENUMERABLE,
+
+                // Document
+                DocumentToEnumerableRule.PROJECT_TO_ENUMERABLE,
+                DocumentToEnumerableRule.FILTER_TO_ENUMERABLE,
+                DocumentToEnumerableRule.AGGREGATE_TO_ENUMERABLE,
+                DocumentToEnumerableRule.SORT_TO_ENUMERABLE
+
+                // Relational
+        );
     }
 
 
     public void registerAbstractRelationalRules() {
-        addRule( FilterJoinRule.FILTER_ON_JOIN );
-        addRule( FilterJoinRule.JOIN );
-        addRule( AbstractConverter.ExpandConversionRule.INSTANCE );
-        addRule( JoinCommuteRule.INSTANCE );
-        addRule( SemiJoinRules.PROJECT );
-        addRule( SemiJoinRules.JOIN );
+        for ( AlgOptRule rule : getAbstractRelationalRules() ) {
+            addRule( rule );
+        }
+    }
+
+
+    /**
+     * Returns the rules registered by {@link #registerAbstractRelationalRules()} with the current configuration.
+     */
+    public static List<AlgOptRule> getAbstractRelationalRules() {
+        final List<AlgOptRule> rules = new ArrayList<>();
+        rules.add( FilterJoinRule.FILTER_ON_JOIN );
+        rules.add( FilterJoinRule.JOIN );
+        rules.add( AbstractConverter.ExpandConversionRule.INSTANCE );
+        rules.add( JoinCommuteRule.INSTANCE );
+        rules.add( SemiJoinRules.PROJECT );
+        rules.add( SemiJoinRules.JOIN );
         if ( RuntimeConfig.JOIN_COMMUTE.getBoolean() ) {
-            addRule( JoinAssociateRule.INSTANCE );
+            rules.add( JoinAssociateRule.INSTANCE );
         }
-        addRule( AggregateRemoveRule.INSTANCE );
-        addRule( UnionToDistinctRule.INSTANCE );
-        //addRule( ProjectRemoveRule.INSTANCE );
-        addRule( AggregateJoinTransposeRule.INSTANCE );
-        addRule( AggregateProjectMergeRule.INSTANCE );
-        addRule( CalcRemoveRule.INSTANCE );
-        addRule( SortRemoveRule.INSTANCE );
+        rules.add( AggregateRemoveRule.INSTANCE );
+        rules.add( UnionToDistinctRule.INSTANCE );
+        //rules.add( ProjectRemoveRule.INSTANCE );
+        rules.add( AggregateJoinTransposeRule.INSTANCE );
+        rules.add( AggregateProjectMergeRule.INSTANCE );
+        rules.add( CalcRemoveRule.INSTANCE );
+        rules.add( SortRemoveRule.INSTANCE );
 
         // todo: rule which makes Project({OrdinalRef}) disappear
+        return rules;
     }
 
 
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.plan.volcano;
+
+
+import com.google.common.collect.ImmutableList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import org.polypheny.db.plan.AlgOptRule;
+import org.polypheny.db.plan.AlgTraitDef;
+
+
+/**
+ * Immutable set of trait definitions and rules which is installed into many {@link VolcanoPlanner}s, see
+ * {@link VolcanoPlanner#addRules(VolcanoPlannerTemplate)}.
+ *
+ * Adding the rules of a template does not repeat the checks done by {@link VolcanoPlanner#addRule(AlgOptRule)}: duplicates
+ * are removed and the uniqueness of the rule descriptions is verified once, when the template is created. A template does
+ * not reference any planner and can therefore be shared between threads.
+ */
+public final class VolcanoPlannerTemplate {
+
+    @Getter
+    private final ImmutableList<AlgTraitDef<?>> traitDefs;
+
+    @Getter
+    private final ImmutableList<AlgOptRule> rules;
+
+    /**
+     * The descriptions of the {@link #rules}, at the same positions.
+     */
+    @Getter
+    private final ImmutableList<String> descriptions;
+
+
+    /**
+     * @param traitDefs the trait definitions, they are added to the planner before the rules
+     * @param rules the rules in the order they are added to the planner
+     */
+    public VolcanoPlannerTemplate( List<AlgTraitDef<?>> traitDefs, List<AlgOptRule> rules ) {
+        this.traitDefs = ImmutableList.copyOf( new LinkedHashSet<>( traitDefs ) );
+        this.rules = ImmutableList.copyOf( new LinkedHashSet<>( rules ) );
+
+        final Map<String, AlgOptRule> descriptionToRule = new HashMap<>();
+        final ImmutableList.Builder<String> descriptions = ImmutableList.builder();
+        for ( AlgOptRule rule : this.rules ) {
+            final String description = rule.toString();
+            final AlgOptRule existingRule = descriptionToRule.put( description, rule );
+            if ( existingRule != null ) {
+                throw new IllegalArgumentException( "Rule's description should be unique; existing rule=" + existingRule + "; new rule=" + rule );
+            }
+            descriptions.add( description );
+        }
+        this.descriptions = descriptions.build();
+    }
+
+}
@@ -217,6 +217,7 @@ public class PolyphenyDbPrepareImpl implements PolyphenyDbPrepare {
                     EnumerableRules.ENUMERABLE_AGGREGATE_RULE,
                     EnumerableRules.ENUMERABLE_SORT_RULE,
                     EnumerableRules.ENUMERABLE_LIMIT_RULE,
+                    EnumerableRules.ENUMERABLE_TOP_K_RULE,
                     EnumerableRules.ENUMERABLE_COLLECT_RULE,
                     EnumerableRules.ENUMERABLE_UNCOLLECT_RULE,
                     EnumerableRules.ENUMERABLE_UNION_RULE,
@@ -51,6 +51,21 @@ public abstract class Processor {
     public abstract AlgRoot translate( Statement statement, Node query, QueryParameters parameters );
 
 
+    /**
+     * Translates a query using a cached template of a previously translated query of the same shape. This allows to
+     * skip parsing, validation and translation. If this is not possible, {@code null} is returned and the query has to
+     * be parsed, validated and translated as usual.
+     *
+     * @param statement the statement the query is executed in
+     * @param query the query
+     * @param addDefaultValues whether default values are added for unset fields of inserts
+     * @return the logical plan and the parameter row type, or {@code null}
+     */
+    public Pair<AlgRoot, AlgDataType> translateCached( Statement statement, String query, boolean addDefaultValues ) {
+        return null;
+    }
+
+
     public PolyImplementation prepareDdl( Statement statement, Node parsed, QueryParameters parameters ) {
         if ( parsed instanceof ExecutableStatement ) {
             try {
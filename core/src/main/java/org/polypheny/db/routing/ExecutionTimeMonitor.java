@@ -18,13 +18,26 @@
 
 import java.util.HashMap;
 import java.util.Map;
+import lombok.Getter;
+import org.polypheny.db.catalog.Catalog.QueryLanguage;
+import org.polypheny.db.monitoring.metrics.QueryMetrics;
+import org.polypheny.db.monitoring.metrics.QueryStage;
 
 public class ExecutionTimeMonitor {
 
     private final Map<ExecutionTimeObserver, String> observers = new HashMap<>(); // Observer and their individual reference
 
+    private boolean labeled = false;
+    @Getter
+    private QueryLanguage language;
+    @Getter
+    private String adapter;
+
 
     public void setExecutionTime( long nanoTime ) {
+        if ( labeled ) {
+            QueryMetrics.INSTANCE.record( QueryStage.EXECUTE, language, adapter, nanoTime );
+        }
         for ( Map.Entry<ExecutionTimeObserver, String> observerEntry : observers.entrySet() ) {
             observerEntry.getKey().executionTime( observerEntry.getValue(), nanoTime );
         }
@@ -36,6 +49,20 @@ public void subscribe( ExecutionTimeObserver observer, String queryClassString )
     }
 
 
+    /**
+     * Sets the labels of the executed plan. Once set, the execution times are recorded as {@link QueryStage#EXECUTE}
+     * in the {@link QueryMetrics}.
+     *
+     * @param language the query language or {@code null} for internal statements
+     * @param adapter the unique name of the adapter the executed plan is placed on
+     */
+    public void setLabels( QueryLanguage language, String adapter ) {
+        this.language = language;
+        this.adapter = adapter;
+        this.labeled = true;
+    }
+
+
     public interface ExecutionTimeObserver {
 
         void executionTime( String reference, long nanoTime );
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.runtime;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.linq4j.QueryProvider;
+import org.apache.calcite.linq4j.function.Function1;
+import org.apache.calcite.linq4j.function.Function2;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.adapter.java.JavaTypeFactory;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.algebra.type.AlgDataTypeSystem;
+import org.polypheny.db.schema.SchemaPlus;
+import org.polypheny.db.transaction.Statement;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.type.PolyTypeFactoryImpl;
+
+
+/**
+ * Runtime support for {@link org.polypheny.db.adapter.enumerable.EnumerableBindJoin}.
+ */
+public final class BindJoins {
+
+    private BindJoins() {
+        // Utility class
+    }
+
+
+    /**
+     * Joins a source with the rows of a target which match the join keys of the source. The source is materialized
+     * and its distinct keys are bound to the dynamic parameters of the target in batches. The target is executed
+     * once per batch.
+     *
+     * @param context Data context of the statement
+     * @param source Input providing the keys
+     * @param target Factory for the filtered input; invoked with a data context binding the keys of a batch
+     * @param sourceKey Key selector of the source
+     * @param targetKey Key selector of the target
+     * @param selector Creates an output row from a left and a right row
+     * @param keysFromLeft Whether the source is the left input of the join
+     * @param generateNullsOnLeft Whether the join generates nulls on the left side
+     * @param generateNullsOnRight Whether the join generates nulls on the right side
+     * @param keyTypes Types of the key columns of the target
+     * @param parameterOffset Index of the first dynamic parameter of the target filter
+     * @param batchSize Number of keys bound per execution of the target
+     */
+    @SuppressWarnings("unused")
+    public static Enumerable<Object> join(
+            final DataContext context,
+            final Enumerable<Object> source,
+            final Function1<DataContext, Enumerable<Object>> target,
+            final Function1<Object, Object> sourceKey,
+            final Function1<Object, Object> targetKey,
+            final Function2<Object, Object, Object> selector,
+            final boolean keysFromLeft,
+            final boolean generateNullsOnLeft,
+            final boolean generateNullsOnRight,
+            final List<PolyType> keyTypes,
+            final int parameterOffset,
+            final int batchSize ) {
+        return new AbstractEnumerable<Object>() {
+            @Override
+            public Enumerator<Object> enumerator() {
+                final List<Object> sourceRows = source.toList();
+                final Set<Object> keys = new LinkedHashSet<>();
+                for ( Object row : sourceRows ) {
+                    final Object key = sourceKey.apply( row );
+                    if ( !containsNull( key, keyTypes.size() ) ) {
+                        keys.add( key );
+                    }
+                }
+                final List<Object> targetRows = fetch( context, target, keys, keyTypes, parameterOffset, batchSize );
+
+                final Enumerable<Object> joined;
+                if ( keysFromLeft ) {
+                    joined = Linq4j.asEnumerable( sourceRows ).join(
+                            Linq4j.asEnumerable( targetRows ), sourceKey, targetKey, selector, null, generateNullsOnLeft, generateNullsOnRight );
+                } else {
+                    joined = Linq4j.asEnumerable( targetRows ).join(
+                            Linq4j.asEnumerable( sourceRows ), targetKey, sourceKey, selector, null, generateNullsOnLeft, generateNullsOnRight );
+                }
+                return joined.enumerator();
+            }
+        };
+    }
+
+
+    /**
+     * Executes the target once per batch of keys and collects the returned rows. Each batch is bound in a data context
+     * of its own, which extends the parameter values of the statement by the keys of the batch.
+     */
+    static List<Object> fetch( DataContext context, Function1<DataContext, Enumerable<Object>> target, Set<Object> keys, List<PolyType> keyTypes, int parameterOffset, int batchSize ) {
+        final List<Object> rows = new ArrayList<>();
+        if ( keys.isEmpty() ) {
+            return rows;
+        }
+        final List<Map<Long, Object>> statementValues = context.getParameterValues();
+        if ( statementValues.size() > 1 ) {
+            // The planner does not create bind joins for such statements, but the plan might have been cached before
+            throw new PolyphenyDbException( "Bind joins are not supported for statements with multiple sets of parameter values." );
+        }
+
+        final PolyTypeFactoryImpl factory = new PolyTypeFactoryImpl( AlgDataTypeSystem.DEFAULT );
+        final int keyCount = keyTypes.size();
+        final Map<Long, AlgDataType> types = new HashMap<>( context.getParameterTypes() );
+        for ( int slot = 0; slot < batchSize; slot++ ) {
+            for ( int i = 0; i < keyCount; i++ ) {
+                final AlgDataType type = factory.createTypeWithNullability( factory.createPolyType( keyTypes.get( i ) ), true );
+                types.put( (long) parameterOffset + (long) slot * keyCount + i, type );
+            }
+        }
+
+        final Iterator<Object> iterator = keys.iterator();
+        while ( iterator.hasNext() ) {
+            final Map<Long, Object> values = statementValues.isEmpty() ? new HashMap<>() : new HashMap<>( statementValues.get( 0 ) );
+            for ( int slot = 0; slot < batchSize; slot++ ) {
+                // Unused slots are bound to null, which never satisfies the equality
+                final Object key = iterator.hasNext() ? iterator.next() : null;
+                for ( int i = 0; i < keyCount; i++ ) {
+                    values.put( (long) parameterOffset + (long) slot * keyCount + i, keyValue( key, i, keyCount ) );
+                }
+            }
+            for ( Object row : target.apply( new BoundDataContext( context, types, values ) ) ) {
+                rows.add( row );
+            }
+        }
+        return rows;
+    }
+
+
+    private static Object keyValue( Object key, int i, int keyCount ) {
+        if ( key == null ) {
+            return null;
+        }
+        return keyCount == 1 ? key : ((List<?>) key).get( i );
+    }
+
+
+    private static boolean containsNull( Object key, int keyCount ) {
+        if ( keyCount == 1 || key == null ) {
+            return key == null;
+        }
+        return ((List<?>) key).contains( null );
+    }
+
+
+    /**
+     * Data context of one execution of the target. The parameters are bound in this context only; everything else is
+     * read from the data context of the statement.
+     */
+    private static final class BoundDataContext implements DataContext {
+
+        private final DataContext parent;
+        private Map<Long, AlgDataType> types;
+        private List<Map<Long, Object>> values;
+
+
+        private BoundDataContext( DataContext parent, Map<Long, AlgDataType> types, Map<Long, Object> values ) {
+            this.parent = parent;
+            this.types = types;
+            this.values = Collections.singletonList( values );
+        }
+
+
+        @Override
+        public SchemaPlus getRootSchema() {
+            return parent.getRootSchema();
+        }
+
+
+        @Override
+        public JavaTypeFactory getTypeFactory() {
+            return parent.getTypeFactory();
+        }
+
+
+        @Override
+        public QueryProvider getQueryProvider() {
+            return parent.getQueryProvider();
+        }
+
+
+        @Override
+        public Object get( String name ) {
+            return parent.get( name );
+        }
+
+
+        @Override
+        public void addAll( Map<String, Object> map ) {
+            parent.addAll( map );
+        }
+
+
+        @Override
+        public Statement getStatement() {
+            return parent.getStatement();
+        }
+
+
+        @Override
+        public void addParameterValues( long index, AlgDataType type, List<Object> data ) {
+            throw new UnsupportedOperationException( "The parameters of a bind join are bound by the join itself." );
+        }
+
+
+        @Override
+        public AlgDataType getParameterType( long index ) {
+            return types.get( index );
+        }
+
+
+        @Override
+        public List<Map<Long, Object>> getParameterValues() {
+            return values;
+        }
+
+
+        @Override
+        public void setParameterValues( List<Map<Long, Object>> values ) {
+            this.values = values;
+        }
+
+
+        @Override
+        public Map<Long, AlgDataType> getParameterTypes() {
+            return types;
+        }
+
+
+        @Override
+        public void setParameterTypes( Map<Long, AlgDataType> types ) {
+            this.types = types;
+        }
+
+
+        @Override
+        public boolean isMixedModel() {
+            return parent.isMixedModel();
+        }
+
+    }
+
+}
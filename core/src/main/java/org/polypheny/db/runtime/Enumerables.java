@@ -34,8 +34,15 @@
 package org.polypheny.db.runtime;
 
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
 import java.util.function.Supplier;
+import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
 import org.apache.calcite.linq4j.function.Function1;
 import org.polypheny.db.interpreter.Row;
 
@@ -74,5 +81,74 @@ public static Supplier<Enumerable<Row>> toRow( final Supplier<Enumerable<Object[
         return () -> toRow( supplier.get() );
     }
 
-}
 
+    /**
+     * Sorts an enumerable and returns the elements from {@code offset} to {@code offset + fetch}. Instead of sorting all
+     * elements, the smallest {@code offset + fetch} elements are kept in a bounded heap. Hence, the elements are processed
+     * in {@code O(n log k)} time and {@code O(k)} memory, which is considerably cheaper than a full sort for small k.
+     *
+     * @param comparator the comparator for the keys; if {@code null}, the keys are compared by their natural order
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, K> Enumerable<T> orderByAndLimit( final Enumerable<T> source, final Function1<T, K> keySelector, final Comparator<K> comparator, final int offset, final int fetch ) {
+        final Comparator<K> keyComparator = comparator != null ? comparator : (Comparator<K>) Comparator.naturalOrder();
+        final Comparator<KeyedElement<T, K>> order = ( a, b ) -> keyComparator.compare( a.key, b.key );
+        return new AbstractEnumerable<T>() {
+            @Override
+            public Enumerator<T> enumerator() {
+                if ( fetch <= 0 ) {
+                    return Linq4j.emptyEnumerator();
+                }
+                final long limit = (long) offset + fetch;
+                final List<KeyedElement<T, K>> sorted = new ArrayList<>();
+                if ( limit >= Integer.MAX_VALUE ) {
+                    // The heap would never be full, sort all elements instead
+                    try ( Enumerator<T> enumerator = source.enumerator() ) {
+                        while ( enumerator.moveNext() ) {
+                            final T element = enumerator.current();
+                            sorted.add( new KeyedElement<>( keySelector.apply( element ), element ) );
+                        }
+                    }
+                } else {
+                    // Max-heap holding the smallest elements seen so far
+                    final PriorityQueue<KeyedElement<T, K>> heap = new PriorityQueue<>( (int) Math.min( limit, 1024 ) + 1, order.reversed() );
+                    try ( Enumerator<T> enumerator = source.enumerator() ) {
+                        while ( enumerator.moveNext() ) {
+                            final T element = enumerator.current();
+                            final K key = keySelector.apply( element );
+                            if ( heap.size() < limit ) {
+                                heap.add( new KeyedElement<>( key, element ) );
+                            } else if ( keyComparator.compare( key, heap.peek().key ) < 0 ) {
+                                heap.poll();
+                                heap.add( new KeyedElement<>( key, element ) );
+                            }
+                        }
+                    }
+                    sorted.addAll( heap );
+                }
+                sorted.sort( order );
+                final int end = (int) Math.min( limit, sorted.size() );
+                final List<T> result = new ArrayList<>( Math.max( end - offset, 0 ) );
+                for ( int i = offset; i < end; i++ ) {
+                    result.add( sorted.get( i ).element );
+                }
+                return Linq4j.enumerator( result );
+            }
+        };
+    }
+
+
+    private static class KeyedElement<T, K> {
+
+        private final K key;
+        private final T element;
+
+
+        private KeyedElement( K key, T element ) {
+            this.key = key;
+            this.element = element;
+        }
+
+    }
+
+}
@@ -18,10 +18,13 @@
 
 
 import java.util.List;
-import java.util.stream.Collectors;
-import org.polypheny.db.util.Pair;
 
 
+/**
+ * Distance metrics for the {@code DISTANCE} function. The vectors are converted to primitive arrays once per call, and
+ * the kernels work on these arrays. They are written with independent accumulators over blocks of four elements, which
+ * breaks the dependency between the additions and allows the JIT to keep several of them in flight.
+ */
 public class DistanceFunctions {
 
     private DistanceFunctions() {
@@ -29,99 +32,181 @@ private DistanceFunctions() {
     }
 
 
-    protected static double l1Metric( List<Number> value, List<Number> target ) {
-        double result = 0;
-        for ( int i = 0; i < value.size(); i++ ) {
-            result += Math.abs( value.get( i ).doubleValue() - target.get( i ).doubleValue() );
+    /**
+     * Converts a list of numbers to a primitive array.
+     */
+    public static double[] toArray( List<?> list ) {
+        final double[] array = new double[list.size()];
+        for ( int i = 0; i < array.length; i++ ) {
+            array[i] = ((Number) list.get( i )).doubleValue();
         }
-        return result;
-        // Apparently java for loops are faster than the stream api. It also looks easier to maintain, even though I love streams :/
+        return array;
     }
 
 
-    protected static double l1MetricWeighted( List<Number> value, List<Number> target, List<Number> weights ) {
-        double result = 0;
-        for ( int i = 0; i < value.size(); i++ ) {
-            result += Math.abs( value.get( i ).doubleValue() - target.get( i ).doubleValue() ) * weights.get( i ).doubleValue();
+    public static double distance( double[] value, double[] target, String metric ) {
+        if ( "L2".equals( metric ) ) {
+            return l2Metric( value, target );
+        } else if ( "L1".equals( metric ) ) {
+            return l1Metric( value, target );
+        } else if ( "L2SQUARED".equals( metric ) ) {
+            return l2SquaredMetric( value, target );
+        } else if ( "CHISQUARED".equals( metric ) ) {
+            return chiSquaredMetric( value, target );
+        } else if ( "COSINE".equals( metric ) ) {
+            return cosineMetric( value, target );
+        } else {
+            return 0.0;
         }
-        return result;
     }
 
 
-    protected static double l2SquaredMetric( List<Number> value, List<Number> target ) {
-        double result = 0;
-        for ( int i = 0; i < value.size(); i++ ) {
-            result += Math.pow( value.get( i ).doubleValue() - target.get( i ).doubleValue(), 2.0 );
+    public static double distance( double[] value, double[] target, String metric, double[] weights ) {
+        if ( "L2".equals( metric ) ) {
+            return l2MetricWeighted( value, target, weights );
+        } else if ( "L1".equals( metric ) ) {
+            return l1MetricWeighted( value, target, weights );
+        } else if ( "L2SQUARED".equals( metric ) ) {
+            return l2SquaredMetricWeighted( value, target, weights );
+        } else if ( "CHISQUARED".equals( metric ) ) {
+            return chiSquaredMetricWeighted( value, target, weights );
+        } else if ( "COSINE".equals( metric ) ) {
+            return cosineMetricWeighted( value, target, weights );
+        } else {
+            return 0.0;
         }
-        return result;
     }
 
 
-    protected static double l2SquaredMetricWeighted( List<Number> value, List<Number> target, List<Number> weights ) {
-        double result = 0;
-        for ( int i = 0; i < value.size(); i++ ) {
-            result += Math.pow( value.get( i ).doubleValue() - target.get( i ).doubleValue(), 2.0 ) * weights.get( i ).doubleValue();
+    public static double l1Metric( double[] value, double[] target ) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        final int blocks = value.length & ~3;
+        int i = 0;
+        for ( ; i < blocks; i += 4 ) {
+            s0 += Math.abs( value[i] - target[i] );
+            s1 += Math.abs( value[i + 1] - target[i + 1] );
+            s2 += Math.abs( value[i + 2] - target[i + 2] );
+            s3 += Math.abs( value[i + 3] - target[i + 3] );
         }
-        return result;
+        for ( ; i < value.length; i++ ) {
+            s0 += Math.abs( value[i] - target[i] );
+        }
+        return (s0 + s1) + (s2 + s3);
     }
 
 
-    protected static double l2Metric( List<Number> value, List<Number> target ) {
-        return Math.sqrt( l2SquaredMetric( value, target ) );
+    public static double l1MetricWeighted( double[] value, double[] target, double[] weights ) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        final int blocks = value.length & ~3;
+        int i = 0;
+        for ( ; i < blocks; i += 4 ) {
+            s0 += Math.abs( value[i] - target[i] ) * weights[i];
+            s1 += Math.abs( value[i + 1] - target[i + 1] ) * weights[i + 1];
+            s2 += Math.abs( value[i + 2] - target[i + 2] ) * weights[i + 2];
+            s3 += Math.abs( value[i + 3] - target[i + 3] ) * weights[i + 3];
+        }
+        for ( ; i < value.length; i++ ) {
+            s0 += Math.abs( value[i] - target[i] ) * weights[i];
+        }
+        return (s0 + s1) + (s2 + s3);
     }
 
 
-    protected static double l2MetricWeighted( List<Number> value, List<Number> target, List<Number> weights ) {
-        return Math.sqrt( l2SquaredMetricWeighted( value, target, weights ) );
+    public static double l2SquaredMetric( double[] value, double[] target ) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        final int blocks = value.length & ~3;
+        int i = 0;
+        for ( ; i < blocks; i += 4 ) {
+            final double d0 = value[i] - target[i];
+            final double d1 = value[i + 1] - target[i + 1];
+            final double d2 = value[i + 2] - target[i + 2];
+            final double d3 = value[i + 3] - target[i + 3];
+            s0 += d0 * d0;
+            s1 += d1 * d1;
+            s2 += d2 * d2;
+            s3 += d3 * d3;
+        }
+        for ( ; i < value.length; i++ ) {
+            final double d = value[i] - target[i];
+            s0 += d * d;
+        }
+        return (s0 + s1) + (s2 + s3);
     }
 
 
-    protected static double chiSquaredMetric( List<Number> value, List<Number> target ) {
-        double result = 0;
-        for ( int i = 0; i < value.size(); i++ ) {
-            double a = value.get( i ).doubleValue();
-            double b = target.get( i ).doubleValue();
-            result += Math.pow( a - b, 2.0 ) / (b + a);
+    public static double l2SquaredMetricWeighted( double[] value, double[] target, double[] weights ) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        final int blocks = value.length & ~3;
+        int i = 0;
+        for ( ; i < blocks; i += 4 ) {
+            final double d0 = value[i] - target[i];
+            final double d1 = value[i + 1] - target[i + 1];
+            final double d2 = value[i + 2] - target[i + 2];
+            final double d3 = value[i + 3] - target[i + 3];
+            s0 += d0 * d0 * weights[i];
+            s1 += d1 * d1 * weights[i + 1];
+            s2 += d2 * d2 * weights[i + 2];
+            s3 += d3 * d3 * weights[i + 3];
         }
-        return result;
+        for ( ; i < value.length; i++ ) {
+            final double d = value[i] - target[i];
+            s0 += d * d * weights[i];
+        }
+        return (s0 + s1) + (s2 + s3);
     }
 
 
-    protected static double chiSquaredMetricWeighted( List<Number> value, List<Number> target, List<Number> weights ) {
-        double result = 0;
-        for ( int i = 0; i < value.size(); i++ ) {
-            double a = value.get( i ).doubleValue();
-            double b = target.get( i ).doubleValue();
-            double weight = weights.get( i ).doubleValue();
-            result += Math.pow( a - b, 2.0 ) / (b + a) * weight;
-        }
-        return result;
+    public static double l2Metric( double[] value, double[] target ) {
+        return Math.sqrt( l2SquaredMetric( value, target ) );
     }
 
 
-    protected static double cosineMetric( List<Number> value, List<Number> target ) {
-        return 1 - dot( value, target ) / (norm2( value ) * norm2( target ));
+    public static double l2MetricWeighted( double[] value, double[] target, double[] weights ) {
+        return Math.sqrt( l2SquaredMetricWeighted( value, target, weights ) );
     }
 
 
-    protected static double cosineMetricWeighted( List<Number> value, List<Number> target, List<Number> weights ) {
-        List<Number> valueWeighted = Pair.zip( value, weights ).stream().map( p -> p.left.doubleValue() * p.right.doubleValue() ).collect( Collectors.toList() );
-        List<Number> targetWeighted = Pair.zip( target, weights ).stream().map( p -> p.left.doubleValue() * p.right.doubleValue() ).collect( Collectors.toList() );
-        return cosineMetric( valueWeighted, targetWeighted );
+    public static double chiSquaredMetric( double[] value, double[] target ) {
+        double result = 0;
+        for ( int i = 0; i < value.length; i++ ) {
+            final double d = value[i] - target[i];
+            result += d * d / (target[i] + value[i]);
+        }
+        return result;
     }
 
 
-    private static double dot( List<Number> a, List<Number> b ) {
+    public static double chiSquaredMetricWeighted( double[] value, double[] target, double[] weights ) {
         double result = 0;
-        for ( int i = 0; i < a.size(); i++ ) {
-            result += a.get( i ).doubleValue() * b.get( i ).doubleValue();
+        for ( int i = 0; i < value.length; i++ ) {
+            final double d = value[i] - target[i];
+            result += d * d / (target[i] + value[i]) * weights[i];
         }
         return result;
     }
 
 
-    private static double norm2( List<Number> list ) {
-        return Math.sqrt( list.stream().mapToDouble( a -> Math.pow( a.doubleValue(), 2.0 ) ).sum() );
+    public static double cosineMetric( double[] value, double[] target ) {
+        double dot = 0, valueNorm = 0, targetNorm = 0;
+        for ( int i = 0; i < value.length; i++ ) {
+            dot += value[i] * target[i];
+            valueNorm += value[i] * value[i];
+            targetNorm += target[i] * target[i];
+        }
+        return 1 - dot / (Math.sqrt( valueNorm ) * Math.sqrt( targetNorm ));
+    }
+
+
+    public static double cosineMetricWeighted( double[] value, double[] target, double[] weights ) {
+        double dot = 0, valueNorm = 0, targetNorm = 0;
+        for ( int i = 0; i < value.length; i++ ) {
+            final double a = value[i] * weights[i];
+            final double b = target[i] * weights[i];
+            dot += a * b;
+            valueNorm += a * a;
+            targetNorm += b * b;
+        }
+        return 1 - dot / (Math.sqrt( valueNorm ) * Math.sqrt( targetNorm ));
     }
 
 
@@ -179,41 +179,21 @@ private Functions() {
     }
 
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @SuppressWarnings("rawtypes")
     public static double distance( List value, List target, String metric, List weights ) {
         DistanceFunctions.verifyInputs( value, target, weights );
-        if ( "L2".equals( metric ) ) {
-            return DistanceFunctions.l2MetricWeighted( value, target, weights );
-        } else if ( "L1".equals( metric ) ) {
-            return DistanceFunctions.l1MetricWeighted( value, target, weights );
-        } else if ( "L2SQUARED".equals( metric ) ) {
-            return DistanceFunctions.l2SquaredMetricWeighted( value, target, weights );
-        } else if ( "CHISQUARED".equals( metric ) ) {
-            return DistanceFunctions.chiSquaredMetricWeighted( value, target, weights );
-        } else if ( "COSINE".equals( metric ) ) {
-            return DistanceFunctions.cosineMetricWeighted( value, target, weights );
-        } else {
-            return 0.0;
-        }
+        return DistanceFunctions.distance(
+                DistanceFunctions.toArray( value ),
+                DistanceFunctions.toArray( target ),
+                metric,
+                DistanceFunctions.toArray( weights ) );
     }
 
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @SuppressWarnings("rawtypes")
     public static double distance( List value, List target, String metric ) {
         DistanceFunctions.verifyInputs( value, target, null );
-        if ( "L2".equals( metric ) ) {
-            return DistanceFunctions.l2Metric( value, target );
-        } else if ( "L1".equals( metric ) ) {
-            return DistanceFunctions.l1Metric( value, target );
-        } else if ( "L2SQUARED".equals( metric ) ) {
-            return DistanceFunctions.l2SquaredMetric( value, target );
-        } else if ( "CHISQUARED".equals( metric ) ) {
-            return DistanceFunctions.chiSquaredMetric( value, target );
-        } else if ( "COSINE".equals( metric ) ) {
-            return DistanceFunctions.cosineMetric( value, target );
-        } else {
-            return 0.0;
-        }
+        return DistanceFunctions.distance( DistanceFunctions.toArray( value ), DistanceFunctions.toArray( target ), metric );
     }
 
 
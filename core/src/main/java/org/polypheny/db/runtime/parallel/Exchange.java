@@ -0,0 +1,360 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.runtime.parallel;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+
+
+/**
+ * Exchange operator gathering the output of several concurrently executed tasks. The tasks are executed by the
+ * {@link ExchangeExecutor shared workers} and by the consuming thread itself, which guarantees progress even if all
+ * workers are busy. Results are handed over in morsels to reduce synchronization. The order of the rows is not
+ * preserved.
+ */
+@Slf4j
+public final class Exchange {
+
+    /**
+     * Number of rows handed over at once by {@link #union}.
+     */
+    public static final int ROW_MORSEL_SIZE = 1024;
+
+    private static final Object END = new Object();
+
+
+    private Exchange() {
+        // Utility class
+    }
+
+
+    /**
+     * Returns the union (with duplicates) of the inputs, enumerating up to {@code parallelism} inputs concurrently.
+     * Inputs with the same group are enumerated one after another, e.g., because they are served by the same store.
+     * Called from generated code.
+     *
+     * @param inputs Inputs to union
+     * @param groups Group of every input
+     * @param parallelism Maximum number of concurrently enumerated groups
+     */
+    public static <T> Enumerable<T> union( Enumerable<T>[] inputs, int[] groups, int parallelism ) {
+        assert inputs.length == groups.length;
+        final Map<Integer, List<Enumerable<T>>> byGroup = new LinkedHashMap<>();
+        for ( int i = 0; i < inputs.length; i++ ) {
+            byGroup.computeIfAbsent( groups[i], g -> new ArrayList<>() ).add( inputs[i] );
+        }
+        final List<Enumerable<T>> tasks = new ArrayList<>();
+        for ( List<Enumerable<T>> group : byGroup.values() ) {
+            tasks.add( group.size() == 1 ? group.get( 0 ) : Linq4j.concat( group ) );
+        }
+        if ( tasks.size() == 1 || parallelism <= 1 ) {
+            return Linq4j.concat( Arrays.asList( inputs ) );
+        }
+        return gather( tasks, parallelism, ROW_MORSEL_SIZE, null );
+    }
+
+
+    /**
+     * Enumerates the given tasks concurrently and returns the union of their elements.
+     *
+     * @param tasks Tasks to execute
+     * @param parallelism Maximum number of tasks executed concurrently
+     * @param morselSize Number of elements handed over at once
+     * @param resource Resource closed together with the returned enumerator, may be null
+     */
+    public static <T> Enumerable<T> gather( final List<Enumerable<T>> tasks, final int parallelism, final int morselSize, final AutoCloseable resource ) {
+        return new AbstractEnumerable<T>() {
+            @Override
+            public Enumerator<T> enumerator() {
+                return new GatherEnumerator<>( tasks, parallelism, morselSize, resource );
+            }
+        };
+    }
+
+
+    /**
+     * Wraps an exception thrown by a task.
+     */
+    private static class Failure {
+
+        private final Throwable cause;
+
+
+        Failure( Throwable cause ) {
+            this.cause = cause;
+        }
+
+    }
+
+
+    private static class GatherEnumerator<T> implements Enumerator<T> {
+
+        private final List<Enumerable<T>> tasks;
+        private final int parallelism;
+        private final int morselSize;
+        private final AutoCloseable resource;
+
+        private final AtomicInteger nextTask = new AtomicInteger();
+        private final BlockingQueue<Object> queue;
+        private final List<Future<?>> workers = new ArrayList<>();
+        private volatile boolean closed = false;
+        // Number of workers currently executing tasks, guarded by the enumerator itself
+        private int running = 0;
+
+        private boolean started = false;
+        // Number of tasks which have been completely consumed
+        private int finished = 0;
+        // Task executed by the consuming thread
+        private Enumerator<T> local;
+        private List<T> morsel;
+        private int morselIndex;
+        private T current;
+
+
+        GatherEnumerator( List<Enumerable<T>> tasks, int parallelism, int morselSize, AutoCloseable resource ) {
+            this.tasks = tasks;
+            this.parallelism = Math.max( 1, Math.min( parallelism, tasks.size() ) );
+            this.morselSize = morselSize;
+            this.resource = resource;
+            this.queue = new ArrayBlockingQueue<>( 4 * this.parallelism );
+        }
+
+
+        private void start() {
+            started = true;
+            // The consuming thread is one of the workers
+            for ( int i = 1; i < parallelism; i++ ) {
+                workers.add( ExchangeExecutor.submit( this::run ) );
+            }
+        }
+
+
+        private void run() {
+            synchronized ( this ) {
+                if ( closed ) {
+                    return;
+                }
+                running++;
+            }
+            try {
+                work();
+            } finally {
+                synchronized ( this ) {
+                    running--;
+                    notifyAll();
+                }
+            }
+        }
+
+
+        private int claim() {
+            if ( closed ) {
+                return -1;
+            }
+            final int task = nextTask.getAndIncrement();
+            return task < tasks.size() ? task : -1;
+        }
+
+
+        private void work() {
+            int task;
+            while ( (task = claim()) >= 0 ) {
+                try ( Enumerator<T> enumerator = tasks.get( task ).enumerator() ) {
+                    List<T> elements = new ArrayList<>( morselSize );
+                    while ( !closed && enumerator.moveNext() ) {
+                        elements.add( enumerator.current() );
+                        if ( elements.size() == morselSize ) {
+                            put( elements );
+                            elements = new ArrayList<>( morselSize );
+                        }
+                    }
+                    if ( !elements.isEmpty() ) {
+                        put( elements );
+                    }
+                    put( END );
+                } catch ( Throwable t ) {
+                    put( new Failure( t ) );
+                    return;
+                }
+            }
+        }
+
+
+        private void put( Object element ) {
+            try {
+                while ( !closed ) {
+                    if ( queue.offer( element, 100, TimeUnit.MILLISECONDS ) ) {
+                        return;
+                    }
+                }
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+
+        @Override
+        public T current() {
+            return current;
+        }
+
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean moveNext() {
+            if ( !started ) {
+                start();
+            }
+            while ( true ) {
+                if ( morsel != null && morselIndex < morsel.size() ) {
+                    current = morsel.get( morselIndex++ );
+                    return true;
+                }
+                morsel = null;
+                if ( finished == tasks.size() ) {
+                    return false;
+                }
+                Object element = queue.poll();
+                if ( element == null ) {
+                    if ( local != null || claimLocal() ) {
+                        readLocal();
+                        continue;
+                    }
+                    element = take();
+                }
+                if ( element == END ) {
+                    finished++;
+                } else if ( element instanceof Failure ) {
+                    close();
+                    final Throwable cause = ((Failure) element).cause;
+                    if ( cause instanceof RuntimeException ) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new RuntimeException( "Exception in parallel execution", cause );
+                } else {
+                    morsel = (List<T>) element;
+                    morselIndex = 0;
+                }
+            }
+        }
+
+
+        private boolean claimLocal() {
+            final int task = claim();
+            if ( task < 0 ) {
+                return false;
+            }
+            local = tasks.get( task ).enumerator();
+            return true;
+        }
+
+
+        private void readLocal() {
+            final List<T> elements = new ArrayList<>( morselSize );
+            while ( elements.size() < morselSize ) {
+                if ( !local.moveNext() ) {
+                    local.close();
+                    local = null;
+                    finished++;
+                    break;
+                }
+                elements.add( local.current() );
+            }
+            morsel = elements;
+            morselIndex = 0;
+        }
+
+
+        private Object take() {
+            try {
+                return queue.take();
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new RuntimeException( "Interrupted while waiting for parallel workers", e );
+            }
+        }
+
+
+        @Override
+        public void reset() {
+            throw new UnsupportedOperationException( "Parallel execution can not be reset" );
+        }
+
+
+        @Override
+        public void close() {
+            if ( closed ) {
+                return;
+            }
+            closed = true;
+            for ( Future<?> worker : workers ) {
+                // Only removes workers which have not been started yet
+                worker.cancel( false );
+            }
+            awaitWorkers();
+            queue.clear();
+            if ( local != null ) {
+                local.close();
+                local = null;
+            }
+            if ( resource != null ) {
+                try {
+                    resource.close();
+                } catch ( Exception e ) {
+                    log.warn( "Exception while closing resource of exchange", e );
+                }
+            }
+        }
+
+
+        /**
+         * Waits until no worker uses the tasks anymore. Workers stop after their current element once the enumerator
+         * has been closed, afterwards the connections and the data context of the statement can be released safely.
+         */
+        private synchronized void awaitWorkers() {
+            boolean interrupted = false;
+            while ( running > 0 ) {
+                try {
+                    wait();
+                } catch ( InterruptedException e ) {
+                    interrupted = true;
+                }
+            }
+            if ( interrupted ) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.runtime.parallel;
+
+
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.polypheny.db.config.Config;
+import org.polypheny.db.config.Config.ConfigListener;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.util.VirtualThreads;
+
+
+/**
+ * Bounded pool of workers shared by all parallel operators. The size of the pool limits the number of threads used for
+ * intra-query parallelism across all statements.
+ */
+public final class ExchangeExecutor {
+
+    private static final ThreadPoolExecutor WORKERS;
+
+
+    static {
+        final int poolSize = Math.max( 1, RuntimeConfig.PARALLEL_EXECUTION_POOL_SIZE.getInteger() );
+        WORKERS = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                VirtualThreads.threadFactory( "Exchange-", false ) );
+        WORKERS.allowCoreThreadTimeOut( true );
+        RuntimeConfig.PARALLEL_EXECUTION_POOL_SIZE.addObserver( new ConfigListener() {
+            @Override
+            public void onConfigChange( Config c ) {
+                setPoolSize( Math.max( 1, c.getInt() ) );
+            }
+
+
+            @Override
+            public void restart( Config c ) {
+                setPoolSize( Math.max( 1, c.getInt() ) );
+            }
+        } );
+    }
+
+
+    private ExchangeExecutor() {
+        // Utility class
+    }
+
+
+    static Future<?> submit( Runnable runnable ) {
+        return WORKERS.submit( runnable );
+    }
+
+
+    private static synchronized void setPoolSize( int poolSize ) {
+        if ( poolSize > WORKERS.getMaximumPoolSize() ) {
+            WORKERS.setMaximumPoolSize( poolSize );
+            WORKERS.setCorePoolSize( poolSize );
+        } else {
+            WORKERS.setCorePoolSize( poolSize );
+            WORKERS.setMaximumPoolSize( poolSize );
+        }
+    }
+
+
+    public static int getPoolSize() {
+        return WORKERS.getMaximumPoolSize();
+    }
+
+
+    public static int getActiveCount() {
+        return WORKERS.getActiveCount();
+    }
+
+}
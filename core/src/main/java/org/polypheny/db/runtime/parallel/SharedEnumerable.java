@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.runtime.parallel;
+
+
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+
+
+/**
+ * Distributes the elements of an input among several consumers, e.g., the workers of a parallel operator. Every
+ * element is returned to exactly one consumer; access to the input is serialized. The input is closed as soon as it
+ * is exhausted or this object is closed.
+ */
+public class SharedEnumerable<T> implements AutoCloseable {
+
+    private final Enumerable<T> input;
+    private Enumerator<T> enumerator;
+    private boolean done = false;
+
+
+    public SharedEnumerable( Enumerable<T> input ) {
+        this.input = input;
+    }
+
+
+    /**
+     * Returns a view on the input for one consumer. Closing the view does not close the input.
+     */
+    public Enumerable<T> view() {
+        return new AbstractEnumerable<T>() {
+            @Override
+            public Enumerator<T> enumerator() {
+                return new Enumerator<T>() {
+                    private T current;
+
+
+                    @Override
+                    public T current() {
+                        return current;
+                    }
+
+
+                    @Override
+                    public boolean moveNext() {
+                        synchronized ( SharedEnumerable.this ) {
+                            if ( done ) {
+                                return false;
+                            }
+                            if ( enumerator == null ) {
+                                enumerator = input.enumerator();
+                            }
+                            if ( enumerator.moveNext() ) {
+                                current = enumerator.current();
+                                return true;
+                            }
+                            close();
+                            return false;
+                        }
+                    }
+
+
+                    @Override
+                    public void reset() {
+                        throw new UnsupportedOperationException();
+                    }
+
+
+                    @Override
+                    public void close() {
+                    }
+                };
+            }
+        };
+    }
+
+
+    @Override
+    public synchronized void close() {
+        done = true;
+        if ( enumerator != null ) {
+            enumerator.close();
+            enumerator = null;
+        }
+    }
+
+}
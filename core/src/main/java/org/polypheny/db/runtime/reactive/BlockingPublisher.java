@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.reactive;
+
+
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * Adapts a blocking iterator to a {@link Flow.Publisher} with back-pressure. The iterator is opened and advanced on the
+ * given executor, and only as far as the subscriber has requested elements. While the subscriber has no outstanding
+ * demand, no thread is occupied. Hence, a slow consumer does not pin a thread, and on an executor with virtual threads
+ * neither does a slow (blocking) producer.
+ *
+ * The publisher is single-use: only the first subscriber receives elements, further subscribers are rejected. If the
+ * iterator is {@link AutoCloseable}, it is closed after completion, on errors and on cancellation.
+ *
+ * @param <T> the type of the elements
+ */
+@Slf4j
+public class BlockingPublisher<T> implements Flow.Publisher<T> {
+
+    private final Callable<Iterator<T>> source;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+
+    /**
+     * @param source opens the iterator; called on the executor when the first element is requested
+     * @param executor the executor on which the iterator is opened and advanced
+     */
+    public BlockingPublisher( Callable<Iterator<T>> source, Executor executor ) {
+        this.source = source;
+        this.executor = executor;
+    }
+
+
+    @Override
+    public void subscribe( Flow.Subscriber<? super T> subscriber ) {
+        if ( !subscribed.compareAndSet( false, true ) ) {
+            subscriber.onSubscribe( new Flow.Subscription() {
+                @Override
+                public void request( long n ) {
+                }
+
+
+                @Override
+                public void cancel() {
+                }
+            } );
+            subscriber.onError( new IllegalStateException( "This publisher only supports a single subscriber." ) );
+            return;
+        }
+        subscriber.onSubscribe( new IteratorSubscription( subscriber ) );
+    }
+
+
+    private class IteratorSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        // Number of pending drain requests; only the caller which increments it from zero schedules a drain
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean cancelled = false;
+        private volatile Throwable invalidRequest;
+
+        // Only accessed by the draining thread
+        private Iterator<T> iterator;
+        private boolean done = false;
+
+
+        IteratorSubscription( Flow.Subscriber<? super T> subscriber ) {
+            this.subscriber = subscriber;
+        }
+
+
+        @Override
+        public void request( long n ) {
+            if ( n <= 0 ) {
+                invalidRequest = new IllegalArgumentException( "The number of requested elements must be positive, but was " + n + "." );
+            } else {
+                demand.getAndAccumulate( n, ( current, added ) -> current + added < 0 ? Long.MAX_VALUE : current + added );
+            }
+            schedule();
+        }
+
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+
+        private void schedule() {
+            if ( pending.getAndIncrement() == 0 ) {
+                try {
+                    executor.execute( this::drain );
+                } catch ( RuntimeException e ) {
+                    // The executor rejected the task; nobody is going to drain anymore
+                    done = true;
+                    subscriber.onError( e );
+                }
+            }
+        }
+
+
+        private void drain() {
+            int missed = 1;
+            do {
+                if ( !done ) {
+                    emit();
+                }
+                missed = pending.addAndGet( -missed );
+            } while ( missed != 0 );
+        }
+
+
+        private void emit() {
+            try {
+                if ( cancelled ) {
+                    finish();
+                    return;
+                }
+                if ( invalidRequest != null ) {
+                    finish();
+                    subscriber.onError( invalidRequest );
+                    return;
+                }
+                if ( demand.get() == 0 ) {
+                    return;
+                }
+                if ( iterator == null ) {
+                    iterator = source.call();
+                }
+                while ( demand.get() > 0 && !cancelled ) {
+                    if ( !iterator.hasNext() ) {
+                        finish();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    T next = iterator.next();
+                    demand.decrementAndGet();
+                    subscriber.onNext( next );
+                }
+                if ( cancelled ) {
+                    finish();
+                }
+            } catch ( Throwable t ) {
+                finish();
+                subscriber.onError( t );
+            }
+        }
+
+
+        private void finish() {
+            done = true;
+            if ( iterator instanceof AutoCloseable ) {
+                try {
+                    ((AutoCloseable) iterator).close();
+                } catch ( Exception e ) {
+                    log.error( "Exception while closing result iterator", e );
+                }
+            }
+        }
+
+    }
+
+}
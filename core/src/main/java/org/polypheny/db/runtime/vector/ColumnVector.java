@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.util.Arrays;
+
+
+/**
+ * A column of a {@link VectorBatch}. Nulls are tracked in a separate array which is only allocated once the first
+ * null value is written.
+ */
+public abstract class ColumnVector {
+
+    public final VectorColumnType type;
+    protected boolean[] nulls;
+
+
+    protected ColumnVector( VectorColumnType type ) {
+        this.type = type;
+    }
+
+
+    public abstract int capacity();
+
+
+    /**
+     * Grows the vector to at least the given capacity. Existing values are preserved.
+     */
+    public abstract void ensureCapacity( int capacity );
+
+
+    /**
+     * Sets the value of a row from its representation in the row-based engine.
+     */
+    public abstract void set( int row, Object value );
+
+
+    /**
+     * Returns the value of a row in the representation of the row-based engine.
+     */
+    public abstract Object get( int row );
+
+
+    /**
+     * Returns the value of a row in a normalized form which can be compared for equality with values of other columns
+     * of the same kind ({@link Long} for integral and {@link Double} for floating point columns).
+     */
+    public abstract Object getKey( int row );
+
+
+    /**
+     * Copies a value from another column of the same kind.
+     */
+    public abstract void copy( ColumnVector from, int fromRow, int toRow );
+
+
+    public boolean isNull( int row ) {
+        return nulls != null && nulls[row];
+    }
+
+
+    public boolean mayHaveNulls() {
+        return nulls != null;
+    }
+
+
+    public void setNull( int row ) {
+        if ( nulls == null ) {
+            nulls = new boolean[capacity()];
+        }
+        nulls[row] = true;
+    }
+
+
+    protected final void setNotNull( int row ) {
+        if ( nulls != null ) {
+            nulls[row] = false;
+        }
+    }
+
+
+    protected final void growNulls( int capacity ) {
+        if ( nulls != null ) {
+            nulls = Arrays.copyOf( nulls, capacity );
+        }
+    }
+
+
+    protected static int grownCapacity( int current, int required ) {
+        return Math.max( required, current + (current >> 1) + 16 );
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.util.Arrays;
+
+
+/**
+ * Column of floating point values. Used for all Java types which are represented as {@code float} or {@code double}
+ * in the enumerable engine.
+ */
+public final class DoubleColumnVector extends ColumnVector {
+
+    public double[] values;
+
+
+    public DoubleColumnVector( VectorColumnType type, int capacity ) {
+        super( type );
+        assert type.isFloating();
+        this.values = new double[capacity];
+    }
+
+
+    @Override
+    public int capacity() {
+        return values.length;
+    }
+
+
+    @Override
+    public void ensureCapacity( int capacity ) {
+        if ( capacity > values.length ) {
+            int newCapacity = grownCapacity( values.length, capacity );
+            values = Arrays.copyOf( values, newCapacity );
+            growNulls( newCapacity );
+        }
+    }
+
+
+    @Override
+    public void set( int row, Object value ) {
+        if ( value == null ) {
+            setNull( row );
+        } else {
+            values[row] = ((Number) value).doubleValue();
+            setNotNull( row );
+        }
+    }
+
+
+    @Override
+    public Object get( int row ) {
+        return isNull( row ) ? null : type.box( values[row] );
+    }
+
+
+    @Override
+    public Object getKey( int row ) {
+        return isNull( row ) ? null : values[row];
+    }
+
+
+    @Override
+    public void copy( ColumnVector from, int fromRow, int toRow ) {
+        if ( from.isNull( fromRow ) ) {
+            setNull( toRow );
+        } else {
+            values[toRow] = ((DoubleColumnVector) from).values[fromRow];
+            setNotNull( toRow );
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.util.Arrays;
+
+
+/**
+ * Open addressing hash map from {@code long} keys to non-negative {@code int} values, avoiding the boxing overhead of
+ * a {@link java.util.HashMap} for integral join and grouping keys.
+ */
+final class LongIntHashMap {
+
+    static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+
+    LongIntHashMap( int expectedSize ) {
+        int capacity = Integer.highestOneBit( Math.max( 16, expectedSize * 2 ) - 1 ) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill( values, MISSING );
+        mask = capacity - 1;
+    }
+
+
+    int size() {
+        return size;
+    }
+
+
+    int get( long key ) {
+        int slot = slot( key );
+        while ( values[slot] != MISSING ) {
+            if ( keys[slot] == key ) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+
+    /**
+     * Associates the value with the key and returns the previous value or {@link #MISSING}.
+     */
+    int put( long key, int value ) {
+        assert value >= 0;
+        int slot = slot( key );
+        while ( values[slot] != MISSING ) {
+            if ( keys[slot] == key ) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if ( ++size * 2 > keys.length ) {
+            rehash();
+        }
+        return MISSING;
+    }
+
+
+    private int slot( long key ) {
+        // Murmur3 finalizer to spread sequential keys
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill( values, MISSING );
+        mask = keys.length - 1;
+        for ( int i = 0; i < oldKeys.length; i++ ) {
+            if ( oldValues[i] != MISSING ) {
+                int slot = slot( oldKeys[i] );
+                while ( values[slot] != MISSING ) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+}
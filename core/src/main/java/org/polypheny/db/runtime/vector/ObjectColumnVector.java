@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.util.Arrays;
+
+
+/**
+ * Column of values which have no primitive representation, e.g. strings, decimals or booleans.
+ */
+public final class ObjectColumnVector extends ColumnVector {
+
+    public Object[] values;
+
+
+    public ObjectColumnVector( int capacity ) {
+        super( VectorColumnType.OBJECT );
+        this.values = new Object[capacity];
+    }
+
+
+    @Override
+    public int capacity() {
+        return values.length;
+    }
+
+
+    @Override
+    public void ensureCapacity( int capacity ) {
+        if ( capacity > values.length ) {
+            int newCapacity = grownCapacity( values.length, capacity );
+            values = Arrays.copyOf( values, newCapacity );
+            growNulls( newCapacity );
+        }
+    }
+
+
+    @Override
+    public void set( int row, Object value ) {
+        // Nulls are represented by the null reference itself
+        values[row] = value;
+    }
+
+
+    @Override
+    public boolean isNull( int row ) {
+        return values[row] == null;
+    }
+
+
+    @Override
+    public boolean mayHaveNulls() {
+        return true;
+    }
+
+
+    @Override
+    public void setNull( int row ) {
+        values[row] = null;
+    }
+
+
+    @Override
+    public Object get( int row ) {
+        return values[row];
+    }
+
+
+    @Override
+    public Object getKey( int row ) {
+        return values[row];
+    }
+
+
+    @Override
+    public void copy( ColumnVector from, int fromRow, int toRow ) {
+        values[toRow] = ((ObjectColumnVector) from).values[fromRow];
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+/**
+ * A batch of rows stored column-wise. Filters do not copy data, they restrict the batch to the qualifying rows by
+ * setting a selection vector.
+ */
+public final class VectorBatch {
+
+    public final ColumnVector[] columns;
+
+    /**
+     * Number of physical rows stored in the columns.
+     */
+    public int size;
+
+    /**
+     * Indexes of the selected rows in ascending order, or {@code null} if all rows are selected.
+     */
+    public int[] selection;
+    public int selectedSize;
+
+
+    public VectorBatch( ColumnVector[] columns, int size ) {
+        this.columns = columns;
+        this.size = size;
+    }
+
+
+    public static VectorBatch allocate( VectorColumnType[] types, int capacity ) {
+        ColumnVector[] columns = new ColumnVector[types.length];
+        for ( int i = 0; i < types.length; i++ ) {
+            columns[i] = types[i].newVector( capacity );
+        }
+        return new VectorBatch( columns, 0 );
+    }
+
+
+    /**
+     * @return the number of selected rows
+     */
+    public int count() {
+        return selection == null ? size : selectedSize;
+    }
+
+
+    /**
+     * Maps the n-th selected row to its physical index.
+     */
+    public int row( int i ) {
+        return selection == null ? i : selection[i];
+    }
+
+
+    /**
+     * Restricts the batch to the given rows.
+     */
+    public void select( int[] selection, int selectedSize ) {
+        this.selection = selection;
+        this.selectedSize = selectedSize;
+    }
+
+
+    /**
+     * Returns the physical indexes of all selected rows. The returned array might be longer than {@link #count()}.
+     */
+    public int[] selectedRows() {
+        if ( selection != null ) {
+            return selection;
+        }
+        int[] rows = new int[size];
+        for ( int i = 0; i < size; i++ ) {
+            rows[i] = i;
+        }
+        return rows;
+    }
+
+
+    /**
+     * Returns a batch sharing the data and the selection of this batch but only containing the given columns.
+     */
+    public VectorBatch project( int[] fields ) {
+        ColumnVector[] projected = new ColumnVector[fields.length];
+        for ( int i = 0; i < fields.length; i++ ) {
+            projected[i] = columns[fields[i]];
+        }
+        VectorBatch batch = new VectorBatch( projected, size );
+        batch.select( selection, selectedSize );
+        return batch;
+    }
+
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+
+
+/**
+ * Conversions between the row-based representation of the enumerable engine and {@link VectorBatch vector batches}.
+ * These methods are called from generated code.
+ */
+public final class VectorBatches {
+
+    private VectorBatches() {
+        // Utility class
+    }
+
+
+    /**
+     * Groups the rows of an enumerable into vector batches.
+     *
+     * @param rows Rows, either {@code Object[]} or scalar values
+     * @param types Physical types of the columns
+     * @param scalar Whether the rows are scalar values instead of arrays
+     * @param batchSize Maximum number of rows per batch
+     */
+    public static Enumerable<VectorBatch> toBatches( final Enumerable<?> rows, final VectorColumnType[] types, final boolean scalar, final int batchSize ) {
+        return new AbstractEnumerable<VectorBatch>() {
+            @Override
+            public Enumerator<VectorBatch> enumerator() {
+                return new RowToBatchEnumerator( rows.enumerator(), types, scalar, batchSize );
+            }
+        };
+    }
+
+
+    /**
+     * Flattens vector batches into rows represented as {@code Object[]}.
+     */
+    public static Enumerable<Object[]> toRows( final Enumerable<VectorBatch> batches ) {
+        return new AbstractEnumerable<Object[]>() {
+            @Override
+            public Enumerator<Object[]> enumerator() {
+                return new BatchToRowEnumerator<Object[]>( batches.enumerator() ) {
+                    @Override
+                    protected Object[] current( VectorBatch batch, int row ) {
+                        final ColumnVector[] columns = batch.columns;
+                        final Object[] values = new Object[columns.length];
+                        for ( int i = 0; i < columns.length; i++ ) {
+                            values[i] = columns[i].get( row );
+                        }
+                        return values;
+                    }
+                };
+            }
+        };
+    }
+
+
+    /**
+     * Flattens vector batches with a single column into scalar values.
+     */
+    public static Enumerable<Object> toScalars( final Enumerable<VectorBatch> batches ) {
+        return new AbstractEnumerable<Object>() {
+            @Override
+            public Enumerator<Object> enumerator() {
+                return new BatchToRowEnumerator<Object>( batches.enumerator() ) {
+                    @Override
+                    protected Object current( VectorBatch batch, int row ) {
+                        return batch.columns[0].get( row );
+                    }
+                };
+            }
+        };
+    }
+
+
+    /**
+     * Projects the given columns of every batch without copying any data.
+     */
+    public static Enumerable<VectorBatch> project( final Enumerable<VectorBatch> batches, final int[] fields ) {
+        return new AbstractEnumerable<VectorBatch>() {
+            @Override
+            public Enumerator<VectorBatch> enumerator() {
+                final Enumerator<VectorBatch> input = batches.enumerator();
+                return new Enumerator<VectorBatch>() {
+                    private VectorBatch current;
+
+
+                    @Override
+                    public VectorBatch current() {
+                        return current;
+                    }
+
+
+                    @Override
+                    public boolean moveNext() {
+                        if ( input.moveNext() ) {
+                            current = input.current().project( fields );
+                            return true;
+                        }
+                        return false;
+                    }
+
+
+                    @Override
+                    public void reset() {
+                        input.reset();
+                        current = null;
+                    }
+
+
+                    @Override
+                    public void close() {
+                        input.close();
+                    }
+                };
+            }
+        };
+    }
+
+
+    private static class RowToBatchEnumerator implements Enumerator<VectorBatch> {
+
+        private final Enumerator<?> rows;
+        private final VectorColumnType[] types;
+        private final boolean scalar;
+        private final int batchSize;
+        private VectorBatch current;
+        private boolean done = false;
+
+
+        RowToBatchEnumerator( Enumerator<?> rows, VectorColumnType[] types, boolean scalar, int batchSize ) {
+            this.rows = rows;
+            this.types = types;
+            this.scalar = scalar;
+            this.batchSize = batchSize;
+        }
+
+
+        @Override
+        public VectorBatch current() {
+            return current;
+        }
+
+
+        @Override
+        public boolean moveNext() {
+            if ( done ) {
+                return false;
+            }
+            final VectorBatch batch = VectorBatch.allocate( types, batchSize );
+            final ColumnVector[] columns = batch.columns;
+            int size = 0;
+            while ( size < batchSize ) {
+                if ( !rows.moveNext() ) {
+                    done = true;
+                    break;
+                }
+                final Object row = rows.current();
+                if ( scalar ) {
+                    columns[0].set( size, row );
+                } else {
+                    final Object[] values = (Object[]) row;
+                    for ( int i = 0; i < columns.length; i++ ) {
+                        columns[i].set( size, values[i] );
+                    }
+                }
+                size++;
+            }
+            batch.size = size;
+            current = batch;
+            return size > 0;
+        }
+
+
+        @Override
+        public void reset() {
+            rows.reset();
+            done = false;
+            current = null;
+        }
+
+
+        @Override
+        public void close() {
+            rows.close();
+        }
+
+    }
+
+
+    private abstract static class BatchToRowEnumerator<E> implements Enumerator<E> {
+
+        private final Enumerator<VectorBatch> batches;
+        private VectorBatch batch;
+        private int index;
+        private E current;
+
+
+        BatchToRowEnumerator( Enumerator<VectorBatch> batches ) {
+            this.batches = batches;
+        }
+
+
+        protected abstract E current( VectorBatch batch, int row );
+
+
+        @Override
+        public E current() {
+            return current;
+        }
+
+
+        @Override
+        public boolean moveNext() {
+            while ( batch == null || index >= batch.count() ) {
+                if ( !batches.moveNext() ) {
+                    batch = null;
+                    return false;
+                }
+                batch = batches.current();
+                index = 0;
+            }
+            current = current( batch, batch.row( index++ ) );
+            return true;
+        }
+
+
+        @Override
+        public void reset() {
+            batches.reset();
+            batch = null;
+            current = null;
+        }
+
+
+        @Override
+        public void close() {
+            batches.close();
+        }
+
+    }
+
+}
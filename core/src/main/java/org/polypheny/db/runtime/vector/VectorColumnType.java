@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.lang.reflect.Type;
+import org.apache.calcite.linq4j.tree.Primitive;
+
+
+/**
+ * Physical representation of a column in a {@link VectorBatch}. Integral values are stored in {@code long[]}, floating
+ * point values in {@code double[]} and everything else as objects. The type remembers the Java class used by the
+ * row-based enumerable engine, so that values can be converted back without loss.
+ */
+public enum VectorColumnType {
+    BYTE,
+    SHORT,
+    INTEGER,
+    LONG,
+    FLOAT,
+    DOUBLE,
+    OBJECT;
+
+
+    public boolean isIntegral() {
+        return this == BYTE || this == SHORT || this == INTEGER || this == LONG;
+    }
+
+
+    public boolean isFloating() {
+        return this == FLOAT || this == DOUBLE;
+    }
+
+
+    public ColumnVector newVector( int capacity ) {
+        if ( isIntegral() ) {
+            return new LongColumnVector( this, capacity );
+        } else if ( isFloating() ) {
+            return new DoubleColumnVector( this, capacity );
+        }
+        return new ObjectColumnVector( capacity );
+    }
+
+
+    /**
+     * Converts a value stored in a {@code long[]} into the representation used by the row-based engine.
+     */
+    public Object box( long value ) {
+        switch ( this ) {
+            case BYTE:
+                return (byte) value;
+            case SHORT:
+                return (short) value;
+            case INTEGER:
+                return (int) value;
+            case LONG:
+                return value;
+            default:
+                throw new IllegalStateException( "Not an integral column type: " + this );
+        }
+    }
+
+
+    /**
+     * Converts a value stored in a {@code double[]} into the representation used by the row-based engine.
+     */
+    public Object box( double value ) {
+        switch ( this ) {
+            case FLOAT:
+                return (float) value;
+            case DOUBLE:
+                return value;
+            default:
+                throw new IllegalStateException( "Not a floating point column type: " + this );
+        }
+    }
+
+
+    /**
+     * Returns the vector column type for the given Java type as used by the enumerable engine.
+     */
+    public static VectorColumnType of( Type type ) {
+        if ( !(type instanceof Class) ) {
+            return OBJECT;
+        }
+        Primitive primitive = Primitive.ofBoxOr( type );
+        if ( primitive == null ) {
+            return OBJECT;
+        }
+        switch ( primitive ) {
+            case BYTE:
+                return BYTE;
+            case SHORT:
+                return SHORT;
+            case INT:
+                return INTEGER;
+            case LONG:
+                return LONG;
+            case FLOAT:
+                return FLOAT;
+            case DOUBLE:
+                return DOUBLE;
+            default:
+                return OBJECT;
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+/**
+ * Comparison operators supported by vectorized filters.
+ */
+public enum VectorComparison {
+    EQUALS,
+    NOT_EQUALS,
+    LESS_THAN,
+    LESS_THAN_OR_EQUAL,
+    GREATER_THAN,
+    GREATER_THAN_OR_EQUAL;
+
+
+    /**
+     * Evaluates the operator on the result of a {@code compareTo}-style comparison.
+     */
+    public boolean test( int cmp ) {
+        switch ( this ) {
+            case EQUALS:
+                return cmp == 0;
+            case NOT_EQUALS:
+                return cmp != 0;
+            case LESS_THAN:
+                return cmp < 0;
+            case LESS_THAN_OR_EQUAL:
+                return cmp <= 0;
+            case GREATER_THAN:
+                return cmp > 0;
+            case GREATER_THAN_OR_EQUAL:
+                return cmp >= 0;
+            default:
+                throw new AssertionError( this );
+        }
+    }
+
+
+    /**
+     * Returns the operator to use if the operands are swapped, e.g. {@code 5 < $0} becomes {@code $0 > 5}.
+     */
+    public VectorComparison reverse() {
+        switch ( this ) {
+            case LESS_THAN:
+                return GREATER_THAN;
+            case LESS_THAN_OR_EQUAL:
+                return GREATER_THAN_OR_EQUAL;
+            case GREATER_THAN:
+                return LESS_THAN;
+            case GREATER_THAN_OR_EQUAL:
+                return LESS_THAN_OR_EQUAL;
+            default:
+                return this;
+        }
+    }
+
+
+    /**
+     * Returns the operator which is true iff this operator is false, given that both operands are not null.
+     */
+    public VectorComparison negate() {
+        switch ( this ) {
+            case EQUALS:
+                return NOT_EQUALS;
+            case NOT_EQUALS:
+                return EQUALS;
+            case LESS_THAN:
+                return GREATER_THAN_OR_EQUAL;
+            case LESS_THAN_OR_EQUAL:
+                return GREATER_THAN;
+            case GREATER_THAN:
+                return LESS_THAN_OR_EQUAL;
+            case GREATER_THAN_OR_EQUAL:
+                return LESS_THAN;
+            default:
+                throw new AssertionError( this );
+        }
+    }
+
+}
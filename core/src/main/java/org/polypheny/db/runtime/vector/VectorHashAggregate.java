@@ -0,0 +1,663 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.polypheny.db.runtime.parallel.Exchange;
+import org.polypheny.db.runtime.parallel.SharedEnumerable;
+
+
+/**
+ * Hash aggregation over vector batches. Group ids are computed for a whole batch first, afterwards every aggregate
+ * function is updated in a tight loop over primitive arrays.
+ */
+public class VectorHashAggregate {
+
+    private final int[] groupKeys;
+    private final VectorAggFunction[] functions;
+    private final int[] arguments;
+    private final VectorColumnType[] outputTypes;
+    private final int batchSize;
+
+
+    /**
+     * @param groupKeys Input columns to group by
+     * @param functions Aggregate functions
+     * @param arguments Input column of every aggregate function; ignored for {@link VectorAggFunction#COUNT_STAR}
+     * @param outputTypes Types of the output columns, group keys first
+     * @param batchSize Maximum number of groups per output batch
+     */
+    public VectorHashAggregate( int[] groupKeys, VectorAggFunction[] functions, int[] arguments, VectorColumnType[] outputTypes, int batchSize ) {
+        assert functions.length == arguments.length;
+        assert outputTypes.length == groupKeys.length + functions.length;
+        this.groupKeys = groupKeys;
+        this.functions = functions;
+        this.arguments = arguments;
+        this.outputTypes = outputTypes;
+        this.batchSize = batchSize;
+    }
+
+
+    public Enumerable<VectorBatch> apply( final Enumerable<VectorBatch> input ) {
+        return new AbstractEnumerable<VectorBatch>() {
+            @Override
+            public Enumerator<VectorBatch> enumerator() {
+                return Linq4j.enumerator( aggregate( input ) );
+            }
+        };
+    }
+
+
+    /**
+     * Like {@link #apply(Enumerable)}, but aggregates the input with up to {@code parallelism} workers. Every worker
+     * pre-aggregates the batches it takes from the input, the partial results are merged afterwards.
+     */
+    public Enumerable<VectorBatch> applyParallel( final Enumerable<VectorBatch> input, final int parallelism ) {
+        if ( parallelism <= 1 ) {
+            return apply( input );
+        }
+        final int groupCount = groupKeys.length;
+        final VectorAggFunction[] mergeFunctions = new VectorAggFunction[functions.length];
+        final VectorColumnType[] partialTypes = outputTypes.clone();
+        final int[] mergeKeys = new int[groupCount];
+        final int[] mergeArguments = new int[functions.length];
+        for ( int i = 0; i < groupCount; i++ ) {
+            mergeKeys[i] = i;
+        }
+        for ( int i = 0; i < functions.length; i++ ) {
+            mergeArguments[i] = groupCount + i;
+            switch ( functions[i] ) {
+                case COUNT_STAR:
+                case COUNT:
+                    partialTypes[groupCount + i] = VectorColumnType.LONG;
+                    mergeFunctions[i] = VectorAggFunction.SUM0;
+                    break;
+                default:
+                    // SUM, SUM0, MIN and MAX can be applied to their partial results
+                    mergeFunctions[i] = functions[i];
+            }
+        }
+        final VectorHashAggregate partial = new VectorHashAggregate( groupKeys, functions, arguments, partialTypes, batchSize );
+        final VectorHashAggregate merge = new VectorHashAggregate( mergeKeys, mergeFunctions, mergeArguments, outputTypes, batchSize );
+        return new AbstractEnumerable<VectorBatch>() {
+            @Override
+            public Enumerator<VectorBatch> enumerator() {
+                final SharedEnumerable<VectorBatch> source = new SharedEnumerable<>( input );
+                final List<Enumerable<VectorBatch>> partials = new ArrayList<>();
+                for ( int i = 0; i < parallelism; i++ ) {
+                    partials.add( partial.apply( source.view() ) );
+                }
+                return merge.apply( Exchange.gather( partials, parallelism, 1, source ) ).enumerator();
+            }
+        };
+    }
+
+
+    /**
+     * Consumes the input and returns the groups in batches.
+     */
+    List<VectorBatch> aggregate( Enumerable<VectorBatch> input ) {
+        final State state = new State();
+        try ( Enumerator<VectorBatch> enumerator = input.enumerator() ) {
+            while ( enumerator.moveNext() ) {
+                state.add( enumerator.current() );
+            }
+        }
+        if ( groupKeys.length == 0 && state.groupCount == 0 ) {
+            // An aggregation without group keys always returns exactly one row
+            state.newGroup( null, 0 );
+        }
+
+        final ColumnVector[] columns = new ColumnVector[outputTypes.length];
+        System.arraycopy( state.keyVectors, 0, columns, 0, groupKeys.length );
+        for ( int i = 0; i < functions.length; i++ ) {
+            final ColumnVector vector = outputTypes[groupKeys.length + i].newVector( Math.max( 1, state.groupCount ) );
+            state.accumulators[i].write( vector, state.groupCount );
+            columns[groupKeys.length + i] = vector;
+        }
+
+        // The result is returned in slices sharing the same columns
+        final List<VectorBatch> batches = new ArrayList<>();
+        for ( int start = 0; start < state.groupCount; start += batchSize ) {
+            final int end = Math.min( state.groupCount, start + batchSize );
+            final int[] selection = new int[end - start];
+            for ( int i = start; i < end; i++ ) {
+                selection[i - start] = i;
+            }
+            final VectorBatch batch = new VectorBatch( columns, state.groupCount );
+            batch.select( selection, selection.length );
+            batches.add( batch );
+        }
+        return batches;
+    }
+
+
+    private class State {
+
+        private final ColumnVector[] keyVectors;
+        private final Accumulator[] accumulators;
+        private final boolean integralKey;
+        private final LongIntHashMap integralGroups;
+        private final Map<Object, Integer> groups;
+        private int nullGroup = LongIntHashMap.MISSING;
+        private int groupCount = 0;
+        private int capacity;
+
+
+        State() {
+            capacity = batchSize;
+            keyVectors = new ColumnVector[groupKeys.length];
+            for ( int i = 0; i < groupKeys.length; i++ ) {
+                keyVectors[i] = outputTypes[i].newVector( capacity );
+            }
+            accumulators = new Accumulator[functions.length];
+            for ( int i = 0; i < functions.length; i++ ) {
+                accumulators[i] = Accumulator.create( functions[i], arguments[i], outputTypes[groupKeys.length + i] );
+                accumulators[i].ensureCapacity( capacity );
+            }
+            integralKey = groupKeys.length == 1 && outputTypes[0].isIntegral();
+            integralGroups = integralKey ? new LongIntHashMap( batchSize ) : null;
+            groups = integralKey ? null : new HashMap<>();
+        }
+
+
+        void add( VectorBatch batch ) {
+            final int count = batch.count();
+            if ( count == 0 ) {
+                return;
+            }
+            final int[] rows = batch.selectedRows();
+            final int[] groupIds = new int[count];
+            if ( groupKeys.length == 0 ) {
+                if ( groupCount == 0 ) {
+                    newGroup( batch, 0 );
+                }
+            } else if ( integralKey ) {
+                final LongColumnVector keys = (LongColumnVector) batch.columns[groupKeys[0]];
+                final long[] values = keys.values;
+                for ( int i = 0; i < count; i++ ) {
+                    final int row = rows[i];
+                    if ( keys.isNull( row ) ) {
+                        if ( nullGroup == LongIntHashMap.MISSING ) {
+                            nullGroup = newGroup( batch, row );
+                        }
+                        groupIds[i] = nullGroup;
+                    } else {
+                        int group = integralGroups.get( values[row] );
+                        if ( group == LongIntHashMap.MISSING ) {
+                            group = newGroup( batch, row );
+                            integralGroups.put( values[row], group );
+                        }
+                        groupIds[i] = group;
+                    }
+                }
+            } else {
+                for ( int i = 0; i < count; i++ ) {
+                    final int row = rows[i];
+                    final Object key = key( batch, row );
+                    Integer group = groups.get( key );
+                    if ( group == null ) {
+                        group = newGroup( batch, row );
+                        groups.put( key, group );
+                    }
+                    groupIds[i] = group;
+                }
+            }
+            for ( Accumulator accumulator : accumulators ) {
+                accumulator.add( batch, rows, groupIds, count );
+            }
+        }
+
+
+        private Object key( VectorBatch batch, int row ) {
+            if ( groupKeys.length == 1 ) {
+                return batch.columns[groupKeys[0]].getKey( row );
+            }
+            final Object[] key = new Object[groupKeys.length];
+            for ( int i = 0; i < groupKeys.length; i++ ) {
+                key[i] = batch.columns[groupKeys[i]].getKey( row );
+            }
+            return Arrays.asList( key );
+        }
+
+
+        int newGroup( VectorBatch batch, int row ) {
+            final int group = groupCount++;
+            if ( groupCount > capacity ) {
+                capacity = ColumnVector.grownCapacity( capacity, groupCount );
+                for ( ColumnVector keyVector : keyVectors ) {
+                    keyVector.ensureCapacity( capacity );
+                }
+                for ( Accumulator accumulator : accumulators ) {
+                    accumulator.ensureCapacity( capacity );
+                }
+            }
+            for ( int i = 0; i < groupKeys.length; i++ ) {
+                keyVectors[i].copy( batch.columns[groupKeys[i]], row, group );
+            }
+            return group;
+        }
+
+    }
+
+
+    /**
+     * State of one aggregate function for all groups.
+     */
+    private abstract static class Accumulator {
+
+        protected final int argument;
+        // Number of non-null values per group
+        protected long[] counts = new long[0];
+
+
+        Accumulator( int argument ) {
+            this.argument = argument;
+        }
+
+
+        static Accumulator create( VectorAggFunction function, int argument, VectorColumnType outputType ) {
+            switch ( function ) {
+                case COUNT_STAR:
+                    return new CountStarAccumulator();
+                case COUNT:
+                    return new CountAccumulator( argument );
+                case SUM:
+                case SUM0:
+                    if ( outputType.isIntegral() ) {
+                        return new LongSumAccumulator( argument, function == VectorAggFunction.SUM0 );
+                    } else if ( outputType.isFloating() ) {
+                        return new DoubleSumAccumulator( argument, function == VectorAggFunction.SUM0 );
+                    }
+                    break;
+                case MIN:
+                case MAX:
+                    if ( outputType.isIntegral() ) {
+                        return new LongMinMaxAccumulator( argument, function == VectorAggFunction.MIN );
+                    } else if ( outputType.isFloating() ) {
+                        return new DoubleMinMaxAccumulator( argument, function == VectorAggFunction.MIN );
+                    }
+                    return new ObjectMinMaxAccumulator( argument, function == VectorAggFunction.MIN );
+            }
+            throw new IllegalArgumentException( "Unsupported vectorized aggregate " + function + " with result type " + outputType );
+        }
+
+
+        void ensureCapacity( int capacity ) {
+            counts = Arrays.copyOf( counts, capacity );
+        }
+
+
+        abstract void add( VectorBatch batch, int[] rows, int[] groupIds, int count );
+
+        abstract void write( ColumnVector vector, int groupCount );
+
+    }
+
+
+    private static class CountStarAccumulator extends Accumulator {
+
+        CountStarAccumulator() {
+            super( -1 );
+        }
+
+
+        @Override
+        void add( VectorBatch batch, int[] rows, int[] groupIds, int count ) {
+            final long[] counts = this.counts;
+            for ( int i = 0; i < count; i++ ) {
+                counts[groupIds[i]]++;
+            }
+        }
+
+
+        @Override
+        void write( ColumnVector vector, int groupCount ) {
+            for ( int g = 0; g < groupCount; g++ ) {
+                vector.set( g, counts[g] );
+            }
+        }
+
+    }
+
+
+    private static class CountAccumulator extends CountStarAccumulator {
+
+        private final int column;
+
+
+        CountAccumulator( int argument ) {
+            this.column = argument;
+        }
+
+
+        @Override
+        void add( VectorBatch batch, int[] rows, int[] groupIds, int count ) {
+            final ColumnVector vector = batch.columns[column];
+            if ( !vector.mayHaveNulls() ) {
+                super.add( batch, rows, groupIds, count );
+                return;
+            }
+            final long[] counts = this.counts;
+            for ( int i = 0; i < count; i++ ) {
+                if ( !vector.isNull( rows[i] ) ) {
+                    counts[groupIds[i]]++;
+                }
+            }
+        }
+
+    }
+
+
+    private static class LongSumAccumulator extends Accumulator {
+
+        private final boolean zeroIfEmpty;
+        private long[] sums = new long[0];
+
+
+        LongSumAccumulator( int argument, boolean zeroIfEmpty ) {
+            super( argument );
+            this.zeroIfEmpty = zeroIfEmpty;
+        }
+
+
+        @Override
+        void ensureCapacity( int capacity ) {
+            super.ensureCapacity( capacity );
+            sums = Arrays.copyOf( sums, capacity );
+        }
+
+
+        @Override
+        void add( VectorBatch batch, int[] rows, int[] groupIds, int count ) {
+            final LongColumnVector vector = (LongColumnVector) batch.columns[argument];
+            final long[] values = vector.values;
+            final long[] sums = this.sums;
+            final long[] counts = this.counts;
+            if ( !vector.mayHaveNulls() ) {
+                for ( int i = 0; i < count; i++ ) {
+                    final int g = groupIds[i];
+                    sums[g] += values[rows[i]];
+                    counts[g]++;
+                }
+            } else {
+                for ( int i = 0; i < count; i++ ) {
+                    final int row = rows[i];
+                    if ( !vector.isNull( row ) ) {
+                        final int g = groupIds[i];
+                        sums[g] += values[row];
+                        counts[g]++;
+                    }
+                }
+            }
+        }
+
+
+        @Override
+        void write( ColumnVector vector, int groupCount ) {
+            final long[] out = ((LongColumnVector) vector).values;
+            for ( int g = 0; g < groupCount; g++ ) {
+                if ( counts[g] == 0 && !zeroIfEmpty ) {
+                    vector.setNull( g );
+                } else {
+                    out[g] = sums[g];
+                }
+            }
+        }
+
+    }
+
+
+    private static class DoubleSumAccumulator extends Accumulator {
+
+        private final boolean zeroIfEmpty;
+        private double[] sums = new double[0];
+
+
+        DoubleSumAccumulator( int argument, boolean zeroIfEmpty ) {
+            super( argument );
+            this.zeroIfEmpty = zeroIfEmpty;
+        }
+
+
+        @Override
+        void ensureCapacity( int capacity ) {
+            super.ensureCapacity( capacity );
+            sums = Arrays.copyOf( sums, capacity );
+        }
+
+
+        @Override
+        void add( VectorBatch batch, int[] rows, int[] groupIds, int count ) {
+            final ColumnVector vector = batch.columns[argument];
+            final double[] sums = this.sums;
+            final long[] counts = this.counts;
+            if ( vector instanceof LongColumnVector ) {
+                // e.g. the sum of an integer column is a double
+                final long[] values = ((LongColumnVector) vector).values;
+                for ( int i = 0; i < count; i++ ) {
+                    final int row = rows[i];
+                    if ( !vector.isNull( row ) ) {
+                        final int g = groupIds[i];
+                        sums[g] += values[row];
+                        counts[g]++;
+                    }
+                }
+                return;
+            }
+            final double[] values = ((DoubleColumnVector) vector).values;
+            if ( !vector.mayHaveNulls() ) {
+                for ( int i = 0; i < count; i++ ) {
+                    final int g = groupIds[i];
+                    sums[g] += values[rows[i]];
+                    counts[g]++;
+                }
+            } else {
+                for ( int i = 0; i < count; i++ ) {
+                    final int row = rows[i];
+                    if ( !vector.isNull( row ) ) {
+                        final int g = groupIds[i];
+                        sums[g] += values[row];
+                        counts[g]++;
+                    }
+                }
+            }
+        }
+
+
+        @Override
+        void write( ColumnVector vector, int groupCount ) {
+            final double[] out = ((DoubleColumnVector) vector).values;
+            for ( int g = 0; g < groupCount; g++ ) {
+                if ( counts[g] == 0 && !zeroIfEmpty ) {
+                    vector.setNull( g );
+                } else {
+                    out[g] = sums[g];
+                }
+            }
+        }
+
+    }
+
+
+    private static class LongMinMaxAccumulator extends Accumulator {
+
+        private final boolean min;
+        private long[] extremes = new long[0];
+
+
+        LongMinMaxAccumulator( int argument, boolean min ) {
+            super( argument );
+            this.min = min;
+        }
+
+
+        @Override
+        void ensureCapacity( int capacity ) {
+            super.ensureCapacity( capacity );
+            extremes = Arrays.copyOf( extremes, capacity );
+        }
+
+
+        @Override
+        void add( VectorBatch batch, int[] rows, int[] groupIds, int count ) {
+            final LongColumnVector vector = (LongColumnVector) batch.columns[argument];
+            final long[] values = vector.values;
+            final long[] extremes = this.extremes;
+            final long[] counts = this.counts;
+            for ( int i = 0; i < count; i++ ) {
+                final int row = rows[i];
+                if ( vector.isNull( row ) ) {
+                    continue;
+                }
+                final int g = groupIds[i];
+                final long value = values[row];
+                if ( counts[g]++ == 0 || (min ? value < extremes[g] : value > extremes[g]) ) {
+                    extremes[g] = value;
+                }
+            }
+        }
+
+
+        @Override
+        void write( ColumnVector vector, int groupCount ) {
+            final long[] out = ((LongColumnVector) vector).values;
+            for ( int g = 0; g < groupCount; g++ ) {
+                if ( counts[g] == 0 ) {
+                    vector.setNull( g );
+                } else {
+                    out[g] = extremes[g];
+                }
+            }
+        }
+
+    }
+
+
+    private static class DoubleMinMaxAccumulator extends Accumulator {
+
+        private final boolean min;
+        private double[] extremes = new double[0];
+
+
+        DoubleMinMaxAccumulator( int argument, boolean min ) {
+            super( argument );
+            this.min = min;
+        }
+
+
+        @Override
+        void ensureCapacity( int capacity ) {
+            super.ensureCapacity( capacity );
+            extremes = Arrays.copyOf( extremes, capacity );
+        }
+
+
+        @Override
+        void add( VectorBatch batch, int[] rows, int[] groupIds, int count ) {
+            final DoubleColumnVector vector = (DoubleColumnVector) batch.columns[argument];
+            final double[] values = vector.values;
+            final double[] extremes = this.extremes;
+            final long[] counts = this.counts;
+            for ( int i = 0; i < count; i++ ) {
+                final int row = rows[i];
+                if ( vector.isNull( row ) ) {
+                    continue;
+                }
+                final int g = groupIds[i];
+                final double value = values[row];
+                if ( counts[g]++ == 0 || (min ? value < extremes[g] : value > extremes[g]) ) {
+                    extremes[g] = value;
+                }
+            }
+        }
+
+
+        @Override
+        void write( ColumnVector vector, int groupCount ) {
+            final double[] out = ((DoubleColumnVector) vector).values;
+            for ( int g = 0; g < groupCount; g++ ) {
+                if ( counts[g] == 0 ) {
+                    vector.setNull( g );
+                } else {
+                    out[g] = extremes[g];
+                }
+            }
+        }
+
+    }
+
+
+    private static class ObjectMinMaxAccumulator extends Accumulator {
+
+        private final boolean min;
+        private Object[] extremes = new Object[0];
+
+
+        ObjectMinMaxAccumulator( int argument, boolean min ) {
+            super( argument );
+            this.min = min;
+        }
+
+
+        @Override
+        void ensureCapacity( int capacity ) {
+            super.ensureCapacity( capacity );
+            extremes = Arrays.copyOf( extremes, capacity );
+        }
+
+
+        @Override
+        void add( VectorBatch batch, int[] rows, int[] groupIds, int count ) {
+            final ColumnVector vector = batch.columns[argument];
+            for ( int i = 0; i < count; i++ ) {
+                final Object value = vector.get( rows[i] );
+                if ( value == null ) {
+                    continue;
+                }
+                final int g = groupIds[i];
+                if ( counts[g]++ == 0 ) {
+                    extremes[g] = value;
+                } else {
+                    final int cmp = VectorPredicates.compareValues( value, extremes[g] );
+                    if ( min ? cmp < 0 : cmp > 0 ) {
+                        extremes[g] = value;
+                    }
+                }
+            }
+        }
+
+
+        @Override
+        void write( ColumnVector vector, int groupCount ) {
+            for ( int g = 0; g < groupCount; g++ ) {
+                vector.set( g, extremes[g] );
+            }
+        }
+
+    }
+
+}
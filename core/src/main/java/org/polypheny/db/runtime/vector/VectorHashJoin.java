@@ -0,0 +1,334 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.polypheny.db.runtime.parallel.Exchange;
+import org.polypheny.db.runtime.parallel.SharedEnumerable;
+
+
+/**
+ * Equi hash join over vector batches. The right input is materialized column-wise into a hash table, the left input
+ * is streamed and probed batch by batch. Rows with a null key never match.
+ */
+public class VectorHashJoin {
+
+    private final int[] leftKeys;
+    private final int[] rightKeys;
+    private final VectorColumnType[] leftTypes;
+    private final VectorColumnType[] rightTypes;
+    private final boolean leftOuter;
+    private final int batchSize;
+    private final boolean integralKey;
+
+
+    /**
+     * @param leftKeys Key columns of the left (probe) input
+     * @param rightKeys Key columns of the right (build) input
+     * @param leftTypes Column types of the left input
+     * @param rightTypes Column types of the right input
+     * @param leftOuter Whether left rows without a match are returned with nulls for the right columns
+     * @param batchSize Maximum number of rows per output batch
+     */
+    public VectorHashJoin( int[] leftKeys, int[] rightKeys, VectorColumnType[] leftTypes, VectorColumnType[] rightTypes, boolean leftOuter, int batchSize ) {
+        assert leftKeys.length == rightKeys.length && leftKeys.length > 0;
+        this.leftKeys = leftKeys;
+        this.rightKeys = rightKeys;
+        this.leftTypes = leftTypes;
+        this.rightTypes = rightTypes;
+        this.leftOuter = leftOuter;
+        this.batchSize = batchSize;
+        this.integralKey = leftKeys.length == 1 && leftTypes[leftKeys[0]].isIntegral() && rightTypes[rightKeys[0]].isIntegral();
+    }
+
+
+    public Enumerable<VectorBatch> apply( final Enumerable<VectorBatch> left, final Enumerable<VectorBatch> right ) {
+        final VectorColumnType[] outputTypes = outputTypes();
+        return new AbstractEnumerable<VectorBatch>() {
+            @Override
+            public Enumerator<VectorBatch> enumerator() {
+                return new ProbeEnumerator( left.enumerator(), build( right ), outputTypes );
+            }
+        };
+    }
+
+
+    /**
+     * Like {@link #apply(Enumerable, Enumerable)}, but probes the hash table with up to {@code parallelism} workers.
+     * Every worker takes the next batch of the left input as soon as it has finished the previous one.
+     */
+    public Enumerable<VectorBatch> applyParallel( final Enumerable<VectorBatch> left, final Enumerable<VectorBatch> right, final int parallelism ) {
+        if ( parallelism <= 1 ) {
+            return apply( left, right );
+        }
+        final VectorColumnType[] outputTypes = outputTypes();
+        return new AbstractEnumerable<VectorBatch>() {
+            @Override
+            public Enumerator<VectorBatch> enumerator() {
+                final HashTable table = build( right );
+                final SharedEnumerable<VectorBatch> source = new SharedEnumerable<>( left );
+                final List<Enumerable<VectorBatch>> probes = new ArrayList<>();
+                for ( int i = 0; i < parallelism; i++ ) {
+                    probes.add( new AbstractEnumerable<VectorBatch>() {
+                        @Override
+                        public Enumerator<VectorBatch> enumerator() {
+                            return new ProbeEnumerator( source.view().enumerator(), table, outputTypes );
+                        }
+                    } );
+                }
+                return Exchange.gather( probes, parallelism, 1, source ).enumerator();
+            }
+        };
+    }
+
+
+    private VectorColumnType[] outputTypes() {
+        final VectorColumnType[] outputTypes = new VectorColumnType[leftTypes.length + rightTypes.length];
+        System.arraycopy( leftTypes, 0, outputTypes, 0, leftTypes.length );
+        System.arraycopy( rightTypes, 0, outputTypes, leftTypes.length, rightTypes.length );
+        return outputTypes;
+    }
+
+
+    HashTable build( Enumerable<VectorBatch> right ) {
+        final HashTable table = new HashTable();
+        try ( Enumerator<VectorBatch> enumerator = right.enumerator() ) {
+            while ( enumerator.moveNext() ) {
+                table.add( enumerator.current() );
+            }
+        }
+        return table;
+    }
+
+
+    private static Object key( ColumnVector[] columns, int[] keys, int row ) {
+        if ( keys.length == 1 ) {
+            return columns[keys[0]].getKey( row );
+        }
+        final Object[] key = new Object[keys.length];
+        for ( int i = 0; i < keys.length; i++ ) {
+            key[i] = columns[keys[i]].getKey( row );
+            if ( key[i] == null ) {
+                return null;
+            }
+        }
+        return Arrays.asList( key );
+    }
+
+
+    /**
+     * Materialized right input. Rows with the same key are chained through {@link #next}.
+     */
+    class HashTable {
+
+        private final ColumnVector[] columns;
+        private int[] next;
+        private int size = 0;
+        private final LongIntHashMap integralHeads;
+        private final Map<Object, Integer> heads;
+
+
+        HashTable() {
+            columns = new ColumnVector[rightTypes.length];
+            for ( int i = 0; i < rightTypes.length; i++ ) {
+                columns[i] = rightTypes[i].newVector( batchSize );
+            }
+            next = new int[batchSize];
+            integralHeads = integralKey ? new LongIntHashMap( batchSize ) : null;
+            heads = integralKey ? null : new HashMap<>();
+        }
+
+
+        void add( VectorBatch batch ) {
+            final int count = batch.count();
+            final int required = size + count;
+            if ( required > next.length ) {
+                next = Arrays.copyOf( next, ColumnVector.grownCapacity( next.length, required ) );
+                for ( ColumnVector column : columns ) {
+                    column.ensureCapacity( next.length );
+                }
+            }
+            for ( int i = 0; i < count; i++ ) {
+                final int row = batch.row( i );
+                final int index = size++;
+                for ( int c = 0; c < columns.length; c++ ) {
+                    columns[c].copy( batch.columns[c], row, index );
+                }
+                if ( integralKey ) {
+                    final ColumnVector keys = batch.columns[rightKeys[0]];
+                    if ( !keys.isNull( row ) ) {
+                        next[index] = integralHeads.put( ((LongColumnVector) keys).values[row], index );
+                    } else {
+                        next[index] = LongIntHashMap.MISSING;
+                    }
+                } else {
+                    final Object key = key( batch.columns, rightKeys, row );
+                    if ( key != null ) {
+                        final Integer previous = heads.put( key, index );
+                        next[index] = previous == null ? LongIntHashMap.MISSING : previous;
+                    } else {
+                        next[index] = LongIntHashMap.MISSING;
+                    }
+                }
+            }
+        }
+
+
+        /**
+         * Returns the first build row matching the given probe row, or {@link LongIntHashMap#MISSING}.
+         */
+        int lookup( VectorBatch batch, int row ) {
+            if ( integralKey ) {
+                final ColumnVector keys = batch.columns[leftKeys[0]];
+                if ( keys.isNull( row ) ) {
+                    return LongIntHashMap.MISSING;
+                }
+                return integralHeads.get( ((LongColumnVector) keys).values[row] );
+            }
+            final Object key = key( batch.columns, leftKeys, row );
+            if ( key == null ) {
+                return LongIntHashMap.MISSING;
+            }
+            final Integer head = heads.get( key );
+            return head == null ? LongIntHashMap.MISSING : head;
+        }
+
+    }
+
+
+    private class ProbeEnumerator implements Enumerator<VectorBatch> {
+
+        private final Enumerator<VectorBatch> left;
+        private final HashTable table;
+        private final VectorColumnType[] outputTypes;
+
+        private VectorBatch leftBatch;
+        private int leftIndex;
+        private int leftRow;
+        private boolean inRow = false;
+        private boolean matched;
+        private int chain = LongIntHashMap.MISSING;
+        private boolean done = false;
+        private VectorBatch current;
+
+
+        ProbeEnumerator( Enumerator<VectorBatch> left, HashTable table, VectorColumnType[] outputTypes ) {
+            this.left = left;
+            this.table = table;
+            this.outputTypes = outputTypes;
+        }
+
+
+        @Override
+        public VectorBatch current() {
+            return current;
+        }
+
+
+        @Override
+        public boolean moveNext() {
+            if ( done ) {
+                return false;
+            }
+            final VectorBatch out = VectorBatch.allocate( outputTypes, batchSize );
+            int size = 0;
+            while ( size < batchSize ) {
+                if ( inRow ) {
+                    if ( chain != LongIntHashMap.MISSING ) {
+                        emit( out, size++, chain );
+                        matched = true;
+                        chain = table.next[chain];
+                        continue;
+                    }
+                    if ( leftOuter && !matched ) {
+                        emit( out, size++, LongIntHashMap.MISSING );
+                    }
+                    inRow = false;
+                    continue;
+                }
+                if ( !advance() ) {
+                    done = true;
+                    break;
+                }
+            }
+            out.size = size;
+            current = out;
+            return size > 0;
+        }
+
+
+        /**
+         * Moves to the next row of the left input.
+         */
+        private boolean advance() {
+            while ( leftBatch == null || leftIndex >= leftBatch.count() ) {
+                if ( !left.moveNext() ) {
+                    return false;
+                }
+                leftBatch = left.current();
+                leftIndex = 0;
+            }
+            leftRow = leftBatch.row( leftIndex++ );
+            chain = table.lookup( leftBatch, leftRow );
+            matched = false;
+            inRow = true;
+            return true;
+        }
+
+
+        private void emit( VectorBatch out, int index, int buildRow ) {
+            final ColumnVector[] columns = out.columns;
+            final int leftCount = leftTypes.length;
+            for ( int c = 0; c < leftCount; c++ ) {
+                columns[c].copy( leftBatch.columns[c], leftRow, index );
+            }
+            for ( int c = 0; c < rightTypes.length; c++ ) {
+                if ( buildRow == LongIntHashMap.MISSING ) {
+                    columns[leftCount + c].setNull( index );
+                } else {
+                    columns[leftCount + c].copy( table.columns[c], buildRow, index );
+                }
+            }
+        }
+
+
+        @Override
+        public void reset() {
+            left.reset();
+            leftBatch = null;
+            inRow = false;
+            done = false;
+            current = null;
+        }
+
+
+        @Override
+        public void close() {
+            left.close();
+        }
+
+    }
+
+}
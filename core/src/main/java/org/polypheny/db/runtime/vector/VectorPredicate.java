@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import org.polypheny.db.adapter.DataContext;
+
+
+/**
+ * Predicate evaluated on whole {@link VectorBatch vector batches}. Instances are created through the factory methods
+ * in {@link VectorPredicates}.
+ */
+public abstract class VectorPredicate {
+
+    /**
+     * Evaluates the predicate on a set of rows.
+     *
+     * @param batch The batch containing the data
+     * @param in Indexes of the rows to evaluate, in ascending order
+     * @param inCount Number of valid entries in {@code in}
+     * @param out Array receiving the indexes of the rows satisfying the predicate, in ascending order. Might be the same array as {@code in} for simple predicates.
+     * @param context Data context used to resolve dynamic parameters
+     * @return Number of rows written to {@code out}
+     */
+    public abstract int filter( VectorBatch batch, int[] in, int inCount, int[] out, DataContext context );
+
+
+    /**
+     * Restricts the selection of the batch to the rows satisfying this predicate.
+     */
+    public void apply( VectorBatch batch, DataContext context ) {
+        final int count = batch.count();
+        final int[] out = new int[count];
+        batch.select( out, filter( batch, batch.selectedRows(), count, out, context ) );
+    }
+
+}
@@ -0,0 +1,443 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.math.BigDecimal;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.polypheny.db.adapter.DataContext;
+
+
+/**
+ * Factory methods for {@link VectorPredicate vector predicates}. These methods are called from generated code.
+ */
+public final class VectorPredicates {
+
+    private VectorPredicates() {
+        // Utility class
+    }
+
+
+    /**
+     * Applies a predicate to every batch. Batches without any qualifying row are skipped.
+     */
+    public static Enumerable<VectorBatch> filter( final Enumerable<VectorBatch> batches, final VectorPredicate predicate, final DataContext context ) {
+        return new AbstractEnumerable<VectorBatch>() {
+            @Override
+            public Enumerator<VectorBatch> enumerator() {
+                final Enumerator<VectorBatch> input = batches.enumerator();
+                return new Enumerator<VectorBatch>() {
+                    private VectorBatch current;
+
+
+                    @Override
+                    public VectorBatch current() {
+                        return current;
+                    }
+
+
+                    @Override
+                    public boolean moveNext() {
+                        while ( input.moveNext() ) {
+                            final VectorBatch batch = input.current();
+                            predicate.apply( batch, context );
+                            if ( batch.count() > 0 ) {
+                                current = batch;
+                                return true;
+                            }
+                        }
+                        return false;
+                    }
+
+
+                    @Override
+                    public void reset() {
+                        input.reset();
+                        current = null;
+                    }
+
+
+                    @Override
+                    public void close() {
+                        input.close();
+                    }
+                };
+            }
+        };
+    }
+
+
+    public static VectorPredicate and( VectorPredicate... predicates ) {
+        return new VectorPredicate() {
+            @Override
+            public int filter( VectorBatch batch, int[] in, int inCount, int[] out, DataContext context ) {
+                int[] current = in;
+                int count = inCount;
+                for ( VectorPredicate predicate : predicates ) {
+                    if ( count == 0 ) {
+                        break;
+                    }
+                    final int[] next = new int[count];
+                    count = predicate.filter( batch, current, count, next, context );
+                    current = next;
+                }
+                System.arraycopy( current, 0, out, 0, count );
+                return count;
+            }
+        };
+    }
+
+
+    public static VectorPredicate or( VectorPredicate... predicates ) {
+        return new VectorPredicate() {
+            @Override
+            public int filter( VectorBatch batch, int[] in, int inCount, int[] out, DataContext context ) {
+                int[] union = new int[0];
+                int unionCount = 0;
+                for ( VectorPredicate predicate : predicates ) {
+                    final int[] result = new int[inCount];
+                    final int resultCount = predicate.filter( batch, in, inCount, result, context );
+                    // Merge the two sorted lists of row indexes
+                    final int[] merged = new int[unionCount + resultCount];
+                    int i = 0;
+                    int j = 0;
+                    int k = 0;
+                    while ( i < unionCount && j < resultCount ) {
+                        if ( union[i] < result[j] ) {
+                            merged[k++] = union[i++];
+                        } else if ( union[i] > result[j] ) {
+                            merged[k++] = result[j++];
+                        } else {
+                            merged[k++] = union[i++];
+                            j++;
+                        }
+                    }
+                    while ( i < unionCount ) {
+                        merged[k++] = union[i++];
+                    }
+                    while ( j < resultCount ) {
+                        merged[k++] = result[j++];
+                    }
+                    union = merged;
+                    unionCount = k;
+                }
+                System.arraycopy( union, 0, out, 0, unionCount );
+                return unionCount;
+            }
+        };
+    }
+
+
+    public static VectorPredicate isNull( final int column ) {
+        return new VectorPredicate() {
+            @Override
+            public int filter( VectorBatch batch, int[] in, int inCount, int[] out, DataContext context ) {
+                final ColumnVector vector = batch.columns[column];
+                if ( !vector.mayHaveNulls() ) {
+                    return 0;
+                }
+                int count = 0;
+                for ( int i = 0; i < inCount; i++ ) {
+                    final int row = in[i];
+                    if ( vector.isNull( row ) ) {
+                        out[count++] = row;
+                    }
+                }
+                return count;
+            }
+        };
+    }
+
+
+    public static VectorPredicate isNotNull( final int column ) {
+        return new VectorPredicate() {
+            @Override
+            public int filter( VectorBatch batch, int[] in, int inCount, int[] out, DataContext context ) {
+                final ColumnVector vector = batch.columns[column];
+                if ( !vector.mayHaveNulls() ) {
+                    System.arraycopy( in, 0, out, 0, inCount );
+                    return inCount;
+                }
+                int count = 0;
+                for ( int i = 0; i < inCount; i++ ) {
+                    final int row = in[i];
+                    if ( !vector.isNull( row ) ) {
+                        out[count++] = row;
+                    }
+                }
+                return count;
+            }
+        };
+    }
+
+
+    /**
+     * Compares a column with a constant value.
+     */
+    public static VectorPredicate compareConstant( final int column, final VectorComparison op, final Object value ) {
+        return new VectorPredicate() {
+            @Override
+            public int filter( VectorBatch batch, int[] in, int inCount, int[] out, DataContext context ) {
+                return compare( batch.columns[column], op, value, in, inCount, out );
+            }
+        };
+    }
+
+
+    /**
+     * Compares a column with the value of a dynamic parameter.
+     */
+    public static VectorPredicate compareParameter( final int column, final VectorComparison op, final long index ) {
+        return new VectorPredicate() {
+            @Override
+            public int filter( VectorBatch batch, int[] in, int inCount, int[] out, DataContext context ) {
+                return compare( batch.columns[column], op, context.getParameterValue( index ), in, inCount, out );
+            }
+        };
+    }
+
+
+    /**
+     * Compares two columns of the same batch.
+     */
+    public static VectorPredicate compareColumns( final int left, final VectorComparison op, final int right ) {
+        return new VectorPredicate() {
+            @Override
+            public int filter( VectorBatch batch, int[] in, int inCount, int[] out, DataContext context ) {
+                final ColumnVector leftVector = batch.columns[left];
+                final ColumnVector rightVector = batch.columns[right];
+                int count = 0;
+                if ( leftVector instanceof LongColumnVector && rightVector instanceof LongColumnVector ) {
+                    final long[] l = ((LongColumnVector) leftVector).values;
+                    final long[] r = ((LongColumnVector) rightVector).values;
+                    for ( int i = 0; i < inCount; i++ ) {
+                        final int row = in[i];
+                        if ( !leftVector.isNull( row ) && !rightVector.isNull( row ) && op.test( Long.compare( l[row], r[row] ) ) ) {
+                            out[count++] = row;
+                        }
+                    }
+                    return count;
+                }
+                for ( int i = 0; i < inCount; i++ ) {
+                    final int row = in[i];
+                    final Object l = leftVector.getKey( row );
+                    final Object r = rightVector.getKey( row );
+                    if ( l != null && r != null && op.test( compareValues( l, r ) ) ) {
+                        out[count++] = row;
+                    }
+                }
+                return count;
+            }
+        };
+    }
+
+
+    static int compare( ColumnVector vector, VectorComparison op, Object value, int[] in, int inCount, int[] out ) {
+        if ( value == null ) {
+            // Comparisons with null are never true
+            return 0;
+        }
+        if ( vector instanceof LongColumnVector && isIntegral( value ) ) {
+            return compareLong( (LongColumnVector) vector, op, toLong( value ), in, inCount, out );
+        } else if ( vector instanceof DoubleColumnVector && value instanceof Number ) {
+            return compareDouble( (DoubleColumnVector) vector, op, ((Number) value).doubleValue(), in, inCount, out );
+        }
+        int count = 0;
+        for ( int i = 0; i < inCount; i++ ) {
+            final int row = in[i];
+            final Object v = vector.getKey( row );
+            if ( v != null && op.test( compareValues( v, value ) ) ) {
+                out[count++] = row;
+            }
+        }
+        return count;
+    }
+
+
+    private static int compareLong( LongColumnVector vector, VectorComparison op, long value, int[] in, int inCount, int[] out ) {
+        final long[] values = vector.values;
+        int count = 0;
+        // Check the operator outside the loops, so that the loop bodies are as simple as possible
+        switch ( op ) {
+            case EQUALS:
+                for ( int i = 0; i < inCount; i++ ) {
+                    final int row = in[i];
+                    out[count] = row;
+                    count += values[row] == value ? 1 : 0;
+                }
+                break;
+            case NOT_EQUALS:
+                for ( int i = 0; i < inCount; i++ ) {
+                    final int row = in[i];
+                    out[count] = row;
+                    count += values[row] != value ? 1 : 0;
+                }
+                break;
+            case LESS_THAN:
+                for ( int i = 0; i < inCount; i++ ) {
+                    final int row = in[i];
+                    out[count] = row;
+                    count += values[row] < value ? 1 : 0;
+                }
+                break;
+            case LESS_THAN_OR_EQUAL:
+                for ( int i = 0; i < inCount; i++ ) {
+                    final int row = in[i];
+                    out[count] = row;
+                    count += values[row] <= value ? 1 : 0;
+                }
+                break;
+            case GREATER_THAN:
+                for ( int i = 0; i < inCount; i++ ) {
+                    final int row = in[i];
+                    out[count] = row;
+                    count += values[row] > value ? 1 : 0;
+                }
+                break;
+            case GREATER_THAN_OR_EQUAL:
+                for ( int i = 0; i < inCount; i++ ) {
+                    final int row = in[i];
+                    out[count] = row;
+                    count += values[row] >= value ? 1 : 0;
+                }
+                break;
+            default:
+                throw new AssertionError( op );
+        }
+        return removeNulls( vector, out, count );
+    }
+
+
+    private static int compareDouble( DoubleColumnVector vector, VectorComparison op, double value, int[] in, int inCount, int[] out ) {
+        final double[] values = vector.values;
+        int count = 0;
+        switch ( op ) {
+            case EQUALS:
+                for ( int i = 0; i < inCount; i++ ) {
+                    final int row = in[i];
+                    out[count] = row;
+                    count += values[row] == value ? 1 : 0;
+                }
+                break;
+            case NOT_EQUALS:
+                for ( int i = 0; i < inCount; i++ ) {
+                    final int row = in[i];
+                    out[count] = row;
+                    count += values[row] != value ? 1 : 0;
+                }
+                break;
+            case LESS_THAN:
+                for ( int i = 0; i < inCount; i++ ) {
+                    final int row = in[i];
+                    out[count] = row;
+                    count += values[row] < value ? 1 : 0;
+                }
+                break;
+            case LESS_THAN_OR_EQUAL:
+                for ( int i = 0; i < inCount; i++ ) {
+                    final int row = in[i];
+                    out[count] = row;
+                    count += values[row] <= value ? 1 : 0;
+                }
+                break;
+            case GREATER_THAN:
+                for ( int i = 0; i < inCount; i++ ) {
+                    final int row = in[i];
+                    out[count] = row;
+                    count += values[row] > value ? 1 : 0;
+                }
+                break;
+            case GREATER_THAN_OR_EQUAL:
+                for ( int i = 0; i < inCount; i++ ) {
+                    final int row = in[i];
+                    out[count] = row;
+                    count += values[row] >= value ? 1 : 0;
+                }
+                break;
+            default:
+                throw new AssertionError( op );
+        }
+        return removeNulls( vector, out, count );
+    }
+
+
+    /**
+     * Removes rows with a null value from a selection. The branch-free loops above ignore nulls, this is done
+     * afterwards only for columns which contain null values.
+     */
+    private static int removeNulls( ColumnVector vector, int[] rows, int count ) {
+        if ( !vector.mayHaveNulls() ) {
+            return count;
+        }
+        int result = 0;
+        for ( int i = 0; i < count; i++ ) {
+            if ( !vector.isNull( rows[i] ) ) {
+                rows[result++] = rows[i];
+            }
+        }
+        return result;
+    }
+
+
+    static boolean isIntegral( Object value ) {
+        if ( value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte ) {
+            return true;
+        }
+        if ( value instanceof BigDecimal ) {
+            BigDecimal decimal = (BigDecimal) value;
+            return (decimal.signum() == 0 || decimal.scale() <= 0 || decimal.stripTrailingZeros().scale() <= 0)
+                    && decimal.toBigInteger().bitLength() < 64;
+        }
+        return false;
+    }
+
+
+    static long toLong( Object value ) {
+        if ( value instanceof BigDecimal ) {
+            return ((BigDecimal) value).longValueExact();
+        }
+        return ((Number) value).longValue();
+    }
+
+
+    /**
+     * Compares two non-null values. Numbers of different classes are compared by their numeric value.
+     */
+    @SuppressWarnings("unchecked")
+    static int compareValues( Object a, Object b ) {
+        if ( a instanceof Number && b instanceof Number && a.getClass() != b.getClass() ) {
+            if ( isIntegral( a ) && isIntegral( b ) && !(a instanceof BigDecimal) && !(b instanceof BigDecimal) ) {
+                return Long.compare( ((Number) a).longValue(), ((Number) b).longValue() );
+            }
+            return toBigDecimal( (Number) a ).compareTo( toBigDecimal( (Number) b ) );
+        }
+        return ((Comparable<Object>) a).compareTo( b );
+    }
+
+
+    private static BigDecimal toBigDecimal( Number number ) {
+        if ( number instanceof BigDecimal ) {
+            return (BigDecimal) number;
+        } else if ( number instanceof Double || number instanceof Float ) {
+            return BigDecimal.valueOf( number.doubleValue() );
+        }
+        return BigDecimal.valueOf( number.longValue() );
+    }
+
+}
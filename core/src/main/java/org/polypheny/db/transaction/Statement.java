@@ -17,6 +17,7 @@
 package org.polypheny.db.transaction;
 
 import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.catalog.Catalog.QueryLanguage;
 import org.polypheny.db.information.InformationDuration;
 import org.polypheny.db.prepare.Context;
 import org.polypheny.db.monitoring.events.StatementEvent;
@@ -25,6 +26,8 @@
 
 public interface Statement {
 
+    long getId();
+
     Transaction getTransaction();
 
     QueryProcessor getQueryProcessor();
@@ -47,4 +50,21 @@ public interface Statement {
 
     void registerFileInputHandle( FileInputHandle fileInputHandle );
 
+    /**
+     * @return the maximum number of workers a single parallel operator of this statement may use
+     */
+    int getMaxParallelism();
+
+    /**
+     * Overrides {@link org.polypheny.db.config.RuntimeConfig#PARALLEL_EXECUTION_MAX_DEGREE} for this statement.
+     */
+    void setMaxParallelism( int maxParallelism );
+
+    /**
+     * @return the query language this statement has been issued in or {@code null} for internal statements
+     */
+    QueryLanguage getLanguage();
+
+    void setLanguage( QueryLanguage language );
+
 }
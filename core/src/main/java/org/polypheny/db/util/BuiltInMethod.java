@@ -114,6 +114,7 @@
 import org.polypheny.db.rex.RexNode;
 import org.polypheny.db.runtime.ArrayBindable;
 import org.polypheny.db.runtime.BinarySearch;
+import org.polypheny.db.runtime.BindJoins;
 import org.polypheny.db.runtime.Bindable;
 import org.polypheny.db.runtime.Enumerables;
 import org.polypheny.db.runtime.FlatLists;
@@ -125,6 +126,14 @@
 import org.polypheny.db.runtime.functions.Functions;
 import org.polypheny.db.runtime.functions.Functions.FlatProductInputType;
 import org.polypheny.db.runtime.functions.MqlFunctions;
+import org.polypheny.db.runtime.parallel.Exchange;
+import org.polypheny.db.runtime.vector.VectorBatches;
+import org.polypheny.db.runtime.vector.VectorColumnType;
+import org.polypheny.db.runtime.vector.VectorComparison;
+import org.polypheny.db.runtime.vector.VectorHashAggregate;
+import org.polypheny.db.runtime.vector.VectorHashJoin;
+import org.polypheny.db.runtime.vector.VectorPredicate;
+import org.polypheny.db.runtime.vector.VectorPredicates;
 import org.polypheny.db.schema.FilterableTable;
 import org.polypheny.db.schema.ModifiableTable;
 import org.polypheny.db.schema.ProjectableFilterableTable;
@@ -148,6 +157,7 @@ public enum BuiltInMethod {
     SWITCH_CONTEXT( DataContext.class, "switchContext" ),
     BATCH( Functions.class, "batch", DataContext.class, Enumerable.class ),
     STREAM_RIGHT( Functions.class, "streamRight", DataContext.class, Enumerable.class, Function0.class, List.class ),
+    BIND_JOIN( BindJoins.class, "join", DataContext.class, Enumerable.class, Function1.class, Function1.class, Function1.class, Function2.class, boolean.class, boolean.class, boolean.class, List.class, int.class, int.class ),
     ENFORCE_CONSTRAINT( Functions.class, "enforceConstraint", Function0.class, Enumerable.class, List.class, List.class ),
     TO_NODE( CypherFunctions.class, "toNode", Enumerable.class ),
     TO_EDGE( CypherFunctions.class, "toEdge", Enumerable.class ),
@@ -179,6 +189,7 @@ public enum BuiltInMethod {
     JOIN( ExtendedEnumerable.class, "join", Enumerable.class, Function1.class, Function1.class, Function2.class ),
     MERGE_JOIN( EnumerableDefaults.class, "mergeJoin", Enumerable.class, Enumerable.class, Function1.class, Function1.class, Function2.class, boolean.class, boolean.class ),
     SLICE0( Enumerables.class, "slice0", Enumerable.class ),
+    ORDER_BY_AND_LIMIT( Enumerables.class, "orderByAndLimit", Enumerable.class, Function1.class, Comparator.class, int.class, int.class ),
     SEMI_JOIN( EnumerableDefaults.class, "semiJoin", Enumerable.class, Enumerable.class, Function1.class, Function1.class ),
     THETA_JOIN( EnumerableDefaults.class, "thetaJoin", Enumerable.class, Enumerable.class, Predicate2.class, Function2.class, boolean.class, boolean.class ),
     SINGLE_SUM( Functions.class, "singleSum", Enumerable.class ),
@@ -478,7 +489,25 @@ public enum BuiltInMethod {
     X_MODEL_TABLE_TO_NODE( CrossModelFunctions.class, "tableToNodes", Enumerable.class, String.class, List.class ),
     X_MODEL_MERGE_NODE_COLLECTIONS( CrossModelFunctions.class, "mergeNodeCollections", List.class ),
     X_MODEL_COLLECTION_TO_NODE( CrossModelFunctions.class, "collectionToNodes", Enumerable.class, String.class ),
-    X_MODEL_NODE_TO_COLLECTION( CrossModelFunctions.class, "nodesToCollection", Enumerable.class );
+    X_MODEL_NODE_TO_COLLECTION( CrossModelFunctions.class, "nodesToCollection", Enumerable.class ),
+    /// VECTORIZED EXECUTION
+    VECTOR_TO_BATCHES( VectorBatches.class, "toBatches", Enumerable.class, VectorColumnType[].class, boolean.class, int.class ),
+    VECTOR_TO_ROWS( VectorBatches.class, "toRows", Enumerable.class ),
+    VECTOR_TO_SCALARS( VectorBatches.class, "toScalars", Enumerable.class ),
+    VECTOR_PROJECT( VectorBatches.class, "project", Enumerable.class, int[].class ),
+    VECTOR_FILTER( VectorPredicates.class, "filter", Enumerable.class, VectorPredicate.class, DataContext.class ),
+    VECTOR_PREDICATE_AND( VectorPredicates.class, "and", VectorPredicate[].class ),
+    VECTOR_PREDICATE_OR( VectorPredicates.class, "or", VectorPredicate[].class ),
+    VECTOR_PREDICATE_IS_NULL( VectorPredicates.class, "isNull", int.class ),
+    VECTOR_PREDICATE_IS_NOT_NULL( VectorPredicates.class, "isNotNull", int.class ),
+    VECTOR_PREDICATE_COMPARE_CONSTANT( VectorPredicates.class, "compareConstant", int.class, VectorComparison.class, Object.class ),
+    VECTOR_PREDICATE_COMPARE_PARAMETER( VectorPredicates.class, "compareParameter", int.class, VectorComparison.class, long.class ),
+    VECTOR_PREDICATE_COMPARE_COLUMNS( VectorPredicates.class, "compareColumns", int.class, VectorComparison.class, int.class ),
+    VECTOR_AGGREGATE( VectorHashAggregate.class, "apply", Enumerable.class ),
+    VECTOR_AGGREGATE_PARALLEL( VectorHashAggregate.class, "applyParallel", Enumerable.class, int.class ),
+    VECTOR_HASH_JOIN( VectorHashJoin.class, "apply", Enumerable.class, Enumerable.class ),
+    VECTOR_HASH_JOIN_PARALLEL( VectorHashJoin.class, "applyParallel", Enumerable.class, Enumerable.class, int.class ),
+    PARALLEL_UNION( Exchange.class, "union", Enumerable[].class, int[].class, int.class );
 
     public final Method method;
     public final Constructor constructor;
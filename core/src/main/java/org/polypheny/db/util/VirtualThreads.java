@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.util;
+
+
+import java.lang.reflect.Method;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * Helper for creating virtual threads on JDKs which support them. Polypheny is compiled against Java 11, therefore
+ * the virtual thread API is accessed reflectively. If it is not available, platform threads are used instead.
+ */
+@Slf4j
+public final class VirtualThreads {
+
+    /**
+     * Maximum number of requests a server on virtual threads handles concurrently; further requests are queued. Virtual
+     * threads are cheap, the limit only protects the adapters and the heap against unbounded load.
+     */
+    public static final int MAX_REQUEST_THREADS = 10_000;
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        try {
+            ofVirtual = Thread.class.getMethod( "ofVirtual" );
+            Class<?> builderClass = Class.forName( "java.lang.Thread$Builder" );
+            builderName = builderClass.getMethod( "name", String.class, long.class );
+            builderFactory = builderClass.getMethod( "factory" );
+            // Preview versions throw an UnsupportedOperationException if preview features are not enabled
+            ofVirtual.invoke( null );
+        } catch ( Exception e ) {
+            log.debug( "Virtual threads are not supported by this JVM." );
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+    }
+
+
+    private VirtualThreads() {
+        // Utility class
+    }
+
+
+    /**
+     * @return true if the running JVM is able to create virtual threads
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+
+    /**
+     * Whether a server should handle its requests on virtual threads. If they are requested but not supported by the
+     * JVM, a warning is logged and the server is expected to keep its regular thread pool.
+     *
+     * @param requested Whether virtual threads are enabled for the server
+     * @param server Name of the server, used for logging
+     */
+    public static boolean useForRequests( boolean requested, String server ) {
+        if ( requested && !isSupported() ) {
+            log.warn( "Virtual threads are not supported by this JVM, {} uses its regular thread pool.", server );
+            return false;
+        }
+        return requested;
+    }
+
+
+    /**
+     * Returns a thread factory creating threads with the given name prefix. If {@code preferVirtual} is set and
+     * the JVM supports it, virtual threads are created. Otherwise, daemon platform threads are created.
+     *
+     * @param namePrefix Prefix of the thread names; a counter is appended
+     * @param preferVirtual Whether virtual threads should be used if available
+     */
+    public static ThreadFactory threadFactory( String namePrefix, boolean preferVirtual ) {
+        if ( preferVirtual && isSupported() ) {
+            try {
+                Object builder = OF_VIRTUAL.invoke( null );
+                builder = BUILDER_NAME.invoke( builder, namePrefix, 0L );
+                return (ThreadFactory) BUILDER_FACTORY.invoke( builder );
+            } catch ( Exception e ) {
+                log.warn( "Unable to create virtual thread factory, falling back to platform threads.", e );
+            }
+        }
+        final AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread( runnable, namePrefix + counter.getAndIncrement() );
+            thread.setDaemon( true );
+            return thread;
+        };
+    }
+
+
+    /**
+     * Returns an executor for the request handling of a server. It runs up to {@link #MAX_REQUEST_THREADS} tasks
+     * concurrently and queues further ones. Idle threads are terminated after a minute. The thread factory of the
+     * executor is expected to be replaced by the server with a factory creating virtual threads. The executor is not
+     * suited for platform threads, see {@link #useForRequests(boolean, String)}.
+     */
+    public static ThreadPoolExecutor newRequestExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor( MAX_REQUEST_THREADS, MAX_REQUEST_THREADS, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>() );
+        executor.allowCoreThreadTimeOut( true );
+        return executor;
+    }
+
+
+    /**
+     * Returns an executor for blocking tasks, e.g. queries. If virtual threads are supported, it runs up to
+     * {@link #MAX_REQUEST_THREADS} tasks concurrently on virtual threads. Otherwise, at most {@code maxPlatformThreads}
+     * platform threads are used. Further tasks are queued and idle threads are terminated after a minute.
+     */
+    public static ThreadPoolExecutor newBoundedExecutor( String namePrefix, int maxPlatformThreads ) {
+        final int threads = isSupported() ? MAX_REQUEST_THREADS : maxPlatformThreads;
+        ThreadPoolExecutor executor = new ThreadPoolExecutor( threads, threads, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), threadFactory( namePrefix, true ) );
+        executor.allowCoreThreadTimeOut( true );
+        return executor;
+    }
+
+}
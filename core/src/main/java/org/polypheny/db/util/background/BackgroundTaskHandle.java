@@ -3,13 +3,12 @@
 
 import java.util.LinkedList;
 import java.util.Queue;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.time.StopWatch;
 import org.polypheny.db.util.background.BackgroundTask.TaskDelayType;
 import org.polypheny.db.util.background.BackgroundTask.TaskPriority;
 import org.polypheny.db.util.background.BackgroundTask.TaskSchedulingType;
@@ -28,37 +27,50 @@ class BackgroundTaskHandle implements Runnable {
     @Getter
     private final TaskSchedulingType schedulingType;
 
-    private final StopWatch stopWatch = new StopWatch();
+    private final BackgroundTaskScheduler scheduler;
+
     private final MovingAverage avgExecTime = new MovingAverage( 100 );
+    private final MovingAverage avgLag = new MovingAverage( 100 );
+    @Getter
+    private volatile long maxExecTime = 0L;
     @Getter
-    private long maxExecTime = 0L;
+    private volatile long maxLag = 0L;
+
+    private final AtomicLong runCount = new AtomicLong();
+    private final AtomicLong skipCount = new AtomicLong();
+
+    // True while the task is queued or running. Used to skip triggers of tasks which are still busy.
+    private final AtomicBoolean busy = new AtomicBoolean( false );
+    private volatile boolean stopped = false;
+    private volatile long triggeredAt;
 
-    private final ScheduledFuture<?> runner;
+    private volatile ScheduledFuture<?> runner;
 
 
-    public BackgroundTaskHandle( String id, BackgroundTask task, String description, TaskPriority priority, TaskSchedulingType schedulingType ) {
+    public BackgroundTaskHandle( String id, BackgroundTask task, String description, TaskPriority priority, TaskSchedulingType schedulingType, BackgroundTaskScheduler scheduler ) {
         this.id = id;
         this.task = task;
         this.description = description;
         this.priority = priority;
         this.schedulingType = schedulingType;
+        this.scheduler = scheduler;
 
         // Schedule
-        ScheduledExecutorService exec = Executors.newSingleThreadScheduledExecutor();
         if ( schedulingType.getDelayType() == TaskDelayType.FIXED ) {
-            this.runner = exec.scheduleAtFixedRate( this, 0, schedulingType.getMillis(), TimeUnit.MILLISECONDS );
+            this.runner = scheduler.scheduleAtFixedRate( this::trigger, schedulingType.getMillis() );
         } else if ( schedulingType.getDelayType() == TaskDelayType.DELAYED ) {
-            this.runner = exec.scheduleWithFixedDelay( this, 0, schedulingType.getMillis(), TimeUnit.MILLISECONDS );
+            this.runner = scheduler.schedule( this::trigger, 0 );
         } else {
             throw new RuntimeException( "Unknown TaskDelayType: " + schedulingType.getDelayType().name() );
         }
-
     }
 
 
     public void stop() {
-        if ( runner != null && !this.runner.isCancelled() ) {
-            this.runner.cancel( false );
+        stopped = true;
+        ScheduledFuture<?> runner = this.runner;
+        if ( runner != null && !runner.isCancelled() ) {
+            runner.cancel( false );
         }
     }
 
@@ -68,19 +80,90 @@ public double getAverageExecutionTime() {
     }
 
 
+    /**
+     * @return the average time in milliseconds a task had to wait for a worker after it has been triggered
+     */
+    public double getAverageLag() {
+        return avgLag.getAverage();
+    }
+
+
+    public long getRunCount() {
+        return runCount.get();
+    }
+
+
+    /**
+     * @return the number of times the task has not been executed because the previous execution was still in progress
+     */
+    public long getSkipCount() {
+        return skipCount.get();
+    }
+
+
+    /**
+     * Called by the timer of the scheduler. Hands the task over to the worker pool unless the previous run is
+     * still queued or in progress.
+     */
+    private void trigger() {
+        if ( stopped ) {
+            return;
+        }
+        if ( !busy.compareAndSet( false, true ) ) {
+            skipCount.incrementAndGet();
+            return;
+        }
+        triggeredAt = System.nanoTime();
+        try {
+            scheduler.dispatch( this, priority );
+        } catch ( Exception e ) {
+            busy.set( false );
+            log.error( "Unable to dispatch background task {}", id, e );
+            // The run which would have scheduled the next trigger does not take place; retry after the regular delay
+            scheduleNextRun();
+        }
+    }
+
+
     @Override
     public void run() {
         try {
-            stopWatch.reset();
-            stopWatch.start();
+            if ( stopped ) {
+                return;
+            }
+            long start = System.nanoTime();
+            long lag = (start - triggeredAt) / 1_000_000L;
+            avgLag.add( lag );
+            if ( maxLag < lag ) {
+                maxLag = lag;
+            }
             task.backgroundTask();
-            stopWatch.stop();
-            avgExecTime.add( stopWatch.getTime() );
-            if ( maxExecTime < stopWatch.getTime() ) {
-                maxExecTime = stopWatch.getTime();
+            long time = (System.nanoTime() - start) / 1_000_000L;
+            avgExecTime.add( time );
+            if ( maxExecTime < time ) {
+                maxExecTime = time;
             }
+            runCount.incrementAndGet();
         } catch ( Exception e ) {
             log.error( "Caught exception in background task", e );
+        } finally {
+            busy.set( false );
+            scheduleNextRun();
+        }
+    }
+
+
+    /**
+     * Schedules the next trigger of a delayed task. Fixed rate tasks are re-triggered by the timer itself.
+     */
+    private void scheduleNextRun() {
+        if ( schedulingType.getDelayType() != TaskDelayType.DELAYED || stopped ) {
+            return;
+        }
+        try {
+            runner = scheduler.schedule( this::trigger, schedulingType.getMillis() );
+        } catch ( RejectedExecutionException e ) {
+            log.error( "Unable to schedule background task {}, the task will not be executed anymore", id, e );
         }
     }
 
@@ -99,7 +182,7 @@ public MovingAverage( int period ) {
         }
 
 
-        public void add( long x ) {
+        public synchronized void add( long x ) {
             sum += x;
             window.add( x );
             if ( window.size() > period ) {
@@ -108,7 +191,7 @@ public void add( long x ) {
         }
 
 
-        public double getAverage() {
+        public synchronized double getAverage() {
             if ( window.isEmpty() ) {
                 return 0.0; // technically the average is undefined
             }
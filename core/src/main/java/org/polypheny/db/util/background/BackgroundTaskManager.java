@@ -5,10 +5,11 @@
 import java.util.Locale;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import org.polypheny.db.config.Config;
+import org.polypheny.db.config.Config.ConfigListener;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.information.InformationGroup;
+import org.polypheny.db.information.InformationKeyValue;
 import org.polypheny.db.information.InformationManager;
 import org.polypheny.db.information.InformationPage;
 import org.polypheny.db.information.InformationTable;
@@ -22,12 +23,31 @@ public class BackgroundTaskManager {
 
     private final ConcurrentHashMap<String, BackgroundTaskHandle> tasks = new ConcurrentHashMap<>();
 
+    private final BackgroundTaskScheduler scheduler;
+
     private InformationPage informationPage;
     private InformationGroup informationGroupOverview;
     private InformationTable overviewTable;
+    private InformationKeyValue schedulerInfo;
 
 
     private BackgroundTaskManager() {
+        scheduler = new BackgroundTaskScheduler(
+                RuntimeConfig.BACKGROUND_TASK_POOL_SIZE.getInteger(),
+                RuntimeConfig.BACKGROUND_TASK_VIRTUAL_THREADS.getBoolean() );
+        RuntimeConfig.BACKGROUND_TASK_POOL_SIZE.addObserver( new ConfigListener() {
+            @Override
+            public void onConfigChange( Config c ) {
+                scheduler.setPoolSize( c.getInt() );
+            }
+
+
+            @Override
+            public void restart( Config c ) {
+                scheduler.setPoolSize( c.getInt() );
+            }
+        } );
+
         informationPage = new InformationPage( "Background Tasks" );
         informationPage.fullWidth();
         informationGroupOverview = new InformationGroup( informationPage, "Overview" );
@@ -36,20 +56,21 @@ private BackgroundTaskManager() {
         im.addPage( informationPage );
         im.addGroup( informationGroupOverview );
 
+        schedulerInfo = new InformationKeyValue( informationGroupOverview );
+        im.registerInformation( schedulerInfo );
+
         overviewTable = new InformationTable(
                 informationGroupOverview,
-                Arrays.asList( "Class", "Description", " Scheduling Type", "Priority", "Average Time", "Max Time" ) );
+                Arrays.asList( "Class", "Description", "Scheduling Type", "Priority", "Runs", "Skipped", "Average Time", "Max Time", "Average Lag", "Max Lag" ) );
         im.registerInformation( overviewTable );
 
-        BackgroundTaskInfo backgroundTaskInfo = new BackgroundTaskInfo();
-        ScheduledExecutorService exec = Executors.newSingleThreadScheduledExecutor();
-        exec.scheduleAtFixedRate( backgroundTaskInfo, 0, 5, TimeUnit.SECONDS );
+        registerTask( new BackgroundTaskInfo(), "Update background task information page", TaskPriority.LOW, TaskSchedulingType.EVERY_FIVE_SECONDS );
     }
 
 
     public String registerTask( BackgroundTask task, String description, TaskPriority priority, TaskSchedulingType schedulingType ) {
         String id = UUID.randomUUID().toString();
-        tasks.put( id, new BackgroundTaskHandle( id, task, description, priority, schedulingType ) );
+        tasks.put( id, new BackgroundTaskHandle( id, task, description, priority, schedulingType, scheduler ) );
         return id;
     }
 
@@ -64,10 +85,14 @@ public void removeBackgroundTask( String id ) {
     }
 
 
-    private class BackgroundTaskInfo implements Runnable {
+    private class BackgroundTaskInfo implements BackgroundTask {
 
         @Override
-        public void run() {
+        public void backgroundTask() {
+            schedulerInfo.putPair( "Worker Threads", scheduler.getPoolSize() + (scheduler.isVirtualThreads() ? " (virtual)" : " (platform)") );
+            schedulerInfo.putPair( "Active Workers", String.valueOf( scheduler.getActiveCount() ) );
+            schedulerInfo.putPair( "Queued Tasks", String.valueOf( scheduler.getQueueSize() ) );
+
             overviewTable.reset();
             for ( BackgroundTaskHandle handle : tasks.values() ) {
                 overviewTable.addRow(
@@ -75,9 +100,15 @@ public void run() {
                         handle.getDescription(),
                         handle.getSchedulingType().name(),
                         handle.getPriority().name(),
-                        String.format( Locale.ENGLISH, "%.2f", handle.getAverageExecutionTime() ) + " ms", "" + handle.getMaxExecTime() + " ms" );
+                        handle.getRunCount(),
+                        handle.getSkipCount(),
+                        String.format( Locale.ENGLISH, "%.2f", handle.getAverageExecutionTime() ) + " ms",
+                        handle.getMaxExecTime() + " ms",
+                        String.format( Locale.ENGLISH, "%.2f", handle.getAverageLag() ) + " ms",
+                        handle.getMaxLag() + " ms" );
             }
         }
+
     }
 
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.util.background;
+
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.util.VirtualThreads;
+import org.polypheny.db.util.background.BackgroundTask.TaskPriority;
+
+
+/**
+ * Scheduler shared by all background tasks. A single timer thread triggers the tasks, the actual work is executed on
+ * a bounded pool of workers. Triggered tasks wait in a priority queue, hence tasks with a higher {@link TaskPriority}
+ * are executed first if all workers are busy.
+ */
+@Slf4j
+class BackgroundTaskScheduler {
+
+    private final ScheduledExecutorService timer;
+    private final ThreadPoolExecutor workers;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Getter
+    private final boolean virtualThreads;
+
+
+    BackgroundTaskScheduler( int poolSize, boolean preferVirtualThreads ) {
+        if ( poolSize < 1 ) {
+            throw new IllegalArgumentException( "The pool size for background tasks needs to be at least one." );
+        }
+        this.virtualThreads = preferVirtualThreads && VirtualThreads.isSupported();
+        this.timer = Executors.newSingleThreadScheduledExecutor( VirtualThreads.threadFactory( "BackgroundTaskTimer-", false ) );
+        this.workers = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                60L,
+                TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(),
+                VirtualThreads.threadFactory( "BackgroundTask-", virtualThreads ) );
+        this.workers.allowCoreThreadTimeOut( true );
+    }
+
+
+    ScheduledFuture<?> scheduleAtFixedRate( Runnable trigger, long periodMillis ) {
+        return timer.scheduleAtFixedRate( trigger, 0, periodMillis, TimeUnit.MILLISECONDS );
+    }
+
+
+    ScheduledFuture<?> schedule( Runnable trigger, long delayMillis ) {
+        return timer.schedule( trigger, delayMillis, TimeUnit.MILLISECONDS );
+    }
+
+
+    /**
+     * Hands a triggered task over to the worker pool.
+     */
+    void dispatch( Runnable runnable, TaskPriority priority ) {
+        workers.execute( new PrioritizedRunnable( runnable, priority, sequence.getAndIncrement() ) );
+    }
+
+
+    int getPoolSize() {
+        return workers.getMaximumPoolSize();
+    }
+
+
+    void setPoolSize( int poolSize ) {
+        if ( poolSize < 1 ) {
+            throw new IllegalArgumentException( "The pool size for background tasks needs to be at least one." );
+        }
+        if ( poolSize > workers.getMaximumPoolSize() ) {
+            workers.setMaximumPoolSize( poolSize );
+            workers.setCorePoolSize( poolSize );
+        } else {
+            workers.setCorePoolSize( poolSize );
+            workers.setMaximumPoolSize( poolSize );
+        }
+    }
+
+
+    int getActiveCount() {
+        return workers.getActiveCount();
+    }
+
+
+    int getQueueSize() {
+        return workers.getQueue().size();
+    }
+
+
+    void shutdown() {
+        timer.shutdownNow();
+        workers.shutdownNow();
+    }
+
+
+    /**
+     * Orders runnables by priority (highest first) and by the time they have been dispatched.
+     */
+    private static class PrioritizedRunnable implements Runnable, Comparable<PrioritizedRunnable> {
+
+        private final Runnable runnable;
+        private final TaskPriority priority;
+        private final long sequence;
+
+
+        PrioritizedRunnable( Runnable runnable, TaskPriority priority, long sequence ) {
+            this.runnable = runnable;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+
+        @Override
+        public void run() {
+            runnable.run();
+        }
+
+
+        @Override
+        public int compareTo( PrioritizedRunnable other ) {
+            int cmp = Integer.compare( other.priority.ordinal(), priority.ordinal() );
+            if ( cmp != 0 ) {
+                return cmp;
+            }
+            return Long.compare( sequence, other.sequence );
+        }
+
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import org.apache.calcite.linq4j.tree.ClassDeclaration;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.runtime.ArrayBindable;
+
+
+/**
+ * Tests the cache of compiled classes of {@link EnumerableInterpretable}.
+ */
+public class GeneratedClassCacheTest {
+
+    private int cacheSize;
+
+
+    @Before
+    public void setUp() {
+        cacheSize = RuntimeConfig.GENERATED_CLASS_CACHE_SIZE.getInteger();
+        EnumerableInterpretable.resetClassCache();
+    }
+
+
+    @After
+    public void tearDown() {
+        RuntimeConfig.GENERATED_CLASS_CACHE_SIZE.setInteger( cacheSize );
+    }
+
+
+    private static Class<?> compile( int rows ) throws Exception {
+        final ClassDeclaration expr = Expressions.classDecl( Modifier.PUBLIC, "Baz", null, Collections.singletonList( ArrayBindable.class ), Collections.emptyList() );
+        final String source = "public org.apache.calcite.linq4j.Enumerable bind(org.polypheny.db.adapter.DataContext root) {\n"
+                + "  return org.apache.calcite.linq4j.Linq4j.asEnumerable(new Object[" + rows + "][2]);\n"
+                + "}\n"
+                + "public Class getElementType() {\n"
+                + "  return Object[].class;\n"
+                + "}\n";
+        return EnumerableInterpretable.getBindable( expr, source, 2 ).getClass();
+    }
+
+
+    @Test
+    public void testHit() throws Exception {
+        RuntimeConfig.GENERATED_CLASS_CACHE_SIZE.setInteger( 10 );
+        final Class<?> first = compile( 1 );
+        assertSame( first, compile( 1 ) );
+        assertNotSame( first, compile( 2 ) );
+    }
+
+
+    @Test
+    public void testEviction() throws Exception {
+        RuntimeConfig.GENERATED_CLASS_CACHE_SIZE.setInteger( 1 );
+        final Class<?> first = compile( 1 );
+        compile( 2 );
+        // The class of the first source has been evicted by the second one
+        assertNotSame( first, compile( 1 ) );
+    }
+
+
+    @Test
+    public void testDisabled() throws Exception {
+        RuntimeConfig.GENERATED_CLASS_CACHE_SIZE.setInteger( 0 );
+        assertNotSame( compile( 1 ), compile( 1 ) );
+    }
+
+
+    @Test
+    public void testResize() throws Exception {
+        RuntimeConfig.GENERATED_CLASS_CACHE_SIZE.setInteger( 1 );
+        compile( 1 );
+        RuntimeConfig.GENERATED_CLASS_CACHE_SIZE.setInteger( 2 );
+        final Class<?> first = compile( 1 );
+        final Class<?> second = compile( 2 );
+        // Both classes fit into the resized cache
+        assertSame( first, compile( 1 ) );
+        assertSame( second, compile( 2 ) );
+    }
+
+}
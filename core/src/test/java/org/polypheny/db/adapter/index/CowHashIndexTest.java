@@ -17,14 +17,18 @@
 package org.polypheny.db.adapter.index;
 
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import org.junit.Assert;
 import org.junit.Test;
 import org.polypheny.db.algebra.exceptions.ConstraintViolationException;
 import org.polypheny.db.transaction.PUID;
 import org.polypheny.db.transaction.PUID.Type;
 import org.polypheny.db.transaction.PolyXid;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.util.NlsString;
 import org.polypheny.db.util.Pair;
 
 
@@ -146,4 +150,27 @@ public void testContains() {
         Assert.assertFalse( idx.containsAll( xid1, Arrays.asList( Arrays.asList( 1, 2, 3 ), Arrays.asList( 3, 4, 5 ) ) ) );
     }
 
+
+    @Test
+    public void testKeysConvertedToColumnTypes() {
+        CoWHashIndex idx = new CoWHashIndex( 42L, "idx_test", null, null, Arrays.asList( "a", "b" ), Arrays.asList( "a", "b" ) );
+        PolyXid xid = PolyXid.generateLocalTransactionIdentifier( PUID.randomPUID( Type.NODE ), PUID.randomPUID( Type.TRANSACTION ) );
+        List<PolyType> types = Arrays.asList( PolyType.INTEGER, PolyType.DECIMAL );
+        // Key as read from the table
+        List<Object> key = Index.convert( Arrays.asList( 1, new BigDecimal( "1.50" ) ), types );
+        idx.insert( xid, key, key );
+        idx.barrier( xid );
+        // Keys as taken from literals
+        Assert.assertTrue( idx.contains( xid, Index.convert( Arrays.asList( 1L, new BigDecimal( "1.5" ) ), types ) ) );
+        Assert.assertTrue( idx.contains( xid, Index.convert( Arrays.asList( new BigDecimal( 1 ), 1.5 ), types ) ) );
+        Assert.assertFalse( idx.contains( xid, Index.convert( Arrays.asList( 2L, new BigDecimal( "1.5" ) ), types ) ) );
+        Assert.assertFalse( idx.contains( xid, Arrays.asList( 1L, new BigDecimal( "1.5" ) ) ) );
+
+        Assert.assertEquals( 2.5, Index.convert( new BigDecimal( "2.5" ), PolyType.DOUBLE ) );
+        Assert.assertEquals( 2.5f, Index.convert( 2.5, PolyType.REAL ) );
+        Assert.assertEquals( 7L, Index.convert( 7, PolyType.BIGINT ) );
+        Assert.assertEquals( "abc", Index.convert( new NlsString( "abc", null, null ), PolyType.VARCHAR ) );
+        Assert.assertNull( Index.convert( null, PolyType.INTEGER ) );
+    }
+
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.index;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Assert;
+import org.junit.Test;
+import org.polypheny.db.runtime.functions.DistanceFunctions;
+import org.polypheny.db.transaction.PUID;
+import org.polypheny.db.transaction.PUID.Type;
+import org.polypheny.db.transaction.PolyXid;
+
+
+public class HnswIndexTest {
+
+    @Test
+    public void testGraphRecall() {
+        final Random random = new Random( 42 );
+        final int dimensions = 16;
+        final List<double[]> vectors = new ArrayList<>();
+        final HnswGraph<Integer> graph = new HnswGraph<>( 16, 100, 42 );
+        for ( int i = 0; i < 2000; i++ ) {
+            final double[] vector = random.doubles( dimensions ).toArray();
+            vectors.add( vector );
+            graph.insert( vector, i );
+        }
+        Assert.assertEquals( 2000, graph.size() );
+
+        int found = 0;
+        for ( int q = 0; q < 50; q++ ) {
+            final double[] target = random.doubles( dimensions ).toArray();
+            final Set<Integer> exact = IntStream.range( 0, vectors.size() ).boxed()
+                    .sorted( Comparator.comparingDouble( i -> DistanceFunctions.l2SquaredMetric( vectors.get( i ), target ) ) )
+                    .limit( 10 )
+                    .collect( Collectors.toSet() );
+            final List<Integer> approximate = graph.search( target, 10, 64 );
+            Assert.assertEquals( 10, approximate.size() );
+            found += approximate.stream().filter( exact::contains ).count();
+        }
+        // The search is approximate, but should find almost all of the nearest neighbors
+        Assert.assertTrue( "Recall too low: " + found / 500.0, found >= 0.9 * 500 );
+    }
+
+
+    @Test
+    public void testGraphDeletion() {
+        final HnswGraph<Integer> graph = new HnswGraph<>( 4, 16, 42 );
+        final List<Integer> ids = new ArrayList<>();
+        for ( int i = 0; i < 100; i++ ) {
+            ids.add( graph.insert( new double[]{ i, i }, i ) );
+        }
+        Assert.assertEquals( Arrays.asList( 10, 11, 9 ), graph.search( new double[]{ 10.1, 10.1 }, 3, 16 ) );
+        graph.markDeleted( ids.get( 10 ) );
+        graph.markDeleted( ids.get( 11 ) );
+        Assert.assertEquals( 98, graph.size() );
+        Assert.assertEquals( Arrays.asList( 9, 12, 8 ), graph.search( new double[]{ 10.1, 10.1 }, 3, 16 ) );
+        graph.clear();
+        Assert.assertEquals( 0, graph.size() );
+        Assert.assertEquals( Collections.emptyList(), graph.search( new double[]{ 10, 10 }, 3, 16 ) );
+    }
+
+
+    @Test
+    public void testCopyOnWriteIsolation() {
+        HnswIndex idx = new HnswIndex( 42L, "idx_test", null, null, Collections.singletonList( "vector" ), Collections.singletonList( "id" ) );
+        PolyXid xid1 = PolyXid.generateLocalTransactionIdentifier( PUID.randomPUID( Type.NODE ), PUID.randomPUID( Type.TRANSACTION ) );
+        PolyXid xid2 = PolyXid.generateLocalTransactionIdentifier( PUID.randomPUID( Type.NODE ), PUID.randomPUID( Type.TRANSACTION ) );
+        for ( int i = 0; i < 10; i++ ) {
+            idx.insert( xid1, key( i, i ), Collections.singletonList( i ) );
+        }
+        idx.barrier( xid1 );
+        // Uncommitted rows are only candidates for the inserting transaction
+        Assert.assertEquals( 10, idx.search( xid1, new double[]{ 0, 0 }, 2, 8 ).size() );
+        Assert.assertEquals( Collections.emptyList(), idx.search( xid2, new double[]{ 0, 0 }, 2, 8 ) );
+        idx.commit( xid1 );
+        Assert.assertEquals( Arrays.asList( Collections.singletonList( 0 ), Collections.singletonList( 1 ) ), idx.search( xid2, new double[]{ 0, 0 }, 2, 8 ) );
+
+        // Deleted rows are no longer returned
+        idx.deletePrimary( xid1, key( 0, 0 ), Collections.singletonList( 0 ) );
+        idx.barrier( xid1 );
+        Assert.assertEquals( Collections.singletonList( 1 ), idx.search( xid1, new double[]{ 0, 0 }, 2, 8 ).get( 0 ) );
+        idx.commit( xid1 );
+        Assert.assertEquals( Arrays.asList( Collections.singletonList( 1 ), Collections.singletonList( 2 ) ), idx.search( xid2, new double[]{ 0, 0 }, 2, 8 ) );
+        Assert.assertFalse( idx.contains( xid2, key( 0, 0 ) ) );
+    }
+
+
+    private static List<Object> key( double... values ) {
+        return Collections.singletonList( Arrays.stream( values ).boxed().collect( Collectors.toList() ) );
+    }
+
+}
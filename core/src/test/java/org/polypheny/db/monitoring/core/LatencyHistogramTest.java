@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.monitoring.core;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals( 0, histogram.getSamples() );
+        assertEquals( 0, histogram.getMean(), 0 );
+        assertEquals( 0, histogram.getPercentile( 0.99 ), 0 );
+    }
+
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram( 100_000 );
+        for ( int i = 1; i <= 1000; i++ ) {
+            histogram.record( i * 1_000_000L );
+        }
+        assertEquals( 1000, histogram.getSamples() );
+        assertEquals( 500e6, histogram.getMean(), 5e6 );
+        // Buckets are accurate to about ten percent
+        assertEquals( 500e6, histogram.getPercentile( 0.5 ), 50e6 );
+        assertEquals( 950e6, histogram.getPercentile( 0.95 ), 95e6 );
+        assertEquals( 990e6, histogram.getPercentile( 0.99 ), 99e6 );
+    }
+
+
+    @Test
+    public void decay() {
+        LatencyHistogram histogram = new LatencyHistogram( 10 );
+        histogram.record( 1_000_000L, 1000 );
+        histogram.record( 10_000_000L, 50 );
+        // After five half-lives, the old samples have a weight of about three percent
+        assertEquals( 10e6, histogram.getMean(), 0.5e6 );
+        assertEquals( 10e6, histogram.getPercentile( 0.5 ), 1e6 );
+        assertTrue( histogram.getEffectiveSamples() < 16 );
+    }
+
+}
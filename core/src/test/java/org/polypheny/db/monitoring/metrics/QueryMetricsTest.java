@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.monitoring.metrics;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.polypheny.db.catalog.Catalog.QueryLanguage;
+import org.polypheny.db.util.Benchmark;
+
+
+public class QueryMetricsTest {
+
+    @Test
+    public void bucketBoundaries() {
+        assertEquals( 0, AtomicHistogram.bucketOf( 0 ) );
+        assertEquals( 0, AtomicHistogram.bucketOf( 1023 ) );
+        assertEquals( 1, AtomicHistogram.bucketOf( 1024 ) );
+        assertEquals( 1, AtomicHistogram.bucketOf( 1279 ) );
+        assertEquals( 2, AtomicHistogram.bucketOf( 1280 ) );
+        assertEquals( AtomicHistogram.NUMBER_OF_BUCKETS - 1, AtomicHistogram.bucketOf( Long.MAX_VALUE ) );
+        for ( int i = 0; i < AtomicHistogram.NUMBER_OF_BUCKETS - 1; i++ ) {
+            long upperBound = AtomicHistogram.upperBoundOf( i );
+            assertEquals( i, AtomicHistogram.bucketOf( upperBound - 1 ) );
+            assertEquals( i + 1, AtomicHistogram.bucketOf( upperBound ) );
+        }
+    }
+
+
+    @Test
+    public void percentiles() {
+        AtomicHistogram histogram = new AtomicHistogram();
+        assertEquals( 0, histogram.getPercentile( 0.99 ) );
+        for ( int i = 1; i <= 1000; i++ ) {
+            histogram.record( i * 1_000_000L );
+        }
+        assertEquals( 1000, histogram.getSamples() );
+        assertEquals( 500_500_000_000L, histogram.getSum() );
+        assertEquals( 1_000_000_000L, histogram.getMax() );
+        // Buckets are accurate to about twenty percent
+        assertEquals( 500e6, histogram.getPercentile( 0.5 ), 100e6 );
+        assertEquals( 990e6, histogram.getPercentile( 0.99 ), 198e6 );
+        assertEquals( 1_000_000_000L, histogram.getPercentile( 1 ) );
+    }
+
+
+    @Test
+    public void concurrentRecording() throws InterruptedException {
+        AtomicHistogram histogram = new AtomicHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for ( int t = 0; t < 4; t++ ) {
+            threads.add( new Thread( () -> {
+                for ( int i = 0; i < 100_000; i++ ) {
+                    histogram.record( i );
+                }
+            } ) );
+        }
+        threads.forEach( Thread::start );
+        for ( Thread thread : threads ) {
+            thread.join();
+        }
+        assertEquals( 400_000, histogram.getSamples() );
+        assertEquals( 4 * (99_999L * 100_000L / 2), histogram.getSum() );
+    }
+
+
+    @Test
+    public void openMetricsExposition() {
+        QueryMetrics metrics = new QueryMetrics();
+        metrics.record( QueryStage.PARSE, QueryLanguage.SQL, null, 2_000 );
+        metrics.record( QueryStage.PARSE, QueryLanguage.SQL, null, 3_000_000 );
+        metrics.record( QueryStage.COMMIT, null, "hsqldb", 500 );
+
+        assertEquals( 2, metrics.getHistogram( QueryStage.PARSE, "sql", QueryMetrics.NO_ADAPTER ).getSamples() );
+        assertEquals( 1, metrics.getHistogram( QueryStage.COMMIT, QueryMetrics.INTERNAL, "hsqldb" ).getSamples() );
+        assertNull( metrics.getHistogram( QueryStage.EXECUTE, "sql", QueryMetrics.NO_ADAPTER ) );
+
+        String exposition = metrics.toOpenMetrics();
+        assertTrue( exposition.startsWith( "# TYPE polypheny_query_stage_seconds histogram\n" ) );
+        assertTrue( exposition.endsWith( "# EOF\n" ) );
+        String labels = "stage=\"parse\",language=\"sql\",adapter=\"none\"";
+        assertTrue( exposition.contains( "polypheny_query_stage_seconds_bucket{" + labels + ",le=\"1.024E-6\"} 0\n" ) );
+        assertTrue( exposition.contains( "polypheny_query_stage_seconds_bucket{" + labels + ",le=\"2.048E-6\"} 1\n" ) );
+        assertTrue( exposition.contains( "polypheny_query_stage_seconds_bucket{" + labels + ",le=\"+Inf\"} 2\n" ) );
+        assertTrue( exposition.contains( "polypheny_query_stage_seconds_count{" + labels + "} 2\n" ) );
+        assertTrue( exposition.contains( "polypheny_query_stage_seconds_sum{" + labels + "} 0.003002\n" ) );
+        assertTrue( exposition.contains( "polypheny_query_stage_seconds_count{stage=\"commit\",language=\"internal\",adapter=\"hsqldb\"} 1\n" ) );
+
+        metrics.reset();
+        assertEquals( "# TYPE polypheny_query_stage_seconds histogram\n"
+                + "# UNIT polypheny_query_stage_seconds seconds\n"
+                + "# HELP polypheny_query_stage_seconds Latency of the stages of the query lifecycle.\n"
+                + "# EOF\n", metrics.toOpenMetrics() );
+    }
+
+
+    /**
+     * Measures the cost of recording a sample, i.e., the overhead added to every instrumented stage.
+     * Only executed if debug logging is enabled.
+     */
+    @Test
+    public void testPerformance() {
+        if ( !Benchmark.enabled() ) {
+            return;
+        }
+        final QueryMetrics metrics = new QueryMetrics();
+        final int samples = 1_000_000;
+        new Benchmark( "Record " + samples + " stage latencies", statistician -> {
+            long start = System.nanoTime();
+            for ( int i = 0; i < samples; i++ ) {
+                metrics.recordSince( QueryStage.EXECUTE, QueryLanguage.SQL, start );
+            }
+            statistician.record( start );
+            return null;
+        }, 10 ).run();
+    }
+
+}
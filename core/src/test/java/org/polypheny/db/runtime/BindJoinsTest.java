@@ -0,0 +1,197 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.runtime;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.linq4j.function.Function1;
+import org.junit.Test;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.adapter.DataContext.SlimDataContext;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.type.PolyType;
+
+
+/**
+ * Unit tests for {@link BindJoins}.
+ */
+public class BindJoinsTest {
+
+    private static final int OFFSET = 1000;
+
+    // deptno, name
+    private static final List<Object[]> DEPTS = Arrays.asList(
+            new Object[]{ 10, "Sales" },
+            new Object[]{ 20, "Marketing" },
+            new Object[]{ 30, "Engineering" },
+            new Object[]{ 40, "Empty" } );
+
+    // id, deptno
+    private static final List<Object[]> EMPS = Arrays.asList(
+            new Object[]{ 1, 10 },
+            new Object[]{ 2, 20 },
+            new Object[]{ 3, 10 },
+            new Object[]{ 4, null },
+            new Object[]{ 5, 50 },
+            new Object[]{ 6, 30 } );
+
+
+    /**
+     * Simulates a store which evaluates the filter of the bind join, i.e., returns the departments matching one of
+     * the bound parameters.
+     */
+    private static Function1<DataContext, Enumerable<Object>> depts( int batchSize, AtomicInteger executions ) {
+        return root -> {
+            executions.incrementAndGet();
+            final Map<Long, Object> values = root.getParameterValues().get( 0 );
+            final List<Object> result = new ArrayList<>();
+            for ( Object[] dept : DEPTS ) {
+                for ( int slot = 0; slot < batchSize; slot++ ) {
+                    if ( dept[0].equals( values.get( (long) OFFSET + slot ) ) ) {
+                        result.add( dept );
+                    }
+                }
+            }
+            return Linq4j.asEnumerable( result );
+        };
+    }
+
+
+    private static List<String> join( ParameterContext context, boolean generateNullsOnRight, int batchSize, AtomicInteger executions ) {
+        return BindJoins.join(
+                        context,
+                        Linq4j.asEnumerable( new ArrayList<>( EMPS ) ),
+                        depts( batchSize, executions ),
+                        emp -> ((Object[]) emp)[1],
+                        dept -> ((Object[]) dept)[0],
+                        ( emp, dept ) -> Arrays.toString( (Object[]) emp ) + " " + (dept == null ? null : ((Object[]) dept)[1]),
+                        true,
+                        false,
+                        generateNullsOnRight,
+                        Collections.singletonList( PolyType.INTEGER ),
+                        OFFSET,
+                        batchSize )
+                .select( Object::toString )
+                .toList()
+                .stream()
+                .sorted()
+                .collect( Collectors.toList() );
+    }
+
+
+    @Test
+    public void testInnerJoin() {
+        final ParameterContext context = new ParameterContext();
+        final AtomicInteger executions = new AtomicInteger();
+        assertEquals(
+                Arrays.asList( "[1, 10] Sales", "[2, 20] Marketing", "[3, 10] Sales", "[6, 30] Engineering" ),
+                join( context, false, 2, executions ) );
+        // Distinct keys 10, 20, 50 and 30 are bound in two batches
+        assertEquals( 2, executions.get() );
+    }
+
+
+    @Test
+    public void testLeftJoin() {
+        final ParameterContext context = new ParameterContext();
+        final AtomicInteger executions = new AtomicInteger();
+        assertEquals(
+                Arrays.asList( "[1, 10] Sales", "[2, 20] Marketing", "[3, 10] Sales", "[4, null] null", "[5, 50] null", "[6, 30] Engineering" ),
+                join( context, true, 100, executions ) );
+        assertEquals( 1, executions.get() );
+    }
+
+
+    @Test
+    public void testStatementContextUnchanged() {
+        final ParameterContext context = new ParameterContext();
+        final Map<Long, Object> values = new HashMap<>();
+        values.put( 0L, "statement parameter" );
+        final List<Map<Long, Object>> statementValues = new ArrayList<>( Collections.singletonList( values ) );
+        context.setParameterValues( statementValues );
+
+        final List<Object> seen = new ArrayList<>();
+        BindJoins.fetch(
+                context,
+                root -> {
+                    seen.add( root.getParameterValue( 0L ) );
+                    seen.add( root.getParameterValue( OFFSET ) );
+                    seen.add( root.getParameterType( OFFSET ).getPolyType() );
+                    return Linq4j.emptyEnumerable();
+                },
+                new LinkedHashSet<>( Arrays.asList( 1, 2, 3 ) ),
+                Collections.singletonList( PolyType.INTEGER ),
+                OFFSET,
+                2 );
+
+        // The target sees the parameters of the statement and the keys of its batch, the statement is left untouched
+        assertEquals( Arrays.asList( "statement parameter", 1, PolyType.INTEGER, "statement parameter", 3, PolyType.INTEGER ), seen );
+        assertSame( statementValues, context.getParameterValues() );
+        assertEquals( Collections.singletonList( values ), context.getParameterValues() );
+        assertEquals( 0, context.getParameterTypes().size() );
+    }
+
+
+    /**
+     * Data context which only keeps the values of dynamic parameters.
+     */
+    private static class ParameterContext extends SlimDataContext {
+
+        private List<Map<Long, Object>> values = new ArrayList<>();
+        private Map<Long, AlgDataType> types = new HashMap<>();
+
+
+        @Override
+        public List<Map<Long, Object>> getParameterValues() {
+            return values;
+        }
+
+
+        @Override
+        public void setParameterValues( List<Map<Long, Object>> values ) {
+            this.values = values;
+        }
+
+
+        @Override
+        public Map<Long, AlgDataType> getParameterTypes() {
+            return types;
+        }
+
+
+        @Override
+        public void setParameterTypes( Map<Long, AlgDataType> types ) {
+            this.types = types;
+        }
+
+    }
+
+}
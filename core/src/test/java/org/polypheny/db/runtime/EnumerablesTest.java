@@ -41,6 +41,7 @@
 import com.google.common.collect.Lists;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.EnumerableDefaults;
@@ -222,6 +223,34 @@ public void testThetaFullJoinBothEmpty() {
     }
 
 
+    @Test
+    public void testOrderByAndLimit() {
+        final Enumerable<Integer> numbers = Linq4j.asEnumerable( Arrays.asList( 5, 3, 9, 1, 7, 3, 8 ) );
+        assertThat(
+                Enumerables.orderByAndLimit( numbers, x -> x, null, 0, 3 ).toList().toString(),
+                equalTo( "[1, 3, 3]" ) );
+        assertThat(
+                Enumerables.orderByAndLimit( numbers, x -> x, null, 2, 3 ).toList().toString(),
+                equalTo( "[3, 5, 7]" ) );
+        assertThat(
+                Enumerables.orderByAndLimit( numbers, x -> x, Comparator.<Integer>reverseOrder(), 0, 2 ).toList().toString(),
+                equalTo( "[9, 8]" ) );
+        assertThat(
+                Enumerables.orderByAndLimit( numbers, x -> x, null, 5, 10 ).toList().toString(),
+                equalTo( "[8, 9]" ) );
+        assertThat(
+                Enumerables.orderByAndLimit( numbers, x -> x, null, 0, 0 ).toList().toString(),
+                equalTo( "[]" ) );
+        // LIMIT 2147483647 OFFSET 1
+        assertThat(
+                Enumerables.orderByAndLimit( numbers, x -> x, null, 1, Integer.MAX_VALUE ).toList().toString(),
+                equalTo( "[3, 3, 5, 7, 8, 9]" ) );
+        assertThat(
+                Enumerables.orderByAndLimit( EMPS, emp -> emp.deptno, null, 0, 1 ).toList().toString(),
+                equalTo( "[Emp(10, Fred)]" ) );
+    }
+
+
     /**
      * Employee record.
      */
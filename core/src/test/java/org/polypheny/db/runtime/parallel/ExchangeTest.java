@@ -0,0 +1,185 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.runtime.parallel;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.junit.Test;
+import org.polypheny.db.runtime.vector.VectorAggFunction;
+import org.polypheny.db.runtime.vector.VectorBatch;
+import org.polypheny.db.runtime.vector.VectorBatches;
+import org.polypheny.db.runtime.vector.VectorColumnType;
+import org.polypheny.db.runtime.vector.VectorHashAggregate;
+import org.polypheny.db.runtime.vector.VectorHashJoin;
+
+
+/**
+ * Unit tests for the parallel operators in {@link org.polypheny.db.runtime.parallel}.
+ */
+public class ExchangeTest {
+
+    private static final VectorColumnType[] TYPES = { VectorColumnType.INTEGER, VectorColumnType.INTEGER };
+
+
+    private static List<Object[]> rows( int count, int keys, long seed ) {
+        final Random random = new Random( seed );
+        final List<Object[]> rows = new ArrayList<>( count );
+        for ( int i = 0; i < count; i++ ) {
+            rows.add( new Object[]{ i, random.nextInt( keys ) } );
+        }
+        return rows;
+    }
+
+
+    private static Enumerable<VectorBatch> batches( List<Object[]> rows ) {
+        return VectorBatches.toBatches( Linq4j.asEnumerable( rows ), TYPES, false, 100 );
+    }
+
+
+    private static List<String> sorted( Enumerable<VectorBatch> batches ) {
+        return VectorBatches.toRows( batches ).select( Arrays::toString ).toList().stream().sorted().collect( Collectors.toList() );
+    }
+
+
+    @Test
+    public void testUnion() {
+        @SuppressWarnings("unchecked") final Enumerable<Integer>[] inputs = new Enumerable[4];
+        final List<Integer> expected = new ArrayList<>();
+        for ( int i = 0; i < inputs.length; i++ ) {
+            final List<Integer> values = new ArrayList<>();
+            for ( int j = 0; j < 5000; j++ ) {
+                values.add( i * 5000 + j );
+            }
+            expected.addAll( values );
+            inputs[i] = Linq4j.asEnumerable( values );
+        }
+        // The first and the last input read from the same store and must not run concurrently
+        final int[] groups = { 0, 1, 2, 0 };
+        for ( int parallelism : new int[]{ 1, 2, 4 } ) {
+            final List<Integer> result = new ArrayList<>( Exchange.union( inputs, groups, parallelism ).toList() );
+            Collections.sort( result );
+            assertEquals( expected, result );
+        }
+    }
+
+
+    @Test
+    public void testFailure() {
+        final Enumerable<Integer> failing = new AbstractEnumerable<Integer>() {
+            @Override
+            public Enumerator<Integer> enumerator() {
+                throw new IllegalStateException( "Store unavailable" );
+            }
+        };
+        @SuppressWarnings("unchecked") final Enumerable<Integer>[] inputs = new Enumerable[]{ Linq4j.asEnumerable( Arrays.asList( 1, 2, 3 ) ), failing };
+        try {
+            Exchange.union( inputs, new int[]{ 0, 1 }, 2 ).toList();
+            fail( "Expected the failure of the second input to be propagated" );
+        } catch ( IllegalStateException e ) {
+            assertEquals( "Store unavailable", e.getMessage() );
+        }
+    }
+
+
+    @Test
+    public void testCloseWaitsForWorkers() {
+        final AtomicInteger open = new AtomicInteger();
+        final List<Enumerable<Integer>> tasks = new ArrayList<>();
+        for ( int i = 0; i < 4; i++ ) {
+            tasks.add( new AbstractEnumerable<Integer>() {
+                @Override
+                public Enumerator<Integer> enumerator() {
+                    open.incrementAndGet();
+                    return new Enumerator<Integer>() {
+                        @Override
+                        public Integer current() {
+                            return 1;
+                        }
+
+
+                        @Override
+                        public boolean moveNext() {
+                            try {
+                                Thread.sleep( 1 );
+                            } catch ( InterruptedException e ) {
+                                throw new RuntimeException( e );
+                            }
+                            return true;
+                        }
+
+
+                        @Override
+                        public void reset() {
+                        }
+
+
+                        @Override
+                        public void close() {
+                            open.decrementAndGet();
+                        }
+                    };
+                }
+            } );
+        }
+        final Enumerator<Integer> enumerator = Exchange.gather( tasks, 4, 8, null ).enumerator();
+        for ( int i = 0; i < 100; i++ ) {
+            enumerator.moveNext();
+        }
+        enumerator.close();
+        assertEquals( 0, open.get() );
+    }
+
+
+    @Test
+    public void testParallelHashJoin() {
+        final List<Object[]> left = rows( 20_000, 500, 1 );
+        final List<Object[]> right = rows( 1_000, 500, 2 );
+        final VectorHashJoin join = new VectorHashJoin( new int[]{ 1 }, new int[]{ 1 }, TYPES, TYPES, true, 256 );
+        final List<String> expected = sorted( join.apply( batches( left ), batches( right ) ) );
+        assertEquals( expected, sorted( join.applyParallel( batches( left ), batches( right ), 4 ) ) );
+    }
+
+
+    @Test
+    public void testParallelAggregate() {
+        final List<Object[]> input = rows( 20_000, 500, 3 );
+        final VectorHashAggregate aggregate = new VectorHashAggregate(
+                new int[]{ 1 },
+                new VectorAggFunction[]{ VectorAggFunction.COUNT_STAR, VectorAggFunction.SUM, VectorAggFunction.MIN, VectorAggFunction.MAX },
+                new int[]{ -1, 0, 0, 0 },
+                new VectorColumnType[]{ VectorColumnType.INTEGER, VectorColumnType.LONG, VectorColumnType.LONG, VectorColumnType.INTEGER, VectorColumnType.INTEGER },
+                256 );
+        final List<String> expected = sorted( aggregate.apply( batches( input ) ) );
+        assertEquals( 500, expected.size() );
+        assertEquals( expected, sorted( aggregate.applyParallel( batches( input ), 4 ) ) );
+    }
+
+}
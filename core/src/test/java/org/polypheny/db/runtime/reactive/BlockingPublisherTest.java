@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.reactive;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+
+public class BlockingPublisherTest {
+
+    @Test
+    public void respectsDemand() {
+        CloseableIterator source = new CloseableIterator( 10 );
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        // The executor runs the tasks directly, hence all signals arrive before request() returns
+        new BlockingPublisher<Integer>( () -> source, Runnable::run ).subscribe( subscriber );
+        assertFalse( source.opened );
+
+        subscriber.subscription.request( 3 );
+        assertEquals( List.of( 0, 1, 2 ), subscriber.elements );
+        assertFalse( subscriber.completed );
+
+        subscriber.subscription.request( 7 );
+        assertEquals( 10, subscriber.elements.size() );
+        assertFalse( subscriber.completed );
+
+        subscriber.subscription.request( 1 );
+        assertTrue( subscriber.completed );
+        assertTrue( source.closed );
+    }
+
+
+    @Test
+    public void cancelClosesIterator() {
+        CloseableIterator source = new CloseableIterator( 10 );
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new BlockingPublisher<Integer>( () -> source, Runnable::run ).subscribe( subscriber );
+
+        subscriber.subscription.request( 2 );
+        subscriber.subscription.cancel();
+        assertTrue( source.closed );
+        subscriber.subscription.request( 5 );
+        assertEquals( 2, subscriber.elements.size() );
+        assertFalse( subscriber.completed );
+        assertEquals( null, subscriber.error );
+    }
+
+
+    @Test
+    public void invalidRequest() {
+        CloseableIterator source = new CloseableIterator( 10 );
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new BlockingPublisher<Integer>( () -> source, Runnable::run ).subscribe( subscriber );
+
+        subscriber.subscription.request( 1 );
+        subscriber.subscription.request( 0 );
+        assertTrue( subscriber.error instanceof IllegalArgumentException );
+        assertTrue( source.closed );
+    }
+
+
+    @Test
+    public void singleSubscriber() {
+        BlockingPublisher<Integer> publisher = new BlockingPublisher<>( () -> new CloseableIterator( 1 ), Runnable::run );
+        RecordingSubscriber first = new RecordingSubscriber();
+        RecordingSubscriber second = new RecordingSubscriber();
+        publisher.subscribe( first );
+        publisher.subscribe( second );
+        assertEquals( null, first.error );
+        assertTrue( second.error instanceof IllegalStateException );
+    }
+
+
+    @Test
+    public void failingSource() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new BlockingPublisher<Integer>( () -> {
+            throw new RuntimeException( "Test" );
+        }, Runnable::run ).subscribe( subscriber );
+
+        subscriber.subscription.request( 1 );
+        assertEquals( "Test", subscriber.error.getMessage() );
+    }
+
+
+    private static class CloseableIterator implements Iterator<Integer>, AutoCloseable {
+
+        private final Iterator<Integer> iterator;
+        private boolean opened = false;
+        private boolean closed = false;
+
+
+        CloseableIterator( int size ) {
+            this.iterator = IntStream.range( 0, size ).iterator();
+        }
+
+
+        @Override
+        public boolean hasNext() {
+            opened = true;
+            return iterator.hasNext();
+        }
+
+
+        @Override
+        public Integer next() {
+            return iterator.next();
+        }
+
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+    }
+
+
+    private static class RecordingSubscriber implements Flow.Subscriber<Integer> {
+
+        private final List<Integer> elements = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private boolean completed = false;
+        private Throwable error;
+
+
+        @Override
+        public void onSubscribe( Flow.Subscription subscription ) {
+            this.subscription = subscription;
+        }
+
+
+        @Override
+        public void onNext( Integer item ) {
+            elements.add( item );
+        }
+
+
+        @Override
+        public void onError( Throwable throwable ) {
+            error = throwable;
+        }
+
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+
+    }
+
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.runtime.vector;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Linq4j;
+import org.junit.Test;
+import org.polypheny.db.util.Benchmark;
+
+
+/**
+ * Unit tests for the vectorized execution kernels in {@link org.polypheny.db.runtime.vector}.
+ */
+public class VectorExecutionTest {
+
+    private static final VectorColumnType[] EMP_TYPES = {
+            VectorColumnType.INTEGER, VectorColumnType.INTEGER, VectorColumnType.DOUBLE, VectorColumnType.OBJECT };
+
+    // id, deptno, salary, name
+    private static final List<Object[]> EMPS = Arrays.asList(
+            new Object[]{ 1, 10, 100.0, "Bill" },
+            new Object[]{ 2, 20, 8.5, "Eric" },
+            new Object[]{ 3, 10, 11.0, "Sebastian" },
+            new Object[]{ 4, null, 50.0, "Theodore" },
+            new Object[]{ 5, 30, null, "Marjorie" },
+            new Object[]{ 6, 20, 25.0, null },
+            new Object[]{ 7, 10, 7.0, "Alice" } );
+
+
+    private static Enumerable<VectorBatch> emps() {
+        // Small batches to cover the batch boundaries
+        return VectorBatches.toBatches( Linq4j.asEnumerable( EMPS ), EMP_TYPES, false, 3 );
+    }
+
+
+    private static List<String> toStrings( Enumerable<VectorBatch> batches ) {
+        return VectorBatches.toRows( batches ).select( Arrays::toString ).toList();
+    }
+
+
+    private static List<String> sorted( List<String> list ) {
+        return list.stream().sorted().collect( Collectors.toList() );
+    }
+
+
+    @Test
+    public void testRoundTrip() {
+        List<String> expected = EMPS.stream().map( Arrays::toString ).collect( Collectors.toList() );
+        assertEquals( expected, toStrings( emps() ) );
+        assertEquals(
+                Arrays.asList( 10, 20, 10, null, 30, 20, 10 ),
+                VectorBatches.toScalars( VectorBatches.project( emps(), new int[]{ 1 } ) ).toList() );
+    }
+
+
+    @Test
+    public void testFilter() {
+        // salary > 10 AND deptno IS NOT NULL
+        VectorPredicate predicate = VectorPredicates.and(
+                VectorPredicates.compareConstant( 2, VectorComparison.GREATER_THAN, 10L ),
+                VectorPredicates.isNotNull( 1 ) );
+        assertEquals(
+                Arrays.asList( "[1, 10, 100.0, Bill]", "[3, 10, 11.0, Sebastian]", "[6, 20, 25.0, null]" ),
+                toStrings( VectorPredicates.filter( emps(), predicate, null ) ) );
+
+        // deptno = 20 OR name < 'C'
+        predicate = VectorPredicates.or(
+                VectorPredicates.compareConstant( 1, VectorComparison.EQUALS, 20L ),
+                VectorPredicates.compareConstant( 3, VectorComparison.LESS_THAN, "C" ) );
+        assertEquals(
+                Arrays.asList( "[1, 10, 100.0, Bill]", "[2, 20, 8.5, Eric]", "[6, 20, 25.0, null]", "[7, 10, 7.0, Alice]" ),
+                toStrings( VectorPredicates.filter( emps(), predicate, null ) ) );
+
+        // id < deptno AND id <= 2.5, the latter compares an integer column with a fractional constant
+        predicate = VectorPredicates.and(
+                VectorPredicates.compareColumns( 0, VectorComparison.LESS_THAN, 1 ),
+                VectorPredicates.compareConstant( 0, VectorComparison.LESS_THAN_OR_EQUAL, 2.5d ) );
+        assertEquals(
+                Arrays.asList( "[1, 10, 100.0, Bill]", "[2, 20, 8.5, Eric]" ),
+                toStrings( VectorPredicates.filter( emps(), predicate, null ) ) );
+
+        assertEquals(
+                Arrays.asList( "[4, null, 50.0, Theodore]" ),
+                toStrings( VectorPredicates.filter( emps(), VectorPredicates.isNull( 1 ), null ) ) );
+    }
+
+
+    @Test
+    public void testAggregate() {
+        // SELECT deptno, COUNT(*), COUNT(salary), SUM(salary), MIN(id), MAX(name) GROUP BY deptno
+        VectorHashAggregate aggregate = new VectorHashAggregate(
+                new int[]{ 1 },
+                new VectorAggFunction[]{ VectorAggFunction.COUNT_STAR, VectorAggFunction.COUNT, VectorAggFunction.SUM, VectorAggFunction.MIN, VectorAggFunction.MAX },
+                new int[]{ -1, 2, 2, 0, 3 },
+                new VectorColumnType[]{ VectorColumnType.INTEGER, VectorColumnType.LONG, VectorColumnType.LONG, VectorColumnType.DOUBLE, VectorColumnType.INTEGER, VectorColumnType.OBJECT },
+                2 );
+        assertEquals(
+                Arrays.asList(
+                        "[10, 3, 3, 118.0, 1, Sebastian]",
+                        "[20, 2, 2, 33.5, 2, Eric]",
+                        "[30, 1, 0, null, 5, Marjorie]",
+                        "[null, 1, 1, 50.0, 4, Theodore]" ),
+                sorted( toStrings( aggregate.apply( emps() ) ) ) );
+
+        // Global aggregate over an empty input
+        aggregate = new VectorHashAggregate(
+                new int[0],
+                new VectorAggFunction[]{ VectorAggFunction.COUNT_STAR, VectorAggFunction.SUM, VectorAggFunction.SUM0 },
+                new int[]{ -1, 0, 0 },
+                new VectorColumnType[]{ VectorColumnType.LONG, VectorColumnType.INTEGER, VectorColumnType.INTEGER },
+                2 );
+        Enumerable<VectorBatch> empty = VectorPredicates.filter( emps(), VectorPredicates.compareConstant( 0, VectorComparison.GREATER_THAN, 100L ), null );
+        assertEquals( Arrays.asList( "[0, null, 0]" ), toStrings( aggregate.apply( empty ) ) );
+    }
+
+
+    @Test
+    public void testHashJoin() {
+        List<Object[]> depts = Arrays.asList(
+                new Object[]{ 10, "Sales" },
+                new Object[]{ 20, "Marketing" },
+                new Object[]{ 20, "Marketing 2" },
+                new Object[]{ 40, "Empty" },
+                new Object[]{ null, "None" } );
+        VectorColumnType[] deptTypes = { VectorColumnType.INTEGER, VectorColumnType.OBJECT };
+        Enumerable<VectorBatch> deptBatches = VectorBatches.toBatches( Linq4j.asEnumerable( depts ), deptTypes, false, 2 );
+
+        VectorHashJoin join = new VectorHashJoin( new int[]{ 1 }, new int[]{ 0 }, EMP_TYPES, deptTypes, false, 2 );
+        assertEquals(
+                Arrays.asList(
+                        "[1, 10, 100.0, Bill, 10, Sales]",
+                        "[2, 20, 8.5, Eric, 20, Marketing 2]",
+                        "[2, 20, 8.5, Eric, 20, Marketing]",
+                        "[3, 10, 11.0, Sebastian, 10, Sales]",
+                        "[6, 20, 25.0, null, 20, Marketing 2]",
+                        "[6, 20, 25.0, null, 20, Marketing]",
+                        "[7, 10, 7.0, Alice, 10, Sales]" ),
+                sorted( toStrings( join.apply( emps(), deptBatches ) ) ) );
+
+        join = new VectorHashJoin( new int[]{ 1 }, new int[]{ 0 }, EMP_TYPES, deptTypes, true, 2 );
+        List<String> result = sorted( toStrings( join.apply( emps(), deptBatches ) ) );
+        assertEquals( 9, result.size() );
+        assertEquals( "[4, null, 50.0, Theodore, null, null]", result.get( 4 ) );
+        assertEquals( "[5, 30, null, Marjorie, null, null]", result.get( 5 ) );
+    }
+
+
+    /**
+     * Compares the row-based linq4j operators with the vectorized kernels on queries similar to TPC-H Q1 and Q3.
+     * Only executed if debug logging is enabled.
+     */
+    @Test
+    public void testPerformance() {
+        if ( !Benchmark.enabled() ) {
+            return;
+        }
+        final int lineitemCount = 2_000_000;
+        final int orderCount = lineitemCount / 4;
+        final Random random = new Random( 42 );
+        // orderkey, quantity, extendedprice, discount, returnflag, shipdate
+        final List<Object[]> lineitem = new ArrayList<>( lineitemCount );
+        for ( int i = 0; i < lineitemCount; i++ ) {
+            lineitem.add( new Object[]{
+                    random.nextInt( orderCount ),
+                    1 + random.nextInt( 50 ),
+                    random.nextDouble() * 1000,
+                    random.nextInt( 10 ) / 100.0,
+                    random.nextInt( 3 ),
+                    random.nextInt( 2500 ) } );
+        }
+        final VectorColumnType[] lineitemTypes = {
+                VectorColumnType.INTEGER, VectorColumnType.INTEGER, VectorColumnType.DOUBLE,
+                VectorColumnType.DOUBLE, VectorColumnType.INTEGER, VectorColumnType.INTEGER };
+        // orderkey, orderdate
+        final List<Object[]> orders = new ArrayList<>( orderCount );
+        for ( int i = 0; i < orderCount; i++ ) {
+            orders.add( new Object[]{ i, random.nextInt( 2500 ) } );
+        }
+        final VectorColumnType[] orderTypes = { VectorColumnType.INTEGER, VectorColumnType.INTEGER };
+
+        // Q1: SELECT returnflag, SUM(quantity), SUM(extendedprice), COUNT(*) FROM lineitem WHERE shipdate <= 2400 GROUP BY returnflag
+        final long[] q1Rows = new long[1];
+        new Benchmark( "Q1 row-based", statistician -> {
+            long start = System.nanoTime();
+            List<Object[]> result = Linq4j.asEnumerable( lineitem )
+                    .where( row -> (Integer) row[5] <= 2400 )
+                    .groupBy(
+                            row -> row[4],
+                            () -> new Object[]{ 0L, 0.0, 0L },
+                            ( acc, row ) -> {
+                                acc[0] = (Long) acc[0] + (Integer) row[1];
+                                acc[1] = (Double) acc[1] + (Double) row[2];
+                                acc[2] = (Long) acc[2] + 1;
+                                return acc;
+                            },
+                            ( key, acc ) -> new Object[]{ key, acc[0], acc[1], acc[2] } )
+                    .toList();
+            statistician.record( start );
+            q1Rows[0] = result.stream().mapToLong( row -> (Long) row[3] ).sum();
+            return null;
+        }, 10 ).run();
+
+        final VectorHashAggregate q1Aggregate = new VectorHashAggregate(
+                new int[]{ 4 },
+                new VectorAggFunction[]{ VectorAggFunction.SUM, VectorAggFunction.SUM, VectorAggFunction.COUNT_STAR },
+                new int[]{ 1, 2, -1 },
+                new VectorColumnType[]{ VectorColumnType.INTEGER, VectorColumnType.LONG, VectorColumnType.DOUBLE, VectorColumnType.LONG },
+                2048 );
+        final VectorPredicate q1Predicate = VectorPredicates.compareConstant( 5, VectorComparison.LESS_THAN_OR_EQUAL, 2400L );
+        // Convert once, the batches are what a vectorized scan would produce
+        final List<VectorBatch> lineitemBatches = VectorBatches.toBatches( Linq4j.asEnumerable( lineitem ), lineitemTypes, false, 2048 ).toList();
+        new Benchmark( "Q1 vectorized", statistician -> {
+            long start = System.nanoTime();
+            for ( VectorBatch batch : lineitemBatches ) {
+                batch.select( null, 0 );
+            }
+            List<Object[]> result = VectorBatches.toRows(
+                    q1Aggregate.apply( VectorPredicates.filter( Linq4j.asEnumerable( lineitemBatches ), q1Predicate, null ) ) ).toList();
+            statistician.record( start );
+            assertEquals( q1Rows[0], result.stream().mapToLong( row -> (Long) row[3] ).sum() );
+            return null;
+        }, 10 ).run();
+
+        // Q3: SELECT l.orderkey, SUM(l.extendedprice) FROM orders o JOIN lineitem l ON o.orderkey = l.orderkey WHERE o.orderdate < 1000 GROUP BY l.orderkey
+        final long[] q3Groups = new long[1];
+        new Benchmark( "Q3 row-based", statistician -> {
+            long start = System.nanoTime();
+            Map<Object, Double> result = new HashMap<>();
+            Linq4j.asEnumerable( lineitem )
+                    .join(
+                            Linq4j.asEnumerable( orders ).where( row -> (Integer) row[1] < 1000 ),
+                            row -> row[0],
+                            row -> row[0],
+                            ( l, o ) -> new Object[]{ l[0], l[2] } )
+                    .forEach( row -> result.merge( row[0], (Double) row[1], Double::sum ) );
+            statistician.record( start );
+            q3Groups[0] = result.size();
+            return null;
+        }, 10 ).run();
+
+        final List<VectorBatch> orderBatches = VectorBatches.toBatches( Linq4j.asEnumerable( orders ), orderTypes, false, 2048 ).toList();
+        final VectorPredicate q3Predicate = VectorPredicates.compareConstant( 1, VectorComparison.LESS_THAN, 1000L );
+        final VectorHashJoin q3Join = new VectorHashJoin( new int[]{ 0 }, new int[]{ 0 }, lineitemTypes, orderTypes, false, 2048 );
+        final VectorHashAggregate q3Aggregate = new VectorHashAggregate(
+                new int[]{ 0 },
+                new VectorAggFunction[]{ VectorAggFunction.SUM },
+                new int[]{ 2 },
+                new VectorColumnType[]{ VectorColumnType.INTEGER, VectorColumnType.DOUBLE },
+                2048 );
+        new Benchmark( "Q3 vectorized", statistician -> {
+            long start = System.nanoTime();
+            for ( VectorBatch batch : lineitemBatches ) {
+                batch.select( null, 0 );
+            }
+            for ( VectorBatch batch : orderBatches ) {
+                batch.select( null, 0 );
+            }
+            Enumerable<VectorBatch> filteredOrders = VectorPredicates.filter( Linq4j.asEnumerable( orderBatches ), q3Predicate, null );
+            long groups = q3Aggregate.apply( q3Join.apply( Linq4j.asEnumerable( lineitemBatches ), filteredOrders ) )
+                    .select( VectorBatch::count )
+                    .aggregate( 0L, ( sum, count ) -> sum + count );
+            statistician.record( start );
+            assertEquals( q3Groups[0], groups );
+            return null;
+        }, 10 ).run();
+    }
+
+}
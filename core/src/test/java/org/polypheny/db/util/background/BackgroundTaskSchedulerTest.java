@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.util.background;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+import org.polypheny.db.util.background.BackgroundTask.TaskPriority;
+import org.polypheny.db.util.background.BackgroundTask.TaskSchedulingType;
+
+
+/**
+ * Tests for the {@link BackgroundTaskScheduler} shared by all background tasks.
+ */
+public class BackgroundTaskSchedulerTest {
+
+    @Test
+    public void higherPriorityRunsFirst() throws InterruptedException {
+        BackgroundTaskScheduler scheduler = new BackgroundTaskScheduler( 1, false );
+        try {
+            CountDownLatch blocker = new CountDownLatch( 1 );
+            CountDownLatch done = new CountDownLatch( 3 );
+            List<TaskPriority> order = new CopyOnWriteArrayList<>();
+
+            // Occupy the only worker, so that the following tasks are queued
+            scheduler.dispatch( () -> {
+                try {
+                    blocker.await();
+                } catch ( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                }
+            }, TaskPriority.LOW );
+            for ( TaskPriority priority : Arrays.asList( TaskPriority.LOW, TaskPriority.MEDIUM, TaskPriority.HIGH ) ) {
+                scheduler.dispatch( () -> {
+                    order.add( priority );
+                    done.countDown();
+                }, priority );
+            }
+            blocker.countDown();
+
+            assertTrue( done.await( 10, TimeUnit.SECONDS ) );
+            assertEquals( Arrays.asList( TaskPriority.HIGH, TaskPriority.MEDIUM, TaskPriority.LOW ), order );
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+
+    @Test
+    public void overlappingRunsAreSkipped() throws InterruptedException {
+        BackgroundTaskScheduler scheduler = new BackgroundTaskScheduler( 2, false );
+        try {
+            CountDownLatch started = new CountDownLatch( 1 );
+            CountDownLatch blocker = new CountDownLatch( 1 );
+            BackgroundTaskHandle handle = new BackgroundTaskHandle(
+                    "test",
+                    () -> {
+                        started.countDown();
+                        try {
+                            blocker.await();
+                        } catch ( InterruptedException e ) {
+                            Thread.currentThread().interrupt();
+                        }
+                    },
+                    "Slow task",
+                    TaskPriority.MEDIUM,
+                    TaskSchedulingType.EVERY_SECOND_FIXED,
+                    scheduler );
+
+            assertTrue( started.await( 10, TimeUnit.SECONDS ) );
+            // The task is blocked; let the timer fire at least twice more
+            Thread.sleep( 2500 );
+            blocker.countDown();
+            handle.stop();
+
+            assertTrue( handle.getSkipCount() >= 2 );
+            assertEquals( 0, scheduler.getQueueSize() );
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+
+    @Test
+    public void delayedTaskIsRescheduledAfterRejectedDispatch() throws InterruptedException {
+        AtomicBoolean rejected = new AtomicBoolean( false );
+        BackgroundTaskScheduler scheduler = new BackgroundTaskScheduler( 1, false ) {
+            @Override
+            void dispatch( Runnable runnable, TaskPriority priority ) {
+                if ( rejected.compareAndSet( false, true ) ) {
+                    throw new RejectedExecutionException( "Rejected for testing" );
+                }
+                super.dispatch( runnable, priority );
+            }
+        };
+        try {
+            CountDownLatch executed = new CountDownLatch( 1 );
+            BackgroundTaskHandle handle = new BackgroundTaskHandle(
+                    "test",
+                    executed::countDown,
+                    "Delayed task",
+                    TaskPriority.MEDIUM,
+                    TaskSchedulingType.EVERY_SECOND,
+                    scheduler );
+
+            assertTrue( executed.await( 10, TimeUnit.SECONDS ) );
+            assertTrue( rejected.get() );
+            handle.stop();
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+}
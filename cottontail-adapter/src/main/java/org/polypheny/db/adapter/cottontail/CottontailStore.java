@@ -98,6 +98,8 @@
 @AdapterSettingInteger(name = "port", defaultValue = 1865, position = 2)
 @AdapterSettingString(name = "database", defaultValue = "cottontail", position = 3)
 @AdapterSettingList(name = "engine", options = { "MAPDB", "HARE" }, position = 4)
+@AdapterSettingInteger(name = "maxMessageSize", description = "Upper bound for the size of a single insert message in bytes, at most 4194304. Larger batches are split into several messages.", defaultValue = CottontailWrapper.DEFAULT_MAX_MESSAGE_SIZE, position = 5, required = false, modifiable = true)
+@AdapterSettingInteger(name = "maxConcurrentQueries", description = "Maximum number of queries which are executed concurrently, e.g., for the parameter sets of a batch or the partitions of a table. With 1, the queries of a batch are sent as one batch.", defaultValue = CottontailWrapper.DEFAULT_MAX_CONCURRENT_QUERIES, position = 6, required = false, modifiable = true)
 public class CottontailStore extends DataStore {
 
     // Running embedded
@@ -161,6 +163,8 @@ public CottontailStore( int storeId, String uniqueName, Map<String, String> sett
 
         final ManagedChannel channel = NettyChannelBuilder.forAddress( this.dbHostname, this.dbPort ).usePlaintext().build();
         this.wrapper = new CottontailWrapper( channel, this );
+        this.wrapper.setMaxMessageSize( Integer.parseInt( settings.getOrDefault( "maxMessageSize", "" + CottontailWrapper.DEFAULT_MAX_MESSAGE_SIZE ) ) );
+        this.wrapper.setMaxConcurrentQueries( Integer.parseInt( settings.getOrDefault( "maxConcurrentQueries", "" + CottontailWrapper.DEFAULT_MAX_CONCURRENT_QUERIES ) ) );
         this.wrapper.checkedCreateSchemaBlocking(
                 CottontailGrpc.CreateSchemaMessage.newBuilder().setSchema( SchemaName.newBuilder().setName( this.dbName ) ).build()
         );
@@ -697,8 +701,25 @@ public void shutdown() {
 
 
     @Override
-    protected void reloadSettings( List<String> updatedSettings ) {
+    protected void validateSettings( Map<String, String> newSettings, boolean initialSetup ) {
+        super.validateSettings( newSettings, initialSetup );
+        if ( newSettings.get( "maxMessageSize" ) != null ) {
+            final int maxMessageSize = Integer.parseInt( newSettings.get( "maxMessageSize" ) );
+            if ( maxMessageSize < 1 || maxMessageSize > CottontailWrapper.MAX_CHANNEL_MESSAGE_SIZE ) {
+                throw new RuntimeException( "The maximum message size must be between 1 and " + CottontailWrapper.MAX_CHANNEL_MESSAGE_SIZE + " bytes." );
+            }
+        }
+    }
+
 
+    @Override
+    protected void reloadSettings( List<String> updatedSettings ) {
+        if ( updatedSettings.contains( "maxMessageSize" ) ) {
+            this.wrapper.setMaxMessageSize( Integer.parseInt( settings.get( "maxMessageSize" ) ) );
+        }
+        if ( updatedSettings.contains( "maxConcurrentQueries" ) ) {
+            this.wrapper.setMaxConcurrentQueries( Integer.parseInt( settings.get( "maxConcurrentQueries" ) ) );
+        }
     }
 
 }
@@ -16,17 +16,32 @@
 
 package org.polypheny.db.adapter.cottontail;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import io.grpc.Context;
+import io.grpc.Context.CancellableContext;
 import io.grpc.ManagedChannel;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.polypheny.db.transaction.PolyXid;
 import org.polypheny.db.transaction.Transaction;
 import org.vitrivr.cottontail.client.SimpleClient;
 import org.vitrivr.cottontail.client.iterators.Tuple;
 import org.vitrivr.cottontail.client.iterators.TupleIterator;
+import org.vitrivr.cottontail.client.iterators.TupleIteratorImpl;
 import org.vitrivr.cottontail.grpc.CottontailGrpc;
 import org.vitrivr.cottontail.grpc.CottontailGrpc.BatchInsertMessage;
 import org.vitrivr.cottontail.grpc.CottontailGrpc.ColumnName;
@@ -41,8 +56,13 @@
 import org.vitrivr.cottontail.grpc.CottontailGrpc.InsertMessage;
 import org.vitrivr.cottontail.grpc.CottontailGrpc.ListSchemaMessage;
 import org.vitrivr.cottontail.grpc.CottontailGrpc.QueryMessage;
+import org.vitrivr.cottontail.grpc.CottontailGrpc.QueryResponseMessage;
 import org.vitrivr.cottontail.grpc.CottontailGrpc.TruncateEntityMessage;
 import org.vitrivr.cottontail.grpc.CottontailGrpc.UpdateMessage;
+import org.vitrivr.cottontail.grpc.DMLGrpc;
+import org.vitrivr.cottontail.grpc.DMLGrpc.DMLFutureStub;
+import org.vitrivr.cottontail.grpc.DQLGrpc;
+import org.vitrivr.cottontail.grpc.DQLGrpc.DQLStub;
 
 
 /**
@@ -53,6 +73,24 @@ public class CottontailWrapper implements AutoCloseable {
 
     private static final long MAX_QUERY_CALL_TIMEOUT = 300_000; // TODO expose to config
 
+    public static final int DEFAULT_MAX_MESSAGE_SIZE = 4_000_000;
+
+    /**
+     * Largest message Cottontail DB accepts; the default limit of gRPC for inbound messages.
+     */
+    public static final int MAX_CHANNEL_MESSAGE_SIZE = 4 * 1024 * 1024;
+    public static final int DEFAULT_MAX_CONCURRENT_QUERIES = 4;
+
+    /**
+     * Number of response messages of a concurrently executed query which are requested before they are consumed.
+     */
+    private static final int PREFETCH_MESSAGES = 2;
+
+    /**
+     * Marks the end of the responses of a concurrently executed query.
+     */
+    private static final Object COMPLETED = new Object();
+
     /**
      * The {@link ManagedChannel} used by this {@link CottontailWrapper}.
      */
@@ -73,6 +111,31 @@ public class CottontailWrapper implements AutoCloseable {
      */
     private final CottontailStore store;
 
+    /**
+     * The asynchronous stub used for pipelined inserts.
+     */
+    private final DMLFutureStub dmlStub;
+
+    /**
+     * The asynchronous stub used for queries which are executed concurrently.
+     */
+    private final DQLStub dqlStub;
+
+    /**
+     * Upper bound for the serialized size of a single {@link BatchInsertMessage} in bytes.
+     */
+    @Getter
+    @Setter
+    private volatile int maxMessageSize = DEFAULT_MAX_MESSAGE_SIZE;
+
+    /**
+     * Maximum number of queries which are executed concurrently, e.g., for the parameter sets of a batch or the
+     * partitions of a table.
+     */
+    @Getter
+    @Setter
+    private volatile int maxConcurrentQueries = DEFAULT_MAX_CONCURRENT_QUERIES;
+
 
     /**
      * Default constructor.
@@ -84,6 +147,8 @@ public CottontailWrapper( ManagedChannel channel, CottontailStore store ) {
         this.store = store;
         this.channel = channel;
         this.client = new SimpleClient( this.channel );
+        this.dmlStub = DMLGrpc.newFutureStub( this.channel );
+        this.dqlStub = DQLGrpc.newStub( this.channel );
     }
 
 
@@ -316,6 +381,18 @@ public boolean insert( BatchInsertMessage message ) {
     }
 
 
+    /**
+     * Sends a {@link BatchInsertMessage} without waiting for the response. This allows building the next message while
+     * Cottontail DB is processing the previous one.
+     *
+     * @param message The {@link BatchInsertMessage} to send.
+     * @return A future which completes with the response or fails with a {@link StatusRuntimeException}.
+     */
+    public ListenableFuture<QueryResponseMessage> insertAsync( BatchInsertMessage message ) {
+        return this.dmlStub.insertBatch( message );
+    }
+
+
     public TupleIterator query( QueryMessage query ) {
         try {
             return this.client.query( query );
@@ -352,6 +429,22 @@ public TupleIterator batchedQuery( CottontailGrpc.BatchedQueryMessage query ) {
     }
 
 
+    /**
+     * Executes several queries and concatenates their results in order. The queries are sent through the asynchronous
+     * stub; up to {@link #getMaxConcurrentQueries()} queries are started ahead of the one whose results are consumed,
+     * hence Cottontail DB executes them concurrently.
+     *
+     * This is used for the parameter sets of a query as well as for the queries on the entities of a union, e.g., on
+     * the partitions of a table.
+     *
+     * @param queries The {@link QueryMessage}s to execute.
+     * @return An iterator over the results of all queries; must be closed to cancel queries which are not consumed.
+     */
+    public ConcurrentTupleIterator queryConcurrently( List<QueryMessage> queries ) {
+        return new ConcurrentTupleIterator( queries.iterator(), Math.max( this.maxConcurrentQueries, 1 ) );
+    }
+
+
     @Override
     public void close() {
         try {
@@ -363,6 +456,19 @@ public void close() {
     }
 
 
+    private static void logQueryError( StatusRuntimeException e ) {
+        if ( e.getStatus().getCode() == Status.INVALID_ARGUMENT.getCode() ) {
+            if ( log.isDebugEnabled() ) {
+                log.debug( "Query failed due to user error: {}", e.getMessage() );
+            }
+        } else if ( e.getStatus().getCode() == Status.DEADLINE_EXCEEDED.getCode() ) {
+            log.error( "Query has timed out (timeout = {}ms).", MAX_QUERY_CALL_TIMEOUT );
+        } else {
+            log.error( "Caught exception", e );
+        }
+    }
+
+
     private static String toString( EntityName name ) {
         return name.getSchema().getName() + "." + name.getName();
     }
@@ -377,4 +483,162 @@ private static String toString( ColumnName name ) {
         return name.getEntity().getSchema().getName() + "." + name.getEntity().getName() + "." + name.getName();
     }
 
+
+    /**
+     * Concatenates the results of several queries while keeping a window of queries running ahead.
+     */
+    public class ConcurrentTupleIterator implements Iterator<Tuple>, AutoCloseable {
+
+        private final Iterator<QueryMessage> queries;
+        private final int window;
+        private final Deque<AsyncQuery> running = new ArrayDeque<>();
+
+        /**
+         * Results of the first running query, created once they are consumed.
+         */
+        private TupleIteratorImpl current;
+
+
+        private ConcurrentTupleIterator( Iterator<QueryMessage> queries, int window ) {
+            this.queries = queries;
+            this.window = window;
+            fill();
+        }
+
+
+        private void fill() {
+            while ( this.running.size() < this.window && this.queries.hasNext() ) {
+                this.running.add( new AsyncQuery( this.queries.next() ) );
+            }
+        }
+
+
+        @Override
+        public boolean hasNext() {
+            while ( true ) {
+                if ( this.current == null ) {
+                    if ( this.running.isEmpty() ) {
+                        return false;
+                    }
+                    final AsyncQuery query = this.running.peek();
+                    this.current = new TupleIteratorImpl( query, query.context );
+                }
+                if ( this.current.hasNext() ) {
+                    return true;
+                }
+                this.current.close();
+                this.current = null;
+                this.running.poll();
+                fill();
+            }
+        }
+
+
+        @Override
+        public Tuple next() {
+            if ( !hasNext() ) {
+                throw new NoSuchElementException();
+            }
+            return this.current.next();
+        }
+
+
+        @Override
+        public void close() {
+            if ( this.current != null ) {
+                this.current.close();
+                this.current = null;
+            }
+            while ( !this.running.isEmpty() ) {
+                this.running.poll().cancel();
+            }
+        }
+
+    }
+
+
+    /**
+     * A query which is sent through the asynchronous stub. Its response messages are buffered until they are consumed.
+     * Only {@link #PREFETCH_MESSAGES} messages are requested ahead, hence queries whose results are not consumed yet
+     * are throttled by the flow control of gRPC instead of filling the heap.
+     */
+    private class AsyncQuery implements ClientResponseObserver<QueryMessage, QueryResponseMessage>, Iterator<QueryResponseMessage> {
+
+        /**
+         * The context of the call; cancelling it cancels the query.
+         */
+        private final CancellableContext context = Context.current().withCancellation();
+        private final BlockingQueue<Object> responses = new LinkedBlockingQueue<>();
+        private ClientCallStreamObserver<QueryMessage> call;
+        private Object next;
+
+
+        private AsyncQuery( QueryMessage query ) {
+            this.context.run( () -> dqlStub.withDeadlineAfter( MAX_QUERY_CALL_TIMEOUT, TimeUnit.MILLISECONDS ).query( query, this ) );
+        }
+
+
+        @Override
+        public void beforeStart( ClientCallStreamObserver<QueryMessage> call ) {
+            this.call = call;
+            call.disableAutoRequestWithInitial( PREFETCH_MESSAGES );
+        }
+
+
+        @Override
+        public void onNext( QueryResponseMessage message ) {
+            this.responses.add( message );
+        }
+
+
+        @Override
+        public void onError( Throwable t ) {
+            this.responses.add( t );
+        }
+
+
+        @Override
+        public void onCompleted() {
+            this.responses.add( COMPLETED );
+        }
+
+
+        @Override
+        public boolean hasNext() {
+            if ( this.next == null ) {
+                try {
+                    this.next = this.responses.take();
+                } catch ( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                    cancel();
+                    throw new RuntimeException( "Interrupted while waiting for the results of Cottontail DB.", e );
+                }
+            }
+            if ( this.next instanceof Throwable ) {
+                final StatusRuntimeException e = Status.fromThrowable( (Throwable) this.next ).asRuntimeException();
+                logQueryError( e );
+                throw e;
+            }
+            return this.next != COMPLETED;
+        }
+
+
+        @Override
+        public QueryResponseMessage next() {
+            if ( !hasNext() ) {
+                throw new NoSuchElementException();
+            }
+            final QueryResponseMessage message = (QueryResponseMessage) this.next;
+            this.next = null;
+            this.call.request( 1 );
+            return message;
+        }
+
+
+        private void cancel() {
+            this.context.cancel( null );
+        }
+
+    }
+
 }
@@ -103,25 +103,7 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
 
         switch ( cottontailContext.queryType ) {
             case SELECT:
-                // Row Parser
-                final int fieldCount = getRowType().getFieldCount();
-                BlockBuilder builder = new BlockBuilder();
-
-                final ParameterExpression resultMap_ = Expressions.parameter(
-                        Tuple.class,
-                        builder.newName( "resultDataMap" ) );
-
-                final Expression values_ = builder.append(
-                        "values",
-                        Expressions.newArrayBounds( Object.class, 1, Expressions.constant( fieldCount ) ) );
-                for ( int i = 0; i < fieldCount; i++ ) {
-                    this.generateGet( rowType, builder, resultMap_, i, Expressions.arrayIndex( values_, Expressions.constant( i ) ) );
-                }
-                builder.add( Expressions.return_( null, values_ ) );
-
-                final Expression rowBuilder_ = list.append(
-                        "rowBuilder",
-                        Expressions.lambda( Expressions.block( builder.toBlock() ), resultMap_ ) );
+                final Expression rowBuilder_ = rowBuilder( list, rowType );
                 enumerable = list.append(
                         "enumerable",
                         Expressions.call(
@@ -211,10 +193,35 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
     }
 
 
+    /**
+     * Generates the row parser, which converts the {@link Tuple}s returned by Cottontail DB into rows of the given type.
+     */
+    static Expression rowBuilder( BlockBuilder list, AlgDataType rowType ) {
+        final int fieldCount = rowType.getFieldCount();
+        BlockBuilder builder = new BlockBuilder();
+
+        final ParameterExpression resultMap_ = Expressions.parameter(
+                Tuple.class,
+                builder.newName( "resultDataMap" ) );
+
+        final Expression values_ = builder.append(
+                "values",
+                Expressions.newArrayBounds( Object.class, 1, Expressions.constant( fieldCount ) ) );
+        for ( int i = 0; i < fieldCount; i++ ) {
+            generateGet( rowType, builder, resultMap_, i, Expressions.arrayIndex( values_, Expressions.constant( i ) ) );
+        }
+        builder.add( Expressions.return_( null, values_ ) );
+
+        return list.append(
+                "rowBuilder",
+                Expressions.lambda( Expressions.block( builder.toBlock() ), resultMap_ ) );
+    }
+
+
     /**
      * Generates accessor methods used to access data contained in {@link Tuple}s returned by Cottontail DB.
      */
-    private void generateGet( AlgDataType rowType, BlockBuilder blockBuilder, ParameterExpression result_, int i, Expression target ) {
+    private static void generateGet( AlgDataType rowType, BlockBuilder blockBuilder, ParameterExpression result_, int i, Expression target ) {
         final AlgDataType fieldType = rowType.getFieldList().get( i ).getType();
 
         // Fetch Data from DataMap
@@ -323,7 +330,7 @@ private void generateGet( AlgDataType rowType, BlockBuilder blockBuilder, Parame
     }
 
 
-    private static Expression expressionOrNullExpression( Expression expression ) {
+    static Expression expressionOrNullExpression( Expression expression ) {
         if ( expression == null ) {
             return Expressions.constant( null );
         } else {
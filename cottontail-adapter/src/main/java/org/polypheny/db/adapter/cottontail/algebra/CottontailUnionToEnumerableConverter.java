@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.cottontail.algebra;
+
+
+import static org.polypheny.db.adapter.cottontail.algebra.CottontailToEnumerableConverter.expressionOrNullExpression;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.adapter.cottontail.CottontailConvention;
+import org.polypheny.db.adapter.cottontail.CottontailSchema;
+import org.polypheny.db.adapter.cottontail.algebra.CottontailAlg.CottontailImplementContext;
+import org.polypheny.db.adapter.cottontail.algebra.CottontailAlg.CottontailImplementContext.QueryType;
+import org.polypheny.db.adapter.cottontail.enumberable.CottontailEnumerableFactory;
+import org.polypheny.db.adapter.cottontail.enumberable.CottontailEnumerableFactory.SubQuery;
+import org.polypheny.db.adapter.enumerable.EnumerableAlg;
+import org.polypheny.db.adapter.enumerable.EnumerableAlgImplementor;
+import org.polypheny.db.adapter.enumerable.JavaRowFormat;
+import org.polypheny.db.adapter.enumerable.PhysType;
+import org.polypheny.db.adapter.enumerable.PhysTypeImpl;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Union;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.schema.Schemas;
+
+
+/**
+ * Implements a UNION ALL of queries on entities of the same Cottontail DB store, e.g., the partitions of a table, with
+ * a single enumerable. Instead of reading the inputs one after another, the queries are sent concurrently through the
+ * asynchronous stub of the store.
+ */
+public class CottontailUnionToEnumerableConverter extends Union implements EnumerableAlg {
+
+    public CottontailUnionToEnumerableConverter( AlgOptCluster cluster, AlgTraitSet traits, List<AlgNode> inputs ) {
+        super( cluster, traits, inputs, true );
+    }
+
+
+    @Override
+    public CottontailUnionToEnumerableConverter copy( AlgTraitSet traitSet, List<AlgNode> inputs, boolean all ) {
+        assert all;
+        return new CottontailUnionToEnumerableConverter( getCluster(), traitSet, inputs );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        return super.computeSelfCost( planner, mq ).multiplyBy( .1 );
+    }
+
+
+    @Override
+    public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
+        final BlockBuilder list = new BlockBuilder();
+        final List<Expression> subQueries = new ArrayList<>( getInputs().size() );
+        for ( AlgNode input : getInputs() ) {
+            final CottontailImplementContext cottontailContext = new CottontailImplementContext();
+            cottontailContext.blockBuilder = list;
+            cottontailContext.visitChild( 0, input );
+            if ( cottontailContext.queryType != QueryType.SELECT ) {
+                throw new AssertionError( "Only queries can be combined by a union." );
+            }
+            subQueries.add( Expressions.new_(
+                    SubQuery.class,
+                    Expressions.constant( cottontailContext.tableName ),
+                    Expressions.constant( cottontailContext.schemaName ),
+                    expressionOrNullExpression( cottontailContext.projectionMap ), // PROJECTION
+                    expressionOrNullExpression( cottontailContext.sortMap ), // ORDER BY
+                    expressionOrNullExpression( cottontailContext.limitBuilder ), // LIMIT
+                    expressionOrNullExpression( cottontailContext.offsetBuilder ), // OFFSET
+                    expressionOrNullExpression( cottontailContext.filterBuilder ) // WHERE
+            ) );
+        }
+
+        final CottontailConvention convention = (CottontailConvention) getInput( 0 ).getConvention();
+        final PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getRowType(), pref.prefer( JavaRowFormat.ARRAY ) );
+        final Expression rowBuilder_ = CottontailToEnumerableConverter.rowBuilder( list, getRowType() );
+        final Expression enumerable = list.append(
+                "enumerable",
+                Expressions.call(
+                        CottontailEnumerableFactory.CREATE_UNION_QUERY_METHOD,
+                        Expressions.newArrayInit( SubQuery.class, subQueries ),
+                        DataContext.ROOT,
+                        rowBuilder_,
+                        Expressions.call( Schemas.unwrap( convention.expression, CottontailSchema.class ), "getWrapper" )
+                ) );
+
+        list.add( Expressions.statement( Expressions.call(
+                Schemas.unwrap( convention.expression, CottontailSchema.class ),
+                "registerStore",
+                DataContext.ROOT ) ) );
+
+        list.add( Expressions.return_( null, enumerable ) );
+
+        return implementor.result( physType, list.toBlock() );
+    }
+
+}
@@ -16,21 +16,40 @@
 
 package org.polypheny.db.adapter.cottontail.enumberable;
 
-import java.util.List;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.protobuf.CodedOutputStream;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.Enumerator;
 import org.polypheny.db.adapter.cottontail.CottontailWrapper;
 import org.vitrivr.cottontail.grpc.CottontailGrpc.BatchInsertMessage;
+import org.vitrivr.cottontail.grpc.CottontailGrpc.BatchInsertMessage.Insert;
+import org.vitrivr.cottontail.grpc.CottontailGrpc.QueryResponseMessage;
 
 
+/**
+ * Inserts rows using {@link BatchInsertMessage}s. The rows are split into messages of at most
+ * {@link CottontailWrapper#getMaxMessageSize()} bytes, which are built lazily: while Cottontail DB processes a message,
+ * the next one is built. Every step of the enumerator returns the number of rows inserted by one message.
+ */
+@Slf4j
 public class CottontailBatchInsertEnumerable extends AbstractEnumerable<Long> {
 
-    private final List<BatchInsertMessage> inserts;
+    private final BatchInsertMessage template;
+    private final Iterable<Insert> rows;
     private final CottontailWrapper wrapper;
 
 
-    public CottontailBatchInsertEnumerable( List<BatchInsertMessage> inserts, CottontailWrapper wrapper ) {
-        this.inserts = inserts;
+    /**
+     * @param template The message without inserts, i.e., with the entity, the columns and the metadata.
+     * @param rows The rows to insert; iterated again if the enumerator is reset.
+     * @param wrapper The {@link CottontailWrapper} to send the messages with.
+     */
+    public CottontailBatchInsertEnumerable( BatchInsertMessage template, Iterable<Insert> rows, CottontailWrapper wrapper ) {
+        this.template = template;
+        this.rows = rows;
         this.wrapper = wrapper;
     }
 
@@ -43,15 +62,29 @@ public Enumerator<Long> enumerator() {
 
     private class CottontailInsertResultEnumerator implements Enumerator<Long> {
 
+        private Iterator<Insert> iterator = CottontailBatchInsertEnumerable.this.rows.iterator();
+
+        private final int basicSize = CottontailBatchInsertEnumerable.this.template.getSerializedSize();
+
         /**
          * Result of the last BATCH INSERT that was performed.
          */
         private long currentResult;
 
         /**
-         * The pointer to the last {@link BatchInsertMessage} that was executed.
+         * The response to the last {@link BatchInsertMessage} that was sent; {@code null} if there is none outstanding.
+         */
+        private ListenableFuture<QueryResponseMessage> pending;
+
+        /**
+         * The number of rows of the last {@link BatchInsertMessage} that was sent.
          */
-        private int pointer = 0;
+        private int pendingCount;
+
+        /**
+         * A row which did not fit into the previous message anymore.
+         */
+        private Insert overflow;
 
 
         @Override
@@ -62,28 +95,80 @@ public Long current() {
 
         @Override
         public boolean moveNext() {
-            if ( this.pointer < CottontailBatchInsertEnumerable.this.inserts.size() ) {
-                final BatchInsertMessage insertMessage = CottontailBatchInsertEnumerable.this.inserts.get( this.pointer++ );
-                if ( CottontailBatchInsertEnumerable.this.wrapper.insert( insertMessage ) ) {
-                    this.currentResult = insertMessage.getInsertsCount();
-                } else {
-                    this.currentResult = -1;
+            if ( this.pending == null ) {
+                final BatchInsertMessage first = nextMessage();
+                if ( first == null ) {
+                    return false;
+                }
+                send( first );
+            }
+            /* Build the next message while Cottontail DB is processing the pending one. */
+            final BatchInsertMessage next = nextMessage();
+            this.currentResult = await();
+            if ( next != null ) {
+                send( next );
+            }
+            return true;
+        }
+
+
+        private BatchInsertMessage nextMessage() {
+            final int maxMessageSize = CottontailBatchInsertEnumerable.this.wrapper.getMaxMessageSize();
+            final BatchInsertMessage.Builder builder = CottontailBatchInsertEnumerable.this.template.toBuilder();
+            int messageSize = this.basicSize;
+            while ( this.overflow != null || this.iterator.hasNext() ) {
+                final Insert insert = this.overflow != null ? this.overflow : this.iterator.next();
+                this.overflow = null;
+
+                /* Check if maximum message size is exceeded. If so, keep the row for the next message. */
+                final int insertSize = CodedOutputStream.computeMessageSize( BatchInsertMessage.INSERTS_FIELD_NUMBER, insert );
+                if ( builder.getInsertsCount() > 0 && messageSize + insertSize > maxMessageSize ) {
+                    this.overflow = insert;
+                    break;
                 }
-                return !(this.currentResult == -1L);
-            } else {
-                return false;
+                messageSize += insertSize;
+                builder.addInserts( insert );
+            }
+            return builder.getInsertsCount() > 0 ? builder.build() : null;
+        }
+
+
+        private void send( BatchInsertMessage message ) {
+            this.pending = CottontailBatchInsertEnumerable.this.wrapper.insertAsync( message );
+            this.pendingCount = message.getInsertsCount();
+        }
+
+
+        private long await() {
+            try {
+                this.pending.get();
+                return this.pendingCount;
+            } catch ( ExecutionException e ) {
+                log.error( "Caught exception", e.getCause() );
+                throw new RuntimeException( "Batch insert into Cottontail DB failed", e.getCause() );
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException( "Interrupted while waiting for the response of Cottontail DB", e );
+            } finally {
+                this.pending = null;
             }
         }
 
 
         @Override
         public void reset() {
-            this.pointer = 0;
+            close();
+            this.iterator = CottontailBatchInsertEnumerable.this.rows.iterator();
+            this.overflow = null;
         }
 
 
         @Override
         public void close() {
+            if ( this.pending != null ) {
+                this.pending.cancel( true );
+                this.pending = null;
+            }
         }
 
     }
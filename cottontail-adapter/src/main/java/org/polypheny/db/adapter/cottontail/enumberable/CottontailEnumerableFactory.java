@@ -18,7 +18,9 @@
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -30,8 +32,6 @@
 import org.polypheny.db.adapter.cottontail.CottontailWrapper;
 import org.polypheny.db.adapter.cottontail.util.CottontailTypeUtil;
 import org.vitrivr.cottontail.client.iterators.Tuple;
-import org.vitrivr.cottontail.client.iterators.TupleIterator;
-import org.vitrivr.cottontail.client.language.basics.Constants;
 import org.vitrivr.cottontail.grpc.CottontailGrpc;
 import org.vitrivr.cottontail.grpc.CottontailGrpc.BatchInsertMessage;
 import org.vitrivr.cottontail.grpc.CottontailGrpc.BatchInsertMessage.Insert;
@@ -62,6 +62,14 @@ public class CottontailEnumerableFactory {
             "query",
             String.class, String.class, Map.class, Map.class, Function1.class, Function1.class, Function1.class, DataContext.class, Function1.class, CottontailWrapper.class );
 
+    /**
+     * Method signature for building the SELECT statements of a union.
+     */
+    public static final Method CREATE_UNION_QUERY_METHOD = Types.lookupMethod(
+            CottontailEnumerableFactory.class,
+            "unionQuery",
+            SubQuery[].class, DataContext.class, Function1.class, CottontailWrapper.class );
+
     /**
      * Method signature for building INSERT of values.
      */
@@ -104,7 +112,7 @@ public static CottontailQueryEnumerable query(
         final long txId = wrapper.beginOrContinue( dataContext.getStatement().getTransaction() );
 
         /* Build SELECT messages and create enumerable. */
-        TupleIterator queryResponseIterator;
+        Iterator<Tuple> queryResponseIterator;
         if ( dataContext.getParameterValues().size() < 2 ) {
             final Map<Long, Object> parameterValues;
             if ( dataContext.getParameterValues().size() == 0 ) {
@@ -126,6 +134,9 @@ public static CottontailQueryEnumerable query(
             final Query query = buildSingleQuery( from, schema, projection, orderBy, limit, offset, whereBuilder, parameterValues );
             queryResponseIterator = wrapper.query( QueryMessage.newBuilder().setMetadata( Metadata.newBuilder().setTransactionId( txId ) ).setQuery( query ).build() );
         } else {
+            /* Either execute the queries concurrently or send them as one batch which Cottontail DB executes sequentially. */
+            final boolean concurrent = wrapper.getMaxConcurrentQueries() > 1;
+            final List<QueryMessage> queryMessages = new ArrayList<>( dataContext.getParameterValues().size() );
             BatchedQueryMessage.Builder batchedQueryMessageBuilder = BatchedQueryMessage.newBuilder().setMetadata( Metadata.newBuilder().setTransactionId( txId ) );
             for ( Map<Long, Object> parameterValues : dataContext.getParameterValues() ) {
 
@@ -140,16 +151,53 @@ public static CottontailQueryEnumerable query(
                 }
 
                 final Query query = buildSingleQuery( from, schema, projection, orderBy, limit, offset, whereBuilder, parameterValues );
-                batchedQueryMessageBuilder.addQuery( query );
+                if ( concurrent ) {
+                    queryMessages.add( QueryMessage.newBuilder().setMetadata( Metadata.newBuilder().setTransactionId( txId ) ).setQuery( query ).build() );
+                } else {
+                    batchedQueryMessageBuilder.addQuery( query );
+                }
             }
 
-            queryResponseIterator = wrapper.batchedQuery( batchedQueryMessageBuilder.build() );
+            if ( concurrent ) {
+                queryResponseIterator = wrapper.queryConcurrently( queryMessages );
+            } else {
+                queryResponseIterator = wrapper.batchedQuery( batchedQueryMessageBuilder.build() );
+            }
         }
 
         return new CottontailQueryEnumerable( queryResponseIterator, rowParser );
     }
 
 
+    /**
+     * Queries several entities of the store, e.g., the partitions of a table, and concatenates the results. The queries
+     * are executed concurrently, see {@link CottontailWrapper#queryConcurrently(List)}.
+     */
+    @SuppressWarnings("unused") // Used via reflection
+    public static CottontailQueryEnumerable unionQuery(
+            SubQuery[] subQueries,
+            DataContext dataContext,
+            Function1<Tuple, Object[]> rowParser,
+            CottontailWrapper wrapper
+    ) {
+        /* Begin or continue Cottontail DB transaction. */
+        final long txId = wrapper.beginOrContinue( dataContext.getStatement().getTransaction() );
+
+        /* Build a SELECT message for every entity and parameter set. */
+        final List<Map<Long, Object>> parameterValues = dataContext.getParameterValues().isEmpty()
+                ? Collections.singletonList( new HashMap<>() )
+                : dataContext.getParameterValues();
+        final List<QueryMessage> queryMessages = new ArrayList<>( subQueries.length * parameterValues.size() );
+        for ( SubQuery subQuery : subQueries ) {
+            for ( Map<Long, Object> values : parameterValues ) {
+                queryMessages.add( QueryMessage.newBuilder().setMetadata( Metadata.newBuilder().setTransactionId( txId ) ).setQuery( subQuery.build( values ) ).build() );
+            }
+        }
+
+        return new CottontailQueryEnumerable( wrapper.queryConcurrently( queryMessages ), rowParser );
+    }
+
+
     /**
      * Used via reflection
      */
@@ -221,6 +269,22 @@ public static AbstractEnumerable<Long> insertFromValues(
 
         /* Build INSERT messages and create enumerable. */
         final CottontailGrpc.From from_ = CottontailTypeUtil.fromFromTableAndSchema( from, schema );
+        if ( values.size() > 1 && values.stream().allMatch( value -> value.keySet().equals( values.get( 0 ).keySet() ) ) ) {
+            /* All rows have the same columns; insert them in batches. */
+            final BatchInsertMessage.Builder builder = BatchInsertMessage.newBuilder().setFrom( from_ ).setMetadata( Metadata.newBuilder().setTransactionId( txId ) );
+            for ( String column : values.get( 0 ).keySet() ) {
+                builder.addColumns( ColumnName.newBuilder().setName( column ) );
+            }
+            final List<String> columns = new ArrayList<>( values.get( 0 ).keySet() );
+            final Iterable<Insert> rows = () -> values.stream().map( value -> {
+                final Insert.Builder insertBuilder = Insert.newBuilder();
+                for ( String column : columns ) {
+                    insertBuilder.addValues( value.get( column ) );
+                }
+                return insertBuilder.build();
+            } ).iterator();
+            return new CottontailBatchInsertEnumerable( builder.build(), rows, wrapper );
+        }
         final List<InsertMessage> insertMessages = new ArrayList<>( values.size() );
         for ( Map<String, CottontailGrpc.Literal> value : values ) {
             final InsertMessage.Builder message = InsertMessage.newBuilder().setFrom( from_ ).setMetadata( Metadata.newBuilder().setTransactionId( txId ) );
@@ -257,8 +321,7 @@ public static AbstractEnumerable<Long> insertFromPreparedStatements(
             insertMessages.add( insert.build() );
             return new CottontailInsertEnumerable( insertMessages, wrapper );
         } else {
-            final List<BatchInsertMessage> insertMessages = new LinkedList<>();
-            BatchInsertMessage.Builder builder = BatchInsertMessage.newBuilder().setFrom( from_ ).setMetadata( Metadata.newBuilder().setTransactionId( txId ) );
+            final BatchInsertMessage.Builder builder = BatchInsertMessage.newBuilder().setFrom( from_ ).setMetadata( Metadata.newBuilder().setTransactionId( txId ) );
 
             /* Add columns to BatchInsertMessage */
             final List<Map<Long, Object>> parameterValues = dataContext.getParameterValues();
@@ -267,35 +330,19 @@ public static AbstractEnumerable<Long> insertFromPreparedStatements(
                 builder.addColumns( name );
             }
 
-            /* Start to track message size. */
-            final int basicSize = builder.clone().build().getSerializedSize();
-            int messageSize = basicSize;
-
-            /* Add values to BatchInsertMessage. */
-            for ( Map<Long, Object> row : parameterValues ) {
-                final Insert.Builder insertBuilder = Insert.newBuilder();
-                for ( Entry<String, Literal> e : tupleBuilder.apply( row ).entrySet() ) {
-                    insertBuilder.addValues( e.getValue() );
-                }
-                final Insert insert = insertBuilder.build();
-
-                /* Check if maximum message size is exceeded. If so, build and add BatchInsertMessage to list. */
-                if ( messageSize + insert.getSerializedSize() >= Constants.MAX_PAGE_SIZE_BYTES ) {
-                    insertMessages.add( builder.build() );
-                    builder = builder.clone().clearInserts();
-                    messageSize = basicSize;
-                }
-                messageSize += insert.getSerializedSize();
-                builder.addInserts( insert );
-            }
+            /* The rows are only built when they are sent. */
+            final Iterable<Insert> rows = () -> parameterValues.stream().map( row -> toInsert( tupleBuilder.apply( row ) ) ).iterator();
+            return new CottontailBatchInsertEnumerable( builder.build(), rows, wrapper );
+        }
+    }
 
-            /* Add file message. */
-            if ( builder.getInsertsCount() > 0 ) {
-                insertMessages.add( builder.build() );
-            }
 
-            return new CottontailBatchInsertEnumerable( insertMessages, wrapper );
+    private static Insert toInsert( Map<String, Literal> values ) {
+        final Insert.Builder insertBuilder = Insert.newBuilder();
+        for ( Literal value : values.values() ) {
+            insertBuilder.addValues( value );
         }
+        return insertBuilder.build();
     }
 
 
@@ -367,4 +414,46 @@ private static UpdateMessage buildSingleUpdate(
         return builder.build();
     }
 
+
+
+    /**
+     * The parts of a SELECT statement on a single entity, which is built for every set of parameter values.
+     */
+    public static class SubQuery {
+
+        private final String from;
+        private final String schema;
+        private final Map<Object, String> projection;
+        private final Map<String, String> orderBy;
+        private final Function1<Map<Long, Object>, Integer> limitBuilder;
+        private final Function1<Map<Long, Object>, Integer> offsetBuilder;
+        private final Function1<Map<Long, Object>, Where> whereBuilder;
+
+
+        public SubQuery(
+                String from,
+                String schema,
+                Map<Object, String> projection,
+                Map<String, String> orderBy,
+                Function1<Map<Long, Object>, Integer> limitBuilder,
+                Function1<Map<Long, Object>, Integer> offsetBuilder,
+                Function1<Map<Long, Object>, Where> whereBuilder ) {
+            this.from = from;
+            this.schema = schema;
+            this.projection = projection;
+            this.orderBy = orderBy;
+            this.limitBuilder = limitBuilder;
+            this.offsetBuilder = offsetBuilder;
+            this.whereBuilder = whereBuilder;
+        }
+
+
+        private Query build( Map<Long, Object> parameterValues ) {
+            final Integer limit = limitBuilder != null ? limitBuilder.apply( parameterValues ) : null;
+            final Integer offset = offsetBuilder != null ? offsetBuilder.apply( parameterValues ) : null;
+            return buildSingleQuery( from, schema, projection, orderBy, limit, offset, whereBuilder, parameterValues );
+        }
+
+    }
+
 }
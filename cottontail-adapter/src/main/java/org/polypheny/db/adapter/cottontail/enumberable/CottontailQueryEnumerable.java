@@ -16,6 +16,7 @@
 
 package org.polypheny.db.adapter.cottontail.enumberable;
 
+import java.util.Iterator;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.calcite.linq4j.AbstractEnumerable;
@@ -34,9 +35,10 @@
 public class CottontailQueryEnumerable extends AbstractEnumerable<Object> {
 
     /**
-     * The {@link TupleIterator} backing this {@link CottontailQueryEnumerable}.
+     * The iterator backing this {@link CottontailQueryEnumerable}, e.g., a {@link TupleIterator}. It is closed together
+     * with the enumerator if it is {@link AutoCloseable}.
      */
-    private final TupleIterator tupleIterator;
+    private final Iterator<Tuple> tupleIterator;
 
     /**
      * The {@link RowTypeParser} backing this {@link CottontailQueryEnumerable}.
@@ -44,7 +46,7 @@ public class CottontailQueryEnumerable extends AbstractEnumerable<Object> {
     private final Function1<Tuple, Object[]> parser;
 
 
-    public CottontailQueryEnumerable( TupleIterator iterator, Function1<Tuple, Object[]> rowParser ) {
+    public CottontailQueryEnumerable( Iterator<Tuple> iterator, Function1<Tuple, Object[]> rowParser ) {
         this.tupleIterator = iterator;
         this.parser = rowParser;
     }
@@ -95,7 +97,9 @@ public void reset() {
         @Override
         public void close() {
             try {
-                CottontailQueryEnumerable.this.tupleIterator.close();
+                if ( CottontailQueryEnumerable.this.tupleIterator instanceof AutoCloseable ) {
+                    ((AutoCloseable) CottontailQueryEnumerable.this.tupleIterator).close();
+                }
             } catch ( Exception e ) {
                 log.warn( "Caught exception", e );
             }
@@ -38,7 +38,8 @@ public static List<AlgOptRule> rules( CottontailConvention out, AlgBuilderFactor
                 new CottontailTableModificationRule( out, algBuilderFactory ),
                 new CottontailProjectRule( out, algBuilderFactory ),
                 new CottontailFilterRule( out, algBuilderFactory ),
-                new CottontailSortRule( out, algBuilderFactory )
+                new CottontailSortRule( out, algBuilderFactory ),
+                new CottontailUnionRule( out, algBuilderFactory )
         );
     }
 
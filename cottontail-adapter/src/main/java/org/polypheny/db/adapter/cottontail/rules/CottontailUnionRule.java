@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.cottontail.rules;
+
+
+import org.polypheny.db.adapter.cottontail.CottontailConvention;
+import org.polypheny.db.adapter.cottontail.algebra.CottontailUnionToEnumerableConverter;
+import org.polypheny.db.adapter.enumerable.EnumerableConvention;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.convert.ConverterRule;
+import org.polypheny.db.algebra.core.Union;
+import org.polypheny.db.algebra.core.Values;
+import org.polypheny.db.plan.Convention;
+import org.polypheny.db.plan.volcano.AlgSubset;
+import org.polypheny.db.tools.AlgBuilderFactory;
+
+
+/**
+ * Rule that converts a UNION ALL whose inputs can all be executed by the same Cottontail DB store, e.g., the scans of
+ * the partitions of a table, to a {@link CottontailUnionToEnumerableConverter}.
+ */
+public class CottontailUnionRule extends ConverterRule {
+
+    private final CottontailConvention in;
+
+
+    CottontailUnionRule( CottontailConvention in, AlgBuilderFactory algBuilderFactory ) {
+        super(
+                Union.class,
+                r -> r.all && r.getInputs().stream().noneMatch( CottontailUnionRule::isValues ),
+                Convention.NONE,
+                EnumerableConvention.INSTANCE,
+                algBuilderFactory,
+                "CottontailUnionRule:" + in.getName() );
+        this.in = in;
+    }
+
+
+    @Override
+    public AlgNode convert( AlgNode alg ) {
+        final Union union = (Union) alg;
+        return new CottontailUnionToEnumerableConverter(
+                union.getCluster(),
+                union.getTraitSet().replace( getOutTrait() ),
+                convertList( union.getInputs(), in ) );
+    }
+
+
+    /**
+     * Values are only supported by the store as the input of an insert.
+     */
+    private static boolean isValues( AlgNode input ) {
+        final AlgNode node = input instanceof AlgSubset ? ((AlgSubset) input).getOriginal() : input;
+        return node instanceof Values;
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.cottontail;
+
+
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.polypheny.db.adapter.cottontail.CottontailWrapper.ConcurrentTupleIterator;
+import org.vitrivr.cottontail.grpc.CottontailGrpc.ColumnDefinition;
+import org.vitrivr.cottontail.grpc.CottontailGrpc.ColumnName;
+import org.vitrivr.cottontail.grpc.CottontailGrpc.Literal;
+import org.vitrivr.cottontail.grpc.CottontailGrpc.Query;
+import org.vitrivr.cottontail.grpc.CottontailGrpc.QueryMessage;
+import org.vitrivr.cottontail.grpc.CottontailGrpc.QueryResponseMessage;
+import org.vitrivr.cottontail.grpc.CottontailGrpc.QueryResponseMessage.Tuple;
+import org.vitrivr.cottontail.grpc.CottontailGrpc.Type;
+import org.vitrivr.cottontail.grpc.DQLGrpc.DQLImplBase;
+
+
+public class CottontailWrapperTest {
+
+    private static final int MESSAGES_PER_QUERY = 3;
+
+    private Server server;
+    private CottontailWrapper wrapper;
+    private CountDownLatch started;
+
+
+    /**
+     * Starts an in-process server which answers a query with {@code MESSAGES_PER_QUERY} messages. The values of the
+     * messages are derived from the limit of the query; a negative limit lets the query fail.
+     */
+    @Before
+    public void start() throws IOException {
+        final String name = InProcessServerBuilder.generateName();
+        this.server = InProcessServerBuilder.forName( name ).directExecutor().addService( new DQLImplBase() {
+            @Override
+            public void query( QueryMessage request, StreamObserver<QueryResponseMessage> responseObserver ) {
+                started.countDown();
+                final long id = request.getQuery().getLimit();
+                if ( id < 0 ) {
+                    responseObserver.onError( Status.INVALID_ARGUMENT.withDescription( "Invalid query" ).asRuntimeException() );
+                    return;
+                }
+                for ( int i = 0; i < MESSAGES_PER_QUERY; i++ ) {
+                    responseObserver.onNext( QueryResponseMessage.newBuilder()
+                            .addColumns( ColumnDefinition.newBuilder().setName( ColumnName.newBuilder().setName( "value" ) ).setType( Type.INTEGER ) )
+                            .addTuples( Tuple.newBuilder().addData( Literal.newBuilder().setIntData( (int) id * 10 + i ) ) )
+                            .build() );
+                }
+                responseObserver.onCompleted();
+            }
+        } ).build().start();
+        this.wrapper = new CottontailWrapper( InProcessChannelBuilder.forName( name ).directExecutor().build(), null );
+    }
+
+
+    @After
+    public void stop() {
+        this.wrapper.close();
+        this.server.shutdownNow();
+    }
+
+
+    @Test
+    public void concatenatesResultsInOrder() {
+        this.started = new CountDownLatch( 5 );
+        this.wrapper.setMaxConcurrentQueries( 2 );
+        try ( ConcurrentTupleIterator iterator = this.wrapper.queryConcurrently( queries( 1, 2, 3, 4, 5 ) ) ) {
+            final List<Object> values = new ArrayList<>();
+            iterator.forEachRemaining( tuple -> values.add( tuple.get( 0 ) ) );
+            Assert.assertEquals( Arrays.asList( 10, 11, 12, 20, 21, 22, 30, 31, 32, 40, 41, 42, 50, 51, 52 ), values );
+        }
+    }
+
+
+    @Test
+    public void startsQueriesAhead() throws InterruptedException {
+        this.started = new CountDownLatch( 3 );
+        this.wrapper.setMaxConcurrentQueries( 3 );
+        try ( ConcurrentTupleIterator ignored = this.wrapper.queryConcurrently( queries( 1, 2, 3, 4 ) ) ) {
+            // None of the results has been consumed yet
+            Assert.assertTrue( this.started.await( 10, TimeUnit.SECONDS ) );
+        }
+    }
+
+
+    @Test(expected = StatusRuntimeException.class)
+    public void propagatesErrors() {
+        this.started = new CountDownLatch( 2 );
+        try ( ConcurrentTupleIterator iterator = this.wrapper.queryConcurrently( queries( 1, -1 ) ) ) {
+            iterator.forEachRemaining( tuple -> {
+            } );
+        }
+    }
+
+
+    private static List<QueryMessage> queries( long... ids ) {
+        return Arrays.stream( ids )
+                .mapToObj( id -> QueryMessage.newBuilder().setQuery( Query.newBuilder().setLimit( id ) ).build() )
+                .collect( Collectors.toList() );
+    }
+
+}
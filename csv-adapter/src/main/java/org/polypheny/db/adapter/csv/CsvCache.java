@@ -0,0 +1,243 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.csv;
+
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.Getter;
+import org.apache.calcite.linq4j.Enumerator;
+import org.polypheny.db.util.Source;
+
+
+/**
+ * Keeps parsed, typed copies of CSV files in memory, so that repeated scans neither read nor parse the files. An entry
+ * is valid as long as size and modification time of its file have not changed. If the entries exceed the memory
+ * budget, the least recently used ones are evicted.
+ *
+ * Entries are added while a file is scanned: the rows returned by the scan are collected and stored once the scan
+ * has read the whole file.
+ */
+final class CsvCache {
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>( 16, 0.75f, true );
+    @Getter
+    private long budget;
+    @Getter
+    private long usedMemory = 0;
+
+    @Getter
+    private final AtomicLong hits = new AtomicLong();
+    @Getter
+    private final AtomicLong misses = new AtomicLong();
+    @Getter
+    private final AtomicLong evictions = new AtomicLong();
+
+
+    /**
+     * @param budget Maximum memory in bytes used by the cached files
+     */
+    CsvCache( long budget ) {
+        this.budget = budget;
+    }
+
+
+    /**
+     * Only uncompressed local files are cached, for other sources changes cannot be detected.
+     */
+    static boolean isCacheable( Source source ) {
+        return source.protocol().equals( "file" ) && !source.path().endsWith( ".gz" );
+    }
+
+
+    /**
+     * Returns an enumerator over the given columns of a file. If the file is cached, the rows are read from the cache.
+     * Otherwise, the rows returned by the scan are collected and added to the cache.
+     *
+     * @param file The CSV file
+     * @param fields The columns of the file
+     * @param fieldTypes The types of the columns
+     * @param scan Supplies an enumerator reading the file
+     * @param cancelFlag Flag which is set if the query is canceled
+     */
+    Enumerator<Object[]> enumerator( File file, int[] fields, CsvFieldType[] fieldTypes, Supplier<Enumerator<Object[]>> scan, AtomicBoolean cancelFlag ) {
+        final String key = key( file, fields, fieldTypes );
+        final long length = file.length();
+        final long lastModified = file.lastModified();
+        CsvColumns columns = get( key, length, lastModified );
+        if ( columns != null ) {
+            hits.incrementAndGet();
+            return columns.enumerator( cancelFlag );
+        }
+        misses.incrementAndGet();
+        return new LoadingEnumerator( scan.get(), new CsvColumns.Builder( fieldTypes, budget ), key, file, length, lastModified, cancelFlag );
+    }
+
+
+    private synchronized CsvColumns get( String key, long length, long lastModified ) {
+        Entry entry = entries.get( key );
+        if ( entry == null ) {
+            return null;
+        }
+        if ( entry.length != length || entry.lastModified != lastModified ) {
+            // The file has changed
+            remove( key );
+            return null;
+        }
+        return entry.columns;
+    }
+
+
+    private synchronized void put( String key, Entry entry ) {
+        if ( entry.columns.getSize() > budget ) {
+            return;
+        }
+        remove( key );
+        entries.put( key, entry );
+        usedMemory += entry.columns.getSize();
+        evict();
+    }
+
+
+    private void remove( String key ) {
+        Entry removed = entries.remove( key );
+        if ( removed != null ) {
+            usedMemory -= removed.columns.getSize();
+        }
+    }
+
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while ( usedMemory > budget && iterator.hasNext() ) {
+            Entry entry = iterator.next();
+            iterator.remove();
+            usedMemory -= entry.columns.getSize();
+            evictions.incrementAndGet();
+        }
+    }
+
+
+    synchronized void setBudget( long budget ) {
+        this.budget = budget;
+        evict();
+    }
+
+
+    synchronized void invalidate() {
+        entries.clear();
+        usedMemory = 0;
+    }
+
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+
+    private static String key( File file, int[] fields, CsvFieldType[] fieldTypes ) {
+        return file.getAbsolutePath() + Arrays.toString( fields ) + Arrays.toString( fieldTypes );
+    }
+
+
+    private static class Entry {
+
+        private final long length;
+        private final long lastModified;
+        private final CsvColumns columns;
+
+
+        private Entry( long length, long lastModified, CsvColumns columns ) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.columns = columns;
+        }
+
+    }
+
+
+    /**
+     * Returns the rows of a scan and collects them. If the scan reaches the end of the file, the collected rows are
+     * added to the cache, unless the file has been modified in the meantime.
+     */
+    private class LoadingEnumerator implements Enumerator<Object[]> {
+
+        private final Enumerator<Object[]> scan;
+        private CsvColumns.Builder builder;
+        private final String key;
+        private final File file;
+        private final long length;
+        private final long lastModified;
+        private final AtomicBoolean cancelFlag;
+
+
+        private LoadingEnumerator( Enumerator<Object[]> scan, CsvColumns.Builder builder, String key, File file, long length, long lastModified, AtomicBoolean cancelFlag ) {
+            this.scan = scan;
+            this.builder = builder;
+            this.key = key;
+            this.file = file;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.cancelFlag = cancelFlag;
+        }
+
+
+        @Override
+        public Object[] current() {
+            return scan.current();
+        }
+
+
+        @Override
+        public boolean moveNext() {
+            if ( scan.moveNext() ) {
+                if ( builder != null && !builder.add( scan.current() ) ) {
+                    // Too large to be cached
+                    builder = null;
+                }
+                return true;
+            }
+            // A canceled scan has not read the whole file
+            if ( builder != null && !cancelFlag.get() && file.length() == length && file.lastModified() == lastModified ) {
+                put( key, new Entry( length, lastModified, builder.build() ) );
+            }
+            builder = null;
+            return false;
+        }
+
+
+        @Override
+        public void reset() {
+            throw new UnsupportedOperationException();
+        }
+
+
+        @Override
+        public void close() {
+            builder = null;
+            scan.close();
+        }
+
+    }
+
+}
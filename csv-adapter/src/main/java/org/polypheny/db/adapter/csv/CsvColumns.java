@@ -0,0 +1,309 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.csv;
+
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.Getter;
+import org.apache.calcite.linq4j.Enumerator;
+
+
+/**
+ * Parsed and typed copy of the columns of a CSV file. Every column is stored in an array of its primitive type, null
+ * values are tracked in a bit set per column.
+ */
+final class CsvColumns {
+
+    private final CsvFieldType[] fieldTypes;
+    private final Object[] columns;
+    private final BitSet[] nulls;
+    @Getter
+    private final int rowCount;
+    /**
+     * Estimated memory consumption in bytes.
+     */
+    @Getter
+    private final long size;
+
+
+    private CsvColumns( CsvFieldType[] fieldTypes, Object[] columns, BitSet[] nulls, int rowCount, long size ) {
+        this.fieldTypes = fieldTypes;
+        this.columns = columns;
+        this.nulls = nulls;
+        this.rowCount = rowCount;
+        this.size = size;
+    }
+
+
+    Object[] row( int index ) {
+        final Object[] row = new Object[columns.length];
+        for ( int i = 0; i < columns.length; i++ ) {
+            if ( !nulls[i].get( index ) ) {
+                row[i] = get( fieldTypes[i], columns[i], index );
+            }
+        }
+        return row;
+    }
+
+
+    Enumerator<Object[]> enumerator( AtomicBoolean cancelFlag ) {
+        return new Enumerator<Object[]>() {
+            private int index = -1;
+            private Object[] current;
+
+
+            @Override
+            public Object[] current() {
+                return current;
+            }
+
+
+            @Override
+            public boolean moveNext() {
+                if ( cancelFlag.get() || index + 1 >= rowCount ) {
+                    current = null;
+                    return false;
+                }
+                current = row( ++index );
+                return true;
+            }
+
+
+            @Override
+            public void reset() {
+                index = -1;
+                current = null;
+            }
+
+
+            @Override
+            public void close() {
+                // Nothing to release
+            }
+        };
+    }
+
+
+    private static Object get( CsvFieldType fieldType, Object column, int index ) {
+        switch ( storage( fieldType ) ) {
+            case BOOLEAN:
+                return ((boolean[]) column)[index];
+            case BYTE:
+                return ((byte[]) column)[index];
+            case SHORT:
+                return ((short[]) column)[index];
+            case INT:
+                return ((int[]) column)[index];
+            case LONG:
+                return ((long[]) column)[index];
+            case FLOAT:
+                return ((float[]) column)[index];
+            case DOUBLE:
+                return ((double[]) column)[index];
+            default:
+                return ((Object[]) column)[index];
+        }
+    }
+
+
+    /**
+     * Returns the type of the array holding the values of a column.
+     */
+    private static CsvFieldType storage( CsvFieldType fieldType ) {
+        if ( fieldType == null ) {
+            return CsvFieldType.STRING;
+        }
+        switch ( fieldType ) {
+            case DATE:
+            case TIME:
+                return CsvFieldType.INT;
+            case TIMESTAMP:
+                return CsvFieldType.LONG;
+            case CHAR:
+                return CsvFieldType.STRING;
+            default:
+                return fieldType;
+        }
+    }
+
+
+    /**
+     * Collects the rows of a scan into columns.
+     */
+    static class Builder {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final CsvFieldType[] fieldTypes;
+        private final Object[] columns;
+        private final BitSet[] nulls;
+        private final long maxSize;
+        private int rowCount = 0;
+        private int capacity = INITIAL_CAPACITY;
+        private long stringSize = 0;
+
+
+        /**
+         * @param maxSize Maximum size in bytes, larger files are not collected
+         */
+        Builder( CsvFieldType[] fieldTypes, long maxSize ) {
+            this.fieldTypes = fieldTypes;
+            this.maxSize = maxSize;
+            this.columns = new Object[fieldTypes.length];
+            this.nulls = new BitSet[fieldTypes.length];
+            for ( int i = 0; i < fieldTypes.length; i++ ) {
+                columns[i] = allocate( storage( fieldTypes[i] ), capacity );
+                nulls[i] = new BitSet();
+            }
+        }
+
+
+        /**
+         * Adds a row.
+         *
+         * @return false if the columns have grown larger than the maximum size
+         */
+        boolean add( Object[] row ) {
+            if ( rowCount == capacity ) {
+                capacity *= 2;
+                for ( int i = 0; i < columns.length; i++ ) {
+                    columns[i] = copyOf( columns[i], capacity );
+                }
+            }
+            for ( int i = 0; i < columns.length; i++ ) {
+                Object value = row[i];
+                if ( value == null ) {
+                    nulls[i].set( rowCount );
+                    continue;
+                }
+                switch ( storage( fieldTypes[i] ) ) {
+                    case BOOLEAN:
+                        ((boolean[]) columns[i])[rowCount] = (Boolean) value;
+                        break;
+                    case BYTE:
+                        ((byte[]) columns[i])[rowCount] = (Byte) value;
+                        break;
+                    case SHORT:
+                        ((short[]) columns[i])[rowCount] = (Short) value;
+                        break;
+                    case INT:
+                        ((int[]) columns[i])[rowCount] = (Integer) value;
+                        break;
+                    case LONG:
+                        ((long[]) columns[i])[rowCount] = (Long) value;
+                        break;
+                    case FLOAT:
+                        ((float[]) columns[i])[rowCount] = (Float) value;
+                        break;
+                    case DOUBLE:
+                        ((double[]) columns[i])[rowCount] = (Double) value;
+                        break;
+                    default:
+                        ((Object[]) columns[i])[rowCount] = value;
+                        if ( value instanceof String ) {
+                            stringSize += 40 + 2L * ((String) value).length();
+                        }
+                }
+            }
+            rowCount++;
+            return size( rowCount ) <= maxSize;
+        }
+
+
+        CsvColumns build() {
+            for ( int i = 0; i < columns.length; i++ ) {
+                columns[i] = copyOf( columns[i], rowCount );
+            }
+            return new CsvColumns( fieldTypes, columns, nulls, rowCount, size( rowCount ) );
+        }
+
+
+        private long size( int rows ) {
+            long size = stringSize;
+            for ( CsvFieldType fieldType : fieldTypes ) {
+                size += 16 + (long) rows * width( storage( fieldType ) ) + rows / 8;
+            }
+            return size;
+        }
+
+
+        private static int width( CsvFieldType storage ) {
+            switch ( storage ) {
+                case BOOLEAN:
+                case BYTE:
+                    return 1;
+                case SHORT:
+                    return 2;
+                case INT:
+                case FLOAT:
+                    return 4;
+                case LONG:
+                case DOUBLE:
+                    return 8;
+                default:
+                    // Compressed reference
+                    return 4;
+            }
+        }
+
+
+        private static Object allocate( CsvFieldType storage, int capacity ) {
+            switch ( storage ) {
+                case BOOLEAN:
+                    return new boolean[capacity];
+                case BYTE:
+                    return new byte[capacity];
+                case SHORT:
+                    return new short[capacity];
+                case INT:
+                    return new int[capacity];
+                case LONG:
+                    return new long[capacity];
+                case FLOAT:
+                    return new float[capacity];
+                case DOUBLE:
+                    return new double[capacity];
+                default:
+                    return new Object[capacity];
+            }
+        }
+
+
+        private static Object copyOf( Object column, int length ) {
+            if ( column instanceof boolean[] ) {
+                return Arrays.copyOf( (boolean[]) column, length );
+            } else if ( column instanceof byte[] ) {
+                return Arrays.copyOf( (byte[]) column, length );
+            } else if ( column instanceof short[] ) {
+                return Arrays.copyOf( (short[]) column, length );
+            } else if ( column instanceof int[] ) {
+                return Arrays.copyOf( (int[]) column, length );
+            } else if ( column instanceof long[] ) {
+                return Arrays.copyOf( (long[]) column, length );
+            } else if ( column instanceof float[] ) {
+                return Arrays.copyOf( (float[]) column, length );
+            } else if ( column instanceof double[] ) {
+                return Arrays.copyOf( (double[]) column, length );
+            }
+            return Arrays.copyOf( (Object[]) column, length );
+        }
+
+    }
+
+}
@@ -39,6 +39,7 @@
 import java.io.Reader;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.TimeZone;
@@ -61,6 +62,7 @@
 class CsvEnumerator<E> implements Enumerator<E> {
 
     private final CSVReader reader;
+    private final CsvSplitScanner scanner;
     private final String[] filterValues;
     private final AtomicBoolean cancelFlag;
     private final RowConverter<E> rowConverter;
@@ -96,10 +98,33 @@
 
 
     CsvEnumerator( Source source, AtomicBoolean cancelFlag, boolean stream, String[] filterValues, RowConverter<E> rowConverter ) {
+        this( source, cancelFlag, stream, filterValues, rowConverter, 1 );
+    }
+
+
+    /**
+     * @param parallelism Number of threads used to scan large files; files are scanned sequentially if it is one
+     */
+    CsvEnumerator( Source source, AtomicBoolean cancelFlag, boolean stream, String[] filterValues, RowConverter<E> rowConverter, int parallelism ) {
         this.cancelFlag = cancelFlag;
         this.rowConverter = rowConverter;
         this.filterValues = filterValues;
         try {
+            if ( !stream && rowConverter instanceof ArrayRowConverter && CsvSplitScanner.isApplicable( source, parallelism ) ) {
+                ArrayRowConverter converter = (ArrayRowConverter) rowConverter;
+                long fileSize = source.file().length();
+                this.reader = null;
+                this.scanner = new CsvSplitScanner(
+                        source.file(),
+                        CsvSplitScanner.splitSize( fileSize, parallelism ),
+                        parallelism,
+                        converter.fieldTypes,
+                        Arrays.stream( converter.fields ).map( field -> field - 1 ).toArray(),
+                        filterValues,
+                        cancelFlag );
+                return;
+            }
+            this.scanner = null;
             if ( stream ) {
                 this.reader = new CsvStreamReader( source );
             } else {
@@ -197,6 +222,11 @@ public E current() {
 
     @Override
     public boolean moveNext() {
+        if ( scanner != null ) {
+            //noinspection unchecked
+            current = (E) scanner.next();
+            return current != null;
+        }
         try {
             outer:
             for ( ; ; ) {
@@ -244,6 +274,10 @@ public void reset() {
 
     @Override
     public void close() {
+        if ( scanner != null ) {
+            scanner.close();
+            return;
+        }
         try {
             reader.close();
         } catch ( IOException e ) {
@@ -264,6 +298,86 @@ static int[] identityList( int n ) {
     }
 
 
+    /**
+     * Converts a field of a CSV file into the Java representation of the given type.
+     */
+    static Object convert( CsvFieldType fieldType, String string ) {
+        if ( fieldType == null ) {
+            return string;
+        }
+        switch ( fieldType ) {
+            case BOOLEAN:
+                if ( string.length() == 0 ) {
+                    return null;
+                }
+                return Boolean.parseBoolean( string );
+            case BYTE:
+                if ( string.length() == 0 ) {
+                    return null;
+                }
+                return Byte.parseByte( string );
+            case SHORT:
+                if ( string.length() == 0 ) {
+                    return null;
+                }
+                return Short.parseShort( string );
+            case INT:
+                if ( string.length() == 0 ) {
+                    return null;
+                }
+                return Integer.parseInt( string );
+            case LONG:
+                if ( string.length() == 0 ) {
+                    return null;
+                }
+                return Long.parseLong( string );
+            case FLOAT:
+                if ( string.length() == 0 ) {
+                    return null;
+                }
+                return Float.parseFloat( string );
+            case DOUBLE:
+                if ( string.length() == 0 ) {
+                    return null;
+                }
+                return Double.parseDouble( string );
+            case DATE:
+                if ( string.length() == 0 ) {
+                    return null;
+                }
+                try {
+                    Date date = TIME_FORMAT_DATE.parse( string );
+                    return (int) (date.getTime() / DateTimeUtils.MILLIS_PER_DAY);
+                } catch ( ParseException e ) {
+                    return null;
+                }
+            case TIME:
+                if ( string.length() == 0 ) {
+                    return null;
+                }
+                try {
+                    Date date = TIME_FORMAT_TIME.parse( string );
+                    return (int) date.getTime();
+                } catch ( ParseException e ) {
+                    return null;
+                }
+            case TIMESTAMP:
+                if ( string.length() == 0 ) {
+                    return null;
+                }
+                try {
+                    Date date = TIME_FORMAT_TIMESTAMP.parse( string );
+                    return date.getTime();
+                } catch ( ParseException e ) {
+                    return null;
+                }
+            case STRING:
+            default:
+                return string;
+        }
+    }
+
+
     /**
      * Row converter.
      *
@@ -275,79 +389,7 @@ static int[] identityList( int n ) {
 
 
         protected Object convert( CsvFieldType fieldType, String string ) {
-            if ( fieldType == null ) {
-                return string;
-            }
-            switch ( fieldType ) {
-                case BOOLEAN:
-                    if ( string.length() == 0 ) {
-                        return null;
-                    }
-                    return Boolean.parseBoolean( string );
-                case BYTE:
-                    if ( string.length() == 0 ) {
-                        return null;
-                    }
-                    return Byte.parseByte( string );
-                case SHORT:
-                    if ( string.length() == 0 ) {
-                        return null;
-                    }
-                    return Short.parseShort( string );
-                case INT:
-                    if ( string.length() == 0 ) {
-                        return null;
-                    }
-                    return Integer.parseInt( string );
-                case LONG:
-                    if ( string.length() == 0 ) {
-                        return null;
-                    }
-                    return Long.parseLong( string );
-                case FLOAT:
-                    if ( string.length() == 0 ) {
-                        return null;
-                    }
-                    return Float.parseFloat( string );
-                case DOUBLE:
-                    if ( string.length() == 0 ) {
-                        return null;
-                    }
-                    return Double.parseDouble( string );
-                case DATE:
-                    if ( string.length() == 0 ) {
-                        return null;
-                    }
-                    try {
-                        Date date = TIME_FORMAT_DATE.parse( string );
-                        return (int) (date.getTime() / DateTimeUtils.MILLIS_PER_DAY);
-                    } catch ( ParseException e ) {
-                        return null;
-                    }
-                case TIME:
-                    if ( string.length() == 0 ) {
-                        return null;
-                    }
-                    try {
-                        Date date = TIME_FORMAT_TIME.parse( string );
-                        return (int) date.getTime();
-                    } catch ( ParseException e ) {
-                        return null;
-                    }
-                case TIMESTAMP:
-                    if ( string.length() == 0 ) {
-                        return null;
-                    }
-                    try {
-                        Date date = TIME_FORMAT_TIMESTAMP.parse( string );
-                        return date.getTime();
-                    } catch ( ParseException e ) {
-                        return null;
-                    }
-                case STRING:
-                default:
-                    return string;
-            }
+            return CsvEnumerator.convert( fieldType, string );
         }
 
     }
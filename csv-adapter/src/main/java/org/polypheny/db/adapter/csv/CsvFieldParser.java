@@ -0,0 +1,349 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.csv;
+
+
+import java.nio.charset.StandardCharsets;
+import org.apache.calcite.avatica.util.DateTimeUtils;
+
+
+/**
+ * Converts CSV fields directly from the bytes of a file. Numbers, dates, times and timestamps in their common
+ * representation are parsed without creating intermediate strings or calendars. Everything else is handed over to
+ * {@link CsvEnumerator#convert(CsvFieldType, String)}, hence the result is the same as for the string based conversion.
+ */
+final class CsvFieldParser {
+
+    /**
+     * Marks a number which could not be parsed by the fast path.
+     */
+    private static final long INVALID = Long.MIN_VALUE;
+
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+            1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f };
+
+
+    private CsvFieldParser() {
+        // Utility class
+    }
+
+
+    /**
+     * Converts the UTF-8 encoded field {@code bytes[start, end)} into the Java representation of the given type.
+     */
+    static Object convert( CsvFieldType fieldType, byte[] bytes, int start, int end ) {
+        if ( fieldType == null ) {
+            return toString( bytes, start, end );
+        }
+        switch ( fieldType ) {
+            case BOOLEAN:
+                if ( start == end ) {
+                    return null;
+                }
+                return isTrue( bytes, start, end );
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                if ( start == end ) {
+                    return null;
+                }
+                long value = parseLong( bytes, start, end );
+                if ( value != INVALID ) {
+                    switch ( fieldType ) {
+                        case BYTE:
+                            if ( value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE ) {
+                                return (byte) value;
+                            }
+                            break;
+                        case SHORT:
+                            if ( value >= Short.MIN_VALUE && value <= Short.MAX_VALUE ) {
+                                return (short) value;
+                            }
+                            break;
+                        case INT:
+                            if ( value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ) {
+                                return (int) value;
+                            }
+                            break;
+                        default:
+                            return value;
+                    }
+                }
+                break;
+            case FLOAT:
+                if ( start == end ) {
+                    return null;
+                }
+                float f = parseFloat( bytes, start, end );
+                if ( !Float.isNaN( f ) ) {
+                    return f;
+                }
+                break;
+            case DOUBLE:
+                if ( start == end ) {
+                    return null;
+                }
+                double d = parseDouble( bytes, start, end );
+                if ( !Double.isNaN( d ) ) {
+                    return d;
+                }
+                break;
+            case DATE:
+                if ( start == end ) {
+                    return null;
+                }
+                if ( end - start == 10 ) {
+                    int date = parseDate( bytes, start );
+                    if ( date != Integer.MIN_VALUE ) {
+                        return date;
+                    }
+                }
+                break;
+            case TIME:
+                if ( start == end ) {
+                    return null;
+                }
+                if ( end - start == 8 ) {
+                    int time = parseTime( bytes, start );
+                    if ( time >= 0 ) {
+                        return time;
+                    }
+                }
+                break;
+            case TIMESTAMP:
+                if ( start == end ) {
+                    return null;
+                }
+                if ( end - start == 19 && bytes[start + 10] == ' ' ) {
+                    int date = parseDate( bytes, start );
+                    int time = parseTime( bytes, start + 11 );
+                    if ( date != Integer.MIN_VALUE && time >= 0 ) {
+                        return date * DateTimeUtils.MILLIS_PER_DAY + time;
+                    }
+                }
+                break;
+            default:
+                return toString( bytes, start, end );
+        }
+        // Not in a representation handled above, let the string based conversion deal with it
+        return CsvEnumerator.convert( fieldType, toString( bytes, start, end ) );
+    }
+
+
+    static String toString( byte[] bytes, int start, int end ) {
+        return new String( bytes, start, end - start, StandardCharsets.UTF_8 );
+    }
+
+
+    /**
+     * Same as {@link Boolean#parseBoolean(String)}.
+     */
+    static boolean isTrue( byte[] bytes, int start, int end ) {
+        return end - start == 4
+                && (bytes[start] | 0x20) == 't'
+                && (bytes[start + 1] | 0x20) == 'r'
+                && (bytes[start + 2] | 0x20) == 'u'
+                && (bytes[start + 3] | 0x20) == 'e';
+    }
+
+
+    /**
+     * Parses an optionally signed number of at most 18 digits.
+     *
+     * @return the number or {@link #INVALID} if it is not in this representation
+     */
+    static long parseLong( byte[] bytes, int start, int end ) {
+        boolean negative = false;
+        int i = start;
+        if ( bytes[i] == '-' || bytes[i] == '+' ) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        if ( i == end || end - i > 18 ) {
+            return INVALID;
+        }
+        long value = 0;
+        for ( ; i < end; i++ ) {
+            int digit = bytes[i] - '0';
+            if ( digit < 0 || digit > 9 ) {
+                return INVALID;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+
+    /**
+     * Parses decimal numbers whose significand and exponent are small enough to be converted with a single, correctly
+     * rounded floating point operation.
+     *
+     * @return the number or NaN if it is not in such a representation
+     */
+    static double parseDouble( byte[] bytes, int start, int end ) {
+        return parseDecimal( bytes, start, end, false );
+    }
+
+
+    /**
+     * Same as {@link #parseDouble(byte[], int, int)} but for single precision.
+     *
+     * @return the number or NaN if it is not in such a representation
+     */
+    static float parseFloat( byte[] bytes, int start, int end ) {
+        return (float) parseDecimal( bytes, start, end, true );
+    }
+
+
+    private static double parseDecimal( byte[] bytes, int start, int end, boolean single ) {
+        // A float holds 7 and a double 15 decimal digits exactly
+        final int maxDigits = single ? 7 : 15;
+        long significand = 0;
+        int digits = 0;
+        int exponent = 0;
+        int i = start;
+        boolean negative = false;
+        if ( bytes[i] == '-' || bytes[i] == '+' ) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        boolean any = false;
+        boolean fraction = false;
+        for ( ; i < end; i++ ) {
+            byte b = bytes[i];
+            if ( b >= '0' && b <= '9' ) {
+                any = true;
+                if ( significand != 0 || b != '0' ) {
+                    if ( ++digits > maxDigits ) {
+                        return Double.NaN;
+                    }
+                    significand = significand * 10 + (b - '0');
+                }
+                if ( fraction ) {
+                    exponent--;
+                }
+            } else if ( b == '.' && !fraction ) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if ( !any ) {
+            return Double.NaN;
+        }
+        if ( i < end ) {
+            if ( (bytes[i] | 0x20) != 'e' || i + 1 == end ) {
+                return Double.NaN;
+            }
+            long explicit = parseLong( bytes, i + 1, end );
+            if ( explicit == INVALID || Math.abs( explicit ) > 400 ) {
+                return Double.NaN;
+            }
+            exponent += (int) explicit;
+        }
+        double value;
+        if ( significand == 0 ) {
+            value = 0;
+        } else if ( single ) {
+            // Compute in single precision, rounding a double to a float could otherwise round twice
+            if ( exponent >= 0 && exponent < FLOAT_POWERS_OF_TEN.length ) {
+                value = (float) significand * FLOAT_POWERS_OF_TEN[exponent];
+            } else if ( exponent < 0 && -exponent < FLOAT_POWERS_OF_TEN.length ) {
+                value = (float) significand / FLOAT_POWERS_OF_TEN[-exponent];
+            } else {
+                return Double.NaN;
+            }
+        } else if ( exponent >= 0 && exponent < DOUBLE_POWERS_OF_TEN.length ) {
+            value = significand * DOUBLE_POWERS_OF_TEN[exponent];
+        } else if ( exponent < 0 && -exponent < DOUBLE_POWERS_OF_TEN.length ) {
+            value = significand / DOUBLE_POWERS_OF_TEN[-exponent];
+        } else {
+            return Double.NaN;
+        }
+        return negative ? -value : value;
+    }
+
+
+    /**
+     * Parses a date in the format {@code yyyy-MM-dd}.
+     *
+     * @return the number of days since the epoch or {@link Integer#MIN_VALUE} if the date is not in this format
+     */
+    static int parseDate( byte[] bytes, int start ) {
+        int year = digits( bytes, start, 4 );
+        int month = digits( bytes, start + 5, 2 );
+        int day = digits( bytes, start + 8, 2 );
+        if ( year < 0 || month < 1 || month > 12 || day < 1 || bytes[start + 4] != '-' || bytes[start + 7] != '-' ) {
+            return Integer.MIN_VALUE;
+        }
+        if ( day > daysInMonth( year, month ) || year <= 1582 ) {
+            // The date format is lenient and switches to the Julian calendar before 1582, leave these dates to it
+            return Integer.MIN_VALUE;
+        }
+        return DateTimeUtils.ymdToUnixDate( year, month, day );
+    }
+
+
+    /**
+     * Parses a time in the format {@code HH:mm:ss}.
+     *
+     * @return the milliseconds since midnight or -1 if the time is not in this format
+     */
+    static int parseTime( byte[] bytes, int start ) {
+        int hour = digits( bytes, start, 2 );
+        int minute = digits( bytes, start + 3, 2 );
+        int second = digits( bytes, start + 6, 2 );
+        if ( hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59 || bytes[start + 2] != ':' || bytes[start + 5] != ':' ) {
+            return -1;
+        }
+        return (int) ((hour * 3600L + minute * 60L + second) * DateTimeUtils.MILLIS_PER_SECOND);
+    }
+
+
+    private static int digits( byte[] bytes, int start, int count ) {
+        int value = 0;
+        for ( int i = start; i < start + count; i++ ) {
+            int digit = bytes[i] - '0';
+            if ( digit < 0 || digit > 9 ) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+
+    private static int daysInMonth( int year, int month ) {
+        switch ( month ) {
+            case 2:
+                return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+}
@@ -34,7 +34,9 @@
 package org.polypheny.db.adapter.csv;
 
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.Enumerable;
@@ -79,7 +81,17 @@ public Enumerable<Object[]> scan( DataContext dataContext, List<RexNode> filters
         return new AbstractEnumerable<Object[]>() {
             @Override
             public Enumerator<Object[]> enumerator() {
-                return new CsvEnumerator<>( source, cancelFlag, false, filterValues, new CsvEnumerator.ArrayRowConverter( fieldTypes, fields ) );
+                CsvCache cache = csvSource.getCache();
+                // The cache holds the typed values, the filters compare the values as they are written in the file
+                if ( cache != null && CsvCache.isCacheable( source ) && Arrays.stream( filterValues ).allMatch( Objects::isNull ) ) {
+                    return cache.enumerator( source.file(), fields, fieldTypes.toArray( new CsvFieldType[0] ), this::read, cancelFlag );
+                }
+                return read();
+            }
+
+
+            private Enumerator<Object[]> read() {
+                return new CsvEnumerator<>( source, cancelFlag, false, filterValues, new CsvEnumerator.ArrayRowConverter( fieldTypes, fields ), csvSource.getScanParallelism() );
             }
         };
     }
@@ -49,6 +49,7 @@
  * Table based on a CSV file.
  *
  * It implements the {@link ScannableTable} interface, so Polypheny-DB gets data by calling the {@link #scan(DataContext)} method.
+ * If the cache of the {@link CsvSource} is enabled, the rows are read from the cache as long as the file is unchanged.
  */
 public class CsvScannableTable extends CsvTable implements ScannableTable {
 
@@ -72,7 +73,16 @@ public Enumerable<Object[]> scan( DataContext dataContext ) {
         return new AbstractEnumerable<Object[]>() {
             @Override
             public Enumerator<Object[]> enumerator() {
-                return new CsvEnumerator<>( source, cancelFlag, false, null, new CsvEnumerator.ArrayRowConverter( fieldTypes, fields ) );
+                CsvCache cache = csvSource.getCache();
+                if ( cache != null && CsvCache.isCacheable( source ) ) {
+                    return cache.enumerator( source.file(), fields, fieldTypes.toArray( new CsvFieldType[0] ), this::read, cancelFlag );
+                }
+                return read();
+            }
+
+
+            private Enumerator<Object[]> read() {
+                return new CsvEnumerator<>( source, cancelFlag, false, null, new CsvEnumerator.ArrayRowConverter( fieldTypes, fields ), csvSource.getScanParallelism() );
             }
         };
     }
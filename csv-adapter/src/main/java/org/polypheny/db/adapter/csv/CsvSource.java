@@ -30,6 +30,7 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.polypheny.db.adapter.Adapter.AdapterProperties;
 import org.polypheny.db.adapter.Adapter.AdapterSettingDirectory;
@@ -42,6 +43,7 @@
 import org.polypheny.db.catalog.entity.CatalogPartitionPlacement;
 import org.polypheny.db.catalog.entity.CatalogTable;
 import org.polypheny.db.information.InformationGroup;
+import org.polypheny.db.information.InformationKeyValue;
 import org.polypheny.db.information.InformationTable;
 import org.polypheny.db.prepare.Context;
 import org.polypheny.db.schema.Schema;
@@ -61,11 +63,19 @@
 @AdapterSettingDirectory(name = "directory", description = "You can upload one or multiple .csv or .csv.gz files.", position = 1)
 @AdapterSettingInteger(name = "maxStringLength", defaultValue = 255, position = 2,
         description = "Which length (number of characters including whitespace) should be used for the varchar columns. Make sure this is equal or larger than the longest string in any of the columns.")
+@AdapterSettingInteger(name = "scanParallelism", defaultValue = 0, position = 3, required = false, modifiable = true,
+        description = "Number of threads used to scan large, uncompressed CSV files. With zero, the number of available processors is used. One disables parallel scans.")
+@AdapterSettingInteger(name = "cacheSize", defaultValue = 0, position = 4, required = false, modifiable = true,
+        description = "Memory in MB for keeping parsed copies of the CSV files, so that repeated queries do not read and parse the files again. Changed files are detected by their size and modification time. Zero disables the cache.")
 public class CsvSource extends DataSource {
 
     private URL csvDir;
     private CsvSchema currentSchema;
     private final int maxStringLength;
+    @Getter
+    private int scanParallelism;
+    @Getter
+    private CsvCache cache;
     private Map<String, List<ExportedColumn>> exportedColumnCache;
 
 
@@ -79,7 +89,10 @@ public CsvSource( final int storeId, final String uniqueName, final Map<String,
         }
 
         setCsvDir( settings );
+        setScanParallelism( settings );
+        setCache( settings );
         addInformationExportedColumns();
+        addInformationCache();
         enableInformationPage();
     }
 
@@ -98,6 +111,32 @@ private void setCsvDir( Map<String, String> settings ) {
     }
 
 
+    private void setScanParallelism( Map<String, String> settings ) {
+        // Adapters deployed before this setting existed do not have it
+        int parallelism = Integer.parseInt( settings.getOrDefault( "scanParallelism", "0" ) );
+        if ( parallelism < 0 ) {
+            throw new RuntimeException( "Invalid value for scanParallelism: " + parallelism );
+        }
+        scanParallelism = parallelism == 0 ? Runtime.getRuntime().availableProcessors() : parallelism;
+    }
+
+
+    private void setCache( Map<String, String> settings ) {
+        int size = Integer.parseInt( settings.getOrDefault( "cacheSize", "0" ) );
+        if ( size < 0 ) {
+            throw new RuntimeException( "Invalid value for cacheSize: " + size );
+        }
+        long budget = size * 1024L * 1024L;
+        if ( budget == 0 ) {
+            cache = null;
+        } else if ( cache == null ) {
+            cache = new CsvCache( budget );
+        } else {
+            cache.setBudget( budget );
+        }
+    }
+
+
     @Override
     public void createNewSchema( SchemaPlus rootSchema, String name ) {
         currentSchema = new CsvSchema( csvDir, Flavor.SCANNABLE );
@@ -265,6 +304,15 @@ public void shutdown() {
     protected void reloadSettings( List<String> updatedSettings ) {
         if ( updatedSettings.contains( "directory" ) ) {
             setCsvDir( settings );
+            if ( cache != null ) {
+                cache.invalidate();
+            }
+        }
+        if ( updatedSettings.contains( "scanParallelism" ) ) {
+            setScanParallelism( settings );
+        }
+        if ( updatedSettings.contains( "cacheSize" ) ) {
+            setCache( settings );
         }
     }
 
@@ -291,4 +339,29 @@ private void addInformationExportedColumns() {
         }
     }
 
+
+    private void addInformationCache() {
+        InformationGroup group = new InformationGroup( informationPage, "Cache" );
+        informationGroups.add( group );
+
+        InformationKeyValue keyValue = new InformationKeyValue( group );
+        group.setRefreshFunction( () -> {
+            CsvCache cache = this.cache;
+            if ( cache == null ) {
+                keyValue.putPair( "Status", "Disabled" );
+                return;
+            }
+            long hits = cache.getHits().get();
+            long misses = cache.getMisses().get();
+            keyValue.putPair( "Status", "Active" );
+            keyValue.putPair( "Cached Files", String.valueOf( cache.size() ) );
+            keyValue.putPair( "Memory Used", String.format( "%.1f MB of %.1f MB", cache.getUsedMemory() / 1048576.0, cache.getBudget() / 1048576.0 ) );
+            keyValue.putPair( "Hits", String.valueOf( hits ) );
+            keyValue.putPair( "Misses", String.valueOf( misses ) );
+            keyValue.putPair( "Hit Ratio", hits + misses == 0 ? "-" : String.format( "%.1f %%", 100.0 * hits / (hits + misses) ) );
+            keyValue.putPair( "Evictions", String.valueOf( cache.getEvictions().get() ) );
+        } );
+        informationElements.add( keyValue );
+    }
+
 }
@@ -0,0 +1,539 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.csv;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.util.Source;
+import org.polypheny.db.util.VirtualThreads;
+
+
+/**
+ * Scans a CSV file in parallel. The file is divided into byte ranges (splits) which are parsed by a pool of workers.
+ * A split contributes all records which start within its range. To find the first record of a split, the quotes in
+ * front of it are counted in a first, also parallel, pass: a line break only terminates a record if it is preceded by
+ * an even number of quotes.
+ *
+ * Rows are returned in the order of the file. Only the columns which are projected or filtered are decoded, the other
+ * columns are skipped while tokenizing the records.
+ *
+ * The tokenizer follows the defaults of the CSV reader used for sequential scans: fields are separated by commas,
+ * quoted with double quotes and quotes are escaped either by doubling them or with a backslash.
+ */
+@Slf4j
+final class CsvSplitScanner implements AutoCloseable {
+
+    /**
+     * Files smaller than two splits are scanned sequentially.
+     */
+    static final long MIN_SPLIT_SIZE = 16L * 1024 * 1024;
+
+    private static final int MIN_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_BUFFER_SIZE = 256 * 1024;
+    private static final int BATCH_SIZE = 1024;
+    private static final int QUEUE_CAPACITY = 4;
+    private static final Object[][] END = new Object[0][];
+
+    private static final byte SEPARATOR = ',';
+    private static final byte QUOTE = '"';
+    private static final byte ESCAPE = '\\';
+
+    private final FileChannel channel;
+    private final long[] splitStarts;
+    private final long fileSize;
+    private final int bufferSize;
+    private final int parallelism;
+    private final CsvFieldType[] fieldTypes;
+    private final int[] columns;
+    private final String[] filterValues;
+    private final boolean[] required;
+    private final AtomicBoolean cancelFlag;
+
+    private final ExecutorService executor;
+    private final List<Future<Long>> quoteCounts = new ArrayList<>();
+    private final Deque<Split> running = new ArrayDeque<>();
+    private int nextSplit = 0;
+
+    private Object[][] batch = END;
+    private int batchPosition = 0;
+    private volatile boolean closed = false;
+
+
+    /**
+     * @param file The CSV file, the first record is the header
+     * @param splitSize Size of the byte ranges scanned by one worker
+     * @param parallelism Number of workers
+     * @param fieldTypes Types of the returned columns
+     * @param columns Zero-based positions of the returned columns in the file
+     * @param filterValues Values the columns of a row have to be equal to, or null
+     * @param cancelFlag Flag which is set if the query is canceled
+     */
+    CsvSplitScanner( File file, long splitSize, int parallelism, CsvFieldType[] fieldTypes, int[] columns, String[] filterValues, AtomicBoolean cancelFlag ) throws IOException {
+        this.channel = FileChannel.open( file.toPath(), StandardOpenOption.READ );
+        this.fileSize = channel.size();
+        this.bufferSize = (int) Math.min( MAX_BUFFER_SIZE, Math.max( MIN_BUFFER_SIZE, splitSize ) );
+        this.parallelism = parallelism;
+        this.fieldTypes = fieldTypes;
+        this.columns = columns;
+        this.filterValues = filterValues;
+        this.cancelFlag = cancelFlag;
+
+        int maxColumn = Arrays.stream( columns ).max().orElse( -1 );
+        if ( filterValues != null ) {
+            maxColumn = Math.max( maxColumn, filterValues.length - 1 );
+        }
+        this.required = new boolean[maxColumn + 1];
+        for ( int column : columns ) {
+            required[column] = true;
+        }
+        if ( filterValues != null ) {
+            for ( int i = 0; i < filterValues.length; i++ ) {
+                required[i] |= filterValues[i] != null;
+            }
+        }
+
+        int splits = (int) Math.max( 1, Math.min( Integer.MAX_VALUE, (fileSize + splitSize - 1) / splitSize ) );
+        this.splitStarts = new long[splits];
+        for ( int i = 0; i < splits; i++ ) {
+            splitStarts[i] = i * splitSize;
+        }
+
+        this.executor = Executors.newFixedThreadPool( parallelism, VirtualThreads.threadFactory( "CsvScan-", false ) );
+        // The quote counts are submitted first, therefore they never wait for a split being parsed
+        for ( int i = 0; i < splits; i++ ) {
+            final int split = i;
+            quoteCounts.add( executor.submit( () -> countQuotes( split ) ) );
+        }
+    }
+
+
+    /**
+     * Whether a source is a file which is large enough to be scanned in parallel.
+     */
+    static boolean isApplicable( Source source, int parallelism ) {
+        if ( parallelism < 2 || !source.protocol().equals( "file" ) || source.path().endsWith( ".gz" ) ) {
+            return false;
+        }
+        File file = source.file();
+        return file.isFile() && file.length() >= 2 * MIN_SPLIT_SIZE;
+    }
+
+
+    /**
+     * Returns the split size for a file, such that every worker gets a few splits to balance the load.
+     */
+    static long splitSize( long fileSize, int parallelism ) {
+        return Math.max( MIN_SPLIT_SIZE, fileSize / (4L * parallelism) + 1 );
+    }
+
+
+    /**
+     * @return the next row or null if all rows have been returned or the query has been canceled
+     */
+    Object[] next() {
+        while ( batchPosition == batch.length ) {
+            if ( cancelFlag.get() ) {
+                return null;
+            }
+            while ( running.size() < parallelism && nextSplit < splitStarts.length ) {
+                Split split = new Split( nextSplit++ );
+                running.add( split );
+                executor.execute( split );
+            }
+            Split split = running.peek();
+            if ( split == null ) {
+                return null;
+            }
+            try {
+                batch = split.batches.take();
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException( "Interrupted while scanning " + split, e );
+            }
+            batchPosition = 0;
+            if ( batch == END ) {
+                running.poll();
+                if ( split.error != null ) {
+                    throw new RuntimeException( "Unable to scan " + split, split.error );
+                }
+            }
+        }
+        return batch[batchPosition++];
+    }
+
+
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+        try {
+            channel.close();
+        } catch ( IOException e ) {
+            log.warn( "Unable to close CSV file", e );
+        }
+    }
+
+
+    private long splitEnd( int split ) {
+        return split + 1 < splitStarts.length ? splitStarts[split + 1] : fileSize;
+    }
+
+
+    /**
+     * Counts the quotes of a split which are not escaped by a backslash.
+     */
+    private long countQuotes( int split ) throws IOException {
+        long position = splitStarts[split];
+        final long end = splitEnd( split );
+        boolean escaped = isEscaped( position );
+        long count = 0;
+        ByteBuffer buffer = ByteBuffer.allocate( bufferSize );
+        byte[] bytes = buffer.array();
+        while ( position < end && !closed ) {
+            buffer.clear();
+            buffer.limit( (int) Math.min( bufferSize, end - position ) );
+            int read = channel.read( buffer, position );
+            if ( read < 0 ) {
+                break;
+            }
+            for ( int i = 0; i < read; i++ ) {
+                byte b = bytes[i];
+                if ( escaped ) {
+                    escaped = false;
+                    if ( b == QUOTE || b == ESCAPE ) {
+                        continue;
+                    }
+                }
+                if ( b == QUOTE ) {
+                    count++;
+                } else if ( b == ESCAPE ) {
+                    escaped = true;
+                }
+            }
+            position += read;
+        }
+        return count;
+    }
+
+
+    /**
+     * Whether the byte at the given position is preceded by an odd number of backslashes. A pair of backslashes
+     * denotes a backslash, hence only an odd number escapes the following byte.
+     */
+    private boolean isEscaped( long position ) throws IOException {
+        int backslashes = 0;
+        ByteBuffer buffer = ByteBuffer.allocate( 1 );
+        while ( position - backslashes > 0 ) {
+            buffer.clear();
+            channel.read( buffer, position - backslashes - 1 );
+            if ( buffer.get( 0 ) != ESCAPE ) {
+                break;
+            }
+            backslashes++;
+        }
+        return backslashes % 2 == 1;
+    }
+
+
+    /**
+     * The records starting within a byte range of the file. Parsed rows are handed over to the consumer in batches.
+     */
+    private class Split implements Runnable {
+
+        private final int index;
+        private final long end;
+        private final BlockingQueue<Object[][]> batches = new ArrayBlockingQueue<>( QUEUE_CAPACITY );
+        private volatile Throwable error;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate( bufferSize );
+        private final byte[] bytes = buffer.array();
+        private long bufferPosition;
+        private int position;
+        private int limit;
+
+        // Content of the current record, the quotes and escapes are already removed
+        private byte[] content = new byte[1024];
+        private int contentLength;
+        private int[] fieldStarts = new int[16];
+        private int[] fieldEnds = new int[16];
+        private int fieldCount;
+
+
+        Split( int index ) {
+            this.index = index;
+            this.end = splitEnd( index );
+        }
+
+
+        @Override
+        public void run() {
+            try {
+                long start = findFirstRecord();
+                seek( start );
+                List<Object[]> rows = new ArrayList<>( BATCH_SIZE );
+                while ( offset() < end && !closed ) {
+                    int fields = readRecord();
+                    if ( fields < 0 ) {
+                        break;
+                    }
+                    if ( fields == 0 || !matchesFilter() ) {
+                        continue;
+                    }
+                    rows.add( convertRow() );
+                    if ( rows.size() == BATCH_SIZE ) {
+                        batches.put( rows.toArray( new Object[0][] ) );
+                        rows.clear();
+                    }
+                }
+                if ( !rows.isEmpty() ) {
+                    batches.put( rows.toArray( new Object[0][] ) );
+                }
+            } catch ( InterruptedException e ) {
+                // The scan has been closed
+                return;
+            } catch ( Throwable t ) {
+                error = t;
+            }
+            try {
+                batches.put( END );
+            } catch ( InterruptedException e ) {
+                // The scan has been closed
+            }
+        }
+
+
+        /**
+         * Determines the start of the first record of this split. The first split skips the header.
+         */
+        private long findFirstRecord() throws IOException, InterruptedException, ExecutionException {
+            long start = splitStarts[index];
+            long quotes = 0;
+            for ( int i = 0; i < index; i++ ) {
+                quotes += quoteCounts.get( i ).get();
+            }
+            boolean quoted = quotes % 2 == 1;
+            if ( start > 0 && !quoted ) {
+                seek( start - 1 );
+                int previous = read();
+                if ( previous == '\n' ) {
+                    return start;
+                } else if ( previous == '\r' ) {
+                    return peek() == '\n' ? start + 1 : start;
+                }
+            }
+            seek( start );
+            boolean escaped = start > 0 && isEscaped( start );
+            for ( int b = read(); b >= 0; b = read() ) {
+                if ( escaped ) {
+                    escaped = false;
+                    if ( b == QUOTE || b == ESCAPE ) {
+                        continue;
+                    }
+                }
+                if ( b == QUOTE ) {
+                    quoted = !quoted;
+                } else if ( b == ESCAPE ) {
+                    escaped = true;
+                } else if ( !quoted && (b == '\n' || b == '\r') ) {
+                    if ( b == '\r' && peek() == '\n' ) {
+                        read();
+                    }
+                    return offset();
+                }
+            }
+            return fileSize;
+        }
+
+
+        /**
+         * Reads the record at the current position.
+         *
+         * @return the number of fields, 0 for an empty line or -1 at the end of the file
+         */
+        private int readRecord() throws IOException {
+            contentLength = 0;
+            fieldCount = 0;
+            int fieldStart = 0;
+            boolean quoted = false;
+            boolean empty = true;
+            for ( ; ; ) {
+                int b = read();
+                if ( b < 0 ) {
+                    if ( empty ) {
+                        return -1;
+                    }
+                    break;
+                }
+                if ( quoted ) {
+                    if ( b == QUOTE ) {
+                        if ( peek() == QUOTE ) {
+                            append( read() );
+                        } else {
+                            quoted = false;
+                        }
+                        continue;
+                    }
+                } else if ( b == SEPARATOR ) {
+                    endField( fieldStart );
+                    fieldStart = contentLength;
+                    empty = false;
+                    continue;
+                } else if ( b == '\n' ) {
+                    break;
+                } else if ( b == '\r' ) {
+                    if ( peek() == '\n' ) {
+                        read();
+                    }
+                    break;
+                } else if ( b == QUOTE ) {
+                    quoted = true;
+                    empty = false;
+                    continue;
+                }
+                empty = false;
+                if ( b == ESCAPE ) {
+                    int next = peek();
+                    if ( next == QUOTE || next == ESCAPE ) {
+                        b = read();
+                    }
+                }
+                append( b );
+            }
+            if ( empty ) {
+                return 0;
+            }
+            endField( fieldStart );
+            return fieldCount;
+        }
+
+
+        private void append( int b ) {
+            // Columns which are neither projected nor filtered are skipped
+            if ( fieldCount < required.length && required[fieldCount] ) {
+                if ( contentLength == content.length ) {
+                    content = Arrays.copyOf( content, content.length * 2 );
+                }
+                content[contentLength++] = (byte) b;
+            }
+        }
+
+
+        private void endField( int fieldStart ) {
+            if ( fieldCount == fieldStarts.length ) {
+                fieldStarts = Arrays.copyOf( fieldStarts, fieldCount * 2 );
+                fieldEnds = Arrays.copyOf( fieldEnds, fieldCount * 2 );
+            }
+            fieldStarts[fieldCount] = fieldStart;
+            fieldEnds[fieldCount] = contentLength;
+            fieldCount++;
+        }
+
+
+        private boolean matchesFilter() {
+            if ( filterValues == null ) {
+                return true;
+            }
+            // Like the sequential scan, only the fields present in the record are compared
+            for ( int i = 0; i < Math.min( filterValues.length, fieldCount ); i++ ) {
+                if ( filterValues[i] != null && !filterValues[i].equals( CsvFieldParser.toString( content, fieldStarts[i], fieldEnds[i] ) ) ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+
+        private Object[] convertRow() {
+            final Object[] row = new Object[columns.length];
+            for ( int i = 0; i < columns.length; i++ ) {
+                int column = columns[i];
+                if ( column >= fieldCount ) {
+                    throw new RuntimeException( "Record in " + this + " has " + fieldCount + " fields, but field " + (column + 1) + " is required." );
+                }
+                row[i] = CsvFieldParser.convert( fieldTypes[i], content, fieldStarts[column], fieldEnds[column] );
+            }
+            return row;
+        }
+
+
+        private long offset() {
+            return bufferPosition + position;
+        }
+
+
+        private void seek( long offset ) {
+            bufferPosition = offset;
+            position = 0;
+            limit = 0;
+        }
+
+
+        private int read() throws IOException {
+            if ( position == limit && !fill() ) {
+                return -1;
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+
+        private int peek() throws IOException {
+            if ( position == limit && !fill() ) {
+                return -1;
+            }
+            return bytes[position] & 0xFF;
+        }
+
+
+        private boolean fill() throws IOException {
+            bufferPosition += limit;
+            position = 0;
+            limit = 0;
+            buffer.clear();
+            int read = channel.read( buffer, bufferPosition );
+            if ( read <= 0 ) {
+                return false;
+            }
+            limit = read;
+            return true;
+        }
+
+
+        @Override
+        public String toString() {
+            return "split " + index + " [" + splitStarts[index] + ", " + end + ")";
+        }
+
+    }
+
+}
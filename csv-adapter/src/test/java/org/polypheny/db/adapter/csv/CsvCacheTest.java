@@ -0,0 +1,196 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.csv;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.calcite.linq4j.Enumerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class CsvCacheTest {
+
+    private static final CsvFieldType[] TYPES = { CsvFieldType.INT, CsvFieldType.STRING, CsvFieldType.DOUBLE, CsvFieldType.BOOLEAN, CsvFieldType.TIMESTAMP };
+    private static final int[] FIELDS = { 1, 2, 3, 4, 5 };
+
+    private File file;
+    private final AtomicInteger scans = new AtomicInteger();
+    private final AtomicBoolean cancelFlag = new AtomicBoolean();
+
+
+    @Before
+    public void createFile() throws IOException {
+        file = File.createTempFile( "cache", ".csv" );
+        write( 100 );
+    }
+
+
+    @After
+    public void deleteFile() {
+        file.delete();
+    }
+
+
+    @Test
+    public void hitAfterFullScan() {
+        CsvCache cache = new CsvCache( 1024 * 1024 );
+        List<Object[]> first = read( cache );
+        List<Object[]> second = read( cache );
+        assertEquals( 1, scans.get() );
+        assertEquals( 1, cache.getMisses().get() );
+        assertEquals( 1, cache.getHits().get() );
+        assertEquals( 100, second.size() );
+        for ( int i = 0; i < first.size(); i++ ) {
+            assertArrayEquals( first.get( i ), second.get( i ) );
+        }
+        assertEquals( Arrays.asList( 3, "name 3", null, false, 1_600_000_003_000L ), Arrays.asList( second.get( 3 ) ) );
+    }
+
+
+    @Test
+    public void detectChangedFile() throws IOException {
+        CsvCache cache = new CsvCache( 1024 * 1024 );
+        read( cache );
+        write( 120 );
+        assertEquals( 120, read( cache ).size() );
+        assertEquals( 2, scans.get() );
+        assertEquals( 120, read( cache ).size() );
+        assertEquals( 2, scans.get() );
+    }
+
+
+    @Test
+    public void incompleteScansAreNotCached() {
+        CsvCache cache = new CsvCache( 1024 * 1024 );
+        try ( Enumerator<Object[]> enumerator = enumerator( cache ) ) {
+            enumerator.moveNext();
+        }
+        cancelFlag.set( true );
+        read( cache );
+        cancelFlag.set( false );
+        read( cache );
+        assertEquals( 3, scans.get() );
+        assertEquals( 1, cache.size() );
+    }
+
+
+    @Test
+    public void evictWithinBudget() throws IOException {
+        CsvCache cache = new CsvCache( 1024 * 1024 );
+        read( cache );
+        long size = cache.getUsedMemory();
+        cache.setBudget( size - 1 );
+        assertEquals( 0, cache.size() );
+        assertEquals( 0, cache.getUsedMemory() );
+        assertEquals( 1, cache.getEvictions().get() );
+
+        // Files larger than the budget are not cached at all
+        read( cache );
+        assertEquals( 0, cache.size() );
+        assertFalse( cache.getUsedMemory() > cache.getBudget() );
+    }
+
+
+    private List<Object[]> read( CsvCache cache ) {
+        List<Object[]> rows = new ArrayList<>();
+        try ( Enumerator<Object[]> enumerator = enumerator( cache ) ) {
+            while ( enumerator.moveNext() ) {
+                rows.add( enumerator.current() );
+            }
+        }
+        return rows;
+    }
+
+
+    private Enumerator<Object[]> enumerator( CsvCache cache ) {
+        return cache.enumerator( file, FIELDS, TYPES, this::scan, cancelFlag );
+    }
+
+
+    /**
+     * Reads the file line by line, counting the scans.
+     */
+    private Enumerator<Object[]> scan() {
+        scans.incrementAndGet();
+        final List<String> lines;
+        try {
+            lines = Files.readAllLines( file.toPath(), StandardCharsets.UTF_8 );
+        } catch ( IOException e ) {
+            throw new RuntimeException( e );
+        }
+        return new Enumerator<Object[]>() {
+            private int line = 0;
+            private Object[] current;
+
+
+            @Override
+            public Object[] current() {
+                return current;
+            }
+
+
+            @Override
+            public boolean moveNext() {
+                if ( cancelFlag.get() || ++line >= lines.size() ) {
+                    return false;
+                }
+                String[] values = lines.get( line ).split( ",", -1 );
+                current = new Object[TYPES.length];
+                for ( int i = 0; i < TYPES.length; i++ ) {
+                    current[i] = CsvEnumerator.convert( TYPES[i], values[FIELDS[i] - 1] );
+                }
+                return true;
+            }
+
+
+            @Override
+            public void reset() {
+                throw new UnsupportedOperationException();
+            }
+
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+
+    private void write( int rows ) throws IOException {
+        StringBuilder csv = new StringBuilder( "id:int,name:string,price:double,active:boolean,changed:timestamp\n" );
+        for ( int i = 0; i < rows; i++ ) {
+            csv.append( i ).append( ",name " ).append( i ).append( ',' ).append( i % 3 == 0 ? "" : i * 1.5 ).append( ',' ).append( i % 2 == 0 )
+                    .append( ',' ).append( "2020-09-13 12:26:" ).append( String.format( "%02d", 40 + i % 20 ) ).append( '\n' );
+        }
+        Files.write( file.toPath(), csv.toString().getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+}
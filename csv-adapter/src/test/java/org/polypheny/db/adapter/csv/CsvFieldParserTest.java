@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.csv;
+
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.Test;
+
+
+public class CsvFieldParserTest {
+
+    @Test
+    public void sameAsStringConversion() {
+        String[][] values = {
+                { "INT", "0", "-17", "+42", "2147483647", "-2147483648", "" },
+                { "LONG", "9223372036854775807", "-9223372036854775808", "123456789012345678", "-0" },
+                { "SHORT", "-32768", "32767" },
+                { "BYTE", "-128", "127" },
+                { "BOOLEAN", "true", "TRUE", "tRuE", "false", "yes", "1", "" },
+                { "DOUBLE", "0", "-0.0", "1.", ".5", "3.14159", "1e10", "1E-5", "-2.5e+3", "123456789012345", "1234567890123456789", "0.1e-30", "1e300", "1d", "NaN", "Infinity", " 1.5 " },
+                { "FLOAT", "0.1", "3.4028235e38", "1.17549435E-38", "16777217", "1234567", "-7.5e3" },
+                { "DATE", "2021-03-14", "1969-12-31", "1900-02-28", "2000-02-29", "2021-02-29", "0001-01-01", "2021-3-14" },
+                { "TIME", "00:00:00", "23:59:59", "12:30:45", "24:00:00", "1:2:3" },
+                { "TIMESTAMP", "2021-03-14 15:09:26", "1970-01-01 00:00:00", "1969-07-20 20:17:40", "2021-03-14T15:09:26", "2021-03-14 15:09:26.5" },
+                { "STRING", "", "abc", "äöü" },
+        };
+        for ( String[] row : values ) {
+            CsvFieldType type = CsvFieldType.valueOf( row[0] );
+            for ( int i = 1; i < row.length; i++ ) {
+                assertConverted( type, row[i] );
+            }
+        }
+    }
+
+
+    @Test
+    public void randomNumbers() {
+        Random random = new Random( 42 );
+        for ( int i = 0; i < 10000; i++ ) {
+            long significand = random.nextInt( 1_000_000_000 );
+            int scale = random.nextInt( 12 );
+            String number = (random.nextBoolean() ? "-" : "") + new java.math.BigDecimal( java.math.BigInteger.valueOf( significand ), scale ).toPlainString();
+            assertConverted( CsvFieldType.DOUBLE, number );
+            assertConverted( CsvFieldType.FLOAT, number );
+            assertConverted( CsvFieldType.LONG, Long.toString( random.nextLong() ) );
+        }
+    }
+
+
+    private static void assertConverted( CsvFieldType type, String value ) {
+        byte[] bytes = ("," + value + ",").getBytes( StandardCharsets.UTF_8 );
+        Object expected;
+        try {
+            expected = CsvEnumerator.convert( type, value );
+        } catch ( NumberFormatException e ) {
+            expected = e.getClass();
+        }
+        Object actual;
+        try {
+            actual = CsvFieldParser.convert( type, bytes, 1, bytes.length - 1 );
+        } catch ( NumberFormatException e ) {
+            actual = e.getClass();
+        }
+        assertEquals( type + " " + value, expected, actual );
+    }
+
+}
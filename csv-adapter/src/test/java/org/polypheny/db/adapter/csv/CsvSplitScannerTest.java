@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.csv;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class CsvSplitScannerTest {
+
+    private static final CsvFieldType[] TYPES = { CsvFieldType.INT, CsvFieldType.STRING, CsvFieldType.DOUBLE, CsvFieldType.DATE };
+
+    private File file;
+    private final List<Object[]> expected = new ArrayList<>();
+
+
+    @Before
+    public void createFile() throws IOException {
+        StringBuilder csv = new StringBuilder( "id:int,name:string,price:double,day:date\n" );
+        String[] names = { "plain", "with, comma", "with \"\"quotes\"\"", "with\nline break", "with \\\" escape", "übergrößenträger", "" };
+        String[] raw = { "plain", "with, comma", "with \"quotes\"", "with\nline break", "with \" escape", "übergrößenträger", "" };
+        for ( int i = 0; i < 200; i++ ) {
+            int name = i % names.length;
+            boolean quote = name > 0 && name < 5;
+            csv.append( i ).append( ',' )
+                    .append( quote ? "\"" + names[name] + "\"" : names[name] ).append( ',' )
+                    .append( i % 5 == 0 ? "" : i + ".25" ).append( ',' )
+                    .append( "2021-03-" ).append( String.format( "%02d", i % 28 + 1 ) )
+                    .append( i % 3 == 0 ? "\r\n" : "\n" );
+            if ( i % 17 == 0 ) {
+                csv.append( '\n' );
+            }
+            expected.add( new Object[]{ i, raw[name], i % 5 == 0 ? null : i + 0.25, 18687 + i % 28 } );
+        }
+        file = File.createTempFile( "split", ".csv" );
+        Files.write( file.toPath(), csv.toString().getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+
+    @After
+    public void deleteFile() {
+        file.delete();
+    }
+
+
+    @Test
+    public void sameRowsForAllSplitSizes() throws IOException {
+        for ( long splitSize = 1; splitSize < 120; splitSize += 7 ) {
+            List<Object[]> rows = scan( splitSize, new int[]{ 0, 1, 2, 3 }, null );
+            assertEquals( "split size " + splitSize, expected.size(), rows.size() );
+            for ( int i = 0; i < rows.size(); i++ ) {
+                assertArrayEquals( "split size " + splitSize, expected.get( i ), rows.get( i ) );
+            }
+        }
+    }
+
+
+    @Test
+    public void projectAndFilter() throws IOException {
+        List<Object[]> rows = scan( 50, new int[]{ 3, 0 }, new String[]{ null, "with, comma" } );
+        assertEquals( 29, rows.size() );
+        for ( Object[] row : rows ) {
+            assertEquals( 2, row.length );
+            int id = (Integer) row[1];
+            assertEquals( 1, id % 7 );
+            assertEquals( 18687 + id % 28, row[0] );
+        }
+    }
+
+
+    @Test
+    public void cancel() throws IOException {
+        AtomicBoolean cancelFlag = new AtomicBoolean();
+        try ( CsvSplitScanner scanner = new CsvSplitScanner( file, 10, 2, TYPES, new int[]{ 0, 1, 2, 3 }, null, cancelFlag ) ) {
+            assertEquals( 0, scanner.next()[0] );
+            cancelFlag.set( true );
+            assertNull( scanner.next() );
+        }
+    }
+
+
+    @Test(expected = RuntimeException.class)
+    public void shortRecord() throws IOException {
+        writeShortRecord();
+        scan( 50, new int[]{ 0, 3 }, null );
+    }
+
+
+    @Test
+    public void shortRecordWithoutMissingColumns() throws IOException {
+        writeShortRecord();
+        List<Object[]> rows = scan( 50, new int[]{ 0, 1 }, new String[]{ null, null, null, "2021-03-01" } );
+        assertEquals( 2, rows.size() );
+        assertArrayEquals( new Object[]{ 1, "short" }, rows.get( 1 ) );
+    }
+
+
+    private void writeShortRecord() throws IOException {
+        String csv = "id:int,name:string,price:double,day:date\n0,plain,1.25,2021-03-01\n1,short\n";
+        Files.write( file.toPath(), csv.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+
+    private List<Object[]> scan( long splitSize, int[] columns, String[] filterValues ) throws IOException {
+        CsvFieldType[] types = Arrays.stream( columns ).mapToObj( c -> TYPES[c] ).toArray( CsvFieldType[]::new );
+        List<Object[]> rows = new ArrayList<>();
+        try ( CsvSplitScanner scanner = new CsvSplitScanner( file, splitSize, 3, types, columns, filterValues, new AtomicBoolean() ) ) {
+            Object[] row;
+            while ( (row = scanner.next()) != null ) {
+                rows.add( row );
+            }
+        }
+        return rows;
+    }
+
+}
@@ -22,6 +22,7 @@
 import java.lang.reflect.Type;
 import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -41,6 +42,8 @@
 import org.apache.calcite.avatica.Meta.CursorFactory;
 import org.apache.commons.lang3.time.StopWatch;
 import org.polypheny.db.PolyImplementation;
+import org.polypheny.db.adapter.Adapter;
+import org.polypheny.db.adapter.AdapterManager;
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.adapter.DataContext.ParameterValue;
 import org.polypheny.db.adapter.enumerable.EnumerableAlg;
@@ -48,10 +51,14 @@
 import org.polypheny.db.adapter.enumerable.EnumerableCalc;
 import org.polypheny.db.adapter.enumerable.EnumerableConvention;
 import org.polypheny.db.adapter.enumerable.EnumerableInterpretable;
+import org.polypheny.db.adapter.enumerable.EnumerableRules;
+import org.polypheny.db.adapter.enumerable.Parallelism;
+import org.polypheny.db.adapter.index.HnswIndex;
 import org.polypheny.db.adapter.index.Index;
 import org.polypheny.db.adapter.index.IndexManager;
 import org.polypheny.db.algebra.AlgCollation;
 import org.polypheny.db.algebra.AlgCollations;
+import org.polypheny.db.algebra.AlgFieldCollation.Direction;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.AlgRoot;
 import org.polypheny.db.algebra.AlgShuttle;
@@ -71,10 +78,13 @@
 import org.polypheny.db.algebra.logical.common.LogicalConditionalExecute;
 import org.polypheny.db.algebra.logical.document.LogicalDocumentModify;
 import org.polypheny.db.algebra.logical.lpg.LogicalLpgModify;
+import org.polypheny.db.algebra.logical.relational.LogicalFilter;
 import org.polypheny.db.algebra.logical.relational.LogicalModify;
 import org.polypheny.db.algebra.logical.relational.LogicalProject;
 import org.polypheny.db.algebra.logical.relational.LogicalScan;
+import org.polypheny.db.algebra.logical.relational.LogicalSort;
 import org.polypheny.db.algebra.logical.relational.LogicalValues;
+import org.polypheny.db.algebra.operators.OperatorName;
 import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.algebra.type.AlgDataTypeField;
 import org.polypheny.db.catalog.Catalog;
@@ -92,30 +102,43 @@
 import org.polypheny.db.information.InformationQueryPlan;
 import org.polypheny.db.interpreter.BindableConvention;
 import org.polypheny.db.interpreter.Interpreters;
+import org.polypheny.db.interpreter.JaninoRexCompiler;
+import org.polypheny.db.languages.OperatorRegistry;
 import org.polypheny.db.monitoring.events.DmlEvent;
 import org.polypheny.db.monitoring.events.QueryEvent;
 import org.polypheny.db.monitoring.events.StatementEvent;
+import org.polypheny.db.monitoring.jfr.ExecutionEvent;
+import org.polypheny.db.monitoring.jfr.PlanningEvent;
+import org.polypheny.db.monitoring.metrics.QueryMetrics;
+import org.polypheny.db.monitoring.metrics.QueryStage;
 import org.polypheny.db.partition.PartitionManagerFactory;
 import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
 import org.polypheny.db.plan.AlgOptUtil;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.plan.Convention;
+import org.polypheny.db.plan.volcano.VolcanoPlanner;
 import org.polypheny.db.prepare.AlgOptTableImpl;
 import org.polypheny.db.prepare.Prepare.CatalogReader;
 import org.polypheny.db.prepare.Prepare.PreparedResult;
 import org.polypheny.db.prepare.Prepare.PreparedResultImpl;
 import org.polypheny.db.processing.caching.ImplementationCache;
+import org.polypheny.db.processing.caching.PlannerTemplateCache;
 import org.polypheny.db.processing.caching.QueryPlanCache;
+import org.polypheny.db.processing.caching.ResultCache;
 import org.polypheny.db.processing.caching.RoutingPlanCache;
+import org.polypheny.db.processing.caching.StatementTemplateCache;
 import org.polypheny.db.processing.shuttles.LogicalQueryInformationImpl;
 import org.polypheny.db.processing.shuttles.ParameterValueValidator;
 import org.polypheny.db.processing.shuttles.QueryParameterizer;
 import org.polypheny.db.rex.RexBuilder;
+import org.polypheny.db.rex.RexCall;
 import org.polypheny.db.rex.RexDynamicParam;
 import org.polypheny.db.rex.RexInputRef;
 import org.polypheny.db.rex.RexLiteral;
 import org.polypheny.db.rex.RexNode;
 import org.polypheny.db.rex.RexProgram;
+import org.polypheny.db.rex.RexUtil;
 import org.polypheny.db.routing.DmlRouter;
 import org.polypheny.db.routing.ExecutionTimeMonitor;
 import org.polypheny.db.routing.ExecutionTimeMonitor.ExecutionTimeObserver;
@@ -185,8 +208,13 @@ public void executionTime( String reference, long nanoTime ) {
     @Override
     public void resetCaches() {
         ImplementationCache.INSTANCE.reset();
+        ResultCache.INSTANCE.reset();
         QueryPlanCache.INSTANCE.reset();
         RoutingPlanCache.INSTANCE.reset();
+        StatementTemplateCache.INSTANCE.reset();
+        PlannerTemplateCache.INSTANCE.reset();
+        EnumerableInterpretable.resetClassCache();
+        JaninoRexCompiler.resetClassCache();
         RoutingManager.getInstance().getRouters().forEach( Router::resetCaches );
     }
 
@@ -239,6 +267,11 @@ public PolyImplementation prepareQuery( AlgRoot logicalRoot, AlgDataType paramet
             this.monitorResult( selectedPlan.right );
         }
 
+        // The labels are used by the metrics and the execution events of the flight recorder
+        if ( QueryMetrics.isEnabled() || ExecutionEvent.enabled() ) {
+            selectedPlan.left.getExecutionTimeMonitor().setLabels( statement.getLanguage(), adapterLabel( List.of( selectedPlan.right ) ) );
+        }
+
         return selectedPlan.left;
     }
 
@@ -311,7 +344,12 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
             statement.getProcessingDuration().stop( "Parameter Validation" );
         }
 
+        EntityAccessMap accessMap = null;
         if ( isRouted ) {
+            if ( logicalRoot.kind.belongsTo( Kind.DML ) ) {
+                // The modified entities are not known for routed plans
+                ((TransactionImpl) statement.getTransaction()).addUntrackedChanges();
+            }
             proposedRoutingPlans = Lists.newArrayList( new ProposedRoutingPlanImpl( logicalRoot, logicalQueryInformation.getQueryClass() ) );
         } else {
             //
@@ -320,7 +358,9 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
                 statement.getProcessingDuration().start( "Locking" );
             }
             if ( lock ) {
-                this.acquireLock( isAnalyze, logicalRoot, logicalQueryInformation.getAccessedPartitions() );
+                final long lockStart = System.nanoTime();
+                accessMap = this.acquireLock( isAnalyze, logicalRoot, logicalQueryInformation.getAccessedPartitions() );
+                QueryMetrics.INSTANCE.recordSince( QueryStage.LOCK_WAIT, statement.getLanguage(), lockStart );
             }
 
             //
@@ -365,6 +405,7 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
 
             //
             // Routing
+            final long routingStart = System.nanoTime();
             if ( RuntimeConfig.ROUTING_PLAN_CACHING.getBoolean() && !indexLookupRoot.kind.belongsTo( Kind.DML ) ) {
                 Set<Long> partitionIds = logicalQueryInformation.getAccessedPartitions().values().stream()
                         .flatMap( List::stream )
@@ -392,6 +433,9 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
                         true );
                 proposedRoutingPlan.setRoutedRoot( routedRoot.withAlg( typeFlattener.rewrite( routedRoot.alg ) ) );
             } );
+            if ( QueryMetrics.isEnabled() ) {
+                QueryMetrics.INSTANCE.record( QueryStage.ROUTE, statement.getLanguage(), adapterLabel( proposedRoutingPlans ), System.nanoTime() - routingStart );
+            }
 
             if ( isAnalyze ) {
                 statement.getRoutingDuration().stop( "Flattener" );
@@ -432,13 +476,17 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
             statement.getProcessingDuration().start( "Implementation Caching" );
         }
 
+        final int maxParallelism = Parallelism.maxDegree( statement );
         for ( int i = 0; i < proposedRoutingPlans.size(); i++ ) {
             AlgRoot routedRoot = proposedRoutingPlans.get( i ).getRoutedRoot();
             if ( this.isImplementationCachingActive( statement, routedRoot ) ) {
                 AlgRoot parameterizedRoot = parameterizedRootList.get( i );
-                PreparedResult preparedResult = ImplementationCache.INSTANCE.getIfPresent( parameterizedRoot.alg );
-                AlgNode optimalNode = QueryPlanCache.INSTANCE.getIfPresent( parameterizedRootList.get( i ).alg );
+                PreparedResult preparedResult = ImplementationCache.INSTANCE.getIfPresent( parameterizedRoot.alg, maxParallelism );
+                AlgNode optimalNode = QueryPlanCache.INSTANCE.getIfPresent( parameterizedRootList.get( i ).alg, maxParallelism );
                 if ( preparedResult != null ) {
+                    if ( isResultCachingActive( statement, routedRoot, accessMap ) ) {
+                        preparedResult = ResultCache.INSTANCE.wrap( preparedResult, parameterizedRoot.alg, accessMap.getAccessedEntities() );
+                    }
                     PolyImplementation result = createPolyImplementation(
                             preparedResult,
                             parameterizedRoot.kind,
@@ -486,7 +534,7 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
         for ( int i = 0; i < proposedRoutingPlans.size(); i++ ) {
             if ( this.isQueryPlanCachingActive( statement, proposedRoutingPlans.get( i ).getRoutedRoot() ) ) {
                 // Should always be the case
-                AlgNode cachedElem = QueryPlanCache.INSTANCE.getIfPresent( parameterizedRootList.get( i ).alg );
+                AlgNode cachedElem = QueryPlanCache.INSTANCE.getIfPresent( parameterizedRootList.get( i ).alg, maxParallelism );
                 if ( cachedElem != null ) {
                     optimalNodeList.set( i, cachedElem );
                 }
@@ -507,10 +555,14 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
             }
             AlgRoot parameterizedRoot = parameterizedRootList.get( i );
             AlgRoot routedRoot = proposedRoutingPlans.get( i ).getRoutedRoot();
+            final long planningStart = System.nanoTime();
             optimalNodeList.set( i, optimize( parameterizedRoot, resultConvention ) );
+            if ( QueryMetrics.isEnabled() ) {
+                QueryMetrics.INSTANCE.record( QueryStage.PLAN, statement.getLanguage(), adapterLabel( List.of( proposedRoutingPlans.get( i ) ) ), System.nanoTime() - planningStart );
+            }
 
             if ( this.isQueryPlanCachingActive( statement, routedRoot ) ) {
-                QueryPlanCache.INSTANCE.put( parameterizedRoot.alg, optimalNodeList.get( i ) );
+                QueryPlanCache.INSTANCE.put( parameterizedRoot.alg, maxParallelism, optimalNodeList.get( i ) );
             }
         }
 
@@ -534,17 +586,41 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
             final List<Pair<Integer, String>> fields = Pair.zip( ImmutableIntList.identity( rowType.getFieldCount() ), rowType.getFieldNames() );
             AlgRoot optimalRoot = new AlgRoot( optimalNode, rowType, parameterizedRoot.kind, fields, algCollation( parameterizedRoot.alg ) );
 
-            PreparedResult preparedResult = implement( optimalRoot, parameterRowType );
+            final boolean interpret = isTieredExecutionActive( statement, routedRoot, optimalRoot );
+            final long implementationStart = System.nanoTime();
+            PreparedResult preparedResult = interpret
+                    ? implement( optimalRoot, parameterRowType, true, statement.getDataContext(), null, null, statement )
+                    : implement( optimalRoot, parameterRowType, false, statement.getDataContext(), statement.getTransaction().getCatalogReader(), statement.getPrepareContext().config().conformance(), statement );
+            if ( QueryMetrics.isEnabled() ) {
+                QueryMetrics.INSTANCE.record( QueryStage.IMPLEMENT, statement.getLanguage(), adapterLabel( List.of( proposedRoutingPlans.get( i ) ) ), System.nanoTime() - implementationStart );
+            }
 
             // Cache implementation
             if ( this.isImplementationCachingActive( statement, routedRoot ) ) {
                 if ( optimalRoot.alg.isImplementationCacheable() ) {
-                    ImplementationCache.INSTANCE.put( parameterizedRoot.alg, preparedResult );
+                    if ( interpret ) {
+                        // The plan is compiled in the background, possibly after this statement has been closed.
+                        // Hence, only the inputs of the compilation are captured and not the statement itself.
+                        final CatalogReader catalogReader = statement.getTransaction().getCatalogReader();
+                        final Conformance conformance = statement.getPrepareContext().config().conformance();
+                        ImplementationCache.INSTANCE.putInterpreted(
+                                parameterizedRoot.alg,
+                                maxParallelism,
+                                preparedResult,
+                                () -> implement( optimalRoot, parameterRowType, false, null, catalogReader, conformance, null ) );
+                    } else {
+                        ImplementationCache.INSTANCE.put( parameterizedRoot.alg, maxParallelism, preparedResult );
+                    }
                 } else {
                     ImplementationCache.INSTANCE.countUncacheable();
                 }
             }
 
+            // Cache results
+            if ( isResultCachingActive( statement, routedRoot, accessMap ) ) {
+                preparedResult = ResultCache.INSTANCE.wrap( preparedResult, parameterizedRoot.alg, accessMap.getAccessedEntities() );
+            }
+
             PolyImplementation result = createPolyImplementation(
                     preparedResult,
                     optimalRoot.kind,
@@ -589,7 +665,29 @@ private static class ProposedImplementations {
     }
 
 
-    private void acquireLock( boolean isAnalyze, AlgRoot logicalRoot, Map<Integer, List<Long>> accessedPartitions ) {
+    /**
+     * @return the unique name of the adapter the routing plans are placed on, {@link QueryMetrics#MULTIPLE_ADAPTERS}
+     * if they span several adapters or {@link QueryMetrics#NO_ADAPTER} if the placements are unknown
+     */
+    private static String adapterLabel( List<ProposedRoutingPlan> routingPlans ) {
+        final Set<Integer> adapterIds = routingPlans.stream()
+                .map( ProposedRoutingPlan::getPhysicalPlacementsOfPartitions )
+                .filter( Objects::nonNull )
+                .flatMap( placements -> placements.values().stream() )
+                .flatMap( List::stream )
+                .map( placement -> placement.left )
+                .collect( Collectors.toSet() );
+        if ( adapterIds.isEmpty() ) {
+            return QueryMetrics.NO_ADAPTER;
+        } else if ( adapterIds.size() > 1 ) {
+            return QueryMetrics.MULTIPLE_ADAPTERS;
+        }
+        final Adapter adapter = AdapterManager.getInstance().getAdapter( adapterIds.iterator().next() );
+        return adapter == null ? QueryMetrics.NO_ADAPTER : adapter.getUniqueName();
+    }
+
+
+    private EntityAccessMap acquireLock( boolean isAnalyze, AlgRoot logicalRoot, Map<Integer, List<Long>> accessedPartitions ) {
         // TODO @HENNLO Check if this is this is necessary to pass the partitions explicitly.
         // This currently only works for queries. Since DMLs are evaluated during routing.
         // This SHOULD be adjusted
@@ -604,6 +702,13 @@ private void acquireLock( boolean isAnalyze, AlgRoot logicalRoot, Map<Integer, L
 
             idAccessMap.addAll( accessMap.getAccessedEntityPair() );
             LockManager.INSTANCE.lock( idAccessMap, (TransactionImpl) statement.getTransaction() );
+
+            // Remember the modified entities for invalidating cached results on commit
+            ((TransactionImpl) statement.getTransaction()).addChangedEntities( accessMap.getAccessedEntities()
+                    .stream()
+                    .filter( accessMap::isEntityAccessedForWrite )
+                    .collect( Collectors.toList() ) );
+            return accessMap;
         } catch ( DeadlockException e ) {
             throw new RuntimeException( e );
         }
@@ -659,15 +764,15 @@ public AlgNode visit( AlgNode node ) {
                                         final RexLiteral fieldValue = row.get(
                                                 lvalues.getRowType().getField( column, false, false ).getIndex()
                                         );
-                                        rowValues.add( fieldValue.getValue2() );
+                                        rowValues.add( fieldValue.getValue3() );
                                     }
                                     for ( final String column : index.getTargetColumns() ) {
                                         final RexLiteral fieldValue = row.get(
                                                 lvalues.getRowType().getField( column, false, false ).getIndex()
                                         );
-                                        targetRowValues.add( fieldValue.getValue2() );
+                                        targetRowValues.add( fieldValue.getValue3() );
                                     }
-                                    tuplesToInsert.add( new Pair<>( rowValues, targetRowValues ) );
+                                    tuplesToInsert.add( new Pair<>( index.toColumnTypes( rowValues ), index.toTargetColumnTypes( targetRowValues ) ) );
                                 }
                                 index.insertAll( statement.getTransaction().getXid(), tuplesToInsert );
                             }
@@ -682,7 +787,7 @@ public AlgNode visit( AlgNode node ) {
                                             lproject.getRowType().getField( column, false, false ).getIndex()
                                     );
                                     if ( fieldValue instanceof RexLiteral ) {
-                                        rowValues.add( ((RexLiteral) fieldValue).getValue2() );
+                                        rowValues.add( ((RexLiteral) fieldValue).getValue3() );
                                     } else if ( fieldValue instanceof RexDynamicParam ) {
                                         //
                                         // TODO: This is dynamic parameter. We need to do the index update in the generated code!
@@ -697,7 +802,7 @@ public AlgNode visit( AlgNode node ) {
                                             lproject.getRowType().getField( column, false, false ).getIndex()
                                     );
                                     if ( fieldValue instanceof RexLiteral ) {
-                                        targetRowValues.add( ((RexLiteral) fieldValue).getValue2() );
+                                        targetRowValues.add( ((RexLiteral) fieldValue).getValue3() );
                                     } else if ( fieldValue instanceof RexDynamicParam ) {
                                         //
                                         // TODO: This is dynamic parameter. We need to do the index update in the generated code!
@@ -707,7 +812,7 @@ public AlgNode visit( AlgNode node ) {
                                         throw new RuntimeException( "Unexpected rex type: " + fieldValue.getClass() );
                                     }
                                 }
-                                tuplesToInsert.add( new Pair<>( rowValues, targetRowValues ) );
+                                tuplesToInsert.add( new Pair<>( index.toColumnTypes( rowValues ), index.toTargetColumnTypes( targetRowValues ) ) );
                                 index.insertAll( statement.getTransaction().getXid(), tuplesToInsert );
                             }
                         } else if ( ltm.isDelete() || ltm.isUpdate() || ltm.isMerge() || (ltm.isInsert() && !(ltm.getInput() instanceof Values)) ) {
@@ -818,7 +923,7 @@ public AlgNode visit( AlgNode node ) {
                                         for ( final String column : index.getTargetColumns() ) {
                                             targetRowProjection.add( row.get( nameMap.get( column ) ) );
                                         }
-                                        rowsToDelete.add( new Pair<>( rowProjection, targetRowProjection ) );
+                                        rowsToDelete.add( new Pair<>( index.toColumnTypes( rowProjection ), index.toTargetColumnTypes( targetRowProjection ) ) );
                                     }
                                     index.deleteAllPrimary( statement.getTransaction().getXid(), rowsToDelete );
                                 }
@@ -848,7 +953,7 @@ public AlgNode visit( AlgNode node ) {
                                         for ( final String column : index.getTargetColumns() ) {
                                             targetRowProjection.add( row.get( nameMap.get( column ) ) );
                                         }
-                                        rowsToReinsert.add( new Pair<>( rowProjection, targetRowProjection ) );
+                                        rowsToReinsert.add( new Pair<>( index.toColumnTypes( rowProjection ), index.toTargetColumnTypes( targetRowProjection ) ) );
                                     }
                                     index.insertAll( statement.getTransaction().getXid(), rowsToReinsert );
                                 }
@@ -913,6 +1018,17 @@ public AlgNode visit( AlgNode node ) {
         }
         final AlgShuttle shuttle2 = new AlgShuttleImpl() {
 
+            @Override
+            public AlgNode visit( LogicalSort sort ) {
+                final AlgNode knn = knnLookup( sort, statement, rexBuilder );
+                if ( knn != null ) {
+                    IndexManager.getInstance().incrementHit();
+                    return knn;
+                }
+                return super.visit( sort );
+            }
+
+
             @Override
             public AlgNode visit( LogicalProject project ) {
                 if ( project.getInput() instanceof LogicalScan ) {
@@ -982,6 +1098,79 @@ public AlgNode visit( AlgNode node ) {
     }
 
 
+    /**
+     * Rewrites a k nearest neighbor query of the form {@code ORDER BY DISTANCE(column, ARRAY[...], 'L2') LIMIT k} on a
+     * column with an HNSW index. The scan is restricted to the candidates retrieved from the index, hence the exact
+     * distances only need to be computed for these rows. The result is approximate.
+     *
+     * @return the rewritten sort or {@code null} if the query does not match or there is no suitable index
+     */
+    private AlgNode knnLookup( LogicalSort sort, Statement statement, RexBuilder rexBuilder ) {
+        if ( !(sort.fetch instanceof RexLiteral) || (sort.offset != null && !(sort.offset instanceof RexLiteral))
+                || sort.getCollation().getFieldCollations().size() != 1
+                || sort.getCollation().getFieldCollations().get( 0 ).getDirection() != Direction.ASCENDING
+                || !(sort.getInput() instanceof LogicalProject)
+                || !(((LogicalProject) sort.getInput()).getInput() instanceof LogicalScan) ) {
+            return null;
+        }
+        final LogicalProject project = (LogicalProject) sort.getInput();
+        final LogicalScan scan = (LogicalScan) project.getInput();
+        final RexNode expr = project.getProjects().get( sort.getCollation().getFieldCollations().get( 0 ).getFieldIndex() );
+        if ( expr.getKind() != Kind.DISTANCE || ((RexCall) expr).getOperands().size() != 3 ) {
+            return null;
+        }
+        final List<RexNode> operands = ((RexCall) expr).getOperands();
+        if ( !(operands.get( 0 ) instanceof RexInputRef)
+                || operands.get( 1 ).getKind() != Kind.ARRAY_VALUE_CONSTRUCTOR
+                || !(operands.get( 2 ) instanceof RexLiteral)
+                || !Arrays.asList( "L2", "L2SQUARED" ).contains( ((RexLiteral) operands.get( 2 )).getValueAs( String.class ) ) ) {
+            return null;
+        }
+        final List<RexNode> elements = ((RexCall) operands.get( 1 )).getOperands();
+        final double[] target = new double[elements.size()];
+        for ( int i = 0; i < target.length; i++ ) {
+            if ( !(elements.get( i ) instanceof RexLiteral) ) {
+                return null;
+            }
+            target[i] = ((RexLiteral) elements.get( i )).getValueAs( Double.class );
+        }
+
+        if ( !(scan.getTable().getTable() instanceof LogicalTable) || ((LogicalTable) scan.getTable().getTable()).getTableId() == -1 ) {
+            return null;
+        }
+        final CatalogTable table = Catalog.getInstance().getTable( ((LogicalTable) scan.getTable().getTable()).getTableId() );
+        final CatalogSchema schema = Catalog.getInstance().getSchema( table.namespaceId );
+        final List<String> fieldNames = scan.getRowType().getFieldNames();
+        final String column = fieldNames.get( ((RexInputRef) operands.get( 0 )).getIndex() );
+        final Index index = IndexManager.getInstance().getIndex( schema, table, ImmutableList.of( column ), HnswIndex.METHOD, null, null );
+        if ( !(index instanceof HnswIndex) ) {
+            return null;
+        }
+
+        final long limit = (long) RexLiteral.intValue( sort.fetch ) + (sort.offset == null ? 0 : RexLiteral.intValue( sort.offset ));
+        if ( limit > Integer.MAX_VALUE ) {
+            return null;
+        }
+        final int k = (int) limit;
+        final int ef = Math.max( k, RuntimeConfig.POLYSTORE_INDEXES_HNSW_EF.getInteger() );
+        final List<List<Object>> candidates = ((HnswIndex) index).search( statement.getTransaction().getXid(), target, k, ef );
+        final List<RexNode> disjunction = new ArrayList<>( candidates.size() );
+        for ( List<Object> primary : candidates ) {
+            final List<RexNode> conjunction = new ArrayList<>( primary.size() );
+            for ( int i = 0; i < primary.size(); i++ ) {
+                final AlgDataTypeField field = scan.getRowType().getField( index.getTargetColumns().get( i ), true, false );
+                conjunction.add( rexBuilder.makeCall(
+                        OperatorRegistry.get( OperatorName.EQUALS ),
+                        rexBuilder.makeInputRef( scan, field.getIndex() ),
+                        rexBuilder.makeLiteral( primary.get( i ), field.getType(), false ) ) );
+            }
+            disjunction.add( RexUtil.composeConjunction( rexBuilder, conjunction, false ) );
+        }
+        final AlgNode filter = LogicalFilter.create( scan, RexUtil.composeDisjunction( rexBuilder, disjunction ) );
+        return sort.copy( sort.getTraitSet(), ImmutableList.of( project.copy( project.getTraitSet(), ImmutableList.of( filter ) ) ) );
+    }
+
+
     private List<ProposedRoutingPlan> route( AlgRoot logicalRoot, Statement statement, LogicalQueryInformation queryInformation ) {
         final DmlRouter dmlRouter = RoutingManager.getInstance().getDmlRouter();
         if ( logicalRoot.getModel() == ModelTrait.GRAPH ) {
@@ -1162,11 +1351,40 @@ private AlgNode optimize( AlgRoot logicalRoot, Convention resultConvention ) {
                 .simplify();
 
         final Program program = Programs.standard();
-        return program.run( getPlanner(), logicalPlan, desiredTraits );
+        final AlgOptPlanner planner = getPlanner();
+        if ( statement.getDataContext().getParameterValues().size() > 1 ) {
+            // Bind joins bind their keys to a single set of parameter values
+            planner.removeRule( EnumerableRules.ENUMERABLE_BIND_JOIN_RULE );
+        }
+        final PlanningEvent event = new PlanningEvent();
+        final long ruleFires = planner instanceof VolcanoPlanner ? ((VolcanoPlanner) planner).getRuleFireCount() : 0;
+        event.begin();
+        final AlgNode optimal = program.run( planner, logicalPlan, desiredTraits );
+        event.end();
+        if ( event.shouldCommit() ) {
+            event.statementId = statement.getId();
+            event.transactionId = statement.getTransaction().getId();
+            event.planner = planner.getClass().getSimpleName();
+            event.ruleFires = planner instanceof VolcanoPlanner ? ((VolcanoPlanner) planner).getRuleFireCount() - ruleFires : 0;
+            event.commit();
+        }
+        return optimal;
     }
 
 
-    private PreparedResult implement( AlgRoot root, AlgDataType parameterRowType ) {
+    /**
+     * Implements the physical plan, either by generating and compiling code or by interpreting the plan.
+     *
+     * @param root Physical plan
+     * @param parameterRowType Row type of the parameters
+     * @param interpret Whether the plan is interpreted instead of compiled
+     * @param dataContext Data context receiving the internal parameters of the generated code; null if the
+     * implementation is not executed by this statement
+     * @param catalogReader Catalog used while compiling, only required if the plan is compiled
+     * @param conformance SQL conformance of the compiled code, only required if the plan is compiled
+     * @param statement Statement the plan is implemented for, null if it is compiled in the background
+     */
+    private static PreparedResult implement( AlgRoot root, AlgDataType parameterRowType, boolean interpret, DataContext dataContext, CatalogReader catalogReader, Conformance conformance, Statement statement ) {
         if ( log.isTraceEnabled() ) {
             log.trace( "Physical query plan: [{}]", AlgOptUtil.dumpPlan( "-- Physical Plan", root.alg, ExplainFormat.TEXT, ExplainLevel.DIGEST_ATTRIBUTES ) );
         }
@@ -1197,23 +1415,29 @@ private PreparedResult implement( AlgRoot root, AlgDataType parameterRowType ) {
                 enumerable = EnumerableCalc.create( enumerable, program );
             }
 
-            try {
-                CatalogReader.THREAD_LOCAL.set( statement.getTransaction().getCatalogReader() );
-                final Conformance conformance = statement.getPrepareContext().config().conformance();
-
-                final Map<String, Object> internalParameters = new LinkedHashMap<>();
-                internalParameters.put( "_conformance", conformance );
-
-                Pair<Bindable<Object[]>, String> implementationPair = EnumerableInterpretable.toBindable(
-                        internalParameters,
-                        enumerable,
-                        prefer,
-                        statement );
-                bindable = implementationPair.left;
-                generatedCode = implementationPair.right;
-                statement.getDataContext().addAll( internalParameters );
-            } finally {
-                CatalogReader.THREAD_LOCAL.remove();
+            if ( interpret ) {
+                bindable = (Bindable) Interpreters.enumerableBindable( enumerable );
+                generatedCode = null;
+            } else {
+                try {
+                    CatalogReader.THREAD_LOCAL.set( catalogReader );
+
+                    final Map<String, Object> internalParameters = new LinkedHashMap<>();
+                    internalParameters.put( "_conformance", conformance );
+
+                    Pair<Bindable<Object[]>, String> implementationPair = EnumerableInterpretable.toBindable(
+                            internalParameters,
+                            enumerable,
+                            prefer,
+                            statement );
+                    bindable = implementationPair.left;
+                    generatedCode = implementationPair.right;
+                    if ( dataContext != null ) {
+                        dataContext.addAll( internalParameters );
+                    }
+                } finally {
+                    CatalogReader.THREAD_LOCAL.remove();
+                }
             }
         }
 
@@ -1278,6 +1502,31 @@ private boolean isQueryPlanCachingActive( Statement statement, AlgRoot algRoot )
     }
 
 
+    private boolean isResultCachingActive( Statement statement, AlgRoot algRoot, EntityAccessMap accessMap ) {
+        return RuntimeConfig.RESULT_CACHING.getBoolean()
+                && statement.getTransaction().getUseCache()
+                && !statement.getTransaction().isAnalyze()
+                && accessMap != null
+                && algRoot.kind.belongsTo( Kind.QUERY )
+                && accessMap.getAccessedEntities().stream().noneMatch( accessMap::isEntityAccessedForWrite );
+    }
+
+
+    /**
+     * Returns whether a plan which is not yet in the implementation cache should be interpreted for its first
+     * executions. Only plans which can be cached are interpreted, since the implementation cache counts the executions
+     * and replaces them with the compiled plan. Plans reading from a store are always compiled, see
+     * {@link Interpreters#isInterpretable(AlgNode)}.
+     */
+    private boolean isTieredExecutionActive( Statement statement, AlgRoot routedRoot, AlgRoot optimalRoot ) {
+        return RuntimeConfig.TIERED_EXECUTION.getBoolean()
+                && isImplementationCachingActive( statement, routedRoot )
+                && optimalRoot.alg.isImplementationCacheable()
+                && !optimalRoot.kind.belongsTo( Kind.DML )
+                && Interpreters.isInterpretable( optimalRoot.alg );
+    }
+
+
     private boolean isImplementationCachingActive( Statement statement, AlgRoot algRoot ) {
         return RuntimeConfig.IMPLEMENTATION_CACHING.getBoolean()
                 && statement.getTransaction().getUseCache()
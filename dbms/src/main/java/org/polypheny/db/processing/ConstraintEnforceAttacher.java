@@ -31,6 +31,8 @@
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.NotImplementedException;
 import org.polypheny.db.PolyImplementation;
+import org.polypheny.db.adapter.index.Index;
+import org.polypheny.db.adapter.index.IndexManager;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.AlgRoot;
 import org.polypheny.db.algebra.constant.ExplainFormat;
@@ -142,9 +144,19 @@ public static void attachOnCommitConstraints( AlgNode node, Statement statement
 
 
     public static List<EnforcementInformation> getConstraintAlg( Set<CatalogTable> catalogTables, Statement statement, EnforcementTime enforcementTime ) {
+        return getConstraintAlg( catalogTables, statement, enforcementTime, false );
+    }
+
+
+    /**
+     * Builds the constraint checks for the given tables.
+     *
+     * @param skipIndexedUniqueConstraints whether unique constraints which are already enforced by a unique polystore index are skipped
+     */
+    public static List<EnforcementInformation> getConstraintAlg( Set<CatalogTable> catalogTables, Statement statement, EnforcementTime enforcementTime, boolean skipIndexedUniqueConstraints ) {
         return catalogTables
                 .stream()
-                .map( t -> LogicalConstraintEnforcer.getControl( t, statement, enforcementTime ) )
+                .map( t -> LogicalConstraintEnforcer.getControl( t, statement, enforcementTime, skipIndexedUniqueConstraints ) )
                 .filter( i -> i.getControl() != null )
                 .collect( Collectors.toList() );
     }
@@ -227,6 +239,9 @@ public static AlgRoot enforceConstraintBeforeQuery( AlgRoot logicalRoot, Stateme
 
         AlgNode lceRoot = root;
 
+        // Inserted keys are looked up in polystore indexes if possible, instead of scanning the whole table
+        final boolean useIndexes = RuntimeConfig.INDEX_CONSTRAINT_ENFORCEMENT.getBoolean() && RuntimeConfig.POLYSTORE_INDEXES_ENABLED.getBoolean();
+
         //
         //  Enforce UNIQUE constraints in INSERT operations
         //
@@ -240,34 +255,43 @@ public static AlgRoot enforceConstraintBeforeQuery( AlgRoot logicalRoot, Stateme
                     continue;
                 }
                 // Enforce uniqueness between the already existing values and the new values
-                final AlgNode scan = LogicalScan.create( root.getCluster(), root.getTable() );
-                RexNode joinCondition = rexBuilder.makeLiteral( true );
-                //
-                // TODO: Here we get issues with batch queries
-                //
-                builder.push( input );
-                builder.project( constraint.key.getColumnNames().stream().map( builder::field ).collect( Collectors.toList() ) );
-                builder.push( scan );
-                builder.project( constraint.key.getColumnNames().stream().map( builder::field ).collect( Collectors.toList() ) );
-                for ( final String column : constraint.key.getColumnNames() ) {
-                    RexNode joinComparison = rexBuilder.makeCall(
-                            OperatorRegistry.get( OperatorName.EQUALS ),
-                            builder.field( 2, 1, column ),
-                            builder.field( 2, 0, column )
-                    );
-                    joinCondition = rexBuilder.makeCall( OperatorRegistry.get( OperatorName.AND ), joinCondition, joinComparison );
+                final Index index = useIndexes ? IndexManager.getInstance().getUniqueIndex( table.id, constraint.key.getColumnNames() ) : null;
+                final List<List<Object>> keys = index != null ? getInsertedKeys( input, constraint.key.getColumnNames(), index ) : null;
+                if ( keys != null ) {
+                    // The index does not yet contain the keys of this statement, they are added at the next barrier
+                    if ( index.containsAny( statement.getTransaction().getXid(), keys ) ) {
+                        throw new ConstraintViolationException( String.format( "Insert violates unique constraint `%s`.`%s`", table.name, constraint.name ) );
+                    }
+                } else {
+                    final AlgNode scan = LogicalScan.create( root.getCluster(), root.getTable() );
+                    RexNode joinCondition = rexBuilder.makeLiteral( true );
+                    //
+                    // TODO: Here we get issues with batch queries
+                    //
+                    builder.push( input );
+                    builder.project( constraint.key.getColumnNames().stream().map( builder::field ).collect( Collectors.toList() ) );
+                    builder.push( scan );
+                    builder.project( constraint.key.getColumnNames().stream().map( builder::field ).collect( Collectors.toList() ) );
+                    for ( final String column : constraint.key.getColumnNames() ) {
+                        RexNode joinComparison = rexBuilder.makeCall(
+                                OperatorRegistry.get( OperatorName.EQUALS ),
+                                builder.field( 2, 1, column ),
+                                builder.field( 2, 0, column )
+                        );
+                        joinCondition = rexBuilder.makeCall( OperatorRegistry.get( OperatorName.AND ), joinCondition, joinComparison );
+                    }
+                    //
+                    // TODO MV: Changed JOIN Type from LEFT to INNER to fix issues row types in index based query simplification.
+                    //  Make sure this is ok!
+                    //
+                    final AlgNode join = builder.join( JoinAlgType.INNER, joinCondition ).build();
+                    final AlgNode check = LogicalFilter.create( join, rexBuilder.makeCall( OperatorRegistry.get( OperatorName.IS_NOT_NULL ), rexBuilder.makeInputRef( join, join.getRowType().getFieldCount() - 1 ) ) );
+                    final LogicalConditionalExecute lce = LogicalConditionalExecute.create( check, lceRoot, Condition.EQUAL_TO_ZERO,
+                            ConstraintViolationException.class,
+                            String.format( "Insert violates unique constraint `%s`.`%s`", table.name, constraint.name ) );
+                    lce.setCheckDescription( String.format( "Enforcement of unique constraint `%s`.`%s`", table.name, constraint.name ) );
+                    lceRoot = lce;
                 }
-                //
-                // TODO MV: Changed JOIN Type from LEFT to INNER to fix issues row types in index based query simplification.
-                //  Make sure this is ok!
-                //
-                final AlgNode join = builder.join( JoinAlgType.INNER, joinCondition ).build();
-                final AlgNode check = LogicalFilter.create( join, rexBuilder.makeCall( OperatorRegistry.get( OperatorName.IS_NOT_NULL ), rexBuilder.makeInputRef( join, join.getRowType().getFieldCount() - 1 ) ) );
-                final LogicalConditionalExecute lce = LogicalConditionalExecute.create( check, lceRoot, Condition.EQUAL_TO_ZERO,
-                        ConstraintViolationException.class,
-                        String.format( "Insert violates unique constraint `%s`.`%s`", table.name, constraint.name ) );
-                lce.setCheckDescription( String.format( "Enforcement of unique constraint `%s`.`%s`", table.name, constraint.name ) );
-                lceRoot = lce;
                 // Enforce uniqueness within the values to insert
                 if ( input instanceof LogicalValues && ((LogicalValues) input).getTuples().size() <= 1 ) {
                     // no need to check, only one tuple in set
@@ -342,6 +366,15 @@ public static AlgRoot enforceConstraintBeforeQuery( AlgRoot logicalRoot, Stateme
             final AlgNode input = root.getInput().accept( new DeepCopyShuttle() );
             final RexBuilder rexBuilder = root.getCluster().getRexBuilder();
             for ( final CatalogForeignKey foreignKey : foreignKeys ) {
+                // Rows of a self-referencing table may reference rows inserted by the same statement, which are not yet in the index
+                final Index index = useIndexes && foreignKey.referencedKeyTableId != table.id ? IndexManager.getInstance().getUniqueIndex( foreignKey.referencedKeyTableId, foreignKey.getReferencedKeyColumnNames() ) : null;
+                final List<List<Object>> keys = index != null ? getInsertedKeys( input, foreignKey.getColumnNames(), index ) : null;
+                if ( keys != null ) {
+                    if ( !index.containsAll( statement.getTransaction().getXid(), keys ) ) {
+                        throw new ConstraintViolationException( String.format( "Insert violates foreign key constraint `%s`.`%s`", table.name, foreignKey.name ) );
+                    }
+                    continue;
+                }
                 final AlgOptSchema algOptSchema = root.getCatalogReader();
                 final AlgOptTable algOptTable = algOptSchema.getTableForMember( Collections.singletonList( foreignKey.getReferencedKeyTableName() ) );
                 final LogicalScan scan = LogicalScan.create( root.getCluster(), algOptTable );
@@ -629,6 +662,48 @@ public RexNode visitFieldAccess( RexFieldAccess fieldAccess ) {
     }
 
 
+    /**
+     * Extracts the keys of the rows inserted by a {@code VALUES} clause, converted to the column types of the index
+     * they are looked up in.
+     *
+     * @param input the input of the table modify
+     * @param columnNames the columns forming the key
+     * @param index the index the keys are looked up in
+     * @return the keys or {@code null} if they are not all known before the execution or contain {@code NULL}
+     */
+    private static List<List<Object>> getInsertedKeys( AlgNode input, List<String> columnNames, Index index ) {
+        final List<List<Object>> keys = new ArrayList<>();
+        if ( input instanceof LogicalProject && input.getInput( 0 ) instanceof LogicalValues && input.getInput( 0 ).getRowType().toString().equals( "RecordType(INTEGER ZERO)" ) ) {
+            final LogicalProject project = (LogicalProject) input;
+            final List<Object> key = new ArrayList<>( columnNames.size() );
+            for ( final String columnName : columnNames ) {
+                final RexNode node = project.getProjects().get( project.getRowType().getField( columnName, true, false ).getIndex() );
+                if ( !(node instanceof RexLiteral) ) {
+                    return null;
+                }
+                key.add( ((RexLiteral) node).getValue3() );
+            }
+            keys.add( index.toColumnTypes( key ) );
+        } else if ( input instanceof Values ) {
+            final Values values = (Values) input;
+            for ( final List<RexLiteral> tuple : values.getTuples() ) {
+                final List<Object> key = new ArrayList<>( columnNames.size() );
+                for ( final String columnName : columnNames ) {
+                    key.add( tuple.get( values.getRowType().getField( columnName, true, false ).getIndex() ).getValue3() );
+                }
+                keys.add( index.toColumnTypes( key ) );
+            }
+        } else {
+            return null;
+        }
+        // Keys containing NULL are left to the join based checks, which never match NULL values
+        if ( keys.stream().anyMatch( key -> key.contains( null ) ) ) {
+            return null;
+        }
+        return keys;
+    }
+
+
     /**
      * {@link ConstraintTracker} tests if constraint enforcement can be enabled and no constraint is already violated.
      * This is used to ensure constraint enforcement during runtime and allows to for example to disable the enforcement before INSERT
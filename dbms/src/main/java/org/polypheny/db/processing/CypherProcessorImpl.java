@@ -28,6 +28,7 @@
 import org.polypheny.db.algebra.constant.ExplainLevel;
 import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.catalog.Catalog.QueryLanguage;
 import org.polypheny.db.cypher.CypherNode;
 import org.polypheny.db.cypher.CypherNode.CypherKind;
 import org.polypheny.db.cypher.CypherNode.CypherVisitor;
@@ -41,6 +42,8 @@
 import org.polypheny.db.ddl.DdlManager;
 import org.polypheny.db.languages.NodeParseException;
 import org.polypheny.db.languages.QueryParameters;
+import org.polypheny.db.monitoring.metrics.QueryMetrics;
+import org.polypheny.db.monitoring.metrics.QueryStage;
 import org.polypheny.db.nodes.Node;
 import org.polypheny.db.plan.AlgOptCluster;
 import org.polypheny.db.plan.AlgOptUtil;
@@ -87,6 +90,7 @@ public List<CypherStatement> parse( String query ) {
             throw new RuntimeException( e );
         }
         stopWatch.stop();
+        QueryMetrics.INSTANCE.record( QueryStage.PARSE, QueryLanguage.CYPHER, null, stopWatch.getNanoTime() );
         if ( log.isTraceEnabled() ) {
             log.trace( "Parsed query: [{}]", parsed );
         }
@@ -111,6 +115,7 @@ public AlgRoot translate( Statement statement, Node query, QueryParameters param
             log.debug( "Planning Statement ..." );
         }
         stopWatch.start();
+        statement.setLanguage( QueryLanguage.CYPHER );
 
         final AlgBuilder builder = AlgBuilder.create( statement );
         final RexBuilder rexBuilder = new RexBuilder( statement.getTransaction().getTypeFactory() );
@@ -128,6 +133,7 @@ public AlgRoot translate( Statement statement, Node query, QueryParameters param
             log.trace( "Logical query plan: [{}]", AlgOptUtil.dumpPlan( "-- Logical Plan", logicalRoot.alg, ExplainFormat.TEXT, ExplainLevel.DIGEST_ATTRIBUTES ) );
         }
         stopWatch.stop();
+        QueryMetrics.INSTANCE.record( QueryStage.TRANSLATE, QueryLanguage.CYPHER, null, stopWatch.getNanoTime() );
         if ( log.isDebugEnabled() ) {
             log.debug( "Planning Statement ... done. [{}]", stopWatch );
         }
@@ -119,8 +119,12 @@ private Map<String, Object> getMedaInfo( Map<String, Object> parameters ) {
     }
 
 
+    /**
+     * Not synchronized, as it is called by the generated code for every row and possibly from multiple threads. The map
+     * is only modified while preparing the statement, before it is executed.
+     */
     @Override
-    public synchronized Object get( String name ) {
+    public Object get( String name ) {
         Object o = map.get( name );
         if ( o == AvaticaSite.DUMMY_VALUE ) {
             return null;
@@ -31,8 +31,12 @@
 import lombok.extern.slf4j.Slf4j;
 import org.apache.calcite.avatica.MetaImpl;
 import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
 import org.jetbrains.annotations.NotNull;
 import org.polypheny.db.PolyImplementation;
+import org.polypheny.db.adapter.AdapterManager;
+import org.polypheny.db.adapter.DataStore;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.AlgRoot;
 import org.polypheny.db.algebra.AlgStructuredTypeFlattener;
@@ -56,6 +60,7 @@
 import org.polypheny.db.catalog.entity.CatalogPrimaryKey;
 import org.polypheny.db.catalog.entity.CatalogTable;
 import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.monitoring.jfr.DataMigrationEvent;
 import org.polypheny.db.partition.PartitionManager;
 import org.polypheny.db.partition.PartitionManagerFactory;
 import org.polypheny.db.plan.AlgOptCluster;
@@ -196,6 +201,7 @@ public void copyData( Transaction transaction, CatalogAdapter store, List<Catalo
                     selectSourcePlacements( table, selectColumnList, targetColumnPlacements.get( 0 ).adapterId ) );
         }
 
+        DataStore dataStore = AdapterManager.getInstance().getStore( store.id );
         for ( long partitionId : partitionIds ) {
             Statement sourceStatement = transaction.createStatement();
             Statement targetStatement = transaction.createStatement();
@@ -205,7 +211,12 @@ public void copyData( Transaction transaction, CatalogAdapter store, List<Catalo
             AlgRoot sourceAlg = getSourceIterator( sourceStatement, subDistribution );
             AlgRoot targetAlg;
             if ( Catalog.getInstance().getColumnPlacementsOnAdapterPerTable( store.id, table.id ).size() == columns.size() ) {
-                // There have been no placements for this table on this store before. Build insert statement
+                // There have been no placements for this table on this store before
+                if ( RuntimeConfig.DATA_MIGRATOR_BULK_LOAD.getBoolean() && dataStore != null && dataStore.supportsBulkLoad() ) {
+                    bulkLoad( sourceAlg, sourceStatement, targetStatement, dataStore, table, partitionId, targetColumnPlacements );
+                    continue;
+                }
+                // Build insert statement
                 targetAlg = buildInsertStatement( targetStatement, targetColumnPlacements, partitionId );
             } else {
                 // Build update statement
@@ -218,6 +229,80 @@ public void copyData( Transaction transaction, CatalogAdapter store, List<Catalo
     }
 
 
+    /**
+     * Copies the rows of a partition using the native bulk load path of the target store instead of generated
+     * INSERT statements. The rows are read in batches and streamed to the store.
+     */
+    private void bulkLoad( AlgRoot sourceAlg, Statement sourceStatement, Statement targetStatement, DataStore store, CatalogTable table, long partitionId, List<CatalogColumnPlacement> targetColumnPlacements ) {
+        PolyImplementation result = sourceStatement.getQueryProcessor().prepareQuery(
+                sourceAlg,
+                sourceAlg.alg.getCluster().getTypeFactory().builder().build(),
+                true,
+                false,
+                false );
+
+        // Position of the target columns in the result
+        List<AlgDataTypeField> fields = result.getRowType().getFieldList();
+        int[] mapping = new int[targetColumnPlacements.size()];
+        for ( int i = 0; i < mapping.length; i++ ) {
+            String columnName = Catalog.getInstance().getColumn( targetColumnPlacements.get( i ).columnId ).name;
+            mapping[i] = -1;
+            for ( int j = 0; j < fields.size(); j++ ) {
+                if ( fields.get( j ).getName().equalsIgnoreCase( columnName ) ) {
+                    mapping[i] = j;
+                }
+            }
+            if ( mapping[i] == -1 ) {
+                throw new RuntimeException( "The source query does not contain the column " + columnName );
+            }
+        }
+
+        final Enumerator<Object> sourceEnumerator = result.enumerable( sourceStatement.getDataContext() ).enumerator();
+        final Iterator<Object> sourceIterator = Linq4j.enumeratorIterator( sourceEnumerator );
+        final int batchSize = RuntimeConfig.DATA_MIGRATOR_BATCH_SIZE.getInteger();
+        Iterator<List<Object>> rows = new Iterator<>() {
+            private Iterator<List<Object>> batch = Collections.emptyIterator();
+
+
+            @Override
+            public boolean hasNext() {
+                while ( !batch.hasNext() && sourceIterator.hasNext() ) {
+                    List<List<Object>> collected = MetaImpl.collect( result.getCursorFactory(), LimitIterator.of( sourceIterator, batchSize ), new ArrayList<>() );
+                    batch = collected.iterator();
+                }
+                return batch.hasNext();
+            }
+
+
+            @Override
+            public List<Object> next() {
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException();
+                }
+                List<Object> row = batch.next();
+                List<Object> values = new ArrayList<>( mapping.length );
+                for ( int index : mapping ) {
+                    values.add( row.get( index ) );
+                }
+                return values;
+            }
+        };
+        final DataMigrationEvent event = new DataMigrationEvent();
+        event.begin();
+        final long count;
+        try {
+            count = store.bulkLoad( targetStatement.getPrepareContext(), table, partitionId, targetColumnPlacements, rows );
+        } finally {
+            // Releases the resources of the source query, e.g. the result sets of the source stores
+            sourceEnumerator.close();
+        }
+        commitEvent( event, targetStatement, count );
+        if ( log.isDebugEnabled() ) {
+            log.debug( "Bulk loaded {} rows of partition {} into {}", count, partitionId, store.getUniqueName() );
+        }
+    }
+
+
     @Override
     public void executeQuery( List<CatalogColumn> selectColumnList, AlgRoot sourceAlg, Statement sourceStatement, Statement targetStatement, AlgRoot targetAlg, boolean isMaterializedView, boolean doesSubstituteOrderBy ) {
         try {
@@ -263,6 +348,8 @@ public void executeQuery( List<CatalogColumn> selectColumnList, AlgRoot sourceAl
             int batchSize = RuntimeConfig.DATA_MIGRATOR_BATCH_SIZE.getInteger();
             int i = 0;
             while ( sourceIterator.hasNext() ) {
+                final DataMigrationEvent event = new DataMigrationEvent();
+                event.begin();
                 List<List<Object>> rows = MetaImpl.collect( result.getCursorFactory(), LimitIterator.of( sourceIterator, batchSize ), new ArrayList<>() );
                 Map<Long, List<Object>> values = new HashMap<>();
 
@@ -307,6 +394,7 @@ public void executeQuery( List<CatalogColumn> selectColumnList, AlgRoot sourceAl
                     iterator.next();
                 }
                 targetStatement.getDataContext().resetParameterValues();
+                commitEvent( event, targetStatement, rows.size() );
             }
         } catch ( Throwable t ) {
             throw new RuntimeException( t );
@@ -584,6 +672,8 @@ public void copySelectiveData( Transaction transaction, CatalogAdapter store, Ca
 
             int batchSize = RuntimeConfig.DATA_MIGRATOR_BATCH_SIZE.getInteger();
             while ( sourceIterator.hasNext() ) {
+                final DataMigrationEvent event = new DataMigrationEvent();
+                event.begin();
                 List<List<Object>> rows = MetaImpl.collect(
                         result.getCursorFactory(),
                         LimitIterator.of( sourceIterator, batchSize ),
@@ -610,6 +700,7 @@ public void copySelectiveData( Transaction transaction, CatalogAdapter store, Ca
                     iterator.next();
                 }
                 targetStatement.getDataContext().resetParameterValues();
+                commitEvent( event, targetStatement, rows.size() );
             }
         } catch ( Throwable t ) {
             throw new RuntimeException( t );
@@ -718,6 +809,8 @@ public void copyPartitionData( Transaction transaction, CatalogAdapter store, Ca
 
             int batchSize = RuntimeConfig.DATA_MIGRATOR_BATCH_SIZE.getInteger();
             while ( sourceIterator.hasNext() ) {
+                final DataMigrationEvent event = new DataMigrationEvent();
+                event.begin();
                 List<List<Object>> rows = MetaImpl.collect( result.getCursorFactory(), LimitIterator.of( sourceIterator, batchSize ), new ArrayList<>() );
 
                 Map<Long, Map<Long, List<Object>>> partitionValues = new HashMap<>();
@@ -768,10 +861,22 @@ public void copyPartitionData( Transaction transaction, CatalogAdapter store, Ca
                     }
                     currentTargetStatement.getDataContext().resetParameterValues();
                 }
+                commitEvent( event, sourceStatement, rows.size() );
             }
         } catch ( Throwable t ) {
             throw new RuntimeException( t );
         }
     }
 
+
+    private static void commitEvent( DataMigrationEvent event, Statement statement, long rows ) {
+        event.end();
+        if ( event.shouldCommit() ) {
+            event.statementId = statement.getId();
+            event.transactionId = statement.getTransaction().getId();
+            event.rows = rows;
+            event.commit();
+        }
+    }
+
 }
@@ -21,7 +21,10 @@
 import org.polypheny.db.algebra.AlgRoot;
 import org.polypheny.db.algebra.constant.Kind;
 import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.catalog.Catalog.QueryLanguage;
 import org.polypheny.db.languages.QueryParameters;
+import org.polypheny.db.monitoring.metrics.QueryMetrics;
+import org.polypheny.db.monitoring.metrics.QueryStage;
 import org.polypheny.db.nodes.Node;
 import org.polypheny.db.transaction.Statement;
 import org.polypheny.db.transaction.Transaction;
@@ -46,7 +49,11 @@ public Pair<Node, AlgDataType> validate( Transaction transaction, Node parsed, b
 
     @Override
     public AlgRoot translate( Statement statement, Node query, QueryParameters parameters ) {
-        return AlgRoot.of( QueryPlanBuilder.buildFromJsonRel( statement, parameters.getQuery() ), Kind.SELECT );
+        final long start = System.nanoTime();
+        statement.setLanguage( QueryLanguage.REL_ALG );
+        final AlgRoot logicalRoot = AlgRoot.of( QueryPlanBuilder.buildFromJsonRel( statement, parameters.getQuery() ), Kind.SELECT );
+        QueryMetrics.INSTANCE.recordSince( QueryStage.TRANSLATE, QueryLanguage.REL_ALG, start );
+        return logicalRoot;
     }
 
 
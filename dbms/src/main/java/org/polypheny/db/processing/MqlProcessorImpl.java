@@ -28,6 +28,7 @@
 import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.catalog.Catalog;
 import org.polypheny.db.catalog.Catalog.Pattern;
+import org.polypheny.db.catalog.Catalog.QueryLanguage;
 import org.polypheny.db.languages.NodeParseException;
 import org.polypheny.db.languages.ParserPos;
 import org.polypheny.db.languages.QueryParameters;
@@ -38,6 +39,8 @@
 import org.polypheny.db.languages.mql.parser.MqlParser;
 import org.polypheny.db.languages.mql.parser.MqlParser.MqlParserConfig;
 import org.polypheny.db.languages.mql2alg.MqlToAlgConverter;
+import org.polypheny.db.monitoring.metrics.QueryMetrics;
+import org.polypheny.db.monitoring.metrics.QueryStage;
 import org.polypheny.db.nodes.Node;
 import org.polypheny.db.plan.AlgOptCluster;
 import org.polypheny.db.plan.AlgOptUtil;
@@ -86,6 +89,7 @@ public List<? extends Node> parse( String mql ) {
             throw new RuntimeException( e );
         }
         stopWatch.stop();
+        QueryMetrics.INSTANCE.record( QueryStage.PARSE, QueryLanguage.MONGO_QL, null, stopWatch.getNanoTime() );
         if ( log.isTraceEnabled() ) {
             log.trace( "Parsed query: [{}]", parsed );
         }
@@ -145,6 +149,7 @@ public AlgRoot translate( Statement statement, Node mql, QueryParameters paramet
             log.debug( "Planning Statement ..." );
         }
         stopWatch.start();
+        statement.setLanguage( QueryLanguage.MONGO_QL );
 
         final RexBuilder rexBuilder = new RexBuilder( statement.getTransaction().getTypeFactory() );
         final AlgOptCluster cluster = AlgOptCluster.createDocument( statement.getQueryProcessor().getPlanner(), rexBuilder );
@@ -160,6 +165,7 @@ public AlgRoot translate( Statement statement, Node mql, QueryParameters paramet
             log.trace( "Logical query plan: [{}]", AlgOptUtil.dumpPlan( "-- Logical Plan", logicalRoot.alg, ExplainFormat.TEXT, ExplainLevel.DIGEST_ATTRIBUTES ) );
         }
         stopWatch.stop();
+        QueryMetrics.INSTANCE.record( QueryStage.TRANSLATE, QueryLanguage.MONGO_QL, null, stopWatch.getNanoTime() );
         if ( log.isDebugEnabled() ) {
             log.debug( "Planning Statement ... done. [{}]", stopWatch );
         }
@@ -0,0 +1,398 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing;
+
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import org.polypheny.db.type.PolyType;
+
+
+/**
+ * Normalizes SQL statements by lifting literals into parameters. Statements which only differ in the values of their
+ * literals are normalized to the same key. The normalized statement contains a {@code CAST( ? AS <type> )} for every
+ * lifted literal, the type being the type the parser would assign to the literal. This way, the translated plan is
+ * independent of the values but has the same semantics as the plan of the original statement.
+ *
+ * Literals are only lifted where replacing them by an expression does not change the meaning of the statement. This
+ * excludes for example ordinals in {@code ORDER BY} and {@code GROUP BY} clauses, {@code LIMIT} and {@code OFFSET}
+ * values, precisions of types, escape characters, and typed literals like {@code DATE '2020-01-01'}.
+ */
+class SqlNormalizer {
+
+    private static final Set<String> QUERY_KEYWORDS = ImmutableSet.of( "SELECT", "WITH", "VALUES", "TABLE" );
+    private static final Set<String> DML_KEYWORDS = ImmutableSet.of( "INSERT", "UPDATE", "DELETE", "MERGE", "UPSERT" );
+    private static final Set<String> UNLIFTABLE_AFTER = ImmutableSet.of( "DATE", "TIME", "TIMESTAMP", "INTERVAL", "ESCAPE" );
+    private static final Set<String> FETCH_KEYWORDS = ImmutableSet.of( "LIMIT", "OFFSET", "FETCH", "TOP" );
+    private static final Set<String> ORDINAL_CLAUSE_ENDS = ImmutableSet.of( "LIMIT", "OFFSET", "FETCH", "HAVING", "WINDOW", "UNION", "INTERSECT", "EXCEPT", "MINUS", "WHERE", "FROM", "SELECT" );
+
+    private static final int MAX_LIFTED_DIGITS = 18;
+    private static final char MARKER = '\0';
+
+
+    private enum Token {
+        NONE, WORD, STRING, NUMBER, PARAMETER, SYMBOL
+    }
+
+
+    private final String sql;
+    private final boolean liftDml;
+
+    private final StringBuilder key = new StringBuilder();
+    private final StringBuilder normalized = new StringBuilder();
+    private final List<Object> values = new ArrayList<>();
+    private final List<PolyType> types = new ArrayList<>();
+    private final List<Boolean> lifted = new ArrayList<>();
+
+    private boolean lift = true;
+    private int depth = 0;
+    // Literals are not lifted at this and deeper nesting levels
+    private int zoneDepth = Integer.MAX_VALUE;
+    private boolean ordinalZone = false;
+
+    private Token lastToken = Token.NONE;
+    private String lastWord = null;
+    private String wordBeforeLast = null;
+    private String firstWord = null;
+
+
+    private SqlNormalizer( String sql, boolean liftDml ) {
+        this.sql = sql;
+        this.liftDml = liftDml;
+    }
+
+
+    /**
+     * Normalizes a statement.
+     *
+     * @param sql the statement
+     * @param liftDml whether literals of DML statements are lifted
+     * @return the normalized statement or {@code null} if the statement is not supported, e.g., because it is a DDL
+     */
+    static NormalizedSql normalize( String sql, boolean liftDml ) {
+        return new SqlNormalizer( sql, liftDml ).normalize();
+    }
+
+
+    private NormalizedSql normalize() {
+        final int n = sql.length();
+        int i = 0;
+        while ( i < n ) {
+            char c = sql.charAt( i );
+            int end;
+            if ( c == MARKER ) {
+                return null;
+            } else if ( Character.isWhitespace( c ) ) {
+                append( c );
+                i++;
+                continue;
+            } else if ( c == '-' && i + 1 < n && sql.charAt( i + 1 ) == '-' ) {
+                end = sql.indexOf( '\n', i );
+                end = end < 0 ? n : end;
+                append( sql.substring( i, end ) );
+                i = end;
+                continue;
+            } else if ( c == '/' && i + 1 < n && sql.charAt( i + 1 ) == '*' ) {
+                end = sql.indexOf( "*/", i + 2 );
+                if ( end < 0 ) {
+                    return null;
+                }
+                append( sql.substring( i, end + 2 ) );
+                i = end + 2;
+                continue;
+            } else if ( c == '\'' ) {
+                end = endOfQuoted( i, '\'' );
+                if ( end < 0 || lastToken == Token.STRING ) {
+                    // Unterminated or continued string literal
+                    return null;
+                }
+                string( i, end );
+                lastToken = Token.STRING;
+            } else if ( c == '"' || c == '`' ) {
+                end = endOfQuoted( i, c );
+                if ( end < 0 ) {
+                    return null;
+                }
+                append( sql.substring( i, end ) );
+                word( sql.substring( i, end ) );
+            } else if ( Character.isDigit( c ) || (c == '.' && i + 1 < n && Character.isDigit( sql.charAt( i + 1 ) )) ) {
+                end = endOfNumber( i );
+                if ( end < n && isIdentifierPart( sql.charAt( end ) ) ) {
+                    return null;
+                }
+                number( sql.substring( i, end ) );
+                lastToken = Token.NUMBER;
+            } else if ( Character.isLetter( c ) || c == '_' || c == '$' ) {
+                end = i + 1;
+                while ( end < n && isIdentifierPart( sql.charAt( end ) ) ) {
+                    end++;
+                }
+                String upper = sql.substring( i, end ).toUpperCase( Locale.ROOT );
+                if ( firstWord == null ) {
+                    firstWord = upper;
+                    if ( DML_KEYWORDS.contains( upper ) ) {
+                        lift = liftDml;
+                    } else if ( !QUERY_KEYWORDS.contains( upper ) ) {
+                        return null;
+                    }
+                }
+                if ( inZone() && ordinalZone && depth == zoneDepth && ORDINAL_CLAUSE_ENDS.contains( upper ) ) {
+                    zoneDepth = Integer.MAX_VALUE;
+                }
+                if ( !inZone() ) {
+                    if ( upper.equals( "BY" ) && lastToken == Token.WORD && (lastWord.equals( "ORDER" ) || lastWord.equals( "GROUP" )) ) {
+                        startZone( depth, true );
+                    } else if ( FETCH_KEYWORDS.contains( upper ) ) {
+                        startZone( depth, false );
+                    }
+                }
+                append( sql.substring( i, end ) );
+                word( upper );
+            } else if ( c == '?' ) {
+                end = i + 1;
+                append( c );
+                lifted.add( false );
+                lastToken = Token.PARAMETER;
+            } else if ( c == '(' ) {
+                end = i + 1;
+                if ( !inZone() && lastToken == Token.WORD && (lastWord.equals( "OVER" ) || "AS".equals( wordBeforeLast )) ) {
+                    // Window specification or precision of a type
+                    startZone( depth + 1, false );
+                }
+                depth++;
+                append( c );
+                lastToken = Token.SYMBOL;
+            } else if ( c == ')' ) {
+                end = i + 1;
+                depth--;
+                if ( depth < zoneDepth ) {
+                    zoneDepth = Integer.MAX_VALUE;
+                }
+                append( c );
+                lastToken = Token.SYMBOL;
+            } else if ( c == ';' ) {
+                end = i + 1;
+                if ( !sql.substring( end ).trim().isEmpty() ) {
+                    // Multiple statements
+                    return null;
+                }
+                append( c );
+                lastToken = Token.SYMBOL;
+            } else {
+                end = i + 1;
+                append( c );
+                lastToken = Token.SYMBOL;
+            }
+            if ( lastToken != Token.WORD ) {
+                lastWord = null;
+                wordBeforeLast = null;
+            }
+            i = end;
+        }
+        if ( firstWord == null ) {
+            return null;
+        }
+        return new NormalizedSql( key.toString(), normalized.toString(), values, types, lifted );
+    }
+
+
+    private boolean inZone() {
+        return depth >= zoneDepth;
+    }
+
+
+    private void startZone( int zoneDepth, boolean ordinalZone ) {
+        this.zoneDepth = zoneDepth;
+        this.ordinalZone = ordinalZone;
+    }
+
+
+    private void word( String word ) {
+        wordBeforeLast = lastToken == Token.WORD ? lastWord : null;
+        lastWord = word;
+        lastToken = Token.WORD;
+    }
+
+
+    private void string( int start, int end ) {
+        String raw = sql.substring( start, end );
+        String value = raw.substring( 1, raw.length() - 1 ).replace( "''", "'" );
+        // Prefixed literals like N'...', X'...', _charset'...' or U&'...'
+        boolean prefixed = start > 0 && (isIdentifierPart( sql.charAt( start - 1 ) ) || sql.charAt( start - 1 ) == '&');
+        if ( !canLift() || prefixed || value.isEmpty() ) {
+            append( raw );
+        } else {
+            lift( "CHAR(" + value.length() + ")", PolyType.CHAR, value );
+        }
+    }
+
+
+    private void number( String text ) {
+        if ( !canLift() ) {
+            append( text );
+            return;
+        }
+        int point = text.indexOf( '.' );
+        if ( text.indexOf( 'e' ) >= 0 || text.indexOf( 'E' ) >= 0 ) {
+            lift( "DOUBLE", PolyType.DOUBLE, Double.valueOf( text ) );
+        } else if ( text.length() > MAX_LIFTED_DIGITS ) {
+            append( text );
+        } else if ( point >= 0 ) {
+            // A trailing point (e.g. "1.") is still an exact decimal with a scale of zero, not an integer
+            int precision = text.length() - 1;
+            int scale = text.length() - point - 1;
+            lift( "DECIMAL(" + precision + ", " + scale + ")", PolyType.DECIMAL, new BigDecimal( text ) );
+        } else {
+            long value = Long.parseLong( text );
+            if ( value <= Integer.MAX_VALUE ) {
+                lift( "INTEGER", PolyType.INTEGER, (int) value );
+            } else {
+                lift( "BIGINT", PolyType.BIGINT, value );
+            }
+        }
+    }
+
+
+    private boolean canLift() {
+        return lift
+                && !inZone()
+                && !(lastToken == Token.WORD && UNLIFTABLE_AFTER.contains( lastWord ));
+    }
+
+
+    private void lift( String typeName, PolyType type, Object value ) {
+        key.append( MARKER ).append( typeName ).append( MARKER );
+        normalized.append( "CAST(? AS " ).append( typeName ).append( ")" );
+        values.add( value );
+        types.add( type );
+        lifted.add( true );
+    }
+
+
+    private void append( char c ) {
+        key.append( c );
+        normalized.append( c );
+    }
+
+
+    private void append( String s ) {
+        key.append( s );
+        normalized.append( s );
+    }
+
+
+    /**
+     * @return the index after the closing quote or -1 if the quoted part is not terminated
+     */
+    private int endOfQuoted( int start, char quote ) {
+        int i = start + 1;
+        while ( i < sql.length() ) {
+            if ( sql.charAt( i ) == quote ) {
+                if ( i + 1 < sql.length() && sql.charAt( i + 1 ) == quote ) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+
+    private int endOfNumber( int start ) {
+        final int n = sql.length();
+        int i = start;
+        while ( i < n && Character.isDigit( sql.charAt( i ) ) ) {
+            i++;
+        }
+        if ( i < n && sql.charAt( i ) == '.' ) {
+            i++;
+            while ( i < n && Character.isDigit( sql.charAt( i ) ) ) {
+                i++;
+            }
+        }
+        if ( i < n && (sql.charAt( i ) == 'e' || sql.charAt( i ) == 'E') ) {
+            int j = i + 1;
+            if ( j < n && (sql.charAt( j ) == '+' || sql.charAt( j ) == '-') ) {
+                j++;
+            }
+            if ( j < n && Character.isDigit( sql.charAt( j ) ) ) {
+                i = j;
+                while ( i < n && Character.isDigit( sql.charAt( i ) ) ) {
+                    i++;
+                }
+            }
+        }
+        return i;
+    }
+
+
+    private static boolean isIdentifierPart( char c ) {
+        return Character.isLetterOrDigit( c ) || c == '_' || c == '$';
+    }
+
+
+    /**
+     * A normalized statement.
+     */
+    static class NormalizedSql {
+
+        /**
+         * Identifies the shape of the statement
+         */
+        final String key;
+        /**
+         * The statement with the lifted literals replaced by casted parameters
+         */
+        final String sql;
+        /**
+         * The values of the lifted literals
+         */
+        final List<Object> values;
+        /**
+         * The types of the lifted literals
+         */
+        final List<PolyType> types;
+        /**
+         * For every parameter of the normalized statement (in the order of their occurrence) whether it is a lifted
+         * literal or a parameter of the original statement
+         */
+        final List<Boolean> lifted;
+
+
+        NormalizedSql( String key, String sql, List<Object> values, List<PolyType> types, List<Boolean> lifted ) {
+            this.key = key;
+            this.sql = sql;
+            this.values = ImmutableList.copyOf( values );
+            this.types = ImmutableList.copyOf( types );
+            this.lifted = ImmutableList.copyOf( lifted );
+        }
+
+
+        int getUserParameterCount() {
+            return lifted.size() - values.size();
+        }
+
+    }
+
+}
@@ -23,12 +23,14 @@
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.calcite.avatica.AvaticaSeverity;
 import org.apache.calcite.avatica.remote.AvaticaRuntimeException;
 import org.apache.calcite.avatica.util.Casing;
 import org.apache.commons.lang3.time.StopWatch;
+import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.algebra.AlgDecorrelator;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.AlgRoot;
@@ -36,10 +38,14 @@
 import org.polypheny.db.algebra.constant.ExplainLevel;
 import org.polypheny.db.algebra.constant.Kind;
 import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.algebra.type.AlgDataTypeFactory;
+import org.polypheny.db.algebra.type.AlgDataTypeField;
 import org.polypheny.db.catalog.Catalog;
 import org.polypheny.db.catalog.Catalog.NamespaceType;
+import org.polypheny.db.catalog.Catalog.QueryLanguage;
 import org.polypheny.db.catalog.entity.CatalogColumn;
 import org.polypheny.db.catalog.entity.CatalogDefaultValue;
+import org.polypheny.db.catalog.entity.CatalogSchema;
 import org.polypheny.db.catalog.entity.CatalogTable;
 import org.polypheny.db.catalog.exceptions.UnknownDatabaseException;
 import org.polypheny.db.catalog.exceptions.UnknownSchemaException;
@@ -52,11 +58,19 @@
 import org.polypheny.db.languages.Parser.ParserConfig;
 import org.polypheny.db.languages.ParserPos;
 import org.polypheny.db.languages.QueryParameters;
+import org.polypheny.db.monitoring.metrics.QueryMetrics;
+import org.polypheny.db.monitoring.metrics.QueryStage;
 import org.polypheny.db.nodes.Node;
 import org.polypheny.db.plan.AlgOptCluster;
 import org.polypheny.db.plan.AlgOptUtil;
 import org.polypheny.db.prepare.PolyphenyDbCatalogReader;
+import org.polypheny.db.processing.SqlNormalizer.NormalizedSql;
+import org.polypheny.db.processing.caching.StatementTemplateCache;
+import org.polypheny.db.processing.caching.StatementTemplateCache.Template;
 import org.polypheny.db.rex.RexBuilder;
+import org.polypheny.db.rex.RexDynamicParam;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.rex.RexShuttle;
 import org.polypheny.db.runtime.PolyphenyDbException;
 import org.polypheny.db.sql.language.SqlBasicCall;
 import org.polypheny.db.sql.language.SqlIdentifier;
@@ -125,6 +139,7 @@ public List<? extends Node> parse( String query ) {
             throw new RuntimeException( e );
         }
         stopWatch.stop();
+        QueryMetrics.INSTANCE.record( QueryStage.PARSE, QueryLanguage.SQL, null, stopWatch.getNanoTime() );
         if ( log.isTraceEnabled() ) {
             log.trace( "Parsed query: [{}]", parsed );
         }
@@ -150,30 +165,35 @@ public Pair<Node, AlgDataType> validate( Transaction transaction, Node parsed, b
             }
         }
 
-        final Conformance conformance = parserConfig.conformance();
-        final PolyphenyDbCatalogReader catalogReader = transaction.getCatalogReader();
-        validator = new PolyphenyDbSqlValidator( SqlStdOperatorTable.instance(), catalogReader, transaction.getTypeFactory(), conformance );
-        validator.setIdentifierExpansion( true );
-
-        Node validated;
-        AlgDataType type;
+        Pair<Node, AlgDataType> validated;
         try {
-            validated = validator.validate( parsed );
-            type = validator.getValidatedNodeType( validated );
+            validated = validate( transaction, parsed );
         } catch ( RuntimeException e ) {
             log.error( "Exception while validating query", e );
             String message = e.getLocalizedMessage();
             throw new AvaticaRuntimeException( message == null ? "null" : message, -1, "", AvaticaSeverity.ERROR );
         }
         stopWatch.stop();
+        QueryMetrics.INSTANCE.record( QueryStage.VALIDATE, QueryLanguage.SQL, null, stopWatch.getNanoTime() );
         if ( log.isTraceEnabled() ) {
-            log.trace( "Validated query: [{}]", validated );
+            log.trace( "Validated query: [{}]", validated.left );
         }
         if ( log.isDebugEnabled() ) {
             log.debug( "Validating SELECT Statement ... done. [{}]", stopWatch );
         }
 
-        return new Pair<>( validated, type );
+        return validated;
+    }
+
+
+    private Pair<Node, AlgDataType> validate( Transaction transaction, Node parsed ) {
+        final Conformance conformance = parserConfig.conformance();
+        final PolyphenyDbCatalogReader catalogReader = transaction.getCatalogReader();
+        validator = new PolyphenyDbSqlValidator( SqlStdOperatorTable.instance(), catalogReader, transaction.getTypeFactory(), conformance );
+        validator.setIdentifierExpansion( true );
+
+        Node validated = validator.validate( parsed );
+        return new Pair<>( validated, validator.getValidatedNodeType( validated ) );
     }
 
 
@@ -184,6 +204,7 @@ public AlgRoot translate( Statement statement, Node query, QueryParameters param
             log.debug( "Planning Statement ..." );
         }
         stopWatch.start();
+        statement.setLanguage( QueryLanguage.SQL );
 
         Config sqlToAlgConfig = NodeToAlgConverter.configBuilder().build();
         final RexBuilder rexBuilder = new RexBuilder( statement.getTransaction().getTypeFactory() );
@@ -211,6 +232,7 @@ public AlgRoot translate( Statement statement, Node query, QueryParameters param
             log.trace( "Logical query plan: [{}]", AlgOptUtil.dumpPlan( "-- Logical Plan", logicalRoot.alg, ExplainFormat.TEXT, ExplainLevel.DIGEST_ATTRIBUTES ) );
         }
         stopWatch.stop();
+        QueryMetrics.INSTANCE.record( QueryStage.TRANSLATE, QueryLanguage.SQL, null, stopWatch.getNanoTime() );
         if ( log.isDebugEnabled() ) {
             log.debug( "Planning Statement ... done. [{}]", stopWatch );
         }
@@ -219,6 +241,131 @@ public AlgRoot translate( Statement statement, Node query, QueryParameters param
     }
 
 
+    @Override
+    public Pair<AlgRoot, AlgDataType> translateCached( Statement statement, String query, boolean addDefaultValues ) {
+        if ( !RuntimeConfig.STATEMENT_TEMPLATE_CACHING.getBoolean() ) {
+            return null;
+        }
+        final long start = System.nanoTime();
+        statement.setLanguage( QueryLanguage.SQL );
+        final StatementTemplateCache cache = StatementTemplateCache.INSTANCE;
+        final NormalizedSql normalized = SqlNormalizer.normalize( query, RuntimeConfig.PARAMETERIZE_DML.getBoolean() );
+        if ( normalized == null ) {
+            cache.countUncacheable();
+            return null;
+        }
+
+        // The values of the parameters of the original statement have to be set already
+        final DataContext dataContext = statement.getDataContext();
+        final int userParameterCount = normalized.getUserParameterCount();
+        final Set<Long> userParameters = dataContext.getParameterTypes().keySet();
+        if ( userParameters.size() != userParameterCount || userParameters.stream().anyMatch( index -> index >= userParameterCount ) ) {
+            cache.countUncacheable();
+            return null;
+        }
+
+        final CatalogSchema defaultSchema = statement.getTransaction().getDefaultSchema();
+        final String key = defaultSchema.databaseId + "." + defaultSchema.name + "." + addDefaultValues + "." + normalized.key;
+        Template template = cache.getIfPresent( key );
+        AlgRoot root;
+        if ( template == null ) {
+            template = createTemplate( statement, normalized, addDefaultValues, cache.getCatalogVersion() );
+            if ( template == null ) {
+                cache.putUncacheable( key );
+                return null;
+            }
+            cache.put( key, template );
+            root = template.root;
+        } else if ( template.isUncacheable() ) {
+            return null;
+        } else {
+            root = cache.instantiate( template, statement );
+            if ( root == null ) {
+                return null;
+            }
+        }
+
+        // Add the values of the lifted literals
+        final int rows = Math.max( 1, dataContext.getParameterValues().size() );
+        for ( int i = 0; i < normalized.values.size(); i++ ) {
+            dataContext.addParameterValues( userParameterCount + i, template.liftedTypes.get( i ), Collections.nCopies( rows, normalized.values.get( i ) ) );
+        }
+        if ( log.isDebugEnabled() ) {
+            log.debug( "Translated statement using the template of: {}", normalized.sql );
+        }
+        QueryMetrics.INSTANCE.recordSince( QueryStage.TRANSLATE, QueryLanguage.SQL, start );
+        return new Pair<>( root, template.parameterRowType );
+    }
+
+
+    /**
+     * Parses, validates and translates a normalized statement. The parameters of the original statement keep their
+     * indexes, the parameters replacing lifted literals are appended.
+     *
+     * @return the template or {@code null} if the statement is not supported
+     */
+    private Template createTemplate( Statement statement, NormalizedSql normalized, boolean addDefaultValues, long catalogVersion ) {
+        final Transaction transaction = statement.getTransaction();
+        final Node validated;
+        final AlgDataType parameterRowType;
+        try {
+            Node parsed = Parser.create( new SourceStringReader( normalized.sql ), parserConfig ).parseStmt();
+            if ( parsed.isA( Kind.DDL ) ) {
+                return null;
+            }
+            if ( addDefaultValues && parsed.getKind() == Kind.INSERT ) {
+                addDefaultValues( transaction, (SqlInsert) parsed );
+            }
+            validated = validate( transaction, parsed ).left;
+            parameterRowType = validator.getParameterRowType( validated );
+        } catch ( NodeParseException | RuntimeException e ) {
+            // Either the statement is invalid or the lifted literals are not supported at these positions
+            log.debug( "Unable to create template for statement: {}", normalized.sql, e );
+            return null;
+        }
+        final List<AlgDataTypeField> parameters = parameterRowType.getFieldList();
+        if ( parameters.size() != normalized.lifted.size() ) {
+            return null;
+        }
+
+        final long[] indexes = new long[parameters.size()];
+        final List<AlgDataType> liftedTypes = new ArrayList<>();
+        final AlgDataTypeFactory.Builder userParameters = transaction.getTypeFactory().builder();
+        int userIndex = 0;
+        for ( int i = 0; i < parameters.size(); i++ ) {
+            AlgDataTypeField parameter = parameters.get( i );
+            if ( normalized.lifted.get( i ) ) {
+                if ( parameter.getType().getPolyType() != normalized.types.get( liftedTypes.size() ) ) {
+                    return null;
+                }
+                indexes[i] = normalized.getUserParameterCount() + liftedTypes.size();
+                liftedTypes.add( parameter.getType() );
+            } else {
+                indexes[i] = userIndex++;
+                userParameters.add( parameter );
+            }
+        }
+
+        final AlgRoot translated;
+        try {
+            translated = translate( statement, validated, null );
+        } catch ( RuntimeException e ) {
+            log.debug( "Unable to create template for statement: {}", normalized.sql, e );
+            return null;
+        }
+        final AlgRoot root = StatementTemplateCache.rewrite( translated, new RexShuttle() {
+            @Override
+            public RexNode visitDynamicParam( RexDynamicParam dynamicParam ) {
+                return new RexDynamicParam( dynamicParam.getType(), indexes[(int) dynamicParam.getIndex()] );
+            }
+        } );
+        if ( root == null ) {
+            return null;
+        }
+        return new Template( root, liftedTypes, userParameters.build(), catalogVersion );
+    }
+
+
     @Override
     public void unlock( Statement statement ) {
         LockManager.INSTANCE.unlock( Collections.singletonList( LockManager.GLOBAL_LOCK ), (TransactionImpl) statement.getTransaction() );
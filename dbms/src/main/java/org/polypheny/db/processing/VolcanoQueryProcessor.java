@@ -18,12 +18,14 @@
 
 
 import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.adapter.enumerable.EnumerableBindable.EnumerableToBindableConverterRule;
 import org.polypheny.db.adapter.enumerable.EnumerableInterpreterRule;
 import org.polypheny.db.adapter.enumerable.EnumerableRules;
+import org.polypheny.db.adapter.enumerable.vector.VectorRules;
 import org.polypheny.db.algebra.AlgCollationTraitDef;
 import org.polypheny.db.algebra.rules.AggregateExpandDistinctAggregatesRule;
 import org.polypheny.db.algebra.rules.AggregateReduceFunctionsRule;
@@ -52,11 +54,14 @@
 import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.interpreter.Bindables;
 import org.polypheny.db.plan.AlgOptRule;
+import org.polypheny.db.plan.AlgTraitDef;
 import org.polypheny.db.plan.AlgOptUtil;
 import org.polypheny.db.plan.Contexts;
 import org.polypheny.db.plan.ConventionTraitDef;
 import org.polypheny.db.plan.volcano.VolcanoCost;
 import org.polypheny.db.plan.volcano.VolcanoPlanner;
+import org.polypheny.db.plan.volcano.VolcanoPlannerTemplate;
+import org.polypheny.db.processing.caching.PlannerTemplateCache;
 import org.polypheny.db.rex.RexExecutorImpl;
 import org.polypheny.db.schema.ModelTraitDef;
 import org.polypheny.db.transaction.Statement;
@@ -89,6 +94,7 @@ public class VolcanoQueryProcessor extends AbstractQueryProcessor {
                     EnumerableRules.ENUMERABLE_COLLECT_RULE,
                     EnumerableRules.ENUMERABLE_UNCOLLECT_RULE,
                     EnumerableRules.ENUMERABLE_UNION_RULE,
+                    EnumerableRules.ENUMERABLE_PARALLEL_UNION_RULE,
                     EnumerableRules.ENUMERABLE_MODIFY_COLLECT_RULE,
                     EnumerableRules.ENUMERABLE_INTERSECT_RULE,
                     EnumerableRules.ENUMERABLE_MINUS_RULE,
@@ -144,56 +150,74 @@ public class VolcanoQueryProcessor extends AbstractQueryProcessor {
 
     public VolcanoQueryProcessor( Statement statement ) {
         super( statement );
-        planner = new VolcanoPlanner( VolcanoCost.FACTORY, Contexts.of( statement.getPrepareContext().config() ) );
-        planner.addAlgTraitDef( ConventionTraitDef.INSTANCE );
+        final long start = System.nanoTime();
+        planner = new VolcanoPlanner( VolcanoCost.FACTORY, Contexts.of( statement.getPrepareContext().config(), statement ) );
+        planner.addRules( PlannerTemplateCache.INSTANCE.get( getTemplateKey(), VolcanoQueryProcessor::createTemplate ) );
+
+        final DataContext dataContext = statement.getPrepareContext().getDataContext();
+        planner.setExecutor( new RexExecutorImpl( dataContext ) );
+        PlannerTemplateCache.INSTANCE.recordSetup( System.nanoTime() - start );
+    }
+
+
+    /**
+     * Identifies the configuration options which change the rules collected by {@link #createTemplate()}.
+     */
+    private static String getTemplateKey() {
+        return RuntimeConfig.JOIN_COMMUTE.getBoolean() + "," + RuntimeConfig.BIND_JOIN.getBoolean() + "," + RuntimeConfig.VECTORIZED_EXECUTION.getBoolean();
+    }
+
+
+    /**
+     * Collects the trait definitions and rules of the planner in the order they are registered. The resulting template
+     * is shared by the planners of all statements.
+     */
+    static VolcanoPlannerTemplate createTemplate() {
+        final List<AlgTraitDef<?>> traitDefs = new ArrayList<>();
+        final List<AlgOptRule> rules = new ArrayList<>();
+        traitDefs.add( ConventionTraitDef.INSTANCE );
         if ( ENABLE_COLLATION_TRAIT ) {
-            planner.addAlgTraitDef( AlgCollationTraitDef.INSTANCE );
-            planner.registerAbstractRelationalRules();
+            traitDefs.add( AlgCollationTraitDef.INSTANCE );
+            rules.addAll( VolcanoPlanner.getAbstractRelationalRules() );
         }
         if ( ENABLE_MODEL_TRAIT ) {
-            planner.addAlgTraitDef( ModelTraitDef.INSTANCE );
-            planner.registerModelRules();
+            traitDefs.add( ModelTraitDef.INSTANCE );
+            rules.addAll( VolcanoPlanner.getModelRules() );
         }
 
-        AlgOptUtil.registerAbstractAlgs( planner );
-        for ( AlgOptRule rule : DEFAULT_RULES ) {
-            planner.addRule( rule );
-        }
+        rules.addAll( AlgOptUtil.getAbstractAlgRules() );
+        rules.addAll( DEFAULT_RULES );
         if ( ENABLE_BINDABLE ) {
-            for ( AlgOptRule rule : Bindables.RULES ) {
-                planner.addRule( rule );
-            }
+            rules.addAll( Bindables.RULES );
         }
-        planner.addRule( Bindables.BINDABLE_TABLE_SCAN_RULE );
-        planner.addRule( ProjectScanRule.INSTANCE );
-        planner.addRule( ProjectScanRule.INTERPRETER );
+        rules.add( Bindables.BINDABLE_TABLE_SCAN_RULE );
+        rules.add( ProjectScanRule.INSTANCE );
+        rules.add( ProjectScanRule.INTERPRETER );
 
         if ( ENABLE_ENUMERABLE ) {
-            for ( AlgOptRule rule : ENUMERABLE_RULES ) {
-                planner.addRule( rule );
+            rules.addAll( ENUMERABLE_RULES );
+            rules.add( EnumerableInterpreterRule.INSTANCE );
+            if ( RuntimeConfig.BIND_JOIN.getBoolean() ) {
+                rules.add( EnumerableRules.ENUMERABLE_BIND_JOIN_RULE );
+            }
+            if ( RuntimeConfig.VECTORIZED_EXECUTION.getBoolean() ) {
+                rules.addAll( VectorRules.RULES );
             }
-            planner.addRule( EnumerableInterpreterRule.INSTANCE );
         }
 
         if ( ENABLE_BINDABLE && ENABLE_ENUMERABLE ) {
-            planner.addRule( EnumerableToBindableConverterRule.INSTANCE );
+            rules.add( EnumerableToBindableConverterRule.INSTANCE );
         }
 
         if ( ENABLE_STREAM ) {
-            for ( AlgOptRule rule : StreamRules.RULES ) {
-                planner.addRule( rule );
-            }
+            rules.addAll( StreamRules.RULES );
         }
 
         // Change the below to enable constant-reduction.
         if ( CONSTANT_REDUCTION ) {
-            for ( AlgOptRule rule : CONSTANT_REDUCTION_RULES ) {
-                planner.addRule( rule );
-            }
+            rules.addAll( CONSTANT_REDUCTION_RULES );
         }
-
-        final DataContext dataContext = statement.getPrepareContext().getDataContext();
-        planner.setExecutor( new RexExecutorImpl( dataContext ) );
+        return new VolcanoPlannerTemplate( traitDefs, rules );
     }
 
 }
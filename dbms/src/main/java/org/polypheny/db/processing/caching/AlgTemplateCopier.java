@@ -0,0 +1,220 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing.caching;
+
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.List;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.AlgRoot;
+import org.polypheny.db.algebra.logical.relational.LogicalAggregate;
+import org.polypheny.db.algebra.logical.relational.LogicalFilter;
+import org.polypheny.db.algebra.logical.relational.LogicalIntersect;
+import org.polypheny.db.algebra.logical.relational.LogicalJoin;
+import org.polypheny.db.algebra.logical.relational.LogicalMinus;
+import org.polypheny.db.algebra.logical.relational.LogicalModify;
+import org.polypheny.db.algebra.logical.relational.LogicalProject;
+import org.polypheny.db.algebra.logical.relational.LogicalScan;
+import org.polypheny.db.algebra.logical.relational.LogicalSort;
+import org.polypheny.db.algebra.logical.relational.LogicalUnion;
+import org.polypheny.db.algebra.logical.relational.LogicalValues;
+import org.polypheny.db.algebra.logical.relational.LogicalWindow;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptTable;
+import org.polypheny.db.plan.AlgTrait;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.prepare.Prepare.CatalogReader;
+import org.polypheny.db.rex.RexCorrelVariable;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.rex.RexShuttle;
+import org.polypheny.db.rex.RexSubQuery;
+
+
+/**
+ * Copies a logical relational plan into another cluster. This is required for reusing a plan in another statement,
+ * since the planner of a statement only accepts nodes of its own cluster. Only the logical operators produced by the
+ * SQL-to-algebra conversion of simple statements are supported; plans containing other operators, sub-queries or
+ * correlations cannot be copied.
+ */
+class AlgTemplateCopier {
+
+    private final AlgOptCluster cluster;
+    private final CatalogReader catalogReader;
+    private final RexShuttle shuttle;
+
+
+    /**
+     * @param cluster the cluster of the copied nodes
+     * @param catalogReader if not null, the tables are looked up again using this catalog reader
+     * @param shuttle if not null, applied to all expressions of the plan
+     */
+    AlgTemplateCopier( AlgOptCluster cluster, CatalogReader catalogReader, RexShuttle shuttle ) {
+        this.cluster = cluster;
+        this.catalogReader = catalogReader;
+        this.shuttle = shuttle;
+    }
+
+
+    /**
+     * @return the copied root or {@code null} if the plan cannot be copied
+     */
+    AlgRoot copy( AlgRoot root ) {
+        try {
+            return root.withAlg( copy( root.alg ) );
+        } catch ( UnsupportedPlanException e ) {
+            return null;
+        }
+    }
+
+
+    private AlgNode copy( AlgNode node ) {
+        List<AlgNode> inputs = new ArrayList<>();
+        for ( AlgNode input : node.getInputs() ) {
+            inputs.add( copy( input ) );
+        }
+        final AlgTraitSet traitSet = copy( node.getTraitSet() );
+        final Class<?> clazz = node.getClass();
+
+        if ( clazz == LogicalScan.class ) {
+            return new LogicalScan( cluster, traitSet, copy( node.getTable() ) );
+        } else if ( clazz == LogicalProject.class ) {
+            LogicalProject project = (LogicalProject) node;
+            return new LogicalProject( cluster, traitSet, inputs.get( 0 ), copy( project.getProjects() ), project.getRowType() );
+        } else if ( clazz == LogicalFilter.class ) {
+            LogicalFilter filter = (LogicalFilter) node;
+            if ( !filter.getVariablesSet().isEmpty() ) {
+                throw new UnsupportedPlanException();
+            }
+            return new LogicalFilter( cluster, traitSet, inputs.get( 0 ), copy( filter.getCondition() ), ImmutableSet.of() );
+        } else if ( clazz == LogicalJoin.class ) {
+            LogicalJoin join = (LogicalJoin) node;
+            if ( !join.getVariablesSet().isEmpty() ) {
+                throw new UnsupportedPlanException();
+            }
+            return new LogicalJoin(
+                    cluster,
+                    traitSet,
+                    inputs.get( 0 ),
+                    inputs.get( 1 ),
+                    copy( join.getCondition() ),
+                    ImmutableSet.of(),
+                    join.getJoinType(),
+                    join.isSemiJoinDone(),
+                    ImmutableList.copyOf( join.getSystemFieldList() ) );
+        } else if ( clazz == LogicalAggregate.class ) {
+            LogicalAggregate aggregate = (LogicalAggregate) node;
+            return new LogicalAggregate( cluster, traitSet, inputs.get( 0 ), aggregate.indicator, aggregate.getGroupSet(), aggregate.getGroupSets(), aggregate.getAggCallList() );
+        } else if ( clazz == LogicalSort.class ) {
+            LogicalSort sort = (LogicalSort) node;
+            return LogicalSort.create( inputs.get( 0 ), sort.collation, copy( sort.offset ), copy( sort.fetch ) );
+        } else if ( clazz == LogicalUnion.class ) {
+            return new LogicalUnion( cluster, traitSet, inputs, ((LogicalUnion) node).all );
+        } else if ( clazz == LogicalIntersect.class ) {
+            return new LogicalIntersect( cluster, traitSet, inputs, ((LogicalIntersect) node).all );
+        } else if ( clazz == LogicalMinus.class ) {
+            return new LogicalMinus( cluster, traitSet, inputs, ((LogicalMinus) node).all );
+        } else if ( clazz == LogicalValues.class ) {
+            LogicalValues values = (LogicalValues) node;
+            return new LogicalValues( cluster, traitSet, values.getRowType(), values.getTuples() );
+        } else if ( clazz == LogicalWindow.class ) {
+            LogicalWindow window = (LogicalWindow) node;
+            return new LogicalWindow( cluster, traitSet, inputs.get( 0 ), window.constants, window.getRowType(), window.groups );
+        } else if ( clazz == LogicalModify.class ) {
+            LogicalModify modify = (LogicalModify) node;
+            return new LogicalModify(
+                    cluster,
+                    traitSet,
+                    copy( modify.getTable() ),
+                    catalogReader != null ? catalogReader : modify.getCatalogReader(),
+                    inputs.get( 0 ),
+                    modify.getOperation(),
+                    modify.getUpdateColumnList(),
+                    modify.getSourceExpressionList() == null ? null : copy( modify.getSourceExpressionList() ),
+                    modify.isFlattened() );
+        }
+        throw new UnsupportedPlanException();
+    }
+
+
+    private AlgTraitSet copy( AlgTraitSet traitSet ) {
+        AlgTraitSet copy = cluster.traitSet();
+        for ( AlgTrait trait : traitSet ) {
+            copy = copy.replace( trait );
+        }
+        return copy;
+    }
+
+
+    private AlgOptTable copy( AlgOptTable table ) {
+        if ( catalogReader == null ) {
+            return table;
+        }
+        AlgOptTable copy = catalogReader.getTable( table.getQualifiedName() );
+        if ( copy == null ) {
+            throw new UnsupportedPlanException();
+        }
+        return copy;
+    }
+
+
+    private List<RexNode> copy( List<? extends RexNode> nodes ) {
+        ImmutableList.Builder<RexNode> builder = ImmutableList.builder();
+        for ( RexNode node : nodes ) {
+            builder.add( copy( node ) );
+        }
+        return builder.build();
+    }
+
+
+    private RexNode copy( RexNode node ) {
+        if ( node == null ) {
+            return null;
+        }
+        node.accept( UnsupportedExpressionFinder.INSTANCE );
+        return shuttle == null ? node : node.accept( shuttle );
+    }
+
+
+    /**
+     * Rejects expressions which refer to other parts of the plan.
+     */
+    private static class UnsupportedExpressionFinder extends RexShuttle {
+
+        static final UnsupportedExpressionFinder INSTANCE = new UnsupportedExpressionFinder();
+
+
+        @Override
+        public RexNode visitSubQuery( RexSubQuery subQuery ) {
+            throw new UnsupportedPlanException();
+        }
+
+
+        @Override
+        public RexNode visitCorrelVariable( RexCorrelVariable variable ) {
+            throw new UnsupportedPlanException();
+        }
+
+    }
+
+
+    private static class UnsupportedPlanException extends RuntimeException {
+
+    }
+
+}
@@ -21,7 +21,12 @@
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.information.InformationAction;
@@ -35,16 +40,24 @@
 import org.polypheny.db.information.InformationTable;
 import org.polypheny.db.information.InformationText;
 import org.polypheny.db.prepare.Prepare.PreparedResult;
+import org.polypheny.db.util.VirtualThreads;
 
+@Slf4j
 public class ImplementationCache {
 
     public static final ImplementationCache INSTANCE = new ImplementationCache();
 
     private final Cache<String, PreparedResult> implementationCache;
 
+    // Interpreted implementations which are replaced by their compiled version once they are executed frequently
+    private final Cache<String, InterpretedImplementation> interpretedImplementations;
+    private final ExecutorService compilationExecutor = Executors.newSingleThreadExecutor( VirtualThreads.threadFactory( "TieredCompilation-", false ) );
+
     private final AtomicLong hitsCounter = new AtomicLong(); // Number of requests for which the cache contained the value
     private final AtomicLong missesCounter = new AtomicLong(); // Number of requests for which the cache hasn't contained the value
     private final AtomicLong uncacheableCounter = new AtomicLong(); // Number of requests for which the cache hasn't contained the value
+    private final AtomicLong interpretedCounter = new AtomicLong(); // Number of implementations which have been added as interpreted plan
+    private final AtomicLong compiledCounter = new AtomicLong(); // Number of interpreted implementations which have been replaced by compiled code
 
 
     public ImplementationCache() {
@@ -52,23 +65,51 @@ public ImplementationCache() {
         implementationCache = CacheBuilder.newBuilder()
                 .maximumSize( RuntimeConfig.IMPLEMENTATION_CACHING_SIZE.getInteger() )
                 .build();
+        interpretedImplementations = CacheBuilder.newBuilder()
+                .maximumSize( RuntimeConfig.IMPLEMENTATION_CACHING_SIZE.getInteger() )
+                .build();
         registerMonitoringPage();
     }
 
 
-    public PreparedResult getIfPresent( AlgNode parameterizedNode ) {
-        PreparedResult preparedResult = implementationCache.getIfPresent( parameterizedNode.algCompareString() );
+    public PreparedResult getIfPresent( AlgNode parameterizedNode, int maxParallelism ) {
+        final String key = QueryPlanCache.key( parameterizedNode, maxParallelism );
+        PreparedResult preparedResult = implementationCache.getIfPresent( key );
         if ( preparedResult == null ) {
             missesCounter.incrementAndGet();
         } else {
             hitsCounter.incrementAndGet();
+            InterpretedImplementation interpreted = interpretedImplementations.getIfPresent( key );
+            if ( interpreted != null && interpreted.preparedResult == preparedResult ) {
+                interpreted.countExecution( key );
+            }
         }
         return preparedResult;
     }
 
 
-    public void put( AlgNode parameterizedNode, PreparedResult preparedResult ) {
-        implementationCache.put( parameterizedNode.algCompareString(), preparedResult );
+    public void put( AlgNode parameterizedNode, int maxParallelism, PreparedResult preparedResult ) {
+        final String key = QueryPlanCache.key( parameterizedNode, maxParallelism );
+        implementationCache.put( key, preparedResult );
+        interpretedImplementations.invalidate( key );
+    }
+
+
+    /**
+     * Adds an implementation which interprets the plan. After it has been executed
+     * {@link RuntimeConfig#TIERED_EXECUTION_THRESHOLD} times, the plan is compiled in the background and replaces the
+     * interpreted implementation.
+     *
+     * @param parameterizedNode The parameterized plan
+     * @param maxParallelism The maximum degree of parallelism the plan has been optimized for
+     * @param preparedResult The interpreted implementation
+     * @param compiler Produces the compiled implementation of the plan
+     */
+    public void putInterpreted( AlgNode parameterizedNode, int maxParallelism, PreparedResult preparedResult, Supplier<PreparedResult> compiler ) {
+        final String key = QueryPlanCache.key( parameterizedNode, maxParallelism );
+        interpretedImplementations.put( key, new InterpretedImplementation( preparedResult, compiler ) );
+        implementationCache.put( key, preparedResult );
+        interpretedCounter.incrementAndGet();
     }
 
 
@@ -77,11 +118,46 @@ public void countUncacheable() {
     }
 
 
+    /**
+     * @return Number of implementations which have been added as interpreted plan
+     */
+    public long getInterpretedCount() {
+        return interpretedCounter.get();
+    }
+
+
+    /**
+     * @return Number of interpreted implementations which have been replaced by their compiled version
+     */
+    public long getCompiledCount() {
+        return compiledCounter.get();
+    }
+
+
     public void reset() {
         implementationCache.invalidateAll();
+        interpretedImplementations.invalidateAll();
         hitsCounter.set( 0 );
         missesCounter.set( 0 );
         uncacheableCounter.set( 0 );
+        interpretedCounter.set( 0 );
+        compiledCounter.set( 0 );
+    }
+
+
+    private void compile( String key, InterpretedImplementation interpreted ) {
+        compilationExecutor.execute( () -> {
+            try {
+                PreparedResult compiled = interpreted.compiler.get();
+                if ( implementationCache.asMap().replace( key, interpreted.preparedResult, compiled ) ) {
+                    compiledCounter.incrementAndGet();
+                }
+            } catch ( Exception e ) {
+                log.warn( "Unable to compile the interpreted query plan, the plan remains interpreted.", e );
+            } finally {
+                interpretedImplementations.asMap().remove( key, interpreted );
+            }
+        } );
     }
 
 
@@ -101,6 +177,9 @@ private void registerMonitoringPage() {
             generalKv.putPair( "Status", RuntimeConfig.IMPLEMENTATION_CACHING.getBoolean() ? "Active" : "Disabled" );
             generalKv.putPair( "Current Cache Size", implementationCache.size() + "" );
             generalKv.putPair( "Maximum Cache Size", RuntimeConfig.IMPLEMENTATION_CACHING_SIZE.getInteger() + "" );
+            generalKv.putPair( "Tiered Execution", RuntimeConfig.TIERED_EXECUTION.getBoolean() ? "Active" : "Disabled" );
+            generalKv.putPair( "Interpreted Implementations", interpretedCounter.get() + "" );
+            generalKv.putPair( "Compiled in Background", compiledCounter.get() + "" );
         } );
 
         // Hit ratio
@@ -110,7 +189,7 @@ private void registerMonitoringPage() {
         InformationGraph hitInfoGraph = new InformationGraph(
                 hitRatioGroup,
                 GraphType.DOUGHNUT,
-                new String[]{ "Hits", "Misses" }
+                new String[]{ "Misses", "Hits", "Uncacheable" }
         );
         hitInfoGraph.setOrder( 1 );
         im.registerInformation( hitInfoGraph );
@@ -164,4 +243,30 @@ private void registerMonitoringPage() {
         im.registerInformation( invalidateAction );
     }
 
+
+    /**
+     * An interpreted implementation together with the number of times it has been executed.
+     */
+    private class InterpretedImplementation {
+
+        private final PreparedResult preparedResult;
+        private final Supplier<PreparedResult> compiler;
+        private final AtomicLong executions = new AtomicLong( 1 );
+        private final AtomicBoolean compiling = new AtomicBoolean();
+
+
+        private InterpretedImplementation( PreparedResult preparedResult, Supplier<PreparedResult> compiler ) {
+            this.preparedResult = preparedResult;
+            this.compiler = compiler;
+        }
+
+
+        private void countExecution( String key ) {
+            if ( executions.incrementAndGet() >= RuntimeConfig.TIERED_EXECUTION_THRESHOLD.getInteger() && compiling.compareAndSet( false, true ) ) {
+                compile( key, this );
+            }
+        }
+
+    }
+
 }
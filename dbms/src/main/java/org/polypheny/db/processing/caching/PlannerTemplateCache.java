@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing.caching;
+
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.polypheny.db.information.InformationGroup;
+import org.polypheny.db.information.InformationKeyValue;
+import org.polypheny.db.information.InformationManager;
+import org.polypheny.db.information.InformationPage;
+import org.polypheny.db.plan.volcano.VolcanoPlannerTemplate;
+
+
+/**
+ * Holds the {@link VolcanoPlannerTemplate}s used to set up the planner of every statement, one per combination of the
+ * configuration options which influence the set of rules. Also tracks how long setting up a planner takes.
+ */
+public class PlannerTemplateCache {
+
+    public static final PlannerTemplateCache INSTANCE = new PlannerTemplateCache();
+
+    private final Map<String, VolcanoPlannerTemplate> templates = new ConcurrentHashMap<>();
+
+    private final AtomicLong buildCounter = new AtomicLong(); // Number of templates which have been built
+    private final AtomicLong setupCounter = new AtomicLong(); // Number of planners which have been set up
+    private final AtomicLong setupNanos = new AtomicLong(); // Total time spent setting up planners
+
+
+    public PlannerTemplateCache() {
+        registerMonitoringPage();
+    }
+
+
+    /**
+     * @param key identifies the configuration the template is built for
+     * @param builder builds the template if there is none for this key
+     * @return the template for the given key
+     */
+    public VolcanoPlannerTemplate get( String key, Supplier<VolcanoPlannerTemplate> builder ) {
+        return templates.computeIfAbsent( key, k -> {
+            buildCounter.incrementAndGet();
+            return builder.get();
+        } );
+    }
+
+
+    public void recordSetup( long nanos ) {
+        setupCounter.incrementAndGet();
+        setupNanos.addAndGet( nanos );
+    }
+
+
+    public void reset() {
+        templates.clear();
+        buildCounter.set( 0 );
+        setupCounter.set( 0 );
+        setupNanos.set( 0 );
+    }
+
+
+    private void registerMonitoringPage() {
+        InformationManager im = InformationManager.getInstance();
+
+        InformationPage page = new InformationPage( "Planner Setup" );
+        im.addPage( page );
+
+        InformationGroup generalGroup = new InformationGroup( page, "General" ).setOrder( 1 );
+        im.addGroup( generalGroup );
+
+        InformationKeyValue generalKv = new InformationKeyValue( generalGroup );
+        im.registerInformation( generalKv );
+        generalGroup.setRefreshFunction( () -> {
+            long setups = setupCounter.longValue();
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
+            symbols.setDecimalSeparator( '.' );
+            DecimalFormat df = new DecimalFormat( "0.0", symbols );
+            generalKv.putPair( "Templates", templates.size() + "" );
+            generalKv.putPair( "Template Builds", buildCounter.longValue() + "" );
+            generalKv.putPair( "Planner Setups", setups + "" );
+            generalKv.putPair( "Average Setup Time", df.format( setups == 0 ? 0 : setupNanos.longValue() / 1000.0 / setups ) + " µs" );
+        } );
+    }
+
+}
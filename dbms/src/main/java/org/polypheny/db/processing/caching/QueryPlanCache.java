@@ -23,6 +23,8 @@
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
 import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.config.Config;
+import org.polypheny.db.config.Config.ConfigListener;
 import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.information.InformationAction;
 import org.polypheny.db.information.InformationGraph;
@@ -52,11 +54,35 @@ public QueryPlanCache() {
                 //  .expireAfterWrite(10, TimeUnit.MINUTES)
                 .build();
         registerMonitoringPage();
+
+        // The degree of parallelism is part of the cached plans
+        ConfigListener parallelismListener = new ConfigListener() {
+            @Override
+            public void onConfigChange( Config c ) {
+                reset();
+            }
+
+
+            @Override
+            public void restart( Config c ) {
+            }
+        };
+        RuntimeConfig.PARALLEL_EXECUTION_MAX_DEGREE.addObserver( parallelismListener );
+        RuntimeConfig.PARALLEL_EXECUTION_MIN_ROWS.addObserver( parallelismListener );
+    }
+
+
+    /**
+     * Returns the key of a plan. The degree of parallelism is part of the optimized plan, hence plans of statements with
+     * a different maximum degree of parallelism are cached separately.
+     */
+    static String key( AlgNode parameterizedNode, int maxParallelism ) {
+        return parameterizedNode.algCompareString() + "&maxParallelism=" + maxParallelism;
     }
 
 
-    public AlgNode getIfPresent( AlgNode parameterizedNode ) {
-        AlgNode node = planCache.getIfPresent( parameterizedNode.algCompareString() );
+    public AlgNode getIfPresent( AlgNode parameterizedNode, int maxParallelism ) {
+        AlgNode node = planCache.getIfPresent( key( parameterizedNode, maxParallelism ) );
         if ( node == null ) {
             missesCounter.incrementAndGet();
         } else {
@@ -66,8 +92,8 @@ public AlgNode getIfPresent( AlgNode parameterizedNode ) {
     }
 
 
-    public void put( AlgNode parameterizedNode, AlgNode optimalNode ) {
-        planCache.put( parameterizedNode.algCompareString(), optimalNode );
+    public void put( AlgNode parameterizedNode, int maxParallelism, AlgNode optimalNode ) {
+        planCache.put( key( parameterizedNode, maxParallelism ), optimalNode );
     }
 
 
@@ -0,0 +1,518 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.processing.caching;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.lang.reflect.Type;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.apache.calcite.avatica.Meta.CursorFactory;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.AlgVisitor;
+import org.polypheny.db.algebra.logical.relational.LogicalModify;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.information.InformationAction;
+import org.polypheny.db.information.InformationGraph;
+import org.polypheny.db.information.InformationGraph.GraphData;
+import org.polypheny.db.information.InformationGraph.GraphType;
+import org.polypheny.db.information.InformationGroup;
+import org.polypheny.db.information.InformationKeyValue;
+import org.polypheny.db.information.InformationManager;
+import org.polypheny.db.information.InformationPage;
+import org.polypheny.db.information.InformationTable;
+import org.polypheny.db.information.InformationText;
+import org.polypheny.db.prepare.Prepare.PreparedResult;
+import org.polypheny.db.rex.RexCall;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.rex.RexShuttle;
+import org.polypheny.db.runtime.Bindable;
+import org.polypheny.db.runtime.Typed;
+import org.polypheny.db.transaction.EntityAccessMap.EntityIdentifier;
+import org.polypheny.db.transaction.TransactionImpl;
+import org.polypheny.db.util.Util;
+
+
+/**
+ * Caches the results of deterministic read queries. Results are identified by the parameterized query plan and the
+ * values of the parameters. Every entity has a version which is incremented whenever a transaction which has modified
+ * the entity commits. A cached result is only returned if none of the entities accessed by the query has changed since
+ * the result has been computed.
+ */
+public class ResultCache {
+
+    public static final ResultCache INSTANCE = new ResultCache();
+
+    private final Cache<ResultKey, CachedResult> resultCache;
+
+    private final Map<EntityIdentifier, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong(); // Incremented on reset to discard results which are computed concurrently
+
+    private final AtomicLong hitsCounter = new AtomicLong(); // Number of requests for which the cache contained a valid result
+    private final AtomicLong missesCounter = new AtomicLong(); // Number of requests for which the cache hasn't contained a valid result
+    private final AtomicLong uncacheableCounter = new AtomicLong(); // Number of requests for which the result cannot be cached
+    private final AtomicLong invalidationsCounter = new AtomicLong(); // Number of results removed because of changed entities
+
+
+    public ResultCache() {
+        RuntimeConfig.RESULT_CACHING_MEMORY_BUDGET.setRequiresRestart( true );
+        resultCache = CacheBuilder.newBuilder()
+                .maximumWeight( RuntimeConfig.RESULT_CACHING_MEMORY_BUDGET.getInteger() * 1024L * 1024L )
+                .weigher( ( ResultKey key, CachedResult result ) -> result.weight )
+                .build();
+        registerMonitoringPage();
+    }
+
+
+    /**
+     * Wraps the prepared result of a query so that results are served from and added to this cache.
+     *
+     * @param preparedResult the implementation of the query
+     * @param parameterizedNode the parameterized plan of the query, used to identify the result
+     * @param entities the entities (including their partitions) accessed by the query
+     * @return the wrapped prepared result or the given one if the results of the query cannot be cached
+     */
+    public PreparedResult wrap( PreparedResult preparedResult, AlgNode parameterizedNode, Collection<EntityIdentifier> entities ) {
+        if ( !(preparedResult instanceof Typed) || preparedResult.isDml() || !isDeterministic( parameterizedNode ) ) {
+            uncacheableCounter.incrementAndGet();
+            return preparedResult;
+        }
+        return new CachingPreparedResult( preparedResult, parameterizedNode.algCompareString(), List.copyOf( entities ) );
+    }
+
+
+    /**
+     * Increments the versions of the given entities. This needs to be called when a transaction which has modified
+     * these entities commits, and before its locks are released.
+     */
+    public void invalidate( Collection<EntityIdentifier> entities ) {
+        for ( EntityIdentifier entity : entities ) {
+            versions.computeIfAbsent( entity, e -> new AtomicLong() ).incrementAndGet();
+        }
+    }
+
+
+    /**
+     * Removes all results. Used if data has been changed without tracking the modified entities.
+     */
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        resultCache.invalidateAll();
+    }
+
+
+    public void reset() {
+        invalidateAll();
+        versions.clear();
+        hitsCounter.set( 0 );
+        missesCounter.set( 0 );
+        uncacheableCounter.set( 0 );
+        invalidationsCounter.set( 0 );
+    }
+
+
+    private Enumerable<Object> bind( CachingPreparedResult preparedResult, Bindable<Object> bindable, DataContext dataContext ) {
+        if ( !RuntimeConfig.RESULT_CACHING.getBoolean() ) {
+            return bindable.bind( dataContext );
+        }
+        TransactionImpl transaction = (TransactionImpl) dataContext.getStatement().getTransaction();
+        if ( !transaction.getUseCache() || transaction.hasChanged( preparedResult.entities ) ) {
+            // The transaction might see its own uncommitted changes
+            uncacheableCounter.incrementAndGet();
+            return bindable.bind( dataContext );
+        }
+
+        final ResultKey key = new ResultKey( preparedResult.plan, dataContext.getParameterValues() );
+        final Map<EntityIdentifier, Long> entityVersions = snapshotVersions( preparedResult.entities );
+        CachedResult cached = resultCache.getIfPresent( key );
+        if ( cached != null ) {
+            if ( cached.versions.equals( entityVersions ) ) {
+                hitsCounter.incrementAndGet();
+                return Linq4j.asEnumerable( cached.rows );
+            }
+            resultCache.invalidate( key );
+            invalidationsCounter.incrementAndGet();
+        }
+        missesCounter.incrementAndGet();
+
+        final long currentEpoch = epoch.get();
+        final Enumerable<Object> enumerable = bindable.bind( dataContext );
+        return new AbstractEnumerable<Object>() {
+            @Override
+            public Enumerator<Object> enumerator() {
+                return new CachingEnumerator( enumerable.enumerator(), rows -> put( key, entityVersions, currentEpoch, rows ) );
+            }
+        };
+    }
+
+
+    private void put( ResultKey key, Map<EntityIdentifier, Long> entityVersions, long resultEpoch, List<Object> rows ) {
+        if ( rows != null && epoch.get() == resultEpoch ) {
+            long size = 0;
+            for ( Object row : rows ) {
+                size += estimateSize( row );
+            }
+            resultCache.put( key, new CachedResult( rows, entityVersions, (int) Math.min( size, Integer.MAX_VALUE ) ) );
+        }
+    }
+
+
+    private Map<EntityIdentifier, Long> snapshotVersions( List<EntityIdentifier> entities ) {
+        Map<EntityIdentifier, Long> snapshot = new HashMap<>();
+        for ( EntityIdentifier entity : entities ) {
+            AtomicLong version = versions.get( entity );
+            snapshot.put( entity, version == null ? 0L : version.get() );
+        }
+        return snapshot;
+    }
+
+
+    /**
+     * Rough estimation of the heap size of a value in bytes.
+     */
+    static long estimateSize( Object value ) {
+        if ( value == null ) {
+            return 8;
+        } else if ( value instanceof Object[] ) {
+            long size = 16 + 8L * ((Object[]) value).length;
+            for ( Object o : (Object[]) value ) {
+                size += estimateSize( o );
+            }
+            return size;
+        } else if ( value instanceof List ) {
+            long size = 32 + 8L * ((List<?>) value).size();
+            for ( Object o : (List<?>) value ) {
+                size += estimateSize( o );
+            }
+            return size;
+        } else if ( value instanceof String ) {
+            return 40 + 2L * ((String) value).length();
+        } else if ( value instanceof byte[] ) {
+            return 16 + ((byte[]) value).length;
+        } else if ( value instanceof Number || value instanceof Boolean || value instanceof Character ) {
+            return 16;
+        }
+        return 64;
+    }
+
+
+    /**
+     * Checks whether a plan only contains deterministic expressions, i.e., expressions which return the same result
+     * when evaluated on the same data. Dynamic functions like {@code CURRENT_TIMESTAMP} are not deterministic in this sense.
+     */
+    static boolean isDeterministic( AlgNode node ) {
+        final RexShuttle shuttle = new RexShuttle() {
+            @Override
+            public RexNode visitCall( RexCall call ) {
+                if ( !call.getOperator().isDeterministic() || call.getOperator().isDynamicFunction() ) {
+                    throw Util.FoundOne.NULL;
+                }
+                return super.visitCall( call );
+            }
+        };
+        try {
+            new AlgVisitor() {
+                @Override
+                public void visit( AlgNode node, int ordinal, AlgNode parent ) {
+                    node.accept( shuttle );
+                    super.visit( node, ordinal, parent );
+                }
+            }.go( node );
+            return true;
+        } catch ( Util.FoundOne e ) {
+            return false;
+        }
+    }
+
+
+    private void registerMonitoringPage() {
+        InformationManager im = InformationManager.getInstance();
+
+        InformationPage page = new InformationPage( "Result Cache" );
+        im.addPage( page );
+
+        // General
+        InformationGroup generalGroup = new InformationGroup( page, "General" ).setOrder( 1 );
+        im.addGroup( generalGroup );
+
+        InformationKeyValue generalKv = new InformationKeyValue( generalGroup );
+        im.registerInformation( generalKv );
+        generalGroup.setRefreshFunction( () -> {
+            long weight = resultCache.asMap().values().stream().mapToLong( r -> r.weight ).sum();
+            generalKv.putPair( "Status", RuntimeConfig.RESULT_CACHING.getBoolean() ? "Active" : "Disabled" );
+            generalKv.putPair( "Current Cache Size", resultCache.size() + "" );
+            generalKv.putPair( "Estimated Memory Usage", (weight / 1024) + " KB" );
+            generalKv.putPair( "Memory Budget", RuntimeConfig.RESULT_CACHING_MEMORY_BUDGET.getInteger() + " MB" );
+            generalKv.putPair( "Tracked Entities", versions.size() + "" );
+            generalKv.putPair( "Invalidated Results", invalidationsCounter.longValue() + "" );
+        } );
+
+        // Hit ratio
+        InformationGroup hitRatioGroup = new InformationGroup( page, "Hit Ratio" ).setOrder( 2 );
+        im.addGroup( hitRatioGroup );
+
+        InformationGraph hitInfoGraph = new InformationGraph(
+                hitRatioGroup,
+                GraphType.DOUGHNUT,
+                new String[]{ "Misses", "Hits", "Uncacheable" }
+        );
+        hitInfoGraph.setOrder( 1 );
+        im.registerInformation( hitInfoGraph );
+
+        InformationTable hitInfoTable = new InformationTable(
+                hitRatioGroup,
+                Arrays.asList( "Attribute", "Percent", "Absolute" )
+        );
+        hitInfoTable.setOrder( 2 );
+        im.registerInformation( hitInfoTable );
+
+        hitRatioGroup.setRefreshFunction( () -> {
+            long hits = hitsCounter.longValue();
+            long misses = missesCounter.longValue();
+            long uncacheable = uncacheableCounter.longValue();
+            long total = hits + misses + uncacheable;
+
+            double hitPercent = (double) hits / total;
+            double missesPercent = (double) misses / total;
+            double uncacheablePercent = 1.0 - hitPercent - missesPercent;
+
+            hitInfoGraph.updateGraph(
+                    new String[]{ "Misses", "Hits", "Uncacheable" },
+                    new GraphData<>( "heap-data", new Long[]{ misses, hits, uncacheable } )
+            );
+
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
+            symbols.setDecimalSeparator( '.' );
+            DecimalFormat df = new DecimalFormat( "0.0", symbols );
+            hitInfoTable.reset();
+            hitInfoTable.addRow( "Hits", df.format( total == 0 ? 0 : (hitPercent * 100) ) + " %", hits );
+            hitInfoTable.addRow( "Misses", df.format( total == 0 ? 0 : (missesPercent * 100) ) + " %", misses );
+            hitInfoTable.addRow( "Uncacheable", df.format( total == 0 ? 0 : (uncacheablePercent * 100) ) + " %", uncacheable );
+        } );
+
+        // Invalidate cache
+        InformationGroup invalidateGroup = new InformationGroup( page, "Invalidate" ).setOrder( 3 );
+        im.addGroup( invalidateGroup );
+
+        InformationText invalidateText = new InformationText( invalidateGroup, "Invalidate the result cache including the hit and miss counters." );
+        invalidateText.setOrder( 1 );
+        im.registerInformation( invalidateText );
+
+        InformationAction invalidateAction = new InformationAction( invalidateGroup, "Invalidate", parameters -> {
+            reset();
+            generalGroup.refresh();
+            hitRatioGroup.refresh();
+            return "Successfully invalidated the result cache!";
+        } );
+        invalidateAction.setOrder( 2 );
+        im.registerInformation( invalidateAction );
+    }
+
+
+    /**
+     * Identifies a result by the parameterized plan and the values of the parameters.
+     */
+    private static class ResultKey {
+
+        private final String plan;
+        private final List<Map<Long, Object>> parameterValues;
+
+
+        ResultKey( String plan, List<Map<Long, Object>> parameterValues ) {
+            this.plan = plan;
+            this.parameterValues = new ArrayList<>();
+            for ( Map<Long, Object> values : parameterValues ) {
+                this.parameterValues.add( new HashMap<>( values ) );
+            }
+        }
+
+
+        @Override
+        public boolean equals( Object o ) {
+            if ( this == o ) {
+                return true;
+            }
+            if ( o == null || getClass() != o.getClass() ) {
+                return false;
+            }
+            ResultKey that = (ResultKey) o;
+            return plan.equals( that.plan ) && parameterValues.equals( that.parameterValues );
+        }
+
+
+        @Override
+        public int hashCode() {
+            return Objects.hash( plan, parameterValues );
+        }
+
+    }
+
+
+    private static class CachedResult {
+
+        private final List<Object> rows;
+        private final Map<EntityIdentifier, Long> versions;
+        private final int weight;
+
+
+        CachedResult( List<Object> rows, Map<EntityIdentifier, Long> versions, int weight ) {
+            this.rows = rows;
+            this.versions = versions;
+            this.weight = weight;
+        }
+
+    }
+
+
+    /**
+     * Collects the rows while they are consumed. The collected rows are handed over once the result has been
+     * completely enumerated. If the result exceeds the maximum number of rows, {@code null} is handed over instead.
+     */
+    private static class CachingEnumerator implements Enumerator<Object> {
+
+        private final Enumerator<Object> enumerator;
+        private final Consumer<List<Object>> onComplete;
+        private final int maxRows = RuntimeConfig.RESULT_CACHING_MAX_ROWS.getInteger();
+        private List<Object> rows = new ArrayList<>();
+        private boolean done = false;
+
+
+        CachingEnumerator( Enumerator<Object> enumerator, Consumer<List<Object>> onComplete ) {
+            this.enumerator = enumerator;
+            this.onComplete = onComplete;
+        }
+
+
+        @Override
+        public Object current() {
+            return enumerator.current();
+        }
+
+
+        @Override
+        public boolean moveNext() {
+            boolean hasNext = enumerator.moveNext();
+            if ( done ) {
+                return hasNext;
+            }
+            if ( hasNext ) {
+                if ( rows != null ) {
+                    rows.add( enumerator.current() );
+                    if ( rows.size() > maxRows ) {
+                        rows = null;
+                    }
+                }
+            } else {
+                done = true;
+                onComplete.accept( rows == null ? null : Collections.unmodifiableList( rows ) );
+            }
+            return hasNext;
+        }
+
+
+        @Override
+        public void reset() {
+            enumerator.reset();
+            rows = null;
+        }
+
+
+        @Override
+        public void close() {
+            enumerator.close();
+        }
+
+    }
+
+
+    private class CachingPreparedResult implements PreparedResult, Typed {
+
+        private final PreparedResult preparedResult;
+        private final String plan;
+        private final List<EntityIdentifier> entities;
+
+
+        CachingPreparedResult( PreparedResult preparedResult, String plan, List<EntityIdentifier> entities ) {
+            this.preparedResult = preparedResult;
+            this.plan = plan;
+            this.entities = entities;
+        }
+
+
+        @Override
+        public String getCode() {
+            return preparedResult.getCode();
+        }
+
+
+        @Override
+        public boolean isDml() {
+            return preparedResult.isDml();
+        }
+
+
+        @Override
+        public LogicalModify.Operation getTableModOp() {
+            return preparedResult.getTableModOp();
+        }
+
+
+        @Override
+        public List<List<String>> getFieldOrigins() {
+            return preparedResult.getFieldOrigins();
+        }
+
+
+        @Override
+        public AlgDataType getParameterRowType() {
+            return preparedResult.getParameterRowType();
+        }
+
+
+        @Override
+        public Bindable getBindable( CursorFactory cursorFactory ) {
+            @SuppressWarnings("unchecked") final Bindable<Object> bindable = preparedResult.getBindable( cursorFactory );
+            return dataContext -> bind( this, bindable, dataContext );
+        }
+
+
+        @Override
+        public Type getElementType() {
+            return ((Typed) preparedResult).getElementType();
+        }
+
+    }
+
+}
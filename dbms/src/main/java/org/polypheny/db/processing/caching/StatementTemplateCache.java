@@ -0,0 +1,285 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing.caching;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.polypheny.db.algebra.AlgRoot;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.information.InformationAction;
+import org.polypheny.db.information.InformationGraph;
+import org.polypheny.db.information.InformationGraph.GraphData;
+import org.polypheny.db.information.InformationGraph.GraphType;
+import org.polypheny.db.information.InformationGroup;
+import org.polypheny.db.information.InformationKeyValue;
+import org.polypheny.db.information.InformationManager;
+import org.polypheny.db.information.InformationPage;
+import org.polypheny.db.information.InformationTable;
+import org.polypheny.db.information.InformationText;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgTraitDef;
+import org.polypheny.db.plan.volcano.VolcanoPlanner;
+import org.polypheny.db.rex.RexBuilder;
+import org.polypheny.db.rex.RexShuttle;
+import org.polypheny.db.transaction.Statement;
+
+
+/**
+ * Caches the logical plans of normalized statements, i.e., statements whose literals have been replaced by parameters.
+ * This allows to skip parsing, validation and translation for statements which only differ in their literals. The
+ * templates are detached from the statement which created them and are copied into the cluster of every statement
+ * using them. Templates created before the last change of the catalog are discarded.
+ */
+public class StatementTemplateCache {
+
+    public static final StatementTemplateCache INSTANCE = new StatementTemplateCache();
+
+    private static final Template UNCACHEABLE = new Template( null, ImmutableList.of(), null, -1 );
+
+    private final Cache<String, Template> templateCache;
+
+    private final AtomicLong catalogVersion = new AtomicLong(); // Incremented on every change of the catalog
+
+    private final AtomicLong hitsCounter = new AtomicLong(); // Number of requests for which the cache contained a valid template
+    private final AtomicLong missesCounter = new AtomicLong(); // Number of requests for which the cache hasn't contained a valid template
+    private final AtomicLong uncacheableCounter = new AtomicLong(); // Number of requests which cannot be served from a template
+
+
+    public StatementTemplateCache() {
+        RuntimeConfig.STATEMENT_TEMPLATE_CACHING_SIZE.setRequiresRestart( true );
+        templateCache = CacheBuilder.newBuilder()
+                .maximumSize( RuntimeConfig.STATEMENT_TEMPLATE_CACHING_SIZE.getInteger() )
+                .build();
+        Catalog.getInstance().addObserver( evt -> catalogVersion.incrementAndGet() );
+        registerMonitoringPage();
+    }
+
+
+    /**
+     * @return the current version of the catalog; needs to be retrieved before translating a statement for which a
+     * template is created
+     */
+    public long getCatalogVersion() {
+        return catalogVersion.get();
+    }
+
+
+    /**
+     * @return the template for the given key, {@link Template#isUncacheable() an uncacheable template} if statements
+     * with this key cannot be served from a template, or {@code null} if there is no valid template
+     */
+    public Template getIfPresent( String key ) {
+        Template template = templateCache.getIfPresent( key );
+        if ( template == UNCACHEABLE ) {
+            uncacheableCounter.incrementAndGet();
+            return template;
+        }
+        if ( template == null || template.catalogVersion != catalogVersion.get() ) {
+            missesCounter.incrementAndGet();
+            return null;
+        }
+        hitsCounter.incrementAndGet();
+        return template;
+    }
+
+
+    /**
+     * Detaches a copy of the template from the statement which created it and adds it to the cache.
+     */
+    public void put( String key, Template template ) {
+        AlgOptCluster cluster = template.root.alg.getCluster();
+        VolcanoPlanner planner = new VolcanoPlanner();
+        for ( AlgTraitDef<?> traitDef : cluster.getPlanner().getAlgTraitDefs() ) {
+            planner.addAlgTraitDef( traitDef );
+        }
+        AlgOptCluster detachedCluster = AlgOptCluster.create( planner, cluster.getRexBuilder() );
+        AlgRoot detached = new AlgTemplateCopier( detachedCluster, null, null ).copy( template.root );
+        if ( detached == null ) {
+            putUncacheable( key );
+            return;
+        }
+        templateCache.put( key, new Template( detached, template.liftedTypes, template.parameterRowType, template.catalogVersion ) );
+    }
+
+
+    /**
+     * Marks statements with the given key as uncacheable.
+     */
+    public void putUncacheable( String key ) {
+        templateCache.put( key, UNCACHEABLE );
+    }
+
+
+    public void countUncacheable() {
+        uncacheableCounter.incrementAndGet();
+    }
+
+
+    /**
+     * Copies the plan of a template into the cluster of the given statement. Tables are resolved again using the
+     * catalog reader of the statement's transaction.
+     *
+     * @return the plan or {@code null} if the plan cannot be copied, e.g., because a table does not exist anymore
+     */
+    public AlgRoot instantiate( Template template, Statement statement ) {
+        final RexBuilder rexBuilder = new RexBuilder( statement.getTransaction().getTypeFactory() );
+        final AlgOptCluster cluster = AlgOptCluster.create( statement.getQueryProcessor().getPlanner(), rexBuilder );
+        return new AlgTemplateCopier( cluster, statement.getTransaction().getCatalogReader(), null ).copy( template.root );
+    }
+
+
+    /**
+     * Applies a shuttle to all expressions of a plan which is supposed to become a template.
+     *
+     * @return the rewritten plan or {@code null} if the plan is not supported as template
+     */
+    public static AlgRoot rewrite( AlgRoot root, RexShuttle shuttle ) {
+        return new AlgTemplateCopier( root.alg.getCluster(), null, shuttle ).copy( root );
+    }
+
+
+    public void reset() {
+        templateCache.invalidateAll();
+        catalogVersion.incrementAndGet();
+        hitsCounter.set( 0 );
+        missesCounter.set( 0 );
+        uncacheableCounter.set( 0 );
+    }
+
+
+    private void registerMonitoringPage() {
+        InformationManager im = InformationManager.getInstance();
+
+        InformationPage page = new InformationPage( "Statement Template Cache" );
+        im.addPage( page );
+
+        // General
+        InformationGroup generalGroup = new InformationGroup( page, "General" ).setOrder( 1 );
+        im.addGroup( generalGroup );
+
+        InformationKeyValue generalKv = new InformationKeyValue( generalGroup );
+        im.registerInformation( generalKv );
+        generalGroup.setRefreshFunction( () -> {
+            generalKv.putPair( "Status", RuntimeConfig.STATEMENT_TEMPLATE_CACHING.getBoolean() ? "Active" : "Disabled" );
+            generalKv.putPair( "Current Cache Size", templateCache.size() + "" );
+            generalKv.putPair( "Maximum Cache Size", RuntimeConfig.STATEMENT_TEMPLATE_CACHING_SIZE.getInteger() + "" );
+            generalKv.putPair( "Catalog Version", catalogVersion.get() + "" );
+        } );
+
+        // Hit ratio
+        InformationGroup hitRatioGroup = new InformationGroup( page, "Hit Ratio" ).setOrder( 2 );
+        im.addGroup( hitRatioGroup );
+
+        InformationGraph hitInfoGraph = new InformationGraph(
+                hitRatioGroup,
+                GraphType.DOUGHNUT,
+                new String[]{ "Misses", "Hits", "Uncacheable" }
+        );
+        hitInfoGraph.setOrder( 1 );
+        im.registerInformation( hitInfoGraph );
+
+        InformationTable hitInfoTable = new InformationTable(
+                hitRatioGroup,
+                Arrays.asList( "Attribute", "Percent", "Absolute" )
+        );
+        hitInfoTable.setOrder( 2 );
+        im.registerInformation( hitInfoTable );
+
+        hitRatioGroup.setRefreshFunction( () -> {
+            long hits = hitsCounter.longValue();
+            long misses = missesCounter.longValue();
+            long uncacheable = uncacheableCounter.longValue();
+            long total = hits + misses + uncacheable;
+
+            double hitPercent = (double) hits / total;
+            double missesPercent = (double) misses / total;
+            double uncacheablePercent = 1.0 - hitPercent - missesPercent;
+
+            hitInfoGraph.updateGraph(
+                    new String[]{ "Misses", "Hits", "Uncacheable" },
+                    new GraphData<>( "heap-data", new Long[]{ misses, hits, uncacheable } )
+            );
+
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
+            symbols.setDecimalSeparator( '.' );
+            DecimalFormat df = new DecimalFormat( "0.0", symbols );
+            hitInfoTable.reset();
+            hitInfoTable.addRow( "Hits", df.format( total == 0 ? 0 : (hitPercent * 100) ) + " %", hits );
+            hitInfoTable.addRow( "Misses", df.format( total == 0 ? 0 : (missesPercent * 100) ) + " %", misses );
+            hitInfoTable.addRow( "Uncacheable", df.format( total == 0 ? 0 : (uncacheablePercent * 100) ) + " %", uncacheable );
+        } );
+
+        // Invalidate cache
+        InformationGroup invalidateGroup = new InformationGroup( page, "Invalidate" ).setOrder( 3 );
+        im.addGroup( invalidateGroup );
+
+        InformationText invalidateText = new InformationText( invalidateGroup, "Invalidate the statement template cache including the hit and miss counters." );
+        invalidateText.setOrder( 1 );
+        im.registerInformation( invalidateText );
+
+        InformationAction invalidateAction = new InformationAction( invalidateGroup, "Invalidate", parameters -> {
+            reset();
+            generalGroup.refresh();
+            hitRatioGroup.refresh();
+            return "Successfully invalidated the statement template cache!";
+        } );
+        invalidateAction.setOrder( 2 );
+        im.registerInformation( invalidateAction );
+    }
+
+
+    /**
+     * The logical plan of a normalized statement. The plan refers to the parameters of the original statement by their
+     * indexes, followed by the lifted literals.
+     */
+    public static class Template {
+
+        public final AlgRoot root;
+        /**
+         * Types of the parameters replacing the lifted literals
+         */
+        public final List<AlgDataType> liftedTypes;
+        /**
+         * Row type of the parameters of the original statement
+         */
+        public final AlgDataType parameterRowType;
+        public final long catalogVersion;
+
+
+        public Template( AlgRoot root, List<AlgDataType> liftedTypes, AlgDataType parameterRowType, long catalogVersion ) {
+            this.root = root;
+            this.liftedTypes = ImmutableList.copyOf( liftedTypes );
+            this.parameterRowType = parameterRowType;
+            this.catalogVersion = catalogVersion;
+        }
+
+
+        public boolean isUncacheable() {
+            return root == null;
+        }
+
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.routing;
+
+
+import org.polypheny.db.monitoring.core.LatencyHistogram;
+
+
+/**
+ * The statistic of the measured execution times which is used as post costs of a routing plan.
+ */
+public enum PostCostMetric {
+    MEAN,
+    MEDIAN,
+    P95,
+    P99;
+
+
+    public double of( LatencyHistogram latencies ) {
+        switch ( this ) {
+            case MEDIAN:
+                return latencies.getPercentile( 0.5 );
+            case P95:
+                return latencies.getPercentile( 0.95 );
+            case P99:
+                return latencies.getPercentile( 0.99 );
+            default:
+                return latencies.getMean();
+        }
+    }
+}
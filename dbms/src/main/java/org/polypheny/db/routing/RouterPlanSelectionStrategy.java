@@ -18,5 +18,7 @@
 
 public enum RouterPlanSelectionStrategy {
     PROBABILITY,
-    BEST
+    BEST,
+    THOMPSON_SAMPLING,
+    UCB
 }
@@ -57,10 +57,16 @@ public class RoutingManager {
 
     public static final ConfigEnum PLAN_SELECTION_STRATEGY = new ConfigEnum(
             "routing/planSelectionStrategy",
-            "Defines whether the best plan will be returned or the plan based on percentage calculated for each plan ordered by costs",
+            "Defines whether the best plan will be returned, the plan based on percentage calculated for each plan ordered by costs, or a plan chosen by an explore/exploit policy (Thompson sampling or UCB) based on the measured execution times",
             RouterPlanSelectionStrategy.class,
             RouterPlanSelectionStrategy.BEST );
 
+    public static final ConfigEnum POST_COST_METRIC = new ConfigEnum(
+            "routing/postCostMetric",
+            "The statistic of the measured execution times which is used as post costs. Percentiles favor plans with a low tail latency.",
+            PostCostMetric.class,
+            PostCostMetric.MEAN );
+
 
     private static final RoutingManager INSTANCE = new RoutingManager();
 
@@ -138,6 +144,9 @@ public void restart( Config c ) {
         configManager.registerConfig( PLAN_SELECTION_STRATEGY );
         PLAN_SELECTION_STRATEGY.withUi( routingGroup.getId(), 2 );
 
+        configManager.registerConfig( POST_COST_METRIC );
+        POST_COST_METRIC.withUi( routingGroup.getId(), 3 );
+
         configManager.registerConfig( POST_COST_AGGREGATION_ACTIVE );
         POST_COST_AGGREGATION_ACTIVE.addObserver( new ConfigListener() {
             @Override
@@ -152,7 +161,7 @@ public void restart( Config c ) {
 
             }
         } );
-        POST_COST_AGGREGATION_ACTIVE.withUi( routingGroup.getId(), 3 );
+        POST_COST_AGGREGATION_ACTIVE.withUi( routingGroup.getId(), 4 );
     }
 
 
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.routing.strategies;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.polypheny.db.monitoring.core.LatencyHistogram;
+import org.polypheny.db.routing.PostCostMetric;
+import org.polypheny.db.routing.RouterPlanSelectionStrategy;
+
+
+/**
+ * Explore/exploit policies for choosing between routing plans based on their measured execution times. Every routing
+ * plan is an arm of a multi-armed bandit; the reward is a low execution time. Since the latency histograms decay, the
+ * confidence in the costs of a plan is bounded by the half-life of the histograms. This way, the policies keep
+ * exploring and quickly follow if a store becomes slower.
+ *
+ * The scores returned by the policies are normalized by the highest post costs of the plans, lower is better. Plans
+ * without any measurements get a score of negative infinity and are therefore tried first.
+ */
+public class LatencyBandit {
+
+    // Lower than the usual square root of two, since the normalized costs of plans are rarely spread over the whole range
+    private static final double UCB_EXPLORATION = 0.5;
+
+
+    private LatencyBandit() {
+        // Utility class
+    }
+
+
+    /**
+     * @param strategy either {@link RouterPlanSelectionStrategy#THOMPSON_SAMPLING} or {@link RouterPlanSelectionStrategy#UCB}
+     * @param latencies the execution times of the plans
+     * @param metric the statistic of the execution times to minimize
+     * @param random source of randomness for Thompson sampling
+     * @return the score of each plan
+     */
+    public static List<Double> scores( RouterPlanSelectionStrategy strategy, List<LatencyHistogram> latencies, PostCostMetric metric, Random random ) {
+        final int n = latencies.size();
+        final double[] costs = new double[n];
+        double maxCosts = 0;
+        long totalSamples = 0;
+        for ( int i = 0; i < n; i++ ) {
+            costs[i] = metric.of( latencies.get( i ) );
+            maxCosts = Math.max( maxCosts, costs[i] );
+            totalSamples += latencies.get( i ).getSamples();
+        }
+        if ( maxCosts <= 0 ) {
+            maxCosts = 1;
+        }
+
+        final List<Double> scores = new ArrayList<>( n );
+        for ( int i = 0; i < n; i++ ) {
+            final LatencyHistogram histogram = latencies.get( i );
+            final double samples = histogram.getEffectiveSamples();
+            if ( histogram.getSamples() == 0 || samples <= 0 ) {
+                scores.add( Double.NEGATIVE_INFINITY );
+                continue;
+            }
+            final double normalized = costs[i] / maxCosts;
+            switch ( strategy ) {
+                case UCB:
+                    // Lower confidence bound, as the costs are minimized
+                    scores.add( normalized - UCB_EXPLORATION * Math.sqrt( Math.log( totalSamples + 1 ) / samples ) );
+                    break;
+                case THOMPSON_SAMPLING:
+                    // Sample from the approximated posterior of the costs; with less than two samples the
+                    // standard deviation is unknown and the costs themselves are used as a broad prior
+                    double deviation = histogram.getSamples() < 2 ? normalized : histogram.getStandardDeviation() / maxCosts;
+                    scores.add( normalized + random.nextGaussian() * deviation / Math.sqrt( samples ) );
+                    break;
+                default:
+                    throw new IllegalArgumentException( "Not a bandit strategy: " + strategy );
+            }
+        }
+        return scores;
+    }
+
+}
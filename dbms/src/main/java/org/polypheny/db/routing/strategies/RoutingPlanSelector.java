@@ -18,12 +18,15 @@
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.monitoring.core.LatencyHistogram;
 import org.polypheny.db.monitoring.core.MonitoringServiceProvider;
 import org.polypheny.db.plan.AlgOptCost;
 import org.polypheny.db.plan.AlgOptUtil;
+import org.polypheny.db.routing.PostCostMetric;
 import org.polypheny.db.routing.RouterPlanSelectionStrategy;
 import org.polypheny.db.routing.RoutingManager;
 import org.polypheny.db.routing.RoutingPlan;
@@ -59,7 +62,14 @@ public RoutingPlan selectPlanBasedOnCosts(
         List<Double> icarusCosts;
         List<Double> postCosts;
         List<Double> percentageCosts = null;
-        if ( calcPostCosts ) {
+        final RouterPlanSelectionStrategy strategy = (RouterPlanSelectionStrategy) RoutingManager.PLAN_SELECTION_STRATEGY.getEnum();
+        final boolean bandit = strategy == RouterPlanSelectionStrategy.THOMPSON_SAMPLING || strategy == RouterPlanSelectionStrategy.UCB;
+        if ( calcPostCosts && bandit ) {
+            final PostCostMetric metric = (PostCostMetric) RoutingManager.POST_COST_METRIC.getEnum();
+            final List<LatencyHistogram> latencies = getLatencies( routingPlans );
+            icarusCosts = latencies.stream().map( metric::of ).collect( Collectors.toList() );
+            postCosts = LatencyBandit.scores( strategy, latencies, metric, ThreadLocalRandom.current() );
+        } else if ( calcPostCosts ) {
             Pair<List<Double>, List<Double>> icarusResult = calculateIcarusPostCosts( routingPlans );
             icarusCosts = icarusResult.right;
             postCosts = icarusResult.left;
@@ -76,9 +86,9 @@ public RoutingPlan selectPlanBasedOnCosts(
                 .collect( Collectors.toList() );
 
         // Get plan in regard to the active strategy
-        if ( RoutingManager.PLAN_SELECTION_STRATEGY.getEnum() == RouterPlanSelectionStrategy.BEST ) {
+        if ( strategy == RouterPlanSelectionStrategy.BEST || bandit ) {
             result = this.selectBestPlan( routingPlans, effectiveCosts );
-        } else if ( RoutingManager.PLAN_SELECTION_STRATEGY.getEnum() == RouterPlanSelectionStrategy.PROBABILITY ) {
+        } else if ( strategy == RouterPlanSelectionStrategy.PROBABILITY ) {
             Pair<RoutingPlan, List<Double>> percentageResult = this.selectPlanFromProbability( routingPlans, effectiveCosts );
             result = percentageResult.left;
             percentageCosts = percentageResult.right;
@@ -156,8 +166,9 @@ private RoutingPlan selectBestPlan(
 
 
     private Pair<List<Double>, List<Double>> calculateIcarusPostCosts( List<? extends RoutingPlan> proposedRoutingPlans ) {
-        final List<Long> postCosts = proposedRoutingPlans.stream()
-                .map( plan -> MonitoringServiceProvider.getInstance().getQueryPostCosts( plan.getPhysicalQueryClass() ).getExecutionTime() )
+        final PostCostMetric metric = (PostCostMetric) RoutingManager.POST_COST_METRIC.getEnum();
+        final List<Long> postCosts = getLatencies( proposedRoutingPlans ).stream()
+                .map( latencies -> (long) metric.of( latencies ) )
                 .collect( Collectors.toList() );
 
         // Check null values in icarus special case
@@ -177,6 +188,13 @@ private Pair<List<Double>, List<Double>> calculateIcarusPostCosts( List<? extend
     }
 
 
+    private List<LatencyHistogram> getLatencies( List<? extends RoutingPlan> routingPlans ) {
+        return routingPlans.stream()
+                .map( plan -> MonitoringServiceProvider.getInstance().getQueryLatencies( plan.getPhysicalQueryClass() ) )
+                .collect( Collectors.toList() );
+    }
+
+
     private List<Double> calculateProbabilities( List<Double> input ) {
         // Check all zero
         if ( input.stream().allMatch( value -> value <= AlgOptUtil.EPSILON ) ) {
@@ -21,12 +21,15 @@
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
+import org.polypheny.db.monitoring.jfr.LockEvent;
+import org.polypheny.db.transaction.EntityAccessMap.EntityIdentifier;
 import org.polypheny.db.transaction.Transaction.AccessMode;
 
 
 // Based on code taken from https://github.com/dstibrany/LockManager
 public class Lock {
 
+    private final EntityIdentifier entity;
     private final Set<TransactionImpl> owners = new HashSet<>();
     private final ReentrantLock lock = new ReentrantLock( true );
     private final Condition waiters = lock.newCondition();
@@ -35,20 +38,31 @@ public class Lock {
     private int sLockCount = 0;
 
 
-    Lock( WaitForGraph waitForGraph ) {
+    Lock( EntityIdentifier entity, WaitForGraph waitForGraph ) {
+        this.entity = entity;
         this.waitForGraph = waitForGraph;
     }
 
 
     void acquire( TransactionImpl txn, LockMode lockMode ) throws InterruptedException {
-        if ( lockMode == LockMode.SHARED ) {
-            acquireSLock( txn );
-            txn.updateAccessMode( AccessMode.READ_ACCESS );
-        } else if ( lockMode == LockMode.EXCLUSIVE ) {
-            acquireXLock( txn );
-            txn.updateAccessMode( AccessMode.WRITE_ACCESS );
-        } else {
-            throw new RuntimeException( "Lock mode does not exist" );
+        final LockEvent event = new LockEvent();
+        event.begin();
+        try {
+            if ( lockMode == LockMode.SHARED ) {
+                event.waits = acquireSLock( txn );
+                txn.updateAccessMode( AccessMode.READ_ACCESS );
+            } else if ( lockMode == LockMode.EXCLUSIVE ) {
+                event.waits = acquireXLock( txn );
+                txn.updateAccessMode( AccessMode.WRITE_ACCESS );
+            } else {
+                throw new RuntimeException( "Lock mode does not exist" );
+            }
+        } catch ( InterruptedException e ) {
+            // The transaction has been aborted by the deadlock detection
+            event.deadlock = true;
+            throw e;
+        } finally {
+            commitEvent( event, txn, lockMode, false );
         }
     }
 
@@ -74,6 +88,8 @@ void release( TransactionImpl txn ) {
 
 
     void upgrade( TransactionImpl txn ) throws InterruptedException {
+        final LockEvent event = new LockEvent();
+        event.begin();
         lock.lock();
         try {
             if ( owners.contains( txn ) && isXLocked() ) {
@@ -83,12 +99,17 @@ void upgrade( TransactionImpl txn ) throws InterruptedException {
                 Set<TransactionImpl> ownersWithSelfRemoved = owners.stream().filter( ( ownerTxn ) -> !ownerTxn.equals( txn ) ).collect( Collectors.toSet() );
                 waitForGraph.add( txn, ownersWithSelfRemoved );
                 waitForGraph.detectDeadlock( txn );
+                event.waits++;
                 waiters.await();
             }
             sLockCount = 0;
             xLockCount = 1;
+        } catch ( InterruptedException e ) {
+            event.deadlock = true;
+            throw e;
         } finally {
             lock.unlock();
+            commitEvent( event, txn, LockMode.EXCLUSIVE, true );
         }
     }
 
@@ -116,12 +137,17 @@ Set<TransactionImpl> getOwners() {
     }
 
 
-    private void acquireSLock( TransactionImpl txn ) throws InterruptedException {
+    /**
+     * @return the number of times the transaction had to wait for the lock
+     */
+    private int acquireSLock( TransactionImpl txn ) throws InterruptedException {
+        int waits = 0;
         lock.lock();
         try {
             while ( isXLocked() || lock.hasWaiters( waiters ) ) {
                 waitForGraph.add( txn, owners );
                 waitForGraph.detectDeadlock( txn );
+                waits++;
                 waiters.await();
             }
             sLockCount++;
@@ -129,15 +155,21 @@ private void acquireSLock( TransactionImpl txn ) throws InterruptedException {
         } finally {
             lock.unlock();
         }
+        return waits;
     }
 
 
-    private void acquireXLock( TransactionImpl txn ) throws InterruptedException {
+    /**
+     * @return the number of times the transaction had to wait for the lock
+     */
+    private int acquireXLock( TransactionImpl txn ) throws InterruptedException {
+        int waits = 0;
         lock.lock();
         try {
             while ( isXLocked() || isSLocked() ) {
                 waitForGraph.add( txn, owners );
                 waitForGraph.detectDeadlock( txn );
+                waits++;
                 waiters.await();
             }
             xLockCount = 1;
@@ -145,6 +177,20 @@ private void acquireXLock( TransactionImpl txn ) throws InterruptedException {
         } finally {
             lock.unlock();
         }
+        return waits;
+    }
+
+
+    private void commitEvent( LockEvent event, TransactionImpl txn, LockMode lockMode, boolean upgrade ) {
+        event.end();
+        if ( event.shouldCommit() ) {
+            event.transactionId = txn.getId();
+            event.tableId = entity.getTableId();
+            event.partitionId = entity.getPartitionId();
+            event.mode = lockMode.name();
+            event.upgrade = upgrade;
+            event.commit();
+        }
     }
 
 
@@ -65,7 +65,7 @@ private void handlePrimaryLocks( @NonNull Collection<Entry<EntityIdentifier, Loc
         Entry<EntityIdentifier, LockMode> pair;
         while ( iter.hasNext() ) {
             pair = iter.next();
-            lockTable.putIfAbsent( pair.getKey(), new Lock( waitForGraph ) );
+            lockTable.putIfAbsent( pair.getKey(), new Lock( pair.getKey(), waitForGraph ) );
 
             Lock lock = lockTable.get( pair.getKey() );
 
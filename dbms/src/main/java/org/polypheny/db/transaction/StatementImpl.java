@@ -23,7 +23,9 @@
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import lombok.Getter;
+import lombok.Setter;
 import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.catalog.Catalog.QueryLanguage;
 import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.information.InformationDuration;
 import org.polypheny.db.information.InformationGroup;
@@ -56,6 +58,10 @@ public class StatementImpl implements Statement {
     private InformationPage executionTimePage;
 
     private StatementEvent statementEvent;
+    private Integer maxParallelism;
+    @Getter
+    @Setter
+    private QueryLanguage language;
 
 
     StatementImpl( TransactionImpl transaction ) {
@@ -182,4 +188,22 @@ public void registerFileInputHandle( FileInputHandle fileInputHandle ) {
         fileInputHandles.add( fileInputHandle );
     }
 
+
+    @Override
+    public int getMaxParallelism() {
+        if ( maxParallelism == null ) {
+            return RuntimeConfig.PARALLEL_EXECUTION_MAX_DEGREE.getInteger();
+        }
+        return maxParallelism;
+    }
+
+
+    @Override
+    public void setMaxParallelism( int maxParallelism ) {
+        if ( maxParallelism < 1 ) {
+            throw new IllegalArgumentException( "The degree of parallelism needs to be at least one." );
+        }
+        this.maxParallelism = maxParallelism;
+    }
+
 }
@@ -18,11 +18,13 @@
 
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -37,6 +39,7 @@
 import org.polypheny.db.adapter.java.JavaTypeFactory;
 import org.polypheny.db.algebra.AlgRoot;
 import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.algebra.exceptions.ConstraintViolationException;
 import org.polypheny.db.algebra.logical.common.LogicalConstraintEnforcer.EnforcementInformation;
 import org.polypheny.db.catalog.Catalog;
 import org.polypheny.db.catalog.Catalog.QueryLanguage;
@@ -49,6 +52,9 @@
 import org.polypheny.db.information.InformationManager;
 import org.polypheny.db.monitoring.core.MonitoringServiceProvider;
 import org.polypheny.db.monitoring.events.StatementEvent;
+import org.polypheny.db.monitoring.jfr.AdapterEvent;
+import org.polypheny.db.monitoring.metrics.QueryMetrics;
+import org.polypheny.db.monitoring.metrics.QueryStage;
 import org.polypheny.db.piglet.PigProcessorImpl;
 import org.polypheny.db.prepare.JavaTypeFactoryImpl;
 import org.polypheny.db.prepare.PolyphenyDbCatalogReader;
@@ -61,8 +67,10 @@
 import org.polypheny.db.processing.Processor;
 import org.polypheny.db.processing.QueryProcessor;
 import org.polypheny.db.processing.SqlProcessorImpl;
+import org.polypheny.db.processing.caching.ResultCache;
 import org.polypheny.db.schema.PolySchemaBuilder;
 import org.polypheny.db.schema.PolyphenyDbSchema;
+import org.polypheny.db.transaction.EntityAccessMap.EntityIdentifier;
 import org.polypheny.db.view.MaterializedViewManager;
 
 
@@ -103,6 +111,9 @@ public class TransactionImpl implements Transaction, Comparable<Object> {
 
     private final List<String> changedTables = new ArrayList<>();
 
+    private final Set<EntityIdentifier> changedEntities = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean untrackedChanges = new AtomicBoolean();
+
     @Getter
     private final Set<CatalogTable> catalogTables = new TreeSet<>();
 
@@ -171,15 +182,29 @@ public void commit() throws TransactionException {
         boolean okToCommit = true;
         if ( RuntimeConfig.TWO_PC_MODE.getBoolean() ) {
             for ( Adapter adapter : involvedAdapters ) {
-                okToCommit &= adapter.prepare( xid );
+                final AdapterEvent event = new AdapterEvent();
+                event.begin();
+                final boolean prepared = adapter.prepare( xid );
+                commitEvent( event, adapter, "prepare", prepared );
+                okToCommit &= prepared;
             }
         }
 
         if ( !catalogTables.isEmpty() ) {
+            // Unique indexes reject duplicate keys when applying the pending updates, the corresponding checks are not required anymore
+            final boolean useIndexes = RuntimeConfig.INDEX_CONSTRAINT_ENFORCEMENT.getBoolean() && RuntimeConfig.POLYSTORE_INDEXES_ENABLED.getBoolean();
+            if ( useIndexes ) {
+                try {
+                    IndexManager.getInstance().barrier( xid );
+                } catch ( ConstraintViolationException e ) {
+                    rollback();
+                    throw new TransactionException( e.getMessage() + "\nThere are violated constraints, the transaction was rolled back!" );
+                }
+            }
             Statement statement = createStatement();
             QueryProcessor processor = statement.getQueryProcessor();
             List<EnforcementInformation> infos = ConstraintEnforceAttacher
-                    .getConstraintAlg( catalogTables, statement, EnforcementTime.ON_COMMIT );
+                    .getConstraintAlg( catalogTables, statement, EnforcementTime.ON_COMMIT, useIndexes );
             List<PolyImplementation> results = infos
                     .stream()
                     .map( s -> processor.prepareQuery( AlgRoot.of( s.getControl(), Kind.SELECT ), s.getControl().getCluster().getTypeFactory().builder().build(), false, true, false ) ).collect( Collectors.toList() );
@@ -193,8 +218,14 @@ public void commit() throws TransactionException {
 
         if ( okToCommit ) {
             // Commit changes
+            final QueryLanguage language = getStatementLanguage();
             for ( Adapter adapter : involvedAdapters ) {
+                final AdapterEvent event = new AdapterEvent();
+                event.begin();
+                final long start = System.nanoTime();
                 adapter.commit( xid );
+                QueryMetrics.INSTANCE.record( QueryStage.COMMIT, language, adapter.getUniqueName(), System.nanoTime() - start );
+                commitEvent( event, adapter, "commit", true );
             }
 
             this.statements.forEach( statement -> {
@@ -206,6 +237,13 @@ public void commit() throws TransactionException {
             } );
 
             IndexManager.getInstance().commit( this.xid );
+
+            // Invalidate cached results before the locks are released
+            if ( untrackedChanges.get() ) {
+                ResultCache.INSTANCE.invalidateAll();
+            } else if ( !changedEntities.isEmpty() ) {
+                ResultCache.INSTANCE.invalidate( changedEntities );
+            }
         } else {
             log.error( "Unable to prepare all involved entities for commit. Rollback changes!" );
             rollback();
@@ -233,7 +271,10 @@ public void rollback() throws TransactionException {
         try {
             //  Rollback changes to the adapters
             for ( Adapter adapter : involvedAdapters ) {
+                final AdapterEvent event = new AdapterEvent();
+                event.begin();
                 adapter.rollback( xid );
+                commitEvent( event, adapter, "rollback", true );
             }
             IndexManager.getInstance().rollback( this.xid );
             Catalog.getInstance().rollback();
@@ -255,6 +296,31 @@ public void rollback() throws TransactionException {
     }
 
 
+    private void commitEvent( AdapterEvent event, Adapter adapter, String operation, boolean success ) {
+        event.end();
+        if ( event.shouldCommit() ) {
+            event.transactionId = id;
+            event.adapter = adapter.getUniqueName();
+            event.operation = operation;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+
+    /**
+     * @return the query language of the statements of this transaction or {@code null} if the statements were
+     * issued in different or no query languages
+     */
+    private QueryLanguage getStatementLanguage() {
+        final Set<QueryLanguage> languages = statements.stream()
+                .map( Statement::getLanguage )
+                .filter( Objects::nonNull )
+                .collect( Collectors.toSet() );
+        return languages.size() == 1 ? languages.iterator().next() : null;
+    }
+
+
     @Override
     public boolean isActive() {
         return transactionManager.isActive( xid );
@@ -311,6 +377,38 @@ public void addChangedTable( String qualifiedTableName ) {
     }
 
 
+    /**
+     * Registers entities (including their partitions) which are modified by this transaction.
+     */
+    public void addChangedEntities( Collection<EntityIdentifier> entities ) {
+        changedEntities.addAll( entities );
+    }
+
+
+    /**
+     * Registers that this transaction modifies data without knowing the affected entities.
+     */
+    public void addUntrackedChanges() {
+        untrackedChanges.set( true );
+    }
+
+
+    /**
+     * @return true if this transaction has modified any of the given entities
+     */
+    public boolean hasChanged( Collection<EntityIdentifier> entities ) {
+        if ( untrackedChanges.get() ) {
+            return true;
+        }
+        for ( EntityIdentifier entity : entities ) {
+            if ( changedEntities.contains( entity ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
     @Override
     public int compareTo( @NonNull Object o ) {
         Transaction that = (Transaction) o;
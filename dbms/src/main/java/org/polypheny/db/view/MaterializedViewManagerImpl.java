@@ -106,14 +106,9 @@ public MaterializedViewManagerImpl( TransactionManager transactionManager ) {
      *
      * @return updated materializedInfo
      */
-    public synchronized Map<Long, MaterializedCriteria> updateMaterializedViewInfo() {
-        List<Long> toRemove = new ArrayList<>();
-        for ( Long id : materializedInfo.keySet() ) {
-            if ( Catalog.getInstance().getTable( id ) == null ) {
-                toRemove.add( id );
-            }
-        }
-        toRemove.forEach( this::deleteMaterializedViewFromInfo );
+    public Map<Long, MaterializedCriteria> updateMaterializedViewInfo() {
+        // The materializedInfo is a concurrent map, hence this does not need to lock out the other methods
+        materializedInfo.keySet().removeIf( id -> Catalog.getInstance().getTable( id ) == null );
         return materializedInfo;
     }
 
@@ -124,7 +119,7 @@ public synchronized Map<Long, MaterializedCriteria> updateMaterializedViewInfo()
      * @param materializedId id from materialized view
      */
     @Override
-    public synchronized void deleteMaterializedViewFromInfo( Long materializedId ) {
+    public void deleteMaterializedViewFromInfo( Long materializedId ) {
         materializedInfo.remove( materializedId );
     }
 
@@ -135,9 +130,10 @@ public synchronized void deleteMaterializedViewFromInfo( Long materializedId ) {
      * @param materializedId id from materialized view
      */
     @Override
-    public synchronized void updateMaterializedTime( Long materializedId ) {
-        if ( materializedInfo.containsKey( materializedId ) ) {
-            materializedInfo.get( materializedId ).setLastUpdate( new Timestamp( System.currentTimeMillis() ) );
+    public void updateMaterializedTime( Long materializedId ) {
+        MaterializedCriteria criteria = materializedInfo.get( materializedId );
+        if ( criteria != null ) {
+            criteria.setLastUpdate( new Timestamp( System.currentTimeMillis() ) );
             Catalog.getInstance().updateMaterializedViewRefreshTime( materializedId );
         }
     }
@@ -150,7 +146,7 @@ public synchronized void updateMaterializedTime( Long materializedId ) {
      * @param materializedId id from materialized view
      * @param updates number of updates
      */
-    public synchronized void updateMaterializedUpdate( Long materializedId, int updates ) {
+    public void updateMaterializedUpdate( Long materializedId, int updates ) {
         materializedInfo.get( materializedId ).setTimesUpdated( updates );
     }
 
@@ -162,7 +158,7 @@ public synchronized void updateMaterializedUpdate( Long materializedId, int upda
      * @param matViewCriteria information about the materialized view
      */
     @Override
-    public synchronized void addMaterializedInfo( Long materializedId, MaterializedCriteria matViewCriteria ) {
+    public void addMaterializedInfo( Long materializedId, MaterializedCriteria matViewCriteria ) {
         materializedInfo.put( materializedId, matViewCriteria );
     }
 
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter;
+
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.gson.Gson;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.util.Benchmark;
+
+
+/**
+ * Ingestion benchmark for the Cottontail-DB adapter. Requires a Cottontail-DB instance listening on localhost:1865.
+ */
+@SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
+public class CottontailIngestionTest {
+
+    private static final int ROWS = 100_000;
+    private static final int BATCH_SIZE = 10_000;
+
+
+    /**
+     * Inserts {@value #ROWS} rows in batches of {@value #BATCH_SIZE} rows using a prepared statement.
+     * Only executed if debug logging is enabled.
+     */
+    @Test
+    public void testPerformance() throws SQLException {
+        if ( !Benchmark.enabled() ) {
+            return;
+        }
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+
+        try ( JdbcConnection jdbcConnection = new JdbcConnection( false ) ) {
+            Connection connection = jdbcConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                Map<String, String> settings = new HashMap<>();
+                settings.put( "mode", "remote" );
+                settings.put( "host", "localhost" );
+                settings.put( "port", "1865" );
+                settings.put( "database", "cottontail" );
+                settings.put( "engine", "MAPDB" );
+                statement.executeUpdate( "ALTER ADAPTERS ADD \"cottontailbench\" USING 'org.polypheny.db.adapter.cottontail.CottontailStore' WITH '" + new Gson().toJson( settings ) + "'" );
+                try {
+                    statement.executeUpdate( "CREATE TABLE ingestion (id INTEGER NOT NULL, label VARCHAR(100), score DOUBLE, PRIMARY KEY (id)) ON STORE \"cottontailbench\"" );
+                    try {
+                        new Benchmark( "Insert " + ROWS + " rows into Cottontail-DB", statistician -> {
+                            try {
+                                statement.executeUpdate( "TRUNCATE TABLE ingestion" );
+                                connection.commit();
+                                long start = System.nanoTime();
+                                insertRows( connection );
+                                statistician.record( start );
+                            } catch ( SQLException e ) {
+                                throw new RuntimeException( e );
+                            }
+                            return null;
+                        }, 5 ).run();
+
+                        ResultSet rs = statement.executeQuery( "SELECT COUNT(*) FROM ingestion" );
+                        rs.next();
+                        assertEquals( ROWS, rs.getLong( 1 ) );
+                        rs.close();
+                    } finally {
+                        statement.executeUpdate( "DROP TABLE ingestion" );
+                    }
+                } finally {
+                    statement.executeUpdate( "ALTER ADAPTERS DROP \"cottontailbench\"" );
+                    connection.commit();
+                }
+            }
+        }
+    }
+
+
+    private static void insertRows( Connection connection ) throws SQLException {
+        try ( PreparedStatement insert = connection.prepareStatement( "INSERT INTO ingestion VALUES (?, ?, ?)" ) ) {
+            for ( int i = 0; i < ROWS; i++ ) {
+                insert.setInt( 1, i );
+                insert.setString( 2, "Label of row number " + i );
+                insert.setDouble( 3, i / 3.0 );
+                insert.addBatch();
+                if ( (i + 1) % BATCH_SIZE == 0 ) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+    }
+
+}
@@ -23,6 +23,7 @@
 import java.sql.Statement;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.calcite.avatica.AvaticaClientRuntimeException;
+import org.apache.calcite.avatica.AvaticaSqlException;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -88,6 +89,10 @@ public static Object[] data() {
     };
 
 
+    // Inserted keys are looked up in the indexes before the query is executed and checked on commit otherwise
+    private static final String[] CONSTRAINT_STRATEGIES = { "BEFORE_QUERY_EXECUTION", "AFTER_QUERY_EXECUTION" };
+
+
     private final boolean createIndexes;
 
 
@@ -598,4 +603,55 @@ public void testDeleteConflict() throws SQLException {
         }
     }
 
+
+    @Test
+    public void testInsertReferencingInsertSelect() throws SQLException {
+        for ( String strategy : CONSTRAINT_STRATEGIES ) {
+            try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+                Connection connection = polyphenyDbConnection.getConnection();
+                try ( Statement statement = connection.createStatement() ) {
+                    statement.executeUpdate( "ALTER CONFIG 'runtime/constraintEnforcementStrategy' SET '" + strategy + "'" );
+                    // Create schema
+                    statement.executeUpdate( CREATE_TABLE_CONSTRAINT_TEST );
+                    statement.executeUpdate( CREATE_TABLE_CONSTRAINT_TEST2 );
+                    statement.executeUpdate( ALTER_TABLE_ADD_FK );
+                    if ( createIndexes ) {
+                        // Add indexes
+                        for ( String s : ALTER_TABLE_ADD_INDEX_STATEMENTS ) {
+                            statement.executeUpdate( s );
+                        }
+                    }
+
+                    try {
+                        statement.executeUpdate( "INSERT INTO constraint_test VALUES (1, 1, 1, 1)" );
+                        connection.commit(); // todo remove when auto-commit works
+                        // The keys of these rows are read from the table instead of being taken from literals
+                        statement.executeUpdate( "INSERT INTO constraint_test SELECT ctid + 1 AS ctid, a + 1 AS a, b, c FROM constraint_test" );
+                        connection.commit(); // todo remove when auto-commit works
+                        statement.executeUpdate( "INSERT INTO constraint_test2 VALUES (3, 2)" );
+                        connection.commit(); // todo remove when auto-commit works
+                        try {
+                            statement.executeUpdate( "INSERT INTO constraint_test2 VALUES (4, 3)" );
+                            connection.commit(); // todo remove when auto-commit works
+                            Assert.fail( "Expected ConstraintViolationException was not thrown" );
+                        } catch ( AvaticaSqlException | AvaticaClientRuntimeException e ) {
+                            if ( !e.getMessage().contains( "violates foreign key constraint" ) ) {
+                                throw new RuntimeException( "Unexpected exception", e );
+                            }
+                            connection.rollback();
+                        }
+                        TestHelper.checkResultSet(
+                                statement.executeQuery( "SELECT * FROM constraint_test2 ORDER BY ct2id" ),
+                                ImmutableList.of( new Object[]{ 3, 2 } )
+                        );
+                    } finally {
+                        statement.executeUpdate( "DROP TABLE constraint_test2" );
+                        statement.executeUpdate( "DROP TABLE constraint_test" );
+                        statement.executeUpdate( "ALTER CONFIG 'runtime/constraintEnforcementStrategy' SET 'AFTER_QUERY_EXECUTION'" );
+                    }
+                }
+            }
+        }
+    }
+
 }
@@ -23,6 +23,7 @@
 import java.sql.SQLException;
 import java.sql.Statement;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.calcite.avatica.AvaticaClientRuntimeException;
 import org.apache.calcite.avatica.AvaticaSqlException;
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -70,6 +71,10 @@ public static Object[] data() {
     };
 
 
+    // Inserted keys are looked up in the indexes before the query is executed and added to them on commit
+    private static final String[] CONSTRAINT_STRATEGIES = { "BEFORE_QUERY_EXECUTION", "AFTER_QUERY_EXECUTION" };
+
+
     private final boolean createIndexes;
 
 
@@ -627,4 +632,97 @@ public void updateConflictTest() throws SQLException {
         }
     }
 
+
+    @Test
+    public void insertAfterInsertSelectConflictTest() throws SQLException {
+        for ( String strategy : CONSTRAINT_STRATEGIES ) {
+            try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+                Connection connection = polyphenyDbConnection.getConnection();
+                try ( Statement statement = connection.createStatement() ) {
+                    statement.executeUpdate( "ALTER CONFIG 'runtime/constraintEnforcementStrategy' SET '" + strategy + "'" );
+                    // Create schema
+                    statement.executeUpdate( CREATE_TABLE_CONSTRAINT_STATEMENTS );
+                    if ( createIndexes ) {
+                        // Add indexes
+                        for ( String s : ALTER_TABLE_ADD_INDEX_STATEMENTS ) {
+                            statement.executeUpdate( s );
+                        }
+                    }
+
+                    try {
+                        statement.executeUpdate( "INSERT INTO constraint_test VALUES (1, 1, 1, 1)" );
+                        connection.commit(); // todo remove when auto-commit works
+                        // The keys of these rows are read from the table instead of being taken from literals
+                        statement.executeUpdate( "INSERT INTO constraint_test SELECT ctid + 1 AS ctid, a + 1 AS a, b, c FROM constraint_test" );
+                        connection.commit(); // todo remove when auto-commit works
+                        assertUniqueConstraintViolation( connection, statement, "INSERT INTO constraint_test VALUES (2, 5, 5, 5)" );
+                        assertUniqueConstraintViolation( connection, statement, "INSERT INTO constraint_test VALUES (3, 2, 1, 5)" );
+                        TestHelper.checkResultSet(
+                                statement.executeQuery( "SELECT * FROM constraint_test ORDER BY ctid" ),
+                                ImmutableList.of(
+                                        new Object[]{ 1, 1, 1, 1 },
+                                        new Object[]{ 2, 2, 1, 1 }
+                                )
+                        );
+                    } finally {
+                        statement.executeUpdate( "DROP TABLE constraint_test" );
+                        statement.executeUpdate( "ALTER CONFIG 'runtime/constraintEnforcementStrategy' SET 'AFTER_QUERY_EXECUTION'" );
+                    }
+                }
+            }
+        }
+    }
+
+
+    @Test
+    public void insertAfterIndexRebuildConflictTest() throws SQLException {
+        for ( String strategy : CONSTRAINT_STRATEGIES ) {
+            try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+                Connection connection = polyphenyDbConnection.getConnection();
+                try ( Statement statement = connection.createStatement() ) {
+                    statement.executeUpdate( "ALTER CONFIG 'runtime/constraintEnforcementStrategy' SET '" + strategy + "'" );
+                    // Create schema
+                    statement.executeUpdate( CREATE_TABLE_CONSTRAINT_STATEMENTS );
+
+                    try {
+                        statement.executeUpdate( "INSERT INTO constraint_test VALUES (1, 1, 1, 1), (2, 2, 2, 2)" );
+                        connection.commit(); // todo remove when auto-commit works
+                        if ( createIndexes ) {
+                            // The indexes are built from the rows already stored in the table
+                            for ( String s : ALTER_TABLE_ADD_INDEX_STATEMENTS ) {
+                                statement.executeUpdate( s );
+                            }
+                        }
+                        assertUniqueConstraintViolation( connection, statement, "INSERT INTO constraint_test VALUES (2, 5, 5, 5)" );
+                        assertUniqueConstraintViolation( connection, statement, "INSERT INTO constraint_test VALUES (3, 1, 1, 5)" );
+                        TestHelper.checkResultSet(
+                                statement.executeQuery( "SELECT * FROM constraint_test ORDER BY ctid" ),
+                                ImmutableList.of(
+                                        new Object[]{ 1, 1, 1, 1 },
+                                        new Object[]{ 2, 2, 2, 2 }
+                                )
+                        );
+                    } finally {
+                        statement.executeUpdate( "DROP TABLE constraint_test" );
+                        statement.executeUpdate( "ALTER CONFIG 'runtime/constraintEnforcementStrategy' SET 'AFTER_QUERY_EXECUTION'" );
+                    }
+                }
+            }
+        }
+    }
+
+
+    private static void assertUniqueConstraintViolation( Connection connection, Statement statement, String insert ) throws SQLException {
+        try {
+            statement.executeUpdate( insert );
+            connection.commit(); // todo remove when auto-commit works
+            Assert.fail( "Expected ConstraintViolationException was not thrown" );
+        } catch ( AvaticaSqlException | AvaticaClientRuntimeException e ) {
+            if ( !e.getMessage().contains( "violates unique constraint" ) ) {
+                throw new RuntimeException( "Unexpected exception", e );
+            }
+            connection.rollback();
+        }
+    }
+
 }
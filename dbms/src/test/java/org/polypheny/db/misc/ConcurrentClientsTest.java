@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.misc;
+
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.gson.JsonObject;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.util.Benchmark;
+
+
+/**
+ * Load test for the request handling of the query interfaces. To compare platform and virtual threads, run it once with
+ * the default settings and once with the setting {@code virtualThreads} of the HTTP interface enabled.
+ */
+public class ConcurrentClientsTest {
+
+    private static final int CLIENTS = 10_000;
+
+
+    @BeforeClass
+    public static void start() {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+    }
+
+
+    /**
+     * Issues a query from 10k concurrent clients against the HTTP interface.
+     * Only executed if debug logging is enabled.
+     */
+    @Test
+    public void testPerformance() {
+        if ( !Benchmark.enabled() ) {
+            return;
+        }
+        final HttpClient client = HttpClient.newBuilder()
+                .connectTimeout( Duration.ofMinutes( 1 ) )
+                .build();
+        final HttpRequest request = buildRequest( "SELECT * FROM (VALUES (1, 'a'), (2, 'b')) AS t(x, y)" );
+        new Benchmark( CLIENTS + " concurrent clients", statistician -> {
+            long start = System.nanoTime();
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>( CLIENTS );
+            for ( int i = 0; i < CLIENTS; i++ ) {
+                responses.add( client.sendAsync( request, BodyHandlers.ofString() ) );
+            }
+            long failed = responses.stream()
+                    .map( CompletableFuture::join )
+                    .filter( response -> response.statusCode() != 200 )
+                    .count();
+            statistician.record( start );
+            assertEquals( "Failed requests", 0, failed );
+            return null;
+        }, 5 ).run();
+    }
+
+
+    private static HttpRequest buildRequest( String query ) {
+        JsonObject data = new JsonObject();
+        data.addProperty( "query", query );
+        data.addProperty( "database", "APP" );
+        return HttpRequest.newBuilder( URI.create( "http://127.0.0.1:13137/sql" ) )
+                .header( "Content-Type", "application/json" )
+                .header( "Authorization", "Basic " + Base64.getEncoder().encodeToString( "pa:".getBytes( StandardCharsets.UTF_8 ) ) )
+                .timeout( Duration.ofMinutes( 5 ) )
+                .POST( BodyPublishers.ofString( data.toString() ) )
+                .build();
+    }
+
+}
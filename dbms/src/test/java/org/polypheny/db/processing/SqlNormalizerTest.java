@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import org.junit.Test;
+import org.polypheny.db.processing.SqlNormalizer.NormalizedSql;
+import org.polypheny.db.type.PolyType;
+
+
+public class SqlNormalizerTest {
+
+    @Test
+    public void liftLiterals() {
+        NormalizedSql normalized = SqlNormalizer.normalize( "SELECT a, 1.50 FROM t WHERE b = 5 AND c = 'x''y' AND d > 12345678901 AND e < 2e3", false );
+        assertEquals( "SELECT a, CAST(? AS DECIMAL(3, 2)) FROM t WHERE b = CAST(? AS INTEGER) AND c = CAST(? AS CHAR(3)) AND d > CAST(? AS BIGINT) AND e < CAST(? AS DOUBLE)", normalized.sql );
+        assertEquals( Arrays.asList( new BigDecimal( "1.50" ), 5, "x'y", 12345678901L, 2e3 ), normalized.values );
+        assertEquals( Arrays.asList( PolyType.DECIMAL, PolyType.INTEGER, PolyType.CHAR, PolyType.BIGINT, PolyType.DOUBLE ), normalized.types );
+        assertEquals( 0, normalized.getUserParameterCount() );
+    }
+
+
+    @Test
+    public void liftTrailingPointAsDecimal() {
+        NormalizedSql normalized = SqlNormalizer.normalize( "SELECT 1./3 FROM t", false );
+        assertEquals( "SELECT CAST(? AS DECIMAL(1, 0))/CAST(? AS INTEGER) FROM t", normalized.sql );
+        assertEquals( Arrays.asList( new BigDecimal( "1" ), 3 ), normalized.values );
+        assertEquals( Arrays.asList( PolyType.DECIMAL, PolyType.INTEGER ), normalized.types );
+    }
+
+
+    @Test
+    public void sameShapeSameKey() {
+        NormalizedSql first = SqlNormalizer.normalize( "SELECT * FROM t WHERE a = 1 AND b = 'abc'", false );
+        NormalizedSql second = SqlNormalizer.normalize( "SELECT * FROM t WHERE a = 42 AND b = 'xyz'", false );
+        NormalizedSql third = SqlNormalizer.normalize( "SELECT * FROM t WHERE a = 42 AND b = 'abcd'", false );
+        assertEquals( first.key, second.key );
+        assertNotEquals( first.key, third.key );
+    }
+
+
+    @Test
+    public void keepUnliftableLiterals() {
+        String sql = "SELECT CAST(a AS DECIMAL(10, 2)), SUM(b) OVER (ORDER BY c ROWS 2 PRECEDING) FROM t "
+                + "WHERE d = DATE '2020-01-01' AND e LIKE N'x%' GROUP BY 1, 2 ORDER BY 1 LIMIT 10 OFFSET 5";
+        assertEquals( sql, SqlNormalizer.normalize( sql, false ).sql );
+    }
+
+
+    @Test
+    public void userParameters() {
+        NormalizedSql normalized = SqlNormalizer.normalize( "SELECT * FROM t WHERE a = ? AND b = 3 AND c = ?", false );
+        assertEquals( Arrays.asList( false, true, false ), normalized.lifted );
+        assertEquals( 2, normalized.getUserParameterCount() );
+    }
+
+
+    @Test
+    public void dml() {
+        String sql = "INSERT INTO t VALUES (1, 'a')";
+        assertEquals( sql, SqlNormalizer.normalize( sql, false ).sql );
+        assertEquals( "INSERT INTO t VALUES (CAST(? AS INTEGER), CAST(? AS CHAR(1)))", SqlNormalizer.normalize( sql, true ).sql );
+    }
+
+
+    @Test
+    public void unsupported() {
+        assertNull( SqlNormalizer.normalize( "CREATE TABLE t (a INTEGER)", false ) );
+        assertNull( SqlNormalizer.normalize( "SELECT 1; SELECT 2", false ) );
+        assertNull( SqlNormalizer.normalize( "SELECT 'a' 'b' FROM t", false ) );
+        assertNull( SqlNormalizer.normalize( "SELECT 'a FROM t", false ) );
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing;
+
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.adapter.enumerable.EnumerableInterpretable;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.interpreter.JaninoRexCompiler;
+import org.polypheny.db.processing.caching.ImplementationCache;
+import org.polypheny.db.processing.caching.QueryPlanCache;
+import org.polypheny.db.util.Benchmark;
+
+
+@Slf4j
+public class TieredExecutionTest {
+
+    @BeforeClass
+    public static void start() {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+    }
+
+
+    @Test
+    public void interpretAndCompile() throws SQLException, InterruptedException {
+        final boolean tieredExecution = RuntimeConfig.TIERED_EXECUTION.getBoolean();
+        final int threshold = RuntimeConfig.TIERED_EXECUTION_THRESHOLD.getInteger();
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            RuntimeConfig.TIERED_EXECUTION.setBoolean( true );
+            RuntimeConfig.TIERED_EXECUTION_THRESHOLD.setInteger( 3 );
+            QueryPlanCache.INSTANCE.reset();
+            try ( Statement statement = connection.createStatement() ) {
+                for ( int i = 0; i < 5; i++ ) {
+                    executeQueries( statement );
+                }
+
+                // Both plans have been executed often enough to be compiled in the background
+                final long deadline = System.currentTimeMillis() + 30_000;
+                while ( ImplementationCache.INSTANCE.getCompiledCount() < 2 && System.currentTimeMillis() < deadline ) {
+                    Thread.sleep( 10 );
+                }
+                assertEquals( 2, ImplementationCache.INSTANCE.getCompiledCount() );
+
+                // The compiled implementations produce the same results
+                executeQueries( statement );
+            }
+        } finally {
+            RuntimeConfig.TIERED_EXECUTION.setBoolean( tieredExecution );
+            RuntimeConfig.TIERED_EXECUTION_THRESHOLD.setInteger( threshold );
+        }
+    }
+
+
+    /**
+     * Plans reading from a store contain the converter of the adapter, which can not be interpreted.
+     */
+    @Test
+    public void compileStoreQueries() throws SQLException {
+        final boolean tieredExecution = RuntimeConfig.TIERED_EXECUTION.getBoolean();
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "CREATE TABLE tieredexecutiontest( id INTEGER NOT NULL, name VARCHAR(20), PRIMARY KEY (id) )" );
+                try {
+                    statement.executeUpdate( "INSERT INTO tieredexecutiontest VALUES (1, 'a'), (2, 'b')" );
+                    RuntimeConfig.TIERED_EXECUTION.setBoolean( true );
+                    ImplementationCache.INSTANCE.reset();
+                    QueryPlanCache.INSTANCE.reset();
+                    for ( int i = 0; i < 3; i++ ) {
+                        TestHelper.checkResultSet(
+                                statement.executeQuery( "SELECT name FROM tieredexecutiontest WHERE id > 1" ),
+                                ImmutableList.of( new Object[]{ "b" } ) );
+                    }
+                    assertEquals( 0, ImplementationCache.INSTANCE.getInterpretedCount() );
+                } finally {
+                    RuntimeConfig.TIERED_EXECUTION.setBoolean( tieredExecution );
+                    statement.executeUpdate( "DROP TABLE tieredexecutiontest" );
+                }
+            }
+        }
+    }
+
+
+    private static void executeQueries( Statement statement ) throws SQLException {
+        TestHelper.checkResultSet(
+                statement.executeQuery( "SELECT x, y FROM (VALUES (1, 'a'), (2, 'b'), (3, 'c')) AS t(x, y) WHERE x > 1 ORDER BY x LIMIT 1" ),
+                ImmutableList.of( new Object[]{ 2, "b" } ) );
+        TestHelper.checkResultSet(
+                statement.executeQuery( "SELECT COUNT(*) FROM (VALUES (1), (2), (3)) AS t(x)" ),
+                ImmutableList.of( new Object[]{ 3L } ) );
+    }
+
+
+    /**
+     * Compares the latency of queries which are executed only once with and without tiered execution.
+     * Only executed if debug logging is enabled.
+     */
+    @Test
+    public void testOneShotLatency() throws SQLException {
+        if ( !Benchmark.enabled() ) {
+            return;
+        }
+        final boolean tieredExecution = RuntimeConfig.TIERED_EXECUTION.getBoolean();
+        try {
+            RuntimeConfig.TIERED_EXECUTION.setBoolean( false );
+            logPercentiles( "Compiled", measureOneShotQueries() );
+            RuntimeConfig.TIERED_EXECUTION.setBoolean( true );
+            logPercentiles( "Tiered", measureOneShotQueries() );
+        } finally {
+            RuntimeConfig.TIERED_EXECUTION.setBoolean( tieredExecution );
+        }
+    }
+
+
+    /**
+     * Executes queries which all have a different shape, hence none of them can be answered from a cache.
+     */
+    private List<Long> measureOneShotQueries() throws SQLException {
+        ImplementationCache.INSTANCE.reset();
+        QueryPlanCache.INSTANCE.reset();
+        EnumerableInterpretable.resetClassCache();
+        JaninoRexCompiler.resetClassCache();
+        final List<Long> durations = new ArrayList<>();
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                for ( int i = 1; i <= 200; i++ ) {
+                    StringBuilder sql = new StringBuilder( "SELECT x" );
+                    for ( int j = 0; j < i; j++ ) {
+                        sql.append( ", x + " ).append( j );
+                    }
+                    sql.append( " FROM (VALUES (1), (2), (3)) AS t(x)" );
+                    long start = System.nanoTime();
+                    try ( ResultSet resultSet = statement.executeQuery( sql.toString() ) ) {
+                        int rows = 0;
+                        while ( resultSet.next() ) {
+                            rows++;
+                        }
+                        assertEquals( 3, rows );
+                    }
+                    durations.add( System.nanoTime() - start );
+                }
+            }
+        }
+        return durations;
+    }
+
+
+    private static void logPercentiles( String description, List<Long> durations ) {
+        Collections.sort( durations );
+        log.debug(
+                "{} one-shot queries: p50 {} micros; p99 {} micros",
+                description,
+                durations.get( durations.size() / 2 ) / 1000,
+                durations.get( (int) Math.ceil( durations.size() * 0.99 ) - 1 ) / 1000 );
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.routing;
+
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.polypheny.db.monitoring.core.LatencyHistogram;
+import org.polypheny.db.routing.strategies.LatencyBandit;
+
+
+/**
+ * Simulates the plan selection for three synthetic stores with log-normally distributed execution times. Halfway
+ * through the simulation, the fastest store degrades and becomes the slowest.
+ */
+@Slf4j
+public class LatencyBanditTest {
+
+    private static final int ROUNDS = 2000;
+    private static final int WINDOW = 50;
+
+
+    @Test
+    public void thompsonSamplingConverges() {
+        simulate( RouterPlanSelectionStrategy.THOMPSON_SAMPLING );
+    }
+
+
+    @Test
+    public void ucbConverges() {
+        simulate( RouterPlanSelectionStrategy.UCB );
+    }
+
+
+    @Test
+    public void tailLatency() {
+        // Store 0 has the lower mean but a heavy tail
+        Random random = new Random( 42 );
+        List<LatencyHistogram> latencies = List.of( new LatencyHistogram(), new LatencyHistogram() );
+        for ( int i = 0; i < 100; i++ ) {
+            latencies.get( 0 ).record( i % 10 == 0 ? 30_000_000L : 1_000_000L );
+            latencies.get( 1 ).record( 5_000_000L );
+        }
+        List<Double> mean = LatencyBandit.scores( RouterPlanSelectionStrategy.UCB, latencies, PostCostMetric.MEAN, random );
+        List<Double> p95 = LatencyBandit.scores( RouterPlanSelectionStrategy.UCB, latencies, PostCostMetric.P95, random );
+        assertTrue( mean.get( 0 ) < mean.get( 1 ) );
+        assertTrue( p95.get( 0 ) > p95.get( 1 ) );
+    }
+
+
+    private void simulate( RouterPlanSelectionStrategy strategy ) {
+        final Random random = new Random( 7 );
+        final double[] medians = { 2e6, 5e6, 10e6 };
+        final List<LatencyHistogram> latencies = new ArrayList<>();
+        for ( int i = 0; i < medians.length; i++ ) {
+            latencies.add( new LatencyHistogram() );
+        }
+
+        int converged = -1;
+        int reconverged = -1;
+        int streak = 0;
+        int[] selectionsBefore = new int[medians.length];
+        int[] selectionsAfter = new int[medians.length];
+        for ( int round = 0; round < ROUNDS; round++ ) {
+            if ( round == ROUNDS / 2 ) {
+                medians[0] = 20e6;
+            }
+            List<Double> scores = LatencyBandit.scores( strategy, latencies, PostCostMetric.MEAN, random );
+            int selected = 0;
+            for ( int i = 1; i < scores.size(); i++ ) {
+                if ( scores.get( i ) < scores.get( selected ) ) {
+                    selected = i;
+                }
+            }
+            latencies.get( selected ).record( (long) (medians[selected] * Math.exp( 0.3 * random.nextGaussian() )) );
+
+            int optimal = round < ROUNDS / 2 ? 0 : 1;
+            streak = selected == optimal ? streak + 1 : 0;
+            if ( round < ROUNDS / 2 ) {
+                if ( converged < 0 && streak >= WINDOW ) {
+                    converged = round - WINDOW + 1;
+                }
+                if ( round >= ROUNDS / 4 ) {
+                    selectionsBefore[selected]++;
+                }
+            } else {
+                if ( reconverged < 0 && streak >= WINDOW ) {
+                    reconverged = round - ROUNDS / 2 - WINDOW + 1;
+                }
+                if ( round >= 3 * ROUNDS / 4 ) {
+                    selectionsAfter[selected]++;
+                }
+            }
+        }
+        log.info( "{}: converged after {} rounds, adapted to the degraded store after {} rounds", strategy, converged, reconverged );
+
+        assertTrue( converged >= 0 && converged < 200 );
+        assertTrue( reconverged >= 0 && reconverged < 400 );
+        assertTrue( selectionsBefore[0] > 0.9 * ROUNDS / 4 );
+        assertTrue( selectionsAfter[1] > 0.9 * ROUNDS / 4 );
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.ethereum;
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * On-disk cache for the mapped rows of blocks. Only blocks which are considered final are stored, since they never
+ * change. There is one file per block and mapper, grouped into folders of {@value #BUCKET_SIZE} blocks.
+ */
+@Slf4j
+class BlockCache {
+
+    /**
+     * Number of blocks after which a block is considered final and therefore immutable.
+     */
+    static final int FINALITY_DEPTH = 128;
+
+    private static final int BUCKET_SIZE = 10_000;
+
+    private final File root;
+
+
+    BlockCache( File root ) {
+        this.root = root;
+    }
+
+
+    /**
+     * @return The cached rows of the block or null if the block is not cached
+     */
+    List<String[]> get( EthereumMapper mapper, BigInteger number ) {
+        File file = getFile( mapper, number );
+        if ( !file.exists() ) {
+            return null;
+        }
+        try ( DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( file ) ) ) ) {
+            int rowCount = in.readInt();
+            List<String[]> rows = new ArrayList<>( rowCount );
+            for ( int i = 0; i < rowCount; i++ ) {
+                String[] row = new String[in.readInt()];
+                for ( int j = 0; j < row.length; j++ ) {
+                    int length = in.readInt();
+                    if ( length >= 0 ) {
+                        byte[] bytes = new byte[length];
+                        in.readFully( bytes );
+                        row[j] = new String( bytes, StandardCharsets.UTF_8 );
+                    }
+                }
+                rows.add( row );
+            }
+            return rows;
+        } catch ( IOException e ) {
+            log.warn( "Unable to read cached block {}, fetching it again", number, e );
+            return null;
+        }
+    }
+
+
+    void put( EthereumMapper mapper, BigInteger number, List<String[]> rows ) {
+        File file = getFile( mapper, number );
+        File folder = file.getParentFile();
+        if ( !folder.exists() && !folder.mkdirs() && !folder.exists() ) {
+            log.warn( "Unable to create the folder {} for the block cache", folder.getAbsolutePath() );
+            return;
+        }
+        // Write into a temporary file first, concurrent readers must never see a partially written block
+        File temp = new File( folder, number + "." + UUID.randomUUID() + ".tmp" );
+        try {
+            try ( DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( temp ) ) ) ) {
+                out.writeInt( rows.size() );
+                for ( String[] row : rows ) {
+                    out.writeInt( row.length );
+                    for ( String value : row ) {
+                        if ( value == null ) {
+                            out.writeInt( -1 );
+                        } else {
+                            byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+                            out.writeInt( bytes.length );
+                            out.write( bytes );
+                        }
+                    }
+                }
+            }
+            Files.move( temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        } catch ( IOException e ) {
+            log.warn( "Unable to cache block {}", number, e );
+            if ( temp.exists() && !temp.delete() ) {
+                temp.deleteOnExit();
+            }
+        }
+    }
+
+
+    private File getFile( EthereumMapper mapper, BigInteger number ) {
+        String bucket = number.divide( BigInteger.valueOf( BUCKET_SIZE ) ).toString();
+        return new File( root, mapper.name().toLowerCase() + File.separator + bucket + File.separator + number );
+    }
+
+}
@@ -20,12 +20,32 @@
 import java.io.Closeable;
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Predicate;
+import org.polypheny.db.adapter.ethereum.EthereumPredicateFactory.BlockRange;
 import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
 import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
 import org.web3j.protocol.core.methods.response.EthBlock;
 import org.web3j.protocol.http.HttpService;
 
+
+/**
+ * Reads blocks backwards, starting at the latest block or the upper bound of the block range. The blocks are fetched
+ * asynchronously in batches of JSON-RPC requests, while the rows of previous batches are consumed. Blocks which are
+ * final are served from the {@link BlockCache} if available.
+ */
 class BlockReader implements Closeable {
 
     protected final Web3j web3j;
@@ -33,35 +53,159 @@ class BlockReader implements Closeable {
     protected int blockReads;
     protected BigInteger currentBlock;
 
+    private final EthereumMapper mapper;
+    private final boolean fullTransactions;
+    private final BigInteger lowestBlock;
+    private final BigInteger finalizedBlock;
+    private final int batchSize;
+    private final int prefetch;
+    private final BlockCache cache;
+
+    private final Deque<CompletableFuture<List<String[]>>> pending = new ArrayDeque<>();
+    private Iterator<String[]> rows = Collections.emptyIterator();
+
+
+    BlockReader( String clientUrl, int blocks, Predicate<BigInteger> blockNumberPredicate, BlockRange range, int batchSize, int prefetch, BlockCache cache ) {
+        this( clientUrl, EthereumMapper.BLOCK, false, blocks, blockNumberPredicate, range, batchSize, prefetch, cache );
+    }
+
 
-    BlockReader( String clientUrl, int blocks, Predicate<BigInteger> blockNumberPredicate ) {
+    protected BlockReader( String clientUrl, EthereumMapper mapper, boolean fullTransactions, int blocks, Predicate<BigInteger> blockNumberPredicate, BlockRange range, int batchSize, int prefetch, BlockCache cache ) {
         this.web3j = Web3j.build( new HttpService( clientUrl ) );
+        this.mapper = mapper;
+        this.fullTransactions = fullTransactions;
         this.blockReads = blocks;
         this.blockNumberPredicate = blockNumberPredicate;
+        this.batchSize = Math.max( 1, batchSize );
+        this.prefetch = Math.max( 1, prefetch );
+        this.cache = cache;
+        BigInteger latest;
         try {
-            this.currentBlock = web3j.ethBlockNumber().send().getBlockNumber();
+            latest = web3j.ethBlockNumber().send().getBlockNumber();
         } catch ( IOException e ) {
             throw new RuntimeException( "Unable to connect to server: " + clientUrl );
         }
+        this.currentBlock = range.getUpper() == null ? latest : latest.min( range.getUpper() );
+        this.lowestBlock = range.getLower() == null ? BigInteger.ZERO : range.getLower().max( BigInteger.ZERO );
+        this.finalizedBlock = latest.subtract( BigInteger.valueOf( BlockCache.FINALITY_DEPTH ) );
     }
 
 
     public String[] readNext() throws IOException {
-        if ( this.blockReads <= 0 ) {
-            return null;
+        while ( !rows.hasNext() ) {
+            prefetch();
+            CompletableFuture<List<String[]>> next = pending.poll();
+            if ( next == null ) {
+                return null;
+            }
+            // Keep the prefetch window filled while waiting for the next batch
+            prefetch();
+            try {
+                rows = next.join().iterator();
+            } catch ( CompletionException e ) {
+                throw new IOException( "Unable to fetch blocks", e.getCause() );
+            }
         }
-        EthBlock.Block block = null;
-        while ( this.currentBlock.compareTo( BigInteger.ZERO ) == 1 && block == null ) {
-            if ( blockNumberPredicate.test( this.currentBlock ) ) {
-                block = web3j
-                        .ethGetBlockByNumber( DefaultBlockParameter.valueOf( this.currentBlock ), false )
-                        .send()
-                        .getBlock();
+        return rows.next();
+    }
+
+
+    /**
+     * Maps a block to the rows it contributes to the table.
+     */
+    protected List<String[]> map( EthBlock.Block block ) {
+        return Collections.singletonList( EthereumMapper.BLOCK.map( block ) );
+    }
+
+
+    private void prefetch() {
+        while ( pending.size() < prefetch ) {
+            List<BigInteger> numbers = nextBlockNumbers();
+            if ( numbers.isEmpty() ) {
+                return;
+            }
+            pending.add( fetch( numbers ) );
+        }
+    }
+
+
+    /**
+     * Determines the numbers of the next blocks to fetch, in descending order.
+     */
+    private List<BigInteger> nextBlockNumbers() {
+        List<BigInteger> numbers = new ArrayList<>();
+        while ( numbers.size() < batchSize && blockReads > 0 && currentBlock.compareTo( lowestBlock ) >= 0 ) {
+            if ( blockNumberPredicate.test( currentBlock ) ) {
+                numbers.add( currentBlock );
                 blockReads--;
             }
-            this.currentBlock = this.currentBlock.subtract( BigInteger.ONE );
+            currentBlock = currentBlock.subtract( BigInteger.ONE );
+        }
+        return numbers;
+    }
+
+
+    private CompletableFuture<List<String[]>> fetch( List<BigInteger> numbers ) {
+        Map<BigInteger, List<String[]>> cached = new HashMap<>();
+        List<Request<?, EthBlock>> requests = new ArrayList<>();
+        for ( BigInteger number : numbers ) {
+            List<String[]> blockRows = isCacheable( number ) ? cache.get( mapper, number ) : null;
+            if ( blockRows != null ) {
+                cached.put( number, blockRows );
+            } else {
+                requests.add( web3j.ethGetBlockByNumber( DefaultBlockParameter.valueOf( number ), fullTransactions ) );
+            }
         }
-        return block == null ? null : EthereumMapper.BLOCK.map( block );
+
+        CompletableFuture<Map<BigInteger, List<String[]>>> fetched;
+        if ( requests.isEmpty() ) {
+            fetched = CompletableFuture.completedFuture( Collections.emptyMap() );
+        } else if ( requests.size() == 1 ) {
+            fetched = requests.get( 0 ).sendAsync().thenApply( response -> map( Collections.singletonList( response ) ) );
+        } else {
+            BatchRequest batch = web3j.newBatch();
+            requests.forEach( batch::add );
+            fetched = batch.sendAsync().thenApply( response -> map( response.getResponses() ) );
+        }
+
+        return fetched.thenApply( blocks -> {
+            List<String[]> result = new ArrayList<>();
+            for ( BigInteger number : numbers ) {
+                List<String[]> blockRows = cached.containsKey( number ) ? cached.get( number ) : blocks.get( number );
+                if ( blockRows != null ) {
+                    result.addAll( blockRows );
+                }
+            }
+            return result;
+        } );
+    }
+
+
+    /**
+     * Maps the blocks of a batch by their number, since the responses of a batch are not necessarily ordered.
+     */
+    private Map<BigInteger, List<String[]>> map( List<? extends Response<?>> responses ) {
+        Map<BigInteger, List<String[]>> blocks = new HashMap<>();
+        for ( Response<?> response : responses ) {
+            if ( response.hasError() ) {
+                throw new CompletionException( new IOException( response.getError().getMessage() ) );
+            }
+            EthBlock.Block block = ((EthBlock) response).getBlock();
+            if ( block == null ) {
+                continue;
+            }
+            List<String[]> blockRows = map( block );
+            if ( isCacheable( block.getNumber() ) ) {
+                cache.put( mapper, block.getNumber(), blockRows );
+            }
+            blocks.put( block.getNumber(), blockRows );
+        }
+        return blocks;
+    }
+
+
+    private boolean isCacheable( BigInteger number ) {
+        return cache != null && number.compareTo( finalizedBlock ) <= 0;
     }
 
 
@@ -72,6 +216,10 @@ public String[] readNext() throws IOException {
      */
     @Override
     public void close() throws IOException {
+        for ( CompletableFuture<List<String[]>> future : pending ) {
+            future.cancel( true );
+        }
+        pending.clear();
         this.web3j.shutdown();
     }
 
@@ -42,6 +42,7 @@
 import org.polypheny.db.schema.Table;
 import org.polypheny.db.transaction.PolyXid;
 import org.polypheny.db.type.PolyType;
+import org.polypheny.db.util.PolyphenyHomeDirManager;
 import org.web3j.protocol.Web3j;
 import org.web3j.protocol.http.HttpService;
 
@@ -54,6 +55,9 @@
 @AdapterSettingString(name = "ClientUrl", description = "The URL of the ethereum JSON RPC client", defaultValue = "https://mainnet.infura.io/v3/4d06589e97064040b5da99cf4051ef04", position = 1)
 @AdapterSettingInteger(name = "Blocks", description = "The number of Blocks to fetch when processing a query", defaultValue = 10, position = 2, modifiable = true)
 @AdapterSettingBoolean(name = "ExperimentalFiltering", description = "Experimentally filter Past Block", defaultValue = false, position = 3, modifiable = true)
+@AdapterSettingInteger(name = "BatchSize", description = "The number of blocks requested in one JSON-RPC batch", defaultValue = 50, position = 4, required = false, modifiable = true)
+@AdapterSettingInteger(name = "Prefetch", description = "The number of batches requested ahead while a query consumes the blocks", defaultValue = 4, position = 5, required = false, modifiable = true)
+@AdapterSettingBoolean(name = "BlockCache", description = "Cache final blocks on disk", defaultValue = true, position = 6, required = false, modifiable = true)
 public class EthereumDataSource extends DataSource {
 
     private String clientURL;
@@ -61,6 +65,12 @@ public class EthereumDataSource extends DataSource {
     private int blocks;
     @Getter
     private boolean experimentalFiltering;
+    @Getter
+    private int batchSize;
+    @Getter
+    private int prefetch;
+    @Getter
+    private BlockCache blockCache;
     private EthereumSchema currentSchema;
 
 
@@ -69,6 +79,8 @@ public EthereumDataSource( final int storeId, final String uniqueName, final Map
         setClientURL( settings.get( "ClientUrl" ) );
         this.blocks = Integer.parseInt( settings.get( "Blocks" ) );
         this.experimentalFiltering = Boolean.parseBoolean( settings.get( "ExperimentalFiltering" ) );
+        this.batchSize = Integer.parseInt( settings.getOrDefault( "BatchSize", "50" ) );
+        this.prefetch = Integer.parseInt( settings.getOrDefault( "Prefetch", "4" ) );
         createInformationPage();
         enableInformationPage();
     }
@@ -81,11 +93,29 @@ private void setClientURL( String clientURL ) {
         } catch ( Exception e ) {
             throw new RuntimeException( "Unable to connect the client URL '" + clientURL + "'" );
         }
+        this.blockCache = createBlockCache( web3j );
         web3j.shutdown();
         this.clientURL = clientURL;
     }
 
 
+    /**
+     * Creates the cache for final blocks. The cache is shared by all adapters connected to the same chain.
+     */
+    private BlockCache createBlockCache( Web3j web3j ) {
+        if ( !Boolean.parseBoolean( settings.getOrDefault( "BlockCache", "true" ) ) ) {
+            return null;
+        }
+        try {
+            BigInteger chainId = web3j.ethChainId().send().getChainId();
+            return new BlockCache( PolyphenyHomeDirManager.getInstance().registerNewFolder( "data/ethereum-cache/chain" + chainId ) );
+        } catch ( Exception e ) {
+            log.warn( "Unable to determine the chain id, blocks are not cached", e );
+            return null;
+        }
+    }
+
+
     @Override
     public void createNewSchema( SchemaPlus rootSchema, String name ) {
         currentSchema = new EthereumSchema( this.clientURL );
@@ -205,6 +235,15 @@ protected void reloadSettings( List<String> updatedSettings ) {
         if ( updatedSettings.contains( "ExperimentalFiltering" ) ) {
             this.experimentalFiltering = Boolean.parseBoolean( settings.get( "ExperimentalFiltering" ) );
         }
+        if ( updatedSettings.contains( "BatchSize" ) ) {
+            this.batchSize = Integer.parseInt( settings.get( "BatchSize" ) );
+        }
+        if ( updatedSettings.contains( "Prefetch" ) ) {
+            this.prefetch = Integer.parseInt( settings.get( "Prefetch" ) );
+        }
+        if ( updatedSettings.contains( "BlockCache" ) && !updatedSettings.contains( "ClientUrl" ) ) {
+            setClientURL( settings.get( "ClientUrl" ) );
+        }
     }
 
 
@@ -27,6 +27,7 @@
 import org.apache.calcite.avatica.util.DateTimeUtils;
 import org.apache.calcite.linq4j.Enumerator;
 import org.apache.commons.lang3.time.FastDateFormat;
+import org.polypheny.db.adapter.ethereum.EthereumPredicateFactory.BlockRange;
 
 
 /**
@@ -58,12 +59,12 @@
     private E current;
 
 
-    EthereumEnumerator( String clientUrl, int blocks, AtomicBoolean cancelFlag, boolean stream, String[] filterValues, EthereumMapper mapper, Predicate<BigInteger> blockNumberPredicate, RowConverter<E> rowConverter ) {
+    EthereumEnumerator( String clientUrl, int blocks, AtomicBoolean cancelFlag, boolean stream, String[] filterValues, EthereumMapper mapper, Predicate<BigInteger> blockNumberPredicate, BlockRange blockRange, int batchSize, int prefetch, BlockCache cache, RowConverter<E> rowConverter ) {
         this.clientUrl = clientUrl;
         this.cancelFlag = cancelFlag;
         this.rowConverter = rowConverter;
         this.filterValues = filterValues;
-        this.reader = mapper.makeReader( clientUrl, blocks, blockNumberPredicate );
+        this.reader = mapper.makeReader( clientUrl, blocks, blockNumberPredicate, blockRange, batchSize, prefetch, cache );
         this.blocks = blocks;
     }
 
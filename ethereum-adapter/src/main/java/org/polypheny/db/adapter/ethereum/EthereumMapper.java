@@ -18,6 +18,7 @@
 
 import java.math.BigInteger;
 import java.util.function.Predicate;
+import org.polypheny.db.adapter.ethereum.EthereumPredicateFactory.BlockRange;
 import org.web3j.protocol.core.methods.response.EthBlock;
 
 public enum EthereumMapper {
@@ -95,10 +96,10 @@ public String[] map( Object obj ) {
     }
 
 
-    public BlockReader makeReader( String clientUrl, int blocks, Predicate<BigInteger> blockNumberPredicate ) {
+    public BlockReader makeReader( String clientUrl, int blocks, Predicate<BigInteger> blockNumberPredicate, BlockRange range, int batchSize, int prefetch, BlockCache cache ) {
         if ( this == BLOCK ) {
-            return new BlockReader( clientUrl, blocks, blockNumberPredicate );
+            return new BlockReader( clientUrl, blocks, blockNumberPredicate, range, batchSize, prefetch, cache );
         }
-        return new TransactionReader( clientUrl, blocks, blockNumberPredicate );
+        return new TransactionReader( clientUrl, blocks, blockNumberPredicate, range, batchSize, prefetch, cache );
     }
 }
@@ -20,6 +20,7 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Predicate;
+import lombok.Value;
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.algebra.constant.Kind;
 import org.polypheny.db.rex.RexCall;
@@ -63,6 +64,54 @@ static Predicate<BigInteger> makePredicate( DataContext dataContext, List<RexNod
     }
 
 
+    /**
+     * Derives the range of block numbers which can satisfy the filters. Only comparisons of the block number that are
+     * conjunctively connected are considered, the range is therefore a superset of the blocks matching the predicate.
+     */
+    static BlockRange makeRange( DataContext dataContext, List<RexNode> filters, EthereumMapper mapper ) {
+        String blockNumberField = mapper == EthereumMapper.TRANSACTION ? "$3" : "$0";
+        BlockRange range = BlockRange.ALL;
+        for ( RexNode filter : filters ) {
+            range = range.intersect( range( dataContext, filter, blockNumberField ) );
+        }
+        return range;
+    }
+
+
+    private static BlockRange range( DataContext dataContext, RexNode filter, String blockNumberField ) {
+        if ( filter.isA( Kind.AND ) ) {
+            BlockRange range = BlockRange.ALL;
+            for ( RexNode and : ((RexCall) filter).getOperands() ) {
+                range = range.intersect( range( dataContext, and, blockNumberField ) );
+            }
+            return range;
+        } else if ( filter.isA( REX_COMPARATORS ) ) {
+            final RexCall call = (RexCall) filter;
+            RexNode left = call.getOperands().get( 0 );
+            if ( left.isA( Kind.CAST ) ) {
+                left = ((RexCall) left).operands.get( 0 );
+            }
+            final RexNode right = call.getOperands().get( 1 );
+            if ( !(left instanceof RexInputRef && right instanceof RexDynamicParam) || !((RexInputRef) left).getName().equals( blockNumberField ) ) {
+                return BlockRange.ALL;
+            }
+            BigInteger value = new BigInteger( String.valueOf( dataContext.getParameterValue( ((RexDynamicParam) right).getIndex() ) ) );
+            if ( filter.isA( Kind.EQUALS ) ) {
+                return new BlockRange( value, value );
+            } else if ( filter.isA( Kind.LESS_THAN ) ) {
+                return new BlockRange( null, value.subtract( BigInteger.ONE ) );
+            } else if ( filter.isA( Kind.LESS_THAN_OR_EQUAL ) ) {
+                return new BlockRange( null, value );
+            } else if ( filter.isA( Kind.GREATER_THAN ) ) {
+                return new BlockRange( value.add( BigInteger.ONE ), null );
+            } else if ( filter.isA( Kind.GREATER_THAN_OR_EQUAL ) ) {
+                return new BlockRange( value, null );
+            }
+        }
+        return BlockRange.ALL;
+    }
+
+
     private static Pair<Boolean, Boolean> match( BigInteger bigInteger, DataContext dataContext, RexNode filter, String blockNumberField ) {
         boolean result = true;
         boolean exists = false;
@@ -120,4 +169,25 @@ private static Pair<Boolean, Boolean> match( BigInteger bigInteger, DataContext
         return new Pair<>( exists, result );
     }
 
+
+    /**
+     * An inclusive range of block numbers. A bound of null means that the range is unbounded in this direction.
+     */
+    @Value
+    static class BlockRange {
+
+        static final BlockRange ALL = new BlockRange( null, null );
+
+        BigInteger lower;
+        BigInteger upper;
+
+
+        BlockRange intersect( BlockRange other ) {
+            return new BlockRange(
+                    lower == null ? other.lower : other.lower == null ? lower : lower.max( other.lower ),
+                    upper == null ? other.upper : other.upper == null ? upper : upper.min( other.upper ) );
+        }
+
+    }
+
 }
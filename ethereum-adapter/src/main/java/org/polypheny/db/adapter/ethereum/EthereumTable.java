@@ -25,6 +25,7 @@
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.Enumerator;
 import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.adapter.ethereum.EthereumPredicateFactory.BlockRange;
 import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.algebra.type.AlgDataTypeFactory;
 import org.polypheny.db.algebra.type.AlgDataTypeField;
@@ -83,13 +84,16 @@ public String toString() {
     public Enumerable scan( DataContext dataContext, List<RexNode> filters ) {
         dataContext.getStatement().getTransaction().registerInvolvedAdapter( ethereumDataSource );
         Predicate<BigInteger> blockNumberPredicate = EthereumPredicateFactory.ALWAYS_TRUE;
+        BlockRange blockRange = BlockRange.ALL;
         if ( ethereumDataSource.isExperimentalFiltering() ) {
             if ( !filters.isEmpty() ) {
                 blockNumberPredicate = EthereumPredicateFactory.makePredicate( dataContext, filters, mapper );
+                blockRange = EthereumPredicateFactory.makeRange( dataContext, filters, mapper );
             }
         }
         final AtomicBoolean cancelFlag = DataContext.Variable.CANCEL_FLAG.get( dataContext );
         final Predicate<BigInteger> finalBlockNumberPredicate = blockNumberPredicate;
+        final BlockRange finalBlockRange = blockRange;
 
         if ( fields.length == 1 ) {
             return new AbstractEnumerable<Object>() {
@@ -103,6 +107,10 @@ public Enumerator<Object> enumerator() {
                             null,
                             mapper,
                             finalBlockNumberPredicate,
+                            finalBlockRange,
+                            ethereumDataSource.getBatchSize(),
+                            ethereumDataSource.getPrefetch(),
+                            ethereumDataSource.getBlockCache(),
                             (EthereumEnumerator.RowConverter<Object>) EthereumEnumerator.converter( fieldTypes, fields ) );
                 }
             };
@@ -118,6 +126,10 @@ public Enumerator<Object[]> enumerator() {
                         null,
                         mapper,
                         finalBlockNumberPredicate,
+                        finalBlockRange,
+                        ethereumDataSource.getBatchSize(),
+                        ethereumDataSource.getPrefetch(),
+                        ethereumDataSource.getBlockCache(),
                         (EthereumEnumerator.RowConverter<Object[]>) EthereumEnumerator.converter( fieldTypes, fields ) );
             }
         };
@@ -16,51 +16,27 @@
 
 package org.polypheny.db.adapter.ethereum;
 
-import java.io.IOException;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Predicate;
-import org.web3j.protocol.core.DefaultBlockParameter;
+import org.polypheny.db.adapter.ethereum.EthereumPredicateFactory.BlockRange;
 import org.web3j.protocol.core.methods.response.EthBlock;
 
 public class TransactionReader extends BlockReader {
 
-    private List<EthBlock.TransactionResult> transactionsList;
-    private int transactionIndex;
-
-
-    TransactionReader( String clientUrl, int blocks, Predicate<BigInteger> blockNumberPrecate ) {
-        super( clientUrl, blocks, blockNumberPrecate );
-        transactionIndex = -1;
+    TransactionReader( String clientUrl, int blocks, Predicate<BigInteger> blockNumberPrecate, BlockRange range, int batchSize, int prefetch, BlockCache cache ) {
+        super( clientUrl, EthereumMapper.TRANSACTION, true, blocks, blockNumberPrecate, range, batchSize, prefetch, cache );
     }
 
 
     @Override
-    public String[] readNext() throws IOException {
-        if ( this.blockReads <= 0 ) {
-            return null;
-        }
-
-        while ( this.currentBlock.compareTo( BigInteger.ZERO ) == 1 && (transactionsList == null || transactionsList.size() == 0) ) {
-            if ( blockNumberPredicate.test( this.currentBlock ) ) {
-                transactionsList = web3j
-                        .ethGetBlockByNumber( DefaultBlockParameter.valueOf( currentBlock ), true )
-                        .send()
-                        .getBlock()
-                        .getTransactions();
-                transactionIndex = 0;
-                blockReads--;
-            }
-            this.currentBlock = this.currentBlock.subtract( BigInteger.ONE );
+    protected List<String[]> map( EthBlock.Block block ) {
+        List<String[]> rows = new ArrayList<>( block.getTransactions().size() );
+        for ( EthBlock.TransactionResult<?> transaction : block.getTransactions() ) {
+            rows.add( EthereumMapper.TRANSACTION.map( transaction.get() ) );
         }
-
-        String[] res = EthereumMapper.TRANSACTION.map( transactionsList.get( transactionIndex++ ).get() );
-
-        if ( transactionIndex >= transactionsList.size() ) {
-            transactionsList = null;
-        }
-
-        return res;
+        return rows;
     }
 
 }
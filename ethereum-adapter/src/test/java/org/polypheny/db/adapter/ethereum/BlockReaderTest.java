@@ -0,0 +1,251 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.ethereum;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.polypheny.db.adapter.ethereum.EthereumPredicateFactory.BlockRange;
+
+
+/**
+ * Tests the block readers against a local JSON-RPC stub of a chain with {@value #LATEST} blocks and two transactions
+ * per block.
+ */
+public class BlockReaderTest {
+
+    private static final int LATEST = 1000;
+
+    private HttpServer server;
+    private String url;
+    private final AtomicInteger httpRequests = new AtomicInteger();
+    private final AtomicInteger blockRequests = new AtomicInteger();
+
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create( new InetSocketAddress( "127.0.0.1", 0 ), 0 );
+        server.createContext( "/", this::handle );
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+
+    @After
+    public void stopServer() {
+        server.stop( 0 );
+    }
+
+
+    @Test
+    public void readBackwardsInBatches() throws IOException {
+        try ( BlockReader reader = new BlockReader( url, 120, EthereumPredicateFactory.ALWAYS_TRUE, BlockRange.ALL, 50, 2, null ) ) {
+            List<String[]> rows = readAll( reader );
+            assertEquals( 120, rows.size() );
+            assertEquals( String.valueOf( LATEST ), rows.get( 0 )[0] );
+            assertEquals( String.valueOf( LATEST - 119 ), rows.get( 119 )[0] );
+        }
+        // One request for the latest block number and three batches
+        assertEquals( 4, httpRequests.get() );
+        assertEquals( 120, blockRequests.get() );
+    }
+
+
+    @Test
+    public void pushDownRange() throws IOException {
+        try ( BlockReader reader = new BlockReader( url, 10, n -> n.intValue() % 2 == 0, new BlockRange( BigInteger.valueOf( 95 ), BigInteger.valueOf( 100 ) ), 50, 2, null ) ) {
+            List<String[]> rows = readAll( reader );
+            assertEquals( 3, rows.size() );
+            assertEquals( "100", rows.get( 0 )[0] );
+            assertEquals( "96", rows.get( 2 )[0] );
+        }
+        assertEquals( 3, blockRequests.get() );
+    }
+
+
+    @Test
+    public void readTransactions() throws IOException {
+        try ( BlockReader reader = new TransactionReader( url, 3, EthereumPredicateFactory.ALWAYS_TRUE, new BlockRange( null, BigInteger.valueOf( 10 ) ), 2, 1, null ) ) {
+            List<String[]> rows = readAll( reader );
+            assertEquals( 6, rows.size() );
+            assertEquals( "0xaa", rows.get( 0 )[0] );
+            assertEquals( "10", rows.get( 0 )[3] );
+            assertEquals( "0x8b", rows.get( 5 )[0] );
+        }
+    }
+
+
+    @Test
+    public void cacheFinalBlocks() throws IOException {
+        java.io.File folder = Files.createTempDirectory( "ethereum-cache" ).toFile();
+        try {
+            BlockCache cache = new BlockCache( folder );
+            BlockRange range = new BlockRange( null, BigInteger.valueOf( LATEST - BlockCache.FINALITY_DEPTH + 10 ) );
+            List<String[]> first;
+            try ( BlockReader reader = new TransactionReader( url, 20, EthereumPredicateFactory.ALWAYS_TRUE, range, 50, 2, cache ) ) {
+                first = readAll( reader );
+            }
+            assertEquals( 20, blockRequests.get() );
+
+            List<String[]> second;
+            try ( BlockReader reader = new TransactionReader( url, 20, EthereumPredicateFactory.ALWAYS_TRUE, range, 50, 2, cache ) ) {
+                second = readAll( reader );
+            }
+            // The ten blocks which are not final yet are fetched again
+            assertEquals( 30, blockRequests.get() );
+            assertEquals( first.size(), second.size() );
+            for ( int i = 0; i < first.size(); i++ ) {
+                assertArrayEquals( first.get( i ), second.get( i ) );
+            }
+        } finally {
+            FileUtils.deleteDirectory( folder );
+        }
+    }
+
+
+    private static List<String[]> readAll( BlockReader reader ) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        String[] row;
+        while ( (row = reader.readNext()) != null ) {
+            rows.add( row );
+        }
+        assertNull( reader.readNext() );
+        return rows;
+    }
+
+
+    private void handle( HttpExchange exchange ) throws IOException {
+        httpRequests.incrementAndGet();
+        JsonElement request = JsonParser.parseReader( new InputStreamReader( exchange.getRequestBody(), StandardCharsets.UTF_8 ) );
+        JsonElement response;
+        if ( request.isJsonArray() ) {
+            JsonArray responses = new JsonArray();
+            // Answer in reverse order, the reader must not rely on the order of the responses
+            for ( int i = request.getAsJsonArray().size() - 1; i >= 0; i-- ) {
+                responses.add( answer( request.getAsJsonArray().get( i ).getAsJsonObject() ) );
+            }
+            response = responses;
+        } else {
+            response = answer( request.getAsJsonObject() );
+        }
+        byte[] bytes = response.toString().getBytes( StandardCharsets.UTF_8 );
+        exchange.getResponseHeaders().add( "Content-Type", "application/json" );
+        exchange.sendResponseHeaders( 200, bytes.length );
+        try ( OutputStream os = exchange.getResponseBody() ) {
+            os.write( bytes );
+        }
+    }
+
+
+    private JsonObject answer( JsonObject request ) {
+        JsonObject response = new JsonObject();
+        response.addProperty( "jsonrpc", "2.0" );
+        response.add( "id", request.get( "id" ) );
+        switch ( request.get( "method" ).getAsString() ) {
+            case "eth_blockNumber":
+                response.addProperty( "result", hex( LATEST ) );
+                break;
+            case "eth_getBlockByNumber":
+                blockRequests.incrementAndGet();
+                JsonArray params = request.getAsJsonArray( "params" );
+                int number = Integer.parseInt( params.get( 0 ).getAsString().substring( 2 ), 16 );
+                response.add( "result", block( number, params.get( 1 ).getAsBoolean() ) );
+                break;
+            default:
+                throw new IllegalArgumentException( request.get( "method" ).getAsString() );
+        }
+        return response;
+    }
+
+
+    private static JsonObject block( int number, boolean fullTransactions ) {
+        JsonObject block = new JsonObject();
+        block.addProperty( "number", hex( number ) );
+        block.addProperty( "hash", "0xb" + Integer.toHexString( number ) );
+        block.addProperty( "parentHash", "0xb" + Integer.toHexString( number - 1 ) );
+        block.addProperty( "nonce", "0x42" );
+        block.addProperty( "sha3Uncles", "0x0" );
+        block.addProperty( "logsBloom", "0x0" );
+        block.addProperty( "transactionsRoot", "0x0" );
+        block.addProperty( "stateRoot", "0x0" );
+        block.addProperty( "receiptsRoot", "0x0" );
+        block.addProperty( "miner", "0x0" );
+        block.addProperty( "mixHash", "0x0" );
+        block.addProperty( "difficulty", "0x1" );
+        block.addProperty( "totalDifficulty", hex( number ) );
+        block.addProperty( "extraData", "0x" );
+        block.addProperty( "size", "0x100" );
+        block.addProperty( "gasLimit", "0x1000" );
+        block.addProperty( "gasUsed", "0x10" );
+        block.addProperty( "timestamp", hex( 1_600_000_000 + number * 12 ) );
+        JsonArray transactions = new JsonArray();
+        for ( int i = 0; i < 2; i++ ) {
+            String hash = "0x" + Integer.toHexString( number * 16 + i + 10 );
+            if ( fullTransactions ) {
+                JsonObject transaction = new JsonObject();
+                transaction.addProperty( "hash", hash );
+                transaction.addProperty( "nonce", hex( i ) );
+                transaction.addProperty( "blockHash", "0xb" + Integer.toHexString( number ) );
+                transaction.addProperty( "blockNumber", hex( number ) );
+                transaction.addProperty( "transactionIndex", hex( i ) );
+                transaction.addProperty( "from", "0xf" );
+                transaction.addProperty( "to", "0xe" );
+                transaction.addProperty( "value", hex( 1000 ) );
+                transaction.addProperty( "gasPrice", hex( 10 ) );
+                transaction.addProperty( "gas", hex( 21000 ) );
+                transaction.addProperty( "input", "0x" );
+                transaction.addProperty( "r", "0x1" );
+                transaction.addProperty( "s", "0x2" );
+                transaction.addProperty( "v", "0x1b" );
+                transactions.add( transaction );
+            } else {
+                transactions.add( hash );
+            }
+        }
+        block.add( "transactions", transactions );
+        block.add( "uncles", new JsonArray() );
+        return block;
+    }
+
+
+    private static String hex( long value ) {
+        return "0x" + Long.toHexString( value );
+    }
+
+}
@@ -57,6 +57,9 @@ public class HtmlReader implements Iterable<Elements> {
     private final Charset charset = StandardCharsets.UTF_8;
     private Element tableElement;
     private Elements headings;
+    // Size and modification time of a local file when it has been parsed
+    private long parsedLength;
+    private long parsedLastModified;
 
 
     public HtmlReader( Source source, String selector, Integer index ) throws HtmlReaderException {
@@ -84,6 +87,8 @@ private void getTable() throws HtmlReaderException {
         try {
             String proto = source.protocol();
             if ( proto.equals( "file" ) ) {
+                parsedLength = source.file().length();
+                parsedLastModified = source.file().lastModified();
                 doc = Jsoup.parse( source.file(), this.charset.name() );
             } else {
                 doc = Jsoup.parse( source.url(), (int) TimeUnit.SECONDS.toMillis( 20 ) );
@@ -161,6 +166,17 @@ Elements getHeadings() throws HtmlReaderException {
     }
 
 
+    /**
+     * Whether the parsed table stems from a local file which has been changed since.
+     */
+    private boolean isModified() {
+        if ( !source.protocol().equals( "file" ) ) {
+            return false;
+        }
+        return source.file().length() != parsedLength || source.file().lastModified() != parsedLastModified;
+    }
+
+
     private String tableKey() {
         return "Table: {url: " + this.source + ", selector: " + this.selector + "}";
     }
@@ -168,7 +184,7 @@ private String tableKey() {
 
     @Override
     public HtmlReaderIterator iterator() {
-        if ( this.tableElement == null ) {
+        if ( this.tableElement == null || isModified() ) {
             try {
                 getTable();
             } catch ( RuntimeException | Error e ) {
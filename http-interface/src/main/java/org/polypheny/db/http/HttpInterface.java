@@ -21,33 +21,65 @@
 
 import com.google.common.collect.ImmutableList;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonWriter;
 import io.javalin.Javalin;
 import io.javalin.http.Context;
 import io.javalin.plugin.json.JsonMapper;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.thread.ExecutorThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.jetbrains.annotations.NotNull;
+import org.polypheny.db.PolyImplementation;
 import org.polypheny.db.StatusService;
+import org.polypheny.db.algebra.AlgRoot;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.catalog.Catalog.NamespaceType;
 import org.polypheny.db.catalog.Catalog.QueryLanguage;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.iface.Authenticator;
 import org.polypheny.db.iface.QueryInterface;
 import org.polypheny.db.information.InformationGroup;
 import org.polypheny.db.information.InformationManager;
 import org.polypheny.db.information.InformationPage;
 import org.polypheny.db.information.InformationTable;
+import org.polypheny.db.languages.QueryParameters;
+import org.polypheny.db.nodes.Node;
+import org.polypheny.db.processing.Processor;
+import org.polypheny.db.transaction.Statement;
+import org.polypheny.db.transaction.Transaction;
+import org.polypheny.db.transaction.TransactionException;
 import org.polypheny.db.transaction.TransactionManager;
+import org.polypheny.db.util.Pair;
 import org.polypheny.db.util.Util;
+import org.polypheny.db.util.VirtualThreads;
+import org.polypheny.db.webui.Crud;
 import org.polypheny.db.webui.HttpServer;
 import org.polypheny.db.webui.TemporalFileManager;
 import org.polypheny.db.webui.crud.LanguageCrud;
@@ -65,20 +97,34 @@ public class HttpInterface extends QueryInterface {
     @SuppressWarnings("WeakerAccess")
     public static final List<QueryInterfaceSetting> AVAILABLE_SETTINGS = ImmutableList.of(
             new QueryInterfaceSettingInteger( "port", false, true, false, 13137 ),
-            new QueryInterfaceSettingInteger( "maxUploadSizeMb", false, true, true, 10000 )
+            new QueryInterfaceSettingInteger( "maxUploadSizeMb", false, true, true, 10000 ),
+            new QueryInterfaceSettingList( "responseFormat", false, true, true, ImmutableList.of( "JSON", "NDJSON" ) ),
+            new QueryInterfaceSettingBoolean( "chunkedTransfer", false, true, true, true ),
+            new QueryInterfaceSettingInteger( "maxResultRows", false, true, true, 0 ),
+            new QueryInterfaceSettingBoolean( "asyncExecution", false, true, true, false ),
+            new QueryInterfaceSettingBoolean( "virtualThreads", false, true, false, false )
     );
 
-    private Set<String> xIds = new HashSet<>();
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+    // Number of rows requested from the result publisher at once when streaming
+    private static final int STREAMING_BATCH_SIZE = 100;
+    // Number of bytes of a streamed response which are buffered before anything is sent to the client
+    private static final int STREAMING_BUFFER_SIZE = 1 << 20;
+    // Maximum number of queries executed concurrently in asynchronous mode or when streaming if no virtual threads are available
+    private static final int MAX_QUERY_THREADS = Math.max( 4, 2 * Runtime.getRuntime().availableProcessors() );
+
+    private final Set<String> xIds = ConcurrentHashMap.newKeySet();
 
     private final int port;
     private final String uniqueName;
 
     // Counters
-    private final Map<QueryLanguage, AtomicLong> statementCounters = new HashMap<>();
+    private final Map<QueryLanguage, AtomicLong> statementCounters = new ConcurrentHashMap<>();
 
     private final MonitoringPage monitoringPage;
 
     private Javalin server;
+    private ExecutorService executor;
 
 
     public HttpInterface( TransactionManager transactionManager, Authenticator authenticator, int ifaceId, String uniqueName, Map<String, String> settings ) {
@@ -111,9 +157,13 @@ public String toJsonString( @NotNull Object obj ) {
             }
 
         };
+        final boolean virtualThreads = VirtualThreads.useForRequests( Boolean.parseBoolean( settings.getOrDefault( "virtualThreads", "false" ) ), INTERFACE_NAME );
         server = Javalin.create( config -> {
             config.jsonMapper( gsonMapper );
             config.enableCorsForAllOrigins();
+            if ( virtualThreads ) {
+                config.server( () -> new Server( createVirtualThreadPool() ) );
+            }
         } ).start( port );
         server.exception( Exception.class, ( e, ctx ) -> {
             log.warn( "Caught exception in the HTTP interface", e );
@@ -148,6 +198,30 @@ public void anyQuery( QueryLanguage language, final Context ctx ) {
 
         cleanup();
 
+        // Streaming has to be requested explicitly since it changes the format of the response
+        final boolean stream = Boolean.parseBoolean( ctx.queryParam( "stream" ) );
+        if ( stream || Boolean.parseBoolean( settings.getOrDefault( "asyncExecution", "false" ) ) ) {
+            // Release the request thread, the response is completed by the executor
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            ctx.future( future );
+            getExecutor().execute( () -> {
+                try {
+                    if ( !stream || !streamQuery( language, query, ctx, future ) ) {
+                        executeQuery( language, query, ctx );
+                        future.complete( null );
+                    }
+                } catch ( Throwable t ) {
+                    future.completeExceptionally( t );
+                }
+            } );
+            return;
+        }
+
+        executeQuery( language, query, ctx );
+    }
+
+
+    private void executeQuery( QueryLanguage language, QueryRequest query, final Context ctx ) {
         List<Result> results = LanguageCrud.anyQuery(
                 language,
                 null,
@@ -156,16 +230,135 @@ public void anyQuery( QueryLanguage language, final Context ctx ) {
                 Catalog.defaultUserId,
                 Catalog.defaultDatabaseId,
                 null );
-        ctx.json( results.toArray( new Result[0] ) );
-
-        if ( !statementCounters.containsKey( language ) ) {
-            statementCounters.put( language, new AtomicLong() );
+        try {
+            writeResults( results, ctx );
+        } catch ( IOException e ) {
+            log.warn( "Could not write the results of the HTTP interface", e );
         }
-        statementCounters.get( language ).incrementAndGet();
+
+        statementCounters.computeIfAbsent( language, l -> new AtomicLong() ).incrementAndGet();
         xIds.addAll( results.stream().map( Result::getXid ).filter( Objects::nonNull ).collect( Collectors.toSet() ) );
     }
 
 
+    /**
+     * Creates a thread pool for Jetty which handles every request on a new virtual thread.
+     */
+    private ThreadPool createVirtualThreadPool() {
+        final ThreadFactory threadFactory = VirtualThreads.threadFactory( "HttpInterface-" + uniqueName + "-", true );
+        return new ExecutorThreadPool( VirtualThreads.newRequestExecutor() ) {
+            @Override
+            protected Thread newThread( Runnable job ) {
+                return threadFactory.newThread( job );
+            }
+        };
+    }
+
+
+    /**
+     * Returns the executor for queries in asynchronous mode or when streaming. It is created on first use and runs the
+     * queries on virtual threads if supported, as the adapters might block. Otherwise, at most
+     * {@link #MAX_QUERY_THREADS} queries are executed concurrently and further ones are queued.
+     */
+    private synchronized ExecutorService getExecutor() {
+        if ( executor == null ) {
+            executor = VirtualThreads.newBoundedExecutor( "HttpInterface-" + uniqueName + "-Query-", MAX_QUERY_THREADS );
+        }
+        return executor;
+    }
+
+
+    /**
+     * Streams the result of a SQL query as NDJSON, if requested with {@code ?stream=true}: the first line contains the
+     * names of the columns, every further line a row. The rows are fetched from the adapters only as fast as they can
+     * be written to the client. The first {@link #STREAMING_BUFFER_SIZE} bytes are buffered, hence errors which occur
+     * before can still be reported with a proper status. Otherwise, the response is aborted.
+     *
+     * @return false if the request is not a single SQL query and has to be executed as usual
+     */
+    private boolean streamQuery( QueryLanguage language, QueryRequest request, Context ctx, CompletableFuture<Void> future ) throws IOException {
+        if ( language != QueryLanguage.SQL ) {
+            return false;
+        }
+        Transaction transaction = Crud.getTransaction( false, request.cache, transactionManager, Catalog.defaultUserId, Catalog.defaultDatabaseId, "HTTP Interface SQL (streaming)" );
+        PolyImplementation implementation = null;
+        Statement statement = transaction.createStatement();
+        try {
+            Processor processor = transaction.getProcessor( QueryLanguage.SQL );
+            List<? extends Node> parsed = processor.parse( request.query );
+            if ( parsed.size() == 1 && parsed.get( 0 ).isA( Kind.QUERY ) ) {
+                Pair<Node, AlgDataType> validated = processor.validate( transaction, parsed.get( 0 ), RuntimeConfig.ADD_DEFAULT_VALUES_IN_INSERTS.getBoolean() );
+                AlgRoot logicalRoot = processor.translate( statement, validated.left, new QueryParameters( request.query, NamespaceType.RELATIONAL ) );
+                implementation = statement.getQueryProcessor().prepareQuery( logicalRoot, true );
+            }
+        } catch ( Throwable t ) {
+            log.warn( "Caught exception in the HTTP interface", t );
+            implementation = null;
+        }
+        if ( implementation == null ) {
+            // Not a query or invalid, let the regular code path deal with it
+            try {
+                transaction.rollback();
+            } catch ( TransactionException e ) {
+                log.error( "Caught exception while rollback", e );
+            }
+            return false;
+        }
+        statementCounters.computeIfAbsent( language, l -> new AtomicLong() ).incrementAndGet();
+        ctx.contentType( NDJSON_CONTENT_TYPE );
+        ctx.res.setBufferSize( STREAMING_BUFFER_SIZE );
+        // Flushing would send the buffered part of the response, which is only done at the end of the result
+        Writer out = new BufferedWriter( new OutputStreamWriter( new UnflushedOutputStream( ctx.res.getOutputStream() ), StandardCharsets.UTF_8 ) );
+        JsonWriter writer = HttpServer.gson.newJsonWriter( out );
+        writer.setLenient( true );
+        HttpServer.gson.toJson( implementation.getRowType().getFieldNames(), List.class, writer );
+        out.write( '\n' );
+        implementation.publisher( statement, getExecutor() ).subscribe( new RowStreamer( transaction, ctx, writer, out, future ) );
+        return true;
+    }
+
+
+    /**
+     * Serializes the results directly into the response. Depending on the settings, the results are written as JSON
+     * array or as NDJSON (one result per line) and streamed using chunked transfer encoding.
+     */
+    private void writeResults( List<Result> results, final Context ctx ) throws IOException {
+        String accept = ctx.header( "Accept" );
+        boolean ndjson = settings.getOrDefault( "responseFormat", "JSON" ).equals( "NDJSON" ) || (accept != null && accept.contains( NDJSON_CONTENT_TYPE ));
+        boolean chunked = Boolean.parseBoolean( settings.getOrDefault( "chunkedTransfer", "true" ) );
+        int maxRows = Integer.parseInt( settings.getOrDefault( "maxResultRows", "0" ) );
+
+        ByteArrayOutputStream buffer = chunked ? null : new ByteArrayOutputStream();
+        OutputStream os = chunked ? ctx.res.getOutputStream() : buffer;
+        JsonWriter writer = HttpServer.gson.newJsonWriter( new BufferedWriter( new OutputStreamWriter( os, StandardCharsets.UTF_8 ) ) );
+        // Allows writing several top-level values for NDJSON
+        writer.setLenient( true );
+        ctx.contentType( ndjson ? NDJSON_CONTENT_TYPE : "application/json" );
+        if ( !ndjson ) {
+            writer.beginArray();
+        }
+        for ( Result result : results ) {
+            if ( maxRows > 0 && result.getData() != null && result.getData().length > maxRows ) {
+                result.setData( Arrays.copyOf( result.getData(), maxRows ) ).setHasMoreRows( true );
+            }
+            HttpServer.gson.toJson( result, Result.class, writer );
+            if ( ndjson ) {
+                writer.flush();
+                os.write( '\n' );
+            }
+        }
+        if ( !ndjson ) {
+            writer.endArray();
+        }
+        writer.flush();
+        if ( !chunked ) {
+            ctx.res.setContentLength( buffer.size() );
+            buffer.writeTo( ctx.res.getOutputStream() );
+        }
+        ctx.res.flushBuffer();
+    }
+
+
     private void cleanup() {
         // todo change this also in websocket logic, rather hacky
         for ( String xId : xIds ) {
@@ -184,6 +377,11 @@ public List<QueryInterfaceSetting> getAvailableSettings() {
     @Override
     public void shutdown() {
         server.stop();
+        synchronized ( this ) {
+            if ( executor != null ) {
+                executor.shutdownNow();
+            }
+        }
         monitoringPage.remove();
     }
 
@@ -200,6 +398,153 @@ protected void reloadSettings( List<String> updatedSettings ) {
     }
 
 
+    /**
+     * Writes the rows of a result publisher as NDJSON. New rows are only requested after the previous ones have been
+     * written, hence a slow client slows down the execution instead of filling up the memory.
+     */
+    private class RowStreamer implements Flow.Subscriber<List<Object>> {
+
+        private final Transaction transaction;
+        private final Context ctx;
+        private final JsonWriter writer;
+        private final Writer out;
+        private final CompletableFuture<Void> future;
+        private final int maxRows = Integer.parseInt( settings.getOrDefault( "maxResultRows", "0" ) );
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private Flow.Subscription subscription;
+        private long rows = 0;
+
+
+        RowStreamer( Transaction transaction, Context ctx, JsonWriter writer, Writer out, CompletableFuture<Void> future ) {
+            this.transaction = transaction;
+            this.ctx = ctx;
+            this.writer = writer;
+            this.out = out;
+            this.future = future;
+        }
+
+
+        @Override
+        public void onSubscribe( Flow.Subscription subscription ) {
+            this.subscription = subscription;
+            subscription.request( STREAMING_BATCH_SIZE );
+        }
+
+
+        @Override
+        public void onNext( List<Object> row ) {
+            try {
+                HttpServer.gson.toJson( row, List.class, writer );
+                out.write( '\n' );
+                rows++;
+                if ( maxRows > 0 && rows >= maxRows ) {
+                    subscription.cancel();
+                    finish( null );
+                } else if ( rows % STREAMING_BATCH_SIZE == 0 ) {
+                    subscription.request( STREAMING_BATCH_SIZE );
+                }
+            } catch ( IOException e ) {
+                // The client has gone away
+                subscription.cancel();
+                finish( e );
+            }
+        }
+
+
+        @Override
+        public void onError( Throwable throwable ) {
+            finish( throwable );
+        }
+
+
+        @Override
+        public void onComplete() {
+            finish( null );
+        }
+
+
+        private void finish( Throwable throwable ) {
+            if ( !finished.compareAndSet( false, true ) ) {
+                return;
+            }
+            try {
+                if ( throwable == null ) {
+                    try {
+                        // Moves the remaining rows into the response buffer without sending them
+                        writer.flush();
+                        transaction.commit();
+                    } catch ( TransactionException | IOException e ) {
+                        throwable = e;
+                    }
+                }
+                if ( throwable == null ) {
+                    ctx.res.flushBuffer();
+                } else {
+                    log.warn( "Exception while streaming the result of the HTTP interface", throwable );
+                    rollback();
+                    reportError( throwable );
+                }
+            } catch ( IOException e ) {
+                log.warn( "Exception while finishing the result of the HTTP interface", e );
+            } finally {
+                xIds.add( transaction.getXid().toString() );
+                future.complete( null );
+            }
+        }
+
+
+        private void rollback() {
+            if ( transaction.isActive() ) {
+                try {
+                    transaction.rollback();
+                } catch ( TransactionException e ) {
+                    log.error( "Caught exception while rollback", e );
+                }
+            }
+        }
+
+
+        private void reportError( Throwable throwable ) throws IOException {
+            if ( ctx.res.isCommitted() ) {
+                // Parts of the result have already been sent, the client must not mistake them for the complete result
+                Request.getBaseRequest( ctx.req ).getHttpChannel().abort( throwable );
+                return;
+            }
+            ctx.res.resetBuffer();
+            ctx.status( 500 );
+            ctx.contentType( "application/json" );
+            ctx.res.getOutputStream().write( HttpServer.gson.toJson( Map.of( "error", String.valueOf( throwable.getMessage() ) ) ).getBytes( StandardCharsets.UTF_8 ) );
+            ctx.res.flushBuffer();
+        }
+
+    }
+
+
+    /**
+     * Passes the bytes on to the response, but ignores flushes. The response is sent once its buffer is full or it is
+     * flushed explicitly.
+     */
+    private static class UnflushedOutputStream extends FilterOutputStream {
+
+        UnflushedOutputStream( OutputStream out ) {
+            super( out );
+        }
+
+
+        @Override
+        public void write( byte[] b, int off, int len ) throws IOException {
+            out.write( b, off, len );
+        }
+
+
+        @Override
+        public void flush() {
+            // Ignored
+        }
+
+    }
+
+
     private class MonitoringPage {
 
         private final InformationPage informationPage;
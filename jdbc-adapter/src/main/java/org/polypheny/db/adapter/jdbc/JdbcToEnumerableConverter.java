@@ -222,7 +222,7 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
                                     DataContext.ROOT ) );
 
             enumerable = builder0.append(
-                    "enumerable" + System.nanoTime(),
+                    implementor.uniqueName( "enumerable" ),
                     Expressions.call(
                             RESULT_SET_ENUMERABLE_OF_PREPARED_METHOD,
                             Expressions.call(
@@ -234,7 +234,7 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
                             preparedStatementConsumer_ ) );
         } else {
             enumerable = builder0.append(
-                    "enumerable" + System.nanoTime(),
+                    implementor.uniqueName( "enumerable" ),
                     Expressions.call(
                             RESULT_SET_ENUMERABLE_OF_METHOD,
                             Expressions.call(
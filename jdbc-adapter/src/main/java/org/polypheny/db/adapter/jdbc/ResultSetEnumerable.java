@@ -248,6 +248,8 @@ public void setTimeout( DataContext context ) {
     public static PreparedStatementEnricher createEnricher( Integer[] indexes, DataContext context ) {
         return ( preparedStatement, connectionHandler ) -> {
             boolean batch = context.getParameterValues().size() > 1;
+            // Resolved once per statement, the drivers might contact the database for the parameter metadata
+            final int[] sqlTypes = indexes.length > 0 ? connectionHandler.getParameterTypes( preparedStatement ) : null;
             for ( Map<Long, Object> values : context.getParameterValues() ) {
                 for ( int i = 0; i < indexes.length; i++ ) {
                     final long index = indexes[i];
@@ -256,7 +258,7 @@ public static PreparedStatementEnricher createEnricher( Integer[] indexes, DataC
                             i + 1,
                             values.get( index ),
                             context.getParameterType( index ),
-                            preparedStatement.getParameterMetaData().getParameterType( i + 1 ),
+                            sqlTypes[i],
                             connectionHandler );
                 }
                 if ( batch ) {
@@ -272,7 +274,7 @@ public static PreparedStatementEnricher createEnricher( Integer[] indexes, DataC
      * Assigns a value to a dynamic parameter in a prepared statement, calling the appropriate {@code setXxx}
      * method based on the type of the parameter.
      */
-    private static void setDynamicParam( PreparedStatement preparedStatement, int i, Object value, AlgDataType type, int sqlType, ConnectionHandler connectionHandler ) throws SQLException {
+    public static void setDynamicParam( PreparedStatement preparedStatement, int i, Object value, AlgDataType type, int sqlType, ConnectionHandler connectionHandler ) throws SQLException {
         if ( value == null ) {
             preparedStatement.setNull( i, SqlType.NULL.id );
         } else if ( type instanceof IntervalPolyType && connectionHandler.getDialect().getIntervalParameterStrategy() != IntervalParameterStrategy.NONE ) {
@@ -467,7 +469,7 @@ private Enumerator<T> enumeratorBasedOnStatement() {
             if ( statement.execute( sql ) ) {
                 final ResultSet resultSet = statement.getResultSet();
                 statement = null;
-                return new ResultSetEnumerator<>( resultSet, rowBuilderFactory );
+                return new ResultSetEnumerator<>( resultSet, rowBuilderFactory, connectionHandler );
             } else {
                 Integer updateCount = statement.getUpdateCount();
                 return Linq4j.singletonEnumerator( (T) updateCount );
@@ -494,7 +496,7 @@ private Enumerator<T> enumeratorBasedOnPreparedStatement() {
                 if ( preparedStatement.execute() ) {
                     final ResultSet resultSet = preparedStatement.getResultSet();
                     preparedStatement = null;
-                    return new ResultSetEnumerator<>( resultSet, rowBuilderFactory );
+                    return new ResultSetEnumerator<>( resultSet, rowBuilderFactory, connectionHandler );
                 } else {
                     Integer updateCount = preparedStatement.getUpdateCount();
                     return Linq4j.singletonEnumerator( (T) updateCount );
@@ -536,7 +538,7 @@ private void setTimeoutIfPossible( Statement statement ) throws SQLException {
     private void closeIfPossible( Statement statement ) {
         if ( statement != null ) {
             try {
-                statement.close();
+                connectionHandler.releaseStatement( statement );
             } catch ( SQLException e ) {
                 // ignore
             }
@@ -552,12 +554,14 @@ private void closeIfPossible( Statement statement ) {
     private static class ResultSetEnumerator<T> implements Enumerator<T> {
 
         private final Function0<T> rowBuilder;
+        private final ConnectionHandler connectionHandler;
         private ResultSet resultSet;
 
 
-        ResultSetEnumerator( ResultSet resultSet, Function1<ResultSet, Function0<T>> rowBuilderFactory ) {
+        ResultSetEnumerator( ResultSet resultSet, Function1<ResultSet, Function0<T>> rowBuilderFactory, ConnectionHandler connectionHandler ) {
             this.resultSet = resultSet;
             this.rowBuilder = rowBuilderFactory.apply( resultSet );
+            this.connectionHandler = connectionHandler;
         }
 
 
@@ -597,7 +601,7 @@ public void close() {
                     savedResultSet.close();
                     if ( statement != null ) {
                         //final Connection connection = statement.getConnection();
-                        statement.close();
+                        connectionHandler.releaseStatement( statement );
                         /*if ( connection != null ) {
                             connection.close();
                         }*/
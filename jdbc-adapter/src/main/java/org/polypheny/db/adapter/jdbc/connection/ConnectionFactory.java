@@ -32,6 +32,15 @@ public interface ConnectionFactory {
 
     void close() throws SQLException;
 
+    /**
+     * Sets the options for the statements executed by the handlers of this factory. The options are applied whenever
+     * a handler is assigned to a new transaction.
+     *
+     * @param statementCacheSize Number of prepared statements cached per connection, zero disables the cache
+     * @param fetchSize Number of rows fetched per round-trip, zero uses the default of the JDBC driver
+     */
+    void setStatementOptions( int statementCacheSize, int fetchSize );
+
     int getMaxTotal();
 
     int getNumActive();
@@ -24,6 +24,7 @@
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
 import org.polypheny.db.sql.language.SqlDialect;
 
@@ -43,10 +44,32 @@ public abstract class ConnectionHandler {
      */
     protected ConcurrentLinkedQueue<Statement> openStatements;
 
+    /**
+     * Prepared statements kept open across transactions, {@code null} if the statement cache is disabled
+     */
+    protected PreparedStatementCache statementCache;
+
+    /**
+     * Shared by all handlers of a connection factory, incremented whenever a statement which might have changed the
+     * schema is executed. This invalidates the cached statements of all handlers.
+     */
+    protected AtomicLong schemaVersion;
+
+    /**
+     * Number of rows fetched per round-trip, zero uses the default of the driver
+     */
+    protected int fetchSize = 0;
+
 
     public int executeUpdate( final String sql ) throws SQLException {
         log.trace( "Executing query on database: {}", sql );
-        return statement.executeUpdate( sql );
+        schemaChanged();
+        try {
+            return statement.executeUpdate( sql );
+        } finally {
+            // Statements cached while the DDL was running might have been prepared against the old schema
+            schemaChanged();
+        }
     }
 
 
@@ -58,7 +81,12 @@ public ResultSet executeQuery( final String sql ) throws SQLException {
 
     public void execute( final String sql ) throws SQLException {
         log.trace( "Executing query on database: {}", sql );
-        statement.execute( sql );
+        schemaChanged();
+        try {
+            statement.execute( sql );
+        } finally {
+            schemaChanged();
+        }
     }
 
 
@@ -67,21 +95,112 @@ public Array createArrayOf( String typeName, Object[] elements ) throws SQLExcep
     }
 
 
+    /**
+     * Gives access to driver specific APIs of the underlying connection (e.g. the COPY API of PostgreSQL).
+     */
+    public <T> T unwrap( Class<T> iface ) throws SQLException {
+        return connection.unwrap( iface );
+    }
+
+
     public Statement getStatement() throws SQLException {
         return createStatement();
     }
 
 
+    /**
+     * Prepares a statement. If the statement cache is enabled, the returned statement might be reused by later
+     * transactions. Hence, it has to be returned using {@link #releaseStatement(Statement)} instead of being closed.
+     */
     public PreparedStatement prepareStatement( String sql ) throws SQLException {
+        if ( statementCache != null ) {
+            PreparedStatement cached = statementCache.acquire( connection, sql, schemaVersion == null ? 0 : schemaVersion.get() );
+            if ( cached != null ) {
+                // The fetch size might have been changed since the statement has been cached
+                cached.setFetchSize( fetchSize );
+                return cached;
+            }
+        }
         if ( openStatements == null ) {
             openStatements = new ConcurrentLinkedQueue<>();
         }
         PreparedStatement preparedStatement = connection.prepareStatement( sql );
+        if ( fetchSize > 0 ) {
+            preparedStatement.setFetchSize( fetchSize );
+        }
         openStatements.add( preparedStatement );
         return preparedStatement;
     }
 
 
+    /**
+     * Returns a statement which is no longer needed. Cached statements are kept open, all others are closed.
+     */
+    public void releaseStatement( Statement statement ) throws SQLException {
+        if ( statementCache == null || !statementCache.release( statement ) ) {
+            statement.close();
+        }
+    }
+
+
+    /**
+     * Returns the JDBC types of the parameters of a prepared statement. For cached statements, the metadata is only
+     * requested once from the driver.
+     */
+    public int[] getParameterTypes( PreparedStatement preparedStatement ) throws SQLException {
+        if ( statementCache == null ) {
+            return PreparedStatementCache.readParameterTypes( preparedStatement );
+        }
+        return statementCache.getParameterTypes( preparedStatement );
+    }
+
+
+    /**
+     * Applies the statement options of the connection factory. Called before the handler is assigned to a transaction.
+     */
+    void configure( int statementCacheSize, int fetchSize ) {
+        this.fetchSize = fetchSize;
+        if ( statementCacheSize > 0 ) {
+            if ( statementCache == null ) {
+                statementCache = new PreparedStatementCache( statementCacheSize );
+            } else {
+                statementCache.setCapacity( statementCacheSize );
+            }
+        } else if ( statementCache != null ) {
+            statementCache.clear();
+            statementCache = null;
+        }
+    }
+
+
+    /**
+     * Closes all statements opened during the transaction and marks the cached statements as unused.
+     */
+    protected void closeStatements() {
+        try {
+            if ( openStatements != null ) {
+                for ( Statement openStatement : openStatements ) {
+                    openStatement.close();
+                }
+            }
+        } catch ( SQLException e ) {
+            log.debug( "Exception while closing connections in connection handler", e );
+        } finally {
+            openStatements = null;
+            if ( statementCache != null ) {
+                statementCache.releaseAll();
+            }
+        }
+    }
+
+
+    private void schemaChanged() {
+        if ( schemaVersion != null ) {
+            schemaVersion.incrementAndGet();
+        }
+    }
+
+
     public abstract boolean prepare() throws ConnectionHandlerException;
 
     public abstract void commit() throws ConnectionHandlerException;
@@ -94,6 +213,9 @@ private Statement createStatement() throws SQLException {
             openStatements = new ConcurrentLinkedQueue<>();
         }
         Statement statement = connection.createStatement();
+        if ( fetchSize > 0 ) {
+            statement.setFetchSize( fetchSize );
+        }
         openStatements.add( statement );
         return statement;
     }
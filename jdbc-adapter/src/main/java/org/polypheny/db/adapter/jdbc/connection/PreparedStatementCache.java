@@ -0,0 +1,229 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.jdbc.connection;
+
+
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * Keeps the prepared statements of a connection open across transactions, keyed by their SQL. A cached statement is
+ * handed out to one user at a time. If it is still in use (e.g. because its result set is still being consumed), the
+ * caller has to prepare an uncached statement. The least recently used statements are closed if the cache is full.
+ */
+@Slf4j
+final class PreparedStatementCache {
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>( 16, 0.75f, true );
+    private final Map<Statement, Entry> statements = new IdentityHashMap<>();
+
+    private int capacity;
+    private long schemaVersion;
+
+    @Getter
+    private long hits = 0;
+    @Getter
+    private long misses = 0;
+
+
+    PreparedStatementCache( int capacity ) {
+        this.capacity = capacity;
+    }
+
+
+    /**
+     * Returns a cached statement for the given SQL, or prepares and caches a new one.
+     *
+     * @param connection The connection used to prepare new statements
+     * @param sql The SQL of the statement
+     * @param schemaVersion Changes whenever the schema of the underlying database has been modified. All cached statements are closed if it differs from the last call.
+     * @return The statement or {@code null} if the cached statement for this SQL is currently in use
+     */
+    synchronized PreparedStatement acquire( Connection connection, String sql, long schemaVersion ) throws SQLException {
+        if ( schemaVersion != this.schemaVersion ) {
+            clear();
+            this.schemaVersion = schemaVersion;
+        }
+        Entry entry = entries.get( sql );
+        if ( entry != null ) {
+            if ( entry.inUse ) {
+                return null;
+            }
+            hits++;
+            entry.inUse = true;
+            return entry.statement;
+        }
+        misses++;
+        entry = new Entry( connection.prepareStatement( sql ) );
+        entry.inUse = true;
+        entries.put( sql, entry );
+        statements.put( entry.statement, entry );
+        evict();
+        return entry.statement;
+    }
+
+
+    /**
+     * Returns a statement to the cache.
+     *
+     * @return {@code false} if the statement is not managed by this cache
+     */
+    synchronized boolean release( Statement statement ) {
+        Entry entry = statements.get( statement );
+        if ( entry == null ) {
+            return false;
+        }
+        entry.inUse = false;
+        if ( entry.evicted ) {
+            statements.remove( statement );
+            close( entry );
+        } else {
+            try {
+                // Rows of a failed or aborted batch would otherwise be executed by the next user of the statement
+                entry.statement.clearBatch();
+                entry.statement.clearParameters();
+                entry.statement.setQueryTimeout( 0 );
+            } catch ( SQLException e ) {
+                log.debug( "Unable to reset cached statement, closing it", e );
+                entries.values().remove( entry );
+                statements.remove( statement );
+                close( entry );
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Returns the JDBC types of the parameters of a statement. For cached statements, the parameter metadata is only
+     * requested once from the driver.
+     */
+    synchronized int[] getParameterTypes( PreparedStatement statement ) throws SQLException {
+        Entry entry = statements.get( statement );
+        if ( entry == null ) {
+            return readParameterTypes( statement );
+        }
+        if ( entry.parameterTypes == null ) {
+            entry.parameterTypes = readParameterTypes( statement );
+        }
+        return entry.parameterTypes;
+    }
+
+
+    static int[] readParameterTypes( PreparedStatement statement ) throws SQLException {
+        ParameterMetaData metaData = statement.getParameterMetaData();
+        int[] types = new int[metaData.getParameterCount()];
+        for ( int i = 0; i < types.length; i++ ) {
+            types[i] = metaData.getParameterType( i + 1 );
+        }
+        return types;
+    }
+
+
+    /**
+     * Marks all statements as unused. Called at the end of a transaction, statements which have not been released
+     * properly are reused afterwards.
+     */
+    synchronized void releaseAll() {
+        for ( Entry entry : new ArrayList<>( statements.values() ) ) {
+            if ( entry.inUse ) {
+                release( entry.statement );
+            }
+        }
+    }
+
+
+    synchronized void setCapacity( int capacity ) {
+        this.capacity = capacity;
+        evict();
+    }
+
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+
+    /**
+     * Closes all statements which are not in use, the others are closed as soon as they are released.
+     */
+    synchronized void clear() {
+        List<Entry> closed = new ArrayList<>();
+        for ( Entry entry : entries.values() ) {
+            entry.evicted = true;
+            if ( !entry.inUse ) {
+                closed.add( entry );
+            }
+        }
+        entries.clear();
+        for ( Entry entry : closed ) {
+            statements.remove( entry.statement );
+            close( entry );
+        }
+    }
+
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while ( entries.size() > capacity && iterator.hasNext() ) {
+            Entry entry = iterator.next();
+            iterator.remove();
+            entry.evicted = true;
+            if ( !entry.inUse ) {
+                statements.remove( entry.statement );
+                close( entry );
+            }
+        }
+    }
+
+
+    private static void close( Entry entry ) {
+        try {
+            entry.statement.close();
+        } catch ( SQLException e ) {
+            log.debug( "Exception while closing cached statement", e );
+        }
+    }
+
+
+    private static class Entry {
+
+        private final PreparedStatement statement;
+        private int[] parameterTypes;
+        private boolean inUse = false;
+        private boolean evicted = false;
+
+
+        private Entry( PreparedStatement statement ) {
+            this.statement = statement;
+        }
+
+    }
+
+}
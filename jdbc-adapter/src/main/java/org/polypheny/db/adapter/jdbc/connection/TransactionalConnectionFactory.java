@@ -19,11 +19,11 @@
 
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.transaction.xa.Xid;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -41,6 +41,9 @@ public class TransactionalConnectionFactory implements ConnectionFactory {
     protected final Queue<TransactionalConnectionHandler> freeInstances;
 
     private final int maxConnections;
+    private final AtomicLong schemaVersion = new AtomicLong();
+    private volatile int statementCacheSize = 0;
+    private volatile int fetchSize = 0;
     private final BasicDataSource dataSource;
 
     private final SqlDialect dialect;
@@ -60,6 +63,7 @@ public TransactionalConnectionFactory( BasicDataSource dataSource, int maxConnec
     public TransactionalConnectionHandler getOrCreateConnectionHandler( Xid xid ) throws ConnectionHandlerException {
         if ( !activeInstances.containsKey( xid ) ) {
             TransactionalConnectionHandler transactionHandler = getFreeTransactionHandler();
+            transactionHandler.configure( statementCacheSize, fetchSize );
             transactionHandler.xid = xid;
             activeInstances.put( xid, transactionHandler );
             return transactionHandler;
@@ -113,6 +117,13 @@ private TransactionalConnectionHandler getFreeTransactionHandler() throws Connec
     }
 
 
+    @Override
+    public void setStatementOptions( int statementCacheSize, int fetchSize ) {
+        this.statementCacheSize = statementCacheSize;
+        this.fetchSize = fetchSize;
+    }
+
+
     @Override
     public int getMaxTotal() {
         return maxConnections;
@@ -143,6 +154,7 @@ public class TransactionalConnectionHandler extends ConnectionHandler {
             super();
             try {
                 this.connection = connection;
+                this.schemaVersion = TransactionalConnectionFactory.this.schemaVersion;
                 this.statement = connection.createStatement();
                 this.dialect = dialect;
             } catch ( SQLException e ) {
@@ -184,15 +196,8 @@ public void rollback() throws ConnectionHandlerException {
         private void close() {
             log.debug( "Closing a transaction handler. Size of freeInstances before closing: {}", freeInstances.size() );
             try {
-                if ( openStatements != null ) {
-                    for ( Statement openStatement : openStatements ) {
-                        openStatement.close();
-                    }
-                }
-            } catch ( SQLException e ) {
-                log.debug( "Exception while closing connections in connection handler", e );
+                closeStatements();
             } finally {
-                openStatements = null;
                 activeInstances.remove( xid );
                 xid = null;
                 freeInstances.add( this );
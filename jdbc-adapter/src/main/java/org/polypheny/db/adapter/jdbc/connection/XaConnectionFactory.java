@@ -18,11 +18,11 @@
 
 
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.sql.XAConnection;
 import javax.sql.XADataSource;
 import javax.transaction.xa.XAException;
@@ -43,6 +43,9 @@ public class XaConnectionFactory implements ConnectionFactory {
     protected final Queue<XaConnectionHandler> freeInstances;
 
     private final int maxConnections;
+    private final AtomicLong schemaVersion = new AtomicLong();
+    private volatile int statementCacheSize = 0;
+    private volatile int fetchSize = 0;
     private final XADataSource dataSource;
 
     @Getter
@@ -63,6 +66,7 @@ public XaConnectionFactory( XADataSource dataSource, int maxConnections, SqlDial
     public XaConnectionHandler getOrCreateConnectionHandler( Xid xid ) throws ConnectionHandlerException {
         if ( !activeInstances.containsKey( xid ) ) {
             XaConnectionHandler xaConnectionHandler = getFreeTransactionHandler();
+            xaConnectionHandler.configure( statementCacheSize, fetchSize );
             xaConnectionHandler.init( xid );
             activeInstances.put( xid, xaConnectionHandler );
             return xaConnectionHandler;
@@ -116,6 +120,13 @@ private XaConnectionHandler getFreeTransactionHandler() throws ConnectionHandler
     }
 
 
+    @Override
+    public void setStatementOptions( int statementCacheSize, int fetchSize ) {
+        this.statementCacheSize = statementCacheSize;
+        this.fetchSize = fetchSize;
+    }
+
+
     @Override
     public int getMaxTotal() {
         return maxConnections;
@@ -148,6 +159,7 @@ public class XaConnectionHandler extends ConnectionHandler {
             try {
                 xaResource = xaConnection.getXAResource();
                 connection = xaConnection.getConnection();
+                schemaVersion = XaConnectionFactory.this.schemaVersion;
                 statement = connection.createStatement();
                 this.dialect = dialect;
             } catch ( SQLException e ) {
@@ -207,15 +219,8 @@ public void rollback() throws ConnectionHandlerException {
         private void close() {
             log.debug( "Closing a transaction handler. Size of freeInstances before closing: {}", freeInstances.size() );
             try {
-                if ( openStatements != null ) {
-                    for ( Statement openStatement : openStatements ) {
-                        openStatement.close();
-                    }
-                }
-            } catch ( SQLException e ) {
-                log.debug( "Exception while closing connections in connection handler", e );
+                closeStatements();
             } finally {
-                openStatements = null;
                 activeInstances.remove( xid );
                 xid = null;
                 freeInstances.add( this );
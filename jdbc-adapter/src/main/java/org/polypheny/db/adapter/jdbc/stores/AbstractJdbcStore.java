@@ -17,8 +17,11 @@
 package org.polypheny.db.adapter.jdbc.stores;
 
 
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -28,8 +31,11 @@
 import org.polypheny.db.adapter.DeployMode;
 import org.polypheny.db.adapter.jdbc.JdbcSchema;
 import org.polypheny.db.adapter.jdbc.JdbcUtils;
+import org.polypheny.db.adapter.jdbc.ResultSetEnumerable;
 import org.polypheny.db.adapter.jdbc.connection.ConnectionFactory;
+import org.polypheny.db.adapter.jdbc.connection.ConnectionHandler;
 import org.polypheny.db.adapter.jdbc.connection.ConnectionHandlerException;
+import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.catalog.entity.CatalogColumn;
 import org.polypheny.db.catalog.entity.CatalogColumnPlacement;
 import org.polypheny.db.catalog.entity.CatalogPartitionPlacement;
@@ -76,6 +82,7 @@ public AbstractJdbcStore(
         } else {
             throw new RuntimeException( "Unknown deploy mode: " + deployMode.name() );
         }
+        applyStatementOptions();
 
         // Register the JDBC Pool Size as information in the information manager and enable it
         registerJdbcInformation();
@@ -85,6 +92,17 @@ public AbstractJdbcStore(
     }
 
 
+    /**
+     * Passes the statement cache size and the fetch size to the connection factory. Stores deployed before these
+     * settings have been introduced do not have them, hence the defaults are used.
+     */
+    protected void applyStatementOptions() {
+        connectionFactory.setStatementOptions(
+                Integer.parseInt( settings.getOrDefault( "statementCacheSize", "32" ) ),
+                Integer.parseInt( settings.getOrDefault( "fetchSize", "0" ) ) );
+    }
+
+
     protected ConnectionFactory deployDocker( int dockerInstanceId ) {
         throw new UnsupportedOperationException();
     }
@@ -369,6 +387,77 @@ public void truncate( Context context, CatalogTable catalogTable ) {
     }
 
 
+    @Override
+    public boolean supportsBulkLoad() {
+        return true;
+    }
+
+
+    @Override
+    public long bulkLoad( Context context, CatalogTable catalogTable, long partitionId, List<CatalogColumnPlacement> columnPlacements, Iterator<List<Object>> rows ) {
+        CatalogPartitionPlacement partitionPlacement = catalog.getPartitionPlacement( getAdapterId(), partitionId );
+        String physicalTableName = dialect.quoteIdentifier( partitionPlacement.physicalSchemaName ) + "." + dialect.quoteIdentifier( partitionPlacement.physicalTableName );
+        List<String> physicalColumnNames = new ArrayList<>( columnPlacements.size() );
+        List<AlgDataType> types = new ArrayList<>( columnPlacements.size() );
+        for ( CatalogColumnPlacement placement : columnPlacements ) {
+            physicalColumnNames.add( dialect.quoteIdentifier( placement.physicalColumnName ) );
+            types.add( catalog.getColumn( placement.columnId ).getAlgDataType( context.getTypeFactory() ) );
+        }
+        try {
+            context.getStatement().getTransaction().registerInvolvedAdapter( this );
+            ConnectionHandler connectionHandler = connectionFactory.getOrCreateConnectionHandler( context.getStatement().getTransaction().getXid() );
+            return bulkLoad( connectionHandler, physicalTableName, physicalColumnNames, types, rows );
+        } catch ( SQLException | ConnectionHandlerException e ) {
+            throw new RuntimeException( e );
+        }
+    }
+
+
+    /**
+     * Inserts the rows using batches of a prepared INSERT statement. Stores overwrite this if the database provides
+     * a faster way of loading data.
+     *
+     * @param physicalTableName The qualified and quoted name of the physical table
+     * @param physicalColumnNames The quoted names of the physical columns
+     * @param types The types of the columns
+     */
+    protected long bulkLoad( ConnectionHandler connectionHandler, String physicalTableName, List<String> physicalColumnNames, List<AlgDataType> types, Iterator<List<Object>> rows ) throws SQLException {
+        StringBuilder builder = new StringBuilder();
+        builder.append( "INSERT INTO " )
+                .append( physicalTableName )
+                .append( " ( " )
+                .append( String.join( ", ", physicalColumnNames ) )
+                .append( " ) VALUES ( " )
+                .append( String.join( ", ", Collections.nCopies( physicalColumnNames.size(), "?" ) ) )
+                .append( " )" );
+        int batchSize = RuntimeConfig.DATA_MIGRATOR_BATCH_SIZE.getInteger();
+        PreparedStatement preparedStatement = connectionHandler.prepareStatement( builder.toString() );
+        try {
+            int[] sqlTypes = connectionHandler.getParameterTypes( preparedStatement );
+            long count = 0;
+            int pending = 0;
+            while ( rows.hasNext() ) {
+                List<Object> row = rows.next();
+                for ( int i = 0; i < types.size(); i++ ) {
+                    ResultSetEnumerable.setDynamicParam( preparedStatement, i + 1, row.get( i ), types.get( i ), sqlTypes[i], connectionHandler );
+                }
+                preparedStatement.addBatch();
+                count++;
+                if ( ++pending == batchSize ) {
+                    preparedStatement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if ( pending > 0 ) {
+                preparedStatement.executeBatch();
+            }
+            return count;
+        } finally {
+            connectionHandler.releaseStatement( preparedStatement );
+        }
+    }
+
+
     protected void executeUpdate( StringBuilder builder, Context context ) {
         try {
             context.getStatement().getTransaction().registerInvolvedAdapter( this );
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.jdbc.stores;
+
+
+import java.math.BigDecimal;
+import java.util.Calendar;
+import java.util.List;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.util.DateString;
+import org.polypheny.db.util.NlsString;
+import org.polypheny.db.util.TimeString;
+import org.polypheny.db.util.TimestampString;
+
+
+/**
+ * Encodes rows as CSV for the {@code COPY ... FROM STDIN WITH (FORMAT csv)} command of PostgreSQL. Null values are
+ * written as empty unquoted fields, all strings are quoted to distinguish empty strings from null values.
+ */
+final class CopyCsvEncoder {
+
+    private CopyCsvEncoder() {
+        // Utility class
+    }
+
+
+    /**
+     * Whether values of the given type can be encoded. Arrays and multimedia columns are not supported.
+     */
+    static boolean supports( PolyType type ) {
+        switch ( type ) {
+            case BOOLEAN:
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+            case REAL:
+            case DOUBLE:
+            case DECIMAL:
+            case CHAR:
+            case VARCHAR:
+            case JSON:
+            case DATE:
+            case TIME:
+            case TIMESTAMP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+
+    static void appendRow( StringBuilder builder, List<Object> row, List<PolyType> types ) {
+        for ( int i = 0; i < types.size(); i++ ) {
+            if ( i > 0 ) {
+                builder.append( ',' );
+            }
+            appendValue( builder, row.get( i ), types.get( i ) );
+        }
+        builder.append( '\n' );
+    }
+
+
+    static void appendValue( StringBuilder builder, Object value, PolyType type ) {
+        if ( value == null ) {
+            return;
+        }
+        switch ( type ) {
+            case CHAR:
+            case VARCHAR:
+            case JSON:
+                appendQuoted( builder, value instanceof NlsString ? ((NlsString) value).getValue() : value.toString() );
+                break;
+            case DATE:
+                if ( value instanceof Integer ) {
+                    builder.append( DateString.fromDaysSinceEpoch( (Integer) value ) );
+                } else if ( value instanceof Calendar ) {
+                    builder.append( DateString.fromCalendarFields( (Calendar) value ) );
+                } else {
+                    builder.append( value );
+                }
+                break;
+            case TIME:
+                if ( value instanceof Integer ) {
+                    builder.append( TimeString.fromMillisOfDay( (Integer) value ) );
+                } else if ( value instanceof Calendar ) {
+                    builder.append( TimeString.fromCalendarFields( (Calendar) value ) );
+                } else {
+                    builder.append( value );
+                }
+                break;
+            case TIMESTAMP:
+                if ( value instanceof Long ) {
+                    builder.append( TimestampString.fromMillisSinceEpoch( (Long) value ) );
+                } else if ( value instanceof Calendar ) {
+                    builder.append( TimestampString.fromCalendarFields( (Calendar) value ) );
+                } else {
+                    builder.append( value );
+                }
+                break;
+            default:
+                // Booleans and numbers
+                builder.append( value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString() );
+        }
+    }
+
+
+    private static void appendQuoted( StringBuilder builder, String value ) {
+        builder.append( '"' );
+        for ( int i = 0; i < value.length(); i++ ) {
+            char c = value.charAt( i );
+            if ( c == '"' ) {
+                builder.append( '"' );
+            }
+            builder.append( c );
+        }
+        builder.append( '"' );
+    }
+
+}
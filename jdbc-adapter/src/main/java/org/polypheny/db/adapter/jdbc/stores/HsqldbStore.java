@@ -63,6 +63,8 @@
 @AdapterSettingList(name = "trxControlMode", options = { "locks", "mvlocks", "mvcc" })
 @AdapterSettingList(name = "trxIsolationLevel", options = { "read_committed", "serializable" })
 @AdapterSettingList(name = "type", options = { "Memory", "File" })
+@AdapterSettingInteger(name = "statementCacheSize", defaultValue = 32, required = false, modifiable = true, description = "Number of prepared statements cached per connection. Zero disables the cache.")
+@AdapterSettingInteger(name = "fetchSize", defaultValue = 0, required = false, modifiable = true, description = "Number of rows fetched per round-trip when reading query results. Zero uses the default of the JDBC driver.")
 public class HsqldbStore extends AbstractJdbcStore {
 
     public HsqldbStore( final int storeId, final String uniqueName, final Map<String, String> settings ) {
@@ -199,7 +201,9 @@ public void shutdown() {
 
     @Override
     protected void reloadSettings( List<String> updatedSettings ) {
-        // There is no modifiable setting for this store
+        if ( updatedSettings.contains( "statementCacheSize" ) || updatedSettings.contains( "fetchSize" ) ) {
+            applyStatementOptions();
+        }
     }
 
 
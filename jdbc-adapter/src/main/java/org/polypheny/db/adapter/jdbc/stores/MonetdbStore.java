@@ -65,6 +65,8 @@
 @AdapterSettingString(name = "username", defaultValue = "polypheny", description = "Username to be used for authenticating at the remote instance.", position = 4, appliesTo = DeploySetting.REMOTE)
 @AdapterSettingString(name = "password", defaultValue = "polypheny", description = "Password to be used for authenticating at the remote instance.")
 @AdapterSettingInteger(name = "maxConnections", defaultValue = 25, description = "Maximum number of concurrent connections opened by Polypheny-DB to this data store.")
+@AdapterSettingInteger(name = "statementCacheSize", defaultValue = 32, required = false, modifiable = true, description = "Number of prepared statements cached per connection. Zero disables the cache.")
+@AdapterSettingInteger(name = "fetchSize", defaultValue = 0, required = false, modifiable = true, description = "Number of rows fetched per round-trip when reading query results. Zero uses the default of the JDBC driver.")
 public class MonetdbStore extends AbstractJdbcStore {
 
     private String host;
@@ -272,6 +274,9 @@ public List<FunctionalIndexInfo> getFunctionalIndexes( CatalogTable catalogTable
     @Override
     protected void reloadSettings( List<String> updatedSettings ) {
         // TODO: Implement disconnect and reconnect to MonetDB instance.
+        if ( updatedSettings.contains( "statementCacheSize" ) || updatedSettings.contains( "fetchSize" ) ) {
+            applyStatementOptions();
+        }
     }
 
 
@@ -18,12 +18,15 @@
 
 
 import com.google.common.collect.ImmutableList;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.dbcp2.BasicDataSource;
@@ -36,6 +39,7 @@
 import org.polypheny.db.adapter.jdbc.connection.ConnectionHandler;
 import org.polypheny.db.adapter.jdbc.connection.ConnectionHandlerException;
 import org.polypheny.db.adapter.jdbc.connection.TransactionalConnectionFactory;
+import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.catalog.Catalog;
 import org.polypheny.db.catalog.entity.CatalogColumn;
 import org.polypheny.db.catalog.entity.CatalogColumnPlacement;
@@ -54,6 +58,8 @@
 import org.polypheny.db.transaction.PolyXid;
 import org.polypheny.db.type.PolyType;
 import org.polypheny.db.type.PolyTypeFamily;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 
 
 @Slf4j
@@ -73,8 +79,14 @@
         description = "Password to be used for authenticating at the remote instance.")
 @AdapterSettingInteger(name = "maxConnections", defaultValue = 25,
         description = "Maximum number of concurrent JDBC connections.")
+@AdapterSettingInteger(name = "statementCacheSize", defaultValue = 32, required = false, modifiable = true,
+        description = "Number of prepared statements cached per connection. Zero disables the cache.")
+@AdapterSettingInteger(name = "fetchSize", defaultValue = 0, required = false, modifiable = true,
+        description = "Number of rows fetched per round-trip when reading query results. Zero uses the default of the JDBC driver.")
 public class PostgresqlStore extends AbstractJdbcStore {
 
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+
     private String host;
     private String database;
     private String username;
@@ -134,6 +146,43 @@ private ConnectionFactory createConnectionFactory() {
     }
 
 
+    /**
+     * Loads the rows using {@code COPY ... FROM STDIN}. The rows are encoded as CSV and streamed to the database in
+     * chunks. Tables with columns which cannot be encoded (arrays and multimedia) are loaded using prepared statements.
+     */
+    @Override
+    protected long bulkLoad( ConnectionHandler connectionHandler, String physicalTableName, List<String> physicalColumnNames, List<AlgDataType> types, Iterator<List<Object>> rows ) throws SQLException {
+        List<PolyType> polyTypes = types.stream().map( AlgDataType::getPolyType ).collect( Collectors.toList() );
+        if ( !polyTypes.stream().allMatch( CopyCsvEncoder::supports ) ) {
+            return super.bulkLoad( connectionHandler, physicalTableName, physicalColumnNames, types, rows );
+        }
+        String sql = "COPY " + physicalTableName + " ( " + String.join( ", ", physicalColumnNames ) + " ) FROM STDIN WITH ( FORMAT csv )";
+        CopyIn copyIn = connectionHandler.unwrap( PGConnection.class ).getCopyAPI().copyIn( sql );
+        try {
+            StringBuilder buffer = new StringBuilder();
+            while ( rows.hasNext() ) {
+                CopyCsvEncoder.appendRow( buffer, rows.next(), polyTypes );
+                if ( buffer.length() >= COPY_BUFFER_SIZE ) {
+                    writeToCopy( copyIn, buffer );
+                }
+            }
+            writeToCopy( copyIn, buffer );
+            return copyIn.endCopy();
+        } finally {
+            if ( copyIn.isActive() ) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+
+    private static void writeToCopy( CopyIn copyIn, StringBuilder buffer ) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes( StandardCharsets.UTF_8 );
+        copyIn.writeToCopy( bytes, 0, bytes.length );
+        buffer.setLength( 0 );
+    }
+
+
     @Override
     public void createUdfs() {
         PolyXid xid = PolyXid.generateLocalTransactionIdentifier( PUID.randomPUID( Type.CONNECTION ), PUID.randomPUID( Type.CONNECTION ) );
@@ -300,6 +349,9 @@ public List<FunctionalIndexInfo> getFunctionalIndexes( CatalogTable catalogTable
     @Override
     protected void reloadSettings( List<String> updatedSettings ) {
         // TODO: Implement disconnect and reconnect to PostgreSQL instance.
+        if ( updatedSettings.contains( "statementCacheSize" ) || updatedSettings.contains( "fetchSize" ) ) {
+            applyStatementOptions();
+        }
     }
 
 
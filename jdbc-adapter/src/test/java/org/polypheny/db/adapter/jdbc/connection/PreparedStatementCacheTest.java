@@ -0,0 +1,191 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.jdbc.connection;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+
+public class PreparedStatementCacheTest {
+
+    private final AtomicInteger prepared = new AtomicInteger();
+    private final AtomicInteger metaDataRequests = new AtomicInteger();
+    private final AtomicInteger pendingBatchRows = new AtomicInteger();
+    private final Set<Object> closed = new HashSet<>();
+
+    private final Connection connection = (Connection) Proxy.newProxyInstance(
+            getClass().getClassLoader(),
+            new Class[]{ Connection.class },
+            ( proxy, method, args ) -> {
+                if ( method.getName().equals( "prepareStatement" ) ) {
+                    prepared.incrementAndGet();
+                    return statement();
+                }
+                throw new UnsupportedOperationException( method.getName() );
+            } );
+
+
+    @Test
+    public void reuseReleasedStatements() throws SQLException {
+        PreparedStatementCache cache = new PreparedStatementCache( 2 );
+        PreparedStatement first = cache.acquire( connection, "SELECT 1", 0 );
+        assertTrue( cache.release( first ) );
+        assertSame( first, cache.acquire( connection, "SELECT 1", 0 ) );
+        assertEquals( 1, prepared.get() );
+        assertEquals( 1, cache.getHits() );
+        assertEquals( 1, cache.getMisses() );
+        assertFalse( closed.contains( first ) );
+    }
+
+
+    @Test
+    public void statementInUse() throws SQLException {
+        PreparedStatementCache cache = new PreparedStatementCache( 2 );
+        PreparedStatement first = cache.acquire( connection, "SELECT 1", 0 );
+        assertNull( cache.acquire( connection, "SELECT 1", 0 ) );
+
+        cache.releaseAll();
+        assertSame( first, cache.acquire( connection, "SELECT 1", 0 ) );
+    }
+
+
+    @Test
+    public void clearPendingBatchOnRelease() throws SQLException {
+        PreparedStatementCache cache = new PreparedStatementCache( 2 );
+        PreparedStatement statement = cache.acquire( connection, "INSERT INTO t VALUES (?)", 0 );
+        statement.addBatch();
+        statement.addBatch();
+        cache.release( statement );
+        assertEquals( 0, pendingBatchRows.get() );
+
+        // Also for statements which have not been released properly
+        statement = cache.acquire( connection, "INSERT INTO t VALUES (?)", 0 );
+        statement.addBatch();
+        cache.releaseAll();
+        assertEquals( 0, pendingBatchRows.get() );
+        assertFalse( closed.contains( statement ) );
+    }
+
+
+    @Test
+    public void evictLeastRecentlyUsed() throws SQLException {
+        PreparedStatementCache cache = new PreparedStatementCache( 2 );
+        PreparedStatement a = cache.acquire( connection, "a", 0 );
+        PreparedStatement b = cache.acquire( connection, "b", 0 );
+        cache.release( a );
+        cache.release( b );
+        cache.release( cache.acquire( connection, "a", 0 ) );
+        PreparedStatement c = cache.acquire( connection, "c", 0 );
+        assertTrue( closed.contains( b ) );
+        assertFalse( closed.contains( a ) );
+        assertEquals( 2, cache.size() );
+
+        // Statements which are in use are closed as soon as they are released
+        cache.setCapacity( 0 );
+        assertFalse( closed.contains( c ) );
+        assertTrue( closed.contains( a ) );
+        assertTrue( cache.release( c ) );
+        assertTrue( closed.contains( c ) );
+        assertFalse( cache.release( c ) );
+    }
+
+
+    @Test
+    public void invalidateOnSchemaChange() throws SQLException {
+        PreparedStatementCache cache = new PreparedStatementCache( 2 );
+        PreparedStatement first = cache.acquire( connection, "SELECT 1", 0 );
+        cache.release( first );
+        PreparedStatement second = cache.acquire( connection, "SELECT 1", 1 );
+        assertNotSame( first, second );
+        assertTrue( closed.contains( first ) );
+    }
+
+
+    @Test
+    public void resolveParameterTypesOnce() throws SQLException {
+        PreparedStatementCache cache = new PreparedStatementCache( 2 );
+        PreparedStatement statement = cache.acquire( connection, "SELECT ?, ?", 0 );
+        assertArrayEquals( new int[]{ Types.INTEGER, Types.INTEGER }, cache.getParameterTypes( statement ) );
+        cache.release( statement );
+        statement = cache.acquire( connection, "SELECT ?, ?", 0 );
+        cache.getParameterTypes( statement );
+        assertEquals( 1, metaDataRequests.get() );
+    }
+
+
+    private PreparedStatement statement() {
+        ParameterMetaData metaData = (ParameterMetaData) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class[]{ ParameterMetaData.class },
+                ( proxy, method, args ) -> {
+                    switch ( method.getName() ) {
+                        case "getParameterCount":
+                            return 2;
+                        case "getParameterType":
+                            return Types.INTEGER;
+                        default:
+                            throw new UnsupportedOperationException( method.getName() );
+                    }
+                } );
+        return (PreparedStatement) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class[]{ PreparedStatement.class },
+                ( proxy, method, args ) -> {
+                    switch ( method.getName() ) {
+                        case "close":
+                            closed.add( proxy );
+                            return null;
+                        case "getParameterMetaData":
+                            metaDataRequests.incrementAndGet();
+                            return metaData;
+                        case "addBatch":
+                            pendingBatchRows.incrementAndGet();
+                            return null;
+                        case "clearBatch":
+                            pendingBatchRows.set( 0 );
+                            return null;
+                        case "clearParameters":
+                        case "setQueryTimeout":
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode( proxy );
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException( method.getName() );
+                    }
+                } );
+    }
+
+}
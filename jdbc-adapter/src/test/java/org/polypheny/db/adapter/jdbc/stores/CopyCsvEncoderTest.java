@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.jdbc.stores;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import org.junit.Test;
+import org.polypheny.db.type.PolyType;
+
+
+public class CopyCsvEncoderTest {
+
+    @Test
+    public void encodeRow() {
+        StringBuilder builder = new StringBuilder();
+        CopyCsvEncoder.appendRow(
+                builder,
+                Arrays.asList( 1, "a \"quoted\", value", new BigDecimal( "1E+3" ), true, null, "" ),
+                Arrays.asList( PolyType.INTEGER, PolyType.VARCHAR, PolyType.DECIMAL, PolyType.BOOLEAN, PolyType.VARCHAR, PolyType.VARCHAR ) );
+        assertEquals( "1,\"a \"\"quoted\"\", value\",1000,true,,\"\"\n", builder.toString() );
+    }
+
+
+    @Test
+    public void encodeTemporalValues() {
+        StringBuilder builder = new StringBuilder();
+        CopyCsvEncoder.appendRow(
+                builder,
+                Arrays.asList( 18262, 45_296_789, 1_577_881_800_000L ),
+                Arrays.asList( PolyType.DATE, PolyType.TIME, PolyType.TIMESTAMP ) );
+        assertEquals( "2020-01-01,12:34:56.789,2020-01-01 12:30:00\n", builder.toString() );
+    }
+
+
+    @Test
+    public void supportedTypes() {
+        assertTrue( CopyCsvEncoder.supports( PolyType.VARCHAR ) );
+        assertTrue( CopyCsvEncoder.supports( PolyType.TIMESTAMP ) );
+        assertFalse( CopyCsvEncoder.supports( PolyType.ARRAY ) );
+        assertFalse( CopyCsvEncoder.supports( PolyType.IMAGE ) );
+    }
+
+}
@@ -17,14 +17,23 @@
 package org.polypheny.db.monitoring.core;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.monitoring.events.MonitoringDataPoint;
 import org.polypheny.db.monitoring.events.MonitoringEvent;
 import org.polypheny.db.monitoring.events.QueryPostCost;
+import org.polypheny.db.monitoring.events.metrics.QueryPostCostImpl;
 import org.polypheny.db.monitoring.repository.PersistentMonitoringRepository;
+import org.polypheny.db.util.background.BackgroundTask.TaskPriority;
+import org.polypheny.db.util.background.BackgroundTask.TaskSchedulingType;
+import org.polypheny.db.util.background.BackgroundTaskManager;
 
 
 @Slf4j
@@ -33,6 +42,12 @@ public class MonitoringServiceImpl implements MonitoringService {
     private final MonitoringQueue monitoringQueue;
     private final PersistentMonitoringRepository repository;
 
+    // Execution times are kept in memory and persisted asynchronously
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final Set<String> modifiedQueryClasses = ConcurrentHashMap.newKeySet();
+    private final Object persistenceLock = new Object();
+    private volatile String persistenceTaskId;
+
 
     public MonitoringServiceImpl(
             @NonNull MonitoringQueue monitoringQueue,
@@ -103,25 +118,91 @@ public void resetAllDataPoints() {
 
     @Override
     public QueryPostCost getQueryPostCosts( String physicalQueryClass ) {
-        return this.repository.getQueryPostCosts( physicalQueryClass );
+        LatencyHistogram histogram = getQueryLatencies( physicalQueryClass );
+        return new QueryPostCostImpl( physicalQueryClass, (long) histogram.getMean(), (int) Math.min( Integer.MAX_VALUE, histogram.getSamples() ) );
     }
 
 
     @Override
     public List<QueryPostCost> getAllQueryPostCosts() {
+        persistQueryPostCosts();
         return this.repository.getAllQueryPostCosts();
     }
 
 
+    /**
+     * Updates the in-memory latency distribution. The post costs are persisted asynchronously by a background task.
+     */
     @Override
     public void updateQueryPostCosts( @NonNull String physicalQueryClass, long executionTime ) {
-        this.repository.updateQueryPostCosts( physicalQueryClass, executionTime );
+        getQueryLatencies( physicalQueryClass ).record( executionTime );
+        modifiedQueryClasses.add( physicalQueryClass );
+        registerPersistenceTask();
+    }
+
+
+    @Override
+    public LatencyHistogram getQueryLatencies( @NonNull String physicalQueryClass ) {
+        return latencies.computeIfAbsent( physicalQueryClass, this::loadQueryLatencies );
     }
 
 
     @Override
     public void resetQueryPostCosts() {
-        this.repository.resetQueryPostCosts();
+        synchronized ( persistenceLock ) {
+            latencies.clear();
+            modifiedQueryClasses.clear();
+            this.repository.resetQueryPostCosts();
+        }
+    }
+
+
+    /**
+     * Restores the latency distribution of a physical query class from the persisted mean execution time. The
+     * repository is only accessed once per query class.
+     */
+    private LatencyHistogram loadQueryLatencies( String physicalQueryClass ) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        QueryPostCost postCost = this.repository.getQueryPostCosts( physicalQueryClass );
+        if ( postCost != null && postCost.getNumberOfSamples() > 0 ) {
+            histogram.record( postCost.getExecutionTime(), Math.min( postCost.getNumberOfSamples(), LatencyHistogram.DEFAULT_HALF_LIFE ) );
+        }
+        return histogram;
+    }
+
+
+    private void registerPersistenceTask() {
+        if ( persistenceTaskId == null ) {
+            synchronized ( persistenceLock ) {
+                if ( persistenceTaskId == null ) {
+                    persistenceTaskId = BackgroundTaskManager.INSTANCE.registerTask(
+                            this::persistQueryPostCosts,
+                            "Persist aggregated query post costs",
+                            TaskPriority.LOW,
+                            TaskSchedulingType.EVERY_FIVE_SECONDS );
+                }
+            }
+        }
+    }
+
+
+    private void persistQueryPostCosts() {
+        synchronized ( persistenceLock ) {
+            if ( modifiedQueryClasses.isEmpty() ) {
+                return;
+            }
+            List<QueryPostCost> postCosts = new ArrayList<>();
+            for ( Iterator<String> iterator = modifiedQueryClasses.iterator(); iterator.hasNext(); ) {
+                String physicalQueryClass = iterator.next();
+                iterator.remove();
+                postCosts.add( getQueryPostCosts( physicalQueryClass ) );
+            }
+            try {
+                this.repository.storeQueryPostCosts( postCosts );
+            } catch ( Exception e ) {
+                log.warn( "Unable to persist query post costs", e );
+            }
+        }
     }
 
 }
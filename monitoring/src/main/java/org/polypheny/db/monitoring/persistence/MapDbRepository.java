@@ -203,6 +203,22 @@ public void updateQueryPostCosts( @NonNull String physicalQueryClass, long execu
     }
 
 
+    @Override
+    public void storeQueryPostCosts( @NonNull List<QueryPostCost> postCosts ) {
+        if ( queryPostCosts == null ) {
+            this.initializePostCosts();
+        }
+
+        for ( QueryPostCost postCost : postCosts ) {
+            queryPostCosts.put(
+                    postCost.getPhysicalQueryClass(),
+                    new QueryPostCostImpl( postCost.getPhysicalQueryClass(), postCost.getExecutionTime(), postCost.getNumberOfSamples() ) );
+        }
+
+        this.simpleBackendDb.commit();
+    }
+
+
     @Override
     public void resetQueryPostCosts() {
         if ( queryPostCosts == null ) {
@@ -35,6 +35,7 @@
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -119,6 +120,9 @@
 
     private final Queue<Long> tablesToUpdate = new ConcurrentLinkedQueue<>();
 
+    // Guards the updates of the table calls; a lock instead of a monitor, as it is taken on the query path
+    private final ReentrantLock callsLock = new ReentrantLock();
+
     private Transaction transaction;
     private Statement statement;
 
@@ -328,7 +332,7 @@ private void deleteTable( long schemaId, long tableId ) {
     /**
      * Replace the tracked statistics with new statistics.
      */
-    private synchronized void replaceStatistics( Map<Long, Map<Long, Map<Long, StatisticColumn<T>>>> map ) {
+    private void replaceStatistics( Map<Long, Map<Long, Map<Long, StatisticColumn<T>>>> map ) {
         this.statisticSchemaMap = new ConcurrentHashMap<>( map );
     }
 
@@ -1106,14 +1110,22 @@ public void setTableCalls( long tableId, String kind ) {
     /**
      * Updates the TableCalls.
      */
-    private synchronized void updateCalls( long tableId, String kind, TableCalls calls ) {
-        StatisticTable<T> statisticTable;
-        if ( tableStatistic.containsKey( tableId ) ) {
-            statisticTable = tableStatistic.remove( tableId );
-        } else {
-            statisticTable = new StatisticTable( tableId );
+    private void updateCalls( long tableId, String kind, TableCalls calls ) {
+        callsLock.lock();
+        try {
+            // Not removed while updating, readers of the row count would otherwise miss the table
+            StatisticTable<T> statisticTable = tableStatistic.get( tableId );
+            if ( statisticTable == null ) {
+                statisticTable = new StatisticTable<>( tableId );
+            }
+            updateCalls( statisticTable, tableId, kind, calls );
+        } finally {
+            callsLock.unlock();
         }
+    }
 
+
+    private void updateCalls( StatisticTable<T> statisticTable, long tableId, String kind, TableCalls calls ) {
         switch ( kind ) {
             case "SELECT":
                 statisticTable.setCalls( new TableCalls(
@@ -1221,12 +1233,9 @@ public Object getTableStatistic( long schemaId, long tableId ) {
      * @return the number of rows of a given table
      */
     @Override
-    public synchronized Integer rowCountPerTable( long tableId ) {
-        if ( tableStatistic.containsKey( tableId ) ) {
-            return tableStatistic.get( tableId ).getNumberOfRows();
-        } else {
-            return null;
-        }
+    public Integer rowCountPerTable( long tableId ) {
+        StatisticTable<T> statisticTable = tableStatistic.get( tableId );
+        return statisticTable == null ? null : statisticTable.getNumberOfRows();
     }
 
 
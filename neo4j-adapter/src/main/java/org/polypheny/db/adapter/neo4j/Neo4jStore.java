@@ -77,6 +77,7 @@
         usedModes = { DeployMode.DOCKER },
         supportedNamespaceTypes = { NamespaceType.GRAPH, NamespaceType.RELATIONAL })
 @AdapterSettingInteger(name = "port", defaultValue = 7687)
+@AdapterSettingInteger(name = "batchSize", description = "The number of parameter rows which are sent to Neo4j in one statement when executing a modification for many rows", defaultValue = 1000, required = false, modifiable = true)
 public class Neo4jStore extends DataStore {
 
     @Getter
@@ -98,11 +99,15 @@ public class Neo4jStore extends DataStore {
     private final TransactionProvider transactionProvider;
     private String host;
 
+    @Getter
+    private int batchSize;
+
 
     public Neo4jStore( int adapterId, String uniqueName, Map<String, String> settings ) {
         super( adapterId, uniqueName, settings, Boolean.parseBoolean( settings.get( "persistent" ) ) );
 
         this.port = Integer.parseInt( settings.get( "port" ) );
+        this.batchSize = Integer.parseInt( settings.getOrDefault( "batchSize", "1000" ) );
 
         this.pass = "test";
         this.user = "neo4j";
@@ -493,7 +498,9 @@ public void shutdown() {
 
     @Override
     protected void reloadSettings( List<String> updatedSettings ) {
-
+        if ( updatedSettings.contains( "batchSize" ) ) {
+            this.batchSize = Integer.parseInt( settings.getOrDefault( "batchSize", "1000" ) );
+        }
     }
 
 
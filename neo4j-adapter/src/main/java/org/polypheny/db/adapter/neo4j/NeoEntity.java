@@ -24,13 +24,11 @@
 import java.util.Map.Entry;
 import java.util.stream.Collectors;
 import lombok.Getter;
-import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.Enumerator;
 import org.apache.calcite.linq4j.Queryable;
 import org.apache.calcite.linq4j.function.Function1;
 import org.neo4j.driver.Record;
-import org.neo4j.driver.Result;
 import org.neo4j.driver.Transaction;
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.adapter.java.AbstractQueryableTable;
@@ -155,7 +153,8 @@ public Enumerator<T> enumerator() {
                     String.format( "MATCH (n:%s) RETURN %s", entity.physicalEntityName, buildAllQuery() ),
                     getTypes(),
                     getComponentType(),
-                    Map.of() ).enumerator();
+                    Map.of(),
+                    false ).enumerator();
         }
 
 
@@ -181,35 +180,26 @@ private String buildAllQuery() {
 
         /**
          * Executes the given query and returns a {@link Enumerable}, which returns the results when iterated.
+         * If the query is executed for multiple parameter rows, modifying queries send the rows in batches.
          *
          * @param query the query to execute
          * @param prepared mapping of parameters and their components if they are collections
+         * @param isDml if the query modifies the entity
          */
         @SuppressWarnings("UnusedDeclaration")
-        public Enumerable<T> execute( String query, List<PolyType> types, List<PolyType> componentTypes, Map<Long, Pair<PolyType, PolyType>> prepared ) {
+        public Enumerable<T> execute( String query, List<PolyType> types, List<PolyType> componentTypes, Map<Long, Pair<PolyType, PolyType>> prepared, boolean isDml ) {
             Transaction trx = getTrx();
 
             dataContext.getStatement().getTransaction().registerInvolvedAdapter( namespace.store );
 
-            List<Result> results = new ArrayList<>();
-            if ( dataContext.getParameterValues().size() == 1 ) {
-                results.add( trx.run( query, toParameters( dataContext.getParameterValues().get( 0 ), prepared ) ) );
-            } else if ( dataContext.getParameterValues().size() > 0 ) {
-                for ( Map<Long, Object> value : dataContext.getParameterValues() ) {
-                    results.add( trx.run( query, toParameters( value, prepared ) ) );
-                }
-            } else {
-                results.add( trx.run( query ) );
+            List<Map<String, Object>> parameterRows = new ArrayList<>();
+            for ( Map<Long, Object> values : dataContext.getParameterValues() ) {
+                parameterRows.add( toParameters( values, prepared ) );
             }
 
             Function1<Record, T> getter = NeoQueryable.getter( types, componentTypes );
 
-            return new AbstractEnumerable<>() {
-                @Override
-                public Enumerator<T> enumerator() {
-                    return new NeoEnumerator<>( results, getter );
-                }
-            };
+            return NeoEnumerator.execute( trx, query, parameterRows, isDml, namespace.store.getBatchSize(), getter );
         }
 
 
@@ -16,35 +16,84 @@
 
 package org.polypheny.db.adapter.neo4j;
 
+import com.google.common.collect.Lists;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.Enumerator;
 import org.apache.calcite.linq4j.function.Function1;
 import org.neo4j.driver.Record;
 import org.neo4j.driver.Result;
+import org.neo4j.driver.Transaction;
+import org.polypheny.db.adapter.neo4j.util.NeoUtil;
 
 
 /**
  * Neo4j representation of a {@link Enumerator}.
+ * The results are requested from the suppliers one after the other, once the previous result is exhausted.
  *
  * @param <T>
  */
 public class NeoEnumerator<T> implements Enumerator<T> {
 
-    private final List<Result> results;
+    private final List<Supplier<Result>> results;
     private final Function1<Record, T> getter;
     private Result result;
     private T current;
     private int pos = 0;
 
 
-    public NeoEnumerator( List<Result> results, Function1<Record, T> getter ) {
+    public NeoEnumerator( List<Supplier<Result>> results, Function1<Record, T> getter ) {
         this.results = results;
-        this.result = results.get( pos );
-        pos++;
         this.getter = getter;
     }
 
 
+    /**
+     * Executes the given query for all parameter rows and returns the records of all results.
+     * Modifying queries are executed right away, with up to <code>batchSize</code> parameter rows per statement.
+     * Reading queries are executed once per parameter row, but only when the records of the previous row have been
+     * consumed. Their records are streamed from Neo4j while they are iterated.
+     *
+     * @param trx the transaction to execute the query in
+     * @param query the query to execute
+     * @param parameterRows the parameters for every execution of the query, an empty list if the query has no parameters
+     * @param isDml whether the query modifies the data, which allows to execute the parameter rows as batch
+     * @param batchSize the maximal number of parameter rows per statement
+     * @param getter function which transforms the records
+     */
+    public static <T> Enumerable<T> execute( Transaction trx, String query, List<Map<String, Object>> parameterRows, boolean isDml, int batchSize, Function1<Record, T> getter ) {
+        final List<Supplier<Result>> results = new ArrayList<>();
+        if ( parameterRows.isEmpty() ) {
+            Result result = trx.run( query );
+            results.add( () -> result );
+        } else if ( parameterRows.size() == 1 ) {
+            Result result = trx.run( query, parameterRows.get( 0 ) );
+            results.add( () -> result );
+        } else if ( isDml ) {
+            String batchQuery = NeoUtil.asBatchQuery( query );
+            for ( List<Map<String, Object>> rows : Lists.partition( parameterRows, Math.max( batchSize, 1 ) ) ) {
+                Result result = trx.run( batchQuery, Map.of( NeoUtil.BATCH_ROWS, rows ) );
+                results.add( () -> result );
+            }
+        } else {
+            for ( Map<String, Object> parameters : parameterRows ) {
+                results.add( () -> trx.run( query, parameters ) );
+            }
+        }
+
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<T> enumerator() {
+                return new NeoEnumerator<>( results, getter );
+            }
+        };
+    }
+
+
     @Override
     public T current() {
         return current;
@@ -53,18 +102,18 @@ public T current() {
 
     @Override
     public boolean moveNext() {
-        if ( result.hasNext() ) {
-            this.current = getter.apply( result.next() );
-            return true;
+        while ( true ) {
+            if ( result != null && result.hasNext() ) {
+                this.current = getter.apply( result.next() );
+                return true;
+            }
+            if ( results.size() > pos ) {
+                this.result = results.get( pos ).get();
+                pos++;
+            } else {
+                return false;
+            }
         }
-        if ( results.size() > pos ) {
-            this.result = results.get( pos );
-            pos++;
-
-            return moveNext();
-        }
-
-        return false;
     }
 
 
@@ -76,7 +125,9 @@ public void reset() {
 
     @Override
     public void close() {
-        this.result.consume();
+        if ( this.result != null ) {
+            this.result.consume();
+        }
     }
 
 }
@@ -17,13 +17,11 @@
 package org.polypheny.db.adapter.neo4j;
 
 import java.lang.reflect.Type;
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import lombok.Getter;
-import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.AbstractQueryable;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.Enumerator;
@@ -34,7 +32,6 @@
 import org.apache.calcite.linq4j.tree.Expression;
 import org.neo4j.driver.Driver;
 import org.neo4j.driver.Record;
-import org.neo4j.driver.Result;
 import org.neo4j.driver.Transaction;
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.adapter.neo4j.rules.graph.NeoLpgScan;
@@ -177,17 +174,9 @@ public Enumerable<T> execute( String query, List<PolyType> types, List<PolyType>
 
             dataContext.getStatement().getTransaction().registerInvolvedAdapter( graph.store );
 
-            List<Result> results = new ArrayList<>();
-            results.add( trx.run( query ) );
-
             Function1<Record, T> getter = NeoQueryable.getter( types, componentTypes );
 
-            return new AbstractEnumerable<>() {
-                @Override
-                public Enumerator<T> enumerator() {
-                    return new NeoEnumerator<>( results, getter );
-                }
-            };
+            return NeoEnumerator.execute( trx, query, List.of(), false, graph.store.getBatchSize(), getter );
         }
 
 
@@ -176,7 +176,7 @@ private Result getRelationalImplement( EnumerableAlgImplementor implementor, Pre
                 blockBuilder.newName( "enumerable" ),
                 Expressions.call(
                         table,
-                        NeoMethod.EXECUTE.method, Expressions.constant( query ), fields, arrayFields, parameterClasses ) );
+                        NeoMethod.EXECUTE.method, Expressions.constant( query ), fields, arrayFields, parameterClasses, Expressions.constant( neoImplementor.isDml() ) ) );
 
         blockBuilder.add( Expressions.return_( null, enumerable ) );
 
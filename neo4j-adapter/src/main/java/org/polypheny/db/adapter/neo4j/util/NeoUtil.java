@@ -16,7 +16,9 @@
 
 package org.polypheny.db.adapter.neo4j.util;
 
+import static org.polypheny.db.adapter.neo4j.util.NeoStatements.as_;
 import static org.polypheny.db.adapter.neo4j.util.NeoStatements.edge_;
+import static org.polypheny.db.adapter.neo4j.util.NeoStatements.literal_;
 import static org.polypheny.db.adapter.neo4j.util.NeoStatements.node_;
 
 import java.math.BigDecimal;
@@ -238,6 +240,54 @@ static String asParameter( long key, boolean withDollar ) {
         }
     }
 
+    /**
+     * Name of the list parameter which holds the parameter rows of a batch query.
+     */
+    String BATCH_ROWS = "rows";
+
+    /**
+     * Name of the variable which holds the current parameter row of a batch query.
+     */
+    String BATCH_ROW = "row";
+
+    /**
+     * Rewrites a query which uses the parameters <code>$pX</code> into a query which is executed once for every entry of
+     * the list parameter <code>$rows</code>, by unwinding the list and replacing every parameter with <code>row.pX</code>.
+     * The parameters of a row are expected under the same names as for the original query (see {@link #asParameter(long, boolean)}).
+     *
+     * @param query the query which is executed once per parameter row
+     * @return the query which handles all parameter rows at once
+     */
+    static String asBatchQuery( String query ) {
+        StringBuilder builder = new StringBuilder( NeoStatements.unwind_( as_( literal_( "$" + BATCH_ROWS ), literal_( BATCH_ROW ) ) ).build() );
+        builder.append( "\n" );
+        char quote = 0;
+        for ( int i = 0; i < query.length(); i++ ) {
+            char c = query.charAt( i );
+            if ( quote != 0 ) {
+                builder.append( c );
+                if ( c == '\\' && i + 1 < query.length() ) {
+                    builder.append( query.charAt( ++i ) );
+                } else if ( c == quote ) {
+                    quote = 0;
+                }
+            } else if ( c == '\'' || c == '"' || c == '`' ) {
+                quote = c;
+                builder.append( c );
+            } else if ( c == '$'
+                    && i + 2 < query.length()
+                    && query.charAt( i + 1 ) == 'p'
+                    && Character.isDigit( query.charAt( i + 2 ) )
+                    && (i == 0 || !Character.isJavaIdentifierPart( query.charAt( i - 1 ) )) ) {
+                // the name of the parameter follows unchanged
+                builder.append( BATCH_ROW ).append( '.' );
+            } else {
+                builder.append( c );
+            }
+        }
+        return builder.toString();
+    }
+
     static String fixParameter( String name ) {
         if ( name.charAt( 0 ) == '$' ) {
             return "_" + name;
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.neo4j.util;
+
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+
+public class NeoUtilTest {
+
+    private static final String UNWIND = "UNWIND $rows AS row\n";
+
+
+    @Test
+    public void replacesParameters() {
+        assertEquals(
+                UNWIND + "CREATE (n:label {id: row.p0, name: row.p1})",
+                NeoUtil.asBatchQuery( "CREATE (n:label {id: $p0, name: $p1})" ) );
+    }
+
+
+    @Test
+    public void replacesParameterAtStart() {
+        assertEquals( UNWIND + "row.p0", NeoUtil.asBatchQuery( "$p0" ) );
+    }
+
+
+    @Test
+    public void replacesMultiDigitParameters() {
+        assertEquals(
+                UNWIND + "MATCH (n) WHERE n.a = row.p1 AND n.b = row.p10 AND n.c = row.p1 SET n.d = row.p10",
+                NeoUtil.asBatchQuery( "MATCH (n) WHERE n.a = $p1 AND n.b = $p10 AND n.c = $p1 SET n.d = $p10" ) );
+    }
+
+
+    @Test
+    public void keepsStringLiterals() {
+        assertEquals(
+                UNWIND + "CREATE (n {a: '$p1', b: \"$p2\", c: row.p3})",
+                NeoUtil.asBatchQuery( "CREATE (n {a: '$p1', b: \"$p2\", c: $p3})" ) );
+    }
+
+
+    @Test
+    public void keepsEscapedQuotesInLiterals() {
+        assertEquals(
+                UNWIND + "CREATE (n {a: 'it\\'s $p1', b: \"say \\\"$p2\\\"\", c: 'end\\\\', d: row.p4})",
+                NeoUtil.asBatchQuery( "CREATE (n {a: 'it\\'s $p1', b: \"say \\\"$p2\\\"\", c: 'end\\\\', d: $p4})" ) );
+    }
+
+
+    @Test
+    public void keepsOtherQuotesInLiterals() {
+        assertEquals(
+                UNWIND + "CREATE (n {a: \"it's $p1\", b: 'a \"$p2\"', c: row.p3})",
+                NeoUtil.asBatchQuery( "CREATE (n {a: \"it's $p1\", b: 'a \"$p2\"', c: $p3})" ) );
+    }
+
+
+    @Test
+    public void keepsQuotedIdentifiers() {
+        assertEquals(
+                UNWIND + "MATCH (n) RETURN n.`$p1` AS `x$p2`, row.p3",
+                NeoUtil.asBatchQuery( "MATCH (n) RETURN n.`$p1` AS `x$p2`, $p3" ) );
+    }
+
+
+    @Test
+    public void keepsIdentifiersContainingParameters() {
+        assertEquals(
+                UNWIND + "MATCH (n) RETURN n.a$p1, a$p2, row.p3",
+                NeoUtil.asBatchQuery( "MATCH (n) RETURN n.a$p1, a$p2, $p3" ) );
+    }
+
+
+    @Test
+    public void keepsOtherParameters() {
+        assertEquals(
+                UNWIND + "MATCH (n) WHERE n.a = $param AND n.b = $p AND n.c = $x1 RETURN row.p0",
+                NeoUtil.asBatchQuery( "MATCH (n) WHERE n.a = $param AND n.b = $p AND n.c = $x1 RETURN $p0" ) );
+    }
+
+}
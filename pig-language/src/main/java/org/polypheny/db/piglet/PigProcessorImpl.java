@@ -24,7 +24,10 @@
 import org.polypheny.db.algebra.AlgRoot;
 import org.polypheny.db.algebra.constant.Kind;
 import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.catalog.Catalog.QueryLanguage;
 import org.polypheny.db.languages.QueryParameters;
+import org.polypheny.db.monitoring.metrics.QueryMetrics;
+import org.polypheny.db.monitoring.metrics.QueryStage;
 import org.polypheny.db.nodes.Node;
 import org.polypheny.db.piglet.Ast.PigNode;
 import org.polypheny.db.piglet.Ast.Program;
@@ -63,6 +66,7 @@ public List<? extends Node> parse( String query ) {
             throw new RuntimeException( e );
         }
         stopWatch.stop();
+        QueryMetrics.INSTANCE.record( QueryStage.PARSE, QueryLanguage.PIG, null, stopWatch.getNanoTime() );
         if ( log.isTraceEnabled() ) {
             log.trace( "Parsed query: [{}]", parsed );
         }
@@ -81,9 +85,13 @@ public Pair<Node, AlgDataType> validate( Transaction transaction, Node parsed, b
 
     @Override
     public AlgRoot translate( Statement statement, Node query, QueryParameters parameters ) {
+        final long start = System.nanoTime();
+        statement.setLanguage( QueryLanguage.PIG );
         final PigAlgBuilder builder = PigAlgBuilder.create( statement );
         new Handler( builder ).handle( (PigNode) query );
-        return AlgRoot.of( builder.build(), Kind.SELECT );
+        final AlgRoot logicalRoot = AlgRoot.of( builder.build(), Kind.SELECT );
+        QueryMetrics.INSTANCE.recordSince( QueryStage.TRANSLATE, QueryLanguage.PIG, start );
+        return logicalRoot;
     }
 
 
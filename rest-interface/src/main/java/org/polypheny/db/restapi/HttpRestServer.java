@@ -41,12 +41,16 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import javax.servlet.MultipartConfigElement;
 import javax.servlet.ServletException;
 import javax.servlet.http.Part;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.thread.ExecutorThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.jetbrains.annotations.NotNull;
 import org.polypheny.db.catalog.Catalog;
 import org.polypheny.db.catalog.entity.CatalogUser;
@@ -68,6 +72,7 @@
 import org.polypheny.db.restapi.models.requests.ResourcePostRequest;
 import org.polypheny.db.transaction.TransactionManager;
 import org.polypheny.db.util.Util;
+import org.polypheny.db.util.VirtualThreads;
 
 
 @Slf4j
@@ -80,7 +85,12 @@ public class HttpRestServer extends QueryInterface {
     @SuppressWarnings("WeakerAccess")
     public static final List<QueryInterfaceSetting> AVAILABLE_SETTINGS = ImmutableList.of(
             new QueryInterfaceSettingInteger( "port", false, true, false, 8089 ),
-            new QueryInterfaceSettingInteger( "maxUploadSizeMb", false, true, true, 10000 )
+            new QueryInterfaceSettingInteger( "maxUploadSizeMb", false, true, true, 10000 ),
+            new QueryInterfaceSettingList( "responseFormat", false, true, true, ImmutableList.of( "JSON", "NDJSON" ) ),
+            new QueryInterfaceSettingBoolean( "chunkedTransfer", false, true, true, true ),
+            new QueryInterfaceSettingInteger( "maxResultRows", false, true, true, 0 ),
+            new QueryInterfaceSettingInteger( "maxResultSizeMb", false, true, true, 0 ),
+            new QueryInterfaceSettingBoolean( "virtualThreads", false, true, false, false )
     );
 
     private final Gson gson = new Gson();
@@ -132,18 +142,36 @@ public String toJsonString( @NotNull Object obj ) {
             }
 
         };
+        final boolean virtualThreads = VirtualThreads.useForRequests( Boolean.parseBoolean( settings.getOrDefault( "virtualThreads", "false" ) ), INTERFACE_NAME );
         restServer = Javalin.create( config -> {
             config.jsonMapper( gsonMapper );
             config.enableCorsForAllOrigins();
+            if ( virtualThreads ) {
+                config.server( () -> new Server( createVirtualThreadPool() ) );
+            }
         } ).start( port );
 
-        Rest rest = new Rest( transactionManager, Catalog.defaultUserId, Catalog.defaultDatabaseId );
+        Rest rest = new Rest( transactionManager, Catalog.defaultUserId, Catalog.defaultDatabaseId, settings );
         restRoutes( restServer, rest );
 
         log.info( "{} started and is listening on port {}.", INTERFACE_NAME, port );
     }
 
 
+    /**
+     * Creates a thread pool for Jetty which handles every request on a new virtual thread.
+     */
+    private ThreadPool createVirtualThreadPool() {
+        final ThreadFactory threadFactory = VirtualThreads.threadFactory( "HttpRestServer-" + uniqueName + "-", true );
+        return new ExecutorThreadPool( VirtualThreads.newRequestExecutor() ) {
+            @Override
+            protected Thread newThread( Runnable job ) {
+                return threadFactory.newThread( job );
+            }
+        };
+    }
+
+
     private void restRoutes( Javalin restServer, Rest rest ) {
         restServer.routes( () -> {
             path( "/restapi/v1", () -> {
@@ -344,7 +372,7 @@ public void shutdown() {
 
     @Override
     protected void reloadSettings( List<String> updatedSettings ) {
-        // There is no modifiable setting for this query interface
+        // The response settings are read for every request
     }
 
 
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.restapi;
+
+
+import io.javalin.http.Context;
+import java.util.Map;
+import lombok.Value;
+
+
+/**
+ * Defines how the result of a request is written into the HTTP response.
+ */
+@Value
+class ResponseOptions {
+
+    public static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+
+    /**
+     * Format of the response body
+     */
+    Format format;
+
+    /**
+     * Whether the result is streamed using chunked transfer encoding. Otherwise, the response is buffered to set the
+     * content length.
+     */
+    boolean chunked;
+
+    /**
+     * Maximum number of rows written into the response or zero for no limit
+     */
+    long maxRows;
+
+    /**
+     * Maximum number of bytes written into the response or zero for no limit
+     */
+    long maxBytes;
+
+
+    /**
+     * Derives the options from the settings of the query interface. Clients can request NDJSON by accepting
+     * {@value #NDJSON_CONTENT_TYPE}.
+     */
+    static ResponseOptions of( Map<String, String> settings, Context ctx ) {
+        Format format = Format.valueOf( settings.getOrDefault( "responseFormat", Format.JSON.name() ) );
+        String accept = ctx.header( "Accept" );
+        if ( accept != null && accept.contains( NDJSON_CONTENT_TYPE ) ) {
+            format = Format.NDJSON;
+        }
+        return new ResponseOptions(
+                format,
+                Boolean.parseBoolean( settings.getOrDefault( "chunkedTransfer", "true" ) ),
+                Long.parseLong( settings.getOrDefault( "maxResultRows", "0" ) ),
+                Long.parseLong( settings.getOrDefault( "maxResultSizeMb", "0" ) ) * 1_000_000L );
+    }
+
+
+    String getContentType() {
+        return format == Format.NDJSON ? NDJSON_CONTENT_TYPE : "application/json";
+    }
+
+
+    enum Format {
+        /**
+         * A single JSON object containing all rows in an array
+         */
+        JSON,
+        /**
+         * One JSON object per row, separated by newlines
+         */
+        NDJSON
+    }
+
+}
@@ -19,6 +19,7 @@
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.gson.Gson;
 import io.javalin.http.Context;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -29,6 +30,7 @@
 import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jetty.server.Request;
 import org.polypheny.db.PolyImplementation;
 import org.polypheny.db.adapter.java.JavaTypeFactory;
 import org.polypheny.db.algebra.AlgCollation;
@@ -86,15 +88,19 @@
 @Slf4j
 public class Rest {
 
+    private static final Gson gson = new Gson();
+
     private final TransactionManager transactionManager;
     private final long databaseId;
     private final long userId;
+    private final Map<String, String> settings;
 
 
-    Rest( final TransactionManager transactionManager, final long userId, final long databaseId ) {
+    Rest( final TransactionManager transactionManager, final long userId, final long databaseId, final Map<String, String> settings ) {
         this.transactionManager = transactionManager;
         this.databaseId = databaseId;
         this.userId = userId;
+        this.settings = settings;
     }
 
 
@@ -556,8 +562,15 @@ private Transaction getTransaction() {
     }
 
 
+    /**
+     * Executes the query and streams the result into the response. DML statements are committed before the response is
+     * written. Queries are committed after their rows have been written, as long as the response still fits into the
+     * response buffer, failures are reported with a proper error. Otherwise, the response is aborted.
+     *
+     * @return An empty string if the result has been written into the response, the error otherwise
+     */
     String executeAndTransformPolyAlg( AlgRoot algRoot, final Statement statement, final Context ctx ) {
-        RestResult restResult;
+        boolean committed = false;
         try {
             // Prepare
             PolyImplementation result = statement.getQueryProcessor().prepareQuery( algRoot, true );
@@ -565,26 +578,46 @@ String executeAndTransformPolyAlg( AlgRoot algRoot, final Statement statement, f
 
             final Iterable<Object> iterable = result.enumerable( statement.getDataContext() );
             Iterator<Object> iterator = iterable.iterator();
-            restResult = new RestResult( algRoot.kind, iterator, result.rowType, result.getColumns() );
-            restResult.transform();
-            long executionTime = restResult.getExecutionTime();
-            if ( !algRoot.kind.belongsTo( Kind.DML ) ) {
-                result.getExecutionTimeMonitor().setExecutionTime( executionTime );
+            RestResult restResult = new RestResult( algRoot.kind, iterator, result.rowType, result.getColumns() );
+            if ( algRoot.kind.belongsTo( Kind.DML ) ) {
+                restResult.consumeRowsChanged();
+                statement.getTransaction().commit();
+                committed = true;
+                restResult.writeTo( ctx, ResponseOptions.of( settings, ctx ) );
+            } else {
+                restResult.writeTo( ctx, ResponseOptions.of( settings, ctx ) );
+                result.getExecutionTimeMonitor().setExecutionTime( restResult.getExecutionTime() );
+                if ( restResult.isTruncated() ) {
+                    log.debug( "REST result has been truncated after {} rows.", restResult.getRowCount() );
+                }
+                statement.getTransaction().commit();
+                committed = true;
             }
-
-            statement.getTransaction().commit();
+            ctx.res.flushBuffer();
         } catch ( Throwable e ) {
             log.error( "Error during execution of REST query", e );
-            try {
-                statement.getTransaction().rollback();
-            } catch ( TransactionException transactionException ) {
-                log.error( "Could not rollback", e );
+            if ( !committed ) {
+                try {
+                    statement.getTransaction().rollback();
+                } catch ( TransactionException transactionException ) {
+                    log.error( "Could not rollback", e );
+                }
             }
-            return null;
+            if ( ctx.res.isCommitted() ) {
+                // Parts of the result have already been sent, the client must not mistake them for the complete result
+                Request.getBaseRequest( ctx.req ).getHttpChannel().abort( e );
+                return "";
+            }
+            ctx.res.resetBuffer();
+            ctx.status( 500 );
+            ctx.contentType( "application/json" );
+            Map<String, Object> bodyReturn = new HashMap<>();
+            bodyReturn.put( "system", "rest" );
+            bodyReturn.put( "error", "Error during execution of REST query" );
+            bodyReturn.put( "error_description", e.getMessage() );
+            return gson.toJson( bodyReturn );
         }
-        Pair<String, Integer> result = restResult.getResult( ctx );
-
-        return result.left;
+        return "";
     }
 
 }
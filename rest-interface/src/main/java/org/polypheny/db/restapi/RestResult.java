@@ -18,25 +18,29 @@
 
 
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import com.j256.simplemagic.ContentInfo;
 import com.j256.simplemagic.ContentInfoUtil;
 import io.javalin.http.Context;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PushbackInputStream;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.Blob;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -48,21 +52,37 @@
 import org.polypheny.db.algebra.constant.Kind;
 import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.algebra.type.AlgDataTypeField;
+import org.polypheny.db.restapi.ResponseOptions.Format;
 import org.polypheny.db.type.PolyType;
 import org.polypheny.db.type.PolyTypeFamily;
-import org.polypheny.db.util.Pair;
 
 
+/**
+ * Writes the result of a REST request directly from the enumerator into the HTTP response, without materializing
+ * the rows.
+ */
 @Slf4j
 public class RestResult {
 
+    private static final Gson gson = new Gson();
+
+    /**
+     * Number of bytes of a streamed response which are buffered before anything is sent to the client. As long as
+     * nothing has been sent, errors during the execution or the commit can still be reported with a proper status.
+     */
+    static final int RESPONSE_BUFFER_SIZE = 1 << 20;
+
     private final Kind Kind;
     private final Iterator<Object> iterator;
     private final AlgDataType dataType;
     List<ColumnMetaData> columns;
-    private List<Map<String, Object>> result;
     @Getter
     private long executionTime;
+    @Getter
+    private long rowCount;
+    @Getter
+    private boolean truncated;
+    private Integer rowsChanged;
 
     boolean containsFiles = false;
     File zipFile;
@@ -78,17 +98,131 @@ public RestResult( Kind Kind, Iterator<Object> iterator, AlgDataType dataType, L
     }
 
 
-    public RestResult transform() {
+    /**
+     * Consumes the result of a DML statement. This allows committing the transaction before the response is written.
+     *
+     * @return The number of modified rows
+     */
+    public int consumeRowsChanged() {
+        if ( rowsChanged == null ) {
+            rowsChanged = getRowsChanged();
+        }
+        return rowsChanged;
+    }
+
+
+    /**
+     * Writes the result into the response. Results containing multimedia objects are sent as zip file.
+     * The response is not flushed, the first {@link #RESPONSE_BUFFER_SIZE} bytes are kept in the buffer of the response.
+     */
+    public void writeTo( final Context ctx, final ResponseOptions options ) throws IOException {
+        boolean multimedia = dataType.getFieldList().stream().anyMatch( f -> f.getType().getPolyType().getFamily() == PolyTypeFamily.MULTIMEDIA );
+        if ( multimedia && !Kind.belongsTo( Kind.DML ) ) {
+            writeWithFiles( ctx, options );
+            return;
+        }
+        ctx.contentType( options.getContentType() );
+        if ( options.isChunked() ) {
+            ctx.res.setBufferSize( RESPONSE_BUFFER_SIZE );
+            write( ctx.res.getOutputStream(), options );
+        } else {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            write( buffer, options );
+            ctx.res.setContentLength( buffer.size() );
+            buffer.writeTo( ctx.res.getOutputStream() );
+        }
+    }
+
+
+    /**
+     * The rows are written into a temporary file while the multimedia objects are added to the zip file. If there
+     * are multimedia objects, the rows are added to the zip file as {@code data.json}, otherwise they are sent as they
+     * are.
+     */
+    private void writeWithFiles( final Context ctx, final ResponseOptions options ) throws IOException {
+        File dataFile = new File( System.getProperty( "user.home" ), ".polypheny/tmp/" + UUID.randomUUID() + ".json" );
+        dataFile.getParentFile().mkdirs();
+        try {
+            try ( OutputStream os = new FileOutputStream( dataFile ) ) {
+                write( os, options );
+            }
+            if ( !containsFiles ) {
+                ctx.contentType( options.getContentType() );
+                ctx.res.setContentLengthLong( dataFile.length() );
+                Files.copy( dataFile.toPath(), ctx.res.getOutputStream() );
+            } else {
+                zipOut.putNextEntry( new ZipEntry( "data.json" ) );
+                Files.copy( dataFile.toPath(), zipOut );
+                zipOut.close();
+                fos.close();
+                ctx.contentType( "application/octet-stream" );
+                ctx.res.setHeader( "Content-Disposition", "attachment; filename=result.zip" );
+                ctx.res.setContentLengthLong( zipFile.length() );
+                Files.copy( zipFile.toPath(), ctx.res.getOutputStream() );
+            }
+        } finally {
+            if ( dataFile.exists() && !dataFile.delete() ) {
+                log.warn( "Could not delete {}", dataFile.getAbsolutePath() );
+            }
+            if ( zipFile != null && zipFile.exists() && !zipFile.delete() ) {
+                log.warn( "Could not delete {}", zipFile.getAbsolutePath() );
+            }
+        }
+    }
+
+
+    private void write( final OutputStream os, final ResponseOptions options ) throws IOException {
+        CountingWriter counter = new CountingWriter( new BufferedWriter( new OutputStreamWriter( os, StandardCharsets.UTF_8 ) ) );
+        JsonWriter writer = gson.newJsonWriter( counter );
+        // Allows writing several top-level values for NDJSON
+        writer.setLenient( true );
+        boolean ndjson = options.getFormat() == Format.NDJSON;
+        if ( !ndjson ) {
+            writer.beginObject();
+            writer.name( "result" );
+            writer.beginArray();
+        }
         if ( Kind.belongsTo( Kind.DML ) ) {
-            transformDML();
+            writer.beginObject();
+            writer.name( columns.get( 0 ).columnName );
+            writer.value( consumeRowsChanged() );
+            writer.endObject();
+            rowCount = 1;
+            if ( ndjson ) {
+                counter.write( '\n' );
+            }
         } else {
-            transformNonDML();
+            StopWatch stopWatch = new StopWatch();
+            stopWatch.start();
+            while ( iterator.hasNext() ) {
+                if ( (options.getMaxRows() > 0 && rowCount >= options.getMaxRows()) || (options.getMaxBytes() > 0 && counter.getCount() >= options.getMaxBytes()) ) {
+                    truncated = true;
+                    break;
+                }
+                writeRow( writer, iterator.next() );
+                rowCount++;
+                if ( ndjson ) {
+                    counter.write( '\n' );
+                }
+            }
+            stopWatch.stop();
+            this.executionTime = stopWatch.getNanoTime();
+        }
+        if ( !ndjson ) {
+            writer.endArray();
+            writer.name( "size" );
+            writer.value( rowCount );
+            if ( truncated ) {
+                writer.name( "truncated" );
+                writer.value( true );
+            }
+            writer.endObject();
         }
-        return this;
+        writer.flush();
     }
 
 
-    private void transformDML() {
+    private int getRowsChanged() {
         Object object;
         int rowsChanged = -1;
         while ( iterator.hasNext() ) {
@@ -108,57 +242,42 @@ private void transformDML() {
             }
             rowsChanged = num;
         }
-        List<Map<String, Object>> result = new ArrayList<>();
-        HashMap<String, Object> map = new HashMap<>();
-        map.put( columns.get( 0 ).columnName, rowsChanged );
-        result.add( map );
-        this.result = result;
+        return rowsChanged;
     }
 
 
-    private void transformNonDML() {
-        StopWatch stopWatch = new StopWatch();
-        stopWatch.start();
-        List<Map<String, Object>> result = new ArrayList<>();
-        while ( iterator.hasNext() ) {
-            Object next = iterator.next();
-            Object[] row;
-            if ( next.getClass().isArray() ) {
-                row = (Object[]) next;
-            } else {
-                row = new Object[]{ next };
-            }
-            HashMap<String, Object> temp = new HashMap<>();
-            int i = 0;
-            for ( AlgDataTypeField type : dataType.getFieldList() ) {
-                Object o = row[i];
-                if ( type.getType().getPolyType().getFamily() == PolyTypeFamily.MULTIMEDIA ) {
-                    if ( o instanceof File ) {
-                        o = addZipEntry( o );
-                    } else if ( o instanceof InputStream || o instanceof Blob ) {
-                        o = addZipEntry( o );
-                    } else if ( o instanceof byte[] ) {
-                        o = addZipEntry( o );
-                    }
-                    temp.put( columns.get( i ).columnName, o );
+    private void writeRow( final JsonWriter writer, final Object next ) throws IOException {
+        Object[] row;
+        if ( next != null && next.getClass().isArray() ) {
+            row = (Object[]) next;
+        } else {
+            row = new Object[]{ next };
+        }
+        writer.beginObject();
+        int i = 0;
+        for ( AlgDataTypeField type : dataType.getFieldList() ) {
+            Object o = row[i];
+            writer.name( columns.get( i ).columnName );
+            if ( o == null ) {
+                writer.nullValue();
+            } else if ( type.getType().getPolyType().getFamily() == PolyTypeFamily.MULTIMEDIA ) {
+                if ( o instanceof File || o instanceof InputStream || o instanceof Blob || o instanceof byte[] ) {
+                    writer.value( addZipEntry( o ) );
                 } else {
-                    if ( type.getType().getPolyType().equals( PolyType.TIMESTAMP ) ) {
-                        Long nanoSeconds = (Long) o;
-                        LocalDateTime localDateTime = LocalDateTime.ofEpochSecond( nanoSeconds / 1000L, (int) ((nanoSeconds % 1000) * 1000), ZoneOffset.UTC );
-                        temp.put( columns.get( i ).columnName, localDateTime.toString() );
-                    } else if ( type.getType().getPolyType().equals( PolyType.TIME ) ) {
-                        temp.put( columns.get( i ).columnName, o.toString() );
-                    } else {
-                        temp.put( columns.get( i ).columnName, o );
-                    }
+                    gson.toJson( o, o.getClass(), writer );
                 }
-                i++;
+            } else if ( type.getType().getPolyType().equals( PolyType.TIMESTAMP ) ) {
+                Long nanoSeconds = (Long) o;
+                LocalDateTime localDateTime = LocalDateTime.ofEpochSecond( nanoSeconds / 1000L, (int) ((nanoSeconds % 1000) * 1000), ZoneOffset.UTC );
+                writer.value( localDateTime.toString() );
+            } else if ( type.getType().getPolyType().equals( PolyType.TIME ) ) {
+                writer.value( o.toString() );
+            } else {
+                gson.toJson( o, o.getClass(), writer );
             }
-            result.add( temp );
+            i++;
         }
-        stopWatch.stop();
-        this.executionTime = stopWatch.getNanoTime();
-        this.result = result;
+        writer.endObject();
     }
 
 
@@ -231,40 +350,58 @@ private String getContentType( Object o ) {
     }
 
 
-    public Pair<String, Integer> getResult( final Context ctx ) {
-        Gson gson = new Gson();
-        Map<String, Object> finalResult = new HashMap<>();
-        finalResult.put( "result", result );
-        finalResult.put( "size", result.size() );
-        if ( !containsFiles ) {
-            return new Pair( gson.toJson( finalResult ), finalResult.size() );
-        } else {
-            OutputStream os;
-            ZipEntry zipEntry = new ZipEntry( "data.json" );
-            try {
-                zipOut.putNextEntry( zipEntry );
-                zipOut.write( gson.toJson( finalResult ).getBytes( StandardCharsets.UTF_8 ) );
-                zipOut.close();
-                fos.close();
-                ctx.contentType( "application/octet-stream" );
-                //ctx.res().setContentType( "application/octet-stream" );
-                ctx.res.setHeader( "Content-Disposition", "attachment; filename=result.zip" );
-                os = ctx.res.getOutputStream();
-                FileInputStream fis = new FileInputStream( zipFile );
-                byte[] buf = new byte[2048];
-                int len;
-                while ( (len = fis.read( buf )) > 0 ) {
-                    os.write( buf, 0, len );
-                }
-                if ( !zipFile.delete() ) {
-                    log.warn( "Could not delete {}", zipFile.getAbsolutePath() );
-                }
-            } catch ( IOException e ) {
-                zipFile.delete();
-                ctx.status( 500 );
+    /**
+     * Counts the bytes of the UTF-8 encoding of the characters written, which is used to enforce the size limit of a
+     * response.
+     */
+    private static class CountingWriter extends FilterWriter {
+
+        @Getter
+        private long count;
+
+
+        CountingWriter( Writer out ) {
+            super( out );
+        }
+
+
+        @Override
+        public void write( int c ) throws IOException {
+            super.write( c );
+            count += encodedLength( (char) c );
+        }
+
+
+        @Override
+        public void write( char[] buffer, int off, int len ) throws IOException {
+            super.write( buffer, off, len );
+            for ( int i = off; i < off + len; i++ ) {
+                count += encodedLength( buffer[i] );
             }
-            return new Pair( "", finalResult.size() );
         }
+
+
+        @Override
+        public void write( String str, int off, int len ) throws IOException {
+            super.write( str, off, len );
+            for ( int i = off; i < off + len; i++ ) {
+                count += encodedLength( str.charAt( i ) );
+            }
+        }
+
+
+        /**
+         * Surrogate pairs are encoded with four bytes, hence two bytes are counted for each surrogate.
+         */
+        private static int encodedLength( char c ) {
+            if ( c < 0x80 ) {
+                return 1;
+            } else if ( c < 0x800 || Character.isSurrogate( c ) ) {
+                return 2;
+            }
+            return 3;
+        }
+
     }
 
 }
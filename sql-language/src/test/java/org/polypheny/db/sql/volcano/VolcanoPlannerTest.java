@@ -54,6 +54,7 @@
 import org.polypheny.db.plan.ConventionTraitDef;
 import org.polypheny.db.plan.volcano.AlgSubset;
 import org.polypheny.db.plan.volcano.VolcanoPlanner;
+import org.polypheny.db.plan.volcano.VolcanoPlannerTemplate;
 import org.polypheny.db.sql.volcano.PlannerTests.GoodSingleRule;
 import org.polypheny.db.sql.volcano.PlannerTests.NoneLeafAlg;
 import org.polypheny.db.sql.volcano.PlannerTests.NoneSingleAlg;
@@ -114,6 +115,34 @@ public void testTransformSingleGood() {
     }
 
 
+    /**
+     * Tests transformation of a single+leaf from NONE to PHYS with the rules installed from a template.
+     */
+    @Test
+    public void testTransformSingleGoodWithTemplate() {
+        final PhysLeafRule leafRule = new PhysLeafRule();
+        final VolcanoPlannerTemplate template = new VolcanoPlannerTemplate(
+                Collections.singletonList( ConventionTraitDef.INSTANCE ),
+                Arrays.asList( leafRule, new GoodSingleRule(), leafRule ) );
+        assertEquals( 2, template.getRules().size() );
+
+        // The template can be installed into any number of planners
+        for ( int i = 0; i < 2; i++ ) {
+            VolcanoPlanner planner = new VolcanoPlanner();
+            assertTrue( planner.addRules( template ) );
+            assertEquals( 2, planner.getRules().size() );
+
+            AlgOptCluster cluster = PlannerTests.newCluster( planner );
+            NoneLeafAlg leafRel = new NoneLeafAlg( cluster, "a" );
+            NoneSingleAlg singleRel = new NoneSingleAlg( cluster, leafRel );
+            AlgNode convertedRel = planner.changeTraits( singleRel, cluster.traitSetOf( PlannerTests.PHYS_CALLING_CONVENTION ) );
+            planner.setRoot( convertedRel );
+            AlgNode result = planner.chooseDelegate().findBestExp();
+            assertTrue( result instanceof PhysSingleAlg );
+        }
+    }
+
+
     /**
      * Tests a rule that is fired once per subset (whereas most rules are fired once per alg in a set or alg in a subset)
      */
@@ -61,6 +61,7 @@
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -90,6 +91,7 @@
 import org.apache.commons.lang.StringEscapeUtils;
 import org.eclipse.jetty.websocket.api.Session;
 import org.polypheny.db.PolyImplementation;
+import org.polypheny.db.StatisticsManager;
 import org.polypheny.db.adapter.Adapter;
 import org.polypheny.db.adapter.Adapter.AbstractAdapterSetting;
 import org.polypheny.db.adapter.Adapter.AbstractAdapterSettingDirectory;
@@ -179,6 +181,7 @@
 import org.polypheny.db.util.ImmutableIntList;
 import org.polypheny.db.util.Pair;
 import org.polypheny.db.util.PolyphenyHomeDirManager;
+import org.polypheny.db.webui.PageCursors.KeyColumn;
 import org.polypheny.db.webui.SchemaToJsonMapper.JsonColumn;
 import org.polypheny.db.webui.SchemaToJsonMapper.JsonTable;
 import org.polypheny.db.webui.crud.LanguageCrud;
@@ -203,6 +206,7 @@
 import org.polypheny.db.webui.models.ResultType;
 import org.polypheny.db.webui.models.Schema;
 import org.polypheny.db.webui.models.SidebarElement;
+import org.polypheny.db.webui.models.SortDirection;
 import org.polypheny.db.webui.models.SortState;
 import org.polypheny.db.webui.models.Status;
 import org.polypheny.db.webui.models.TableConstraint;
@@ -258,8 +262,11 @@ public class Crud implements InformationObserver {
 
     /**
      * Returns the content of a table with a maximum of PAGESIZE elements.
+     * If the page boundaries of the session are known, the page is fetched using keyset pagination.
+     *
+     * @param cursors The page boundaries of the session or null to always use OFFSET
      */
-    Result getTable( final UIRequest request ) {
+    Result getTable( final UIRequest request, final PageCursors cursors ) {
         Transaction transaction = getTransaction();
         Result result;
 
@@ -274,20 +281,42 @@ Result getTable( final UIRequest request ) {
         }
         String[] t = request.tableId.split( "\\." );
         String tableId = String.format( "\"%s\".\"%s\"", t[0], t[1] );
+        String view = tableId + where + orderBy;
+        String condition = where;
+        int page = Math.max( 1, request.currentPage );
+        List<KeyColumn> keyColumns = request.noLimit || cursors == null ? null : getKeyColumns( t[0], t[1], request.sortState );
+        int skip = (page - 1) * getPageSize();
+        if ( keyColumns != null ) {
+            if ( page == 1 ) {
+                cursors.reset( view );
+            }
+            Entry<Integer, String[]> boundary = cursors.floor( view, page - 1 );
+            if ( boundary != null ) {
+                String after = PageCursors.after( keyColumns, boundary.getValue() );
+                condition = where.isEmpty() ? " WHERE " + after : where + " AND " + after;
+                skip = (page - 1 - boundary.getKey()) * getPageSize();
+            }
+            orderBy = PageCursors.orderBy( keyColumns );
+        }
         query.append( "SELECT * FROM " )
                 .append( tableId )
-                .append( where )
+                .append( condition )
                 .append( orderBy );
         if ( !request.noLimit ) {
             query.append( " LIMIT " )
-                    .append( getPageSize() )
-                    .append( " OFFSET " )
-                    .append( (Math.max( 0, request.currentPage - 1 )) * getPageSize() );
+                    .append( getPageSize() );
+            if ( skip > 0 ) {
+                query.append( " OFFSET " )
+                        .append( skip );
+            }
         }
 
         try {
             result = executeSqlSelect( transaction.createStatement(), request, query.toString(), request.noLimit );
             result.setXid( transaction.getXid().toString() );
+            if ( keyColumns != null && result.getData().length == getPageSize() ) {
+                cursors.put( view, page, getKey( result, keyColumns ) );
+            }
         } catch ( Exception e ) {
             if ( request.filter != null ) {
                 result = new Result( "Error while filtering table " + request.tableId );
@@ -348,13 +377,23 @@ Result getTable( final UIRequest request ) {
         result.setHeader( cols.toArray( new DbColumn[0] ) );
 
         result.setCurrentPage( request.currentPage ).setTable( request.tableId );
-        int tableSize = 0;
-        try {
-            tableSize = getTableSize( transaction, request );
-        } catch ( Exception e ) {
-            log.error( "Caught exception while determining page size", e );
+        Integer estimatedSize = request.exactCount || !where.isEmpty() ? null : getEstimatedTableSize( catalogTable );
+        if ( estimatedSize != null ) {
+            int highestPage = (int) Math.ceil( (double) estimatedSize / getPageSize() );
+            if ( !request.noLimit && result.getData().length < getPageSize() ) {
+                // This is the last page, no matter what the statistics say
+                highestPage = page;
+            }
+            result.setHighestPage( Math.max( highestPage, page ) ).setHighestPageEstimated( true );
+        } else {
+            int tableSize = 0;
+            try {
+                tableSize = getTableSize( transaction, request );
+            } catch ( Exception e ) {
+                log.error( "Caught exception while determining page size", e );
+            }
+            result.setHighestPage( (int) Math.ceil( (double) tableSize / getPageSize() ) );
         }
-        result.setHighestPage( (int) Math.ceil( (double) tableSize / getPageSize() ) );
         try {
             transaction.commit();
         } catch ( TransactionException e ) {
@@ -3992,6 +4031,86 @@ private int getTableSize( Transaction transaction, final UIRequest request ) thr
     }
 
 
+    /**
+     * Returns the number of rows of a table according to the statistics. These are only fresh if all modifications
+     * are tracked.
+     *
+     * @return The number of rows or null if it is not known
+     */
+    private Integer getEstimatedTableSize( CatalogTable catalogTable ) {
+        if ( !RuntimeConfig.ACTIVE_TRACKING.getBoolean() || catalogTable.entityType != EntityType.ENTITY ) {
+            return null;
+        }
+        return StatisticsManager.getInstance().rowCountPerTable( catalogTable.id );
+    }
+
+
+    /**
+     * Determines the columns used for keyset pagination: the sorted columns followed by the primary key, which makes
+     * the order total.
+     *
+     * @return The key columns or null if keyset pagination is not possible for this table
+     */
+    private List<KeyColumn> getKeyColumns( String schemaName, String tableName, Map<String, SortState> sortState ) {
+        CatalogTable catalogTable;
+        try {
+            catalogTable = catalog.getTable( this.databaseId, schemaName, tableName );
+        } catch ( UnknownTableException e ) {
+            return null;
+        }
+        if ( catalogTable.primaryKey == null ) {
+            return null;
+        }
+        Map<String, SortDirection> directions = new LinkedHashMap<>();
+        if ( sortState != null ) {
+            for ( Entry<String, SortState> entry : sortState.entrySet() ) {
+                if ( entry.getValue().sorting ) {
+                    directions.put( entry.getKey(), entry.getValue().direction );
+                }
+            }
+        }
+        for ( String name : catalog.getPrimaryKey( catalogTable.primaryKey ).getColumnNames() ) {
+            directions.putIfAbsent( name, SortDirection.ASC );
+        }
+
+        List<KeyColumn> keyColumns = new ArrayList<>();
+        for ( Entry<String, SortDirection> entry : directions.entrySet() ) {
+            if ( !catalog.checkIfExistsColumn( catalogTable.id, entry.getKey() ) ) {
+                return null;
+            }
+            CatalogColumn catalogColumn;
+            try {
+                catalogColumn = catalog.getColumn( catalogTable.id, entry.getKey() );
+            } catch ( UnknownColumnException e ) {
+                return null;
+            }
+            // Null values cannot be compared in a keyset predicate
+            if ( catalogColumn.nullable || catalogColumn.collectionsType != null || !PageCursors.isSupported( catalogColumn.type ) ) {
+                return null;
+            }
+            keyColumns.add( new KeyColumn( catalogColumn.name, catalogColumn.type, entry.getValue() ) );
+        }
+        return keyColumns;
+    }
+
+
+    /**
+     * Extracts the values of the key columns of the last row of a result.
+     */
+    private static String[] getKey( Result result, List<KeyColumn> keyColumns ) {
+        String[] lastRow = result.getData()[result.getData().length - 1];
+        String[] key = new String[keyColumns.size()];
+        for ( int i = 0; i < keyColumns.size(); i++ ) {
+            for ( int j = 0; j < result.getHeader().length; j++ ) {
+                if ( result.getHeader()[j].name.equals( keyColumns.get( i ).getName() ) ) {
+                    key[i] = lastRow[j];
+                }
+            }
+        }
+        return key;
+    }
+
+
     /**
      * Get the number of rows that should be displayed in one page in the data view
      */
@@ -31,9 +31,13 @@
 import java.io.InputStreamReader;
 import java.net.SocketException;
 import java.nio.charset.Charset;
+import java.util.concurrent.ThreadFactory;
 import java.util.function.Consumer;
 import javax.servlet.ServletException;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.thread.ExecutorThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.jetbrains.annotations.NotNull;
 import org.polypheny.db.StatusService;
 import org.polypheny.db.adapter.Adapter.AbstractAdapterSetting;
@@ -53,8 +57,10 @@
 import org.polypheny.db.information.InformationGroup;
 import org.polypheny.db.information.InformationPage;
 import org.polypheny.db.information.InformationStacktrace;
+import org.polypheny.db.monitoring.metrics.QueryMetrics;
 import org.polypheny.db.transaction.TransactionManager;
 import org.polypheny.db.type.PolyType;
+import org.polypheny.db.util.VirtualThreads;
 import org.polypheny.db.webui.models.Result;
 
 
@@ -143,6 +149,9 @@ public String toJsonString( @NotNull Object obj ) {
             config.jsonMapper( gsonMapper );
             config.enableCorsForAllOrigins();
             config.addStaticFiles( staticFileConfig -> staticFileConfig.directory = "webapp/" );
+            if ( VirtualThreads.useForRequests( RuntimeConfig.WEBUI_VIRTUAL_THREADS.getBoolean(), "Polypheny-UI" ) ) {
+                config.server( () -> new Server( createVirtualThreadPool() ) );
+            }
         } ).start( RuntimeConfig.WEBUI_SERVER_PORT.getInteger() );
 
         Crud crud = new Crud(
@@ -172,6 +181,20 @@ public String toJsonString( @NotNull Object obj ) {
     }
 
 
+    /**
+     * Creates a thread pool for Jetty which handles every request on a new virtual thread.
+     */
+    private static ThreadPool createVirtualThreadPool() {
+        final ThreadFactory threadFactory = VirtualThreads.threadFactory( "WebUi-", true );
+        return new ExecutorThreadPool( VirtualThreads.newRequestExecutor() ) {
+            @Override
+            protected Thread newThread( Runnable job ) {
+                return threadFactory.newThread( job );
+            }
+        };
+    }
+
+
     private void attachExceptions( Javalin server ) {
         server.exception( SocketException.class, ( e, ctx ) -> {
             ctx.status( 400 ).result( "Error: Could not determine IP address." );
@@ -341,6 +364,8 @@ private void crudRoutes( Javalin webuiServer, Crud crud ) {
 
         webuiServer.get( "/product", ctx -> ctx.result( "Polypheny-DB" ) );
 
+        webuiServer.get( "/metrics", ctx -> ctx.contentType( QueryMetrics.CONTENT_TYPE ).result( QueryMetrics.INSTANCE.toOpenMetrics() ) );
+
     }
 
 
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.webui;
+
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import lombok.Value;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.webui.models.SortDirection;
+
+
+/**
+ * Remembers the sort keys of the last row of every page of a table the UI has loaded. This allows fetching the next
+ * page with a keyset predicate ({@code WHERE (key) > (last key of the previous page)}) instead of skipping all
+ * previous rows with {@code OFFSET}. One instance is held per WebSocket session.
+ */
+class PageCursors {
+
+    /**
+     * Maximum number of table views (table, filter and sort order) for which the page boundaries are remembered.
+     */
+    private static final int MAX_VIEWS = 16;
+
+    private final Map<String, TreeMap<Integer, String[]>> boundaries = new LinkedHashMap<>( MAX_VIEWS, 0.75f, true ) {
+        @Override
+        protected boolean removeEldestEntry( Entry<String, TreeMap<Integer, String[]>> eldest ) {
+            return size() > MAX_VIEWS;
+        }
+    };
+
+
+    /**
+     * Returns the closest known boundary at or before the end of the given page.
+     *
+     * @param view Identifies the table, filter and sort order
+     * @param page The page whose last row is of interest
+     * @return The page number and the key of its last row or null if there is no known boundary
+     */
+    synchronized Entry<Integer, String[]> floor( String view, int page ) {
+        TreeMap<Integer, String[]> pages = boundaries.get( view );
+        if ( pages == null ) {
+            return null;
+        }
+        return pages.floorEntry( page );
+    }
+
+
+    synchronized void put( String view, int page, String[] key ) {
+        boundaries.computeIfAbsent( view, v -> new TreeMap<>() ).put( page, key );
+    }
+
+
+    /**
+     * Forgets all boundaries of a view. Called when the UI requests the first page, since the rows might have been
+     * modified in the meantime.
+     */
+    synchronized void reset( String view ) {
+        boundaries.remove( view );
+    }
+
+
+    /**
+     * Builds the ORDER BY clause for the given key columns.
+     */
+    static String orderBy( List<KeyColumn> columns ) {
+        StringJoiner joiner = new StringJoiner( ",", " ORDER BY ", "" );
+        for ( KeyColumn column : columns ) {
+            joiner.add( "\"" + column.name + "\" " + column.direction );
+        }
+        return joiner.toString();
+    }
+
+
+    /**
+     * Builds a predicate that is true for all rows that are ordered after the given key, e.g. for the key columns
+     * {@code a DESC, b ASC}: {@code ("a" < 5 OR ("a" = 5 AND "b" > 'x'))}.
+     */
+    static String after( List<KeyColumn> columns, String[] key ) {
+        StringJoiner disjunction = new StringJoiner( " OR ", "(", ")" );
+        for ( int i = 0; i < columns.size(); i++ ) {
+            StringJoiner conjunction = new StringJoiner( " AND ", i > 0 ? "(" : "", i > 0 ? ")" : "" );
+            for ( int j = 0; j < i; j++ ) {
+                conjunction.add( "\"" + columns.get( j ).name + "\" = " + literal( columns.get( j ).type, key[j] ) );
+            }
+            KeyColumn column = columns.get( i );
+            String operator = column.direction == SortDirection.DESC ? " < " : " > ";
+            conjunction.add( "\"" + column.name + "\"" + operator + literal( column.type, key[i] ) );
+            disjunction.add( conjunction.toString() );
+        }
+        return disjunction.toString();
+    }
+
+
+    /**
+     * Whether the value of a column of this type can be used in a keyset predicate. This requires the string
+     * representation shown in the UI to be a valid SQL literal of the same value.
+     */
+    static boolean isSupported( PolyType type ) {
+        switch ( type ) {
+            case BOOLEAN:
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+            case DECIMAL:
+            case CHAR:
+            case VARCHAR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+
+    private static String literal( PolyType type, String value ) {
+        switch ( type ) {
+            case CHAR:
+            case VARCHAR:
+                return "'" + value.replace( "'", "''" ) + "'";
+            case BOOLEAN:
+                return Boolean.parseBoolean( value ) ? "TRUE" : "FALSE";
+            default:
+                // Validate the number to not inject anything into the query
+                return new BigDecimal( value ).toPlainString();
+        }
+    }
+
+
+    /**
+     * A column of the key used for keyset pagination.
+     */
+    @Value
+    static class KeyColumn {
+
+        String name;
+        PolyType type;
+        SortDirection direction;
+
+    }
+
+}
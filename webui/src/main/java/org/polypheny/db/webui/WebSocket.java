@@ -26,8 +26,10 @@
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
@@ -53,6 +55,7 @@ public class WebSocket implements Consumer<WsConfig> {
     private static final Queue<Session> sessions = new ConcurrentLinkedQueue<>();
     private final Crud crud;
     private final HashMap<Session, Set<String>> queryAnalyzers = new HashMap<>();
+    private final Map<Session, PageCursors> pageCursors = new ConcurrentHashMap<>();
     private final Gson gson;
 
 
@@ -71,6 +74,7 @@ public void connected( final WsConnectContext ctx ) {
     public void closed( WsCloseContext ctx ) {
         log.debug( "UI disconnected from WebSocket" );
         sessions.remove( ctx.session );
+        pageCursors.remove( ctx.session );
         cleanup( ctx.session );
     }
 
@@ -150,7 +154,7 @@ public void onMessage( final WsMessageContext ctx ) {
                         CatalogSchema namespace = Catalog.getInstance().getSchema( Catalog.defaultDatabaseId, uiRequest.getSchemaName() );
                         switch ( namespace.namespaceType ) {
                             case RELATIONAL:
-                                result = crud.getTable( uiRequest );
+                                result = crud.getTable( uiRequest, pageCursors.computeIfAbsent( ctx.session, s -> new PageCursors() ) );
                                 break;
                             case DOCUMENT:
                                 result = LanguageCrud.anyMongoQuery( ctx.session, new QueryRequest( String.format( "db.%s.find({})", uiRequest.getTableName() ), false, false, "mql", uiRequest.getSchemaName() ), crud.getTransactionManager(), Catalog.defaultUserId, Catalog.defaultDatabaseId, this.crud ).get( 0 );
@@ -63,6 +63,10 @@ public class Result {
      * Information for the pagination: how many pages there can be in total
      */
     private int highestPage;
+    /**
+     * Indicates that the highest page is derived from the statistics and not from counting the rows
+     */
+    private boolean highestPageEstimated;
 
     @Getter
     @Setter
@@ -216,6 +220,9 @@ private Result( JsonReader in ) throws IOException {
                 case "highestPage":
                     highestPage = in.nextInt();
                     break;
+                case "highestPageEstimated":
+                    highestPageEstimated = in.nextBoolean();
+                    break;
                 case "table":
                     table = in.nextString();
                     break;
@@ -378,6 +385,12 @@ public Result setHighestPage( final int highestPage ) {
     }
 
 
+    public Result setHighestPageEstimated( final boolean highestPageEstimated ) {
+        this.highestPageEstimated = highestPageEstimated;
+        return this;
+    }
+
+
     public Result setTable( String table ) {
         this.table = table;
         return this;
@@ -423,6 +436,8 @@ public void write( JsonWriter out, Result result ) throws IOException {
                 out.value( result.currentPage );
                 out.name( "highestPage" );
                 out.value( result.highestPage );
+                out.name( "highestPageEstimated" );
+                out.value( result.highestPageEstimated );
                 out.name( "table" );
                 out.value( result.table );
                 out.name( "tables" );
@@ -76,6 +76,11 @@ public class UIRequest {
      */
     public boolean noLimit;
 
+    /**
+     * Request to count the rows of the table exactly instead of estimating the number of pages from the statistics.
+     */
+    public boolean exactCount;
+
     /**
      * The time interval of the diagram should be fetched from.
      */
@@ -111,6 +116,9 @@ private UIRequest( JsonReader in ) throws IOException {
                 case "noLimit":
                     noLimit = in.nextBoolean();
                     break;
+                case "exactCount":
+                    exactCount = in.nextBoolean();
+                    break;
                 case "selectInterval":
                     selectInterval = in.nextString();
                     break;
@@ -192,6 +200,8 @@ public void write( JsonWriter out, UIRequest value ) throws IOException {
                 sortStateMapAdapter.write( out, value.sortState );
                 out.name( "noLimit" );
                 out.value( value.noLimit );
+                out.name( "exactCount" );
+                out.value( value.exactCount );
                 out.name( "selectInterval" );
                 out.value( value.selectInterval );
                 out.endObject();
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.webui;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.webui.PageCursors.KeyColumn;
+import org.polypheny.db.webui.models.SortDirection;
+
+
+public class PageCursorsTest {
+
+    private static final List<KeyColumn> KEY = Arrays.asList(
+            new KeyColumn( "name", PolyType.VARCHAR, SortDirection.DESC ),
+            new KeyColumn( "id", PolyType.INTEGER, SortDirection.ASC ) );
+
+
+    @Test
+    public void orderBy() {
+        assertEquals( " ORDER BY \"name\" DESC,\"id\" ASC", PageCursors.orderBy( KEY ) );
+    }
+
+
+    @Test
+    public void after() {
+        assertEquals(
+                "(\"name\" < 'O''Brien' OR (\"name\" = 'O''Brien' AND \"id\" > 42))",
+                PageCursors.after( KEY, new String[]{ "O'Brien", "42" } ) );
+        assertEquals(
+                "(\"id\" > -7)",
+                PageCursors.after( KEY.subList( 1, 2 ), new String[]{ "-7" } ) );
+    }
+
+
+    @Test(expected = NumberFormatException.class)
+    public void rejectInvalidNumber() {
+        PageCursors.after( KEY.subList( 1, 2 ), new String[]{ "1 OR 1=1" } );
+    }
+
+
+    @Test
+    public void boundaries() {
+        PageCursors cursors = new PageCursors();
+        assertNull( cursors.floor( "t", 3 ) );
+        cursors.put( "t", 1, new String[]{ "a" } );
+        cursors.put( "t", 2, new String[]{ "b" } );
+        assertArrayEquals( new String[]{ "b" }, cursors.floor( "t", 5 ).getValue() );
+        assertEquals( 1, (int) cursors.floor( "t", 1 ).getKey() );
+        assertNull( cursors.floor( "t", 0 ) );
+        cursors.reset( "t" );
+        assertNull( cursors.floor( "t", 5 ) );
+    }
+
+}